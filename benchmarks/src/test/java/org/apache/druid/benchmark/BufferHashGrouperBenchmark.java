@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.benchmark;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.collections.ResourceHolder;
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.data.input.MapBasedRow;
+import org.apache.druid.java.util.common.ByteBufferUtils;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.query.aggregation.AggregatorAdapters;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
+import org.apache.druid.query.groupby.epinephelinae.BufferHashGrouper;
+import org.apache.druid.query.groupby.epinephelinae.GrouperTestUtil;
+import org.apache.druid.query.groupby.epinephelinae.IntKey;
+import org.apache.druid.query.groupby.epinephelinae.TestColumnSelectorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the probing strategies of {@link BufferHashGrouper}: plain linear probing, and linear probing through
+ * per-bucket fingerprint bytes (see {@link org.apache.druid.query.groupby.epinephelinae.FingerprintByteBufferHashTable}).
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BufferHashGrouperBenchmark
+{
+  static {
+    NullHandling.initializeForTests();
+  }
+
+  private static final int NUM_ROWS = 2_000_000;
+  private static final int BUFFER_SIZE = 128 * 1024 * 1024;
+
+  @Param({"false", "true"})
+  private boolean useFingerprints;
+
+  @Param({"10000", "1000000"})
+  private int cardinality;
+
+  @Param({"0.7", "0.9"})
+  private float maxLoadFactor;
+
+  private ResourceHolder<ByteBuffer> bufferHolder;
+  private BufferHashGrouper<IntKey> grouper;
+  private IntKey[] keys;
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    final TestColumnSelectorFactory columnSelectorFactory = GrouperTestUtil.newColumnSelectorFactory();
+    columnSelectorFactory.setRow(new MapBasedRow(0, ImmutableMap.of("value", 10L)));
+
+    bufferHolder = ByteBufferUtils.allocateDirect(BUFFER_SIZE);
+    grouper = new BufferHashGrouper<>(
+        Suppliers.ofInstance(bufferHolder.get()),
+        GrouperTestUtil.intKeySerde(),
+        AggregatorAdapters.factorizeBuffered(
+            columnSelectorFactory,
+            ImmutableList.of(
+                new LongSumAggregatorFactory("valueSum", "value"),
+                new CountAggregatorFactory("count")
+            )
+        ),
+        Integer.MAX_VALUE,
+        maxLoadFactor,
+        0,
+        true,
+        useFingerprints
+    );
+    grouper.init();
+
+    keys = new IntKey[NUM_ROWS];
+    for (int i = 0; i < NUM_ROWS; i++) {
+      keys[i] = new IntKey(ThreadLocalRandom.current().nextInt(cardinality));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown()
+  {
+    grouper.close();
+    bufferHolder.close();
+  }
+
+  @Benchmark
+  public int aggregate()
+  {
+    grouper.reset();
+
+    for (IntKey key : keys) {
+      if (!grouper.aggregate(key).isOk()) {
+        throw new ISE("Grouper is full");
+      }
+    }
+
+    return grouper.getSize();
+  }
+}
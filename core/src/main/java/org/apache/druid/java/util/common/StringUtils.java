@@ -181,6 +181,40 @@ public class StringUtils
     return toUtf8(string);
   }
 
+  /**
+   * Compares two UTF-8 byte arrays in the order of the Strings they encode, that is, {@link String#compareTo}, without
+   * decoding them. Unsigned byte order is code point order, which differs from the UTF-16 order of Java Strings for
+   * supplementary characters, whose surrogates sort before U+E000 to U+FFFF.
+   */
+  public static int compareUtf8UsingJavaStringOrdering(final byte[] a, final byte[] b)
+  {
+    final int commonLength = Math.min(a.length, b.length);
+    for (int i = 0; i < commonLength; i++) {
+      if (a[i] != b[i]) {
+        return compareUtf8UsingJavaStringOrdering(a[i], b[i]);
+      }
+    }
+    return Integer.compare(a.length, b.length);
+  }
+
+  /**
+   * Compares the first differing bytes of two UTF-8 sequences with equal prefixes, in the order of the Strings they
+   * encode. Both bytes are at the same character boundary, so they are either both continuation bytes of characters
+   * with the same lead byte, or both leading bytes.
+   */
+  public static int compareUtf8UsingJavaStringOrdering(final byte a, final byte b)
+  {
+    return Integer.compare(utf8ByteInJavaStringOrder(a), utf8ByteInJavaStringOrder(b));
+  }
+
+  private static int utf8ByteInJavaStringOrder(final byte b)
+  {
+    final int unsigned = Byte.toUnsignedInt(b);
+    // 0xEE and 0xEF lead U+E000 to U+FFFF, which come after supplementary characters (lead bytes 0xF0 to 0xF4) in
+    // UTF-16. No UTF-8 byte is above 0xF4, so moving them up to 0xFE and 0xFF is enough.
+    return unsigned == 0xEE || unsigned == 0xEF ? unsigned + 0x10 : unsigned;
+  }
+
   /**
    * Equivalent of String.format(Locale.ENGLISH, message, formatArgs).
    */
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.java.util.common.guava;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * A {@link Sequence} with a future that is done once the sequence can produce its first results without waiting for
+ * them, such as the results of a query sent to another server once its response starts to arrive. The future fails if
+ * the sequence will fail, which iterating the sequence reports as usual.
+ *
+ * This lets consumers of many such sequences, like the adaptive mode of {@link ParallelMergeCombiningSequence}, open
+ * each sequence once it is ready, rather than blocking on them one at a time in the order they were supplied.
+ */
+public class AsyncReadySequence<T> implements Sequence<T>
+{
+  private final Sequence<T> baseSequence;
+  private final ListenableFuture<?> readyFuture;
+
+  public AsyncReadySequence(Sequence<T> baseSequence, ListenableFuture<?> readyFuture)
+  {
+    this.baseSequence = baseSequence;
+    this.readyFuture = readyFuture;
+  }
+
+  /**
+   * Returns "sequence", which is made from the results of "source", such as with {@link Sequence#map}, with the ready
+   * future of "source" if it has one.
+   */
+  public static <T> Sequence<T> withReadyFutureOf(Sequence<?> source, Sequence<T> sequence)
+  {
+    if (source instanceof AsyncReadySequence) {
+      return new AsyncReadySequence<>(sequence, ((AsyncReadySequence<?>) source).getReadyFuture());
+    }
+    return sequence;
+  }
+
+  public ListenableFuture<?> getReadyFuture()
+  {
+    return readyFuture;
+  }
+
+  @Override
+  public <OutType> OutType accumulate(OutType initValue, Accumulator<OutType, T> accumulator)
+  {
+    return baseSequence.accumulate(initValue, accumulator);
+  }
+
+  @Override
+  public <OutType> Yielder<OutType> toYielder(OutType initValue, YieldingAccumulator<OutType, T> accumulator)
+  {
+    return baseSequence.toYielder(initValue, accumulator);
+  }
+}
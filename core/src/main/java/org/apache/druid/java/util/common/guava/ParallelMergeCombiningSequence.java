@@ -23,6 +23,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
 import org.apache.druid.java.util.common.RE;
+import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.query.QueryTimeoutException;
@@ -36,6 +37,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -44,8 +46,13 @@ import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BinaryOperator;
@@ -59,6 +66,10 @@ import java.util.function.Consumer;
  *
  * Functionally equivalent to wrapping {@link org.apache.druid.common.guava.CombiningSequence} around a
  * {@link MergeSequence}, but done in parallel on a {@link ForkJoinPool} running in 'async' mode.
+ *
+ * In 'adaptive' mode, the inputs of a parallel merge are not split into a fixed set of partitions up front, but are
+ * grouped into layer 1 merge tasks as they start producing results, see {@link AdaptiveMergeCombineGrouper}. Inputs
+ * that are {@link AsyncReadySequence} are only opened once they are ready, so no thread waits on them.
  */
 public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
 {
@@ -81,6 +92,7 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
   private final int batchSize;
   private final int parallelism;
   private final long targetTimeNanos;
+  private final boolean adaptive;
   private final Consumer<MergeCombineMetrics> metricsReporter;
 
   private final CancellationGizmo cancellationGizmo;
@@ -99,6 +111,39 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
       int targetTimeMillis,
       Consumer<MergeCombineMetrics> reporter
   )
+  {
+    this(
+        workerPool,
+        inputSequences,
+        orderingFn,
+        combineFn,
+        hasTimeout,
+        timeoutMillis,
+        queryPriority,
+        parallelism,
+        yieldAfter,
+        batchSize,
+        targetTimeMillis,
+        false,
+        reporter
+    );
+  }
+
+  public ParallelMergeCombiningSequence(
+      ForkJoinPool workerPool,
+      List<Sequence<T>> inputSequences,
+      Ordering<T> orderingFn,
+      BinaryOperator<T> combineFn,
+      boolean hasTimeout,
+      long timeoutMillis,
+      int queryPriority,
+      int parallelism,
+      int yieldAfter,
+      int batchSize,
+      int targetTimeMillis,
+      boolean adaptive,
+      Consumer<MergeCombineMetrics> reporter
+  )
   {
     this.workerPool = workerPool;
     this.inputSequences = inputSequences;
@@ -111,6 +156,7 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
     this.batchSize = batchSize;
     this.targetTimeNanos = TimeUnit.NANOSECONDS.convert(targetTimeMillis, TimeUnit.MILLISECONDS);
     this.queueSize = 4 * (yieldAfter / batchSize);
+    this.adaptive = adaptive;
     this.metricsReporter = reporter;
     this.cancellationGizmo = new CancellationGizmo();
   }
@@ -136,6 +182,7 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
         targetTimeNanos,
         hasTimeout,
         timeoutAtNanos,
+        adaptive,
         metricsAccumulator,
         cancellationGizmo
     );
@@ -279,6 +326,7 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
     private final long targetTimeNanos;
     private final boolean hasTimeout;
     private final long timeoutAt;
+    private final boolean adaptive;
     private final MergeCombineMetricsAccumulator metricsAccumulator;
     private final CancellationGizmo cancellationGizmo;
 
@@ -294,6 +342,7 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
         long targetTimeNanos,
         boolean hasTimeout,
         long timeoutAt,
+        boolean adaptive,
         MergeCombineMetricsAccumulator metricsAccumulator,
         CancellationGizmo cancellationGizmo
     )
@@ -309,6 +358,7 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
       this.targetTimeNanos = targetTimeNanos;
       this.hasTimeout = hasTimeout;
       this.timeoutAt = timeoutAt;
+      this.adaptive = adaptive;
       this.metricsAccumulator = metricsAccumulator;
       this.cancellationGizmo = cancellationGizmo;
     }
@@ -350,6 +400,14 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
               cancellationGizmo
           );
           getPool().execute(blockForInputsAction);
+        } else if (adaptive) {
+          // 2 layer parallel merge done in fjp, with layer 1 tasks formed as inputs start producing results
+          LOG.debug(
+              "Grouping %s sequences into at most %s adaptive parallel merge-combine tasks",
+              sequences.size(),
+              parallelTaskCount
+          );
+          spawnAdaptiveTasks(parallelTaskCount);
         } else {
           // 2 layer parallel merge done in fjp
           LOG.debug("Spawning %s parallel merge-combine tasks for %s sequences", parallelTaskCount, sequences.size());
@@ -432,6 +490,51 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
       getPool().execute(finalMergeAction);
     }
 
+    private void spawnAdaptiveTasks(int parallelMergeTasks)
+    {
+      final ForkJoinPool pool = getPool();
+      final AdaptiveMergeCombineGrouper<T> grouper = new AdaptiveMergeCombineGrouper<>(
+          pool,
+          sequences.size(),
+          orderingFn,
+          combineFn,
+          out,
+          queueSize,
+          parallelMergeTasks,
+          yieldAfter,
+          batchSize,
+          targetTimeNanos,
+          hasTimeout,
+          timeoutAt,
+          metricsAccumulator,
+          cancellationGizmo
+      );
+      grouper.start();
+
+      final Queue<YielderBatchedResultsCursor<T>> unsignaled = new ConcurrentLinkedQueue<>();
+      for (Sequence<T> s : sequences) {
+        final YielderBatchedResultsCursor<T> cursor =
+            new YielderBatchedResultsCursor<>(new SequenceBatcher<>(s, batchSize), orderingFn);
+        if (s instanceof AsyncReadySequence) {
+          // open the input once it is ready, so that no task waits on it, and inputs are opened as they become ready
+          ((AsyncReadySequence<T>) s).getReadyFuture().addListener(
+              () -> pool.execute(new OpenInputAction<>(cursor, null, grouper, cancellationGizmo)),
+              Execs.directExecutor()
+          );
+        } else {
+          unsignaled.add(cursor);
+        }
+      }
+
+      // inputs that cannot tell when they are ready are waited on by a bounded number of tasks, so that a merge of
+      // many inputs does not make the pool spawn a compensating thread for every input that is blocked on its first
+      // results
+      final int numWaiters = Math.min(unsignaled.size(), parallelism);
+      for (int i = 0; i < numWaiters; i++) {
+        pool.execute(new OpenInputAction<>(unsignaled.poll(), unsignaled, grouper, cancellationGizmo));
+      }
+    }
+
     /**
      * Computes maximum number of layer 1 parallel merging tasks given available processors and an estimate of current
      * {@link ForkJoinPool} utilization. A return value of 1 or less indicates that a serial merge will be done on
@@ -458,8 +561,8 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
       // significantly more work to do than the layer 1 'parallel' tasks.
       final int computedParallelismForSequences = (int) Math.floor(Math.sqrt(sequences.size()));
 
-      // compute total number of layer 1 'parallel' tasks, for the utilization parallelism, subtract 1 as the final merge
-      // task will take the remaining slot
+      // compute total number of layer 1 'parallel' tasks, for the utilization parallelism, subtract 1 as the final
+      // merge task will take the remaining slot
       final int computedOptimalParallelism = Math.min(
           computedParallelismForSequences,
           computedParallelismForUtilization - 1
@@ -486,6 +589,364 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
     }
   }
 
+  /**
+   * This {@link RecursiveAction} opens an input of an adaptive parallel merge, waiting for its
+   * {@link YielderBatchedResultsCursor} to produce its first {@link ResultBatch} (which is a potentially managed
+   * blocking operation, unless the input is an {@link AsyncReadySequence} that is already ready), and then hands it off
+   * to the {@link AdaptiveMergeCombineGrouper}.
+   *
+   * Inputs that are {@link AsyncReadySequence} get a task of their own once they are ready. The others are queued, and
+   * opened in turn by a fixed number of these tasks, each of which executes a new task to open the next of them.
+   */
+  @SuppressWarnings("serial")
+  private static class OpenInputAction<T> extends RecursiveAction
+  {
+    private final YielderBatchedResultsCursor<T> cursor;
+    @Nullable
+    private final Queue<YielderBatchedResultsCursor<T>> unsignaled;
+    private final AdaptiveMergeCombineGrouper<T> grouper;
+    private final CancellationGizmo cancellationGizmo;
+
+    private OpenInputAction(
+        YielderBatchedResultsCursor<T> cursor,
+        @Nullable Queue<YielderBatchedResultsCursor<T>> unsignaled,
+        AdaptiveMergeCombineGrouper<T> grouper,
+        CancellationGizmo cancellationGizmo
+    )
+    {
+      this.cursor = cursor;
+      this.unsignaled = unsignaled;
+      this.grouper = grouper;
+      this.cancellationGizmo = cancellationGizmo;
+    }
+
+    @Override
+    protected void compute()
+    {
+      // once the merge has failed there is no need to open any more inputs
+      if (!cancellationGizmo.isCancelled()) {
+        try {
+          // this is blocking
+          cursor.initialize();
+        }
+        catch (Throwable t) {
+          cancellationGizmo.cancel(t);
+        }
+      }
+      // always hand off the input, even if it failed, so that the grouper knows it is no longer waiting on it
+      grouper.arrived(cursor);
+      if (unsignaled != null) {
+        final YielderBatchedResultsCursor<T> next = unsignaled.poll();
+        if (next != null) {
+          getPool().execute(new OpenInputAction<>(next, unsignaled, grouper, cancellationGizmo));
+        }
+      }
+    }
+  }
+
+  /**
+   * This is the adaptive counterpart of the partitioning done by
+   * {@link MergeCombinePartitioningAction#spawnParallelTasks}.
+   * Instead of splitting the input sequences into a fixed set of partitions in the order they were supplied, which
+   * leaves every partition that contains a slow input waiting on it, inputs are grouped into layer 1
+   * {@link MergeCombineAction} tasks in 'waves', in the order {@link OpenInputAction} opens them.
+   *
+   * A wave starts with the first input that arrives after the previous wave, and takes every input that arrives
+   * within as much time again as the wave took to start, measured from the start of the merge. Inputs which respond
+   * at about the same rate are merged together, while stragglers end up in later waves of their own, so that they
+   * never hold up the merging of the faster inputs. This also means the wait for each wave is at least double that of
+   * the previous one, so the number of waves stays small.
+   *
+   * Within a wave, inputs are spread over the layer 1 tasks by the number of rows they have produced so far, where
+   * inputs which were completely read into their first {@link ResultBatch} count only their actual rows, so that
+   * a group of small inputs is not merged by the same task as the large ones. The number of layer 1 tasks for the wave
+   * is computed from its number of inputs in the same manner as {@link MergeCombinePartitioningAction}, and limited to
+   * the tasks the earlier waves left over, except that every wave gets at least one task.
+   *
+   * Once all inputs have arrived, the final layer 2 merge is done the same as for a non-adaptive parallel merge.
+   *
+   * The grouper holds no thread while it waits for inputs. Inputs are handed to it as they are opened, and waves are
+   * closed, and the merge timed out, by a timer shared by all merges, which hands that work off to the pool.
+   */
+  private static class AdaptiveMergeCombineGrouper<T>
+  {
+    private static final long MIN_WAVE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final ScheduledExecutorService TIMER = makeTimer();
+
+    private final ForkJoinPool pool;
+    private final long startNanos;
+    private final int numInputs;
+    private final Ordering<T> orderingFn;
+    private final BinaryOperator<T> combineFn;
+    private final BlockingQueue<ResultBatch<T>> out;
+    private final int queueSize;
+    private final int yieldAfter;
+    private final int batchSize;
+    private final long targetTimeNanos;
+    private final boolean hasTimeout;
+    private final long timeoutAt;
+    private final MergeCombineMetricsAccumulator metricsAccumulator;
+    private final CancellationGizmo cancellationGizmo;
+
+    private final List<YielderBatchedResultsCursor<T>> wave = new ArrayList<>();
+    private final List<BatchedResultsCursor<T>> intermediaryOutputsCursors = new ArrayList<>();
+    // partition metrics are added as waves are spawned, and might be read if the output is closed early
+    private final List<MergeCombineActionMetricsAccumulator> taskMetrics = new CopyOnWriteArrayList<>();
+    private final MergeCombineActionMetricsAccumulator finalMergeMetrics = new MergeCombineActionMetricsAccumulator();
+
+    private int pendingInputs;
+    private int availableTasks;
+    private int closedWaves = 0;
+    private boolean done = false;
+    @Nullable
+    private ScheduledFuture<?> waveTimer;
+    @Nullable
+    private ScheduledFuture<?> timeoutTimer;
+
+    private AdaptiveMergeCombineGrouper(
+        ForkJoinPool pool,
+        int numInputs,
+        Ordering<T> orderingFn,
+        BinaryOperator<T> combineFn,
+        BlockingQueue<ResultBatch<T>> out,
+        int queueSize,
+        int parallelism,
+        int yieldAfter,
+        int batchSize,
+        long targetTimeNanos,
+        boolean hasTimeout,
+        long timeoutAt,
+        MergeCombineMetricsAccumulator metricsAccumulator,
+        CancellationGizmo cancellationGizmo
+    )
+    {
+      this.pool = pool;
+      this.startNanos = System.nanoTime();
+      this.numInputs = numInputs;
+      this.orderingFn = orderingFn;
+      this.combineFn = combineFn;
+      this.out = out;
+      this.queueSize = queueSize;
+      this.yieldAfter = yieldAfter;
+      this.batchSize = batchSize;
+      this.targetTimeNanos = targetTimeNanos;
+      this.hasTimeout = hasTimeout;
+      this.timeoutAt = timeoutAt;
+      this.metricsAccumulator = metricsAccumulator;
+      this.cancellationGizmo = cancellationGizmo;
+      this.pendingInputs = numInputs;
+      this.availableTasks = parallelism;
+    }
+
+    private static ScheduledExecutorService makeTimer()
+    {
+      final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(
+          1,
+          Execs.makeThreadFactory("parallel-merge-adaptive-timer-%d")
+      );
+      // merges usually finish long before they would time out, so do not keep their timeouts around until then
+      timer.setRemoveOnCancelPolicy(true);
+      return timer;
+    }
+
+    synchronized void start()
+    {
+      metricsAccumulator.setPartitions(taskMetrics);
+      metricsAccumulator.setMergeMetrics(finalMergeMetrics);
+      if (hasTimeout) {
+        timeoutTimer = TIMER.schedule(
+            () -> pool.execute(this::timedOut),
+            timeoutAt - System.nanoTime(),
+            TimeUnit.NANOSECONDS
+        );
+      }
+    }
+
+    /**
+     * Takes an input that was opened, or failed to open, by {@link OpenInputAction}.
+     */
+    synchronized void arrived(YielderBatchedResultsCursor<T> cursor)
+    {
+      pendingInputs--;
+      if (done || cancellationGizmo.isCancelled()) {
+        closeAllCursors(Collections.singletonList(cursor));
+        fail();
+        return;
+      }
+
+      wave.add(cursor);
+      if (pendingInputs == 0) {
+        closeWave();
+        finish();
+      } else if (wave.size() == 1) {
+        final long waveNanos = Math.max(System.nanoTime() - startNanos, MIN_WAVE_NANOS);
+        final int waveNumber = closedWaves;
+        waveTimer = TIMER.schedule(
+            () -> pool.execute(() -> waveTimedOut(waveNumber)),
+            waveNanos,
+            TimeUnit.NANOSECONDS
+        );
+      }
+    }
+
+    private synchronized void waveTimedOut(int waveNumber)
+    {
+      if (done || closedWaves != waveNumber) {
+        return;
+      }
+      if (cancellationGizmo.isCancelled()) {
+        fail();
+      } else {
+        closeWave();
+      }
+    }
+
+    private synchronized void timedOut()
+    {
+      if (!done) {
+        cancellationGizmo.cancel(new QueryTimeoutException("Adaptive merge timed out waiting for input sequences"));
+        fail();
+      }
+    }
+
+    private void closeWave()
+    {
+      closedWaves++;
+      if (waveTimer != null) {
+        waveTimer.cancel(false);
+        waveTimer = null;
+      }
+      final List<YielderBatchedResultsCursor<T>> inputs = new ArrayList<>(wave);
+      wave.clear();
+      availableTasks -= spawnWaveTasks(inputs);
+    }
+
+    private void finish()
+    {
+      done = true;
+      cancelTimeout();
+      LOG.debug("Spawned %s adaptive parallel merge-combine tasks for %s sequences", taskMetrics.size(), numInputs);
+      pool.execute(
+          new PrepareMergeCombineInputsAction<>(
+              intermediaryOutputsCursors,
+              new QueuePusher<>(out, hasTimeout, timeoutAt),
+              orderingFn,
+              combineFn,
+              yieldAfter,
+              batchSize,
+              targetTimeNanos,
+              finalMergeMetrics,
+              cancellationGizmo
+          )
+      );
+    }
+
+    /**
+     * Closes the inputs of the current wave and ends the output once the merge has failed. Inputs which arrive later
+     * are closed as they do, and tasks of earlier waves stop by themselves.
+     */
+    private void fail()
+    {
+      if (done) {
+        return;
+      }
+      done = true;
+      cancelTimeout();
+      if (waveTimer != null) {
+        waveTimer.cancel(false);
+        waveTimer = null;
+      }
+      closeAllCursors(wave);
+      wave.clear();
+      out.offer(ResultBatch.TERMINAL);
+    }
+
+    private void cancelTimeout()
+    {
+      if (timeoutTimer != null) {
+        timeoutTimer.cancel(false);
+        timeoutTimer = null;
+      }
+    }
+
+    /**
+     * Spawns the layer 1 {@link MergeCombineAction} tasks for a wave of inputs, adding the cursors for their output to
+     * the final merge inputs, and returns the number of tasks spawned.
+     */
+    private int spawnWaveTasks(List<YielderBatchedResultsCursor<T>> waveInputs)
+    {
+      final List<YielderBatchedResultsCursor<T>> inputs = new ArrayList<>(waveInputs.size());
+      for (YielderBatchedResultsCursor<T> cursor : waveInputs) {
+        if (cursor.isDone()) {
+          closeAllCursors(Collections.singletonList(cursor));
+        } else {
+          inputs.add(cursor);
+        }
+      }
+      if (inputs.isEmpty()) {
+        return 0;
+      }
+
+      final int numTasks = Math.max(Math.min((int) Math.floor(Math.sqrt(inputs.size())), availableTasks), 1);
+      final List<PriorityQueue<BatchedResultsCursor<T>>> groups = new ArrayList<>(numTasks);
+      final long[] groupRows = new long[numTasks];
+      for (int i = 0; i < numTasks; i++) {
+        groups.add(new PriorityQueue<>());
+      }
+
+      // hand out the largest inputs first, each to the group with the fewest rows so far
+      inputs.sort(Comparator.comparingLong(this::estimateRows).reversed());
+      for (YielderBatchedResultsCursor<T> cursor : inputs) {
+        int smallest = 0;
+        for (int i = 1; i < numTasks; i++) {
+          if (groupRows[i] < groupRows[smallest]) {
+            smallest = i;
+          }
+        }
+        groups.get(smallest).offer(cursor);
+        groupRows[smallest] += estimateRows(cursor);
+      }
+
+      LOG.debug(
+          "Spawning %s adaptive parallel merge-combine tasks for a wave of %s sequences",
+          numTasks,
+          waveInputs.size()
+      );
+      for (PriorityQueue<BatchedResultsCursor<T>> group : groups) {
+        final BlockingQueue<ResultBatch<T>> outputQueue = new ArrayBlockingQueue<>(queueSize);
+        intermediaryOutputsCursors.add(
+            new BlockingQueueuBatchedResultsCursor<>(outputQueue, orderingFn, hasTimeout, timeoutAt)
+        );
+        final MergeCombineActionMetricsAccumulator groupAccumulator = new MergeCombineActionMetricsAccumulator();
+        taskMetrics.add(groupAccumulator);
+        // the cursors are already initialized, so they can be merged right away
+        pool.execute(
+            new MergeCombineAction<>(
+                group,
+                new QueuePusher<>(outputQueue, hasTimeout, timeoutAt),
+                orderingFn,
+                combineFn,
+                null,
+                yieldAfter,
+                batchSize,
+                targetTimeNanos,
+                groupAccumulator,
+                cancellationGizmo
+            )
+        );
+      }
+      return numTasks;
+    }
+
+    /**
+     * Inputs which did not fit in their first {@link ResultBatch} have at least another batch worth of rows to come.
+     */
+    private long estimateRows(YielderBatchedResultsCursor<T> cursor)
+    {
+      return cursor.resultBatch.size() + (cursor.yielder.isDone() ? 0 : batchSize);
+    }
+  }
+
   /**
    * This {@link RecursiveAction} is the work-horse of the {@link ParallelMergeCombiningSequence}, it merge-combines
    * a set of {@link BatchedResultsCursor} and produces output to a {@link BlockingQueue} with the help of a
@@ -625,7 +1086,8 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
           final int adjustedNextYieldAfter = (int) Math.ceil(cumulativeMovingAverage);
 
           LOG.debug(
-              "task recursion %s yielded %s results ran for %s millis (%s nanos), %s cpu nanos, next task yielding every %s operations",
+              "task recursion %s yielded %s results ran for %s millis (%s nanos), %s cpu nanos, "
+              + "next task yielding every %s operations",
               recursionDepth,
               yieldAfter,
               TimeUnit.MILLISECONDS.convert(elapsedNanos, TimeUnit.NANOSECONDS),
@@ -861,6 +1323,12 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
       return values.poll();
     }
 
+    int size()
+    {
+      assert values != null;
+      return values.size();
+    }
+
     boolean isDrained()
     {
       return values != null && values.isEmpty();
@@ -1378,7 +1846,7 @@ public class ParallelMergeCombiningSequence<T> extends YieldingSequenceBase<T>
     }
   }
 
-  private static <T> void closeAllCursors(final Collection<BatchedResultsCursor<T>> cursors)
+  private static <T> void closeAllCursors(final Collection<? extends BatchedResultsCursor<T>> cursors)
   {
     Closer closer = Closer.create();
     closer.registerAll(cursors);
@@ -52,6 +52,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 /**
  * A class that concatenates files together into configurable sized chunks,
@@ -75,6 +76,7 @@ public class FileSmoosher implements Closeable
   private static final String FILE_EXTENSION = "smoosh";
   private static final Joiner JOINER = Joiner.on(",");
   private static final Logger LOG = new Logger(FileSmoosher.class);
+  private static final Pattern CHUNK_FILE_NAME = Pattern.compile("\\d+\\." + FILE_EXTENSION);
 
   private final File baseDir;
   private final int maxChunkSize;
@@ -122,6 +124,14 @@ public class FileSmoosher implements Closeable
     return new File(baseDir, StringUtils.format("%05d.%s", i, FILE_EXTENSION));
   }
 
+  /**
+   * Whether the given file name is the name of a chunk file, as opposed to the meta file or any other file.
+   */
+  public static boolean isChunkFile(String fileName)
+  {
+    return CHUNK_FILE_NAME.matcher(fileName).matches();
+  }
+
   public void add(File fileToAdd) throws IOException
   {
     add(fileToAdd.getName(), fileToAdd);
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.java.util.common.io.smoosh;
+
+/**
+ * Passed to {@link SmooshedFileMapper#load(java.io.File, PartCopyListener)} by the process that partially loaded a
+ * base directory, to account for the disk space taken by the internal files copied into it on first access.
+ */
+public interface PartCopyListener
+{
+  /**
+   * Called before copying an internal file of the given size into the base directory. Returns false to refuse the
+   * copy, for example if there is no room left for it, in which case mapping the file fails.
+   */
+  boolean beforeCopy(long numBytes);
+
+  /**
+   * Called if a copy that {@link #beforeCopy} allowed failed, and left nothing behind.
+   */
+  void copyFailed(long numBytes);
+}
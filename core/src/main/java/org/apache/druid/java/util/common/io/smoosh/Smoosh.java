@@ -19,6 +19,7 @@
 
 package org.apache.druid.java.util.common.io.smoosh;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 
@@ -31,4 +32,9 @@ public class Smoosh
   {
     return SmooshedFileMapper.load(inDir);
   }
+
+  public static SmooshedFileMapper map(File inDir, @Nullable PartCopyListener partCopyListener) throws IOException
+  {
+    return SmooshedFileMapper.load(inDir, partCopyListener);
+  }
 }
@@ -22,35 +22,107 @@ package org.apache.druid.java.util.common.io.smoosh;
 import com.google.common.collect.Interner;
 import com.google.common.collect.Interners;
 import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Closeables;
 import com.google.common.io.Files;
 import org.apache.druid.java.util.common.ByteBufferUtils;
+import org.apache.druid.java.util.common.FileUtils;
+import org.apache.druid.java.util.common.IOE;
 import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.StringUtils;
 
+import javax.annotation.Nullable;
 import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * Class that works in conjunction with FileSmoosher.  This class knows how to map in a set of files smooshed
  * by the FileSmoosher.
+ *
+ * The base directory may also be loaded partially, with {@link #SOURCE_FILE_NAME} in place of the chunk files. Each
+ * internal file is then copied from the chunk files of the source on first access, by reading just its byte range,
+ * and kept in {@link #PARTS_DIR_NAME} for later loads. The source is either a directory with the chunk files, or a
+ * zip file with them as entries. Zip entries of chunk files must be stored without compression, see
+ * {@link #canReadInPlace}, so that the byte range of an internal file can be read without inflating the entry up to
+ * it. The process that loaded the base directory can account for the disk space the copied parts take with a
+ * {@link PartCopyListener}.
  */
 public class SmooshedFileMapper implements Closeable
 {
+  /**
+   * Name of the file that holds the path of the directory or zip file with the chunk files of a partially loaded base
+   * directory.
+   */
+  public static final String SOURCE_FILE_NAME = "smoosh.source";
+
+  private static final String PARTS_DIR_NAME = "parts";
+
   private static final Interner<String> STRING_INTERNER = Interners.newWeakInterner();
 
+  /**
+   * Marks the given base directory, which must have the meta file of the smooshed files in the given source directory
+   * or zip file but not their chunk files, as partially loaded from the source.
+   */
+  public static void writeSource(File baseDir, File source) throws IOException
+  {
+    Files.write(StringUtils.toUtf8(source.getAbsolutePath()), new File(baseDir, SOURCE_FILE_NAME));
+  }
+
+  /**
+   * Whether a base directory can be loaded partially from the given source directory or zip file, see
+   * {@link #writeSource}. That needs the chunk files in a zip file to be stored without compression, which is not what
+   * {@link org.apache.druid.utils.CompressionUtils#zip} does; their internal files would otherwise have to be inflated
+   * from the start of the entry every time one is copied.
+   */
+  public static boolean canReadInPlace(File source) throws IOException
+  {
+    if (source.isDirectory()) {
+      return true;
+    }
+    try (ZipFile zipFile = new ZipFile(source)) {
+      final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        final ZipEntry entry = entries.nextElement();
+        if (FileSmoosher.isChunkFile(entry.getName()) && entry.getMethod() != ZipEntry.STORED) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
   public static SmooshedFileMapper load(File baseDir) throws IOException
+  {
+    return load(baseDir, null);
+  }
+
+  /**
+   * Like {@link #load(File)}, but if the base directory was loaded partially, calls the given listener for each
+   * internal file copied into it.
+   */
+  public static SmooshedFileMapper load(File baseDir, @Nullable PartCopyListener partCopyListener) throws IOException
   {
     File metaFile = FileSmoosher.metaFile(baseDir);
 
@@ -90,7 +162,13 @@ public class SmooshedFileMapper implements Closeable
         );
       }
 
-      return new SmooshedFileMapper(outFiles, internalFiles);
+      final File sourceFile = new File(baseDir, SOURCE_FILE_NAME);
+      if (sourceFile.exists()) {
+        final File source = new File(StringUtils.fromUtf8(Files.toByteArray(sourceFile)).trim());
+        return new SmooshedFileMapper(outFiles, internalFiles, baseDir, source, partCopyListener);
+      }
+
+      return new SmooshedFileMapper(outFiles, internalFiles, null, null, null);
     }
     finally {
       Closeables.close(in, false);
@@ -101,13 +179,41 @@ public class SmooshedFileMapper implements Closeable
   private final Map<String, Metadata> internalFiles;
   private final List<MappedByteBuffer> buffersList = new ArrayList<>();
 
+  @Nullable
+  private final File partsDir;
+  @Nullable
+  private final File source;
+  @Nullable
+  private final PartCopyListener partCopyListener;
+  private final Map<String, MappedByteBuffer> partBuffers = new HashMap<>();
+
+  /**
+   * Locks of the parts being mapped, so that each part is copied once without holding the lock of the mapper.
+   */
+  private final Map<String, Object> partLocks = new ConcurrentHashMap<>();
+
   private SmooshedFileMapper(
       List<File> outFiles,
-      Map<String, Metadata> internalFiles
+      Map<String, Metadata> internalFiles,
+      @Nullable File baseDir,
+      @Nullable File source,
+      @Nullable PartCopyListener partCopyListener
   )
   {
     this.outFiles = outFiles;
     this.internalFiles = internalFiles;
+    this.partsDir = baseDir == null ? null : new File(baseDir, PARTS_DIR_NAME);
+    this.source = source;
+    this.partCopyListener = partCopyListener;
+  }
+
+  /**
+   * Whether the base directory was loaded partially, so that internal files are copied from the source on first
+   * access.
+   */
+  public boolean isPartial()
+  {
+    return source != null;
   }
 
   public Set<String> getInternalFilenames()
@@ -125,6 +231,9 @@ public class SmooshedFileMapper implements Closeable
     if (metadata == null) {
       return null;
     }
+    if (source != null) {
+      return mapPart(metadata);
+    }
 
     final int fileNum = metadata.getFileNum();
     while (buffersList.size() <= fileNum) {
@@ -142,11 +251,127 @@ public class SmooshedFileMapper implements Closeable
     return retVal.slice();
   }
 
+  /**
+   * Maps the internal file with the given metadata from {@link #partsDir}, copying it from the source first if no
+   * earlier load did. Columns of lazily loaded segments map their files concurrently, so parts are copied under
+   * a lock of their own, and only published to {@link #partBuffers} under the lock of the mapper.
+   */
+  private ByteBuffer mapPart(Metadata metadata) throws IOException
+  {
+    final String partName = StringUtils.format(
+        "%05d_%d_%d.part",
+        metadata.getFileNum(),
+        metadata.getStartOffset(),
+        metadata.getEndOffset()
+    );
+    synchronized (partLocks.computeIfAbsent(partName, k -> new Object())) {
+      MappedByteBuffer mappedBuffer;
+      synchronized (this) {
+        mappedBuffer = partBuffers.get(partName);
+      }
+      if (mappedBuffer == null) {
+        final File partFile = new File(partsDir, partName);
+        if (!partFile.exists()) {
+          final long numBytes = metadata.getEndOffset() - metadata.getStartOffset();
+          if (partCopyListener != null && !partCopyListener.beforeCopy(numBytes)) {
+            throw new IOE("No room to copy [%,d] bytes of [%s] into [%s]", numBytes, source, partsDir);
+          }
+          try {
+            copyPart(metadata, partFile);
+          }
+          catch (Throwable t) {
+            if (partCopyListener != null) {
+              partCopyListener.copyFailed(numBytes);
+            }
+            throw t;
+          }
+        }
+        mappedBuffer = Files.map(partFile);
+        synchronized (this) {
+          partBuffers.put(partName, mappedBuffer);
+        }
+      }
+      return mappedBuffer.duplicate();
+    }
+  }
+
+  private void copyPart(Metadata metadata, File partFile) throws IOException
+  {
+    FileUtils.mkdirp(partsDir);
+    // Copy to a temporary file first, so that a failed copy never leaves a truncated part behind.
+    final File tmpFile = File.createTempFile(partFile.getName(), ".tmp", partsDir);
+    try {
+      try (FileChannel out = FileChannel.open(tmpFile.toPath(), StandardOpenOption.WRITE)) {
+        if (source.isDirectory()) {
+          copyRangeFromFile(FileSmoosher.makeChunkFile(source, metadata.getFileNum()), metadata, out);
+        } else {
+          copyRangeFromZip(metadata, out);
+        }
+      }
+      java.nio.file.Files.move(tmpFile.toPath(), partFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally {
+      java.nio.file.Files.deleteIfExists(tmpFile.toPath());
+    }
+  }
+
+  private static void copyRangeFromFile(File chunkFile, Metadata metadata, FileChannel out) throws IOException
+  {
+    try (FileChannel in = FileChannel.open(chunkFile.toPath(), StandardOpenOption.READ)) {
+      long position = metadata.getStartOffset();
+      final long end = metadata.getEndOffset();
+      while (position < end) {
+        final long copied = in.transferTo(position, end - position, out);
+        if (copied <= 0) {
+          throw new ISE("Source file[%s] ended at [%,d] before [%,d]", chunkFile, position, end);
+        }
+        position += copied;
+      }
+    }
+  }
+
+  /**
+   * Copies the byte range of an internal file from the entry of its chunk file in the source zip file, which must be
+   * stored without compression, so that skipping to the start of the range only moves the read position.
+   */
+  private void copyRangeFromZip(Metadata metadata, FileChannel out) throws IOException
+  {
+    final String chunkName = FileSmoosher.makeChunkFile(partsDir, metadata.getFileNum()).getName();
+    try (ZipFile zipFile = new ZipFile(source)) {
+      final ZipEntry entry = zipFile.getEntry(chunkName);
+      if (entry == null) {
+        throw new ISE("Source file[%s] has no entry[%s]", source, chunkName);
+      }
+      if (entry.getMethod() != ZipEntry.STORED) {
+        throw new ISE("Entry[%s] of source file[%s] is compressed, so it cannot be read in place", chunkName, source);
+      }
+      try (InputStream in = zipFile.getInputStream(entry)) {
+        ByteStreams.skipFully(in, metadata.getStartOffset());
+        final long numBytes = metadata.getEndOffset() - metadata.getStartOffset();
+        final long copied = ByteStreams.copy(ByteStreams.limit(in, numBytes), Channels.newOutputStream(out));
+        if (copied < numBytes) {
+          throw new ISE(
+              "Entry[%s] of source file[%s] ended at [%,d] before [%,d]",
+              chunkName,
+              source,
+              metadata.getStartOffset() + copied,
+              metadata.getEndOffset()
+          );
+        }
+      }
+    }
+  }
+
   @Override
   public void close()
   {
     Throwable thrown = null;
-    for (MappedByteBuffer mappedByteBuffer : buffersList) {
+    final List<MappedByteBuffer> mappedBuffers = new ArrayList<>(buffersList);
+    synchronized (this) {
+      mappedBuffers.addAll(partBuffers.values());
+      partBuffers.clear();
+    }
+    for (MappedByteBuffer mappedByteBuffer : mappedBuffers) {
       if (mappedByteBuffer == null) {
         continue;
       }
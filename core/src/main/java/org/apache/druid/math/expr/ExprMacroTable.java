@@ -25,6 +25,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.math.expr.vector.ExprVectorProcessor;
+import org.apache.druid.math.expr.vector.FallbackVectorProcessor;
 
 import javax.annotation.Nullable;
 import java.util.Collections;
@@ -155,6 +157,18 @@ public class ExprMacroTable
       return Objects.hash(name, arg);
     }
 
+    @Override
+    public boolean canVectorize(InputBindingInspector inspector)
+    {
+      return FallbackVectorProcessor.canVectorize(this, getArgs(), inspector);
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> buildVectorized(VectorInputBindingInspector inspector)
+    {
+      return FallbackVectorProcessor.create(this, inspector);
+    }
+
     private BindingAnalysis supplyAnalyzeInputs()
     {
       return arg.analyzeInputs().withScalarArguments(ImmutableSet.of(arg));
@@ -228,6 +242,18 @@ public class ExprMacroTable
       return Objects.hash(name, args);
     }
 
+    @Override
+    public boolean canVectorize(InputBindingInspector inspector)
+    {
+      return FallbackVectorProcessor.canVectorize(this, args, inspector);
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> buildVectorized(VectorInputBindingInspector inspector)
+    {
+      return FallbackVectorProcessor.create(this, inspector);
+    }
+
     private BindingAnalysis supplyAnalyzeInputs()
     {
       final Set<Expr> argSet = Sets.newHashSetWithExpectedSize(args.size());
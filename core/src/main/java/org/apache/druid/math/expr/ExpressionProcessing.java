@@ -48,19 +48,25 @@ public class ExpressionProcessing
   @VisibleForTesting
   public static void initializeForTests(@Nullable Boolean allowNestedArrays)
   {
-    INSTANCE = new ExpressionProcessingConfig(allowNestedArrays, null, null, null);
+    INSTANCE = new ExpressionProcessingConfig(allowNestedArrays, null, null, null, null);
   }
 
   @VisibleForTesting
   public static void initializeForStrictBooleansTests(boolean useStrict)
   {
-    INSTANCE = new ExpressionProcessingConfig(null, useStrict, null, null);
+    INSTANCE = new ExpressionProcessingConfig(null, useStrict, null, null, null);
   }
 
   @VisibleForTesting
   public static void initializeForHomogenizeNullMultiValueStrings()
   {
-    INSTANCE = new ExpressionProcessingConfig(null, null, null, true);
+    INSTANCE = new ExpressionProcessingConfig(null, null, null, true, null);
+  }
+
+  @VisibleForTesting
+  public static void initializeForFallback()
+  {
+    INSTANCE = new ExpressionProcessingConfig(null, null, null, null, true);
   }
 
   /**
@@ -102,6 +108,17 @@ public class ExpressionProcessing
     return INSTANCE.isHomogenizeNullMultiValueStringArrays();
   }
 
+  /**
+   * Scalar functions which do not have a specialized {@link org.apache.druid.math.expr.vector.ExprVectorProcessor} can
+   * still be vectorized by evaluating them one row at a time with
+   * {@link org.apache.druid.math.expr.vector.FallbackVectorProcessor}
+   */
+  public static boolean allowVectorizeFallback()
+  {
+    checkInitialized();
+    return INSTANCE.allowVectorizeFallback();
+  }
+
   private static void checkInitialized()
   {
     // this should only be null in a unit test context, in production this will be injected by the null handling module
@@ -34,6 +34,8 @@ public class ExpressionProcessingConfig
   // Coerce 'null', '[]', and '[null]' into '[null]' for backwards compat with 0.22 and earlier
   public static final String HOMOGENIZE_NULL_MULTIVALUE_STRING_ARRAYS =
       "druid.expressions.homogenizeNullMultiValueStringArrays";
+  // Vectorize scalar functions without specialized vector implementations by evaluating them one row at a time
+  public static final String ALLOW_VECTORIZE_FALLBACK = "druid.expressions.allowVectorizeFallback";
 
   @JsonProperty("allowNestedArrays")
   private final boolean allowNestedArrays;
@@ -47,12 +49,16 @@ public class ExpressionProcessingConfig
   @JsonProperty("homogenizeNullMultiValueStringArrays")
   private final boolean homogenizeNullMultiValueStringArrays;
 
+  @JsonProperty("allowVectorizeFallback")
+  private final boolean allowVectorizeFallback;
+
   @JsonCreator
   public ExpressionProcessingConfig(
       @JsonProperty("allowNestedArrays") @Nullable Boolean allowNestedArrays,
       @JsonProperty("useStrictBooleans") @Nullable Boolean useStrictBooleans,
       @JsonProperty("processArraysAsMultiValueStrings") @Nullable Boolean processArraysAsMultiValueStrings,
-      @JsonProperty("homogenizeNullMultiValueStringArrays") @Nullable Boolean homogenizeNullMultiValueStringArrays
+      @JsonProperty("homogenizeNullMultiValueStringArrays") @Nullable Boolean homogenizeNullMultiValueStringArrays,
+      @JsonProperty("allowVectorizeFallback") @Nullable Boolean allowVectorizeFallback
   )
   {
     this.allowNestedArrays = getWithPropertyFallbackFalse(allowNestedArrays, NESTED_ARRAYS_CONFIG_STRING);
@@ -65,6 +71,7 @@ public class ExpressionProcessingConfig
         homogenizeNullMultiValueStringArrays,
         HOMOGENIZE_NULL_MULTIVALUE_STRING_ARRAYS
     );
+    this.allowVectorizeFallback = getWithPropertyFallbackFalse(allowVectorizeFallback, ALLOW_VECTORIZE_FALLBACK);
   }
 
   public boolean allowNestedArrays()
@@ -87,6 +94,11 @@ public class ExpressionProcessingConfig
     return homogenizeNullMultiValueStringArrays;
   }
 
+  public boolean allowVectorizeFallback()
+  {
+    return allowVectorizeFallback;
+  }
+
   private static boolean getWithPropertyFallbackFalse(@Nullable Boolean value, String property)
   {
     return value != null ? value : Boolean.valueOf(System.getProperty(property, "false"));
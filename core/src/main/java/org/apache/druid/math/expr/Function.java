@@ -27,6 +27,7 @@ import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.UOE;
 import org.apache.druid.math.expr.vector.CastToTypeVectorProcessor;
 import org.apache.druid.math.expr.vector.ExprVectorProcessor;
+import org.apache.druid.math.expr.vector.VectorArrayProcessors;
 import org.apache.druid.math.expr.vector.VectorMathProcessors;
 import org.apache.druid.math.expr.vector.VectorProcessors;
 import org.apache.druid.math.expr.vector.VectorStringProcessors;
@@ -2401,6 +2402,18 @@ public interface Function extends NamedFunction
     {
       return ExpressionType.LONG;
     }
+
+    @Override
+    public boolean canVectorize(Expr.InputBindingInspector inspector, List<Expr> args)
+    {
+      return inspector.areScalar(args) && inspector.canVectorize(args);
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> asVectorProcessor(Expr.VectorInputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorStringProcessors.strlen(inspector, args.get(0));
+    }
   }
 
   class StringFormatFunc implements Function
@@ -2440,6 +2453,18 @@ public interface Function extends NamedFunction
     {
       return ExpressionType.STRING;
     }
+
+    @Override
+    public boolean canVectorize(Expr.InputBindingInspector inspector, List<Expr> args)
+    {
+      return inspector.areScalar(args) && inspector.canVectorize(args);
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> asVectorProcessor(Expr.VectorInputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorStringProcessors.format(inspector, args);
+    }
   }
 
   class StrposFunc implements Function
@@ -2531,6 +2556,26 @@ public interface Function extends NamedFunction
     {
       return ExpressionType.STRING;
     }
+
+    @Override
+    public boolean canVectorize(Expr.InputBindingInspector inspector, List<Expr> args)
+    {
+      return inspector.areScalar(args.get(0))
+             && inspector.canVectorize(args.get(0))
+             && args.get(1).isLiteral()
+             && args.get(2).isLiteral();
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> asVectorProcessor(Expr.VectorInputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorStringProcessors.substring(
+          inspector,
+          args.get(0),
+          args.get(1).eval(InputBindings.nilBindings()).asInt(),
+          args.get(2).eval(InputBindings.nilBindings()).asInt()
+      );
+    }
   }
 
   class RightFunc extends StringLongFunction
@@ -2654,6 +2699,18 @@ public interface Function extends NamedFunction
     {
       return ExpressionType.STRING;
     }
+
+    @Override
+    public boolean canVectorize(Expr.InputBindingInspector inspector, List<Expr> args)
+    {
+      return inspector.areScalar(args) && inspector.canVectorize(args);
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> asVectorProcessor(Expr.VectorInputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorStringProcessors.lower(inspector, args.get(0));
+    }
   }
 
   class UpperFunc implements Function
@@ -2686,6 +2743,18 @@ public interface Function extends NamedFunction
     {
       return ExpressionType.STRING;
     }
+
+    @Override
+    public boolean canVectorize(Expr.InputBindingInspector inspector, List<Expr> args)
+    {
+      return inspector.areScalar(args) && inspector.canVectorize(args);
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> asVectorProcessor(Expr.VectorInputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorStringProcessors.upper(inspector, args.get(0));
+    }
   }
 
   class ReverseFunc extends UnivariateFunction
@@ -3088,6 +3157,17 @@ public interface Function extends NamedFunction
       return ExprEval.ofLong(array.length);
     }
 
+    @Override
+    public boolean canVectorize(Expr.InputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorArrayProcessors.canVectorize(inspector, args.get(0));
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> asVectorProcessor(Expr.VectorInputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorArrayProcessors.length(inspector, args.get(0));
+    }
 
     @Override
     public Set<Expr> getArrayInputs(List<Expr> args)
@@ -3183,6 +3263,22 @@ public interface Function extends NamedFunction
       return ExpressionType.STRING;
     }
 
+    @Override
+    public boolean canVectorize(Expr.InputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorArrayProcessors.canVectorize(inspector, getArrayArgument(args), getScalarArgument(args));
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> asVectorProcessor(Expr.VectorInputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorArrayProcessors.toString(
+          inspector,
+          getArrayArgument(args),
+          getScalarArgument(args).eval(InputBindings.nilBindings()).asString()
+      );
+    }
+
     @Override
     ExprEval doApply(ExprEval arrayExpr, ExprEval scalarExpr)
     {
@@ -3212,6 +3308,22 @@ public interface Function extends NamedFunction
       return ExpressionType.elementType(args.get(0).getOutputType(inspector));
     }
 
+    @Override
+    public boolean canVectorize(Expr.InputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorArrayProcessors.canVectorize(inspector, getArrayArgument(args), getScalarArgument(args));
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> asVectorProcessor(Expr.VectorInputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorArrayProcessors.offset(
+          inspector,
+          getArrayArgument(args),
+          getScalarArgument(args).eval(InputBindings.nilBindings()).asInt()
+      );
+    }
+
     @Override
     ExprEval doApply(ExprEval arrayExpr, ExprEval scalarExpr)
     {
@@ -3240,6 +3352,22 @@ public interface Function extends NamedFunction
       return ExpressionType.elementType(args.get(0).getOutputType(inspector));
     }
 
+    @Override
+    public boolean canVectorize(Expr.InputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorArrayProcessors.canVectorize(inspector, getArrayArgument(args), getScalarArgument(args));
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> asVectorProcessor(Expr.VectorInputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorArrayProcessors.offset(
+          inspector,
+          getArrayArgument(args),
+          getScalarArgument(args).eval(InputBindings.nilBindings()).asInt() - 1
+      );
+    }
+
     @Override
     ExprEval doApply(ExprEval arrayExpr, ExprEval scalarExpr)
     {
@@ -3268,6 +3396,24 @@ public interface Function extends NamedFunction
       return ExpressionType.LONG;
     }
 
+    @Override
+    public boolean canVectorize(Expr.InputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorArrayProcessors.canVectorize(inspector, getArrayArgument(args), getScalarArgument(args))
+             && getScalarArgument(args).eval(InputBindings.nilBindings()).type().isPrimitive();
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> asVectorProcessor(Expr.VectorInputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorArrayProcessors.indexOf(
+          inspector,
+          getArrayArgument(args),
+          getScalarArgument(args).eval(InputBindings.nilBindings()),
+          0
+      );
+    }
+
     @Override
     ExprEval doApply(ExprEval arrayExpr, ExprEval scalarExpr)
     {
@@ -3309,6 +3455,24 @@ public interface Function extends NamedFunction
       return ExpressionType.LONG;
     }
 
+    @Override
+    public boolean canVectorize(Expr.InputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorArrayProcessors.canVectorize(inspector, getArrayArgument(args), getScalarArgument(args))
+             && getScalarArgument(args).eval(InputBindings.nilBindings()).type().isPrimitive();
+    }
+
+    @Override
+    public <T> ExprVectorProcessor<T> asVectorProcessor(Expr.VectorInputBindingInspector inspector, List<Expr> args)
+    {
+      return VectorArrayProcessors.indexOf(
+          inspector,
+          getArrayArgument(args),
+          getScalarArgument(args).eval(InputBindings.nilBindings()),
+          1
+      );
+    }
+
     @Override
     ExprEval doApply(ExprEval arrayExpr, ExprEval scalarExpr)
     {
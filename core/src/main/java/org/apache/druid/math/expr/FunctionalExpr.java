@@ -23,6 +23,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.math.expr.vector.ExprVectorProcessor;
+import org.apache.druid.math.expr.vector.FallbackVectorProcessor;
 
 import javax.annotation.Nullable;
 import java.util.List;
@@ -186,15 +187,25 @@ class FunctionExpr implements Expr
   @Override
   public boolean canVectorize(InputBindingInspector inspector)
   {
-    return function.canVectorize(inspector, args);
+    return function.canVectorize(inspector, args) || canVectorizeFallback(inspector);
   }
 
   @Override
   public ExprVectorProcessor<?> buildVectorized(VectorInputBindingInspector inspector)
   {
+    if (!function.canVectorize(inspector, args) && canVectorizeFallback(inspector)) {
+      return FallbackVectorProcessor.create(this, inspector);
+    }
     return function.asVectorProcessor(inspector, args);
   }
 
+  private boolean canVectorizeFallback(InputBindingInspector inspector)
+  {
+    return !function.hasArrayInputs()
+           && !function.hasArrayOutput()
+           && FallbackVectorProcessor.canVectorize(this, args, inspector);
+  }
+
   @Override
   public String stringify()
   {
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.math.expr.vector;
+
+import org.apache.druid.math.expr.Expr;
+import org.apache.druid.math.expr.ExprEval;
+import org.apache.druid.math.expr.ExprType;
+import org.apache.druid.math.expr.ExpressionProcessing;
+import org.apache.druid.math.expr.ExpressionType;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ExprVectorProcessor} for scalar {@link Expr} which do not have a specialized vectorized implementation. Input
+ * vectors are read from the {@link Expr.VectorInputBinding} once per batch, and the expression is then evaluated one
+ * row at a time with {@link Expr#eval}. This is not any faster than the non-vectorized engine for the expression
+ * itself, but allows the rest of a query to use the vectorized engines instead of falling back to the non-vectorized
+ * engines entirely.
+ *
+ * @see ExpressionProcessing#allowVectorizeFallback()
+ */
+public abstract class FallbackVectorProcessor<T> implements ExprVectorProcessor<T>
+{
+  final Expr expr;
+  final RowBinding rowBinding;
+  final ExpressionType outputType;
+
+  private FallbackVectorProcessor(Expr expr, ExpressionType outputType)
+  {
+    this.expr = expr;
+    this.rowBinding = new RowBinding(expr.analyzeInputs().getRequiredBindingsList());
+    this.outputType = outputType;
+  }
+
+  /**
+   * Check if an {@link Expr} with the supplied arguments can be vectorized with a {@link FallbackVectorProcessor}. The
+   * expression must be scalar with a known output type, and all arguments must be scalar and vectorizable.
+   */
+  public static boolean canVectorize(Expr expr, List<Expr> args, Expr.InputBindingInspector inspector)
+  {
+    if (!ExpressionProcessing.allowVectorizeFallback()) {
+      return false;
+    }
+    final ExpressionType outputType = expr.getOutputType(inspector);
+    if (outputType == null || outputType.isArray()) {
+      return false;
+    }
+    switch (outputType.getType()) {
+      case STRING:
+      case LONG:
+      case DOUBLE:
+        return inspector.areScalar(args) && inspector.canVectorize(args);
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Create a {@link FallbackVectorProcessor} for an {@link Expr}, which must have passed
+   * {@link #canVectorize(Expr, List, Expr.InputBindingInspector)}
+   */
+  public static <T> ExprVectorProcessor<T> create(Expr expr, Expr.VectorInputBindingInspector inspector)
+  {
+    final ExpressionType outputType = expr.getOutputType(inspector);
+    final int maxVectorSize = inspector.getMaxVectorSize();
+    final ExprVectorProcessor<?> processor;
+    switch (outputType.getType()) {
+      case LONG:
+        processor = new OfLong(expr, maxVectorSize);
+        break;
+      case DOUBLE:
+        processor = new OfDouble(expr, maxVectorSize);
+        break;
+      default:
+        processor = new OfString(expr, maxVectorSize);
+        break;
+    }
+    return (ExprVectorProcessor<T>) processor;
+  }
+
+  @Override
+  public ExprEvalVector<T> evalVector(Expr.VectorInputBinding bindings)
+  {
+    rowBinding.setVectors(bindings);
+    final int currentSize = bindings.getCurrentVectorSize();
+    for (int i = 0; i < currentSize; i++) {
+      rowBinding.rowNumber = i;
+      processIndex(expr.eval(rowBinding), i);
+    }
+    return asEval();
+  }
+
+  @Override
+  public ExpressionType getOutputType()
+  {
+    return outputType;
+  }
+
+  abstract void processIndex(ExprEval<?> eval, int i);
+
+  abstract ExprEvalVector<T> asEval();
+
+  private static final class OfString extends FallbackVectorProcessor<String[]>
+  {
+    private final String[] outValues;
+
+    private OfString(Expr expr, int maxVectorSize)
+    {
+      super(expr, ExpressionType.STRING);
+      this.outValues = new String[maxVectorSize];
+    }
+
+    @Override
+    void processIndex(ExprEval<?> eval, int i)
+    {
+      outValues[i] = eval.asString();
+    }
+
+    @Override
+    ExprEvalVector<String[]> asEval()
+    {
+      return new ExprEvalStringVector(outValues);
+    }
+  }
+
+  private static final class OfLong extends FallbackVectorProcessor<long[]>
+  {
+    private final long[] outValues;
+    private final boolean[] outNulls;
+
+    private OfLong(Expr expr, int maxVectorSize)
+    {
+      super(expr, ExpressionType.LONG);
+      this.outValues = new long[maxVectorSize];
+      this.outNulls = new boolean[maxVectorSize];
+    }
+
+    @Override
+    void processIndex(ExprEval<?> eval, int i)
+    {
+      outNulls[i] = eval.isNumericNull();
+      outValues[i] = outNulls[i] ? 0L : eval.asLong();
+    }
+
+    @Override
+    ExprEvalVector<long[]> asEval()
+    {
+      return new ExprEvalLongVector(outValues, outNulls);
+    }
+  }
+
+  private static final class OfDouble extends FallbackVectorProcessor<double[]>
+  {
+    private final double[] outValues;
+    private final boolean[] outNulls;
+
+    private OfDouble(Expr expr, int maxVectorSize)
+    {
+      super(expr, ExpressionType.DOUBLE);
+      this.outValues = new double[maxVectorSize];
+      this.outNulls = new boolean[maxVectorSize];
+    }
+
+    @Override
+    void processIndex(ExprEval<?> eval, int i)
+    {
+      outNulls[i] = eval.isNumericNull();
+      outValues[i] = outNulls[i] ? 0.0 : eval.asDouble();
+    }
+
+    @Override
+    ExprEvalVector<double[]> asEval()
+    {
+      return new ExprEvalDoubleVector(outValues, outNulls);
+    }
+  }
+
+  /**
+   * {@link Expr.ObjectBinding} which reads the values of a single row out of the vectors of a
+   * {@link Expr.VectorInputBinding}. The vectors are fetched once per batch by {@link #setVectors}.
+   */
+  private static final class RowBinding implements Expr.ObjectBinding
+  {
+    private final Map<String, Integer> positions;
+    private final ExpressionType[] types;
+    private final Object[] vectors;
+    private final boolean[][] nullVectors;
+
+    @Nullable
+    private Expr.VectorInputBinding vectorBindings;
+    private int rowNumber;
+
+    private RowBinding(List<String> bindingNames)
+    {
+      this.positions = new HashMap<>();
+      for (int i = 0; i < bindingNames.size(); i++) {
+        positions.put(bindingNames.get(i), i);
+      }
+      this.types = new ExpressionType[bindingNames.size()];
+      this.vectors = new Object[bindingNames.size()];
+      this.nullVectors = new boolean[bindingNames.size()][];
+    }
+
+    private void setVectors(Expr.VectorInputBinding bindings)
+    {
+      vectorBindings = bindings;
+      for (Map.Entry<String, Integer> entry : positions.entrySet()) {
+        final String name = entry.getKey();
+        final int position = entry.getValue();
+        final ExpressionType type = bindings.getType(name);
+        types[position] = type;
+        if (type == null) {
+          vectors[position] = null;
+          nullVectors[position] = null;
+        } else if (type.is(ExprType.LONG)) {
+          vectors[position] = bindings.getLongVector(name);
+          nullVectors[position] = bindings.getNullVector(name);
+        } else if (type.is(ExprType.DOUBLE)) {
+          vectors[position] = bindings.getDoubleVector(name);
+          nullVectors[position] = bindings.getNullVector(name);
+        } else {
+          vectors[position] = bindings.getObjectVector(name);
+          nullVectors[position] = null;
+        }
+      }
+    }
+
+    @Nullable
+    @Override
+    public ExpressionType getType(String name)
+    {
+      final Integer position = positions.get(name);
+      if (position != null) {
+        return types[position];
+      }
+      return vectorBindings == null ? null : vectorBindings.getType(name);
+    }
+
+    @Nullable
+    @Override
+    public Object get(String name)
+    {
+      final Integer position = positions.get(name);
+      if (position == null || vectors[position] == null) {
+        return null;
+      }
+      final boolean[] nulls = nullVectors[position];
+      if (nulls != null && nulls[rowNumber]) {
+        return null;
+      }
+      final ExpressionType type = types[position];
+      if (type.is(ExprType.LONG)) {
+        return ((long[]) vectors[position])[rowNumber];
+      } else if (type.is(ExprType.DOUBLE)) {
+        return ((double[]) vectors[position])[rowNumber];
+      }
+      return ((Object[]) vectors[position])[rowNumber];
+    }
+  }
+}
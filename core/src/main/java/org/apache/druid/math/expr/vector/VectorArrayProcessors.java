@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.math.expr.vector;
+
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.math.expr.Expr;
+import org.apache.druid.math.expr.ExprEval;
+import org.apache.druid.math.expr.ExpressionType;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Vector processors for array functions whose array argument is an identifier, such as a multi-value string column.
+ * The identifier is read with {@link Expr.VectorInputBinding#getObjectVector}, where each row is either an Object[]
+ * of the values of the row, or null, the same as the non-vectorized bindings of a multi-value string column.
+ */
+public class VectorArrayProcessors
+{
+  private VectorArrayProcessors()
+  {
+    // No instantiation.
+  }
+
+  /**
+   * Array functions can be vectorized if the array argument is an identifier of a string or string array binding.
+   * Multi-value string columns are typed {@link ExpressionType#STRING} to the expression planner, which is responsible
+   * for only vectorizing expressions that use multi-value string columns as arrays, and binding them as
+   * {@link ExpressionType#STRING_ARRAY}.
+   */
+  public static boolean canVectorize(Expr.InputBindingInspector inspector, Expr arrayArg)
+  {
+    final String binding = arrayArg.getBindingIfIdentifier();
+    if (binding == null) {
+      return false;
+    }
+    final ExpressionType type = inspector.getType(binding);
+    return ExpressionType.STRING.equals(type) || ExpressionType.STRING_ARRAY.equals(type);
+  }
+
+  /**
+   * Like {@link #canVectorize(Expr.InputBindingInspector, Expr)}, for functions with one array argument and one
+   * scalar argument, which must be a literal.
+   */
+  public static boolean canVectorize(Expr.InputBindingInspector inspector, Expr arrayArg, Expr scalarArg)
+  {
+    return canVectorize(inspector, arrayArg) && scalarArg.isLiteral();
+  }
+
+  public static <T> ExprVectorProcessor<T> length(Expr.VectorInputBindingInspector inspector, Expr arrayArg)
+  {
+    final ExprVectorProcessor processor = new LongOutArrayInFunctionVectorProcessor(
+        arrayArg,
+        inspector.getMaxVectorSize()
+    )
+    {
+      @Override
+      void processArray(@Nullable Object[] array, int i)
+      {
+        if (array == null) {
+          setNull(i);
+        } else {
+          outValues[i] = array.length;
+          outNulls[i] = false;
+        }
+      }
+    };
+    return processor;
+  }
+
+  /**
+   * Element of each array at a zero based position, or null if the array is not that long.
+   */
+  public static <T> ExprVectorProcessor<T> offset(
+      Expr.VectorInputBindingInspector inspector,
+      Expr arrayArg,
+      int position
+  )
+  {
+    final ExprVectorProcessor processor = new StringOutArrayInFunctionVectorProcessor(
+        arrayArg,
+        inspector.getMaxVectorSize()
+    )
+    {
+      @Override
+      void processArray(@Nullable Object[] array, int i)
+      {
+        if (array == null || position < 0 || position >= array.length) {
+          outValues[i] = null;
+        } else {
+          outValues[i] = ExprEval.ofType(ExpressionType.STRING, array[position]).asString();
+        }
+      }
+    };
+    return processor;
+  }
+
+  /**
+   * Position of the first element of each array which is equal to "value", plus "base". If there is no such element,
+   * the position is null, or -1 if null values are replaced with defaults.
+   */
+  public static <T> ExprVectorProcessor<T> indexOf(
+      Expr.VectorInputBindingInspector inspector,
+      Expr arrayArg,
+      ExprEval<?> value,
+      int base
+  )
+  {
+    final Object toFind = value.value();
+    final ExprVectorProcessor processor = new LongOutArrayInFunctionVectorProcessor(
+        arrayArg,
+        inspector.getMaxVectorSize()
+    )
+    {
+      @Override
+      void processArray(@Nullable Object[] array, int i)
+      {
+        if (array == null) {
+          setNull(i);
+          return;
+        }
+        for (int index = 0; index < array.length; index++) {
+          if (Objects.equals(array[index], toFind)) {
+            outValues[i] = index + base;
+            outNulls[i] = false;
+            return;
+          }
+        }
+        if (NullHandling.replaceWithDefault()) {
+          outValues[i] = -1;
+          outNulls[i] = false;
+        } else {
+          setNull(i);
+        }
+      }
+    };
+    return processor;
+  }
+
+  /**
+   * Elements of each array joined into a string with a separator, or null if the array is null or only has a null
+   * element.
+   */
+  public static <T> ExprVectorProcessor<T> toString(
+      Expr.VectorInputBindingInspector inspector,
+      Expr arrayArg,
+      @Nullable String separator
+  )
+  {
+    final String join = separator != null ? separator : "";
+    final ExprVectorProcessor processor = new StringOutArrayInFunctionVectorProcessor(
+        arrayArg,
+        inspector.getMaxVectorSize()
+    )
+    {
+      @Override
+      void processArray(@Nullable Object[] array, int i)
+      {
+        if (array == null || (array.length == 1 && array[0] == null)) {
+          outValues[i] = null;
+          return;
+        }
+        final StringBuilder builder = new StringBuilder();
+        for (int index = 0; index < array.length; index++) {
+          if (index > 0) {
+            builder.append(join);
+          }
+          builder.append(array[index]);
+        }
+        outValues[i] = NullHandling.emptyToNullIfNeeded(builder.toString());
+      }
+    };
+    return processor;
+  }
+
+  private abstract static class ArrayInFunctionVectorProcessor<TOutput> implements ExprVectorProcessor<TOutput>
+  {
+    private final String binding;
+    final boolean[] outNulls;
+    final TOutput outValues;
+
+    ArrayInFunctionVectorProcessor(Expr arrayArg, int maxVectorSize, TOutput outValues)
+    {
+      this.binding = arrayArg.getBindingIfIdentifier();
+      this.outNulls = new boolean[maxVectorSize];
+      this.outValues = outValues;
+    }
+
+    @Override
+    public ExprEvalVector<TOutput> evalVector(Expr.VectorInputBinding bindings)
+    {
+      final Object[] rows = bindings.getObjectVector(binding);
+      for (int i = 0; i < bindings.getCurrentVectorSize(); i++) {
+        processArray(asArray(rows[i]), i);
+      }
+      return asEval();
+    }
+
+    abstract void processArray(@Nullable Object[] array, int i);
+
+    abstract ExprEvalVector<TOutput> asEval();
+
+    @Nullable
+    private static Object[] asArray(@Nullable Object row)
+    {
+      if (row instanceof Object[]) {
+        return (Object[]) row;
+      }
+      // single values and nulls, the same as ExprEval#asArray of a non-array value
+      return ExprEval.bestEffortOf(row).asArray();
+    }
+  }
+
+  private abstract static class LongOutArrayInFunctionVectorProcessor extends ArrayInFunctionVectorProcessor<long[]>
+  {
+    LongOutArrayInFunctionVectorProcessor(Expr arrayArg, int maxVectorSize)
+    {
+      super(arrayArg, maxVectorSize, new long[maxVectorSize]);
+    }
+
+    void setNull(int i)
+    {
+      outValues[i] = 0L;
+      outNulls[i] = NullHandling.sqlCompatible();
+    }
+
+    @Override
+    ExprEvalVector<long[]> asEval()
+    {
+      return new ExprEvalLongVector(outValues, outNulls);
+    }
+
+    @Override
+    public ExpressionType getOutputType()
+    {
+      return ExpressionType.LONG;
+    }
+  }
+
+  private abstract static class StringOutArrayInFunctionVectorProcessor
+      extends ArrayInFunctionVectorProcessor<String[]>
+  {
+    StringOutArrayInFunctionVectorProcessor(Expr arrayArg, int maxVectorSize)
+    {
+      super(arrayArg, maxVectorSize, new String[maxVectorSize]);
+    }
+
+    @Override
+    ExprEvalVector<String[]> asEval()
+    {
+      return new ExprEvalStringVector(outValues);
+    }
+
+    @Override
+    public ExpressionType getOutputType()
+    {
+      return ExpressionType.STRING;
+    }
+  }
+}
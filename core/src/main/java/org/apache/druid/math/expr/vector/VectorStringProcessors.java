@@ -20,6 +20,7 @@
 package org.apache.druid.math.expr.vector;
 
 import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.math.expr.Expr;
 import org.apache.druid.math.expr.ExpressionType;
 
@@ -100,4 +101,139 @@ public class VectorStringProcessors
     };
     return processor;
   }
+
+  public static <T> ExprVectorProcessor<T> format(Expr.VectorInputBindingInspector inspector, List<Expr> inputs)
+  {
+    final ExprVectorProcessor<String[]> formatProcessor =
+        CastToTypeVectorProcessor.cast(inputs.get(0).buildVectorized(inspector), ExpressionType.STRING);
+    final ExprVectorProcessor<?>[] argProcessors = new ExprVectorProcessor[inputs.size() - 1];
+    for (int i = 1; i < inputs.size(); i++) {
+      argProcessors[i - 1] = inputs.get(i).buildVectorized(inspector);
+    }
+    final String[] outValues = new String[inspector.getMaxVectorSize()];
+    final ExprVectorProcessor processor = new ExprVectorProcessor<String[]>()
+    {
+      @Override
+      public ExprEvalVector<String[]> evalVector(Expr.VectorInputBinding bindings)
+      {
+        final String[] formats = formatProcessor.evalVector(bindings).values();
+        final ExprEvalVector<?>[] args = new ExprEvalVector[argProcessors.length];
+        for (int argNumber = 0; argNumber < argProcessors.length; argNumber++) {
+          args[argNumber] = argProcessors[argNumber].evalVector(bindings);
+        }
+        final Object[] formatArgs = new Object[args.length];
+        for (int i = 0; i < bindings.getCurrentVectorSize(); i++) {
+          final String format = NullHandling.nullToEmptyIfNeeded(formats[i]);
+          if (format == null) {
+            outValues[i] = null;
+            continue;
+          }
+          for (int argNumber = 0; argNumber < args.length; argNumber++) {
+            formatArgs[argNumber] = args[argNumber].get(i);
+          }
+          outValues[i] = NullHandling.emptyToNullIfNeeded(StringUtils.nonStrictFormat(format, formatArgs));
+        }
+        return new ExprEvalStringVector(outValues);
+      }
+
+      @Override
+      public ExpressionType getOutputType()
+      {
+        return ExpressionType.STRING;
+      }
+    };
+    return processor;
+  }
+
+  public static <T> ExprVectorProcessor<T> upper(Expr.VectorInputBindingInspector inspector, Expr arg)
+  {
+    final ExprVectorProcessor processor = new StringOutStringInFunctionVectorProcessor(
+        arg.buildVectorized(inspector),
+        inspector.getMaxVectorSize()
+    )
+    {
+      @Nullable
+      @Override
+      protected String processValue(@Nullable String value)
+      {
+        return value == null ? NullHandling.defaultStringValue() : StringUtils.toUpperCase(value);
+      }
+    };
+    return processor;
+  }
+
+  public static <T> ExprVectorProcessor<T> lower(Expr.VectorInputBindingInspector inspector, Expr arg)
+  {
+    final ExprVectorProcessor processor = new StringOutStringInFunctionVectorProcessor(
+        arg.buildVectorized(inspector),
+        inspector.getMaxVectorSize()
+    )
+    {
+      @Nullable
+      @Override
+      protected String processValue(@Nullable String value)
+      {
+        return value == null ? NullHandling.defaultStringValue() : StringUtils.toLowerCase(value);
+      }
+    };
+    return processor;
+  }
+
+  public static <T> ExprVectorProcessor<T> strlen(Expr.VectorInputBindingInspector inspector, Expr arg)
+  {
+    final ExprVectorProcessor processor = new LongOutStringInFunctionVectorProcessor(
+        CastToTypeVectorProcessor.cast(arg.buildVectorized(inspector), ExpressionType.STRING),
+        inspector.getMaxVectorSize()
+    )
+    {
+      @Override
+      public void processIndex(String[] strings, long[] longs, boolean[] outputNulls, int i)
+      {
+        if (strings[i] == null) {
+          longs[i] = 0L;
+          outputNulls[i] = NullHandling.sqlCompatible();
+        } else {
+          longs[i] = strings[i].length();
+          outputNulls[i] = false;
+        }
+      }
+    };
+    return processor;
+  }
+
+  /**
+   * Substring with a constant index and length, which behaves like the non-vectorized substring function
+   */
+  public static <T> ExprVectorProcessor<T> substring(
+      Expr.VectorInputBindingInspector inspector,
+      Expr arg,
+      int index,
+      int length
+  )
+  {
+    final ExprVectorProcessor processor = new StringOutStringInFunctionVectorProcessor(
+        arg.buildVectorized(inspector),
+        inspector.getMaxVectorSize()
+    )
+    {
+      @Nullable
+      @Override
+      protected String processValue(@Nullable String value)
+      {
+        if (value == null) {
+          return null;
+        }
+        if (index < value.length()) {
+          if (length >= 0) {
+            return value.substring(index, Math.min(index + length, value.length()));
+          } else {
+            return value.substring(index);
+          }
+        } else {
+          return NullHandling.defaultStringValue();
+        }
+      }
+    };
+    return processor;
+  }
 }
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.segment.column;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.primitives.Doubles;
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.common.guava.GuavaUtils;
+import org.apache.druid.java.util.common.IAE;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Statistics of the values of a STRING, LONG, FLOAT or DOUBLE column of a segment, computed when the segment is
+ * built. They are stored in the segment metadata, and can be published with the segment, so that Brokers can skip
+ * segments that cannot match a filter with {@link #possibleInDomain}.
+ *
+ * The minimum and maximum ignore nulls, and are null if the column only has nulls. They are Strings for STRING
+ * columns, compared like Strings, Longs for LONG columns, and Doubles for FLOAT and DOUBLE columns. The distinct count
+ * is exact for STRING columns, and an estimate otherwise.
+ */
+public class ColumnStats
+{
+  private static final Range<String> NULL_RANGE = Range.lessThan("");
+
+  private final ValueType type;
+  @Nullable
+  private final Object min;
+  @Nullable
+  private final Object max;
+  private final long nullCount;
+  private final long distinctCount;
+
+  @JsonCreator
+  public ColumnStats(
+      @JsonProperty("type") ValueType type,
+      @JsonProperty("min") @Nullable Object min,
+      @JsonProperty("max") @Nullable Object max,
+      @JsonProperty("nullCount") long nullCount,
+      @JsonProperty("distinctCount") long distinctCount
+  )
+  {
+    this.type = Preconditions.checkNotNull(type, "type");
+    this.min = coerce(type, min);
+    this.max = coerce(type, max);
+    Preconditions.checkArgument((this.min == null) == (this.max == null), "min and max must both be set or null");
+    this.nullCount = nullCount;
+    this.distinctCount = distinctCount;
+  }
+
+  @JsonProperty
+  public ValueType getType()
+  {
+    return type;
+  }
+
+  @Nullable
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public Object getMin()
+  {
+    return min;
+  }
+
+  @Nullable
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public Object getMax()
+  {
+    return max;
+  }
+
+  @JsonProperty
+  public long getNullCount()
+  {
+    return nullCount;
+  }
+
+  @JsonProperty
+  public long getDistinctCount()
+  {
+    return distinctCount;
+  }
+
+  /**
+   * Whether any row of the column may have a value in the given domain, which is a RangeSet of Strings like
+   * {@link org.apache.druid.timeline.partition.ShardSpec#possibleInDomain}. Nulls are the range of values less than
+   * the empty string if SQL compatible null handling is enabled, and the empty string otherwise.
+   *
+   * Numeric columns compare their values like numbers rather than Strings, so only the single values of the domain,
+   * which filters like "selector" and "in" produce, can be compared with their minimum and maximum. Domains with any
+   * other range are always possible.
+   */
+  public boolean possibleInDomain(RangeSet<String> domain)
+  {
+    if (type == ValueType.STRING) {
+      if (nullCount > 0 && containsNull(domain)) {
+        return true;
+      }
+      return min != null && !domain.subRangeSet(Range.closed((String) min, (String) max)).isEmpty();
+    }
+
+    for (Range<String> range : domain.asRanges()) {
+      if (isSingleValue(range)) {
+        if (possibleNumericValue(range.lowerEndpoint())) {
+          return true;
+        }
+      } else if (NullHandling.sqlCompatible() && NULL_RANGE.equals(range)) {
+        if (nullCount > 0) {
+          return true;
+        }
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean possibleNumericValue(String value)
+  {
+    final Long longValue = GuavaUtils.tryParseLong(value);
+    final Double doubleValue = longValue == null ? Doubles.tryParse(value) : Double.valueOf(longValue);
+    if (doubleValue == null || doubleValue.isNaN()) {
+      // Not a number, like the empty string that stands for null in default value mode.
+      return true;
+    }
+    if (min == null) {
+      return false;
+    }
+
+    if (type == ValueType.LONG) {
+      if (longValue != null) {
+        return longValue >= (Long) min && longValue <= (Long) max;
+      }
+      return doubleValue >= (Long) min && doubleValue <= (Long) max;
+    }
+    // FLOAT columns match values rounded to floats
+    final double number = type == ValueType.FLOAT ? (double) doubleValue.floatValue() : doubleValue;
+    return number >= (Double) min && number <= (Double) max;
+  }
+
+  private static boolean containsNull(RangeSet<String> domain)
+  {
+    return NullHandling.sqlCompatible() ? !domain.subRangeSet(NULL_RANGE).isEmpty() : domain.contains("");
+  }
+
+  private static boolean isSingleValue(Range<String> range)
+  {
+    return range.hasLowerBound()
+           && range.hasUpperBound()
+           && range.lowerBoundType() == BoundType.CLOSED
+           && range.upperBoundType() == BoundType.CLOSED
+           && range.lowerEndpoint().equals(range.upperEndpoint());
+  }
+
+  @Nullable
+  private static Object coerce(ValueType type, @Nullable Object value)
+  {
+    if (value == null) {
+      return null;
+    }
+    switch (type) {
+      case STRING:
+        return (String) value;
+      case LONG:
+        return ((Number) value).longValue();
+      case FLOAT:
+      case DOUBLE:
+        return ((Number) value).doubleValue();
+      default:
+        throw new IAE("Unsupported type[%s] for column stats", type);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ColumnStats that = (ColumnStats) o;
+    return nullCount == that.nullCount &&
+           distinctCount == that.distinctCount &&
+           type == that.type &&
+           Objects.equals(min, that.min) &&
+           Objects.equals(max, that.max);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(type, min, max, nullCount, distinctCount);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "ColumnStats{" +
+           "type=" + type +
+           ", min=" + min +
+           ", max=" + max +
+           ", nullCount=" + nullCount +
+           ", distinctCount=" + distinctCount +
+           '}';
+  }
+}
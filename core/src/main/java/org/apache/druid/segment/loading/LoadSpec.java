@@ -38,6 +38,19 @@ public interface LoadSpec
    */
   LoadSpecResult loadSegment(File destDir) throws SegmentLoadingException;
 
+  /**
+   * Like {@link #loadSegment}, but may only put the files needed to open the segment in the directory passed, and
+   * leave the rest to be read from the source when they are first used, as described in
+   * {@link org.apache.druid.java.util.common.io.smoosh.SmooshedFileMapper}. Loads the whole segment by default.
+   *
+   * @param destDir The destination directory
+   * @return The byte count of data put in the destination directory
+   */
+  default LoadSpecResult loadSegmentPartially(File destDir) throws SegmentLoadingException
+  {
+    return loadSegment(destDir);
+  }
+
   // Hold interesting data about the results of the segment load
   class LoadSpecResult
   {
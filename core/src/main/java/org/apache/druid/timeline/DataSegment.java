@@ -38,6 +38,7 @@ import org.apache.druid.guice.annotations.PublicApi;
 import org.apache.druid.jackson.CommaListJoinDeserializer;
 import org.apache.druid.jackson.CommaListJoinSerializer;
 import org.apache.druid.query.SegmentDescriptor;
+import org.apache.druid.segment.column.ColumnStats;
 import org.apache.druid.timeline.partition.NumberedShardSpec;
 import org.apache.druid.timeline.partition.ShardSpec;
 import org.joda.time.Interval;
@@ -65,7 +66,7 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
    */
 
   /**
-   * This class is needed for optional injection of pruneLoadSpec and pruneLastCompactionState, see
+   * This class is needed for optional injection of pruneLoadSpec, pruneLastCompactionState and pruneColumnStats, see
    * github.com/google/guice/wiki/FrequentlyAskedQuestions#how-can-i-inject-optional-parameters-into-a-constructor
    */
   @VisibleForTesting
@@ -81,6 +82,10 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
     @Inject(optional = true)
     @PruneLastCompactionState
     boolean pruneLastCompactionState = false;
+
+    @Inject(optional = true)
+    @PruneColumnStats
+    boolean pruneColumnStats = false;
   }
 
   private static final Interner<String> STRING_INTERNER = Interners.newWeakInterner();
@@ -109,6 +114,14 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
    */
   @Nullable
   private final CompactionState lastCompactionState;
+
+  /**
+   * Statistics of the columns of the segment, if they were computed when it was built (see "columnStats" in
+   * IndexSpec), used by Brokers to skip segments that cannot match query filters. This field can be pruned on Brokers
+   * when it is loaded, see {@link PruneColumnStats}.
+   */
+  @Nullable
+  private final Map<String, ColumnStats> columnStats;
   private final long size;
 
   @VisibleForTesting
@@ -191,6 +204,36 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
     );
   }
 
+  public DataSegment(
+      String dataSource,
+      Interval interval,
+      String version,
+      @Nullable Map<String, Object> loadSpec,
+      @Nullable List<String> dimensions,
+      @Nullable List<String> metrics,
+      @Nullable ShardSpec shardSpec,
+      @Nullable CompactionState lastCompactionState,
+      Integer binaryVersion,
+      long size,
+      PruneSpecsHolder pruneSpecsHolder
+  )
+  {
+    this(
+        dataSource,
+        interval,
+        version,
+        loadSpec,
+        dimensions,
+        metrics,
+        shardSpec,
+        lastCompactionState,
+        null,
+        binaryVersion,
+        size,
+        pruneSpecsHolder
+    );
+  }
+
   @JsonCreator
   public DataSegment(
       @JsonProperty("dataSource") String dataSource,
@@ -208,6 +251,7 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
           List<String> metrics,
       @JsonProperty("shardSpec") @Nullable ShardSpec shardSpec,
       @JsonProperty("lastCompactionState") @Nullable CompactionState lastCompactionState,
+      @JsonProperty("columnStats") @Nullable Map<String, ColumnStats> columnStats,
       @JsonProperty("binaryVersion") Integer binaryVersion,
       @JsonProperty("size") long size,
       @JacksonInject PruneSpecsHolder pruneSpecsHolder
@@ -224,6 +268,9 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
     this.lastCompactionState = pruneSpecsHolder.pruneLastCompactionState
                                ? null
                                : prepareCompactionState(lastCompactionState);
+    this.columnStats = pruneSpecsHolder.pruneColumnStats || columnStats == null || columnStats.isEmpty()
+                       ? null
+                       : ImmutableMap.copyOf(columnStats);
     this.binaryVersion = binaryVersion;
     Preconditions.checkArgument(size >= 0);
     this.size = size;
@@ -328,6 +375,14 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
     return lastCompactionState;
   }
 
+  @Nullable
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public Map<String, ColumnStats> getColumnStats()
+  {
+    return columnStats;
+  }
+
   @JsonProperty
   public Integer getBinaryVersion()
   {
@@ -441,6 +496,11 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
     return builder(this).lastCompactionState(compactionState).build();
   }
 
+  public DataSegment withColumnStats(@Nullable Map<String, ColumnStats> columnStats)
+  {
+    return builder(this).columnStats(columnStats).build();
+  }
+
   @Override
   public int compareTo(DataSegment dataSegment)
   {
@@ -473,6 +533,7 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
            ", metrics=" + metrics +
            ", shardSpec=" + shardSpec +
            ", lastCompactionState=" + lastCompactionState +
+           ", columnStats=" + columnStats +
            ", size=" + size +
            '}';
   }
@@ -497,6 +558,7 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
     private List<String> metrics;
     private ShardSpec shardSpec;
     private CompactionState lastCompactionState;
+    private Map<String, ColumnStats> columnStats;
     private Integer binaryVersion;
     private long size;
 
@@ -519,6 +581,7 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
       this.metrics = segment.getMetrics();
       this.shardSpec = segment.getShardSpec();
       this.lastCompactionState = segment.getLastCompactionState();
+      this.columnStats = segment.getColumnStats();
       this.binaryVersion = segment.getBinaryVersion();
       this.size = segment.getSize();
     }
@@ -571,6 +634,12 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
       return this;
     }
 
+    public Builder columnStats(Map<String, ColumnStats> columnStats)
+    {
+      this.columnStats = columnStats;
+      return this;
+    }
+
     public Builder binaryVersion(Integer binaryVersion)
     {
       this.binaryVersion = binaryVersion;
@@ -600,8 +669,10 @@ public class DataSegment implements Comparable<DataSegment>, Overshadowable<Data
           metrics,
           shardSpec,
           lastCompactionState,
+          columnStats,
           binaryVersion,
-          size
+          size,
+          PruneSpecsHolder.DEFAULT
       );
     }
   }
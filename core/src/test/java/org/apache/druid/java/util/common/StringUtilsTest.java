@@ -92,6 +92,24 @@ public class StringUtilsTest
     Assert.assertEquals("abcd", StringUtils.fromUtf8(bytes));
   }
 
+  @Test
+  public void testCompareUtf8UsingJavaStringOrdering()
+  {
+    final String[] values = {
+        "", "a", "ab", "b", "\u00e9", "\u07ff", "\u0800", "\ud7ff", "\ue000", "\uff01", "\uffff",
+        "\ud800\udc00", "\ud83d\ude00", "\ud83d\ude00a", "\udbff\udfff"
+    };
+    for (String a : values) {
+      for (String b : values) {
+        Assert.assertEquals(
+            StringUtils.format("compare [%s] with [%s]", a, b),
+            Integer.signum(a.compareTo(b)),
+            Integer.signum(StringUtils.compareUtf8UsingJavaStringOrdering(StringUtils.toUtf8(a), StringUtils.toUtf8(b)))
+        );
+      }
+    }
+  }
+
   @Test
   public void testMiddleOfByteArrayConversion()
   {
@@ -20,6 +20,8 @@
 package org.apache.druid.java.util.common.guava;
 
 import com.google.common.collect.Ordering;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
 import org.apache.druid.common.guava.CombiningSequence;
 import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.java.util.common.logger.Logger;
@@ -37,6 +39,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -563,6 +566,184 @@ public class ParallelMergeCombiningSequenceTest
   }
 
 
+  @Test
+  public void testAdaptiveMixedSingleAndMultiYield() throws Exception
+  {
+    List<Sequence<IntPair>> input = new ArrayList<>();
+    input.add(nonBlockingSequence(60));
+    input.add(nonBlockingSequence(5));
+    input.add(nonBlockingSequence(8));
+    input.add(nonBlockingSequence(0));
+    input.add(nonBlockingSequence(1));
+    input.add(nonBlockingSequence(8));
+    input.add(nonBlockingSequence(32));
+
+    assertResult(input, 5, 10, true, reportMetrics -> {
+      Assert.assertEquals(7, reportMetrics.getInputSequences());
+      Assert.assertEquals(114, reportMetrics.getInputRows());
+    });
+  }
+
+  @Test
+  public void testAdaptiveStragglersMergedSeparately() throws Exception
+  {
+    List<Sequence<IntPair>> input = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      input.add(nonBlockingSequence(2_000));
+    }
+    input.add(blockingSequence(1_000, 500, 501, 1, 0, false));
+    input.add(blockingSequence(1_000, 500, 501, 1, 0, false));
+
+    // the stragglers arrive in a wave of their own, so they get a task of their own on top of the fast inputs
+    assertResult(input, 128, 1024, true, reportMetrics -> {
+      Assert.assertTrue(reportMetrics.getParallelism() >= 2);
+      Assert.assertEquals(6, reportMetrics.getInputSequences());
+      Assert.assertEquals(10_000, reportMetrics.getInputRows());
+    });
+  }
+
+  @Test
+  public void testAdaptiveExceptionFirstResultFromMultipleSequence() throws Exception
+  {
+    List<Sequence<IntPair>> input = new ArrayList<>();
+    input.add(explodingSequence(0));
+    input.add(explodingSequence(0));
+    input.add(explodingSequence(0));
+    input.add(nonBlockingSequence(2));
+    input.add(nonBlockingSequence(2));
+    input.add(nonBlockingSequence(2));
+
+    expectedException.expect(RuntimeException.class);
+    expectedException.expectMessage(
+        "exploded"
+    );
+    assertException(
+        input,
+        ParallelMergeCombiningSequence.DEFAULT_TASK_SMALL_BATCH_NUM_ROWS,
+        ParallelMergeCombiningSequence.DEFAULT_TASK_INITIAL_YIELD_NUM_ROWS,
+        5000L,
+        0,
+        true
+    );
+  }
+
+  @Test
+  public void testAdaptiveTimeoutExceptionDueToStalledInput() throws Exception
+  {
+    final int someSize = 2048;
+    List<Sequence<IntPair>> input = new ArrayList<>();
+    input.add(nonBlockingSequence(someSize));
+    input.add(nonBlockingSequence(someSize));
+    input.add(nonBlockingSequence(someSize));
+    input.add(nonBlockingSequence(someSize));
+    input.add(blockingSequence(someSize, 2000, 2500, 1, 0, true));
+    expectedException.expect(QueryTimeoutException.class);
+
+    assertException(
+        input,
+        ParallelMergeCombiningSequence.DEFAULT_TASK_SMALL_BATCH_NUM_ROWS,
+        ParallelMergeCombiningSequence.DEFAULT_TASK_INITIAL_YIELD_NUM_ROWS,
+        1000L,
+        0,
+        true
+    );
+  }
+
+  @Test
+  public void testAdaptiveWaitsForInputsWithBoundedTasks() throws Exception
+  {
+    final AtomicInteger waiting = new AtomicInteger();
+    final AtomicInteger maxWaiting = new AtomicInteger();
+    List<Sequence<IntPair>> input = new ArrayList<>();
+    for (int i = 0; i < 32; i++) {
+      final List<IntPair> pairs = generateOrderedPairs(100);
+      input.add(
+          new BaseSequence<>(
+              new BaseSequence.IteratorMaker<IntPair, Iterator<IntPair>>()
+              {
+                @Override
+                public Iterator<IntPair> make()
+                {
+                  maxWaiting.accumulateAndGet(waiting.incrementAndGet(), Math::max);
+                  try {
+                    Thread.sleep(5);
+                  }
+                  catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                  }
+                  finally {
+                    waiting.decrementAndGet();
+                  }
+                  return pairs.iterator();
+                }
+
+                @Override
+                public void cleanup(Iterator<IntPair> iterFromMake)
+                {
+                  // nothing to cleanup
+                }
+              }
+          )
+      );
+    }
+
+    assertResult(input, 128, 1024, true, reportMetrics -> {
+      Assert.assertEquals(32, reportMetrics.getInputSequences());
+      Assert.assertEquals(3200, reportMetrics.getInputRows());
+    });
+    // no more inputs are waited on at once than the merge parallelism, however many inputs there are
+    Assert.assertTrue(String.valueOf(maxWaiting.get()), maxWaiting.get() <= TEST_POOL_SIZE);
+  }
+
+  @Test
+  public void testAdaptiveOpensInputsAsTheyBecomeReady() throws Exception
+  {
+    final SettableFuture<Object> slowReady = SettableFuture.create();
+    final AtomicInteger openedFast = new AtomicInteger();
+    final AtomicInteger openedFastBeforeSlowReady = new AtomicInteger(-1);
+    List<Sequence<IntPair>> input = new ArrayList<>();
+    // the slow inputs come first, and there are more of them than the merge parallelism
+    for (int i = 0; i < TEST_POOL_SIZE * 2; i++) {
+      input.add(new AsyncReadySequence<>(nonBlockingSequence(100), slowReady));
+    }
+    for (int i = 0; i < 8; i++) {
+      final Sequence<IntPair> fast = nonBlockingSequence(1_000);
+      input.add(
+          new AsyncReadySequence<>(
+              new LazySequence<>(() -> {
+                // only count the inputs opened by the parallel merge, not the ones of the expected results
+                if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+                  openedFast.incrementAndGet();
+                }
+                return fast;
+              }),
+              Futures.immediateFuture(null)
+          )
+      );
+    }
+
+    final Thread releaser = new Thread(() -> {
+      try {
+        Thread.sleep(500);
+      }
+      catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      openedFastBeforeSlowReady.set(openedFast.get());
+      slowReady.set(null);
+    });
+    releaser.start();
+
+    // the slow inputs arrive in a wave of their own, so they get a task of their own on top of the fast inputs
+    assertResult(input, 128, 1024, true, reportMetrics -> {
+      Assert.assertTrue(reportMetrics.getParallelism() >= 2);
+      Assert.assertEquals(16, reportMetrics.getInputSequences());
+    });
+    releaser.join();
+    // no task waited on the slow inputs, so the fast ones were all opened while the slow ones were not ready yet
+    Assert.assertEquals(8, openedFastBeforeSlowReady.get());
+  }
+
   private void assertResult(List<Sequence<IntPair>> sequences) throws InterruptedException, IOException
   {
     assertResult(
@@ -591,6 +772,18 @@ public class ParallelMergeCombiningSequenceTest
       Consumer<ParallelMergeCombiningSequence.MergeCombineMetrics> reporter
   )
       throws InterruptedException, IOException
+  {
+    assertResult(sequences, batchSize, yieldAfter, false, reporter);
+  }
+
+  private void assertResult(
+      List<Sequence<IntPair>> sequences,
+      int batchSize,
+      int yieldAfter,
+      boolean adaptive,
+      Consumer<ParallelMergeCombiningSequence.MergeCombineMetrics> reporter
+  )
+      throws InterruptedException, IOException
   {
     final CombiningSequence<IntPair> combiningSequence = CombiningSequence.create(
         new MergeSequence<>(INT_PAIR_ORDERING, Sequences.simple(sequences)),
@@ -610,6 +803,7 @@ public class ParallelMergeCombiningSequenceTest
         yieldAfter,
         batchSize,
         ParallelMergeCombiningSequence.DEFAULT_TASK_TARGET_RUN_TIME_MILLIS,
+        adaptive,
         reporter
     );
 
@@ -736,6 +930,19 @@ public class ParallelMergeCombiningSequenceTest
       int readDelayMillis
   )
       throws Exception
+  {
+    assertException(sequences, batchSize, yieldAfter, timeout, readDelayMillis, false);
+  }
+
+  private void assertException(
+      List<Sequence<IntPair>> sequences,
+      int batchSize,
+      int yieldAfter,
+      long timeout,
+      int readDelayMillis,
+      boolean adaptive
+  )
+      throws Exception
   {
     try {
       final ParallelMergeCombiningSequence<IntPair> parallelMergeCombineSequence = new ParallelMergeCombiningSequence<>(
@@ -750,6 +957,7 @@ public class ParallelMergeCombiningSequenceTest
           yieldAfter,
           batchSize,
           ParallelMergeCombiningSequence.DEFAULT_TASK_TARGET_RUN_TIME_MILLIS,
+          adaptive,
           null
       );
 
@@ -25,15 +25,26 @@ import junit.framework.Assert;
 import org.apache.druid.java.util.common.BufferUtils;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.utils.CompressionUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  */
@@ -213,6 +224,193 @@ public class SmooshedFileMapperTest
     Assert.assertEquals(totalMemoryUsedBeforeAddingFile, totalMemoryUsedAfterAddingFile);
   }
 
+  @Test
+  public void testPartialLoad() throws Exception
+  {
+    File sourceDir = folder.newFolder("source");
+    try (FileSmoosher smoosher = new FileSmoosher(sourceDir, 21)) {
+      for (int i = 0; i < 20; ++i) {
+        File tmpFile = folder.newFile(StringUtils.format("smoosh-%s.bin", i));
+        Files.write(Ints.toByteArray(i), tmpFile);
+        smoosher.add(StringUtils.format("%d", i), tmpFile);
+      }
+    }
+
+    File baseDir = folder.newFolder("base");
+    Files.copy(FileSmoosher.metaFile(sourceDir), FileSmoosher.metaFile(baseDir));
+    SmooshedFileMapper.writeSource(baseDir, sourceDir);
+    File partsDir = new File(baseDir, "parts");
+    CountingListener listener = new CountingListener(Long.MAX_VALUE);
+
+    try (SmooshedFileMapper mapper = SmooshedFileMapper.load(baseDir, listener)) {
+      Assert.assertTrue(mapper.isPartial());
+      Assert.assertFalse(partsDir.exists());
+      for (int i = 0; i < 20; i += 2) {
+        ByteBuffer buf = mapper.mapFile(StringUtils.format("%d", i));
+        Assert.assertEquals(0, buf.position());
+        Assert.assertEquals(4, buf.remaining());
+        Assert.assertEquals(i, buf.getInt());
+      }
+      Assert.assertEquals(10, partsDir.listFiles().length);
+      Assert.assertEquals(40, listener.copiedBytes.get());
+      Assert.assertNull(mapper.mapFile("foo"));
+    }
+
+    // Later loads reuse the parts copied before, and only copy the rest.
+    try (SmooshedFileMapper mapper = SmooshedFileMapper.load(baseDir, listener)) {
+      for (int i = 0; i < 20; ++i) {
+        Assert.assertEquals(i, mapper.mapFile(StringUtils.format("%d", i)).getInt());
+      }
+      Assert.assertEquals(20, partsDir.listFiles().length);
+      Assert.assertEquals(80, listener.copiedBytes.get());
+    }
+    Assert.assertFalse(FileSmoosher.makeChunkFile(baseDir, 0).exists());
+  }
+
+  @Test
+  public void testPartialLoadFromZip() throws Exception
+  {
+    File sourceDir = folder.newFolder("source");
+    try (FileSmoosher smoosher = new FileSmoosher(sourceDir, 21)) {
+      for (int i = 0; i < 20; ++i) {
+        File tmpFile = folder.newFile(StringUtils.format("smoosh-%s.bin", i));
+        Files.write(Ints.toByteArray(i), tmpFile);
+        smoosher.add(StringUtils.format("%d", i), tmpFile);
+      }
+    }
+    File zipFile = new File(folder.getRoot(), "index.zip");
+    zipStored(sourceDir, zipFile);
+    Assert.assertTrue(SmooshedFileMapper.canReadInPlace(zipFile));
+
+    File baseDir = folder.newFolder("base");
+    Files.copy(FileSmoosher.metaFile(sourceDir), FileSmoosher.metaFile(baseDir));
+    SmooshedFileMapper.writeSource(baseDir, zipFile);
+    CountingListener listener = new CountingListener(Long.MAX_VALUE);
+
+    try (SmooshedFileMapper mapper = SmooshedFileMapper.load(baseDir, listener)) {
+      Assert.assertTrue(mapper.isPartial());
+      for (int i = 19; i >= 0; --i) {
+        Assert.assertEquals(i, mapper.mapFile(StringUtils.format("%d", i)).getInt());
+      }
+    }
+    Assert.assertEquals(20, new File(baseDir, "parts").listFiles().length);
+    Assert.assertEquals(80, listener.copiedBytes.get());
+  }
+
+  @Test
+  public void testPartialLoadFromCompressedZip() throws Exception
+  {
+    File sourceDir = folder.newFolder("source");
+    try (FileSmoosher smoosher = new FileSmoosher(sourceDir)) {
+      smoosher.add("0", ByteBuffer.wrap(Ints.toByteArray(0)));
+    }
+    File zipFile = new File(folder.getRoot(), "index.zip");
+    CompressionUtils.zip(sourceDir, zipFile);
+    Assert.assertFalse(SmooshedFileMapper.canReadInPlace(zipFile));
+    Assert.assertTrue(SmooshedFileMapper.canReadInPlace(sourceDir));
+
+    File baseDir = folder.newFolder("base");
+    Files.copy(FileSmoosher.metaFile(sourceDir), FileSmoosher.metaFile(baseDir));
+    SmooshedFileMapper.writeSource(baseDir, zipFile);
+
+    try (SmooshedFileMapper mapper = SmooshedFileMapper.load(baseDir)) {
+      mapper.mapFile("0");
+      Assert.fail("Expected the compressed entry to be refused");
+    }
+    catch (ISE e) {
+      Assert.assertTrue(e.getMessage().contains("cannot be read in place"));
+    }
+  }
+
+  @Test
+  public void testPartialLoadRefusedCopy() throws Exception
+  {
+    File sourceDir = folder.newFolder("source");
+    try (FileSmoosher smoosher = new FileSmoosher(sourceDir, 21)) {
+      for (int i = 0; i < 20; ++i) {
+        File tmpFile = folder.newFile(StringUtils.format("smoosh-%s.bin", i));
+        Files.write(Ints.toByteArray(i), tmpFile);
+        smoosher.add(StringUtils.format("%d", i), tmpFile);
+      }
+    }
+
+    File baseDir = folder.newFolder("base");
+    Files.copy(FileSmoosher.metaFile(sourceDir), FileSmoosher.metaFile(baseDir));
+    SmooshedFileMapper.writeSource(baseDir, sourceDir);
+    File partsDir = new File(baseDir, "parts");
+    CountingListener listener = new CountingListener(8);
+
+    try (SmooshedFileMapper mapper = SmooshedFileMapper.load(baseDir, listener)) {
+      Assert.assertEquals(0, mapper.mapFile("0").getInt());
+      Assert.assertEquals(1, mapper.mapFile("1").getInt());
+      try {
+        mapper.mapFile("2");
+        Assert.fail("Expected the copy to be refused");
+      }
+      catch (IOException e) {
+        Assert.assertTrue(e.getMessage().contains("No room"));
+      }
+      // Parts copied before are still mapped.
+      Assert.assertEquals(0, mapper.mapFile("0").getInt());
+    }
+    Assert.assertEquals(2, partsDir.listFiles().length);
+    Assert.assertEquals(8, listener.copiedBytes.get());
+  }
+
+  @Test
+  public void testPartialLoadConcurrently() throws Exception
+  {
+    File sourceDir = folder.newFolder("source");
+    try (FileSmoosher smoosher = new FileSmoosher(sourceDir, 21)) {
+      for (int i = 0; i < 20; ++i) {
+        File tmpFile = folder.newFile(StringUtils.format("smoosh-%s.bin", i));
+        Files.write(Ints.toByteArray(i), tmpFile);
+        smoosher.add(StringUtils.format("%d", i), tmpFile);
+      }
+    }
+
+    File baseDir = folder.newFolder("base");
+    Files.copy(FileSmoosher.metaFile(sourceDir), FileSmoosher.metaFile(baseDir));
+    SmooshedFileMapper.writeSource(baseDir, sourceDir);
+    CountingListener listener = new CountingListener(Long.MAX_VALUE);
+
+    ExecutorService exec = Executors.newFixedThreadPool(8);
+    try (SmooshedFileMapper mapper = SmooshedFileMapper.load(baseDir, listener)) {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 8; ++thread) {
+        futures.add(
+            exec.submit(
+                () -> {
+                  for (int i = 0; i < 20; ++i) {
+                    Assert.assertEquals(i, mapper.mapFile(StringUtils.format("%d", i)).getInt());
+                  }
+                  return null;
+                }
+            )
+        );
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+    finally {
+      exec.shutdownNow();
+    }
+
+    // Every part is copied, and accounted for, only once.
+    Assert.assertEquals(20, new File(baseDir, "parts").listFiles().length);
+    Assert.assertEquals(80, listener.copiedBytes.get());
+  }
+
+  @Test
+  public void testIsChunkFile()
+  {
+    Assert.assertTrue(FileSmoosher.isChunkFile(FileSmoosher.makeChunkFile(folder.getRoot(), 0).getName()));
+    Assert.assertTrue(FileSmoosher.isChunkFile("123456.smoosh"));
+    Assert.assertFalse(FileSmoosher.isChunkFile(FileSmoosher.metaFile(folder.getRoot()).getName()));
+    Assert.assertFalse(FileSmoosher.isChunkFile("version.bin"));
+  }
+
   private void validateOutput(File baseDir) throws IOException
   {
     validateOutput(baseDir, "");
@@ -239,4 +437,50 @@ public class SmooshedFileMapperTest
       }
     }
   }
+
+  private static void zipStored(File directory, File zipFile) throws IOException
+  {
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
+      for (File file : directory.listFiles()) {
+        final byte[] bytes = Files.toByteArray(file);
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        final ZipEntry entry = new ZipEntry(file.getName());
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        entry.setCompressedSize(bytes.length);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        out.write(bytes);
+        out.closeEntry();
+      }
+    }
+  }
+
+  private static class CountingListener implements PartCopyListener
+  {
+    private final long maxBytes;
+    private final AtomicLong copiedBytes = new AtomicLong();
+
+    private CountingListener(long maxBytes)
+    {
+      this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public boolean beforeCopy(long numBytes)
+    {
+      if (copiedBytes.addAndGet(numBytes) > maxBytes) {
+        copiedBytes.addAndGet(-numBytes);
+        return false;
+      }
+      return true;
+    }
+
+    @Override
+    public void copyFailed(long numBytes)
+    {
+      copiedBytes.addAndGet(-numBytes);
+    }
+  }
 }
@@ -258,6 +258,42 @@ public class VectorExprSanityTest extends InitializedNullHandlingTest
     testExpression("s1 + '-' + s2", types);
     testExpression("concat(s1, s2)", types);
     testExpression("concat(s1,'-',s2,'-',l1,'-',d1)", types);
+    testExpression("upper(s1)", types);
+    testExpression("lower(concat(s1, s2))", types);
+    testExpression("strlen(s1)", types);
+    testExpression("strlen(s1) + l1", types);
+    testExpression("substring(s1, 1, 3)", types);
+    testExpression("substring(s1, 0, -1)", types);
+    testExpression("format('%s-%s', s1, l1)", types);
+    testExpression("format('%s-%d-%.2f', s1, l1, d1)", types);
+  }
+
+  @Test
+  public void testFallbackStringFns()
+  {
+    final String[] expressions = new String[]{
+        "strpos(s1, '1')",
+        "replace(s1, '1', 'x')",
+        "reverse(s1)",
+        "left(s1, 2)",
+        "lpad(s1, 5, 'x')",
+        "upper(reverse(s1))"
+    };
+
+    // not vectorized unless the fallback is enabled
+    Assert.assertFalse(
+        Parser.parse("reverse(s1)", ExprMacroTable.nil()).canVectorize(InputBindings.inspectorFromTypeMap(types))
+    );
+
+    try {
+      ExpressionProcessing.initializeForFallback();
+      for (String expression : expressions) {
+        testExpression(expression, types);
+      }
+    }
+    finally {
+      ExpressionProcessing.initializeForStrictBooleansTests(true);
+    }
   }
 
   static void testFunctions(Map<String, ExpressionType> types, String[] templates, String[] args)
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.column;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
+import org.apache.druid.TestObjectMapper;
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.testing.InitializedNullHandlingTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ColumnStatsTest extends InitializedNullHandlingTest
+{
+  private static final String NULL_VALUE = "";
+
+  @Test
+  public void testSerde() throws Exception
+  {
+    final ObjectMapper mapper = new TestObjectMapper();
+    for (ColumnStats stats : new ColumnStats[]{
+        new ColumnStats(ValueType.STRING, "a", "z", 2, 10),
+        new ColumnStats(ValueType.LONG, 1L, Long.MAX_VALUE, 0, 100),
+        new ColumnStats(ValueType.DOUBLE, -1.5, 2.5, 3, 50),
+        new ColumnStats(ValueType.FLOAT, null, null, 7, 0)
+    }) {
+      Assert.assertEquals(stats, mapper.readValue(mapper.writeValueAsString(stats), ColumnStats.class));
+    }
+  }
+
+  @Test
+  public void testStringPossibleInDomain()
+  {
+    final ColumnStats stats = new ColumnStats(ValueType.STRING, "b", "d", 0, 3);
+
+    Assert.assertTrue(stats.possibleInDomain(single("b")));
+    Assert.assertTrue(stats.possibleInDomain(single("c")));
+    Assert.assertTrue(stats.possibleInDomain(single("d")));
+    Assert.assertFalse(stats.possibleInDomain(single("a")));
+    Assert.assertFalse(stats.possibleInDomain(single("e")));
+    Assert.assertFalse(stats.possibleInDomain(single(NULL_VALUE)));
+    Assert.assertTrue(stats.possibleInDomain(ImmutableRangeSet.of(Range.atLeast("c"))));
+    Assert.assertFalse(stats.possibleInDomain(ImmutableRangeSet.of(Range.greaterThan("d"))));
+    Assert.assertFalse(stats.possibleInDomain(ImmutableRangeSet.of(Range.lessThan("b"))));
+
+    final RangeSet<String> notC = TreeRangeSet.create();
+    notC.add(Range.lessThan("c"));
+    notC.add(Range.greaterThan("c"));
+    Assert.assertTrue(stats.possibleInDomain(notC));
+  }
+
+  @Test
+  public void testStringNulls()
+  {
+    final ColumnStats withNulls = new ColumnStats(ValueType.STRING, "b", "d", 5, 3);
+    final ColumnStats onlyNulls = new ColumnStats(ValueType.STRING, null, null, 5, 0);
+    final RangeSet<String> isNull = NullHandling.sqlCompatible()
+                                    ? ImmutableRangeSet.of(Range.lessThan(""))
+                                    : single(NULL_VALUE);
+
+    Assert.assertTrue(withNulls.possibleInDomain(isNull));
+    Assert.assertFalse(withNulls.possibleInDomain(single("a")));
+    Assert.assertTrue(onlyNulls.possibleInDomain(isNull));
+    Assert.assertFalse(onlyNulls.possibleInDomain(single("a")));
+  }
+
+  @Test
+  public void testLongPossibleInDomain()
+  {
+    final ColumnStats stats = new ColumnStats(ValueType.LONG, 10L, 20L, 0, 11);
+
+    Assert.assertTrue(stats.possibleInDomain(single("10")));
+    Assert.assertTrue(stats.possibleInDomain(single("15.5")));
+    Assert.assertFalse(stats.possibleInDomain(single("9")));
+    Assert.assertFalse(stats.possibleInDomain(single("21")));
+    Assert.assertFalse(stats.possibleInDomain(single("20.5")));
+
+    // "100" is greater than "20" as a String, but ranges of numbers cannot be compared, so they are always possible
+    Assert.assertTrue(stats.possibleInDomain(ImmutableRangeSet.of(Range.atLeast("100"))));
+
+    // values that are not numbers cannot be compared either
+    Assert.assertTrue(stats.possibleInDomain(single("abc")));
+    Assert.assertTrue(stats.possibleInDomain(single(NULL_VALUE)));
+
+    final RangeSet<String> in = TreeRangeSet.create();
+    in.add(Range.singleton("1"));
+    in.add(Range.singleton("30"));
+    Assert.assertFalse(stats.possibleInDomain(in));
+    in.add(Range.singleton("12"));
+    Assert.assertTrue(stats.possibleInDomain(in));
+  }
+
+  @Test
+  public void testFloatPossibleInDomain()
+  {
+    final ColumnStats stats = new ColumnStats(ValueType.FLOAT, (double) 0.1f, (double) 0.5f, 0, 5);
+
+    // 0.1 as a double is smaller than 0.1 as a float, but FLOAT columns match values rounded to floats
+    Assert.assertTrue(stats.possibleInDomain(single("0.1")));
+    Assert.assertTrue(stats.possibleInDomain(single("0.5")));
+    Assert.assertFalse(stats.possibleInDomain(single("0.6")));
+    Assert.assertFalse(stats.possibleInDomain(single("-1")));
+  }
+
+  @Test
+  public void testNumericNulls()
+  {
+    final ColumnStats noNulls = new ColumnStats(ValueType.DOUBLE, 1.0, 2.0, 0, 2);
+    final ColumnStats withNulls = new ColumnStats(ValueType.DOUBLE, 1.0, 2.0, 3, 2);
+    if (NullHandling.sqlCompatible()) {
+      final RangeSet<String> isNull = ImmutableRangeSet.of(Range.lessThan(""));
+      Assert.assertFalse(noNulls.possibleInDomain(isNull));
+      Assert.assertTrue(withNulls.possibleInDomain(isNull));
+    } else {
+      // nulls are zeros in default value mode, and the empty string is not a number
+      Assert.assertTrue(noNulls.possibleInDomain(single(NULL_VALUE)));
+      Assert.assertFalse(noNulls.possibleInDomain(single("0")));
+    }
+  }
+
+  private static RangeSet<String> single(String value)
+  {
+    return ImmutableRangeSet.of(Range.singleton(value));
+  }
+}
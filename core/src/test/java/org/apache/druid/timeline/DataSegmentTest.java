@@ -31,6 +31,8 @@ import org.apache.druid.indexer.partitions.HashedPartitionsSpec;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.jackson.JacksonUtils;
+import org.apache.druid.segment.column.ColumnStats;
+import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.timeline.DataSegment.PruneSpecsHolder;
 import org.apache.druid.timeline.partition.NoneShardSpec;
 import org.apache.druid.timeline.partition.NumberedShardSpec;
@@ -336,6 +338,34 @@ public class DataSegmentTest
     Assert.assertEquals("empty metrics", ImmutableList.of(), segment2.getMetrics());
   }
 
+  @Test
+  public void testSerializationWithColumnStats() throws Exception
+  {
+    final DataSegment segment =
+        makeDataSegment("foo", "2012-01-01/2012-01-02", DateTimes.of("2012-01-01T11:22:33.444Z").toString());
+    Assert.assertNull(segment.getColumnStats());
+    Assert.assertFalse(MAPPER.writeValueAsString(segment).contains("columnStats"));
+
+    final Map<String, ColumnStats> columnStats = ImmutableMap.of(
+        "dim1", new ColumnStats(ValueType.STRING, "a", "b", 1, 2),
+        "met1", new ColumnStats(ValueType.LONG, 3L, 4L, 0, 2)
+    );
+    final DataSegment withStats = segment.withColumnStats(columnStats);
+    Assert.assertEquals(segment, withStats);
+
+    final DataSegment deserializedSegment = MAPPER.readValue(MAPPER.writeValueAsString(withStats), DataSegment.class);
+    Assert.assertEquals(columnStats, deserializedSegment.getColumnStats());
+    Assert.assertEquals(columnStats, DataSegment.builder(deserializedSegment).build().getColumnStats());
+
+    // Brokers that do not keep column stats drop them when they load segments
+    final PruneSpecsHolder pruneSpecsHolder = new PruneSpecsHolder();
+    pruneSpecsHolder.pruneColumnStats = true;
+    MAPPER.setInjectableValues(new InjectableValues.Std().addValue(PruneSpecsHolder.class, pruneSpecsHolder));
+    final DataSegment prunedSegment = MAPPER.readValue(MAPPER.writeValueAsString(withStats), DataSegment.class);
+    Assert.assertEquals(segment, prunedSegment);
+    Assert.assertNull(prunedSegment.getColumnStats());
+  }
+
   @Test
   public void testWithLastCompactionState()
   {
@@ -112,8 +112,8 @@ public class KafkaIndexTaskTuningConfigTest
     Assert.assertEquals(100, config.getMaxPendingPersists());
     Assert.assertEquals(true, config.isReportParseExceptions());
     Assert.assertEquals(100, config.getHandoffConditionTimeout());
-    Assert.assertEquals(new IndexSpec(null, null, CompressionStrategy.NONE, null), config.getIndexSpec());
-    Assert.assertEquals(new IndexSpec(null, CompressionStrategy.UNCOMPRESSED, null, null), config.getIndexSpecForIntermediatePersists());
+    Assert.assertEquals(IndexSpec.builder().withMetricCompression(CompressionStrategy.NONE).build(), config.getIndexSpec());
+    Assert.assertEquals(IndexSpec.builder().withDimensionCompression(CompressionStrategy.UNCOMPRESSED).build(), config.getIndexSpecForIntermediatePersists());
   }
 
   @Test
@@ -124,8 +124,8 @@ public class KafkaSupervisorTuningConfigTest
     Assert.assertEquals(Duration.standardSeconds(15), config.getHttpTimeout());
     Assert.assertEquals(Duration.standardSeconds(95), config.getShutdownTimeout());
     Assert.assertEquals(Duration.standardSeconds(20), config.getOffsetFetchPeriod());
-    Assert.assertEquals(new IndexSpec(null, null, CompressionStrategy.NONE, null), config.getIndexSpec());
-    Assert.assertEquals(new IndexSpec(null, CompressionStrategy.UNCOMPRESSED, null, null), config.getIndexSpecForIntermediatePersists());
+    Assert.assertEquals(IndexSpec.builder().withMetricCompression(CompressionStrategy.NONE).build(), config.getIndexSpec());
+    Assert.assertEquals(IndexSpec.builder().withDimensionCompression(CompressionStrategy.UNCOMPRESSED).build(), config.getIndexSpecForIntermediatePersists());
   }
 
 }
@@ -298,13 +298,13 @@ public class SegmentGeneratorFrameProcessorFactory
       public IndexSpec getIndexSpecForIntermediatePersists()
       {
         // Disable compression for intermediate persists to reduce direct memory usage.
-        return new IndexSpec(
-            null,
-            CompressionStrategy.UNCOMPRESSED, // Dimensions don't support NONE, so use UNCOMPRESSED
-            CompressionStrategy.NONE, // NONE is more efficient than UNCOMPRESSED
-            CompressionFactory.LongEncodingStrategy.LONGS,
-            null
-        );
+        return IndexSpec.builder()
+            // Dimensions don't support NONE, so use UNCOMPRESSED
+            .withDimensionCompression(CompressionStrategy.UNCOMPRESSED)
+            // NONE is more efficient than UNCOMPRESSED
+            .withMetricCompression(CompressionStrategy.NONE)
+            .withLongEncoding(CompressionFactory.LongEncodingStrategy.LONGS)
+            .build();
       }
 
       @Override
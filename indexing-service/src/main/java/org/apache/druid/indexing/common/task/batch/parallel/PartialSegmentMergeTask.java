@@ -49,6 +49,7 @@ import org.apache.druid.segment.IndexMergerV9;
 import org.apache.druid.segment.QueryableIndex;
 import org.apache.druid.segment.indexing.DataSchema;
 import org.apache.druid.segment.loading.DataSegmentPusher;
+import org.apache.druid.segment.realtime.appenderator.Appenderators;
 import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.timeline.partition.ShardSpec;
 import org.joda.time.Interval;
@@ -270,25 +271,32 @@ abstract class PartialSegmentMergeTask<S extends ShardSpec> extends PerfectRollu
                                                .map(AggregatorFactory::getName)
                                                .collect(Collectors.toList());
 
+        final DataSegment segmentToPush = Appenderators.withColumnStats(
+            new DataSegment(
+                getDataSource(),
+                interval,
+                Preconditions.checkNotNull(
+                    AbstractBatchIndexTask.findVersion(intervalToVersion, interval),
+                    "version for interval[%s]",
+                    interval
+                ),
+                null, // will be filled in the segmentPusher
+                mergedFileAndDimensionNames.rhs,
+                metricNames,
+                createShardSpec(toolbox, interval, bucketId),
+                null, // will be filled in the segmentPusher
+                0     // will be filled in the segmentPusher
+            ),
+            tuningConfig.getIndexSpec(),
+            toolbox.getIndexIO(),
+            mergedFileAndDimensionNames.lhs
+        );
+
         // Retry pushing segments because uploading to deep storage might fail especially for cloud storage types
         final DataSegment segment = RetryUtils.retry(
             () -> segmentPusher.push(
                 mergedFileAndDimensionNames.lhs,
-                new DataSegment(
-                    getDataSource(),
-                    interval,
-                    Preconditions.checkNotNull(
-                        AbstractBatchIndexTask.findVersion(intervalToVersion, interval),
-                        "version for interval[%s]",
-                        interval
-                    ),
-                    null, // will be filled in the segmentPusher
-                    mergedFileAndDimensionNames.rhs,
-                    metricNames,
-                    createShardSpec(toolbox, interval, bucketId),
-                    null, // will be filled in the segmentPusher
-                    0     // will be filled in the segmentPusher
-                ),
+                segmentToPush,
                 false
             ),
             exception -> !(exception instanceof NullPointerException) && exception instanceof Exception,
@@ -101,18 +101,18 @@ public class ClientCompactionTaskQuerySerdeTest
             null,
             new SegmentsSplitHintSpec(new HumanReadableBytes(100000L), 10),
             new DynamicPartitionsSpec(100, 30000L),
-            new IndexSpec(
-                new DefaultBitmapSerdeFactory(),
-                CompressionStrategy.LZ4,
-                CompressionStrategy.LZF,
-                LongEncodingStrategy.LONGS
-            ),
-            new IndexSpec(
-                new DefaultBitmapSerdeFactory(),
-                CompressionStrategy.LZ4,
-                CompressionStrategy.UNCOMPRESSED,
-                LongEncodingStrategy.AUTO
-            ),
+            IndexSpec.builder()
+                .withBitmapSerdeFactory(new DefaultBitmapSerdeFactory())
+                .withDimensionCompression(CompressionStrategy.LZ4)
+                .withMetricCompression(CompressionStrategy.LZF)
+                .withLongEncoding(LongEncodingStrategy.LONGS)
+                .build(),
+            IndexSpec.builder()
+                .withBitmapSerdeFactory(new DefaultBitmapSerdeFactory())
+                .withDimensionCompression(CompressionStrategy.LZ4)
+                .withMetricCompression(CompressionStrategy.UNCOMPRESSED)
+                .withLongEncoding(LongEncodingStrategy.AUTO)
+                .build(),
             2,
             1000L,
             TmpFileSegmentWriteOutMediumFactory.instance(),
@@ -260,18 +260,18 @@ public class ClientCompactionTaskQuerySerdeTest
                 null,
                 new SegmentsSplitHintSpec(new HumanReadableBytes(100000L), 10),
                 new DynamicPartitionsSpec(100, 30000L),
-                new IndexSpec(
-                    new DefaultBitmapSerdeFactory(),
-                    CompressionStrategy.LZ4,
-                    CompressionStrategy.LZF,
-                    LongEncodingStrategy.LONGS
-                ),
-                new IndexSpec(
-                    new DefaultBitmapSerdeFactory(),
-                    CompressionStrategy.LZ4,
-                    CompressionStrategy.UNCOMPRESSED,
-                    LongEncodingStrategy.AUTO
-                ),
+                IndexSpec.builder()
+                    .withBitmapSerdeFactory(new DefaultBitmapSerdeFactory())
+                    .withDimensionCompression(CompressionStrategy.LZ4)
+                    .withMetricCompression(CompressionStrategy.LZF)
+                    .withLongEncoding(LongEncodingStrategy.LONGS)
+                    .build(),
+                IndexSpec.builder()
+                    .withBitmapSerdeFactory(new DefaultBitmapSerdeFactory())
+                    .withDimensionCompression(CompressionStrategy.LZ4)
+                    .withMetricCompression(CompressionStrategy.UNCOMPRESSED)
+                    .withLongEncoding(LongEncodingStrategy.AUTO)
+                    .build(),
                 2,
                 null,
                 null,
@@ -322,18 +322,18 @@ public class ClientCompactionTaskQuerySerdeTest
             30000L,
             new SegmentsSplitHintSpec(new HumanReadableBytes(100000L), 10),
             new DynamicPartitionsSpec(100, 30000L),
-            new IndexSpec(
-                new DefaultBitmapSerdeFactory(),
-                CompressionStrategy.LZ4,
-                CompressionStrategy.LZF,
-                LongEncodingStrategy.LONGS
-            ),
-            new IndexSpec(
-                new DefaultBitmapSerdeFactory(),
-                CompressionStrategy.LZ4,
-                CompressionStrategy.UNCOMPRESSED,
-                LongEncodingStrategy.AUTO
-            ),
+            IndexSpec.builder()
+                .withBitmapSerdeFactory(new DefaultBitmapSerdeFactory())
+                .withDimensionCompression(CompressionStrategy.LZ4)
+                .withMetricCompression(CompressionStrategy.LZF)
+                .withLongEncoding(LongEncodingStrategy.LONGS)
+                .build(),
+            IndexSpec.builder()
+                .withBitmapSerdeFactory(new DefaultBitmapSerdeFactory())
+                .withDimensionCompression(CompressionStrategy.LZ4)
+                .withMetricCompression(CompressionStrategy.UNCOMPRESSED)
+                .withLongEncoding(LongEncodingStrategy.AUTO)
+                .build(),
             2,
             1000L,
             TmpFileSegmentWriteOutMediumFactory.instance(),
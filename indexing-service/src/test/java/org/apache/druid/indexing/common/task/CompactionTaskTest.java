@@ -326,12 +326,12 @@ public class CompactionTaskTest
         null,
         null,
         null,
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         true,
@@ -626,12 +626,12 @@ public class CompactionTaskTest
             null,
             null,
             null,
-            new IndexSpec(
-                new RoaringBitmapSerdeFactory(true),
-                CompressionStrategy.LZ4,
-                CompressionStrategy.LZF,
-                LongEncodingStrategy.LONGS
-            ),
+            IndexSpec.builder()
+                .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+                .withDimensionCompression(CompressionStrategy.LZ4)
+                .withMetricCompression(CompressionStrategy.LZF)
+                .withLongEncoding(LongEncodingStrategy.LONGS)
+                .build(),
             null,
             null,
             true,
@@ -689,12 +689,12 @@ public class CompactionTaskTest
         null,
         null,
         null,
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         true,
@@ -720,12 +720,12 @@ public class CompactionTaskTest
         null,
         null,
         null,
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         true,
@@ -765,12 +765,12 @@ public class CompactionTaskTest
         null,
         null,
         null,
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         true,
@@ -804,12 +804,12 @@ public class CompactionTaskTest
         null,
         null,
         null,
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         true,
@@ -953,12 +953,12 @@ public class CompactionTaskTest
         null,
         null,
         null,
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         true,
@@ -1028,12 +1028,12 @@ public class CompactionTaskTest
         null,
         null,
         null,
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         false,
@@ -1103,12 +1103,12 @@ public class CompactionTaskTest
         null,
         null,
         new HashedPartitionsSpec(null, 3, null),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         true,
@@ -1851,12 +1851,12 @@ public class CompactionTaskTest
             null,
             null,
             new HashedPartitionsSpec(5000000, null, null), // automatically computed targetPartitionSize
-            new IndexSpec(
-                new RoaringBitmapSerdeFactory(true),
-                CompressionStrategy.LZ4,
-                CompressionStrategy.LZF,
-                LongEncodingStrategy.LONGS
-            ),
+            IndexSpec.builder()
+                .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+                .withDimensionCompression(CompressionStrategy.LZ4)
+                .withMetricCompression(CompressionStrategy.LZF)
+                .withLongEncoding(LongEncodingStrategy.LONGS)
+                .build(),
             null,
             null,
             true,
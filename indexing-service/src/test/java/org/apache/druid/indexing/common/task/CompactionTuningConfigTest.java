@@ -78,12 +78,12 @@ public class CompactionTuningConfigTest
         null,
         null,
         new DynamicPartitionsSpec(100, 100L),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.UNCOMPRESSED,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.UNCOMPRESSED)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         new IndexSpec(),
         1,
         false,
@@ -120,12 +120,12 @@ public class CompactionTuningConfigTest
         null,
         null,
         new DynamicPartitionsSpec(100, 100L),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.UNCOMPRESSED,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.UNCOMPRESSED)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         new IndexSpec(),
         1,
         false,
@@ -163,12 +163,12 @@ public class CompactionTuningConfigTest
         null,
         null,
         new DynamicPartitionsSpec(100, 100L),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.UNCOMPRESSED,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.UNCOMPRESSED)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         new IndexSpec(),
         1,
         false,
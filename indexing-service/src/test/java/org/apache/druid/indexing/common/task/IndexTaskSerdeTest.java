@@ -68,12 +68,12 @@ public class IndexTaskSerdeTest
         null,
         null,
         new DynamicPartitionsSpec(1000, 2000L),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(false),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(false))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         false,
@@ -105,12 +105,12 @@ public class IndexTaskSerdeTest
         null,
         null,
         new HashedPartitionsSpec(null, 10, ImmutableList.of("dim1", "dim2")),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(false),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(false))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         true,
@@ -142,12 +142,12 @@ public class IndexTaskSerdeTest
         null,
         null,
         null,
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(false),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(false))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         false,
@@ -179,12 +179,12 @@ public class IndexTaskSerdeTest
         10,
         ImmutableList.of("dim1", "dim2"),
         null,
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(false),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(false))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         false,
@@ -218,12 +218,12 @@ public class IndexTaskSerdeTest
         null,
         null,
         new DynamicPartitionsSpec(1000, 2000L),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(false),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(false))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         true,
@@ -256,12 +256,12 @@ public class IndexTaskSerdeTest
         null,
         null,
         new HashedPartitionsSpec(null, 10, ImmutableList.of("dim1", "dim2")),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(false),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(false))
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         null,
         null,
         false,
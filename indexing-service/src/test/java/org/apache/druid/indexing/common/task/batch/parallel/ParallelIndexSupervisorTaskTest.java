@@ -242,12 +242,12 @@ public class ParallelIndexSupervisorTaskTest
           null,
           null,
           new HashedPartitionsSpec(null, 10, null),
-          new IndexSpec(
-              new RoaringBitmapSerdeFactory(true),
-              CompressionStrategy.UNCOMPRESSED,
-              CompressionStrategy.LZF,
-              LongEncodingStrategy.LONGS
-          ),
+          IndexSpec.builder()
+              .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+              .withDimensionCompression(CompressionStrategy.UNCOMPRESSED)
+              .withMetricCompression(CompressionStrategy.LZF)
+              .withLongEncoding(LongEncodingStrategy.LONGS)
+              .build(),
           new IndexSpec(),
           1,
           forceGuaranteedRollup,
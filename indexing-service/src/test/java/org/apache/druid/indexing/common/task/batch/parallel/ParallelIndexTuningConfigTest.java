@@ -78,12 +78,12 @@ public class ParallelIndexTuningConfigTest
         null,
         null,
         new DynamicPartitionsSpec(100, 100L),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.UNCOMPRESSED,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.UNCOMPRESSED)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         new IndexSpec(),
         1,
         false,
@@ -125,12 +125,12 @@ public class ParallelIndexTuningConfigTest
         null,
         null,
         new DynamicPartitionsSpec(100, 100L),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.UNCOMPRESSED,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.UNCOMPRESSED)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         new IndexSpec(),
         1,
         false,
@@ -172,12 +172,12 @@ public class ParallelIndexTuningConfigTest
         null,
         null,
         new DynamicPartitionsSpec(100, 100L),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.UNCOMPRESSED,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.UNCOMPRESSED)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         new IndexSpec(),
         1,
         false,
@@ -221,12 +221,12 @@ public class ParallelIndexTuningConfigTest
         null,
         null,
         new DynamicPartitionsSpec(100, 100L),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.UNCOMPRESSED,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.UNCOMPRESSED)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         new IndexSpec(),
         1,
         false,
@@ -267,12 +267,12 @@ public class ParallelIndexTuningConfigTest
         null,
         null,
         new HashedPartitionsSpec(null, 10, null),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.UNCOMPRESSED,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.UNCOMPRESSED)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         new IndexSpec(),
         1,
         forceGuaranteedRollup,
@@ -313,12 +313,12 @@ public class ParallelIndexTuningConfigTest
         null,
         null,
         new SingleDimensionPartitionsSpec(100, null, "dim", false),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.UNCOMPRESSED,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.UNCOMPRESSED)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         new IndexSpec(),
         1,
         forceGuaranteedRollup,
@@ -359,12 +359,12 @@ public class ParallelIndexTuningConfigTest
         null,
         null,
         new DynamicPartitionsSpec(100, null),
-        new IndexSpec(
-            new RoaringBitmapSerdeFactory(true),
-            CompressionStrategy.UNCOMPRESSED,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .withDimensionCompression(CompressionStrategy.UNCOMPRESSED)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
         new IndexSpec(),
         1,
         forceGuaranteedRollup,
@@ -56,6 +56,19 @@ public interface MutableBitmap extends ImmutableBitmap
    */
   void add(int entry);
 
+  /**
+   * Add all integers from startInclusive to endExclusive to the bitmap.
+   *
+   * @param startInclusive first integer to be added
+   * @param endExclusive   integer after the last one to be added
+   */
+  default void addRange(int startInclusive, int endExclusive)
+  {
+    for (int i = startInclusive; i < endExclusive; i++) {
+      add(i);
+    }
+  }
+
   /**
    * Remove the specified integer to the bitmap. This is equivalent to setting the
    * ith bit to the value 1.
@@ -141,6 +141,11 @@ public class RoaringBitmapFactory implements BitmapFactory
   @Override
   public ImmutableBitmap union(Iterable<ImmutableBitmap> b)
   {
+    if (b instanceof SerializedBitmapIterable) {
+      return new WrappedImmutableRoaringBitmap(
+          SerializedRoaringBitmapUnion.union(((SerializedBitmapIterable) b).serializedIterator())
+      );
+    }
     if (b instanceof Collection) {
       final Collection<ImmutableBitmap> bitmapList = (Collection<ImmutableBitmap>) b;
       final int size = bitmapList.size();
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.collections.bitmap;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
+/**
+ * Bitmaps that can also be iterated in their serialized form, such as the bitmap indexes of the values matched by a
+ * filter. {@link BitmapFactory#union} implementations that can combine serialized bitmaps directly, like
+ * {@link RoaringBitmapFactory}, use {@link #serializedIterator()} so that no {@link ImmutableBitmap} has to be created
+ * for each bitmap. Others just use {@link #iterator()}.
+ */
+public interface SerializedBitmapIterable extends Iterable<ImmutableBitmap>
+{
+  /**
+   * Returns an iterator over the same bitmaps as {@link #iterator()}, serialized like the bitmap serde of the column
+   * they came from. Each buffer spans one bitmap from its position to its limit, and may be reused by the next call to
+   * {@link Iterator#next()}. Empty bitmaps may be returned as null.
+   */
+  Iterator<ByteBuffer> serializedIterator();
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.collections.bitmap;
+
+import org.apache.druid.java.util.common.IAE;
+import org.roaringbitmap.buffer.MappeableBitmapContainer;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Computes the union of serialized Roaring bitmaps by reading their containers straight from the buffers they are
+ * stored in, without creating an {@link org.roaringbitmap.buffer.ImmutableRoaringBitmap} or any container object for
+ * each of them. Every container is OR-ed into a 65536 bit array for its key, and each array becomes one container of
+ * the result at the end, like {@link org.roaringbitmap.buffer.BufferFastAggregation#horizontal_or} does.
+ *
+ * Reads the format written by {@link org.roaringbitmap.buffer.ImmutableRoaringBitmap#serialize}, which is
+ * little-endian:
+ * a cookie, which tells whether there are run containers, followed by either the number of containers, or a bitmap
+ * of which containers are run containers;
+ * the key and cardinality minus one of each container, 2 bytes each;
+ * the offset of each container, 4 bytes each, unless there are run containers and fewer than
+ * {@link #NO_OFFSET_THRESHOLD} containers;
+ * the containers: 1024 longs for bitmap containers, 2 bytes per value for array containers, and for run containers, 2
+ * bytes with the number of runs followed by the start and length minus one of each run, 2 bytes each.
+ */
+class SerializedRoaringBitmapUnion
+{
+  private static final int SERIAL_COOKIE_NO_RUNCONTAINER = 12346;
+  private static final int SERIAL_COOKIE = 12347;
+  private static final int NO_OFFSET_THRESHOLD = 4;
+  private static final int MAX_ARRAY_CARDINALITY = 4096;
+  private static final int WORDS_PER_CONTAINER = 1024;
+
+  /**
+   * Bits of each container key seen so far, indexed by key. Null for keys not seen yet.
+   */
+  private long[][] words = new long[16][];
+
+  private final Reader in = new Reader();
+
+  private SerializedRoaringBitmapUnion()
+  {
+  }
+
+  static MutableRoaringBitmap union(Iterator<ByteBuffer> bitmaps)
+  {
+    final SerializedRoaringBitmapUnion union = new SerializedRoaringBitmapUnion();
+    while (bitmaps.hasNext()) {
+      final ByteBuffer bitmap = bitmaps.next();
+      if (bitmap != null && bitmap.hasRemaining()) {
+        union.add(bitmap);
+      }
+    }
+    return union.build();
+  }
+
+  private void add(ByteBuffer buffer)
+  {
+    in.reset(buffer);
+    final int cookie = in.getInt(0);
+    final boolean hasRuns;
+    final int numContainers;
+    final int runMarkersPosition;
+    int headerPosition;
+    if ((cookie & 0xFFFF) == SERIAL_COOKIE) {
+      hasRuns = true;
+      numContainers = (cookie >>> 16) + 1;
+      runMarkersPosition = Integer.BYTES;
+      headerPosition = runMarkersPosition + (numContainers + 7) / 8;
+    } else if (cookie == SERIAL_COOKIE_NO_RUNCONTAINER) {
+      hasRuns = false;
+      numContainers = in.getInt(Integer.BYTES);
+      runMarkersPosition = -1;
+      headerPosition = 2 * Integer.BYTES;
+    } else {
+      throw new IAE("Unknown Roaring bitmap cookie[%s]", cookie);
+    }
+
+    final boolean hasOffsets = !hasRuns || numContainers >= NO_OFFSET_THRESHOLD;
+    final int offsetsPosition = headerPosition + numContainers * 2 * Short.BYTES;
+    int containerPosition = offsetsPosition + (hasOffsets ? numContainers * Integer.BYTES : 0);
+
+    for (int i = 0; i < numContainers; i++, headerPosition += 2 * Short.BYTES) {
+      final int key = in.getUnsignedShort(headerPosition);
+      final int cardinality = in.getUnsignedShort(headerPosition + Short.BYTES) + 1;
+      if (hasOffsets) {
+        containerPosition = in.getInt(offsetsPosition + i * Integer.BYTES);
+      }
+      final long[] containerWords = getWords(key);
+
+      if (hasRuns && (in.getByte(runMarkersPosition + i / 8) & (1 << (i % 8))) != 0) {
+        final int numRuns = in.getUnsignedShort(containerPosition);
+        int runPosition = containerPosition + Short.BYTES;
+        for (int run = 0; run < numRuns; run++, runPosition += 2 * Short.BYTES) {
+          final int start = in.getUnsignedShort(runPosition);
+          setRange(containerWords, start, start + in.getUnsignedShort(runPosition + Short.BYTES) + 1);
+        }
+        containerPosition = runPosition;
+      } else if (cardinality > MAX_ARRAY_CARDINALITY) {
+        for (int word = 0; word < WORDS_PER_CONTAINER; word++) {
+          containerWords[word] |= in.getLong(containerPosition + word * Long.BYTES);
+        }
+        containerPosition += WORDS_PER_CONTAINER * Long.BYTES;
+      } else {
+        for (int value = 0; value < cardinality; value++) {
+          final int lowBits = in.getUnsignedShort(containerPosition + value * Short.BYTES);
+          containerWords[lowBits >>> 6] |= 1L << lowBits;
+        }
+        containerPosition += cardinality * Short.BYTES;
+      }
+    }
+  }
+
+  private long[] getWords(int key)
+  {
+    if (key >= words.length) {
+      words = Arrays.copyOf(words, Math.max(key + 1, 2 * words.length));
+    }
+    if (words[key] == null) {
+      words[key] = new long[WORDS_PER_CONTAINER];
+    }
+    return words[key];
+  }
+
+  private MutableRoaringBitmap build()
+  {
+    final MutableRoaringBitmap result = new MutableRoaringBitmap();
+    for (int key = 0; key < words.length; key++) {
+      if (words[key] != null) {
+        // An unknown cardinality makes the container count its bits, and turn into an array container if that is
+        // smaller.
+        result.append((char) key, new MappeableBitmapContainer(LongBuffer.wrap(words[key]), -1).repairAfterLazy());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sets the bits from start to end, exclusive.
+   */
+  private static void setRange(long[] containerWords, int start, int end)
+  {
+    final int firstWord = start >>> 6;
+    final int lastWord = (end - 1) >>> 6;
+    if (firstWord == lastWord) {
+      containerWords[firstWord] |= (-1L << start) & (-1L >>> -end);
+      return;
+    }
+    containerWords[firstWord] |= -1L << start;
+    for (int word = firstWord + 1; word < lastWord; word++) {
+      containerWords[word] = -1L;
+    }
+    containerWords[lastWord] |= -1L >>> -end;
+  }
+
+  /**
+   * Reads little-endian values at positions relative to the position of a buffer, whatever its byte order, since
+   * the buffer may be shared and cannot be reordered. Reused for every bitmap.
+   */
+  private static class Reader
+  {
+    private ByteBuffer buffer;
+    private int start;
+    private boolean reverse;
+
+    void reset(ByteBuffer buffer)
+    {
+      this.buffer = buffer;
+      this.start = buffer.position();
+      this.reverse = buffer.order() != ByteOrder.LITTLE_ENDIAN;
+    }
+
+    byte getByte(int position)
+    {
+      return buffer.get(start + position);
+    }
+
+    int getUnsignedShort(int position)
+    {
+      final short value = buffer.getShort(start + position);
+      return (reverse ? Short.reverseBytes(value) : value) & 0xFFFF;
+    }
+
+    int getInt(int position)
+    {
+      final int value = buffer.getInt(start + position);
+      return reverse ? Integer.reverseBytes(value) : value;
+    }
+
+    long getLong(int position)
+    {
+      final long value = buffer.getLong(start + position);
+      return reverse ? Long.reverseBytes(value) : value;
+    }
+  }
+}
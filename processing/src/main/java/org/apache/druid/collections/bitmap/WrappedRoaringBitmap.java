@@ -116,6 +116,12 @@ public class WrappedRoaringBitmap implements MutableBitmap
     writer.add(entry);
   }
 
+  @Override
+  public void addRange(int startInclusive, int endExclusive)
+  {
+    writer.add(startInclusive, (long) endExclusive);
+  }
+
   @Override
   public int size()
   {
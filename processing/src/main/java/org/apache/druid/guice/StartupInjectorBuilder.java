@@ -50,6 +50,7 @@ public class StartupInjectorBuilder extends BaseInjectorBuilder<StartupInjectorB
         new ConfigModule(),
         new NullHandlingModule(),
         new ExpressionProcessingModule(),
+        new ColumnPrefetchModule(),
         binder -> binder.bind(DruidSecondaryModule.class)
     );
   }
@@ -24,7 +24,9 @@ import com.google.common.base.Function;
 import org.apache.druid.guice.annotations.ExtensionPoint;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.joda.time.DateTime;
 
+import javax.annotation.Nullable;
 import java.util.Iterator;
 import java.util.List;
 
@@ -111,6 +113,32 @@ public interface CacheStrategy<T, CacheType, QueryType extends Query<T>>
     return pullFromCache(false);
   }
 
+  /**
+   * Returns a function that gets the start of the time bucket that a result belongs to, if the Broker may cache the
+   * merged results of the given query separately for each time bucket of its granularity, or null if it may not.
+   * The results of a time bucket must not depend on data outside of it, so queries with a limit that applies across
+   * buckets must return null. The cached values are made by {@link #prepareForSegmentLevelCache()}.
+   *
+   * @param query the query to be cached
+   */
+  @Nullable
+  default Function<T, DateTime> getTimeBucketFn(QueryType query)
+  {
+    return null;
+  }
+
+  /**
+   * Returns whether the merged results of the given query come one time bucket after the other, so that the Broker can
+   * cache the results of a bucket as soon as it has read them. Results that come in another order can still be read
+   * from the cache per time bucket, but are not cached. Only used if {@link #getTimeBucketFn} is not null.
+   *
+   * @param query the query to be cached
+   */
+  default boolean isOrderedByTimeBucket(QueryType query)
+  {
+    return true;
+  }
+
   /**
    * Helper function used by TopN, GroupBy, Timeseries queries in {@link #pullFromCache(boolean)}.
    * When using the result level cache, the agg values seen here are
@@ -231,5 +231,11 @@ public abstract class DruidProcessingConfig extends ExecutorServiceConfig implem
   {
     return ParallelMergeCombiningSequence.DEFAULT_TASK_SMALL_BATCH_NUM_ROWS;
   }
+
+  @Config(value = "${base_path}.merge.task.adaptive")
+  public boolean isMergePoolAdaptive()
+  {
+    return false;
+  }
 }
 
@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.query;
+
+import org.apache.druid.frame.Frame;
+import org.apache.druid.frame.FrameType;
+import org.apache.druid.frame.allocation.ArenaMemoryAllocator;
+import org.apache.druid.frame.channel.ReadableByteChunksFrameChannel;
+import org.apache.druid.frame.file.FrameFileWriter;
+import org.apache.druid.frame.processor.FrameProcessors;
+import org.apache.druid.frame.read.FrameReader;
+import org.apache.druid.frame.write.FrameRowTooLargeException;
+import org.apache.druid.frame.write.FrameWriter;
+import org.apache.druid.frame.write.FrameWriterFactory;
+import org.apache.druid.frame.write.FrameWriters;
+import org.apache.druid.java.util.common.guava.BaseSequence;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Yielder;
+import org.apache.druid.segment.ColumnSelectorFactory;
+import org.apache.druid.segment.ColumnValueSelector;
+import org.apache.druid.segment.Cursor;
+import org.apache.druid.segment.RowAdapter;
+import org.apache.druid.segment.RowBasedColumnSelectorFactory;
+import org.apache.druid.segment.column.ColumnType;
+import org.apache.druid.segment.column.RowSignature;
+import org.apache.druid.segment.serde.ComplexMetrics;
+import org.apache.druid.utils.CloseableUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Writes and reads query results as a stream of columnar {@link Frame}s, in the format of
+ * {@link org.apache.druid.frame.file.FrameFile}. Data servers send results this way instead of as JSON when Brokers ask
+ * for it with {@link QueryContexts#FRAME_RESULTS_KEY} and the toolchest supports it, which saves the Broker from
+ * deserializing every value of every row with Jackson. See {@link QueryToolChest#resultFrameSignature}.
+ *
+ * Frames are compressed and checksummed, so truncated or corrupt streams, such as the ones of data servers that fail
+ * partway through a query, are detected by {@link #read}.
+ */
+public class FrameResults
+{
+  /**
+   * Size of each frame written by {@link #write}.
+   */
+  public static final int FRAME_SIZE = 1_000_000;
+
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+  private FrameResults()
+  {
+    // No instantiation.
+  }
+
+  /**
+   * Whether values of this type can be sent in frames, and read back as the same objects. Arrays are not supported,
+   * since results hold them as different classes than the ones read from frames.
+   */
+  public static boolean isSupported(ColumnType type)
+  {
+    switch (type.getType()) {
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case STRING:
+        return true;
+      case COMPLEX:
+        return type.getComplexTypeName() != null && ComplexMetrics.getSerdeForType(type.getComplexTypeName()) != null;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Writes the rows of the yielder to the channel as frames, and closes both. Each row must have at least as many
+   * values as the signature has columns, and may have more, which are ignored. If the rows fail, the channel is closed
+   * without writing the end of the stream, so that readers fail too.
+   */
+  public static void write(
+      Yielder<Object[]> rows,
+      RowSignature signature,
+      WritableByteChannel channel
+  ) throws IOException
+  {
+    final FrameWriterFactory frameWriterFactory = FrameWriters.makeFrameWriterFactory(
+        FrameType.COLUMNAR,
+        ArenaMemoryAllocator.createOnHeap(FRAME_SIZE),
+        signature,
+        Collections.emptyList()
+    );
+    final Object[][] currentRow = new Object[1][];
+    final ColumnSelectorFactory columnSelectorFactory = RowBasedColumnSelectorFactory.create(
+        makeRowAdapter(signature),
+        () -> currentRow[0],
+        signature,
+        false,
+        false
+    );
+
+    final FrameFileWriter fileWriter = FrameFileWriter.open(channel, null);
+    Yielder<Object[]> yielder = rows;
+    FrameWriter frameWriter = frameWriterFactory.newFrameWriter(columnSelectorFactory);
+    try {
+      while (!yielder.isDone()) {
+        currentRow[0] = yielder.get();
+        if (!frameWriter.addSelection()) {
+          if (frameWriter.getNumRows() == 0) {
+            throw new FrameRowTooLargeException(FRAME_SIZE);
+          }
+          writeFrame(frameWriter, fileWriter);
+          frameWriter = frameWriterFactory.newFrameWriter(columnSelectorFactory);
+          if (!frameWriter.addSelection()) {
+            throw new FrameRowTooLargeException(FRAME_SIZE);
+          }
+        }
+        yielder = yielder.next(null);
+      }
+
+      writeFrame(frameWriter, fileWriter);
+      fileWriter.close();
+    }
+    catch (Throwable t) {
+      // Leaves out the end of the stream, so that readers know that it is incomplete.
+      throw CloseableUtils.closeAndWrapInCatch(t, fileWriter::abort);
+    }
+    finally {
+      CloseableUtils.closeAll(yielder, frameWriter);
+    }
+  }
+
+  /**
+   * Reads rows written by {@link #write} with the same signature from the stream, which is closed when the returned
+   * sequence is done.
+   *
+   * @param id name of the stream in error messages, such as the URL it comes from
+   */
+  public static Sequence<Object[]> read(InputStream in, RowSignature signature, String id)
+  {
+    return new BaseSequence<>(
+        new BaseSequence.IteratorMaker<Object[], FrameRowIterator>()
+        {
+          @Override
+          public FrameRowIterator make()
+          {
+            return new FrameRowIterator(in, signature, id);
+          }
+
+          @Override
+          public void cleanup(FrameRowIterator iterFromMake)
+          {
+            iterFromMake.close();
+          }
+        }
+    );
+  }
+
+  /**
+   * Writes the frame of the frame writer, if it has any rows, and closes the frame writer, which frees its memory for
+   * the next one.
+   */
+  private static void writeFrame(FrameWriter frameWriter, FrameFileWriter fileWriter) throws IOException
+  {
+    try {
+      if (frameWriter.getNumRows() > 0) {
+        fileWriter.writeFrame(Frame.wrap(frameWriter.toByteArray()), FrameFileWriter.NO_PARTITION);
+      }
+    }
+    finally {
+      frameWriter.close();
+    }
+  }
+
+  private static RowAdapter<Object[]> makeRowAdapter(RowSignature signature)
+  {
+    return columnName -> {
+      final int columnNumber = signature.indexOf(columnName);
+      if (columnNumber >= 0) {
+        return row -> row[columnNumber];
+      } else {
+        return row -> null;
+      }
+    };
+  }
+
+  /**
+   * Reads the stream one chunk at a time, and the rows of each frame as soon as the frame is complete.
+   */
+  private static class FrameRowIterator implements Iterator<Object[]>
+  {
+    private final InputStream in;
+    private final FrameReader frameReader;
+    private final ReadableByteChunksFrameChannel channel;
+    private final byte[] buffer = new byte[READ_BUFFER_SIZE];
+    private final ColumnValueSelector<?>[] selectors;
+
+    private Cursor cursor;
+
+    FrameRowIterator(InputStream in, RowSignature signature, String id)
+    {
+      this.in = in;
+      this.frameReader = FrameReader.create(signature);
+      this.channel = ReadableByteChunksFrameChannel.create(id);
+      this.selectors = new ColumnValueSelector[signature.size()];
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      while (cursor == null || cursor.isDone()) {
+        if (!nextFrame()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public Object[] next()
+    {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final Object[] row = new Object[selectors.length];
+      for (int i = 0; i < selectors.length; i++) {
+        row[i] = selectors[i].getObject();
+      }
+      cursor.advance();
+      return row;
+    }
+
+    private boolean nextFrame()
+    {
+      try {
+        while (!channel.canRead()) {
+          if (channel.isFinished()) {
+            return false;
+          }
+          final int numBytes = in.read(buffer);
+          if (numBytes < 0) {
+            channel.doneWriting();
+          } else if (numBytes > 0) {
+            channel.addChunk(Arrays.copyOf(buffer, numBytes));
+          }
+        }
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      cursor = FrameProcessors.makeCursor(channel.read(), frameReader);
+      final ColumnSelectorFactory columnSelectorFactory = cursor.getColumnSelectorFactory();
+      for (int i = 0; i < selectors.length; i++) {
+        selectors[i] = columnSelectorFactory.makeColumnValueSelector(frameReader.signature().getColumnName(i));
+      }
+      return true;
+    }
+
+    void close()
+    {
+      channel.close();
+      try {
+        in.close();
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -17,10 +17,9 @@
  * under the License.
  */
 
-package org.apache.druid.query.groupby.epinephelinae;
+package org.apache.druid.query;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ImmutableSet;
 import org.apache.druid.java.util.common.FileUtils;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.StringUtils;
@@ -34,14 +33,15 @@ import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * An area for limited temporary storage on disk. Limits are checked when opening files and on all writes to those
- * files. Thread-safe.
+ * files. Bytes written to a file stop counting against the limit once it is {@link #delete deleted}. Thread-safe.
  */
 public class LimitedTemporaryStorage implements Closeable
 {
@@ -51,7 +51,10 @@ public class LimitedTemporaryStorage implements Closeable
   private final long maxBytesUsed;
 
   private final AtomicLong bytesUsed = new AtomicLong();
-  private final Set<File> files = new TreeSet<>();
+  private final Map<File, LimitedOutputStream> files = new TreeMap<>();
+
+  // Used to name new files. Not the same as files.size(), since files may be deleted before this storage is closed.
+  private int filesCreated = 0;
 
   private volatile boolean closed = false;
 
@@ -88,29 +91,31 @@ public class LimitedTemporaryStorage implements Closeable
         createdStorageDirectory = true;
       }
 
-      final File theFile = new File(storageDirectory, StringUtils.format("%08d.tmp", files.size()));
+      final File theFile = new File(storageDirectory, StringUtils.format("%08d.tmp", filesCreated++));
       final EnumSet<StandardOpenOption> openOptions = EnumSet.of(
           StandardOpenOption.CREATE_NEW,
           StandardOpenOption.WRITE
       );
 
       final FileChannel channel = FileChannel.open(theFile.toPath(), openOptions);
-      files.add(theFile);
-      return new LimitedOutputStream(theFile, Channels.newOutputStream(channel));
+      final LimitedOutputStream out = new LimitedOutputStream(theFile, Channels.newOutputStream(channel));
+      files.put(theFile, out);
+      return out;
     }
   }
 
   public void delete(final File file)
   {
     synchronized (files) {
-      if (files.contains(file)) {
+      final LimitedOutputStream out = files.remove(file);
+      if (out != null) {
         try {
           Files.delete(file.toPath());
         }
         catch (IOException e) {
           log.warn(e, "Cannot delete file: %s", file);
         }
-        files.remove(file);
+        bytesUsed.addAndGet(-out.bytesWritten.get());
       }
     }
   }
@@ -121,7 +126,7 @@ public class LimitedTemporaryStorage implements Closeable
   }
 
   @VisibleForTesting
-  long currentSize()
+  public long currentSize()
   {
     return bytesUsed.get();
   }
@@ -134,7 +139,7 @@ public class LimitedTemporaryStorage implements Closeable
         return;
       }
       closed = true;
-      for (File file : ImmutableSet.copyOf(files)) {
+      for (File file : new ArrayList<>(files.keySet())) {
         delete(file);
       }
       files.clear();
@@ -148,6 +153,7 @@ public class LimitedTemporaryStorage implements Closeable
   {
     private final File file;
     private final OutputStream out;
+    private final AtomicLong bytesWritten = new AtomicLong();
 
     private LimitedOutputStream(File file, OutputStream out)
     {
@@ -195,6 +201,7 @@ public class LimitedTemporaryStorage implements Closeable
 
     private void grab(int n) throws IOException
     {
+      bytesWritten.addAndGet(n);
       if (bytesUsed.addAndGet(n) > maxBytesUsed) {
         throw new TemporaryStorageFullException(maxBytesUsed);
       }
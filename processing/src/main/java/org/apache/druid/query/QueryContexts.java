@@ -50,6 +50,7 @@ public class QueryContexts
   public static final String BROKER_PARALLEL_MERGE_INITIAL_YIELD_ROWS_KEY = "parallelMergeInitialYieldRows";
   public static final String BROKER_PARALLEL_MERGE_SMALL_BATCH_ROWS_KEY = "parallelMergeSmallBatchRows";
   public static final String BROKER_PARALLELISM = "parallelMergeParallelism";
+  public static final String BROKER_PARALLEL_MERGE_ADAPTIVE_KEY = "parallelMergeAdaptive";
   public static final String VECTORIZE_KEY = "vectorize";
   public static final String VECTORIZE_VIRTUAL_COLUMNS_KEY = "vectorizeVirtualColumns";
   public static final String VECTOR_SIZE_KEY = "vectorSize";
@@ -69,6 +70,8 @@ public class QueryContexts
   public static final String RETURN_PARTIAL_RESULTS_KEY = "returnPartialResults";
   public static final String USE_CACHE_KEY = "useCache";
   public static final String SECONDARY_PARTITION_PRUNING_KEY = "secondaryPartitionPruning";
+  public static final String COLUMN_STATS_PRUNING_KEY = "columnStatsPruning";
+  public static final String FRAME_RESULTS_KEY = "frameResults";
   public static final String ENABLE_DEBUG = "debug";
   public static final String BY_SEGMENT_KEY = "bySegment";
   public static final String BROKER_SERVICE_NAME = "brokerService";
@@ -77,6 +80,8 @@ public class QueryContexts
   public static final String POPULATE_CACHE_KEY = "populateCache";
   public static final String POPULATE_RESULT_LEVEL_CACHE_KEY = "populateResultLevelCache";
   public static final String USE_RESULT_LEVEL_CACHE_KEY = "useResultLevelCache";
+  public static final String POPULATE_TIME_BUCKET_CACHE_KEY = "populateTimeBucketCache";
+  public static final String USE_TIME_BUCKET_CACHE_KEY = "useTimeBucketCache";
   public static final String SERIALIZE_DATE_TIME_AS_LONG_KEY = "serializeDateTimeAsLong";
   public static final String SERIALIZE_DATE_TIME_AS_LONG_INNER_KEY = "serializeDateTimeAsLongInner";
   public static final String UNCOVERED_INTERVALS_LIMIT_KEY = "uncoveredIntervalsLimit";
@@ -86,6 +91,8 @@ public class QueryContexts
   public static final boolean DEFAULT_USE_CACHE = true;
   public static final boolean DEFAULT_POPULATE_RESULTLEVEL_CACHE = true;
   public static final boolean DEFAULT_USE_RESULTLEVEL_CACHE = true;
+  public static final boolean DEFAULT_POPULATE_TIME_BUCKET_CACHE = true;
+  public static final boolean DEFAULT_USE_TIME_BUCKET_CACHE = true;
   public static final Vectorize DEFAULT_VECTORIZE = Vectorize.TRUE;
   public static final Vectorize DEFAULT_VECTORIZE_VIRTUAL_COLUMN = Vectorize.TRUE;
   public static final int DEFAULT_PRIORITY = 0;
@@ -101,6 +108,8 @@ public class QueryContexts
   public static final boolean DEFAULT_ENABLE_SQL_JOIN_LEFT_SCAN_DIRECT = false;
   public static final boolean DEFAULT_USE_FILTER_CNF = false;
   public static final boolean DEFAULT_SECONDARY_PARTITION_PRUNING = true;
+  public static final boolean DEFAULT_COLUMN_STATS_PRUNING = true;
+  public static final boolean DEFAULT_FRAME_RESULTS = false;
   public static final boolean DEFAULT_ENABLE_DEBUG = false;
   public static final int DEFAULT_IN_SUB_QUERY_THRESHOLD = Integer.MAX_VALUE;
   public static final boolean DEFAULT_ENABLE_TIME_BOUNDARY_PLANNING = false;
@@ -200,6 +209,16 @@ public class QueryContexts
     return query.getContextBoolean(USE_RESULT_LEVEL_CACHE_KEY, defaultValue);
   }
 
+  public static <T> boolean isPopulateTimeBucketCache(Query<T> query)
+  {
+    return query.getContextBoolean(POPULATE_TIME_BUCKET_CACHE_KEY, DEFAULT_POPULATE_TIME_BUCKET_CACHE);
+  }
+
+  public static <T> boolean isUseTimeBucketCache(Query<T> query)
+  {
+    return query.getContextBoolean(USE_TIME_BUCKET_CACHE_KEY, DEFAULT_USE_TIME_BUCKET_CACHE);
+  }
+
   public static <T> boolean isFinalize(Query<T> query, boolean defaultValue)
 
   {
@@ -296,6 +315,11 @@ public class QueryContexts
     return query.getQueryContext().getAsInt(BROKER_PARALLELISM, defaultValue);
   }
 
+  public static <T> boolean getParallelMergeAdaptive(Query<T> query, boolean defaultValue)
+  {
+    return query.getContextBoolean(BROKER_PARALLEL_MERGE_ADAPTIVE_KEY, defaultValue);
+  }
+
   public static <T> boolean getEnableJoinFilterRewriteValueColumnFilters(Query<T> query)
   {
     return query.getContextBoolean(
@@ -337,6 +361,16 @@ public class QueryContexts
     return query.getContextBoolean(SECONDARY_PARTITION_PRUNING_KEY, DEFAULT_SECONDARY_PARTITION_PRUNING);
   }
 
+  public static <T> boolean isColumnStatsPruningEnabled(Query<T> query)
+  {
+    return query.getContextBoolean(COLUMN_STATS_PRUNING_KEY, DEFAULT_COLUMN_STATS_PRUNING);
+  }
+
+  public static <T> boolean isFrameResults(Query<T> query)
+  {
+    return query.getContextBoolean(FRAME_RESULTS_KEY, DEFAULT_FRAME_RESULTS);
+  }
+
   public static <T> boolean isDebug(Query<T> query)
   {
     return query.getContextBoolean(ENABLE_DEBUG, DEFAULT_ENABLE_DEBUG);
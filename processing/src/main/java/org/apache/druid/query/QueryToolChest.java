@@ -34,6 +34,7 @@ import org.apache.druid.timeline.LogicalSegment;
 import javax.annotation.Nullable;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.BinaryOperator;
 
 /**
@@ -330,4 +331,30 @@ public abstract class QueryToolChest<ResultType, QueryType extends Query<ResultT
   {
     throw new UOE("Query type '%s' does not support returning results as arrays", query.getType());
   }
+
+  /**
+   * Returns the signature of the frames that data servers may send the results of the given query in, instead of JSON,
+   * when Brokers ask for it with {@link QueryContexts#FRAME_RESULTS_KEY}. Rows of the frames are the arrays returned by
+   * {@link #resultsAsArrays}, truncated to the signature, and Brokers turn them back into results with
+   * {@link #resultsFromArrays}. See {@link FrameResults}.
+   *
+   * @param query query as received by the data server
+   *
+   * @return frame signature, or empty if results of this query cannot be sent as frames
+   */
+  public Optional<RowSignature> resultFrameSignature(QueryType query)
+  {
+    return Optional.empty();
+  }
+
+  /**
+   * Converts arrays read from the frames described by {@link #resultFrameSignature} back into this query's ResultType,
+   * as it would have been read from JSON.
+   *
+   * @throws UnsupportedOperationException if this query type does not support sending results as frames
+   */
+  public Sequence<ResultType> resultsFromArrays(QueryType query, Sequence<Object[]> arraySequence)
+  {
+    throw new UOE("Query type '%s' does not support converting arrays to results", query.getType());
+  }
 }
@@ -17,7 +17,7 @@
  * under the License.
  */
 
-package org.apache.druid.query.groupby.epinephelinae;
+package org.apache.druid.query;
 
 import org.apache.druid.java.util.common.StringUtils;
 
@@ -37,6 +37,8 @@ import org.apache.druid.segment.LongColumnSelector;
 import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
 import org.apache.druid.segment.vector.VectorValueSelector;
+import org.apache.druid.segment.virtual.ExpressionPlan;
+import org.apache.druid.segment.virtual.ExpressionPlanner;
 import org.apache.druid.segment.virtual.ExpressionSelectors;
 import org.apache.druid.segment.virtual.ExpressionVectorSelectors;
 
@@ -345,7 +347,7 @@ public class AggregatorUtil
       return capabilities == null || capabilities.isNumeric();
     }
     if (expression != null) {
-      return fieldExpression.get().canVectorize(columnInspector);
+      return ExpressionPlanner.plan(columnInspector, fieldExpression.get()).is(ExpressionPlan.Trait.VECTORIZABLE);
     }
     return false;
   }
@@ -27,6 +27,8 @@ import org.apache.druid.math.expr.ExprEval;
 import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.math.expr.ExpressionType;
 import org.apache.druid.math.expr.Exprs;
+import org.apache.druid.math.expr.vector.ExprVectorProcessor;
+import org.apache.druid.math.expr.vector.StringOutStringInFunctionVectorProcessor;
 import org.apache.druid.query.cache.CacheKeyBuilder;
 import org.apache.druid.query.lookup.LookupExtractorFactoryContainerProvider;
 import org.apache.druid.query.lookup.RegisteredLookupExtractionFn;
@@ -89,6 +91,30 @@ public class LookupExprMacro implements ExprMacroTable.ExprMacro
         return ExprEval.of(extractionFn.apply(NullHandling.emptyToNullIfNeeded(arg.eval(bindings).asString())));
       }
 
+      @Override
+      public boolean canVectorize(InputBindingInspector inspector)
+      {
+        return inspector.areScalar(arg) && inspector.canVectorize(arg);
+      }
+
+      @Override
+      public <T> ExprVectorProcessor<T> buildVectorized(VectorInputBindingInspector inspector)
+      {
+        final ExprVectorProcessor<?> processor = new StringOutStringInFunctionVectorProcessor(
+            arg.buildVectorized(inspector),
+            inspector.getMaxVectorSize()
+        )
+        {
+          @Nullable
+          @Override
+          protected String processValue(@Nullable String value)
+          {
+            return extractionFn.apply(NullHandling.emptyToNullIfNeeded(value));
+          }
+        };
+        return (ExprVectorProcessor<T>) processor;
+      }
+
       @Override
       public Expr visit(Shuttle shuttle)
       {
@@ -25,6 +25,8 @@ import org.apache.druid.math.expr.Expr;
 import org.apache.druid.math.expr.ExprEval;
 import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.math.expr.ExpressionType;
+import org.apache.druid.math.expr.vector.ExprVectorProcessor;
+import org.apache.druid.math.expr.vector.StringOutStringInFunctionVectorProcessor;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -77,15 +79,44 @@ public class RegexpExtractExprMacro implements ExprMacroTable.ExprMacro
       @Override
       public ExprEval eval(final ObjectBinding bindings)
       {
-        final String s = NullHandling.nullToEmptyIfNeeded(arg.eval(bindings).asString());
+        return ExprEval.of(extract(arg.eval(bindings).asString()));
+      }
+
+      @Override
+      public boolean canVectorize(InputBindingInspector inspector)
+      {
+        return inspector.areScalar(arg) && inspector.canVectorize(arg);
+      }
+
+      @Override
+      public <T> ExprVectorProcessor<T> buildVectorized(VectorInputBindingInspector inspector)
+      {
+        final ExprVectorProcessor<?> processor = new StringOutStringInFunctionVectorProcessor(
+            arg.buildVectorized(inspector),
+            inspector.getMaxVectorSize()
+        )
+        {
+          @Nullable
+          @Override
+          protected String processValue(@Nullable String value)
+          {
+            return extract(value);
+          }
+        };
+        return (ExprVectorProcessor<T>) processor;
+      }
+
+      @Nullable
+      private String extract(@Nullable String value)
+      {
+        final String s = NullHandling.nullToEmptyIfNeeded(value);
 
         if (s == null) {
           // True nulls do not match anything. Note: this branch only executes in SQL-compatible null handling mode.
-          return ExprEval.of(null);
+          return null;
         } else {
-          final Matcher matcher = pattern.matcher(NullHandling.nullToEmptyIfNeeded(s));
-          final String retVal = matcher.find() ? matcher.group(index) : null;
-          return ExprEval.of(retVal);
+          final Matcher matcher = pattern.matcher(s);
+          return matcher.find() ? matcher.group(index) : null;
         }
       }
 
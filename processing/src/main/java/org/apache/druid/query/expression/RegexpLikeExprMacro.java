@@ -21,10 +21,13 @@ package org.apache.druid.query.expression;
 
 import org.apache.druid.common.config.NullHandling;
 import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.math.expr.Evals;
 import org.apache.druid.math.expr.Expr;
 import org.apache.druid.math.expr.ExprEval;
 import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.math.expr.ExpressionType;
+import org.apache.druid.math.expr.vector.ExprVectorProcessor;
+import org.apache.druid.math.expr.vector.LongOutStringInFunctionVectorProcessor;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -70,14 +73,43 @@ public class RegexpLikeExprMacro implements ExprMacroTable.ExprMacro
       @Override
       public ExprEval eval(final ObjectBinding bindings)
       {
-        final String s = NullHandling.nullToEmptyIfNeeded(arg.eval(bindings).asString());
+        return ExprEval.ofLongBoolean(matches(arg.eval(bindings).asString()));
+      }
+
+      @Override
+      public boolean canVectorize(InputBindingInspector inspector)
+      {
+        return inspector.areScalar(arg) && inspector.canVectorize(arg);
+      }
+
+      @Override
+      public <T> ExprVectorProcessor<T> buildVectorized(VectorInputBindingInspector inspector)
+      {
+        final ExprVectorProcessor<?> processor = new LongOutStringInFunctionVectorProcessor(
+            arg.buildVectorized(inspector),
+            inspector.getMaxVectorSize()
+        )
+        {
+          @Override
+          public void processIndex(String[] input, long[] output, boolean[] outputNulls, int i)
+          {
+            output[i] = Evals.asLong(matches(input[i]));
+            outputNulls[i] = false;
+          }
+        };
+        return (ExprVectorProcessor<T>) processor;
+      }
+
+      private boolean matches(@Nullable String value)
+      {
+        final String s = NullHandling.nullToEmptyIfNeeded(value);
 
         if (s == null) {
           // True nulls do not match anything. Note: this branch only executes in SQL-compatible null handling mode.
-          return ExprEval.ofLongBoolean(false);
+          return false;
         } else {
           final Matcher matcher = pattern.matcher(s);
-          return ExprEval.ofLongBoolean(matcher.find());
+          return matcher.find();
         }
       }
 
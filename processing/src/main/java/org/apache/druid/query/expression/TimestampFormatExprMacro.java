@@ -19,11 +19,16 @@
 
 package org.apache.druid.query.expression;
 
+import org.apache.druid.common.config.NullHandling;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.math.expr.Expr;
 import org.apache.druid.math.expr.ExprEval;
 import org.apache.druid.math.expr.ExprMacroTable;
+import org.apache.druid.math.expr.ExprType;
 import org.apache.druid.math.expr.ExpressionType;
+import org.apache.druid.math.expr.vector.ExprEvalStringVector;
+import org.apache.druid.math.expr.vector.ExprEvalVector;
+import org.apache.druid.math.expr.vector.ExprVectorProcessor;
 import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
@@ -88,6 +93,58 @@ public class TimestampFormatExprMacro implements ExprMacroTable.ExprMacro
         return ExprEval.of(formatter.print(arg.eval(bindings).asLong()));
       }
 
+      @Override
+      public boolean canVectorize(InputBindingInspector inspector)
+      {
+        return inspector.areScalar(arg) && inspector.canVectorize(arg);
+      }
+
+      @Override
+      public <T> ExprVectorProcessor<T> buildVectorized(VectorInputBindingInspector inspector)
+      {
+        final ExprVectorProcessor<?> input = arg.buildVectorized(inspector);
+        final String[] outValues = new String[inspector.getMaxVectorSize()];
+        final ExprVectorProcessor<?> processor = new ExprVectorProcessor<String[]>()
+        {
+          @Override
+          public ExprEvalVector<String[]> evalVector(VectorInputBinding bindings)
+          {
+            final ExprEvalVector<?> inputs = input.evalVector(bindings);
+            final int currentSize = bindings.getCurrentVectorSize();
+            if (inputs.getType().is(ExprType.STRING)) {
+              // strings which are not numbers are null, like they are for ExprEval#isNumericNull
+              final Object[] values = inputs.getObjectVector();
+              for (int i = 0; i < currentSize; i++) {
+                final Number number = ExprEval.computeNumber((String) values[i]);
+                outValues[i] = number == null ? null : print(number.longValue());
+              }
+            } else {
+              final long[] values = inputs.getLongVector();
+              final boolean[] nulls = inputs.getNullVector();
+              for (int i = 0; i < currentSize; i++) {
+                final boolean isNull = NullHandling.sqlCompatible() && nulls != null && nulls[i];
+                outValues[i] = isNull ? null : print(values[i]);
+              }
+            }
+            return new ExprEvalStringVector(outValues);
+          }
+
+          @Override
+          public ExpressionType getOutputType()
+          {
+            return ExpressionType.STRING;
+          }
+        };
+        return (ExprVectorProcessor<T>) processor;
+      }
+
+      @Nullable
+      private String print(long timestamp)
+      {
+        // the same as ExprEval.of(String)
+        return NullHandling.emptyToNullIfNeeded(formatter.print(timestamp));
+      }
+
       @Override
       public Expr visit(Shuttle shuttle)
       {
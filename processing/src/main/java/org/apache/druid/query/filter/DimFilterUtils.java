@@ -21,6 +21,8 @@ package org.apache.druid.query.filter;
 
 import com.google.common.base.Function;
 import com.google.common.collect.RangeSet;
+import org.apache.druid.segment.VirtualColumns;
+import org.apache.druid.segment.column.ColumnStats;
 import org.apache.druid.timeline.partition.ShardSpec;
 
 import java.nio.ByteBuffer;
@@ -152,4 +154,58 @@ public class DimFilterUtils
     }
     return retSet;
   }
+
+  /**
+   * Filter the given iterable of objects by removing any object whose column stats, obtained from the converter
+   * function, show that one of the columns has no values in the RangeSet of the dimFilter
+   * {@link DimFilter#getDimensionRangeSet(String)}. Objects without stats, and columns without stats, are never
+   * removed. The returned set contains the filtered objects in the same order as they appear in input.
+   *
+   * @param dimFilter           The filter to use
+   * @param input               The iterable of objects to be filtered
+   * @param converter           The function to convert T to the stats of its columns, which may return null
+   * @param virtualColumns      The virtual columns of the query, which shadow the columns of the same names
+   * @param dimensionRangeCache The cache of RangeSets of different dimensions for the dimFilter, which can be shared
+   *                            with {@link #filterShards(DimFilter, Iterable, Function, Map)}
+   * @param <T>                 This can be any type, as long as transform function is provided to convert this to
+   *                            column stats
+   *
+   * @return The set of filtered object, in the same order as input
+   */
+  public static <T> Set<T> filterByColumnStats(
+      final DimFilter dimFilter,
+      final Iterable<T> input,
+      final Function<T, Map<String, ColumnStats>> converter,
+      final VirtualColumns virtualColumns,
+      final Map<String, Optional<RangeSet<String>>> dimensionRangeCache
+  )
+  {
+    Set<T> retSet = new LinkedHashSet<>();
+
+    for (T obj : input) {
+      Map<String, ColumnStats> columnStats = dimFilter == null ? null : converter.apply(obj);
+      boolean include = true;
+
+      if (columnStats != null) {
+        for (Map.Entry<String, ColumnStats> entry : columnStats.entrySet()) {
+          final String column = entry.getKey();
+          if (virtualColumns.exists(column)) {
+            continue;
+          }
+          Optional<RangeSet<String>> optFilterRangeSet = dimensionRangeCache
+              .computeIfAbsent(column, d -> Optional.ofNullable(dimFilter.getDimensionRangeSet(d)));
+
+          if (optFilterRangeSet.isPresent() && !entry.getValue().possibleInDomain(optFilterRangeSet.get())) {
+            include = false;
+            break;
+          }
+        }
+      }
+
+      if (include) {
+        retSet.add(obj);
+      }
+    }
+    return retSet;
+  }
 }
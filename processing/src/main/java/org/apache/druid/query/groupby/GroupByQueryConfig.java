@@ -50,11 +50,14 @@ public class GroupByQueryConfig
   private static final String CTX_KEY_MAX_RESULTS = "maxResults";
   private static final String CTX_KEY_BUFFER_GROUPER_INITIAL_BUCKETS = "bufferGrouperInitialBuckets";
   private static final String CTX_KEY_BUFFER_GROUPER_MAX_LOAD_FACTOR = "bufferGrouperMaxLoadFactor";
+  private static final String CTX_KEY_BUFFER_GROUPER_USE_FINGERPRINTS = "bufferGrouperUseFingerprints";
   private static final String CTX_KEY_MAX_ON_DISK_STORAGE = "maxOnDiskStorage";
   private static final String CTX_KEY_FORCE_HASH_AGGREGATION = "forceHashAggregation";
   private static final String CTX_KEY_INTERMEDIATE_COMBINE_DEGREE = "intermediateCombineDegree";
   private static final String CTX_KEY_NUM_PARALLEL_COMBINE_THREADS = "numParallelCombineThreads";
   private static final String CTX_KEY_MERGE_THREAD_LOCAL = "mergeThreadLocal";
+  private static final String CTX_KEY_SPILL_MERGE_FAN_IN = "spillMergeFanIn";
+  private static final String CTX_KEY_USE_GLOBAL_MERGING_DICTIONARY = "useGlobalMergingDictionary";
 
   // Constants for sizing merging and selector dictionaries. Rationale for these constants:
   //  1) In no case do we want total aggregate dictionary size to exceed 40% of max memory.
@@ -92,6 +95,9 @@ public class GroupByQueryConfig
   @JsonProperty
   private int bufferGrouperInitialBuckets = 0;
 
+  @JsonProperty
+  private boolean bufferGrouperUseFingerprints = false;
+
   @JsonProperty
   // Size of on-heap string dictionary for merging, per-processing-thread; when exceeded, partial results will be
   // emitted to the merge buffer early.
@@ -101,6 +107,10 @@ public class GroupByQueryConfig
   // Size of on-heap string dictionary for merging, per-query; when exceeded, partial results will be spilled to disk
   private HumanReadableBytes maxMergingDictionarySize = HumanReadableBytes.valueOf(AUTOMATIC);
 
+  @JsonProperty
+  // Whether all merging threads of a query share one string dictionary, instead of each having its own
+  private boolean useGlobalMergingDictionary = false;
+
   @JsonProperty
   // Max on-disk temporary storage, per-query; when exceeded, the query fails
   private HumanReadableBytes maxOnDiskStorage = HumanReadableBytes.valueOf(0);
@@ -129,6 +139,10 @@ public class GroupByQueryConfig
   @JsonProperty
   private boolean mergeThreadLocal = false;
 
+  @JsonProperty
+  // Max number of spill files merged at once; when exceeded, spill files are combined in multiple passes
+  private int spillMergeFanIn = 0;
+
   @JsonProperty
   private boolean vectorize = true;
 
@@ -188,6 +202,11 @@ public class GroupByQueryConfig
     return bufferGrouperInitialBuckets;
   }
 
+  public boolean isBufferGrouperUseFingerprints()
+  {
+    return bufferGrouperUseFingerprints;
+  }
+
   /**
    * For unit tests. Production code should use {@link #getActualMaxSelectorDictionarySize}.
    */
@@ -226,6 +245,11 @@ public class GroupByQueryConfig
     );
   }
 
+  public boolean isUseGlobalMergingDictionary()
+  {
+    return useGlobalMergingDictionary;
+  }
+
   /**
    * For unit tests. Production code should use {@link #getActualMaxMergingDictionarySize}.
    */
@@ -312,6 +336,11 @@ public class GroupByQueryConfig
     return mergeThreadLocal;
   }
 
+  public int getSpillMergeFanIn()
+  {
+    return spillMergeFanIn;
+  }
+
   public boolean isVectorize()
   {
     return vectorize;
@@ -357,6 +386,10 @@ public class GroupByQueryConfig
         CTX_KEY_BUFFER_GROUPER_INITIAL_BUCKETS,
         getBufferGrouperInitialBuckets()
     );
+    newConfig.bufferGrouperUseFingerprints = query.getContextBoolean(
+        CTX_KEY_BUFFER_GROUPER_USE_FINGERPRINTS,
+        isBufferGrouperUseFingerprints()
+    );
     // If the client overrides do not provide "maxOnDiskStorage" context key, the server side "defaultOnDiskStorage"
     // value is used in the calculation of the newConfig value of maxOnDiskStorage. This allows the operator to
     // choose a default value lower than the max allowed when the context key is missing in the client query.
@@ -368,6 +401,10 @@ public class GroupByQueryConfig
     );
     newConfig.maxSelectorDictionarySize = maxSelectorDictionarySize; // No overrides
     newConfig.maxMergingDictionarySize = maxMergingDictionarySize; // No overrides
+    newConfig.useGlobalMergingDictionary = query.getContextBoolean(
+        CTX_KEY_USE_GLOBAL_MERGING_DICTIONARY,
+        isUseGlobalMergingDictionary()
+    );
     newConfig.forcePushDownLimit = query.getContextBoolean(CTX_KEY_FORCE_LIMIT_PUSH_DOWN, isForcePushDownLimit());
     newConfig.applyLimitPushDownToSegment = query.getContextBoolean(
         CTX_KEY_APPLY_LIMIT_PUSH_DOWN_TO_SEGMENT,
@@ -387,6 +424,7 @@ public class GroupByQueryConfig
         getNumParallelCombineThreads()
     );
     newConfig.mergeThreadLocal = query.getContextBoolean(CTX_KEY_MERGE_THREAD_LOCAL, isMergeThreadLocal());
+    newConfig.spillMergeFanIn = query.getQueryContext().getAsInt(CTX_KEY_SPILL_MERGE_FAN_IN, getSpillMergeFanIn());
     newConfig.vectorize = query.getContextBoolean(QueryContexts.VECTORIZE_KEY, isVectorize());
     newConfig.enableMultiValueUnnesting = query.getContextBoolean(
         CTX_KEY_ENABLE_MULTI_VALUE_UNNESTING,
@@ -408,13 +446,16 @@ public class GroupByQueryConfig
            ", bufferGrouperMaxSize=" + bufferGrouperMaxSize +
            ", bufferGrouperMaxLoadFactor=" + bufferGrouperMaxLoadFactor +
            ", bufferGrouperInitialBuckets=" + bufferGrouperInitialBuckets +
+           ", bufferGrouperUseFingerprints=" + bufferGrouperUseFingerprints +
            ", maxMergingDictionarySize=" + maxMergingDictionarySize +
+           ", useGlobalMergingDictionary=" + useGlobalMergingDictionary +
            ", maxOnDiskStorage=" + maxOnDiskStorage.getBytes() +
            ", defaultOnDiskStorage=" + getDefaultOnDiskStorage().getBytes() + // use the getter because of special behavior for mirroring maxOnDiskStorage if defaultOnDiskStorage not explicitly set.
            ", forcePushDownLimit=" + forcePushDownLimit +
            ", forceHashAggregation=" + forceHashAggregation +
            ", intermediateCombineDegree=" + intermediateCombineDegree +
            ", numParallelCombineThreads=" + numParallelCombineThreads +
+           ", spillMergeFanIn=" + spillMergeFanIn +
            ", vectorize=" + vectorize +
            ", forcePushDownNestedQuery=" + forcePushDownNestedQuery +
            ", enableMultiValueUnnesting=" + enableMultiValueUnnesting +
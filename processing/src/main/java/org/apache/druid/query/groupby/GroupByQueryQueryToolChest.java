@@ -36,6 +36,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import org.apache.druid.data.input.Row;
+import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.granularity.Granularity;
 import org.apache.druid.java.util.common.guava.MappedSequence;
@@ -44,6 +45,7 @@ import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.java.util.common.jackson.JacksonUtils;
 import org.apache.druid.query.CacheStrategy;
 import org.apache.druid.query.DataSource;
+import org.apache.druid.query.FrameResults;
 import org.apache.druid.query.Query;
 import org.apache.druid.query.QueryContexts;
 import org.apache.druid.query.QueryDataSource;
@@ -63,10 +65,13 @@ import org.apache.druid.query.extraction.ExtractionFn;
 import org.apache.druid.query.groupby.resource.GroupByQueryResource;
 import org.apache.druid.query.groupby.strategy.GroupByStrategy;
 import org.apache.druid.query.groupby.strategy.GroupByStrategySelector;
+import org.apache.druid.query.groupby.strategy.GroupByStrategyV2;
 import org.apache.druid.segment.DimensionHandlerUtils;
+import org.apache.druid.segment.column.ColumnType;
 import org.apache.druid.segment.column.RowSignature;
 import org.joda.time.DateTime;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.BitSet;
@@ -74,6 +79,7 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.TreeMap;
 import java.util.function.BinaryOperator;
 
@@ -559,6 +565,24 @@ public class GroupByQueryQueryToolChest extends QueryToolChest<ResultRow, GroupB
         return builder.build();
       }
 
+      @Nullable
+      @Override
+      public Function<ResultRow, DateTime> getTimeBucketFn(GroupByQuery query)
+      {
+        // Pushed down limits apply to all buckets together. Subtotals are computed from the merged results, so they
+        // are left out just to be safe.
+        if (!query.getResultRowHasTimestamp() || query.isApplyLimitPushDown() || query.getSubtotalsSpec() != null) {
+          return null;
+        }
+        return row -> DateTimes.utc(row.getLong(0));
+      }
+
+      @Override
+      public boolean isOrderedByTimeBucket(GroupByQuery query)
+      {
+        return !query.getContextSortByDimsFirst();
+      }
+
       @Override
       public TypeReference<Object> getCacheObjectClazz()
       {
@@ -706,6 +730,32 @@ public class GroupByQueryQueryToolChest extends QueryToolChest<ResultRow, GroupB
     return resultSequence.map(ResultRow::getArray);
   }
 
+  @Override
+  public Optional<RowSignature> resultFrameSignature(final GroupByQuery query)
+  {
+    // Only rows of data servers, which have no post-aggregators and are not finalized, are sent as frames.
+    if (query.getContextBoolean(GroupByStrategyV2.CTX_KEY_OUTERMOST, true) || QueryContexts.isBySegment(query)) {
+      return Optional.empty();
+    }
+
+    final RowSignature resultRowSignature = query.getResultRowSignature(RowSignature.Finalization.NO);
+    final RowSignature.Builder builder = RowSignature.builder();
+    for (int i = 0; i < query.getResultRowSizeWithoutPostAggregators(); i++) {
+      final Optional<ColumnType> type = resultRowSignature.getColumnType(i);
+      if (!type.isPresent() || !FrameResults.isSupported(type.get())) {
+        return Optional.empty();
+      }
+      builder.add(resultRowSignature.getColumnName(i), type.get());
+    }
+    return Optional.of(builder.build());
+  }
+
+  @Override
+  public Sequence<ResultRow> resultsFromArrays(final GroupByQuery query, final Sequence<Object[]> arraySequence)
+  {
+    return arraySequence.map(ResultRow::of);
+  }
+
   /**
    * This function checks the query for dimensions which can be optimized by applying the dimension extraction
    * as the final step of the query instead of on every event.
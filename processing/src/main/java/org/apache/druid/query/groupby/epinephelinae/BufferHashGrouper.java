@@ -51,6 +51,9 @@ public class BufferHashGrouper<KeyType> extends AbstractBufferHashGrouper<KeyTyp
   // to get a comparator that uses the ordering defined by the OrderByColumnSpec of a query.
   private final boolean useDefaultSorting;
 
+  // When true, use a FingerprintByteBufferHashTable, which probes using per-bucket fingerprint bytes.
+  private final boolean useFingerprints;
+
   @Nullable
   private ByteBufferIntList offsetList;
 
@@ -63,6 +66,29 @@ public class BufferHashGrouper<KeyType> extends AbstractBufferHashGrouper<KeyTyp
       final int initialBuckets,
       final boolean useDefaultSorting
   )
+  {
+    this(
+        bufferSupplier,
+        keySerde,
+        aggregators,
+        bufferGrouperMaxSize,
+        maxLoadFactor,
+        initialBuckets,
+        useDefaultSorting,
+        false
+    );
+  }
+
+  public BufferHashGrouper(
+      final Supplier<ByteBuffer> bufferSupplier,
+      final KeySerde<KeyType> keySerde,
+      final AggregatorAdapters aggregators,
+      final int bufferGrouperMaxSize,
+      final float maxLoadFactor,
+      final int initialBuckets,
+      final boolean useDefaultSorting,
+      final boolean useFingerprints
+  )
   {
     super(bufferSupplier, keySerde, aggregators, HASH_SIZE + keySerde.keySize(), bufferGrouperMaxSize);
 
@@ -75,6 +101,7 @@ public class BufferHashGrouper<KeyType> extends AbstractBufferHashGrouper<KeyTyp
 
     this.bucketSize = HASH_SIZE + keySerde.keySize() + aggregators.spaceNeeded();
     this.useDefaultSorting = useDefaultSorting;
+    this.useFingerprints = useFingerprints;
   }
 
   @Override
@@ -83,11 +110,25 @@ public class BufferHashGrouper<KeyType> extends AbstractBufferHashGrouper<KeyTyp
     if (!initialized) {
       ByteBuffer buffer = bufferSupplier.get();
 
-      int hashTableSize = ByteBufferHashTable.calculateTableArenaSizeWithPerBucketAdditionalSize(
-          buffer.capacity(),
-          bucketSize,
-          Integer.BYTES
-      );
+      // Fingerprint tables need one control byte per bucket, plus a few extra to read full groups near the end.
+      final int controlBufferSize;
+      final int hashTableSize;
+
+      if (useFingerprints) {
+        final int maxBuckets = Math.max(
+            0,
+            (buffer.capacity() - FingerprintByteBufferHashTable.GROUP_SIZE) / (bucketSize + Integer.BYTES + 1)
+        );
+        controlBufferSize = Math.min(buffer.capacity(), FingerprintByteBufferHashTable.controlBufferSize(maxBuckets));
+        hashTableSize = maxBuckets * bucketSize;
+      } else {
+        controlBufferSize = 0;
+        hashTableSize = ByteBufferHashTable.calculateTableArenaSizeWithPerBucketAdditionalSize(
+            buffer.capacity(),
+            bucketSize,
+            Integer.BYTES
+        );
+      }
 
       hashTableBuffer = buffer.duplicate();
       hashTableBuffer.position(0);
@@ -99,7 +140,7 @@ public class BufferHashGrouper<KeyType> extends AbstractBufferHashGrouper<KeyTyp
       // When expanding the table, the list is reset() and filled with the new offsets of the copied buckets.
       ByteBuffer offsetListBuffer = buffer.duplicate();
       offsetListBuffer.position(hashTableSize);
-      offsetListBuffer.limit(buffer.capacity());
+      offsetListBuffer.limit(buffer.capacity() - controlBufferSize);
       offsetListBuffer = offsetListBuffer.slice();
 
       this.offsetList = new ByteBufferIntList(
@@ -107,15 +148,33 @@ public class BufferHashGrouper<KeyType> extends AbstractBufferHashGrouper<KeyTyp
           offsetListBuffer.capacity() / Integer.BYTES
       );
 
-      this.hashTable = new ByteBufferHashTable(
-          maxLoadFactor,
-          initialBuckets,
-          bucketSize,
-          hashTableBuffer,
-          keySize,
-          bufferGrouperMaxSize,
-          new BufferGrouperBucketUpdateHandler()
-      );
+      if (useFingerprints) {
+        ByteBuffer controlBuffer = buffer.duplicate();
+        controlBuffer.position(buffer.capacity() - controlBufferSize);
+        controlBuffer.limit(buffer.capacity());
+        controlBuffer = controlBuffer.slice();
+
+        this.hashTable = new FingerprintByteBufferHashTable(
+            maxLoadFactor,
+            initialBuckets,
+            bucketSize,
+            hashTableBuffer,
+            controlBuffer,
+            keySize,
+            bufferGrouperMaxSize,
+            new BufferGrouperBucketUpdateHandler()
+        );
+      } else {
+        this.hashTable = new ByteBufferHashTable(
+            maxLoadFactor,
+            initialBuckets,
+            bucketSize,
+            hashTableBuffer,
+            keySize,
+            bufferGrouperMaxSize,
+            new BufferGrouperBucketUpdateHandler()
+        );
+      }
 
       reset();
       initialized = true;
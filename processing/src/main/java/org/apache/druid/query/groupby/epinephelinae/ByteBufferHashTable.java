@@ -140,10 +140,7 @@ public class ByteBufferHashTable
     bufferDup.limit(tableStart + maxBuckets * bucketSizeWithHash);
     tableBuffer = bufferDup.slice();
 
-    // Clear used bits of new table
-    for (int i = 0; i < maxBuckets; i++) {
-      tableBuffer.put(i * bucketSizeWithHash, (byte) 0);
-    }
+    clearBuckets(tableBuffer, maxBuckets);
   }
 
   public void adjustTableWhenFull()
@@ -179,10 +176,7 @@ public class ByteBufferHashTable
 
     int newSize = 0;
 
-    // Clear used bits of new table
-    for (int i = 0; i < newBuckets; i++) {
-      newTableBuffer.put(i * bucketSizeWithHash, (byte) 0);
-    }
+    clearBuckets(newTableBuffer, newBuckets);
 
     // Loop over old buckets and copy to new table
     final ByteBuffer entryBuffer = tableBuffer.duplicate();
@@ -213,6 +207,7 @@ public class ByteBufferHashTable
 
         newTableBuffer.position(newBucketOffset);
         newTableBuffer.put(entryBuffer);
+        bucketUsedHook(newBucket, newBuckets, keyHash);
 
         newSize++;
 
@@ -244,6 +239,7 @@ public class ByteBufferHashTable
     tableBuffer.position(offset);
     tableBuffer.putInt(Groupers.getUsedFlag(keyHash));
     tableBuffer.put(keyBuffer);
+    bucketUsedHook(bucket, maxBuckets, keyHash);
     size++;
 
     if (bucketUpdateHandler != null) {
@@ -251,6 +247,29 @@ public class ByteBufferHashTable
     }
   }
 
+  /**
+   * Clears the used bits of the first "buckets" buckets of a table.
+   */
+  protected void clearBuckets(final ByteBuffer targetTableBuffer, final int buckets)
+  {
+    for (int i = 0; i < buckets; i++) {
+      targetTableBuffer.put(i * bucketSizeWithHash, (byte) 0);
+    }
+  }
+
+  /**
+   * Called after a key is written into a previously-unused bucket, either for a new key or while moving keys to a
+   * larger table in {@link #adjustTableWhenFull()}. Subclasses can use this to maintain their own per-bucket state.
+   *
+   * @param bucket  bucket number
+   * @param buckets number of buckets in the table that the key was written to
+   * @param keyHash hash of the key
+   */
+  protected void bucketUsedHook(final int bucket, final int buckets, final int keyHash)
+  {
+    // Nothing needed.
+  }
+
   /**
    * Find a bucket for a key, attempting to grow the table with adjustTableWhenFull() if possible.
    *
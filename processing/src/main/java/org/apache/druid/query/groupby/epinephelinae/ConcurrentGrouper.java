@@ -20,6 +20,7 @@
 package org.apache.druid.query.groupby.epinephelinae;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
@@ -34,6 +35,7 @@ import org.apache.druid.java.util.common.CloseableIterators;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.parsers.CloseableIterator;
 import org.apache.druid.query.AbstractPrioritizedCallable;
+import org.apache.druid.query.LimitedTemporaryStorage;
 import org.apache.druid.query.QueryInterruptedException;
 import org.apache.druid.query.QueryTimeoutException;
 import org.apache.druid.query.aggregation.AggregatorFactory;
@@ -54,6 +56,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -79,6 +82,7 @@ public class ConcurrentGrouper<KeyType> implements Grouper<KeyType>
   private final int bufferGrouperMaxSize;
   private final float bufferGrouperMaxLoadFactor;
   private final int bufferGrouperInitialBuckets;
+  private final boolean bufferGrouperUseFingerprints;
   private final LimitedTemporaryStorage temporaryStorage;
   private final ObjectMapper spillMapper;
   private final int concurrencyHint;
@@ -94,6 +98,7 @@ public class ConcurrentGrouper<KeyType> implements Grouper<KeyType>
   @Nullable
   private final ParallelCombiner<KeyType> parallelCombiner;
   private final boolean mergeThreadLocal;
+  private final int spillMergeFanIn;
 
   private volatile boolean initialized = false;
 
@@ -126,6 +131,7 @@ public class ConcurrentGrouper<KeyType> implements Grouper<KeyType>
         groupByQueryConfig.getBufferGrouperMaxSize(),
         groupByQueryConfig.getBufferGrouperMaxLoadFactor(),
         groupByQueryConfig.getBufferGrouperInitialBuckets(),
+        groupByQueryConfig.isBufferGrouperUseFingerprints(),
         temporaryStorage,
         spillMapper,
         concurrencyHint,
@@ -137,7 +143,8 @@ public class ConcurrentGrouper<KeyType> implements Grouper<KeyType>
         queryTimeoutAt,
         groupByQueryConfig.getIntermediateCombineDegree(),
         groupByQueryConfig.getNumParallelCombineThreads(),
-        groupByQueryConfig.isMergeThreadLocal()
+        groupByQueryConfig.isMergeThreadLocal(),
+        groupByQueryConfig.getSpillMergeFanIn()
     );
   }
 
@@ -151,6 +158,7 @@ public class ConcurrentGrouper<KeyType> implements Grouper<KeyType>
       final int bufferGrouperMaxSize,
       final float bufferGrouperMaxLoadFactor,
       final int bufferGrouperInitialBuckets,
+      final boolean bufferGrouperUseFingerprints,
       final LimitedTemporaryStorage temporaryStorage,
       final ObjectMapper spillMapper,
       final int concurrencyHint,
@@ -162,7 +170,8 @@ public class ConcurrentGrouper<KeyType> implements Grouper<KeyType>
       final long queryTimeoutAt,
       final int intermediateCombineDegree,
       final int numParallelCombineThreads,
-      final boolean mergeThreadLocal
+      final boolean mergeThreadLocal,
+      final int spillMergeFanIn
   )
   {
     Preconditions.checkArgument(concurrencyHint > 0, "concurrencyHint > 0");
@@ -182,6 +191,7 @@ public class ConcurrentGrouper<KeyType> implements Grouper<KeyType>
     this.bufferGrouperMaxSize = bufferGrouperMaxSize;
     this.bufferGrouperMaxLoadFactor = bufferGrouperMaxLoadFactor;
     this.bufferGrouperInitialBuckets = bufferGrouperInitialBuckets;
+    this.bufferGrouperUseFingerprints = bufferGrouperUseFingerprints;
     this.temporaryStorage = temporaryStorage;
     this.spillMapper = spillMapper;
     this.concurrencyHint = concurrencyHint;
@@ -212,6 +222,7 @@ public class ConcurrentGrouper<KeyType> implements Grouper<KeyType>
     }
 
     this.mergeThreadLocal = mergeThreadLocal;
+    this.spillMergeFanIn = spillMergeFanIn;
   }
 
   @Override
@@ -233,12 +244,14 @@ public class ConcurrentGrouper<KeyType> implements Grouper<KeyType>
                 bufferGrouperMaxSize,
                 bufferGrouperMaxLoadFactor,
                 bufferGrouperInitialBuckets,
+                bufferGrouperUseFingerprints,
                 temporaryStorage,
                 spillMapper,
                 false,
                 limitSpec,
                 sortHasNonGroupingFields,
-                sliceSize
+                sliceSize,
+                spillMergeFanIn
             );
             grouper.init();
             groupers.add(grouper);
@@ -314,6 +327,103 @@ public class ConcurrentGrouper<KeyType> implements Grouper<KeyType>
     }
   }
 
+  /**
+   * Batch version of {@link #aggregate(Object, int)}. Prior to spilling, rows are partitioned by the sub-grouper their
+   * key hashes to, so each sub-grouper is locked once per batch rather than once per row.
+   */
+  @Override
+  public AggregateResult aggregateBatch(
+      final KeyType[] keys,
+      final int[] keyHashes,
+      final int numRows,
+      final IntConsumer setCurrentRow
+  )
+  {
+    if (!initialized) {
+      throw new ISE("Grouper is not initialized");
+    }
+
+    if (closed) {
+      throw new ISE("Grouper is closed");
+    }
+
+    final SpillingGrouper<KeyType> tlGrouper = threadLocalGrouper.get();
+
+    if (mergeThreadLocal) {
+      // Always thread-local grouping: expect to get more memory use, but no thread contention.
+      return tlGrouper.aggregateBatch(keys, keyHashes, numRows, setCurrentRow);
+    }
+
+    // Row positions within the batch, sorted by the number of the sub-grouper that each row's key hashes to.
+    final int[] grouperNumbers = new int[numRows];
+    final int[] rowsByGrouper = new int[numRows];
+    final int[] grouperStarts = new int[groupers.size() + 1];
+
+    for (int i = 0; i < numRows; i++) {
+      grouperNumbers[i] = grouperNumberForKeyHash(keyHashes[i]);
+      grouperStarts[grouperNumbers[i] + 1]++;
+    }
+
+    for (int g = 0; g < groupers.size(); g++) {
+      grouperStarts[g + 1] += grouperStarts[g];
+    }
+
+    final int[] grouperPositions = Arrays.copyOf(grouperStarts, groupers.size());
+    for (int i = 0; i < numRows; i++) {
+      rowsByGrouper[grouperPositions[grouperNumbers[i]]++] = i;
+    }
+
+    // Number of rows, in "rowsByGrouper" order, that have been aggregated so far.
+    int numAggregated = 0;
+
+    while (numAggregated < numRows && !spilling) {
+      final int grouperNumber = grouperNumbers[rowsByGrouper[numAggregated]];
+      final SpillingGrouper<KeyType> subGrouper = groupers.get(grouperNumber);
+
+      synchronized (subGrouper) {
+        if (subGrouper.isSpillingAllowed() && subGrouper != tlGrouper) {
+          // Another thread already started treating this grouper as its thread-local grouper. So, switch to ours.
+          // Break out to release the lock on subGrouper and do the remaining aggregation with tlGrouper.
+          break;
+        }
+
+        while (numAggregated < grouperStarts[grouperNumber + 1]) {
+          final int row = rowsByGrouper[numAggregated];
+          setCurrentRow.accept(row);
+          final AggregateResult aggregateResult = subGrouper.aggregate(keys[row], keyHashes[row]);
+
+          if (aggregateResult.isOk()) {
+            numAggregated++;
+          } else {
+            // Expecting all-or-nothing behavior.
+            assert aggregateResult.getCount() == 0;
+            spilling = true;
+            break;
+          }
+        }
+      }
+    }
+
+    if (numAggregated < numRows) {
+      // Switch to thread-local grouping after spilling starts. No thread contention.
+      synchronized (tlGrouper) {
+        tlGrouper.setSpillingAllowed(true);
+
+        for (; numAggregated < numRows; numAggregated++) {
+          final int row = rowsByGrouper[numAggregated];
+          setCurrentRow.accept(row);
+          final AggregateResult aggregateResult = tlGrouper.aggregate(keys[row], keyHashes[row]);
+
+          if (!aggregateResult.isOk()) {
+            return AggregateResult.partial(numAggregated, aggregateResult.getReason());
+          }
+        }
+      }
+    }
+
+    return AggregateResult.ok();
+  }
+
   @Override
   public void reset()
   {
@@ -458,19 +568,40 @@ public class ConcurrentGrouper<KeyType> implements Grouper<KeyType>
 
   /**
    * Merge dictionaries of {@link Grouper.KeySerde}s of {@link Grouper}s.  The result dictionary contains unique string
-   * keys.
+   * keys.  If the key serdes share a dictionary and none of them needed a dictionary of their own, the shared dictionary
+   * is returned as-is.
    *
    * @return merged dictionary if its size does not exceed max dictionary size.  Otherwise null.
    */
   @Nullable
   private List<String> tryMergeDictionary()
   {
+    final List<String> sharedDictionary = keySerdeFactory.getSharedDictionary();
+    final List<List<String>> dictionaries = new ArrayList<>(groupers.size());
+    for (SpillingGrouper<KeyType> grouper : groupers) {
+      final List<String> dictionary = grouper.mergeAndGetDictionary();
+      if (!dictionary.isEmpty()) {
+        dictionaries.add(dictionary);
+      }
+    }
+
+    if (sharedDictionary != null && dictionaries.isEmpty()) {
+      // All keys were encoded using the shared dictionary, so it is already merged and free of duplicates.
+      long totalDictionarySize = 0L;
+      for (String key : sharedDictionary) {
+        totalDictionarySize += RowBasedGrouperHelper.estimateStringKeySize(key);
+      }
+      return totalDictionarySize > maxDictionarySizeForCombiner ? null : sharedDictionary;
+    }
+
     final Set<String> mergedDictionary = new HashSet<>();
     long totalDictionarySize = 0L;
 
-    for (SpillingGrouper<KeyType> grouper : groupers) {
-      final List<String> dictionary = grouper.mergeAndGetDictionary();
+    if (sharedDictionary != null) {
+      dictionaries.add(sharedDictionary);
+    }
 
+    for (List<String> dictionary : dictionaries) {
       for (String key : dictionary) {
         if (mergedDictionary.add(key)) {
           totalDictionarySize += RowBasedGrouperHelper.estimateStringKeySize(key);
@@ -493,6 +624,12 @@ public class ConcurrentGrouper<KeyType> implements Grouper<KeyType>
     }
   }
 
+  @VisibleForTesting
+  int getSpillMergePasses()
+  {
+    return groupers.stream().mapToInt(SpillingGrouper::getSpillMergePasses).sum();
+  }
+
   private int grouperNumberForKeyHash(int keyHash)
   {
     return keyHash % groupers.size();
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.groupby.epinephelinae;
+
+import org.apache.druid.java.util.common.IAE;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A {@link ByteBufferHashTable} that keeps one control byte per bucket in a separate "controlBuffer", in the style of
+ * Swiss tables. A control byte is zero for an unused bucket, or the used flag (0x80) plus a 7-bit fingerprint of the
+ * key hash for a used bucket.
+ *
+ * Probing still visits buckets in the same order as {@link ByteBufferHashTable}, but reads the control bytes of
+ * {@link #GROUP_SIZE} buckets at once as a single long and matches fingerprints of all of them with a few bitwise
+ * operations. Keys are only compared for buckets whose fingerprint matches, and the bucket holding the next free
+ * slot is found from the same long, so the table buffer is touched far less often on long probe sequences.
+ *
+ * The first {@link #GROUP_SIZE} - 1 control bytes are mirrored after the last bucket's control byte, so that a group
+ * starting near the end of the table can be read without wrapping around.
+ */
+public class FingerprintByteBufferHashTable extends ByteBufferHashTable
+{
+  public static final int GROUP_SIZE = Long.BYTES;
+
+  private static final byte USED_FLAG = (byte) 0x80;
+  private static final long LOW_BITS = 0x0101010101010101L;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+
+  private final ByteBuffer controlBuffer;
+
+  /**
+   * Returns the number of bytes of control buffer needed for a table that may have up to "maxBuckets" buckets.
+   */
+  public static int controlBufferSize(final int maxBuckets)
+  {
+    return maxBuckets + GROUP_SIZE;
+  }
+
+  public FingerprintByteBufferHashTable(
+      float maxLoadFactor,
+      int initialBuckets,
+      int bucketSizeWithHash,
+      ByteBuffer buffer,
+      ByteBuffer controlBuffer,
+      int keySize,
+      int maxSizeForTesting,
+      @Nullable BucketUpdateHandler bucketUpdateHandler
+  )
+  {
+    super(maxLoadFactor, initialBuckets, bucketSizeWithHash, buffer, keySize, maxSizeForTesting, bucketUpdateHandler);
+
+    final int requiredSize = controlBufferSize(buffer.capacity() / bucketSizeWithHash);
+    if (controlBuffer.capacity() < requiredSize) {
+      throw new IAE(
+          "Control buffer too small! Need[%,d] but have[%,d].",
+          requiredSize,
+          controlBuffer.capacity()
+      );
+    }
+
+    this.controlBuffer = controlBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  @Override
+  protected void clearBuckets(final ByteBuffer targetTableBuffer, final int buckets)
+  {
+    super.clearBuckets(targetTableBuffer, buckets);
+
+    for (int i = 0; i < controlBufferSize(buckets); i++) {
+      controlBuffer.put(i, (byte) 0);
+    }
+  }
+
+  @Override
+  protected void bucketUsedHook(final int bucket, final int buckets, final int keyHash)
+  {
+    final byte control = control(keyHash);
+    controlBuffer.put(bucket, control);
+
+    if (bucket < GROUP_SIZE - 1) {
+      controlBuffer.put(buckets + bucket, control);
+    }
+  }
+
+  @Override
+  protected int findBucket(
+      final boolean allowNewBucket,
+      final int buckets,
+      final ByteBuffer targetTableBuffer,
+      final ByteBuffer keyBuffer,
+      final int keyHash
+  )
+  {
+    if (buckets < GROUP_SIZE) {
+      // Groups would wrap around more than once; not worth handling for such tiny tables.
+      return super.findBucket(allowNewBucket, buckets, targetTableBuffer, keyBuffer, keyHash);
+    }
+
+    final int storedHash = Groupers.getUsedFlag(keyHash);
+    final long controlPattern = LOW_BITS * (control(keyHash) & 0xFF);
+
+    // startBucket will never be negative since keyHash is always positive (see Groupers.hash)
+    int groupStart = keyHash % buckets;
+
+    for (int probed = 0; probed < buckets; probed += GROUP_SIZE) {
+      final long group = controlBuffer.getLong(groupStart);
+
+      // Control bytes of used buckets have their high bit set, so this has exactly the high bits of unused buckets.
+      final long unused = ~group & HIGH_BITS;
+      final int numCandidates = unused == 0 ? GROUP_SIZE : Long.numberOfTrailingZeros(unused) / Byte.SIZE;
+
+      // Standard "has zero byte" trick on (group ^ controlPattern). It can report false positives for bytes above a
+      // real match, but those are weeded out by the hash and key comparisons below.
+      final long difference = group ^ controlPattern;
+      long matches = (difference - LOW_BITS) & ~difference & HIGH_BITS;
+
+      while (matches != 0) {
+        final int groupPosition = Long.numberOfTrailingZeros(matches) / Byte.SIZE;
+        if (groupPosition >= numCandidates) {
+          break;
+        }
+
+        final int bucket = wrap(groupStart + groupPosition, buckets);
+        final int bucketOffset = bucket * bucketSizeWithHash;
+        if (targetTableBuffer.getInt(bucketOffset) == storedHash
+            && keyEquals(targetTableBuffer, bucketOffset, keyBuffer)) {
+          // Found our key in a used bucket
+          return bucket;
+        }
+
+        matches &= matches - 1;
+      }
+
+      if (unused != 0) {
+        // Found unused bucket before finding our key
+        return allowNewBucket ? wrap(groupStart + numCandidates, buckets) : -1;
+      }
+
+      groupStart = wrap(groupStart + GROUP_SIZE, buckets);
+    }
+
+    // Came back around to the start without finding a free slot.
+    return -1;
+  }
+
+  private boolean keyEquals(final ByteBuffer targetTableBuffer, final int bucketOffset, final ByteBuffer keyBuffer)
+  {
+    for (int i = bucketOffset + HASH_SIZE, j = keyBuffer.position(); j < keyBuffer.position() + keySize; i++, j++) {
+      if (targetTableBuffer.get(i) != keyBuffer.get(j)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static int wrap(final int bucket, final int buckets)
+  {
+    return bucket >= buckets ? bucket - buckets : bucket;
+  }
+
+  /**
+   * Control byte for a used bucket: the used flag plus the top 7 bits of the (31-bit, non-negative) key hash. The top
+   * bits are used since the low bits mostly determine the starting bucket.
+   */
+  private static byte control(final int keyHash)
+  {
+    return (byte) (USED_FLAG | ((keyHash >>> 24) & 0x7F));
+  }
+}
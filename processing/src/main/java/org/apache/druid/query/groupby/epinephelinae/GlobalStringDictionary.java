@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.groupby.epinephelinae;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import org.apache.druid.common.utils.IntArrayUtils;
+import org.apache.druid.java.util.common.guava.Comparators;
+import org.apache.druid.segment.DimensionDictionary;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * A string dictionary shared by all {@link Grouper.KeySerde}s taking part in a single merge, so that a string key gets
+ * the same dictionary id no matter which grouper it lands in. Ids are assigned incrementally, in the order strings are
+ * first seen, and are never reassigned or removed.
+ *
+ * Lookups (string to id, and id to string) are lock-free. Adding a new string is synchronized. Thread-safe.
+ */
+public class GlobalStringDictionary
+{
+  private static final int CHUNK_BITS = 12;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private final long maxDictionarySize;
+
+  // ConcurrentHashMap does not allow null keys, so the id of null is tracked separately.
+  private final ConcurrentHashMap<String, Integer> reverseDictionary = new ConcurrentHashMap<>();
+  private volatile int nullId = DimensionDictionary.ABSENT_VALUE_ID;
+
+  // Forward dictionary, in fixed-size chunks so existing entries never move while other threads are reading them.
+  private volatile String[][] chunks = new String[0][];
+  private volatile int size = 0;
+
+  // Guarded by "this".
+  private long currentEstimatedSize = 0;
+
+  // Guarded by "this". Cached result of getRanks(), valid while the dictionary has "ranksSize" entries.
+  @Nullable
+  private int[] ranks = null;
+  private int ranksSize = -1;
+
+  public GlobalStringDictionary(final long maxDictionarySize)
+  {
+    this.maxDictionarySize = maxDictionarySize;
+  }
+
+  /**
+   * Returns the id of a string, or {@link DimensionDictionary#ABSENT_VALUE_ID} if it has not been added.
+   */
+  public int getId(@Nullable final String s)
+  {
+    if (s == null) {
+      return nullId;
+    }
+
+    final Integer id = reverseDictionary.get(s);
+    return id == null ? DimensionDictionary.ABSENT_VALUE_ID : id;
+  }
+
+  /**
+   * Adds a string to this dictionary, if it is not already present. If the dictionary's size limit would be exceeded
+   * by adding this string, then this returns -1.
+   *
+   * @param s a string
+   *
+   * @return id for this string, or -1
+   */
+  public int add(@Nullable final String s)
+  {
+    final int existingId = getId(s);
+    if (existingId != DimensionDictionary.ABSENT_VALUE_ID) {
+      return existingId;
+    }
+
+    synchronized (this) {
+      final int racedId = getId(s);
+      if (racedId != DimensionDictionary.ABSENT_VALUE_ID) {
+        return racedId;
+      }
+
+      final long additionalEstimatedSize = RowBasedGrouperHelper.estimateStringKeySize(s);
+      if (currentEstimatedSize + additionalEstimatedSize > maxDictionarySize) {
+        return -1;
+      }
+
+      final int id = size;
+      final int chunk = id >>> CHUNK_BITS;
+      if (chunk == chunks.length) {
+        final String[][] newChunks = Arrays.copyOf(chunks, chunk + 1);
+        newChunks[chunk] = new String[CHUNK_SIZE];
+        chunks = newChunks;
+      }
+      chunks[chunk][id & CHUNK_MASK] = s;
+      size = id + 1;
+
+      // Publish the id last, so any thread that can see it can also see the forward dictionary entry.
+      if (s == null) {
+        nullId = id;
+      } else {
+        reverseDictionary.put(s, id);
+      }
+
+      currentEstimatedSize += additionalEstimatedSize;
+      return id;
+    }
+  }
+
+  /**
+   * Returns the string for an id previously returned by {@link #add}.
+   */
+  @Nullable
+  public String get(final int id)
+  {
+    return chunks[id >>> CHUNK_BITS][id & CHUNK_MASK];
+  }
+
+  public int size()
+  {
+    return size;
+  }
+
+  /**
+   * Returns a copy of the strings currently in this dictionary, in id order.
+   */
+  public List<String> snapshot()
+  {
+    final int snapshotSize = size;
+    final String[] snapshot = new String[snapshotSize];
+    for (int i = 0; i < snapshotSize; i++) {
+      snapshot[i] = get(i);
+    }
+    return Collections.unmodifiableList(Arrays.asList(snapshot));
+  }
+
+  /**
+   * Returns an array mapping each id currently in this dictionary to the rank of its string in sorted order. The
+   * result is cached until more strings are added, so groupers sharing this dictionary can share one sort. Callers
+   * must not modify the returned array.
+   */
+  public synchronized int[] getRanks()
+  {
+    final int currentSize = size;
+    if (ranks == null || ranksSize != currentSize) {
+      final int[] newRanks = IntStream.range(0, currentSize).toArray();
+      IntArrays.quickSort(
+          newRanks,
+          (i1, i2) -> Comparators.<String>naturalNullsFirst().compare(get(i1), get(i2))
+      );
+      IntArrayUtils.inverse(newRanks);
+      ranks = newRanks;
+      ranksSize = currentSize;
+    }
+    return ranks;
+  }
+}
@@ -37,7 +37,6 @@ import org.apache.druid.common.guava.GuavaUtils;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.java.util.common.StringUtils;
-import org.apache.druid.java.util.common.guava.Accumulator;
 import org.apache.druid.java.util.common.guava.BaseSequence;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.io.Closer;
@@ -45,6 +44,7 @@ import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.query.AbstractPrioritizedQueryRunnerCallable;
 import org.apache.druid.query.ChainedExecutionQueryRunner;
 import org.apache.druid.query.DruidProcessingConfig;
+import org.apache.druid.query.LimitedTemporaryStorage;
 import org.apache.druid.query.QueryContexts;
 import org.apache.druid.query.QueryInterruptedException;
 import org.apache.druid.query.QueryPlus;
@@ -57,6 +57,7 @@ import org.apache.druid.query.context.ResponseContext;
 import org.apache.druid.query.groupby.GroupByQuery;
 import org.apache.druid.query.groupby.GroupByQueryConfig;
 import org.apache.druid.query.groupby.ResultRow;
+import org.apache.druid.query.groupby.epinephelinae.RowBasedGrouperHelper.RowBasedGrouperAccumulator;
 import org.apache.druid.query.groupby.epinephelinae.RowBasedGrouperHelper.RowBasedKey;
 
 import java.io.File;
@@ -196,7 +197,7 @@ public class GroupByMergingQueryRunnerV2 implements QueryRunner<ResultRow>
                                                                                       mergeBufferHolders.get(1) :
                                                                                       null;
 
-              Pair<Grouper<RowBasedKey>, Accumulator<AggregateResult, ResultRow>> pair =
+              Pair<Grouper<RowBasedKey>, RowBasedGrouperAccumulator> pair =
                   RowBasedGrouperHelper.createGrouperAccumulatorPair(
                       query,
                       null,
@@ -214,7 +215,7 @@ public class GroupByMergingQueryRunnerV2 implements QueryRunner<ResultRow>
                       mergeBufferSize
                   );
               final Grouper<RowBasedKey> grouper = pair.lhs;
-              final Accumulator<AggregateResult, ResultRow> accumulator = pair.rhs;
+              final RowBasedGrouperAccumulator accumulator = pair.rhs;
               grouper.init();
 
               final ReferenceCountingResourceHolder<Grouper<RowBasedKey>> grouperHolder =
@@ -247,8 +248,9 @@ public class GroupByMergingQueryRunnerV2 implements QueryRunner<ResultRow>
                                           Releaser grouperReleaser = grouperHolder.increment()
                                       ) {
                                         // Return true if OK, false if resources were exhausted.
-                                        return input.run(queryPlusForRunners, responseContext)
-                                            .accumulate(AggregateResult.ok(), accumulator);
+                                        return accumulator.accumulateInBatches(
+                                            input.run(queryPlusForRunners, responseContext)
+                                        );
                                       }
                                       catch (QueryInterruptedException | QueryTimeoutException e) {
                                         throw e;
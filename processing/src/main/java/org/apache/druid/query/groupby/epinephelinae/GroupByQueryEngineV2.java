@@ -721,7 +721,8 @@ public class GroupByQueryEngineV2
             querySpecificConfig.getBufferGrouperMaxSize(),
             querySpecificConfig.getBufferGrouperMaxLoadFactor(),
             querySpecificConfig.getBufferGrouperInitialBuckets(),
-            true
+            true,
+            querySpecificConfig.isBufferGrouperUseFingerprints()
         );
       }
 
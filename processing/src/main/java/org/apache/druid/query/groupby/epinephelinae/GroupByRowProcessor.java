@@ -24,16 +24,17 @@ import com.google.common.base.Supplier;
 import org.apache.druid.collections.ResourceHolder;
 import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.java.util.common.StringUtils;
-import org.apache.druid.java.util.common.guava.Accumulator;
 import org.apache.druid.java.util.common.guava.BaseSequence;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.query.DruidProcessingConfig;
+import org.apache.druid.query.LimitedTemporaryStorage;
 import org.apache.druid.query.ResourceLimitExceededException;
 import org.apache.druid.query.dimension.DimensionSpec;
 import org.apache.druid.query.groupby.GroupByQuery;
 import org.apache.druid.query.groupby.GroupByQueryConfig;
 import org.apache.druid.query.groupby.ResultRow;
+import org.apache.druid.query.groupby.epinephelinae.RowBasedGrouperHelper.RowBasedGrouperAccumulator;
 import org.apache.druid.query.groupby.epinephelinae.RowBasedGrouperHelper.RowBasedKey;
 import org.apache.druid.query.groupby.resource.GroupByQueryResource;
 
@@ -111,7 +112,7 @@ public class GroupByRowProcessor
 
     closeOnExit.register(temporaryStorage);
 
-    Pair<Grouper<RowBasedKey>, Accumulator<AggregateResult, ResultRow>> pair = RowBasedGrouperHelper.createGrouperAccumulatorPair(
+    Pair<Grouper<RowBasedKey>, RowBasedGrouperAccumulator> pair = RowBasedGrouperHelper.createGrouperAccumulatorPair(
         query,
         subquery,
         querySpecificConfig,
@@ -131,7 +132,7 @@ public class GroupByRowProcessor
         mergeBufferSize
     );
     final Grouper<RowBasedKey> grouper = pair.lhs;
-    final Accumulator<AggregateResult, ResultRow> accumulator = pair.rhs;
+    final RowBasedGrouperAccumulator accumulator = pair.rhs;
     closeOnExit.register(grouper);
 
     final AggregateResult retVal = rows.accumulate(AggregateResult.ok(), accumulator);
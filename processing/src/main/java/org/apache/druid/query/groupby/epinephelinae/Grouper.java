@@ -28,6 +28,7 @@ import java.io.Closeable;
 import java.nio.ByteBuffer;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.IntConsumer;
 import java.util.function.ToIntFunction;
 
 /**
@@ -82,6 +83,40 @@ public interface Grouper<KeyType> extends Closeable
     return aggregate(key, hashFunction().applyAsInt(key));
   }
 
+  /**
+   * Aggregate a batch of rows with the provided keys. Some implementations are thread-safe and some are not.
+   *
+   * Rows are not necessarily aggregated in the order they appear in the batch. Since aggregators read the row they
+   * aggregate from a ColumnSelectorFactory, "setCurrentRow" is called with the position of each row within the
+   * batch just before that row is aggregated, so the caller can point the selectors at it.
+   *
+   * @param keys          key objects
+   * @param keyHashes     results of {@link #hashFunction()} on the keys
+   * @param numRows       number of rows in the batch; only the first numRows elements of the arrays are used
+   * @param setCurrentRow called with the position of each row before it is aggregated
+   *
+   * @return result that is ok if all rows were aggregated, not ok if a resource limit was hit. In that case, the
+   * count is the number of rows that were aggregated, which are not necessarily the first rows of the batch.
+   */
+  default AggregateResult aggregateBatch(
+      KeyType[] keys,
+      int[] keyHashes,
+      int numRows,
+      IntConsumer setCurrentRow
+  )
+  {
+    for (int i = 0; i < numRows; i++) {
+      setCurrentRow.accept(i);
+      final AggregateResult result = aggregate(keys[i], keyHashes[i]);
+
+      if (!result.isOk()) {
+        return AggregateResult.partial(i, result.getReason());
+      }
+    }
+
+    return AggregateResult.ok();
+  }
+
   /**
    * Reset the grouper to its initial state.
    */
@@ -145,6 +180,16 @@ public interface Grouper<KeyType> extends Closeable
      */
     KeySerde<T> factorizeWithDictionary(List<String> dictionary);
 
+    /**
+     * Return the contents of the dictionary shared by all {@link KeySerde}s created by {@link #factorize()}, or null
+     * if they do not share one. Strings in the shared dictionary are not included in {@link KeySerde#getDictionary()}.
+     */
+    @Nullable
+    default List<String> getSharedDictionary()
+    {
+      return null;
+    }
+
     /**
      * Copies a key. Required if the key from an {@link Entry} from {@link #iterator} will be retained past the
      * following call to next().
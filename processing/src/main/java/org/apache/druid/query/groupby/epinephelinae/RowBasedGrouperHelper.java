@@ -22,6 +22,7 @@ package org.apache.druid.query.groupby.epinephelinae;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.primitives.Ints;
@@ -39,9 +40,11 @@ import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.java.util.common.granularity.AllGranularity;
 import org.apache.druid.java.util.common.guava.Accumulator;
 import org.apache.druid.java.util.common.guava.Comparators;
+import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.query.BaseQuery;
 import org.apache.druid.query.ColumnSelectorPlus;
 import org.apache.druid.query.DruidProcessingConfig;
+import org.apache.druid.query.LimitedTemporaryStorage;
 import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.query.aggregation.GroupingAggregatorFactory;
 import org.apache.druid.query.dimension.ColumnSelectorStrategy;
@@ -93,6 +96,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -114,7 +118,7 @@ public class RowBasedGrouperHelper
   /**
    * Create a single-threaded grouper and accumulator.
    */
-  public static Pair<Grouper<RowBasedKey>, Accumulator<AggregateResult, ResultRow>> createGrouperAccumulatorPair(
+  public static Pair<Grouper<RowBasedKey>, RowBasedGrouperAccumulator> createGrouperAccumulatorPair(
       final GroupByQuery query,
       @Nullable final GroupByQuery subquery,
       final GroupByQueryConfig config,
@@ -145,7 +149,7 @@ public class RowBasedGrouperHelper
 
   /**
    * Create a {@link Grouper} that groups according to the dimensions and aggregators in "query", along with
-   * an {@link Accumulator} that accepts ResultRows and forwards them to the grouper.
+   * a {@link RowBasedGrouperAccumulator} that accepts ResultRows and forwards them to the grouper.
    *
    * The pair will operate in one of two modes:
    *
@@ -174,7 +178,7 @@ public class RowBasedGrouperHelper
    * @param queryTimeoutAt      when this query times out, in milliseconds since the epoch
    * @param mergeBufferSize     size of the merge buffers from "bufferSupplier"
    */
-  public static Pair<Grouper<RowBasedKey>, Accumulator<AggregateResult, ResultRow>> createGrouperAccumulatorPair(
+  public static Pair<Grouper<RowBasedKey>, RowBasedGrouperAccumulator> createGrouperAccumulatorPair(
       final GroupByQuery query,
       @Nullable final GroupByQuery subquery,
       final GroupByQueryConfig config,
@@ -242,14 +246,28 @@ public class RowBasedGrouperHelper
 
     final long maxMergingDictionarySize = querySpecificConfig.getActualMaxMergingDictionarySize(processingConfig);
 
+    // Groupers of a ConcurrentGrouper can share one dictionary, so string keys are encoded the same way in all of them.
+    // It gets half of the dictionary space, and the dictionaries that groupers fall back to once it fills up share the
+    // other half, so that all of them together stay within maxMergingDictionarySize.
+    final GlobalStringDictionary globalDictionary;
+    final long maxKeySerdeDictionarySize;
+    if (concurrencyHint != -1 && querySpecificConfig.isUseGlobalMergingDictionary()) {
+      globalDictionary = new GlobalStringDictionary(maxMergingDictionarySize / 2);
+      maxKeySerdeDictionarySize = (maxMergingDictionarySize - maxMergingDictionarySize / 2) / concurrencyHint;
+    } else {
+      globalDictionary = null;
+      maxKeySerdeDictionarySize = maxMergingDictionarySize / (concurrencyHint == -1 ? 1 : concurrencyHint);
+    }
+
     final Grouper.KeySerdeFactory<RowBasedKey> keySerdeFactory = new RowBasedKeySerdeFactory(
         includeTimestamp,
         query.getContextSortByDimsFirst(),
         query.getDimensions(),
-        maxMergingDictionarySize / (concurrencyHint == -1 ? 1 : concurrencyHint),
+        maxKeySerdeDictionarySize,
         valueTypes,
         aggregatorFactories,
-        limitSpec
+        limitSpec,
+        globalDictionary
     );
 
     final Grouper<RowBasedKey> grouper;
@@ -262,12 +280,14 @@ public class RowBasedGrouperHelper
           querySpecificConfig.getBufferGrouperMaxSize(),
           querySpecificConfig.getBufferGrouperMaxLoadFactor(),
           querySpecificConfig.getBufferGrouperInitialBuckets(),
+          querySpecificConfig.isBufferGrouperUseFingerprints(),
           temporaryStorage,
           spillMapper,
           true,
           limitSpec,
           sortHasNonGroupingFields,
-          mergeBufferSize
+          mergeBufferSize,
+          querySpecificConfig.getSpillMergeFanIn()
       );
     } else {
       final Grouper.KeySerdeFactory<RowBasedKey> combineKeySerdeFactory = new RowBasedKeySerdeFactory(
@@ -277,7 +297,8 @@ public class RowBasedGrouperHelper
           maxMergingDictionarySize, // use entire dictionary space for combining key serde
           valueTypes,
           aggregatorFactories,
-          limitSpec
+          limitSpec,
+          null
       );
 
       grouper = new ConcurrentGrouper<>(
@@ -318,32 +339,13 @@ public class RowBasedGrouperHelper
       rowPredicate = getResultRowPredicate(query, subquery);
     }
 
-    final Accumulator<AggregateResult, ResultRow> accumulator = (priorResult, row) -> {
-      BaseQuery.checkInterrupted();
-
-      if (priorResult != null && !priorResult.isOk()) {
-        // Pass-through error returns without doing more work.
-        return priorResult;
-      }
-
-      if (!grouper.isInitialized()) {
-        grouper.init();
-      }
-
-      if (!rowPredicate.test(row)) {
-        return AggregateResult.ok();
-      }
-
-      columnSelectorRow.set(row);
-
-      final Comparable[] key = new Comparable[keySize];
-      valueExtractFn.apply(row, key);
-
-      final AggregateResult aggregateResult = grouper.aggregate(new RowBasedKey(key));
-      columnSelectorRow.set(null);
-
-      return aggregateResult;
-    };
+    final RowBasedGrouperAccumulator accumulator = new RowBasedGrouperAccumulator(
+        grouper,
+        rowPredicate,
+        valueExtractFn,
+        columnSelectorRow,
+        keySize
+    );
 
     return new Pair<>(grouper, accumulator);
   }
@@ -654,6 +656,150 @@ public class RowBasedGrouperHelper
     );
   }
 
+  /**
+   * {@link Accumulator} that accepts ResultRows and forwards them to a {@link Grouper}. Created by
+   * {@link #createGrouperAccumulatorPair}. Thread-safe if the grouper is thread-safe.
+   *
+   * Rows can be forwarded one at a time, through {@link #accumulate}, or a whole sequence at a time, through
+   * {@link #accumulateInBatches}, which hands them to {@link Grouper#aggregateBatch} in blocks of {@link #BATCH_SIZE}.
+   */
+  public static class RowBasedGrouperAccumulator implements Accumulator<AggregateResult, ResultRow>
+  {
+    static final int BATCH_SIZE = 512;
+
+    private final Grouper<RowBasedKey> grouper;
+    private final Predicate<ResultRow> rowPredicate;
+    private final ValueExtractFunction valueExtractFn;
+    private final ThreadLocal<ResultRow> columnSelectorRow;
+    private final int keySize;
+    private final ToIntFunction<RowBasedKey> hashFunction;
+
+    private RowBasedGrouperAccumulator(
+        final Grouper<RowBasedKey> grouper,
+        final Predicate<ResultRow> rowPredicate,
+        final ValueExtractFunction valueExtractFn,
+        final ThreadLocal<ResultRow> columnSelectorRow,
+        final int keySize
+    )
+    {
+      this.grouper = grouper;
+      this.rowPredicate = rowPredicate;
+      this.valueExtractFn = valueExtractFn;
+      this.columnSelectorRow = columnSelectorRow;
+      this.keySize = keySize;
+      this.hashFunction = grouper.hashFunction();
+    }
+
+    @Override
+    public AggregateResult accumulate(final AggregateResult priorResult, final ResultRow row)
+    {
+      if (!prepareRow(priorResult)) {
+        return priorResult;
+      }
+
+      if (!rowPredicate.test(row)) {
+        return AggregateResult.ok();
+      }
+
+      columnSelectorRow.set(row);
+
+      final AggregateResult aggregateResult = grouper.aggregate(makeKey(row));
+      columnSelectorRow.set(null);
+
+      return aggregateResult;
+    }
+
+    /**
+     * Forwards all rows of "rows" to the grouper in batches. Returns as soon as a resource limit is hit, like
+     * accumulating "rows" with this accumulator would.
+     */
+    public AggregateResult accumulateInBatches(final Sequence<ResultRow> rows)
+    {
+      final RowBatch batch = new RowBatch();
+
+      final AggregateResult result = rows.accumulate(
+          AggregateResult.ok(),
+          (priorResult, row) -> {
+            if (!prepareRow(priorResult)) {
+              return priorResult;
+            }
+
+            if (!rowPredicate.test(row)) {
+              return AggregateResult.ok();
+            }
+
+            return batch.add(row);
+          }
+      );
+
+      return result.isOk() ? batch.flush() : result;
+    }
+
+    /**
+     * Returns false if the prior result was an error, which should be passed through without doing more work.
+     */
+    private boolean prepareRow(@Nullable final AggregateResult priorResult)
+    {
+      BaseQuery.checkInterrupted();
+
+      if (priorResult != null && !priorResult.isOk()) {
+        return false;
+      }
+
+      if (!grouper.isInitialized()) {
+        grouper.init();
+      }
+
+      return true;
+    }
+
+    private RowBasedKey makeKey(final ResultRow row)
+    {
+      final Comparable[] key = new Comparable[keySize];
+      valueExtractFn.apply(row, key);
+      return new RowBasedKey(key);
+    }
+
+    private class RowBatch
+    {
+      private final ResultRow[] rows = new ResultRow[BATCH_SIZE];
+      private final RowBasedKey[] keys = new RowBasedKey[BATCH_SIZE];
+      private final int[] keyHashes = new int[BATCH_SIZE];
+      private int numRows = 0;
+
+      AggregateResult add(final ResultRow row)
+      {
+        columnSelectorRow.set(row);
+        final RowBasedKey key = makeKey(row);
+        columnSelectorRow.set(null);
+
+        rows[numRows] = row;
+        keys[numRows] = key;
+        keyHashes[numRows] = hashFunction.applyAsInt(key);
+        numRows++;
+
+        return numRows == BATCH_SIZE ? flush() : AggregateResult.ok();
+      }
+
+      AggregateResult flush()
+      {
+        if (numRows == 0) {
+          return AggregateResult.ok();
+        }
+
+        try {
+          return grouper.aggregateBatch(keys, keyHashes, numRows, i -> columnSelectorRow.set(rows[i]));
+        }
+        finally {
+          columnSelectorRow.set(null);
+          Arrays.fill(rows, 0, numRows, null);
+          Arrays.fill(keys, 0, numRows, null);
+          numRows = 0;
+        }
+      }
+    }
+  }
+
   public static class RowBasedKey
   {
     private final Object[] key;
@@ -819,7 +965,8 @@ public class RowBasedGrouperHelper
     return functions;
   }
 
-  private static class RowBasedKeySerdeFactory implements Grouper.KeySerdeFactory<RowBasedKey>
+  @VisibleForTesting
+  static class RowBasedKeySerdeFactory implements Grouper.KeySerdeFactory<RowBasedKey>
   {
     private final boolean includeTimestamp;
     private final boolean sortByDimsFirst;
@@ -828,6 +975,8 @@ public class RowBasedGrouperHelper
     private final List<DimensionSpec> dimensions;
     final AggregatorFactory[] aggregatorFactories;
     private final List<ColumnType> valueTypes;
+    @Nullable
+    private final GlobalStringDictionary globalDictionary;
 
     RowBasedKeySerdeFactory(
         boolean includeTimestamp,
@@ -836,7 +985,8 @@ public class RowBasedGrouperHelper
         long maxDictionarySize,
         List<ColumnType> valueTypes,
         final AggregatorFactory[] aggregatorFactories,
-        DefaultLimitSpec limitSpec
+        DefaultLimitSpec limitSpec,
+        @Nullable GlobalStringDictionary globalDictionary
     )
     {
       this.includeTimestamp = includeTimestamp;
@@ -846,6 +996,7 @@ public class RowBasedGrouperHelper
       this.limitSpec = limitSpec;
       this.aggregatorFactories = aggregatorFactories;
       this.valueTypes = valueTypes;
+      this.globalDictionary = globalDictionary;
     }
 
     @Override
@@ -864,7 +1015,8 @@ public class RowBasedGrouperHelper
           maxDictionarySize,
           limitSpec,
           valueTypes,
-          null
+          null,
+          globalDictionary
       );
     }
 
@@ -878,10 +1030,18 @@ public class RowBasedGrouperHelper
           maxDictionarySize,
           limitSpec,
           valueTypes,
-          dictionary
+          dictionary,
+          null
       );
     }
 
+    @Nullable
+    @Override
+    public List<String> getSharedDictionary()
+    {
+      return globalDictionary == null ? null : globalDictionary.snapshot();
+    }
+
     @Override
     public RowBasedKey copyKey(RowBasedKey key)
     {
@@ -1188,6 +1348,11 @@ public class RowBasedGrouperHelper
     private final List<ComparableList> listDictionary;
     private final Object2IntMap<ComparableList> reverseListDictionary;
 
+    // Query-wide dictionary shared with other serdes, used for string keys instead of "dictionary" if nonnull. Set to
+    // null on reset() after it fills up, after which this serde falls back to its own dictionary.
+    @Nullable
+    private GlobalStringDictionary globalDictionary;
+    private boolean globalDictionaryFull = false;
 
     // Size limiting for the dictionary, in (roughly estimated) bytes.
     private final long maxDictionarySize;
@@ -1207,7 +1372,8 @@ public class RowBasedGrouperHelper
         final long maxDictionarySize,
         final DefaultLimitSpec limitSpec,
         final List<ColumnType> valueTypes,
-        @Nullable final List<String> dictionary
+        @Nullable final List<String> dictionary,
+        @Nullable final GlobalStringDictionary globalDictionary
     )
     {
       this.includeTimestamp = includeTimestamp;
@@ -1226,6 +1392,8 @@ public class RowBasedGrouperHelper
       this.listDictionary = DictionaryBuilding.createDictionary();
       this.reverseListDictionary = DictionaryBuilding.createReverseDictionary();
 
+      this.globalDictionary = enableRuntimeDictionaryGeneration ? globalDictionary : null;
+
       this.maxDictionarySize = maxDictionarySize;
       this.serdeHelpers = makeSerdeHelpers(limitSpec != null, enableRuntimeDictionaryGeneration);
       this.serdeHelperComparators = new BufferComparator[serdeHelpers.length];
@@ -1254,6 +1422,11 @@ public class RowBasedGrouperHelper
 
     private void initializeRankOfDictionaryIds()
     {
+      if (globalDictionary != null) {
+        rankOfDictionaryIds = globalDictionary.getRanks();
+        return;
+      }
+
       final int dictionarySize = dictionary.size();
       rankOfDictionaryIds = IntStream.range(0, dictionarySize).toArray();
       IntArrays.quickSort(
@@ -1370,6 +1543,11 @@ public class RowBasedGrouperHelper
     public void reset()
     {
       if (enableRuntimeDictionaryGeneration) {
+        if (globalDictionaryFull) {
+          // Nothing is encoded with the global dictionary anymore, so it is safe to switch to our own.
+          globalDictionary = null;
+          globalDictionaryFull = false;
+        }
         dictionary.clear();
         reverseDictionary.clear();
         rankOfDictionaryIds = null;
@@ -1377,6 +1555,12 @@ public class RowBasedGrouperHelper
       }
     }
 
+    @Nullable
+    private String lookupString(final int id)
+    {
+      return globalDictionary != null ? globalDictionary.get(id) : dictionary.get(id);
+    }
+
     private int getTotalKeySize()
     {
       int size = 0;
@@ -1651,8 +1835,8 @@ public class RowBasedGrouperHelper
                                                   StringComparators.LEXICOGRAPHIC :
                                                   stringComparator;
           bufferComparator = (lhsBuffer, rhsBuffer, lhsPosition, rhsPosition) -> {
-            String lhsStr = dictionary.get(lhsBuffer.getInt(lhsPosition + keyBufferPosition));
-            String rhsStr = dictionary.get(rhsBuffer.getInt(rhsPosition + keyBufferPosition));
+            String lhsStr = lookupString(lhsBuffer.getInt(lhsPosition + keyBufferPosition));
+            String rhsStr = lookupString(rhsBuffer.getInt(rhsPosition + keyBufferPosition));
             return realComparator.compare(lhsStr, rhsStr);
           };
         }
@@ -1667,7 +1851,7 @@ public class RowBasedGrouperHelper
       @Override
       public void getFromByteBuffer(ByteBuffer buffer, int initialOffset, int dimValIdx, Object[] dimValues)
       {
-        dimValues[dimValIdx] = dictionary.get(buffer.getInt(initialOffset + keyBufferPosition));
+        dimValues[dimValIdx] = lookupString(buffer.getInt(initialOffset + keyBufferPosition));
       }
 
       @Override
@@ -1691,7 +1875,14 @@ public class RowBasedGrouperHelper
       @Override
       public boolean putToKeyBuffer(RowBasedKey key, int idx)
       {
-        final int id = addToDictionary((String) key.getKey()[idx]);
+        final String s = (String) key.getKey()[idx];
+        final int id;
+        if (globalDictionary != null) {
+          id = globalDictionary.add(s);
+          globalDictionaryFull = id < 0;
+        } else {
+          id = addToDictionary(s);
+        }
         if (id < 0) {
           return false;
         }
@@ -23,10 +23,12 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
 import net.jpountz.lz4.LZ4BlockInputStream;
 import net.jpountz.lz4.LZ4BlockOutputStream;
 import org.apache.druid.java.util.common.CloseableIterators;
@@ -35,6 +37,9 @@ import org.apache.druid.java.util.common.jackson.JacksonUtils;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.java.util.common.parsers.CloseableIterator;
 import org.apache.druid.query.BaseQuery;
+import org.apache.druid.query.LimitedTemporaryStorage;
+import org.apache.druid.query.ResourceLimitExceededException;
+import org.apache.druid.query.TemporaryStorageFullException;
 import org.apache.druid.query.aggregation.AggregatorAdapters;
 import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.query.groupby.orderby.DefaultLimitSpec;
@@ -58,6 +63,10 @@ import java.util.Set;
  * Grouper based around a single underlying {@link BufferHashGrouper}. Not thread-safe.
  *
  * When the underlying grouper is full, its contents are sorted and written to temporary files using "spillMapper".
+ *
+ * If "spillMergeFanIn" is positive, no more than that many spill files are merged at once. When there are more spill
+ * files than that, they are first merged in multiple passes, combining rows with equal keys, into fewer and larger
+ * spill files. This bounds the number of files (and their read buffers) open during the final merge.
  */
 public class SpillingGrouper<KeyType> implements Grouper<KeyType>
 {
@@ -78,7 +87,9 @@ public class SpillingGrouper<KeyType> implements Grouper<KeyType>
   private final List<File> files = new ArrayList<>();
   private final List<File> dictionaryFiles = new ArrayList<>();
   private final boolean sortHasNonGroupingFields;
+  private final int spillMergeFanIn;
 
+  private int spillMergePasses = 0;
   private boolean diskFull = false;
   private boolean spillingAllowed;
 
@@ -90,12 +101,14 @@ public class SpillingGrouper<KeyType> implements Grouper<KeyType>
       final int bufferGrouperMaxSize,
       final float bufferGrouperMaxLoadFactor,
       final int bufferGrouperInitialBuckets,
+      final boolean bufferGrouperUseFingerprints,
       final LimitedTemporaryStorage temporaryStorage,
       final ObjectMapper spillMapper,
       final boolean spillingAllowed,
       final DefaultLimitSpec limitSpec,
       final boolean sortHasNonGroupingFields,
-      final int mergeBufferSize
+      final int mergeBufferSize,
+      final int spillMergeFanIn
   )
   {
     this.keySerde = keySerdeFactory.factorize();
@@ -134,7 +147,8 @@ public class SpillingGrouper<KeyType> implements Grouper<KeyType>
             bufferGrouperMaxSize,
             bufferGrouperMaxLoadFactor,
             bufferGrouperInitialBuckets,
-            sortHasNonGroupingFields
+            sortHasNonGroupingFields,
+            bufferGrouperUseFingerprints
         );
       } else {
         this.grouper = limitGrouper;
@@ -147,7 +161,8 @@ public class SpillingGrouper<KeyType> implements Grouper<KeyType>
           bufferGrouperMaxSize,
           bufferGrouperMaxLoadFactor,
           bufferGrouperInitialBuckets,
-          true
+          true,
+          bufferGrouperUseFingerprints
       );
     }
     this.aggregatorFactories = aggregatorFactories;
@@ -155,6 +170,7 @@ public class SpillingGrouper<KeyType> implements Grouper<KeyType>
     this.spillMapper = spillMapper;
     this.spillingAllowed = spillingAllowed;
     this.sortHasNonGroupingFields = sortHasNonGroupingFields;
+    this.spillMergeFanIn = spillMergeFanIn;
   }
 
   @Override
@@ -263,42 +279,15 @@ public class SpillingGrouper<KeyType> implements Grouper<KeyType>
   @Override
   public CloseableIterator<Entry<KeyType>> iterator(final boolean sorted)
   {
+    mergeSpillFilesIfNeeded();
+
     final List<CloseableIterator<Entry<KeyType>>> iterators = new ArrayList<>(1 + files.size());
 
     iterators.add(grouper.iterator(sorted));
 
     final Closer closer = Closer.create();
     for (final File file : files) {
-      final MappingIterator<Entry<KeyType>> fileIterator = read(file, keySerde.keyClazz());
-
-      iterators.add(
-          CloseableIterators.withEmptyBaggage(
-              Iterators.transform(
-                  fileIterator,
-                  new Function<Entry<KeyType>, Entry<KeyType>>()
-                  {
-                    final ReusableEntry<KeyType> reusableEntry =
-                        ReusableEntry.create(keySerde, aggregatorFactories.length);
-
-                    @Override
-                    public Entry<KeyType> apply(Entry<KeyType> entry)
-                    {
-                      final Object[] deserializedValues = reusableEntry.getValues();
-                      for (int i = 0; i < deserializedValues.length; i++) {
-                        deserializedValues[i] = aggregatorFactories[i].deserialize(entry.getValues()[i]);
-                        if (deserializedValues[i] instanceof Integer) {
-                          // Hack to satisfy the groupBy unit tests; perhaps we could do better by adjusting Jackson config.
-                          deserializedValues[i] = ((Integer) deserializedValues[i]).longValue();
-                        }
-                      }
-                      reusableEntry.setKey(entry.getKey());
-                      return reusableEntry;
-                    }
-                  }
-              )
-          )
-      );
-      closer.register(fileIterator);
+      iterators.add(readSpilledRun(file, closer));
     }
 
     final Iterator<Entry<KeyType>> baseIterator;
@@ -323,6 +312,105 @@ public class SpillingGrouper<KeyType> implements Grouper<KeyType>
     }
   }
 
+  /**
+   * Merges spill files, {@link #spillMergeFanIn} at a time, until no more than {@link #spillMergeFanIn} remain.
+   * Rows with equal keys are combined as the files are merged, so each pass also shrinks the spilled data.
+   */
+  private void mergeSpillFilesIfNeeded()
+  {
+    if (spillMergeFanIn < 2) {
+      return;
+    }
+
+    while (files.size() > spillMergeFanIn) {
+      final List<File> filesToMerge = new ArrayList<>(files.subList(0, spillMergeFanIn));
+
+      final File mergedFile;
+      try {
+        mergedFile = mergeSpillFiles(filesToMerge);
+      }
+      catch (TemporaryStorageFullException e) {
+        throw new ResourceLimitExceededException(DISK_FULL.getReason());
+      }
+      catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+
+      for (final File file : filesToMerge) {
+        temporaryStorage.delete(file);
+      }
+
+      files.subList(0, spillMergeFanIn).clear();
+      files.add(mergedFile);
+      spillMergePasses++;
+    }
+  }
+
+  private File mergeSpillFiles(final List<File> filesToMerge) throws IOException
+  {
+    final Closer closer = Closer.create();
+
+    try {
+      final List<CloseableIterator<Entry<KeyType>>> iterators = new ArrayList<>(filesToMerge.size());
+      for (final File file : filesToMerge) {
+        iterators.add(readSpilledRun(file, closer));
+      }
+
+      final PeekingIterator<Entry<KeyType>> mergedIterator = Iterators.peekingIterator(
+          closer.register(CloseableIterators.mergeSorted(iterators, spillComparator()))
+      );
+
+      return spill(
+          new Iterator<Entry<KeyType>>()
+          {
+            @Override
+            public boolean hasNext()
+            {
+              return mergedIterator.hasNext();
+            }
+
+            @Override
+            public Entry<KeyType> next()
+            {
+              // Entries may be reused by the underlying iterators, so copy the values before peeking at the next one.
+              final Entry<KeyType> entry = mergedIterator.next();
+              final KeyType key = entry.getKey();
+              final Object[] values = Arrays.copyOf(entry.getValues(), aggregatorFactories.length);
+
+              while (mergedIterator.hasNext() && key.equals(mergedIterator.peek().getKey())) {
+                final Object[] otherValues = mergedIterator.next().getValues();
+                for (int i = 0; i < values.length; i++) {
+                  values[i] = aggregatorFactories[i].combine(values[i], otherValues[i]);
+                }
+              }
+
+              return new ReusableEntry<>(key, values);
+            }
+          }
+      );
+    }
+    finally {
+      closer.close();
+    }
+  }
+
+  /**
+   * Number of times spill files have been merged into a single spill file by {@link #mergeSpillFilesIfNeeded()}.
+   */
+  @VisibleForTesting
+  int getSpillMergePasses()
+  {
+    return spillMergePasses;
+  }
+
+  /**
+   * Comparator matching the order in which spill files were written by {@link #spill()}.
+   */
+  private Comparator<Entry<KeyType>> spillComparator()
+  {
+    return sortHasNonGroupingFields ? defaultOrderKeyObjComparator : keyObjComparator;
+  }
+
   private <T> File spill(Iterator<T> iterator) throws IOException
   {
     try (
@@ -341,6 +429,38 @@ public class SpillingGrouper<KeyType> implements Grouper<KeyType>
     }
   }
 
+  private CloseableIterator<Entry<KeyType>> readSpilledRun(final File file, final Closer closer)
+  {
+    final MappingIterator<Entry<KeyType>> fileIterator = read(file, keySerde.keyClazz());
+    closer.register(fileIterator);
+
+    return CloseableIterators.withEmptyBaggage(
+        Iterators.transform(
+            fileIterator,
+            new Function<Entry<KeyType>, Entry<KeyType>>()
+            {
+              final ReusableEntry<KeyType> reusableEntry =
+                  ReusableEntry.create(keySerde, aggregatorFactories.length);
+
+              @Override
+              public Entry<KeyType> apply(Entry<KeyType> entry)
+              {
+                final Object[] deserializedValues = reusableEntry.getValues();
+                for (int i = 0; i < deserializedValues.length; i++) {
+                  deserializedValues[i] = aggregatorFactories[i].deserialize(entry.getValues()[i]);
+                  if (deserializedValues[i] instanceof Integer) {
+                    // Hack to satisfy the groupBy unit tests; perhaps we could do better by adjusting Jackson config.
+                    deserializedValues[i] = ((Integer) deserializedValues[i]).longValue();
+                  }
+                }
+                reusableEntry.setKey(entry.getKey());
+                return reusableEntry;
+              }
+            }
+        )
+    );
+  }
+
   private MappingIterator<Entry<KeyType>> read(final File file, final Class<KeyType> keyClazz)
   {
     try {
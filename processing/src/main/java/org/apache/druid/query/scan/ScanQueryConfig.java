@@ -20,6 +20,7 @@
 package org.apache.druid.query.scan;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.druid.java.util.common.HumanReadableBytes;
 
 import java.util.Objects;
 
@@ -27,6 +28,8 @@ public class ScanQueryConfig
 {
   public static final String CTX_KEY_MAX_ROWS_QUEUED_FOR_ORDERING = "maxRowsQueuedForOrdering";
   public static final String CTX_KEY_MAX_SEGMENT_PARTITIONS_FOR_ORDERING = "maxSegmentPartitionsOrderedInMemory";
+  public static final String CTX_KEY_LATE_MATERIALIZATION = "lateMaterialization";
+  public static final String CTX_KEY_MAX_ON_DISK_STORAGE = "maxOnDiskStorage";
 
   @JsonProperty
   private boolean legacy = false;
@@ -59,6 +62,14 @@ public class ScanQueryConfig
     return maxSegmentPartitionsOrderedInMemory;
   }
 
+  @JsonProperty
+  private HumanReadableBytes maxOnDiskStorage = HumanReadableBytes.valueOf(0);
+
+  public HumanReadableBytes getMaxOnDiskStorage()
+  {
+    return maxOnDiskStorage;
+  }
+
   @Override
   public boolean equals(final Object o)
   {
@@ -31,18 +31,27 @@ import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.java.util.common.guava.BaseSequence;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.query.QueryContexts;
 import org.apache.druid.query.QueryMetrics;
 import org.apache.druid.query.QueryTimeoutException;
 import org.apache.druid.query.context.ResponseContext;
 import org.apache.druid.query.filter.Filter;
 import org.apache.druid.segment.BaseObjectColumnValueSelector;
+import org.apache.druid.segment.ColumnCache;
+import org.apache.druid.segment.ColumnSelectorFactory;
+import org.apache.druid.segment.QueryableIndex;
+import org.apache.druid.segment.QueryableIndexColumnSelectorFactory;
 import org.apache.druid.segment.Segment;
+import org.apache.druid.segment.SimpleAscendingOffset;
+import org.apache.druid.segment.SimpleSettableOffset;
 import org.apache.druid.segment.StorageAdapter;
 import org.apache.druid.segment.VirtualColumn;
 import org.apache.druid.segment.column.ColumnHolder;
 import org.apache.druid.segment.filter.Filters;
+import org.apache.druid.segment.historical.HistoricalCursor;
 import org.apache.druid.timeline.SegmentId;
+import org.apache.druid.utils.CloseableUtils;
 import org.joda.time.Interval;
 
 import javax.annotation.Nullable;
@@ -128,6 +137,10 @@ public class ScanQueryEngine
     // If the row count is not set, set it to 0, else do nothing.
     responseContext.addRowScanCount(0);
     final long limit = calculateRemainingScanRowsLimit(query, responseContext);
+    final boolean descending = query.getTimeOrder().equals(ScanQuery.Order.DESCENDING) ||
+                               (query.getTimeOrder().equals(ScanQuery.Order.NONE) && query.isDescending());
+    final QueryableIndex index = segment.asQueryableIndex();
+    final boolean lateMaterialization = query.getContextBoolean(ScanQueryConfig.CTX_KEY_LATE_MATERIALIZATION, false);
     return Sequences.concat(
             adapter
                 .makeCursors(
@@ -135,26 +148,47 @@ public class ScanQueryEngine
                     intervals.get(0),
                     query.getVirtualColumns(),
                     Granularities.ALL,
-                    query.getTimeOrder().equals(ScanQuery.Order.DESCENDING) ||
-                    (query.getTimeOrder().equals(ScanQuery.Order.NONE) && query.isDescending()),
+                    descending,
                     queryMetrics
                 )
                 .map(cursor -> new BaseSequence<>(
                     new BaseSequence.IteratorMaker<ScanResultValue, Iterator<ScanResultValue>>()
                     {
+                      private final Closer closer = Closer.create();
+
                       @Override
                       public Iterator<ScanResultValue> make()
                       {
+                        // With late materialization, the cursor only evaluates the filter and time bounds, and
+                        // requested columns are read afterwards, one column at a time, for the rows it matched.
+                        final HistoricalCursor historicalCursor;
+                        final SimpleSettableOffset materializationOffset;
+                        final ColumnSelectorFactory columnSelectorFactory;
+
+                        if (lateMaterialization && index != null && cursor instanceof HistoricalCursor) {
+                          historicalCursor = (HistoricalCursor) cursor;
+                          materializationOffset = new SimpleAscendingOffset(index.getNumRows());
+                          columnSelectorFactory = new QueryableIndexColumnSelectorFactory(
+                              query.getVirtualColumns(),
+                              descending,
+                              materializationOffset,
+                              new ColumnCache(index, closer)
+                          );
+                        } else {
+                          historicalCursor = null;
+                          materializationOffset = null;
+                          columnSelectorFactory = cursor.getColumnSelectorFactory();
+                        }
+
                         final List<BaseObjectColumnValueSelector> columnSelectors = new ArrayList<>(allColumns.size());
 
                         for (String column : allColumns) {
                           final BaseObjectColumnValueSelector selector;
 
                           if (legacy && LEGACY_TIMESTAMP_KEY.equals(column)) {
-                            selector = cursor.getColumnSelectorFactory()
-                                             .makeColumnValueSelector(ColumnHolder.TIME_COLUMN_NAME);
+                            selector = columnSelectorFactory.makeColumnValueSelector(ColumnHolder.TIME_COLUMN_NAME);
                           } else {
-                            selector = cursor.getColumnSelectorFactory().makeColumnValueSelector(column);
+                            selector = columnSelectorFactory.makeColumnValueSelector(column);
                           }
 
                           columnSelectors.add(selector);
@@ -165,6 +199,9 @@ public class ScanQueryEngine
                         {
                           private long offset = 0;
 
+                          // Row numbers matched by the cursor in the current batch, used for late materialization.
+                          private final int[] rowNumbers = materializationOffset == null ? null : new int[batchSize];
+
                           @Override
                           public boolean hasNext()
                           {
@@ -202,6 +239,15 @@ public class ScanQueryEngine
 
                           private List<List<Object>> rowsToCompactedList()
                           {
+                            if (materializationOffset != null) {
+                              final Object[][] rows = materializeRows();
+                              final List<List<Object>> events = new ArrayList<>(rows.length);
+                              for (Object[] row : rows) {
+                                events.add(new ArrayList<>(Arrays.asList(row)));
+                              }
+                              return events;
+                            }
+
                             final List<List<Object>> events = new ArrayList<>(batchSize);
                             final long iterLimit = Math.min(limit, offset + batchSize);
                             for (; !cursor.isDone() && offset < iterLimit; cursor.advance(), offset++) {
@@ -216,6 +262,19 @@ public class ScanQueryEngine
 
                           private List<Map<String, Object>> rowsToList()
                           {
+                            if (materializationOffset != null) {
+                              final Object[][] rows = materializeRows();
+                              final List<Map<String, Object>> events = new ArrayList<>(rows.length);
+                              for (Object[] row : rows) {
+                                final Map<String, Object> theEvent = new LinkedHashMap<>();
+                                for (int j = 0; j < allColumns.size(); j++) {
+                                  theEvent.put(allColumns.get(j), row[j]);
+                                }
+                                events.add(theEvent);
+                              }
+                              return events;
+                            }
+
                             List<Map<String, Object>> events = Lists.newArrayListWithCapacity(batchSize);
                             final long iterLimit = Math.min(limit, offset + batchSize);
                             for (; !cursor.isDone() && offset < iterLimit; cursor.advance(), offset++) {
@@ -228,6 +287,33 @@ public class ScanQueryEngine
                             return events;
                           }
 
+                          /**
+                           * Advances the cursor over the next batch, collecting only row numbers, and then reads the
+                           * requested columns for those rows one column at a time, in cursor order. That is ascending
+                           * row number order, or descending for descending scans.
+                           *
+                           * The cursor skips rows the filter rejects either way. What this adds is that no column is
+                           * read until the rows of the batch, cut off at the limit, are known, and that each column is
+                           * then read in one sweep over the batch rather than interleaved with the other columns.
+                           */
+                          private Object[][] materializeRows()
+                          {
+                            final long iterLimit = Math.min(limit, offset + batchSize);
+                            int numRows = 0;
+                            for (; !cursor.isDone() && offset < iterLimit; cursor.advance(), offset++) {
+                              rowNumbers[numRows++] = historicalCursor.getOffset().getOffset();
+                            }
+
+                            final Object[][] rows = new Object[numRows][allColumns.size()];
+                            for (int j = 0; j < allColumns.size(); j++) {
+                              for (int i = 0; i < numRows; i++) {
+                                materializationOffset.setCurrentOffset(rowNumbers[i]);
+                                rows[i][j] = getColumnValue(j);
+                              }
+                            }
+                            return rows;
+                          }
+
                           private Object getColumnValue(int i)
                           {
                             final BaseObjectColumnValueSelector selector = columnSelectors.get(i);
@@ -247,6 +333,7 @@ public class ScanQueryEngine
                       @Override
                       public void cleanup(Iterator<ScanResultValue> iterFromMake)
                       {
+                        CloseableUtils.closeAndWrapExceptions(closer);
                       }
                     }
             ))
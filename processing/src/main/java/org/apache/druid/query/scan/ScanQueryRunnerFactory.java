@@ -19,19 +19,25 @@
 
 package org.apache.druid.query.scan;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import org.apache.druid.collections.StableLimitingSorter;
+import org.apache.druid.guice.annotations.Smile;
+import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.JodaUtils;
 import org.apache.druid.java.util.common.Pair;
+import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.UOE;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.java.util.common.guava.Yielder;
 import org.apache.druid.java.util.common.guava.Yielders;
+import org.apache.druid.query.DruidProcessingConfig;
+import org.apache.druid.query.LimitedTemporaryStorage;
 import org.apache.druid.query.Query;
 import org.apache.druid.query.QueryContexts;
 import org.apache.druid.query.QueryPlus;
@@ -49,12 +55,15 @@ import org.apache.druid.query.spec.SpecificSegmentSpec;
 import org.apache.druid.segment.Segment;
 import org.joda.time.Interval;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class ScanQueryRunnerFactory implements QueryRunnerFactory<ScanResultValue, ScanQuery>
@@ -63,16 +72,35 @@ public class ScanQueryRunnerFactory implements QueryRunnerFactory<ScanResultValu
   private final ScanQueryEngine engine;
   private final ScanQueryConfig scanQueryConfig;
 
-  @Inject
+  // Used for spilling time-ordered results to disk. If null, spilling is disabled.
+  @Nullable
+  private final DruidProcessingConfig processingConfig;
+  @Nullable
+  private final ObjectMapper spillMapper;
+
   public ScanQueryRunnerFactory(
       ScanQueryQueryToolChest toolChest,
       ScanQueryEngine engine,
       ScanQueryConfig scanQueryConfig
   )
+  {
+    this(toolChest, engine, scanQueryConfig, null, null);
+  }
+
+  @Inject
+  public ScanQueryRunnerFactory(
+      ScanQueryQueryToolChest toolChest,
+      ScanQueryEngine engine,
+      ScanQueryConfig scanQueryConfig,
+      @Nullable DruidProcessingConfig processingConfig,
+      @Nullable @Smile ObjectMapper spillMapper
+  )
   {
     this.toolChest = toolChest;
     this.engine = engine;
     this.scanQueryConfig = scanQueryConfig;
+    this.processingConfig = processingConfig;
+    this.spillMapper = spillMapper;
   }
 
   @Override
@@ -173,28 +201,49 @@ public class ScanQueryRunnerFactory implements QueryRunnerFactory<ScanResultValu
           int maxSegmentPartitionsOrderedInMemory = query.getMaxSegmentPartitionsOrderedInMemory() == null
                                       ? scanQueryConfig.getMaxSegmentPartitionsOrderedInMemory()
                                       : query.getMaxSegmentPartitionsOrderedInMemory();
-          if (maxNumPartitionsInSegment <= maxSegmentPartitionsOrderedInMemory) {
-            // Use n-way merge strategy
 
-            // Create a list of grouped runner lists (i.e. each sublist/"runner group" corresponds to an interval) ->
-            // there should be no interval overlap.  We create a list of lists so we can create a sequence of sequences.
-            // There's no easy way to convert a LinkedHashMap to a sequence because it's non-iterable.
-            List<List<QueryRunner<ScanResultValue>>> groupedRunners =
-                partitionsGroupedByInterval.entrySet()
-                                           .stream()
-                                           .map(entry -> entry.getValue()
-                                                              .stream()
-                                                              .map(segQueryRunnerPair -> segQueryRunnerPair.rhs)
-                                                              .collect(Collectors.toList()))
-                                           .collect(Collectors.toList());
+          // Create a list of grouped runner lists (i.e. each sublist/"runner group" corresponds to an interval) ->
+          // there should be no interval overlap.  We create a list of lists so we can create a sequence of sequences.
+          // There's no easy way to convert a LinkedHashMap to a sequence because it's non-iterable.
+          List<List<QueryRunner<ScanResultValue>>> groupedRunners =
+              partitionsGroupedByInterval.entrySet()
+                                         .stream()
+                                         .map(entry -> entry.getValue()
+                                                            .stream()
+                                                            .map(segQueryRunnerPair -> segQueryRunnerPair.rhs)
+                                                            .collect(Collectors.toList()))
+                                         .collect(Collectors.toList());
 
+          if (maxNumPartitionsInSegment <= maxSegmentPartitionsOrderedInMemory) {
+            // Use n-way merge strategy
             return nWayMergeAndLimit(groupedRunners, queryPlus, responseContext);
           }
+
+          final long maxOnDiskStorage = getMaxOnDiskStorage(query);
+          if (maxOnDiskStorage > 0) {
+            // Use n-way merge strategy, spilling sorted runs of partitions to disk. Each merge reads from at most
+            // maxSegmentPartitionsOrderedInMemory inputs, so it must be at least 2 for the merges to make progress.
+            if (maxSegmentPartitionsOrderedInMemory < 2) {
+              throw new IAE(
+                  "maxSegmentPartitionsOrderedInMemory must be at least 2 when spilling to disk, but was [%d]",
+                  maxSegmentPartitionsOrderedInMemory
+              );
+            }
+            return spillingMergeAndLimit(
+                groupedRunners,
+                queryPlus,
+                responseContext,
+                maxSegmentPartitionsOrderedInMemory,
+                maxOnDiskStorage
+            );
+          }
+
           throw ResourceLimitExceededException.withMessage(
               "Time ordering is not supported for a Scan query with %,d segments per time chunk and a row limit of %,d. "
               + "Try reducing your query limit below maxRowsQueuedForOrdering (currently %,d), or using compaction to "
               + "reduce the number of segments per time chunk, or raising maxSegmentPartitionsOrderedInMemory "
-              + "(currently %,d) above the number of segments you have per time chunk.",
+              + "(currently %,d) above the number of segments you have per time chunk, or setting maxOnDiskStorage "
+              + "to allow spilling to disk.",
               maxNumPartitionsInSegment,
               query.getScanRowsLimit(),
               maxRowsQueuedForOrdering,
@@ -322,12 +371,7 @@ public class ScanQueryRunnerFactory implements QueryRunnerFactory<ScanResultValu
                 runnerGroup ->
                     Sequences.map(
                         Sequences.simple(runnerGroup),
-                        (input) -> Sequences.concat(
-                            Sequences.map(
-                                input.run(queryPlus, responseContext),
-                                srv -> Sequences.simple(srv.toSingleEventScanResultValues())
-                            )
-                        )
+                        (input) -> runSingleEvents(input, queryPlus, responseContext)
                     ).flatMerge(
                         seq -> seq,
                         queryPlus.getQuery().getResultOrdering()
@@ -341,6 +385,86 @@ public class ScanQueryRunnerFactory implements QueryRunnerFactory<ScanResultValu
     return resultSequence.limit(limit);
   }
 
+  /**
+   * Like {@link #nWayMergeAndLimit}, but merges no more than "fanIn" runners at once. Groups with more runners than
+   * that are merged with a {@link ScanQuerySpillingMerger}, using up to "maxOnDiskStorage" bytes of temporary storage.
+   * "fanIn" must be at least 2.
+   */
+  @VisibleForTesting
+  Sequence<ScanResultValue> spillingMergeAndLimit(
+      List<List<QueryRunner<ScanResultValue>>> groupedRunners,
+      QueryPlus<ScanResultValue> queryPlus,
+      ResponseContext responseContext,
+      int fanIn,
+      long maxOnDiskStorage
+  )
+  {
+    final ScanQuery query = (ScanQuery) queryPlus.getQuery();
+    final long limit = query.getScanRowsLimit();
+    final LimitedTemporaryStorage temporaryStorage = new LimitedTemporaryStorage(
+        new File(processingConfig.getTmpDir(), StringUtils.format("druid-scan-%s_%s", UUID.randomUUID(), query.getId())),
+        maxOnDiskStorage
+    );
+    final ScanQuerySpillingMerger merger = new ScanQuerySpillingMerger(
+        spillMapper,
+        temporaryStorage,
+        query.getResultOrdering(),
+        fanIn,
+        limit
+    );
+
+    Sequence<ScanResultValue> resultSequence =
+        Sequences.concat(
+            Sequences.map(
+                Sequences.simple(groupedRunners),
+                runnerGroup -> merger.merge(
+                    runnerGroup.stream()
+                               .map(input -> runSingleEvents(input, queryPlus, responseContext))
+                               .collect(Collectors.toList())
+                )
+            )
+        );
+    if (limit != Long.MAX_VALUE) {
+      resultSequence = resultSequence.limit(limit);
+    }
+    return Sequences.withBaggage(resultSequence, temporaryStorage);
+  }
+
+  /**
+   * Runs a query runner, deaggregating each {@link ScanResultValue} it returns into single-event values.
+   */
+  private static Sequence<ScanResultValue> runSingleEvents(
+      QueryRunner<ScanResultValue> runner,
+      QueryPlus<ScanResultValue> queryPlus,
+      ResponseContext responseContext
+  )
+  {
+    return Sequences.concat(
+        Sequences.map(
+            runner.run(queryPlus, responseContext),
+            srv -> Sequences.simple(srv.toSingleEventScanResultValues())
+        )
+    );
+  }
+
+  private long getMaxOnDiskStorage(ScanQuery query)
+  {
+    if (processingConfig == null || spillMapper == null) {
+      return 0;
+    }
+
+    // Queries can lower the limit, but not raise it.
+    return Math.min(
+        query.getQueryContext()
+             .getAsHumanReadableBytes(
+                 ScanQueryConfig.CTX_KEY_MAX_ON_DISK_STORAGE,
+                 scanQueryConfig.getMaxOnDiskStorage()
+             )
+             .getBytes(),
+        scanQueryConfig.getMaxOnDiskStorage().getBytes()
+    );
+  }
+
   @Override
   public QueryToolChest<ScanResultValue, ScanQuery> getToolchest()
   {
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.scan;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.guava.BaseSequence;
+import org.apache.druid.java.util.common.guava.LazySequence;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.java.util.common.jackson.JacksonUtils;
+import org.apache.druid.query.BaseQuery;
+import org.apache.druid.query.LimitedTemporaryStorage;
+import org.apache.druid.query.ResourceLimitExceededException;
+import org.apache.druid.query.TemporaryStorageFullException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges time-ordered sequences of single-event {@link ScanResultValue}s, no more than "fanIn" at a time. If there are
+ * more sequences than that, they are merged in groups of "fanIn" into sorted runs written to temporary storage, which
+ * are then merged the same way until no more than "fanIn" remain. The last merge reads from those runs lazily.
+ *
+ * Since a run only needs to hold the first "limit" rows of its inputs, runs never grow larger than the query limit.
+ *
+ * Spilled rows are written with the same {@link ObjectMapper} used to send results to other servers, so values read
+ * back from disk are the same as they would be after the Broker deserializes them.
+ */
+class ScanQuerySpillingMerger
+{
+  private final ObjectMapper spillMapper;
+  private final LimitedTemporaryStorage temporaryStorage;
+  private final Ordering<ScanResultValue> ordering;
+  private final int fanIn;
+  private final long limit;
+
+  ScanQuerySpillingMerger(
+      final ObjectMapper spillMapper,
+      final LimitedTemporaryStorage temporaryStorage,
+      final Ordering<ScanResultValue> ordering,
+      final int fanIn,
+      final long limit
+  )
+  {
+    if (fanIn < 2) {
+      throw new IAE("fanIn[%s] must be at least 2", fanIn);
+    }
+
+    this.spillMapper = spillMapper;
+    this.temporaryStorage = temporaryStorage;
+    this.ordering = ordering;
+    this.fanIn = fanIn;
+    this.limit = limit;
+  }
+
+  /**
+   * Merge sequences that are each ordered by {@link #ordering}. The returned sequence does nothing until it is
+   * iterated. Runs it writes are deleted when the temporary storage is closed.
+   */
+  Sequence<ScanResultValue> merge(final List<Sequence<ScanResultValue>> sequences)
+  {
+    if (sequences.size() <= fanIn) {
+      return mergeInMemory(sequences);
+    }
+
+    return new LazySequence<>(() -> readRuns(spillGroups(sequences)));
+  }
+
+  /**
+   * Writes each group of "fanIn" sequences into one sorted run, then merges those runs until no more than "fanIn"
+   * remain.
+   */
+  private List<File> spillGroups(final List<Sequence<ScanResultValue>> sequences)
+  {
+    final List<File> runs = new ArrayList<>();
+    for (List<Sequence<ScanResultValue>> group : Lists.partition(sequences, fanIn)) {
+      runs.add(spill(mergeInMemory(group)));
+    }
+
+    while (runs.size() > fanIn) {
+      final List<File> runsToMerge = new ArrayList<>(runs.subList(0, fanIn));
+      final File mergedRun = spill(readRuns(runsToMerge));
+
+      for (File run : runsToMerge) {
+        temporaryStorage.delete(run);
+      }
+
+      runs.subList(0, fanIn).clear();
+      runs.add(mergedRun);
+    }
+
+    return runs;
+  }
+
+  private Sequence<ScanResultValue> mergeInMemory(final List<Sequence<ScanResultValue>> sequences)
+  {
+    return Sequences.simple(sequences).flatMerge(seq -> seq, ordering);
+  }
+
+  private Sequence<ScanResultValue> readRuns(final List<File> runs)
+  {
+    final List<Sequence<ScanResultValue>> sequences = new ArrayList<>(runs.size());
+    for (File run : runs) {
+      sequences.add(read(run));
+    }
+    return mergeInMemory(sequences);
+  }
+
+  private File spill(final Sequence<ScanResultValue> sequence)
+  {
+    try (
+        final LimitedTemporaryStorage.LimitedOutputStream out = temporaryStorage.createFile();
+        final LZ4BlockOutputStream compressedOut = new LZ4BlockOutputStream(out);
+        final JsonGenerator jsonGenerator = spillMapper.getFactory().createGenerator(compressedOut)
+    ) {
+      final SerializerProvider serializers = spillMapper.getSerializerProviderInstance();
+      final Sequence<ScanResultValue> limited = limit == Long.MAX_VALUE ? sequence : sequence.limit(limit);
+
+      limited.accumulate(
+          null,
+          (accumulated, value) -> {
+            BaseQuery.checkInterrupted();
+            try {
+              JacksonUtils.writeObjectUsingSerializerProvider(jsonGenerator, serializers, value);
+            }
+            catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            return null;
+          }
+      );
+
+      return out.getFile();
+    }
+    catch (TemporaryStorageFullException e) {
+      throw storageFull();
+    }
+    catch (UncheckedIOException e) {
+      if (e.getCause() instanceof TemporaryStorageFullException) {
+        throw storageFull();
+      }
+      throw e;
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private ResourceLimitExceededException storageFull()
+  {
+    return ResourceLimitExceededException.withMessage(
+        "Not enough disk space to time-order Scan query results. Try raising maxOnDiskStorage (currently %,d bytes).",
+        temporaryStorage.maxSize()
+    );
+  }
+
+  private Sequence<ScanResultValue> read(final File run)
+  {
+    return new BaseSequence<>(
+        new BaseSequence.IteratorMaker<ScanResultValue, MappingIterator<ScanResultValue>>()
+        {
+          @Override
+          public MappingIterator<ScanResultValue> make()
+          {
+            try {
+              return spillMapper.readValues(
+                  spillMapper.getFactory().createParser(new LZ4BlockInputStream(new FileInputStream(run))),
+                  ScanResultValue.class
+              );
+            }
+            catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          }
+
+          @Override
+          public void cleanup(MappingIterator<ScanResultValue> iterFromMake)
+          {
+            try {
+              iterFromMake.close();
+            }
+            catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          }
+        }
+    );
+  }
+}
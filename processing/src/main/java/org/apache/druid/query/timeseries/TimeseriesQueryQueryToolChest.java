@@ -56,6 +56,7 @@ import org.apache.druid.segment.column.ColumnType;
 import org.apache.druid.segment.column.RowSignature;
 import org.joda.time.DateTime;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -306,6 +307,17 @@ public class TimeseriesQueryQueryToolChest extends QueryToolChest<Result<Timeser
         return builder.build();
       }
 
+      @Nullable
+      @Override
+      public Function<Result<TimeseriesResultValue>, DateTime> getTimeBucketFn(TimeseriesQuery query)
+      {
+        // The limit is applied to all buckets together, even on data servers.
+        if (query.getGranularity().equals(Granularities.ALL) || query.getLimit() < Integer.MAX_VALUE) {
+          return null;
+        }
+        return Result::getTimestamp;
+      }
+
       @Override
       public TypeReference<Object> getCacheObjectClazz()
       {
@@ -0,0 +1,493 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.topn;
+
+import org.apache.druid.collections.NonBlockingPool;
+import org.apache.druid.collections.ResourceHolder;
+import org.apache.druid.query.ColumnSelectorPlus;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.aggregation.DoubleSumAggregatorFactory;
+import org.apache.druid.query.aggregation.FloatSumAggregatorFactory;
+import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
+import org.apache.druid.query.topn.types.TopNColumnAggregatesProcessor;
+import org.apache.druid.segment.ColumnValueSelector;
+import org.apache.druid.segment.Cursor;
+import org.apache.druid.segment.DimensionSelector;
+import org.apache.druid.segment.StorageAdapter;
+import org.apache.druid.segment.data.IndexedInts;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * This {@link TopNAlgorithm} is tailored to very high cardinality dimensions, where {@link PooledTopNAlgorithm} would
+ * need many passes over the cursor because the aggregates of all dictionary ids do not fit in one buffer.
+ *
+ * It first scans the cursor once, adding the topN metric of each row to a count-min sketch keyed by dictionary id.
+ * The sketch overestimates the metric of every id, so the ids with the highest estimates are good candidates. Next,
+ * the {@link PooledTopNAlgorithm} aggregates exactly, but only for those candidates. The smallest metric in the
+ * resulting top 'n' is a lower bound for the real top 'n', so any other id whose estimate reaches that bound is
+ * aggregated in a final pass. This makes the result the same as that of {@link PooledTopNAlgorithm}.
+ *
+ * Since the sketch must only overestimate, this only handles queries ordered descending by a count, or by a sum of
+ * values that turn out to be non-negative. For anything else, or if a negative value is found while building the
+ * sketch, it falls back to {@link PooledTopNAlgorithm}.
+ *
+ * The sketch and the exact aggregation share one buffer from the pool, so that this algorithm never holds more buffers
+ * at a time than {@link PooledTopNAlgorithm} does.
+ */
+public class SketchPrefilteredTopNAlgorithm implements TopNAlgorithm<int[], TopNParams>
+{
+  public static final String CTX_KEY_SKETCH_PREFILTER = "doSketchPrefilteredTopN";
+
+  private static final int SKETCH_DEPTH = 4;
+
+  // Number of ids, as a multiple of the threshold, aggregated exactly after the sketch pass.
+  private static final int CANDIDATES_PER_THRESHOLD = 2;
+
+  // Largest relative rounding error of a single float or double addition.
+  private static final double FLOAT_UNIT_ROUNDOFF = Math.ulp(1.0f) / 2;
+  private static final double DOUBLE_UNIT_ROUNDOFF = Math.ulp(1.0) / 2;
+
+  private final StorageAdapter storageAdapter;
+  private final TopNQuery query;
+  private final NonBlockingPool<ByteBuffer> bufferPool;
+
+  public SketchPrefilteredTopNAlgorithm(
+      StorageAdapter storageAdapter,
+      TopNQuery query,
+      NonBlockingPool<ByteBuffer> bufferPool
+  )
+  {
+    this.storageAdapter = storageAdapter;
+    this.query = query;
+    this.bufferPool = bufferPool;
+  }
+
+  /**
+   * Whether this algorithm can handle the given query, based on its ordering.
+   */
+  public static boolean canHandle(final TopNQuery query)
+  {
+    return findMetricFactory(query) != null;
+  }
+
+  @Override
+  public TopNParams makeInitParams(ColumnSelectorPlus<TopNColumnAggregatesProcessor> selectorPlus, Cursor cursor)
+  {
+    return new TopNParams(selectorPlus, cursor, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public void run(
+      TopNParams params,
+      TopNResultBuilder resultBuilder,
+      int[] ints,
+      @Nullable TopNQueryMetrics queryMetrics
+  )
+  {
+    final int cardinality = params.getCardinality();
+    if (cardinality < 0) {
+      throw new UnsupportedOperationException("Cannot operate on a dimension with unknown cardinality");
+    }
+
+    final AggregatorFactory metricFactory = findMetricFactory(query);
+    final int threshold = query.getThreshold();
+    final int numCandidates = (int) Math.min(cardinality, (long) Math.max(threshold, 1) * CANDIDATES_PER_THRESHOLD);
+
+    if (metricFactory == null || numCandidates >= cardinality) {
+      runPooled(params, resultBuilder, null, bufferPool, queryMetrics);
+      return;
+    }
+
+    try (final ResourceHolder<ByteBuffer> bufferHolder = bufferPool.take()) {
+      final ByteBuffer buffer = bufferHolder.get();
+      buffer.clear();
+
+      // The first half of the buffer holds the sketch while the second half aggregates the candidates.
+      final int sketchBytes = buffer.capacity() / 2;
+      final CountMinSketch sketch = new CountMinSketch(slice(buffer, 0, sketchBytes));
+      final long numRows = buildSketch(params, metricFactory, sketch);
+      if (numRows < 0) {
+        runPooled(params, resultBuilder, null, singleBufferPool(buffer), queryMetrics);
+        return;
+      }
+
+      final int[] candidates = sketch.selectTop(cardinality, numCandidates);
+
+      // Aggregate the most likely ids exactly.
+      runPooled(
+          params,
+          resultBuilder,
+          candidates,
+          singleBufferPool(slice(buffer, sketchBytes, buffer.capacity())),
+          queryMetrics
+      );
+
+      final double lowerBound = getThresholdLowerBound(
+          resultBuilder,
+          threshold,
+          getRelativeErrorBound(metricFactory, numRows)
+      );
+      final int[] others = sketch.selectAtLeast(cardinality, candidates, lowerBound);
+
+      if (others != null) {
+        // Any id not yet aggregated whose estimate reaches the lower bound might still belong in the top 'n'. The
+        // sketch is not needed anymore, so this pass can use the whole buffer.
+        runPooled(params, resultBuilder, others, singleBufferPool(buffer), null);
+      }
+    }
+  }
+
+  @Override
+  public void cleanup(TopNParams params)
+  {
+  }
+
+  private void runPooled(
+      final TopNParams params,
+      final TopNResultBuilder resultBuilder,
+      @Nullable final int[] dimValSelector,
+      final NonBlockingPool<ByteBuffer> pool,
+      @Nullable final TopNQueryMetrics queryMetrics
+  )
+  {
+    final PooledTopNAlgorithm pooledAlgo = new PooledTopNAlgorithm(storageAdapter, query, pool);
+    PooledTopNAlgorithm.PooledTopNParams pooledParams = null;
+    try {
+      pooledParams = pooledAlgo.makeInitParams(params.getSelectorPlus(), params.getCursor());
+      pooledAlgo.run(pooledParams, resultBuilder, dimValSelector, queryMetrics);
+    }
+    finally {
+      pooledAlgo.cleanup(pooledParams);
+    }
+  }
+
+  /**
+   * A pool that always hands out the given buffer, for {@link PooledTopNAlgorithm} to use a buffer this algorithm
+   * already holds. Closing the holder does not release the buffer.
+   */
+  private static NonBlockingPool<ByteBuffer> singleBufferPool(final ByteBuffer buffer)
+  {
+    return () -> new ResourceHolder<ByteBuffer>()
+    {
+      @Override
+      public ByteBuffer get()
+      {
+        return buffer;
+      }
+
+      @Override
+      public void close()
+      {
+        // The buffer is released by the caller of singleBufferPool.
+      }
+    };
+  }
+
+  private static ByteBuffer slice(final ByteBuffer buffer, final int start, final int end)
+  {
+    final ByteBuffer duplicate = buffer.duplicate();
+    duplicate.position(start).limit(end);
+    return duplicate.slice();
+  }
+
+  /**
+   * Scans the cursor once, adding the topN metric of each row to the sketch. Resets the cursor afterwards.
+   *
+   * @return number of rows scanned, or -1 if a negative or non-finite value was found, in which case the sketch is
+   * unusable
+   */
+  private static long buildSketch(
+      final TopNParams params,
+      final AggregatorFactory metricFactory,
+      final CountMinSketch sketch
+  )
+  {
+    final Cursor cursor = params.getCursor();
+    final DimensionSelector dimSelector = params.getDimSelector();
+    final String fieldName = getFieldName(metricFactory);
+    final ColumnValueSelector<?> valueSelector =
+        fieldName == null ? null : cursor.getColumnSelectorFactory().makeColumnValueSelector(fieldName);
+
+    try {
+      long numRows = 0;
+      while (!cursor.isDone()) {
+        final double value;
+        if (valueSelector == null) {
+          value = 1;
+        } else if (valueSelector.isNull()) {
+          value = 0;
+        } else {
+          value = valueSelector.getDouble();
+        }
+
+        if (!(value >= 0) || Double.isInfinite(value)) {
+          return -1;
+        }
+
+        final IndexedInts row = dimSelector.getRow();
+        for (int i = 0, rowSize = row.size(); i < rowSize; i++) {
+          sketch.add(row.get(i), value);
+        }
+
+        cursor.advance();
+        numRows++;
+      }
+      return numRows;
+    }
+    finally {
+      cursor.reset();
+    }
+  }
+
+  /**
+   * Bound on the relative rounding error of the sums of the topN metric, over at most "numRows" rows, computed by the
+   * sketch (in doubles) and by the metric's aggregator. For sums of n non-negative values, the rounding error is at
+   * most n * u / (1 - n * u) times the exact sum, where u is the unit roundoff of the type being summed in.
+   */
+  private static double getRelativeErrorBound(final AggregatorFactory metricFactory, final long numRows)
+  {
+    final double aggregatorUnitRoundoff =
+        metricFactory instanceof FloatSumAggregatorFactory ? FLOAT_UNIT_ROUNDOFF : DOUBLE_UNIT_ROUNDOFF;
+    return getSumErrorBound(numRows, aggregatorUnitRoundoff) + getSumErrorBound(numRows, DOUBLE_UNIT_ROUNDOFF);
+  }
+
+  private static double getSumErrorBound(final long numValues, final double unitRoundoff)
+  {
+    final double nu = numValues * unitRoundoff;
+    return nu < 1 ? nu / (1 - nu) : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Returns the smallest topN metric in the result builder, lowered by the given relative error bound, if it already
+   * holds 'threshold' values. Otherwise, any id could still make it into the result, so this returns negative infinity.
+   */
+  private static double getThresholdLowerBound(
+      final TopNResultBuilder resultBuilder,
+      final int threshold,
+      final double relativeErrorBound
+  )
+  {
+    int count = 0;
+    double min = Double.POSITIVE_INFINITY;
+
+    final Iterator<DimValHolder> it = resultBuilder.getTopNIterator();
+    while (it.hasNext()) {
+      final Object metricVal = it.next().getTopNMetricVal();
+      if (!(metricVal instanceof Number)) {
+        return Double.NEGATIVE_INFINITY;
+      }
+      min = Math.min(min, ((Number) metricVal).doubleValue());
+      count++;
+    }
+
+    if (count < threshold || relativeErrorBound >= 1) {
+      return Double.NEGATIVE_INFINITY;
+    }
+
+    // Metrics are sums of non-negative values, so "min" is non-negative.
+    return min * (1 - relativeErrorBound);
+  }
+
+  @Nullable
+  private static AggregatorFactory findMetricFactory(final TopNQuery query)
+  {
+    // Only descending numeric ordering; InvertedTopNMetricSpec and the dimension orderings are separate classes.
+    if (!(query.getTopNMetricSpec() instanceof NumericTopNMetricSpec)) {
+      return null;
+    }
+
+    final String metric = ((NumericTopNMetricSpec) query.getTopNMetricSpec()).getMetric();
+    for (AggregatorFactory factory : query.getAggregatorSpecs()) {
+      if (factory.getName().equals(metric)) {
+        if (factory instanceof CountAggregatorFactory) {
+          return factory;
+        } else if (getFieldName(factory) != null) {
+          return factory;
+        } else {
+          return null;
+        }
+      }
+    }
+
+    // Ordered by a post-aggregator.
+    return null;
+  }
+
+  @Nullable
+  private static String getFieldName(final AggregatorFactory factory)
+  {
+    if (factory instanceof LongSumAggregatorFactory && ((LongSumAggregatorFactory) factory).getExpression() == null) {
+      return ((LongSumAggregatorFactory) factory).getFieldName();
+    } else if (factory instanceof DoubleSumAggregatorFactory
+               && ((DoubleSumAggregatorFactory) factory).getExpression() == null) {
+      return ((DoubleSumAggregatorFactory) factory).getFieldName();
+    } else if (factory instanceof FloatSumAggregatorFactory
+               && ((FloatSumAggregatorFactory) factory).getExpression() == null) {
+      return ((FloatSumAggregatorFactory) factory).getFieldName();
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Count-min sketch of dictionary id to metric value, stored in a {@link ByteBuffer} as {@link #SKETCH_DEPTH} rows of
+   * doubles. Estimates are never lower than the real sum of the values added for an id.
+   */
+  private static class CountMinSketch
+  {
+    private final ByteBuffer buffer;
+    private final int width;
+    private final int widthMask;
+
+    CountMinSketch(final ByteBuffer buffer)
+    {
+      this.buffer = buffer;
+      this.width = Integer.highestOneBit(buffer.capacity() / (SKETCH_DEPTH * Double.BYTES));
+      this.widthMask = width - 1;
+
+      for (int i = 0; i < SKETCH_DEPTH * width; i++) {
+        buffer.putDouble(i * Double.BYTES, 0);
+      }
+    }
+
+    void add(final int id, final double value)
+    {
+      for (int row = 0; row < SKETCH_DEPTH; row++) {
+        final int position = position(row, id);
+        buffer.putDouble(position, buffer.getDouble(position) + value);
+      }
+    }
+
+    double estimate(final int id)
+    {
+      double estimate = Double.POSITIVE_INFINITY;
+      for (int row = 0; row < SKETCH_DEPTH; row++) {
+        estimate = Math.min(estimate, buffer.getDouble(position(row, id)));
+      }
+      return estimate;
+    }
+
+    /**
+     * Returns a dimValSelector that selects the "n" ids with the highest estimates.
+     */
+    int[] selectTop(final int cardinality, final int n)
+    {
+      // Min-heap of the best ids seen so far, ordered by estimate.
+      final int[] heapIds = new int[n];
+      final double[] heapEstimates = new double[n];
+      int heapSize = 0;
+
+      for (int id = 0; id < cardinality; id++) {
+        final double estimate = estimate(id);
+        if (heapSize < n) {
+          heapIds[heapSize] = id;
+          heapEstimates[heapSize] = estimate;
+          siftUp(heapIds, heapEstimates, heapSize++);
+        } else if (estimate > heapEstimates[0]) {
+          heapIds[0] = id;
+          heapEstimates[0] = estimate;
+          siftDown(heapIds, heapEstimates, heapSize);
+        }
+      }
+
+      final int[] dimValSelector = new int[cardinality];
+      Arrays.fill(dimValSelector, SKIP_POSITION_VALUE);
+      for (int i = 0; i < heapSize; i++) {
+        dimValSelector[heapIds[i]] = INIT_POSITION_VALUE;
+      }
+      return dimValSelector;
+    }
+
+    /**
+     * Returns a dimValSelector that selects ids not selected by "exclude" whose estimates are at least "lowerBound",
+     * or null if there are no such ids.
+     */
+    @Nullable
+    int[] selectAtLeast(final int cardinality, final int[] exclude, final double lowerBound)
+    {
+      final int[] dimValSelector = new int[cardinality];
+      boolean any = false;
+      for (int id = 0; id < cardinality; id++) {
+        if (exclude[id] == SKIP_POSITION_VALUE && estimate(id) >= lowerBound) {
+          dimValSelector[id] = INIT_POSITION_VALUE;
+          any = true;
+        } else {
+          dimValSelector[id] = SKIP_POSITION_VALUE;
+        }
+      }
+      return any ? dimValSelector : null;
+    }
+
+    private int position(final int row, final int id)
+    {
+      int h = id * 0x9E3779B1 + row * 0x85EBCA6B;
+      h ^= h >>> 16;
+      h *= 0x85EBCA6B;
+      h ^= h >>> 13;
+      return (row * width + (h & widthMask)) * Double.BYTES;
+    }
+
+    private static void siftUp(final int[] ids, final double[] estimates, int i)
+    {
+      while (i > 0) {
+        final int parent = (i - 1) >>> 1;
+        if (estimates[parent] <= estimates[i]) {
+          break;
+        }
+        swap(ids, estimates, i, parent);
+        i = parent;
+      }
+    }
+
+    private static void siftDown(final int[] ids, final double[] estimates, final int size)
+    {
+      int i = 0;
+      while (true) {
+        final int left = 2 * i + 1;
+        if (left >= size) {
+          break;
+        }
+        final int right = left + 1;
+        final int smallest = right < size && estimates[right] < estimates[left] ? right : left;
+        if (estimates[i] <= estimates[smallest]) {
+          break;
+        }
+        swap(ids, estimates, i, smallest);
+        i = smallest;
+      }
+    }
+
+    private static void swap(final int[] ids, final double[] estimates, final int i, final int j)
+    {
+      final int tmpId = ids[i];
+      ids[i] = ids[j];
+      ids[j] = tmpId;
+
+      final double tmpEstimate = estimates[i];
+      estimates[i] = estimates[j];
+      estimates[j] = tmpEstimate;
+    }
+  }
+}
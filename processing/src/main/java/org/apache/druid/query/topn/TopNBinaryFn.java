@@ -19,6 +19,7 @@
 
 package org.apache.druid.query.topn;
 
+import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.granularity.AllGranularity;
 import org.apache.druid.java.util.common.granularity.Granularity;
 import org.apache.druid.query.Result;
@@ -29,6 +30,8 @@ import org.apache.druid.query.dimension.DimensionSpec;
 import org.apache.druid.utils.CollectionUtils;
 import org.joda.time.DateTime;
 
+import javax.annotation.Nullable;
+import java.util.AbstractList;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -82,38 +85,6 @@ public class TopNBinaryFn implements BinaryOperator<Result<TopNResultValue>>
       return arg1;
     }
 
-    Map<Object, DimensionAndMetricValueExtractor> retVals = new LinkedHashMap<>();
-
-    TopNResultValue arg1Vals = arg1.getValue();
-    TopNResultValue arg2Vals = arg2.getValue();
-
-    for (DimensionAndMetricValueExtractor arg1Val : arg1Vals) {
-      retVals.put(arg1Val.getDimensionValue(dimension), arg1Val);
-    }
-    for (DimensionAndMetricValueExtractor arg2Val : arg2Vals) {
-      final Object dimensionValue = arg2Val.getDimensionValue(dimension);
-      DimensionAndMetricValueExtractor arg1Val = retVals.get(dimensionValue);
-
-      if (arg1Val != null) {
-        // size of map = aggregator + topNDim + postAgg (If sorting is done on post agg field)
-        Map<String, Object> retVal = CollectionUtils.newLinkedHashMapWithExpectedSize(aggregations.size() + 2);
-
-        retVal.put(dimension, dimensionValue);
-        for (AggregatorFactory factory : aggregations) {
-          final String metricName = factory.getName();
-          retVal.put(metricName, factory.combine(arg1Val.getMetric(metricName), arg2Val.getMetric(metricName)));
-        }
-
-        for (PostAggregator pf : postAggregations) {
-          retVal.put(pf.getName(), pf.compute(retVal));
-        }
-
-        retVals.put(dimensionValue, new DimensionAndMetricValueExtractor(retVal));
-      } else {
-        retVals.put(dimensionValue, arg2Val);
-      }
-    }
-
     final DateTime timestamp;
     if (gran instanceof AllGranularity) {
       timestamp = arg1.getTimestamp();
@@ -121,17 +92,200 @@ public class TopNBinaryFn implements BinaryOperator<Result<TopNResultValue>>
       timestamp = gran.bucketStart(arg1.getTimestamp());
     }
 
+    final MergedValues mergedValues = new MergedValues(this, timestamp, arg1.getValue(), arg2.getValue());
+    return new Result<>(timestamp, new TopNResultValue(mergedValues));
+  }
+
+  private DimensionAndMetricValueExtractor toExtractor(final Object dimensionValue, final Object[] metricValues)
+  {
+    // size of map = aggregator + topNDim + postAgg (If sorting is done on post agg field)
+    Map<String, Object> retVal = CollectionUtils.newLinkedHashMapWithExpectedSize(aggregations.size() + 2);
+
+    retVal.put(dimension, dimensionValue);
+    for (int i = 0; i < aggregations.size(); i++) {
+      retVal.put(aggregations.get(i).getName(), metricValues[i]);
+    }
+
+    for (PostAggregator pf : postAggregations) {
+      retVal.put(pf.getName(), pf.compute(retVal));
+    }
+
+    return new DimensionAndMetricValueExtractor(retVal);
+  }
+
+  private List<DimensionAndMetricValueExtractor> topN(
+      final DateTime timestamp,
+      final Map<Object, Object> values,
+      final int n
+  )
+  {
     TopNResultBuilder bob = topNMetricSpec.getResultBuilder(
         timestamp,
         dimSpec,
-        threshold,
+        n,
         comparator,
         aggregations,
         postAggregations
     );
-    for (DimensionAndMetricValueExtractor extractor : retVals.values()) {
-      bob.addEntry(extractor);
+    for (Map.Entry<Object, Object> entry : values.entrySet()) {
+      if (entry.getValue() instanceof DimensionAndMetricValueExtractor) {
+        bob.addEntry((DimensionAndMetricValueExtractor) entry.getValue());
+      } else {
+        bob.addEntry(toExtractor(entry.getKey(), (Object[]) entry.getValue()));
+      }
+    }
+    return bob.build().getValue().getValue();
+  }
+
+  /**
+   * Merged values of results, returned by {@link #apply}. Values are accumulated by dimension value, and only sorted
+   * and truncated to the threshold when they are read. Merging another MergedValues uses its accumulated values rather
+   * than its truncated view, so values just below the threshold of an intermediate result still count towards later
+   * merges, and the merged values do not depend on the order of the merges.
+   *
+   * Folding many results into one does not copy what has been accumulated so far: if an input of {@link #apply} is a
+   * MergedValues that has not been read yet, the new MergedValues takes over its accumulated values and combines the
+   * other input into them in place, and the taken over input can no longer be read. An input that has been read keeps
+   * its values, and is copied instead.
+   */
+  static class MergedValues extends AbstractList<DimensionAndMetricValueExtractor>
+  {
+    private final TopNBinaryFn fn;
+    private final DateTime timestamp;
+
+    // Dimension value -> either an input DimensionAndMetricValueExtractor, if the value has been seen once, or an array
+    // of combined aggregator values, if it has been seen more than once. Null once taken over by another MergedValues.
+    @Nullable
+    private Map<Object, Object> accumulated;
+
+    @Nullable
+    private List<DimensionAndMetricValueExtractor> materialized = null;
+
+    private MergedValues(
+        final TopNBinaryFn fn,
+        final DateTime timestamp,
+        final TopNResultValue values1,
+        final TopNResultValue values2
+    )
+    {
+      this.fn = fn;
+      this.timestamp = timestamp;
+
+      Map<Object, Object> taken = takeAccumulated(values1);
+      if (taken != null) {
+        accumulated = taken;
+        addAll(values2);
+      } else {
+        taken = takeAccumulated(values2);
+        if (taken != null) {
+          accumulated = taken;
+        } else {
+          accumulated = new LinkedHashMap<>();
+          addAll(values2);
+        }
+        addAll(values1);
+      }
+    }
+
+    /**
+     * Takes over the accumulated values of the given values, if they are a MergedValues of the same function that has
+     * not been read yet.
+     */
+    @Nullable
+    private Map<Object, Object> takeAccumulated(final TopNResultValue values)
+    {
+      final List<DimensionAndMetricValueExtractor> valueList = values.getValue();
+      if (valueList instanceof MergedValues && ((MergedValues) valueList).fn == fn) {
+        final MergedValues other = (MergedValues) valueList;
+        synchronized (other) {
+          if (other.materialized == null && other.accumulated != null) {
+            final Map<Object, Object> retVal = other.accumulated;
+            other.accumulated = null;
+            return retVal;
+          }
+        }
+      }
+      return null;
+    }
+
+    private void addAll(final TopNResultValue values)
+    {
+      final List<DimensionAndMetricValueExtractor> valueList = values.getValue();
+      if (valueList instanceof MergedValues && ((MergedValues) valueList).fn == fn) {
+        // Arrays are combined into in place, so the ones of the other MergedValues are copied rather than kept.
+        for (Map.Entry<Object, Object> entry : ((MergedValues) valueList).getAccumulated().entrySet()) {
+          final Object value = entry.getValue();
+          add(entry.getKey(), value instanceof Object[] ? ((Object[]) value).clone() : value);
+        }
+      } else {
+        for (DimensionAndMetricValueExtractor val : valueList) {
+          add(val.getDimensionValue(fn.dimension), val);
+        }
+      }
+    }
+
+    /**
+     * Adds either a {@link DimensionAndMetricValueExtractor}, or an array of aggregator values that this object may
+     * combine into in place.
+     */
+    private void add(final Object dimensionValue, final Object value)
+    {
+      final List<AggregatorFactory> aggregations = fn.aggregations;
+      final Object existing = accumulated.putIfAbsent(dimensionValue, value);
+      if (existing == null) {
+        return;
+      }
+
+      final Object[] metricValues;
+      if (existing instanceof DimensionAndMetricValueExtractor) {
+        metricValues = new Object[aggregations.size()];
+        for (int i = 0; i < metricValues.length; i++) {
+          metricValues[i] = getMetric((DimensionAndMetricValueExtractor) existing, i);
+        }
+        accumulated.put(dimensionValue, metricValues);
+      } else {
+        metricValues = (Object[]) existing;
+      }
+
+      for (int i = 0; i < metricValues.length; i++) {
+        final Object metricValue = value instanceof Object[]
+                                   ? ((Object[]) value)[i]
+                                   : getMetric((DimensionAndMetricValueExtractor) value, i);
+        metricValues[i] = aggregations.get(i).combine(metricValues[i], metricValue);
+      }
+    }
+
+    private Object getMetric(final DimensionAndMetricValueExtractor value, final int aggregatorIndex)
+    {
+      return value.getMetric(fn.aggregations.get(aggregatorIndex).getName());
+    }
+
+    private synchronized Map<Object, Object> getAccumulated()
+    {
+      if (accumulated == null) {
+        throw new ISE("Merged values have already been merged into another result");
+      }
+      return accumulated;
+    }
+
+    private synchronized List<DimensionAndMetricValueExtractor> materialize()
+    {
+      if (materialized == null) {
+        materialized = fn.topN(timestamp, getAccumulated(), fn.threshold);
+      }
+      return materialized;
+    }
+
+    @Override
+    public DimensionAndMetricValueExtractor get(final int index)
+    {
+      return materialize().get(index);
+    }
+
+    @Override
+    public int size()
+    {
+      return materialize().size();
     }
-    return bob.build();
   }
 }
@@ -25,6 +25,7 @@ import org.apache.druid.collections.NonBlockingPool;
 import org.apache.druid.java.util.common.granularity.Granularity;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.query.QueryContexts;
 import org.apache.druid.query.Result;
 import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.query.extraction.ExtractionFn;
@@ -75,7 +76,6 @@ public class TopNQueryEngine
     final List<Interval> queryIntervals = query.getQuerySegmentSpec().getIntervals();
     final Filter filter = Filters.convertToCNFFromQueryContext(query, Filters.toFilter(query.getDimensionsFilter()));
     final Granularity granularity = query.getGranularity();
-    final TopNMapFn mapFn = getMapFn(query, adapter, queryMetrics);
 
     Preconditions.checkArgument(
         queryIntervals.size() == 1,
@@ -83,6 +83,18 @@ public class TopNQueryEngine
         queryIntervals
     );
 
+    // TopN queries ignore the "vectorize" parameter, as they did before they could be vectorized, unless the vectorized
+    // engine is turned on.
+    final boolean doVectorize =
+        query.getContextBoolean(VectorTopNEngine.CTX_KEY_VECTORIZE_TOPN, false)
+        && QueryContexts.getVectorize(query).shouldVectorize(VectorTopNEngine.canVectorize(query, adapter, filter));
+
+    if (doVectorize) {
+      return VectorTopNEngine.process(query, adapter, filter, queryIntervals.get(0), bufferPool, queryMetrics);
+    }
+
+    final TopNMapFn mapFn = getMapFn(query, adapter, queryMetrics);
+
     return Sequences.filter(
         Sequences.map(
             adapter.makeCursors(
@@ -138,6 +150,11 @@ public class TopNQueryEngine
         // if sorted by dimension we should aggregate all metrics in a single pass, use the regular pooled algorithm for
         // this
         topNAlgorithm = new PooledTopNAlgorithm(adapter, query, bufferPool);
+      } else if (query.getContextBoolean(SketchPrefilteredTopNAlgorithm.CTX_KEY_SKETCH_PREFILTER, false)
+                 && SketchPrefilteredTopNAlgorithm.canHandle(query)) {
+        // for high cardinality dimensions ordered by a count or sum, estimate the metric of every value with a sketch
+        // first, and then aggregate exactly only for the values that could be in the first 'n'
+        topNAlgorithm = new SketchPrefilteredTopNAlgorithm(adapter, query, bufferPool);
       } else if (selector.isAggregateTopNMetricFirst() || query.getContextBoolean("doAggregateTopNMetricFirst", false)) {
         // for high cardinality dimensions with larger result sets we aggregate with only the ordering aggregation to
         // compute the first 'n' values, and then for the rest of the metrics but for only the 'n' values
@@ -169,9 +186,10 @@ public class TopNQueryEngine
   }
 
   /**
-   * {@link PooledTopNAlgorithm} (and {@link AggregateTopNMetricFirstAlgorithm} which utilizes the pooled
-   * algorithm) are optimized off-heap algorithms for aggregating dictionary encoded string columns. These algorithms
-   * rely on dictionary ids being unique so to aggregate on the dictionary ids directly and defer
+   * {@link PooledTopNAlgorithm} (and {@link AggregateTopNMetricFirstAlgorithm} and
+   * {@link SketchPrefilteredTopNAlgorithm} which utilize the pooled algorithm) are optimized off-heap algorithms for
+   * aggregating dictionary encoded string columns. These algorithms rely on dictionary ids being unique so to
+   * aggregate on the dictionary ids directly and defer
    * {@link org.apache.druid.segment.DimensionSelector#lookupName(int)} until as late as possible in query processing.
    *
    * When these conditions are not true, we have an on-heap fall-back algorithm, the {@link HeapBasedTopNAlgorithm}
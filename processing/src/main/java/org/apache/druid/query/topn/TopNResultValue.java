@@ -40,7 +40,21 @@ public class TopNResultValue implements Iterable<DimensionAndMetricValueExtracto
   @JsonCreator
   public TopNResultValue(List<?> value)
   {
-    this.value = (value == null) ? new ArrayList<>() : Lists.transform(
+    this.value = asExtractors(value);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<DimensionAndMetricValueExtractor> asExtractors(@Nullable List<?> value)
+  {
+    if (value == null) {
+      return new ArrayList<>();
+    }
+    // Merged values are kept as they are rather than behind a converting view, so that merging them again can use
+    // what they have accumulated, see TopNBinaryFn.MergedValues.
+    if (value instanceof TopNBinaryFn.MergedValues) {
+      return (List<DimensionAndMetricValueExtractor>) value;
+    }
+    return Lists.transform(
         value,
         new Function<Object, DimensionAndMetricValueExtractor>()
         {
@@ -0,0 +1,433 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.topn;
+
+import com.google.common.collect.Iterables;
+import org.apache.druid.collections.NonBlockingPool;
+import org.apache.druid.collections.ResourceHolder;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.granularity.Granularity;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.query.QueryContexts;
+import org.apache.druid.query.Result;
+import org.apache.druid.query.aggregation.AggregatorAdapters;
+import org.apache.druid.query.dimension.DimensionSpec;
+import org.apache.druid.query.filter.Filter;
+import org.apache.druid.query.vector.VectorCursorGranularizer;
+import org.apache.druid.segment.ColumnInspector;
+import org.apache.druid.segment.DimensionDictionarySelector;
+import org.apache.druid.segment.StorageAdapter;
+import org.apache.druid.segment.VirtualColumns;
+import org.apache.druid.segment.column.ColumnCapabilities;
+import org.apache.druid.segment.column.Types;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.VectorCursor;
+import org.apache.druid.utils.CloseableUtils;
+import org.joda.time.DateTime;
+import org.joda.time.Interval;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+
+/**
+ * Vectorized counterpart of {@link PooledTopNAlgorithm}. Reads dictionary ids of a single-valued, dictionary encoded
+ * string dimension in batches from a {@link VectorCursor}, and aggregates them with
+ * {@link org.apache.druid.query.aggregation.VectorAggregator}s into a buffer from the processing pool, at a fixed
+ * position per dictionary id.
+ *
+ * Like the pooled algorithm, if the aggregates of all dictionary ids do not fit in the buffer at once, the rows are
+ * scanned once per range of ids that does fit. Time buckets are still processed one at a time: with several buckets,
+ * each bucket is scanned with a cursor of its own, which is reset for each pass.
+ *
+ * The engine is only used if the {@link #CTX_KEY_VECTORIZE_TOPN} query context flag is set. The "vectorize" parameter
+ * then applies to topN queries like it does to other query types.
+ */
+public class VectorTopNEngine
+{
+  public static final String CTX_KEY_VECTORIZE_TOPN = "vectorizeTopN";
+
+  private VectorTopNEngine()
+  {
+    // No instantiation.
+  }
+
+  public static boolean canVectorize(
+      final TopNQuery query,
+      final StorageAdapter adapter,
+      @Nullable final Filter filter
+  )
+  {
+    if (query.getContextBoolean("doAggregateTopNMetricFirst", false)
+        || query.getContextBoolean(SketchPrefilteredTopNAlgorithm.CTX_KEY_SKETCH_PREFILTER, false)) {
+      // Specific non-vectorized algorithm requested.
+      return false;
+    }
+
+    final ColumnInspector inspector = query.getVirtualColumns().wrapInspector(adapter);
+
+    return adapter.canVectorize(filter, query.getVirtualColumns(), query.isDescending())
+           && canVectorizeDimension(query, adapter, inspector)
+           && VirtualColumns.shouldVectorize(query, query.getVirtualColumns(), adapter)
+           && query.getAggregatorSpecs()
+                   .stream()
+                   .allMatch(aggregatorFactory -> aggregatorFactory.canVectorize(inspector));
+  }
+
+  private static boolean canVectorizeDimension(
+      final TopNQuery query,
+      final StorageAdapter adapter,
+      final ColumnInspector inspector
+  )
+  {
+    final DimensionSpec dimensionSpec = query.getDimensionSpec();
+
+    // Extraction and lookup specs do not support vectorization, so canVectorize() also rules them out.
+    if (!dimensionSpec.canVectorize() || dimensionSpec.mustDecorate()) {
+      return false;
+    }
+
+    if (!dimensionSpec.getOutputType().is(ValueType.STRING)
+        || query.getVirtualColumns().exists(dimensionSpec.getDimension())) {
+      return false;
+    }
+
+    // Same requirements as the pooled algorithm, plus the column must be single valued.
+    final ColumnCapabilities capabilities = inspector.getColumnCapabilities(dimensionSpec.getDimension());
+    return Types.is(capabilities, ValueType.STRING)
+           && capabilities.isDictionaryEncoded().isTrue()
+           && capabilities.areDictionaryValuesUnique().isTrue()
+           && capabilities.hasMultipleValues().isFalse()
+           && adapter.getDimensionCardinality(dimensionSpec.getDimension())
+              != DimensionDictionarySelector.CARDINALITY_UNKNOWN;
+  }
+
+  /**
+   * Run a single-segment, single-interval topN query on a particular adapter. Must only be called if
+   * {@link #canVectorize} returns true. Time buckets are aggregated one at a time, as the returned sequence is read.
+   */
+  public static Sequence<Result<TopNResultValue>> process(
+      final TopNQuery query,
+      final StorageAdapter adapter,
+      @Nullable final Filter filter,
+      final Interval interval,
+      final NonBlockingPool<ByteBuffer> bufferPool,
+      @Nullable final TopNQueryMetrics queryMetrics
+  )
+  {
+    if (!canVectorize(query, adapter, filter)) {
+      throw new ISE("Cannot vectorize");
+    }
+
+    final Granularity granularity = query.getGranularity();
+    final VectorCursor cursor = adapter.makeVectorCursor(
+        filter,
+        interval,
+        query.getVirtualColumns(),
+        query.isDescending(),
+        QueryContexts.getVectorSize(query),
+        queryMetrics
+    );
+
+    if (cursor == null) {
+      return Sequences.empty();
+    }
+
+    final Closer closer = Closer.create();
+    closer.register(cursor);
+
+    try {
+      final VectorCursorGranularizer granularizer =
+          VectorCursorGranularizer.create(adapter, cursor, granularity, interval);
+
+      if (granularizer == null) {
+        return Sequences.withBaggage(Sequences.empty(), closer);
+      }
+
+      final SingleValueDimensionVectorSelector dimSelector =
+          cursor.getColumnSelectorFactory().makeSingleValueDimensionSelector(query.getDimensionSpec());
+      final AggregatorAdapters aggregators = closer.register(
+          AggregatorAdapters.factorizeVector(cursor.getColumnSelectorFactory(), query.getAggregatorSpecs())
+      );
+      final ResourceHolder<ByteBuffer> bufferHolder = closer.register(bufferPool.take());
+      final ByteBuffer buffer = bufferHolder.get();
+
+      final int cardinality = dimSelector.getValueCardinality();
+      final int numBytesPerRecord = aggregators.spaceNeeded();
+      final int numValuesPerPass =
+          numBytesPerRecord > 0 ? Math.min(cardinality, buffer.capacity() / numBytesPerRecord) : cardinality;
+
+      if (cardinality > 0 && numValuesPerPass <= 0) {
+        throw new ISE(
+            "Not enough space for aggregators, needed [%,d] bytes but have only [%,d].",
+            numBytesPerRecord,
+            buffer.capacity()
+        );
+      }
+
+      if (queryMetrics != null) {
+        queryMetrics.dimensionCardinality(cardinality);
+      }
+
+      final Iterable<Interval> buckets = granularizer.getBucketIterable();
+
+      if (numValuesPerPass < cardinality && Iterables.size(Iterables.limit(buckets, 2)) > 1) {
+        // Every pass has to read the rows of a bucket again, and the shared cursor can only be reset to the start of
+        // the first bucket, so each bucket gets a cursor of its own.
+        return Sequences.withBaggage(
+            Sequences.simple(buckets).map(
+                bucketInterval -> processBucketWithOwnCursor(
+                    query,
+                    adapter,
+                    filter,
+                    bucketInterval.overlap(interval),
+                    granularity.toDateTime(bucketInterval.getStartMillis()),
+                    buffer,
+                    cardinality,
+                    numValuesPerPass,
+                    queryMetrics
+                )
+            ),
+            closer
+        );
+      }
+
+      final PassAggregator passAggregator = new PassAggregator(
+          dimSelector,
+          aggregators,
+          buffer,
+          numValuesPerPass,
+          cursor.getMaxVectorSize()
+      );
+
+      return Sequences.withBaggage(
+          Sequences.simple(buckets).map(
+              bucketInterval -> {
+                final TopNResultBuilder resultBuilder = BaseTopNAlgorithm.makeResultBuilder(
+                    granularity.toDateTime(bucketInterval.getStartMillis()),
+                    query
+                );
+
+                for (int passStart = 0; passStart < cardinality; passStart += numValuesPerPass) {
+                  if (passStart > 0) {
+                    // Only happens if there is a single bucket, so it starts at the start of the cursor.
+                    cursor.reset();
+                  }
+
+                  passAggregator.startPass(passStart, Math.min(cardinality, passStart + numValuesPerPass));
+
+                  while (!cursor.isDone()) {
+                    granularizer.setCurrentOffsets(bucketInterval);
+
+                    if (granularizer.getEndOffset() > granularizer.getStartOffset()) {
+                      passAggregator.aggregate(granularizer.getStartOffset(), granularizer.getEndOffset());
+                    }
+
+                    if (!granularizer.advanceCursorWithinBucket()) {
+                      break;
+                    }
+                  }
+
+                  passAggregator.finishBucket(resultBuilder);
+                }
+
+                return resultBuilder.build();
+              }
+          ),
+          closer
+      );
+    }
+    catch (Throwable t1) {
+      try {
+        closer.close();
+      }
+      catch (Throwable t2) {
+        t1.addSuppressed(t2);
+      }
+      throw t1;
+    }
+  }
+
+  /**
+   * Aggregates one time bucket in as many passes as needed, with a cursor over just that bucket, which is reset for
+   * each pass.
+   */
+  private static Result<TopNResultValue> processBucketWithOwnCursor(
+      final TopNQuery query,
+      final StorageAdapter adapter,
+      @Nullable final Filter filter,
+      final Interval cursorInterval,
+      final DateTime bucketStart,
+      final ByteBuffer buffer,
+      final int cardinality,
+      final int numValuesPerPass,
+      @Nullable final TopNQueryMetrics queryMetrics
+  )
+  {
+    final TopNResultBuilder resultBuilder = BaseTopNAlgorithm.makeResultBuilder(bucketStart, query);
+    final VectorCursor cursor = adapter.makeVectorCursor(
+        filter,
+        cursorInterval,
+        query.getVirtualColumns(),
+        query.isDescending(),
+        QueryContexts.getVectorSize(query),
+        queryMetrics
+    );
+
+    if (cursor == null) {
+      return resultBuilder.build();
+    }
+
+    final Closer closer = Closer.create();
+    closer.register(cursor);
+
+    try {
+      final PassAggregator passAggregator = new PassAggregator(
+          cursor.getColumnSelectorFactory().makeSingleValueDimensionSelector(query.getDimensionSpec()),
+          closer.register(
+              AggregatorAdapters.factorizeVector(cursor.getColumnSelectorFactory(), query.getAggregatorSpecs())
+          ),
+          buffer,
+          numValuesPerPass,
+          cursor.getMaxVectorSize()
+      );
+
+      for (int passStart = 0; passStart < cardinality; passStart += numValuesPerPass) {
+        if (passStart > 0) {
+          cursor.reset();
+        }
+
+        passAggregator.startPass(passStart, Math.min(cardinality, passStart + numValuesPerPass));
+
+        while (!cursor.isDone()) {
+          passAggregator.aggregate(0, cursor.getCurrentVectorSize());
+          cursor.advance();
+        }
+
+        passAggregator.finishBucket(resultBuilder);
+      }
+    }
+    finally {
+      CloseableUtils.closeAndWrapExceptions(closer);
+    }
+
+    return resultBuilder.build();
+  }
+
+  /**
+   * Aggregates the rows of one time bucket, for the dictionary ids of the current pass, into the buffer. The
+   * aggregates of an id are at a fixed position relative to the start of the pass.
+   */
+  private static class PassAggregator
+  {
+    private final SingleValueDimensionVectorSelector dimSelector;
+    private final AggregatorAdapters aggregators;
+    private final ByteBuffer buffer;
+    private final int numBytesPerRecord;
+
+    // Whether the aggregates of each id of the current pass have been initialized in the current bucket.
+    private final boolean[] initialized;
+
+    // Reusable arrays for aggregateVector.
+    private final int[] vectorPositions;
+    private final int[] vectorRows;
+
+    private int passStart;
+    private int passEnd;
+
+    PassAggregator(
+        final SingleValueDimensionVectorSelector dimSelector,
+        final AggregatorAdapters aggregators,
+        final ByteBuffer buffer,
+        final int numValuesPerPass,
+        final int maxVectorSize
+    )
+    {
+      this.dimSelector = dimSelector;
+      this.aggregators = aggregators;
+      this.buffer = buffer;
+      this.numBytesPerRecord = aggregators.spaceNeeded();
+      this.initialized = new boolean[numValuesPerPass];
+      this.vectorPositions = new int[maxVectorSize];
+      this.vectorRows = new int[maxVectorSize];
+    }
+
+    void startPass(final int passStart, final int passEnd)
+    {
+      this.passStart = passStart;
+      this.passEnd = passEnd;
+    }
+
+    void aggregate(final int startOffset, final int endOffset)
+    {
+      final int[] ids = dimSelector.getRowVector();
+      int numRows = 0;
+
+      for (int row = startOffset; row < endOffset; row++) {
+        final int id = ids[row];
+
+        if (id >= passStart && id < passEnd) {
+          final int slot = id - passStart;
+          final int position = slot * numBytesPerRecord;
+
+          if (!initialized[slot]) {
+            aggregators.init(buffer, position);
+            initialized[slot] = true;
+          }
+
+          vectorPositions[numRows] = position;
+          vectorRows[numRows] = row;
+          numRows++;
+        }
+      }
+
+      if (numRows > 0) {
+        // Rows are only needed if some were skipped, or the bucket starts partway through the vector.
+        final boolean contiguous = startOffset == 0 && numRows == endOffset;
+        aggregators.aggregateVector(buffer, numRows, vectorPositions, contiguous ? null : vectorRows);
+      }
+    }
+
+    /**
+     * Adds the aggregates of every id seen in the current bucket to the result builder, and clears them for the next
+     * bucket.
+     */
+    void finishBucket(final TopNResultBuilder resultBuilder)
+    {
+      final int numAggregators = aggregators.size();
+
+      for (int slot = 0; slot < passEnd - passStart; slot++) {
+        if (initialized[slot]) {
+          final int position = slot * numBytesPerRecord;
+          final Object[] vals = new Object[numAggregators];
+          for (int j = 0; j < numAggregators; j++) {
+            vals[j] = aggregators.get(buffer, position, j);
+          }
+
+          final int id = passStart + slot;
+          resultBuilder.addEntry(dimSelector.lookupName(id), id, vals);
+          initialized[slot] = false;
+        }
+      }
+    }
+  }
+}
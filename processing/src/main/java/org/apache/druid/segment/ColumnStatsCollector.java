@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment;
+
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.hll.HyperLogLogCollector;
+import org.apache.druid.query.aggregation.cardinality.CardinalityAggregator;
+import org.apache.druid.segment.column.ColumnStats;
+import org.apache.druid.segment.column.ValueType;
+
+import javax.annotation.Nullable;
+
+/**
+ * Computes the {@link ColumnStats} of a LONG, FLOAT or DOUBLE column from the rows written by {@link IndexMergerV9}.
+ * The distinct count is estimated with a {@link HyperLogLogCollector}, hashing values like the "cardinality"
+ * aggregator does.
+ *
+ * Nulls are only counted if SQL compatible null handling is enabled, since they are stored as zeros otherwise.
+ * Columns with NaN or infinite values get no stats, since filters cannot be compared with their minimum and maximum.
+ */
+public class ColumnStatsCollector
+{
+  private final ValueType type;
+  private final HyperLogLogCollector distinctValues = HyperLogLogCollector.makeLatestCollector();
+
+  private long nullCount = 0;
+  private boolean hasValues = false;
+  private boolean hasNonFiniteValues = false;
+  private long minLong = Long.MAX_VALUE;
+  private long maxLong = Long.MIN_VALUE;
+  private double minDouble = Double.POSITIVE_INFINITY;
+  private double maxDouble = Double.NEGATIVE_INFINITY;
+
+  private ColumnStatsCollector(ValueType type)
+  {
+    this.type = type;
+  }
+
+  /**
+   * Returns a collector for columns of the given type, or null if stats are not collected for it.
+   */
+  @Nullable
+  public static ColumnStatsCollector create(@Nullable ValueType type)
+  {
+    if (type == ValueType.LONG || type == ValueType.FLOAT || type == ValueType.DOUBLE) {
+      return new ColumnStatsCollector(type);
+    }
+    return null;
+  }
+
+  public void add(ColumnValueSelector selector)
+  {
+    if (NullHandling.sqlCompatible() && selector.isNull()) {
+      nullCount++;
+      return;
+    }
+    hasValues = true;
+    if (type == ValueType.LONG) {
+      final long value = selector.getLong();
+      minLong = Math.min(minLong, value);
+      maxLong = Math.max(maxLong, value);
+      distinctValues.add(CardinalityAggregator.HASH_FUNCTION.hashLong(value).asBytes());
+    } else {
+      final double value = type == ValueType.FLOAT ? selector.getFloat() : selector.getDouble();
+      if (!Double.isFinite(value)) {
+        hasNonFiniteValues = true;
+        return;
+      }
+      minDouble = Math.min(minDouble, value);
+      maxDouble = Math.max(maxDouble, value);
+      distinctValues.add(CardinalityAggregator.HASH_FUNCTION.hashLong(Double.doubleToLongBits(value)).asBytes());
+    }
+  }
+
+  /**
+   * Returns the stats of the rows added so far, or null if the column has NaN or infinite values.
+   */
+  @Nullable
+  public ColumnStats getColumnStats()
+  {
+    if (hasNonFiniteValues) {
+      return null;
+    }
+    final long distinctCount = hasValues ? Math.max(1, distinctValues.estimateCardinalityRound()) : 0;
+    if (!hasValues) {
+      return new ColumnStats(type, null, null, nullCount, distinctCount);
+    } else if (type == ValueType.LONG) {
+      return new ColumnStats(type, minLong, maxLong, nullCount, distinctCount);
+    } else {
+      return new ColumnStats(type, minDouble, maxDouble, nullCount, distinctCount);
+    }
+  }
+}
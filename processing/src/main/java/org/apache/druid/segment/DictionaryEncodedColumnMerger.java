@@ -42,11 +42,14 @@ import org.apache.druid.segment.data.ColumnarIntsSerializer;
 import org.apache.druid.segment.data.ColumnarMultiIntsSerializer;
 import org.apache.druid.segment.data.CompressedVSizeColumnarIntsSerializer;
 import org.apache.druid.segment.data.CompressionStrategy;
+import org.apache.druid.segment.data.DictionaryWriter;
 import org.apache.druid.segment.data.GenericIndexedWriter;
 import org.apache.druid.segment.data.Indexed;
 import org.apache.druid.segment.data.IndexedInts;
 import org.apache.druid.segment.data.ObjectStrategy;
+import org.apache.druid.segment.data.RunLengthEncodedColumnarIntsSerializer;
 import org.apache.druid.segment.data.SingleValueColumnarIntsSerializer;
+import org.apache.druid.segment.data.SortedRowsIndexSerializer;
 import org.apache.druid.segment.data.V3CompressedVSizeColumnarMultiIntsSerializer;
 import org.apache.druid.segment.data.VSizeColumnarIntsSerializer;
 import org.apache.druid.segment.data.VSizeColumnarMultiIntsSerializer;
@@ -84,6 +87,8 @@ public abstract class DictionaryEncodedColumnMerger<T extends Comparable<T>> imp
   @Nullable
   protected GenericIndexedWriter<ImmutableBitmap> bitmapWriter;
   @Nullable
+  protected SortedRowsIndexSerializer sortedRowsWriter;
+  @Nullable
   protected ArrayList<IntBuffer> dimConversions;
   @Nullable
   protected List<IndexableAdapter> adapters;
@@ -92,7 +97,7 @@ public abstract class DictionaryEncodedColumnMerger<T extends Comparable<T>> imp
   @Nullable
   protected ColumnarIntsSerializer encodedValueSerializer;
   @Nullable
-  protected GenericIndexedWriter<T> dictionaryWriter;
+  protected DictionaryWriter<T> dictionaryWriter;
   @Nullable
   protected T firstDictionaryValue;
 
@@ -122,6 +127,11 @@ public abstract class DictionaryEncodedColumnMerger<T extends Comparable<T>> imp
   @Nullable
   protected abstract T coerceValue(T value);
 
+  protected DictionaryWriter<T> makeDictionaryWriter(String fileName)
+  {
+    return new GenericIndexedWriter<>(segmentWriteOutMedium, fileName, getObjectStrategy());
+  }
+
   @Override
   public void writeMergedValueDictionary(List<IndexableAdapter> adapters) throws IOException
   {
@@ -169,7 +179,7 @@ public abstract class DictionaryEncodedColumnMerger<T extends Comparable<T>> imp
     }
 
     String dictFilename = StringUtils.format("%s.dim_values", dimensionName);
-    dictionaryWriter = new GenericIndexedWriter<>(segmentWriteOutMedium, dictFilename, getObjectStrategy());
+    dictionaryWriter = makeDictionaryWriter(dictFilename);
     firstDictionaryValue = null;
     dictionarySize = 0;
     dictionaryWriter.open();
@@ -331,18 +341,31 @@ public abstract class DictionaryEncodedColumnMerger<T extends Comparable<T>> imp
     if (!capabilities.hasBitmapIndexes()) {
       return;
     }
+    final StringIndexFormat indexFormat = chooseIndexFormat();
+    if (indexFormat == StringIndexFormat.NONE) {
+      return;
+    }
 
     long dimStartTime = System.currentTimeMillis();
     final BitmapSerdeFactory bitmapSerdeFactory = indexSpec.getBitmapSerdeFactory();
 
-    String bmpFilename = StringUtils.format("%s.inverted", dimensionName);
-    bitmapWriter = new GenericIndexedWriter<>(
-        segmentWriteOutMedium,
-        bmpFilename,
-        indexSpec.getBitmapSerdeFactory().getObjectStrategy()
-    );
-    bitmapWriter.open();
-    bitmapWriter.setObjectsNotSorted();
+    if (indexFormat == StringIndexFormat.SORTED) {
+      sortedRowsWriter = new SortedRowsIndexSerializer(
+          segmentWriteOutMedium,
+          Math.max(rowCount - 1, 0),
+          capabilities.hasMultipleValues().isTrue() ? Integer.MAX_VALUE : rowCount
+      );
+      sortedRowsWriter.open();
+    } else {
+      String bmpFilename = StringUtils.format("%s.inverted", dimensionName);
+      bitmapWriter = new GenericIndexedWriter<>(
+          segmentWriteOutMedium,
+          bmpFilename,
+          indexSpec.getBitmapSerdeFactory().getObjectStrategy()
+      );
+      bitmapWriter.open();
+      bitmapWriter.setObjectsNotSorted();
+    }
 
     BitmapFactory bitmapFactory = bitmapSerdeFactory.getBitmapFactory();
 
@@ -363,6 +386,12 @@ public abstract class DictionaryEncodedColumnMerger<T extends Comparable<T>> imp
           dictIdSeeker,
           dictId
       );
+      final ImmutableBitmap bitmap = bitmapFactory.makeImmutableBitmap(mergedIndexes);
+      if (sortedRowsWriter != null) {
+        sortedRowsWriter.addRows(bitmap);
+      } else {
+        bitmapWriter.write(bitmap);
+      }
       if (extendedIndexesMerger != null) {
         extendedIndexesMerger.mergeIndexes(dictId, mergedIndexes);
       }
@@ -386,6 +415,16 @@ public abstract class DictionaryEncodedColumnMerger<T extends Comparable<T>> imp
 
 
 
+  /**
+   * Format of the index of a column whose capabilities have bitmap indexes, which must not be
+   * {@link StringIndexFormat#AUTO}. Called by {@link #writeIndexes} once all rows are processed, so that
+   * implementations can decide from the merged values.
+   */
+  protected StringIndexFormat chooseIndexFormat()
+  {
+    return StringIndexFormat.BITMAP;
+  }
+
   @Nullable
   protected ExtendedIndexesMerger getExtendedIndexesMerger()
   {
@@ -411,8 +450,9 @@ public abstract class DictionaryEncodedColumnMerger<T extends Comparable<T>> imp
             new VSizeColumnarMultiIntsSerializer(dimensionName, segmentWriteOutMedium, cardinality);
       }
     } else {
+      final SingleValueColumnarIntsSerializer valueSerializer;
       if (compressionStrategy != CompressionStrategy.UNCOMPRESSED) {
-        encodedValueSerializer = CompressedVSizeColumnarIntsSerializer.create(
+        valueSerializer = CompressedVSizeColumnarIntsSerializer.create(
             dimensionName,
             segmentWriteOutMedium,
             filenameBase,
@@ -420,7 +460,13 @@ public abstract class DictionaryEncodedColumnMerger<T extends Comparable<T>> imp
             compressionStrategy
         );
       } else {
-        encodedValueSerializer = new VSizeColumnarIntsSerializer(segmentWriteOutMedium, cardinality);
+        valueSerializer = new VSizeColumnarIntsSerializer(segmentWriteOutMedium, cardinality);
+      }
+      // Only used if it is smaller, which it usually is for the first few dimensions segments are sorted by.
+      if (Boolean.TRUE.equals(indexSpec.getDimensionRunLengthEncoding())) {
+        encodedValueSerializer = new RunLengthEncodedColumnarIntsSerializer(valueSerializer, cardinality);
+      } else {
+        encodedValueSerializer = valueSerializer;
       }
     }
     encodedValueSerializer.open();
@@ -486,8 +532,6 @@ public abstract class DictionaryEncodedColumnMerger<T extends Comparable<T>> imp
       mergedIndexes.or(nullRowsBitmap);
     }
 
-    bitmapWriter.write(bmpFactory.makeImmutableBitmap(mergedIndexes));
-
     return mergedIndexes;
   }
 
@@ -530,7 +574,7 @@ public abstract class DictionaryEncodedColumnMerger<T extends Comparable<T>> imp
     return true;
   }
 
-  private static IndexedInts getRow(ColumnValueSelector s)
+  protected static IndexedInts getRow(ColumnValueSelector s)
   {
     if (s instanceof DimensionSelector) {
       return ((DimensionSelector) s).getRow();
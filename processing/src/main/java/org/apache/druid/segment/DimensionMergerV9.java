@@ -20,6 +20,9 @@
 package org.apache.druid.segment;
 
 import org.apache.druid.segment.column.ColumnDescriptor;
+import org.apache.druid.segment.column.ColumnStats;
+
+import javax.annotation.Nullable;
 
 /**
  * Processing related interface
@@ -35,4 +38,14 @@ public interface DimensionMergerV9 extends DimensionMerger
    * @return ColumnDescriptor that IndexMergerV9 will use to build a column.
    */
   ColumnDescriptor makeColumnDescriptor();
+
+  /**
+   * Return the stats of the merged column, if {@link IndexSpec#getColumnStats()} is set and they are supported for
+   * this type of column. Called after all rows have been processed.
+   */
+  @Nullable
+  default ColumnStats getColumnStats()
+  {
+    return null;
+  }
 }
@@ -25,13 +25,18 @@ import org.apache.druid.collections.bitmap.MutableBitmap;
 import org.apache.druid.common.utils.SerializerUtils;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.data.BitmapSerdeFactory;
 import org.apache.druid.segment.data.ByteBufferWriter;
 import org.apache.druid.segment.data.ColumnarDoublesSerializer;
 import org.apache.druid.segment.data.CompressionFactory;
 import org.apache.druid.segment.data.CompressionStrategy;
+import org.apache.druid.segment.serde.BitSlicedIndexWriter;
+import org.apache.druid.segment.serde.NumericZoneMapWriter;
 import org.apache.druid.segment.writeout.SegmentWriteOutMedium;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.nio.ByteOrder;
 import java.nio.channels.WritableByteChannel;
@@ -39,7 +44,8 @@ import java.nio.channels.WritableByteChannel;
 /**
  * Column Serializer for double column.
  * The column is serialized in two parts, first a bitmap indicating the nullability of row values
- * and second the actual row values.
+ * and second the actual row values. If enabled, a {@link org.apache.druid.segment.serde.NumericZoneMap} and a
+ * {@link org.apache.druid.segment.serde.BitSlicedIndex} of the values are written between them.
  * This class is unsafe for concurrent use from multiple threads.
  */
 public class DoubleColumnSerializerV2 implements GenericColumnSerializer<Object>
@@ -51,6 +57,39 @@ public class DoubleColumnSerializerV2 implements GenericColumnSerializer<Object>
       CompressionStrategy compression,
       BitmapSerdeFactory bitmapSerdeFactory
   )
+  {
+    return create(columnName, segmentWriteOutMedium, filenameBase, compression, bitmapSerdeFactory, false);
+  }
+
+  public static DoubleColumnSerializerV2 create(
+      String columnName,
+      SegmentWriteOutMedium segmentWriteOutMedium,
+      String filenameBase,
+      CompressionStrategy compression,
+      BitmapSerdeFactory bitmapSerdeFactory,
+      boolean zoneMap
+  )
+  {
+    return create(
+        columnName,
+        segmentWriteOutMedium,
+        filenameBase,
+        compression,
+        bitmapSerdeFactory,
+        zoneMap,
+        false
+    );
+  }
+
+  public static DoubleColumnSerializerV2 create(
+      String columnName,
+      SegmentWriteOutMedium segmentWriteOutMedium,
+      String filenameBase,
+      CompressionStrategy compression,
+      BitmapSerdeFactory bitmapSerdeFactory,
+      boolean zoneMap,
+      boolean bitSlicedIndex
+  )
   {
     return new DoubleColumnSerializerV2(
         columnName,
@@ -58,7 +97,9 @@ public class DoubleColumnSerializerV2 implements GenericColumnSerializer<Object>
         filenameBase,
         IndexIO.BYTE_ORDER,
         compression,
-        bitmapSerdeFactory
+        bitmapSerdeFactory,
+        zoneMap,
+        bitSlicedIndex
     );
   }
 
@@ -68,6 +109,10 @@ public class DoubleColumnSerializerV2 implements GenericColumnSerializer<Object>
   private final ByteOrder byteOrder;
   private final CompressionStrategy compression;
   private final BitmapSerdeFactory bitmapSerdeFactory;
+  @Nullable
+  private final NumericZoneMapWriter zoneMapWriter;
+  @Nullable
+  private final BitSlicedIndexWriter bitSlicedIndexWriter;
 
   private ColumnarDoublesSerializer writer;
   private ByteBufferWriter<ImmutableBitmap> nullValueBitmapWriter;
@@ -80,7 +125,9 @@ public class DoubleColumnSerializerV2 implements GenericColumnSerializer<Object>
       String filenameBase,
       ByteOrder byteOrder,
       CompressionStrategy compression,
-      BitmapSerdeFactory bitmapSerdeFactory
+      BitmapSerdeFactory bitmapSerdeFactory,
+      boolean zoneMap,
+      boolean bitSlicedIndex
   )
   {
     this.columnName = columnName;
@@ -89,6 +136,8 @@ public class DoubleColumnSerializerV2 implements GenericColumnSerializer<Object>
     this.byteOrder = byteOrder;
     this.compression = compression;
     this.bitmapSerdeFactory = bitmapSerdeFactory;
+    this.zoneMapWriter = zoneMap ? new NumericZoneMapWriter(ValueType.DOUBLE) : null;
+    this.bitSlicedIndexWriter = bitSlicedIndex ? new BitSlicedIndexWriter(ValueType.DOUBLE, bitmapSerdeFactory) : null;
   }
 
   @Override
@@ -116,8 +165,21 @@ public class DoubleColumnSerializerV2 implements GenericColumnSerializer<Object>
     if (selector.isNull()) {
       nullRowsBitmap.add(rowCount);
       writer.add(0D);
+      if (zoneMapWriter != null) {
+        zoneMapWriter.addNull();
+      }
+      if (bitSlicedIndexWriter != null) {
+        bitSlicedIndexWriter.addNull();
+      }
     } else {
-      writer.add(selector.getDouble());
+      final double value = selector.getDouble();
+      writer.add(value);
+      if (zoneMapWriter != null) {
+        zoneMapWriter.addDouble(value);
+      }
+      if (bitSlicedIndexWriter != null) {
+        bitSlicedIndexWriter.addDouble(value);
+      }
     }
     rowCount++;
   }
@@ -129,7 +191,9 @@ public class DoubleColumnSerializerV2 implements GenericColumnSerializer<Object>
     long bitmapSize = nullRowsBitmap.isEmpty()
                       ? 0L
                       : nullValueBitmapWriter.getSerializedSize();
-    return Integer.BYTES + writer.getSerializedSize() + bitmapSize;
+    final long zoneMapSize = zoneMapWriter == null ? 0L : zoneMapWriter.getSerializedSize();
+    final long bitSlicedIndexSize = bitSlicedIndexWriter == null ? 0L : bitSlicedIndexWriter.getSerializedSize();
+    return Integer.BYTES + writer.getSerializedSize() + zoneMapSize + bitSlicedIndexSize + bitmapSize;
   }
 
   @Override
@@ -137,6 +201,12 @@ public class DoubleColumnSerializerV2 implements GenericColumnSerializer<Object>
   {
     SerializerUtils.writeInt(channel, Ints.checkedCast(writer.getSerializedSize()));
     writer.writeTo(channel, smoosher);
+    if (zoneMapWriter != null) {
+      zoneMapWriter.writeTo(channel);
+    }
+    if (bitSlicedIndexWriter != null) {
+      bitSlicedIndexWriter.writeTo(channel);
+    }
     if (!nullRowsBitmap.isEmpty()) {
       nullValueBitmapWriter.writeTo(channel, smoosher);
     }
@@ -29,13 +29,18 @@ public class DoubleDimensionMergerV9 extends NumericDimensionMergerV9
 
   DoubleDimensionMergerV9(String dimensionName, IndexSpec indexSpec, SegmentWriteOutMedium segmentWriteOutMedium)
   {
-    super(dimensionName, indexSpec, segmentWriteOutMedium);
+    super(dimensionName, indexSpec, segmentWriteOutMedium, ValueType.DOUBLE);
   }
 
   @Override
   GenericColumnSerializer setupEncodedValueWriter()
   {
-    return IndexMergerV9.createDoubleColumnSerializer(segmentWriteOutMedium, dimensionName, indexSpec);
+    return IndexMergerV9.createDoubleColumnSerializer(
+        segmentWriteOutMedium,
+        dimensionName,
+        indexSpec,
+        IndexMergerV9.hasNumericBitmapIndexes(indexSpec)
+    );
   }
 
   @Override
@@ -43,7 +48,11 @@ public class DoubleDimensionMergerV9 extends NumericDimensionMergerV9
   {
     final ColumnDescriptor.Builder builder = ColumnDescriptor.builder();
     builder.setValueType(ValueType.DOUBLE);
-    ColumnPartSerde serde = IndexMergerV9.createDoubleColumnPartSerde(serializer, indexSpec);
+    ColumnPartSerde serde = IndexMergerV9.createDoubleColumnPartSerde(
+        serializer,
+        indexSpec,
+        IndexMergerV9.hasNumericBitmapIndexes(indexSpec)
+    );
     builder.addSerde(serde);
     return builder.build();
   }
@@ -29,7 +29,7 @@ public class FloatDimensionMergerV9 extends NumericDimensionMergerV9
 
   FloatDimensionMergerV9(String dimensionName, IndexSpec indexSpec, SegmentWriteOutMedium segmentWriteOutMedium)
   {
-    super(dimensionName, indexSpec, segmentWriteOutMedium);
+    super(dimensionName, indexSpec, segmentWriteOutMedium, ValueType.FLOAT);
   }
 
   @Override
@@ -44,6 +44,7 @@ import org.apache.druid.java.util.common.IOE;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.io.smoosh.PartCopyListener;
 import org.apache.druid.java.util.common.io.smoosh.Smoosh;
 import org.apache.druid.java.util.common.io.smoosh.SmooshedFileMapper;
 import org.apache.druid.java.util.common.logger.Logger;
@@ -193,18 +194,55 @@ public class IndexIO
   }
 
   public QueryableIndex loadIndex(File inDir, boolean lazy, SegmentLazyLoadFailCallback loadFailed) throws IOException
+  {
+    return loadIndex(inDir, lazy, loadFailed, null);
+  }
+
+  /**
+   * Like {@link #loadIndex(File, boolean, SegmentLazyLoadFailCallback)}, but if the segment in the given directory was
+   * loaded partially, calls the given listener for each internal file copied into the directory.
+   */
+  public QueryableIndex loadIndex(
+      File inDir,
+      boolean lazy,
+      SegmentLazyLoadFailCallback loadFailed,
+      @Nullable PartCopyListener partCopyListener
+  ) throws IOException
   {
     final int version = SegmentUtils.getVersionFromDir(inDir);
 
     final IndexLoader loader = indexLoaders.get(version);
 
     if (loader != null) {
-      return loader.load(inDir, mapper, lazy, loadFailed);
+      return loader.load(inDir, mapper, lazy, loadFailed, partCopyListener);
     } else {
       throw new ISE("Unknown index version[%s]", version);
     }
   }
 
+  /**
+   * Reads only the {@link Metadata} of the segment in the given directory, without loading its columns. Returns null
+   * if the segment has no metadata, or its metadata cannot be deserialized.
+   */
+  @Nullable
+  public Metadata loadMetadata(File inDir) throws IOException
+  {
+    if (SegmentUtils.getVersionFromDir(inDir) != V9_VERSION) {
+      return null;
+    }
+    try (SmooshedFileMapper smooshedFiles = Smoosh.map(inDir)) {
+      final ByteBuffer metadataBB = smooshedFiles.mapFile("metadata.drd");
+      if (metadataBB == null) {
+        return null;
+      }
+      return mapper.readValue(SERIALIZER_UTILS.readBytes(metadataBB, metadataBB.remaining()), Metadata.class);
+    }
+    catch (JsonParseException | JsonMappingException ex) {
+      log.warn(ex, "Failed to load metadata for segment [%s]", inDir);
+      return null;
+    }
+  }
+
   public static void checkFileSize(File indexFile) throws IOException
   {
     final long fileSize = indexFile.length();
@@ -424,7 +462,19 @@ public class IndexIO
 
   interface IndexLoader
   {
-    QueryableIndex load(File inDir, ObjectMapper mapper, boolean lazy, SegmentLazyLoadFailCallback loadFailed) throws IOException;
+    default QueryableIndex load(File inDir, ObjectMapper mapper, boolean lazy, SegmentLazyLoadFailCallback loadFailed)
+        throws IOException
+    {
+      return load(inDir, mapper, lazy, loadFailed, null);
+    }
+
+    QueryableIndex load(
+        File inDir,
+        ObjectMapper mapper,
+        boolean lazy,
+        SegmentLazyLoadFailCallback loadFailed,
+        @Nullable PartCopyListener partCopyListener
+    ) throws IOException;
   }
 
   static class LegacyIndexLoader implements IndexLoader
@@ -439,7 +489,13 @@ public class IndexIO
     }
 
     @Override
-    public QueryableIndex load(File inDir, ObjectMapper mapper, boolean lazy, SegmentLazyLoadFailCallback loadFailed) throws IOException
+    public QueryableIndex load(
+        File inDir,
+        ObjectMapper mapper,
+        boolean lazy,
+        SegmentLazyLoadFailCallback loadFailed,
+        @Nullable PartCopyListener partCopyListener
+    ) throws IOException
     {
       MMappedIndex index = legacyHandler.mapDir(inDir);
 
@@ -538,8 +594,13 @@ public class IndexIO
     }
 
     @Override
-    public QueryableIndex load(File inDir, ObjectMapper mapper, boolean lazy, SegmentLazyLoadFailCallback loadFailed)
-        throws IOException
+    public QueryableIndex load(
+        File inDir,
+        ObjectMapper mapper,
+        boolean lazy,
+        SegmentLazyLoadFailCallback loadFailed,
+        @Nullable PartCopyListener partCopyListener
+    ) throws IOException
     {
       log.debug("Mapping v9 index[%s]", inDir);
       long startTime = System.currentTimeMillis();
@@ -549,7 +610,10 @@ public class IndexIO
         throw new IAE("Expected version[9], got[%d]", theVersion);
       }
 
-      SmooshedFileMapper smooshedFiles = Smoosh.map(inDir);
+      SmooshedFileMapper smooshedFiles = Smoosh.map(inDir, partCopyListener);
+      // Columns of partially loaded segments are read from the source on first access, so they are always loaded
+      // lazily, to only read the columns that queries use.
+      final boolean lazyColumns = lazy || smooshedFiles.isPartial();
 
       ByteBuffer indexBuffer = smooshedFiles.mapFile("index.drd");
       /**
@@ -628,13 +692,11 @@ public class IndexIO
       Map<String, Supplier<ColumnHolder>> columns = new LinkedHashMap<>();
 
       // Register the time column
-      ByteBuffer timeBuffer = smooshedFiles.mapFile("__time");
       registerColumnHolder(
-          lazy,
+          lazyColumns,
           columns,
           ColumnHolder.TIME_COLUMN_NAME,
           mapper,
-          timeBuffer,
           smooshedFiles,
           loadFailed
       );
@@ -654,7 +716,7 @@ public class IndexIO
       registerColumnHolders(
           inDir,
           finalCols,
-          lazy,
+          lazyColumns,
           columns,
           mapper,
           smooshedFiles,
@@ -668,7 +730,7 @@ public class IndexIO
           columns,
           smooshedFiles,
           metadata,
-          lazy
+          lazyColumns
       );
 
       log.debug("Mapped v9 index[%s] in %,d millis", inDir, System.currentTimeMillis() - startTime);
@@ -726,13 +788,11 @@ public class IndexIO
           continue;
         }
 
-        ByteBuffer colBuffer = smooshedFiles.mapFile(columnName);
         registerColumnHolder(
             lazy,
             columns,
             columnName,
             mapper,
-            colBuffer,
             smooshedFiles,
             loadFailed
         );
@@ -744,7 +804,6 @@ public class IndexIO
         Map<String, Supplier<ColumnHolder>> columns,
         String columnName,
         ObjectMapper mapper,
-        ByteBuffer colBuffer,
         SmooshedFileMapper smooshedFiles,
         SegmentLazyLoadFailCallback loadFailed
     ) throws IOException
@@ -756,7 +815,7 @@ public class IndexIO
                 return deserializeColumn(
                     columnName,
                     mapper,
-                    colBuffer,
+                    smooshedFiles.mapFile(columnName),
                     smooshedFiles
                 );
               }
@@ -771,7 +830,7 @@ public class IndexIO
         ColumnHolder columnHolder = deserializeColumn(
             columnName,
             mapper,
-            colBuffer,
+            smooshedFiles.mapFile(columnName),
             smooshedFiles
         );
         columns.put(columnName, () -> columnHolder);
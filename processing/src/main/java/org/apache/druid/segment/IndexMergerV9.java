@@ -45,6 +45,7 @@ import org.apache.druid.segment.column.ColumnCapabilities.CoercionLogic;
 import org.apache.druid.segment.column.ColumnCapabilitiesImpl;
 import org.apache.druid.segment.column.ColumnDescriptor;
 import org.apache.druid.segment.column.ColumnHolder;
+import org.apache.druid.segment.column.ColumnStats;
 import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.data.GenericIndexed;
 import org.apache.druid.segment.incremental.IncrementalIndex;
@@ -302,12 +303,15 @@ public class IndexMergerV9 implements IndexMerger
       final GenericColumnSerializer timeWriter = setupTimeWriter(segmentWriteOutMedium, indexSpec);
       final ArrayList<GenericColumnSerializer> metricWriters =
           setupMetricsWriters(segmentWriteOutMedium, mergedMetrics, metricsValueTypes, metricTypeNames, indexSpec);
+      final List<ColumnStatsCollector> metricStatsCollectors =
+          setupMetricStatsCollectors(mergedMetrics, metricsValueTypes, indexSpec);
       IndexMergeResult indexMergeResult = mergeIndexesAndWriteColumns(
           adapters,
           progress,
           timeAndDimsIterator,
           timeWriter,
           metricWriters,
+          metricStatsCollectors,
           mergers,
           fillRowNumConversions
       );
@@ -358,7 +362,25 @@ public class IndexMergerV9 implements IndexMerger
           mergers,
           dimensionsSpecInspector
       );
-      makeMetadataBinary(v9Smoosher, progress, segmentMetadata);
+      if (Boolean.TRUE.equals(indexSpec.getColumnStats())) {
+        final Map<String, ColumnStats> columnStats = makeColumnStats(
+            mergedDimensions,
+            dimCapabilities,
+            mergers,
+            mergedMetrics,
+            metricStatsCollectors,
+            indexMergeResult.rowCount
+        );
+        makeMetadataBinary(
+            v9Smoosher,
+            progress,
+            segmentMetadata == null
+            ? new Metadata(null, null, null, null, null, columnStats)
+            : segmentMetadata.withColumnStats(columnStats)
+        );
+      } else {
+        makeMetadataBinary(v9Smoosher, progress, segmentMetadata);
+      }
 
       v9Smoosher.close();
       progress.stop();
@@ -373,6 +395,60 @@ public class IndexMergerV9 implements IndexMerger
     }
   }
 
+  /**
+   * Returns a collector for each metric that {@link ColumnStatsCollector} supports, and null for the others.
+   */
+  private List<ColumnStatsCollector> setupMetricStatsCollectors(
+      final List<String> mergedMetrics,
+      final Map<String, ValueType> metricsValueTypes,
+      final IndexSpec indexSpec
+  )
+  {
+    final List<ColumnStatsCollector> collectors = new ArrayList<>(mergedMetrics.size());
+    for (String metric : mergedMetrics) {
+      collectors.add(
+          Boolean.TRUE.equals(indexSpec.getColumnStats())
+          ? ColumnStatsCollector.create(metricsValueTypes.get(metric))
+          : null
+      );
+    }
+    return collectors;
+  }
+
+  private Map<String, ColumnStats> makeColumnStats(
+      final List<String> mergedDimensions,
+      final List<ColumnCapabilities> dimCapabilities,
+      final List<DimensionMergerV9> mergers,
+      final List<String> mergedMetrics,
+      final List<ColumnStatsCollector> metricStatsCollectors,
+      final int rowCount
+  )
+  {
+    final Map<String, ColumnStats> columnStats = new TreeMap<>();
+    for (int i = 0; i < mergedDimensions.size(); i++) {
+      final DimensionMergerV9 merger = mergers.get(i);
+      final ColumnStats stats;
+      if (merger.hasOnlyNulls()) {
+        stats = dimCapabilities.get(i).is(ValueType.STRING)
+                ? new ColumnStats(ValueType.STRING, null, null, rowCount, 0)
+                : null;
+      } else {
+        stats = merger.getColumnStats();
+      }
+      if (stats != null) {
+        columnStats.put(mergedDimensions.get(i), stats);
+      }
+    }
+    for (int i = 0; i < mergedMetrics.size(); i++) {
+      final ColumnStatsCollector collector = metricStatsCollectors.get(i);
+      final ColumnStats stats = collector == null ? null : collector.getColumnStats();
+      if (stats != null) {
+        columnStats.put(mergedMetrics.get(i), stats);
+      }
+    }
+    return columnStats;
+  }
+
   private void makeMetadataBinary(
       final FileSmoosher v9Smoosher,
       final ProgressIndicator progress,
@@ -547,8 +623,21 @@ public class IndexMergerV9 implements IndexMerger
 
   static ColumnPartSerde createLongColumnPartSerde(GenericColumnSerializer serializer, IndexSpec indexSpec)
   {
-    // If using default values for null use LongNumericColumnPartSerde to allow rollback to previous versions.
-    if (NullHandling.replaceWithDefault()) {
+    return createLongColumnPartSerde(serializer, indexSpec, false);
+  }
+
+  /**
+   * @param bitSlicedIndex whether the serializer was created with a {@link org.apache.druid.segment.serde.BitSlicedIndex}
+   */
+  static ColumnPartSerde createLongColumnPartSerde(
+      GenericColumnSerializer serializer,
+      IndexSpec indexSpec,
+      boolean bitSlicedIndex
+  )
+  {
+    // If using default values for null use LongNumericColumnPartSerde to allow rollback to previous versions, unless
+    // zone maps or bit-sliced indexes were asked for, which only the V2 format supports.
+    if (NullHandling.replaceWithDefault() && !hasNumericZoneMaps(indexSpec) && !bitSlicedIndex) {
       return LongNumericColumnPartSerde.serializerBuilder()
                                        .withByteOrder(IndexIO.BYTE_ORDER)
                                        .withDelegate(serializer)
@@ -557,6 +646,8 @@ public class IndexMergerV9 implements IndexMerger
       return LongNumericColumnPartSerdeV2.serializerBuilder()
                                          .withByteOrder(IndexIO.BYTE_ORDER)
                                          .withBitmapSerdeFactory(indexSpec.getBitmapSerdeFactory())
+                                         .withZoneMap(hasNumericZoneMaps(indexSpec))
+                                         .withBitSlicedIndex(bitSlicedIndex)
                                          .withDelegate(serializer)
                                          .build();
     }
@@ -564,8 +655,21 @@ public class IndexMergerV9 implements IndexMerger
 
   static ColumnPartSerde createDoubleColumnPartSerde(GenericColumnSerializer serializer, IndexSpec indexSpec)
   {
-    // If using default values for null use DoubleNumericColumnPartSerde to allow rollback to previous versions.
-    if (NullHandling.replaceWithDefault()) {
+    return createDoubleColumnPartSerde(serializer, indexSpec, false);
+  }
+
+  /**
+   * @param bitSlicedIndex whether the serializer was created with a {@link org.apache.druid.segment.serde.BitSlicedIndex}
+   */
+  static ColumnPartSerde createDoubleColumnPartSerde(
+      GenericColumnSerializer serializer,
+      IndexSpec indexSpec,
+      boolean bitSlicedIndex
+  )
+  {
+    // If using default values for null use DoubleNumericColumnPartSerde to allow rollback to previous versions, unless
+    // zone maps or bit-sliced indexes were asked for, which only the V2 format supports.
+    if (NullHandling.replaceWithDefault() && !hasNumericZoneMaps(indexSpec) && !bitSlicedIndex) {
       return DoubleNumericColumnPartSerde.serializerBuilder()
                                          .withByteOrder(IndexIO.BYTE_ORDER)
                                          .withDelegate(serializer)
@@ -574,6 +678,8 @@ public class IndexMergerV9 implements IndexMerger
       return DoubleNumericColumnPartSerdeV2.serializerBuilder()
                                            .withByteOrder(IndexIO.BYTE_ORDER)
                                            .withBitmapSerdeFactory(indexSpec.getBitmapSerdeFactory())
+                                           .withZoneMap(hasNumericZoneMaps(indexSpec))
+                                           .withBitSlicedIndex(bitSlicedIndex)
                                            .withDelegate(serializer)
                                            .build();
     }
@@ -656,6 +762,7 @@ public class IndexMergerV9 implements IndexMerger
       final TimeAndDimsIterator timeAndDimsIterator,
       final GenericColumnSerializer timeWriter,
       final ArrayList<GenericColumnSerializer> metricWriters,
+      final List<ColumnStatsCollector> metricStatsCollectors,
       final List<DimensionMergerV9> mergers,
       final boolean fillRowNumConversions
   ) throws IOException
@@ -683,6 +790,10 @@ public class IndexMergerV9 implements IndexMerger
 
       for (int metricIndex = 0; metricIndex < timeAndDims.getNumMetrics(); metricIndex++) {
         metricWriters.get(metricIndex).serialize(timeAndDims.getMetricSelector(metricIndex));
+        final ColumnStatsCollector statsCollector = metricStatsCollectors.get(metricIndex);
+        if (statsCollector != null) {
+          statsCollector.add(timeAndDims.getMetricSelector(metricIndex));
+        }
       }
 
       for (int dimIndex = 0; dimIndex < timeAndDims.getNumDimensions(); dimIndex++) {
@@ -807,8 +918,22 @@ public class IndexMergerV9 implements IndexMerger
       IndexSpec indexSpec
   )
   {
-    // If using default values for null use LongColumnSerializer to allow rollback to previous versions.
-    if (NullHandling.replaceWithDefault()) {
+    return createLongColumnSerializer(segmentWriteOutMedium, columnName, indexSpec, false);
+  }
+
+  /**
+   * @param bitSlicedIndex whether to write a {@link org.apache.druid.segment.serde.BitSlicedIndex} of the column
+   */
+  static GenericColumnSerializer createLongColumnSerializer(
+      SegmentWriteOutMedium segmentWriteOutMedium,
+      String columnName,
+      IndexSpec indexSpec,
+      boolean bitSlicedIndex
+  )
+  {
+    // If using default values for null use LongColumnSerializer to allow rollback to previous versions, unless zone
+    // maps or bit-sliced indexes were asked for, which only the V2 format supports.
+    if (NullHandling.replaceWithDefault() && !hasNumericZoneMaps(indexSpec) && !bitSlicedIndex) {
       return LongColumnSerializer.create(
           columnName,
           segmentWriteOutMedium,
@@ -823,7 +948,9 @@ public class IndexMergerV9 implements IndexMerger
           columnName,
           indexSpec.getMetricCompression(),
           indexSpec.getLongEncoding(),
-          indexSpec.getBitmapSerdeFactory()
+          indexSpec.getBitmapSerdeFactory(),
+          hasNumericZoneMaps(indexSpec),
+          bitSlicedIndex
       );
     }
   }
@@ -834,8 +961,22 @@ public class IndexMergerV9 implements IndexMerger
       IndexSpec indexSpec
   )
   {
-    // If using default values for null use DoubleColumnSerializer to allow rollback to previous versions.
-    if (NullHandling.replaceWithDefault()) {
+    return createDoubleColumnSerializer(segmentWriteOutMedium, columnName, indexSpec, false);
+  }
+
+  /**
+   * @param bitSlicedIndex whether to write a {@link org.apache.druid.segment.serde.BitSlicedIndex} of the column
+   */
+  static GenericColumnSerializer createDoubleColumnSerializer(
+      SegmentWriteOutMedium segmentWriteOutMedium,
+      String columnName,
+      IndexSpec indexSpec,
+      boolean bitSlicedIndex
+  )
+  {
+    // If using default values for null use DoubleColumnSerializer to allow rollback to previous versions, unless zone
+    // maps or bit-sliced indexes were asked for, which only the V2 format supports.
+    if (NullHandling.replaceWithDefault() && !hasNumericZoneMaps(indexSpec) && !bitSlicedIndex) {
       return DoubleColumnSerializer.create(
           columnName,
           segmentWriteOutMedium,
@@ -848,11 +989,23 @@ public class IndexMergerV9 implements IndexMerger
           segmentWriteOutMedium,
           columnName,
           indexSpec.getMetricCompression(),
-          indexSpec.getBitmapSerdeFactory()
+          indexSpec.getBitmapSerdeFactory(),
+          hasNumericZoneMaps(indexSpec),
+          bitSlicedIndex
       );
     }
   }
 
+  private static boolean hasNumericZoneMaps(IndexSpec indexSpec)
+  {
+    return Boolean.TRUE.equals(indexSpec.getNumericZoneMaps());
+  }
+
+  static boolean hasNumericBitmapIndexes(IndexSpec indexSpec)
+  {
+    return Boolean.TRUE.equals(indexSpec.getNumericBitmapIndexes());
+  }
+
   static GenericColumnSerializer createFloatColumnSerializer(
       SegmentWriteOutMedium segmentWriteOutMedium,
       String columnName,
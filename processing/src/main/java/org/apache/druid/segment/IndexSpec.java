@@ -24,13 +24,13 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Sets;
 import org.apache.druid.segment.data.BitmapSerde;
 import org.apache.druid.segment.data.BitmapSerdeFactory;
 import org.apache.druid.segment.data.CompressionFactory;
 import org.apache.druid.segment.data.CompressionStrategy;
+import org.apache.druid.segment.data.StringEncodingStrategy;
 import org.apache.druid.segment.loading.SegmentizerFactory;
 
 import javax.annotation.Nullable;
@@ -74,35 +74,35 @@ public class IndexSpec
   @Nullable
   private final SegmentizerFactory segmentLoader;
 
-  /**
-   * Creates an IndexSpec with default parameters
-   */
-  public IndexSpec()
-  {
-    this(null, null, null, null, null, null);
-  }
+  @Nullable
+  private final StringEncodingStrategy stringDictionaryEncoding;
 
-  @VisibleForTesting
-  public IndexSpec(
-      @Nullable BitmapSerdeFactory bitmapSerdeFactory,
-      @Nullable CompressionStrategy dimensionCompression,
-      @Nullable CompressionStrategy metricCompression,
-      @Nullable CompressionFactory.LongEncodingStrategy longEncoding
-  )
+  @Nullable
+  private final Boolean numericZoneMaps;
+
+  @Nullable
+  private final Boolean dimensionRunLengthEncoding;
+
+  @Nullable
+  private final Boolean columnStats;
+
+  @Nullable
+  private final Map<String, StringIndexFormat> dimensionIndexFormats;
+
+  @Nullable
+  private final Boolean numericBitmapIndexes;
+
+  public static Builder builder()
   {
-    this(bitmapSerdeFactory, dimensionCompression, metricCompression, longEncoding, null, null);
+    return new Builder();
   }
 
-  @VisibleForTesting
-  public IndexSpec(
-      @Nullable BitmapSerdeFactory bitmapSerdeFactory,
-      @Nullable CompressionStrategy dimensionCompression,
-      @Nullable CompressionStrategy metricCompression,
-      @Nullable CompressionFactory.LongEncodingStrategy longEncoding,
-      @Nullable SegmentizerFactory segmentLoader
-  )
+  /**
+   * Creates an IndexSpec with default parameters
+   */
+  public IndexSpec()
   {
-    this(bitmapSerdeFactory, dimensionCompression, metricCompression, longEncoding, null, segmentLoader);
+    this(null, null, null, null, null, null, null, null, null, null, null, null);
   }
 
   /**
@@ -121,6 +121,28 @@ public class IndexSpec
    *
    * @param longEncoding encoding strategy for metric and dimension columns with type long, null to use the default.
    *                     Defaults to {@link CompressionFactory#DEFAULT_LONG_ENCODING_STRATEGY}
+   *
+   * @param stringDictionaryEncoding format of the value dictionary of string dimension columns, null to use the
+   *                                 default. Defaults to {@link StringEncodingStrategy#DEFAULT}
+   *
+   * @param numericZoneMaps whether to store the minimum, maximum and null count of each block of rows of long and
+   *                        double columns, so that range filters can skip blocks, null to use the default.
+   *                        Defaults to false
+   *
+   * @param dimensionRunLengthEncoding whether to store the values of single-value string dimension columns as runs of
+   *                                   rows with the same value when that is smaller, null to use the default.
+   *                                   Defaults to false
+   *
+   * @param columnStats whether to store the minimum, maximum, null count and distinct count of string and numeric
+   *                    columns in the segment metadata, and publish them with the segment, null to use the default.
+   *                    Defaults to false
+   *
+   * @param dimensionIndexFormats format of the index of each string dimension column, by column name, null to use
+   *                              the default. Columns that are not listed get {@link StringIndexFormat#BITMAP}
+   *
+   * @param numericBitmapIndexes whether to write a {@link org.apache.druid.segment.serde.BitSlicedIndex} of LONG and
+   *                             DOUBLE dimension columns, which answers range filters on them exactly, null to use the
+   *                             default. Defaults to false
    */
   @JsonCreator
   public IndexSpec(
@@ -129,7 +151,13 @@ public class IndexSpec
       @JsonProperty("metricCompression") @Nullable CompressionStrategy metricCompression,
       @JsonProperty("longEncoding") @Nullable CompressionFactory.LongEncodingStrategy longEncoding,
       @JsonProperty("jsonCompression") @Nullable CompressionStrategy jsonCompression,
-      @JsonProperty("segmentLoader") @Nullable SegmentizerFactory segmentLoader
+      @JsonProperty("segmentLoader") @Nullable SegmentizerFactory segmentLoader,
+      @JsonProperty("stringDictionaryEncoding") @Nullable StringEncodingStrategy stringDictionaryEncoding,
+      @JsonProperty("numericZoneMaps") @Nullable Boolean numericZoneMaps,
+      @JsonProperty("dimensionRunLengthEncoding") @Nullable Boolean dimensionRunLengthEncoding,
+      @JsonProperty("columnStats") @Nullable Boolean columnStats,
+      @JsonProperty("dimensionIndexFormats") @Nullable Map<String, StringIndexFormat> dimensionIndexFormats,
+      @JsonProperty("numericBitmapIndexes") @Nullable Boolean numericBitmapIndexes
   )
   {
     Preconditions.checkArgument(dimensionCompression == null || DIMENSION_COMPRESSION.contains(dimensionCompression),
@@ -149,6 +177,12 @@ public class IndexSpec
     this.longEncoding = longEncoding == null ? DEFAULT_LONG_ENCODING : longEncoding;
     this.jsonCompression = jsonCompression;
     this.segmentLoader = segmentLoader;
+    this.stringDictionaryEncoding = stringDictionaryEncoding;
+    this.numericZoneMaps = numericZoneMaps;
+    this.dimensionRunLengthEncoding = dimensionRunLengthEncoding;
+    this.columnStats = columnStats;
+    this.dimensionIndexFormats = dimensionIndexFormats;
+    this.numericBitmapIndexes = numericBitmapIndexes;
   }
 
   @JsonProperty("bitmap")
@@ -190,6 +224,65 @@ public class IndexSpec
     return jsonCompression;
   }
 
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @Nullable
+  public StringEncodingStrategy getStringDictionaryEncoding()
+  {
+    return stringDictionaryEncoding;
+  }
+
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @Nullable
+  public Boolean getNumericZoneMaps()
+  {
+    return numericZoneMaps;
+  }
+
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @Nullable
+  public Boolean getDimensionRunLengthEncoding()
+  {
+    return dimensionRunLengthEncoding;
+  }
+
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @Nullable
+  public Boolean getColumnStats()
+  {
+    return columnStats;
+  }
+
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @Nullable
+  public Map<String, StringIndexFormat> getDimensionIndexFormats()
+  {
+    return dimensionIndexFormats;
+  }
+
+  /**
+   * Returns the format of the index of the given string dimension column.
+   */
+  public StringIndexFormat getDimensionIndexFormat(String dimension)
+  {
+    if (dimensionIndexFormats == null) {
+      return StringIndexFormat.BITMAP;
+    }
+    return dimensionIndexFormats.getOrDefault(dimension, StringIndexFormat.BITMAP);
+  }
+
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @Nullable
+  public Boolean getNumericBitmapIndexes()
+  {
+    return numericBitmapIndexes;
+  }
+
   public Map<String, Object> asMap(ObjectMapper objectMapper)
   {
     return objectMapper.convertValue(
@@ -213,13 +306,32 @@ public class IndexSpec
            metricCompression == indexSpec.metricCompression &&
            longEncoding == indexSpec.longEncoding &&
            Objects.equals(jsonCompression, indexSpec.jsonCompression) &&
-           Objects.equals(segmentLoader, indexSpec.segmentLoader);
+           Objects.equals(segmentLoader, indexSpec.segmentLoader) &&
+           Objects.equals(stringDictionaryEncoding, indexSpec.stringDictionaryEncoding) &&
+           Objects.equals(numericZoneMaps, indexSpec.numericZoneMaps) &&
+           Objects.equals(dimensionRunLengthEncoding, indexSpec.dimensionRunLengthEncoding) &&
+           Objects.equals(columnStats, indexSpec.columnStats) &&
+           Objects.equals(dimensionIndexFormats, indexSpec.dimensionIndexFormats) &&
+           Objects.equals(numericBitmapIndexes, indexSpec.numericBitmapIndexes);
   }
 
   @Override
   public int hashCode()
   {
-    return Objects.hash(bitmapSerdeFactory, dimensionCompression, metricCompression, longEncoding, jsonCompression, segmentLoader);
+    return Objects.hash(
+        bitmapSerdeFactory,
+        dimensionCompression,
+        metricCompression,
+        longEncoding,
+        jsonCompression,
+        segmentLoader,
+        stringDictionaryEncoding,
+        numericZoneMaps,
+        dimensionRunLengthEncoding,
+        columnStats,
+        dimensionIndexFormats,
+        numericBitmapIndexes
+    );
   }
 
   @Override
@@ -232,6 +344,130 @@ public class IndexSpec
            ", longEncoding=" + longEncoding +
            ", jsonCompression=" + jsonCompression +
            ", segmentLoader=" + segmentLoader +
+           ", stringDictionaryEncoding=" + stringDictionaryEncoding +
+           ", numericZoneMaps=" + numericZoneMaps +
+           ", dimensionRunLengthEncoding=" + dimensionRunLengthEncoding +
+           ", columnStats=" + columnStats +
+           ", dimensionIndexFormats=" + dimensionIndexFormats +
+           ", numericBitmapIndexes=" + numericBitmapIndexes +
            '}';
   }
+
+  public static class Builder
+  {
+    @Nullable
+    private BitmapSerdeFactory bitmapSerdeFactory;
+    @Nullable
+    private CompressionStrategy dimensionCompression;
+    @Nullable
+    private CompressionStrategy metricCompression;
+    @Nullable
+    private CompressionFactory.LongEncodingStrategy longEncoding;
+    @Nullable
+    private CompressionStrategy jsonCompression;
+    @Nullable
+    private SegmentizerFactory segmentLoader;
+    @Nullable
+    private StringEncodingStrategy stringDictionaryEncoding;
+    @Nullable
+    private Boolean numericZoneMaps;
+    @Nullable
+    private Boolean dimensionRunLengthEncoding;
+    @Nullable
+    private Boolean columnStats;
+    @Nullable
+    private Map<String, StringIndexFormat> dimensionIndexFormats;
+    @Nullable
+    private Boolean numericBitmapIndexes;
+
+    public Builder withBitmapSerdeFactory(@Nullable BitmapSerdeFactory bitmapSerdeFactory)
+    {
+      this.bitmapSerdeFactory = bitmapSerdeFactory;
+      return this;
+    }
+
+    public Builder withDimensionCompression(@Nullable CompressionStrategy dimensionCompression)
+    {
+      this.dimensionCompression = dimensionCompression;
+      return this;
+    }
+
+    public Builder withMetricCompression(@Nullable CompressionStrategy metricCompression)
+    {
+      this.metricCompression = metricCompression;
+      return this;
+    }
+
+    public Builder withLongEncoding(@Nullable CompressionFactory.LongEncodingStrategy longEncoding)
+    {
+      this.longEncoding = longEncoding;
+      return this;
+    }
+
+    public Builder withJsonCompression(@Nullable CompressionStrategy jsonCompression)
+    {
+      this.jsonCompression = jsonCompression;
+      return this;
+    }
+
+    public Builder withSegmentLoader(@Nullable SegmentizerFactory segmentLoader)
+    {
+      this.segmentLoader = segmentLoader;
+      return this;
+    }
+
+    public Builder withStringDictionaryEncoding(@Nullable StringEncodingStrategy stringDictionaryEncoding)
+    {
+      this.stringDictionaryEncoding = stringDictionaryEncoding;
+      return this;
+    }
+
+    public Builder withNumericZoneMaps(@Nullable Boolean numericZoneMaps)
+    {
+      this.numericZoneMaps = numericZoneMaps;
+      return this;
+    }
+
+    public Builder withDimensionRunLengthEncoding(@Nullable Boolean dimensionRunLengthEncoding)
+    {
+      this.dimensionRunLengthEncoding = dimensionRunLengthEncoding;
+      return this;
+    }
+
+    public Builder withColumnStats(@Nullable Boolean columnStats)
+    {
+      this.columnStats = columnStats;
+      return this;
+    }
+
+    public Builder withDimensionIndexFormats(@Nullable Map<String, StringIndexFormat> dimensionIndexFormats)
+    {
+      this.dimensionIndexFormats = dimensionIndexFormats;
+      return this;
+    }
+
+    public Builder withNumericBitmapIndexes(@Nullable Boolean numericBitmapIndexes)
+    {
+      this.numericBitmapIndexes = numericBitmapIndexes;
+      return this;
+    }
+
+    public IndexSpec build()
+    {
+      return new IndexSpec(
+          bitmapSerdeFactory,
+          dimensionCompression,
+          metricCompression,
+          longEncoding,
+          jsonCompression,
+          segmentLoader,
+          stringDictionaryEncoding,
+          numericZoneMaps,
+          dimensionRunLengthEncoding,
+          columnStats,
+          dimensionIndexFormats,
+          numericBitmapIndexes
+      );
+    }
+  }
 }
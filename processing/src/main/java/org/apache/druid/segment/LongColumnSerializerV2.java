@@ -25,13 +25,18 @@ import org.apache.druid.collections.bitmap.MutableBitmap;
 import org.apache.druid.common.utils.SerializerUtils;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.data.BitmapSerdeFactory;
 import org.apache.druid.segment.data.ByteBufferWriter;
 import org.apache.druid.segment.data.ColumnarLongsSerializer;
 import org.apache.druid.segment.data.CompressionFactory;
 import org.apache.druid.segment.data.CompressionStrategy;
+import org.apache.druid.segment.serde.BitSlicedIndexWriter;
+import org.apache.druid.segment.serde.NumericZoneMapWriter;
 import org.apache.druid.segment.writeout.SegmentWriteOutMedium;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.nio.ByteOrder;
 import java.nio.channels.WritableByteChannel;
@@ -39,7 +44,8 @@ import java.nio.channels.WritableByteChannel;
 /**
  * Column Serializer for long column.
  * The column is serialized in two parts, first a bitmap indicating the nullability of row values
- * and second the actual row values.
+ * and second the actual row values. If enabled, a {@link org.apache.druid.segment.serde.NumericZoneMap} and a
+ * {@link org.apache.druid.segment.serde.BitSlicedIndex} of the values are written between them.
  * This class is unsafe for concurrent use from multiple threads.
  */
 public class LongColumnSerializerV2 implements GenericColumnSerializer<Object>
@@ -52,6 +58,42 @@ public class LongColumnSerializerV2 implements GenericColumnSerializer<Object>
       CompressionFactory.LongEncodingStrategy encoding,
       BitmapSerdeFactory bitmapSerdeFactory
   )
+  {
+    return create(columnName, segmentWriteOutMedium, filenameBase, compression, encoding, bitmapSerdeFactory, false);
+  }
+
+  public static LongColumnSerializerV2 create(
+      String columnName,
+      SegmentWriteOutMedium segmentWriteOutMedium,
+      String filenameBase,
+      CompressionStrategy compression,
+      CompressionFactory.LongEncodingStrategy encoding,
+      BitmapSerdeFactory bitmapSerdeFactory,
+      boolean zoneMap
+  )
+  {
+    return create(
+        columnName,
+        segmentWriteOutMedium,
+        filenameBase,
+        compression,
+        encoding,
+        bitmapSerdeFactory,
+        zoneMap,
+        false
+    );
+  }
+
+  public static LongColumnSerializerV2 create(
+      String columnName,
+      SegmentWriteOutMedium segmentWriteOutMedium,
+      String filenameBase,
+      CompressionStrategy compression,
+      CompressionFactory.LongEncodingStrategy encoding,
+      BitmapSerdeFactory bitmapSerdeFactory,
+      boolean zoneMap,
+      boolean bitSlicedIndex
+  )
   {
     return new LongColumnSerializerV2(
         columnName,
@@ -60,7 +102,9 @@ public class LongColumnSerializerV2 implements GenericColumnSerializer<Object>
         IndexIO.BYTE_ORDER,
         compression,
         encoding,
-        bitmapSerdeFactory
+        bitmapSerdeFactory,
+        zoneMap,
+        bitSlicedIndex
     );
   }
 
@@ -71,6 +115,10 @@ public class LongColumnSerializerV2 implements GenericColumnSerializer<Object>
   private final CompressionStrategy compression;
   private final CompressionFactory.LongEncodingStrategy encoding;
   private final BitmapSerdeFactory bitmapSerdeFactory;
+  @Nullable
+  private final NumericZoneMapWriter zoneMapWriter;
+  @Nullable
+  private final BitSlicedIndexWriter bitSlicedIndexWriter;
 
   private ColumnarLongsSerializer writer;
   private ByteBufferWriter<ImmutableBitmap> nullValueBitmapWriter;
@@ -84,7 +132,9 @@ public class LongColumnSerializerV2 implements GenericColumnSerializer<Object>
       ByteOrder byteOrder,
       CompressionStrategy compression,
       CompressionFactory.LongEncodingStrategy encoding,
-      BitmapSerdeFactory bitmapSerdeFactory
+      BitmapSerdeFactory bitmapSerdeFactory,
+      boolean zoneMap,
+      boolean bitSlicedIndex
   )
   {
     this.columnName = columnName;
@@ -94,6 +144,8 @@ public class LongColumnSerializerV2 implements GenericColumnSerializer<Object>
     this.compression = compression;
     this.encoding = encoding;
     this.bitmapSerdeFactory = bitmapSerdeFactory;
+    this.zoneMapWriter = zoneMap ? new NumericZoneMapWriter(ValueType.LONG) : null;
+    this.bitSlicedIndexWriter = bitSlicedIndex ? new BitSlicedIndexWriter(ValueType.LONG, bitmapSerdeFactory) : null;
   }
 
   @Override
@@ -122,8 +174,21 @@ public class LongColumnSerializerV2 implements GenericColumnSerializer<Object>
     if (selector.isNull()) {
       nullRowsBitmap.add(rowCount);
       writer.add(0L);
+      if (zoneMapWriter != null) {
+        zoneMapWriter.addNull();
+      }
+      if (bitSlicedIndexWriter != null) {
+        bitSlicedIndexWriter.addNull();
+      }
     } else {
-      writer.add(selector.getLong());
+      final long value = selector.getLong();
+      writer.add(value);
+      if (zoneMapWriter != null) {
+        zoneMapWriter.addLong(value);
+      }
+      if (bitSlicedIndexWriter != null) {
+        bitSlicedIndexWriter.addLong(value);
+      }
     }
     rowCount++;
   }
@@ -135,7 +200,9 @@ public class LongColumnSerializerV2 implements GenericColumnSerializer<Object>
     long bitmapSize = nullRowsBitmap.isEmpty()
                       ? 0L
                       : nullValueBitmapWriter.getSerializedSize();
-    return Integer.BYTES + writer.getSerializedSize() + bitmapSize;
+    final long zoneMapSize = zoneMapWriter == null ? 0L : zoneMapWriter.getSerializedSize();
+    final long bitSlicedIndexSize = bitSlicedIndexWriter == null ? 0L : bitSlicedIndexWriter.getSerializedSize();
+    return Integer.BYTES + writer.getSerializedSize() + zoneMapSize + bitSlicedIndexSize + bitmapSize;
   }
 
   @Override
@@ -143,6 +210,12 @@ public class LongColumnSerializerV2 implements GenericColumnSerializer<Object>
   {
     SerializerUtils.writeInt(channel, Ints.checkedCast(writer.getSerializedSize()));
     writer.writeTo(channel, smoosher);
+    if (zoneMapWriter != null) {
+      zoneMapWriter.writeTo(channel);
+    }
+    if (bitSlicedIndexWriter != null) {
+      bitSlicedIndexWriter.writeTo(channel);
+    }
     if (!nullRowsBitmap.isEmpty()) {
       nullValueBitmapWriter.writeTo(channel, smoosher);
     }
@@ -29,13 +29,18 @@ public class LongDimensionMergerV9 extends NumericDimensionMergerV9
 
   LongDimensionMergerV9(String dimensionName, IndexSpec indexSpec, SegmentWriteOutMedium segmentWriteOutMedium)
   {
-    super(dimensionName, indexSpec, segmentWriteOutMedium);
+    super(dimensionName, indexSpec, segmentWriteOutMedium, ValueType.LONG);
   }
 
   @Override
   GenericColumnSerializer setupEncodedValueWriter()
   {
-    return IndexMergerV9.createLongColumnSerializer(segmentWriteOutMedium, dimensionName, indexSpec);
+    return IndexMergerV9.createLongColumnSerializer(
+        segmentWriteOutMedium,
+        dimensionName,
+        indexSpec,
+        IndexMergerV9.hasNumericBitmapIndexes(indexSpec)
+    );
   }
 
   @Override
@@ -43,7 +48,11 @@ public class LongDimensionMergerV9 extends NumericDimensionMergerV9
   {
     final ColumnDescriptor.Builder builder = ColumnDescriptor.builder();
     builder.setValueType(ValueType.LONG);
-    ColumnPartSerde serde = IndexMergerV9.createLongColumnPartSerde(serializer, indexSpec);
+    ColumnPartSerde serde = IndexMergerV9.createLongColumnPartSerde(
+        serializer,
+        indexSpec,
+        IndexMergerV9.hasNumericBitmapIndexes(indexSpec)
+    );
     builder.addSerde(serde);
     return builder.build();
   }
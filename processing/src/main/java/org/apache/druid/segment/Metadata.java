@@ -19,11 +19,14 @@
 
 package org.apache.druid.segment;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.apache.druid.data.input.impl.TimestampSpec;
 import org.apache.druid.guice.annotations.PublicApi;
 import org.apache.druid.java.util.common.granularity.Granularity;
 import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.segment.column.ColumnStats;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -50,13 +53,29 @@ public class Metadata
   private final Granularity queryGranularity;
   @Nullable
   private final Boolean rollup;
+  // computed when the segment is built if IndexSpec#getColumnStats is set, and not carried over when merging
+  @Nullable
+  private final Map<String, ColumnStats> columnStats;
+
+  public Metadata(
+      @Nullable Map<String, Object> container,
+      @Nullable AggregatorFactory[] aggregators,
+      @Nullable TimestampSpec timestampSpec,
+      @Nullable Granularity queryGranularity,
+      @Nullable Boolean rollup
+  )
+  {
+    this(container, aggregators, timestampSpec, queryGranularity, rollup, null);
+  }
 
+  @JsonCreator
   public Metadata(
       @JsonProperty("container") @Nullable Map<String, Object> container,
       @JsonProperty("aggregators") @Nullable AggregatorFactory[] aggregators,
       @JsonProperty("timestampSpec") @Nullable TimestampSpec timestampSpec,
       @JsonProperty("queryGranularity") @Nullable Granularity queryGranularity,
-      @JsonProperty("rollup") @Nullable Boolean rollup
+      @JsonProperty("rollup") @Nullable Boolean rollup,
+      @JsonProperty("columnStats") @Nullable Map<String, ColumnStats> columnStats
   )
   {
     this.container = container == null ? new ConcurrentHashMap<>() : container;
@@ -64,6 +83,7 @@ public class Metadata
     this.timestampSpec = timestampSpec;
     this.queryGranularity = queryGranularity;
     this.rollup = rollup;
+    this.columnStats = columnStats;
   }
 
   @JsonProperty
@@ -100,6 +120,19 @@ public class Metadata
     return rollup;
   }
 
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @Nullable
+  public Map<String, ColumnStats> getColumnStats()
+  {
+    return columnStats;
+  }
+
+  public Metadata withColumnStats(@Nullable Map<String, ColumnStats> columnStats)
+  {
+    return new Metadata(container, aggregators, timestampSpec, queryGranularity, rollup, columnStats);
+  }
+
   public Metadata putAll(@Nullable Map<String, Object> other)
   {
     if (other != null) {
@@ -220,13 +253,21 @@ public class Metadata
            Arrays.equals(aggregators, metadata.aggregators) &&
            Objects.equals(timestampSpec, metadata.timestampSpec) &&
            Objects.equals(queryGranularity, metadata.queryGranularity) &&
-           Objects.equals(rollup, metadata.rollup);
+           Objects.equals(rollup, metadata.rollup) &&
+           Objects.equals(columnStats, metadata.columnStats);
   }
 
   @Override
   public int hashCode()
   {
-    return Objects.hash(container, Arrays.hashCode(aggregators), timestampSpec, queryGranularity, rollup);
+    return Objects.hash(
+        container,
+        Arrays.hashCode(aggregators),
+        timestampSpec,
+        queryGranularity,
+        rollup,
+        columnStats
+    );
   }
 
   @Override
@@ -238,6 +279,7 @@ public class Metadata
            ", timestampSpec=" + timestampSpec +
            ", queryGranularity=" + queryGranularity +
            ", rollup=" + rollup +
+           ", columnStats=" + columnStats +
            '}';
   }
 }
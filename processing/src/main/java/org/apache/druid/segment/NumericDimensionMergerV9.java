@@ -19,6 +19,8 @@
 
 package org.apache.druid.segment;
 
+import org.apache.druid.segment.column.ColumnStats;
+import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.writeout.SegmentWriteOutMedium;
 
 import javax.annotation.Nullable;
@@ -37,15 +39,20 @@ public abstract class NumericDimensionMergerV9 implements DimensionMergerV9
 
   protected final GenericColumnSerializer serializer;
 
+  @Nullable
+  private final ColumnStatsCollector statsCollector;
+
   NumericDimensionMergerV9(
       String dimensionName,
       IndexSpec indexSpec,
-      SegmentWriteOutMedium segmentWriteOutMedium
+      SegmentWriteOutMedium segmentWriteOutMedium,
+      ValueType type
   )
   {
     this.dimensionName = dimensionName;
     this.indexSpec = indexSpec;
     this.segmentWriteOutMedium = segmentWriteOutMedium;
+    this.statsCollector = Boolean.TRUE.equals(indexSpec.getColumnStats()) ? ColumnStatsCollector.create(type) : null;
 
     try {
       serializer = setupEncodedValueWriter();
@@ -77,6 +84,9 @@ public abstract class NumericDimensionMergerV9 implements DimensionMergerV9
   public final void processMergedRow(ColumnValueSelector selector) throws IOException
   {
     serializer.serialize(selector);
+    if (statsCollector != null) {
+      statsCollector.add(selector);
+    }
   }
 
   @Override
@@ -85,6 +95,13 @@ public abstract class NumericDimensionMergerV9 implements DimensionMergerV9
     // numeric values have no indices to write
   }
 
+  @Nullable
+  @Override
+  public ColumnStats getColumnStats()
+  {
+    return statsCollector == null ? null : statsCollector.getColumnStats();
+  }
+
   @Override
   public boolean hasOnlyNulls()
   {
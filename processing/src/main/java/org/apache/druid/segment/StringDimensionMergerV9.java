@@ -20,6 +20,7 @@
 package org.apache.druid.segment;
 
 import com.google.common.base.Splitter;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.PeekingIterator;
 import org.apache.druid.collections.bitmap.BitmapFactory;
@@ -30,17 +31,22 @@ import org.apache.druid.collections.spatial.split.LinearGutmanSplitStrategy;
 import org.apache.druid.common.config.NullHandling;
 import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.column.ColumnDescriptor;
+import org.apache.druid.segment.column.ColumnStats;
 import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.data.BitmapSerdeFactory;
 import org.apache.druid.segment.data.ByteBufferWriter;
 import org.apache.druid.segment.data.CompressionStrategy;
+import org.apache.druid.segment.data.DictionaryWriter;
 import org.apache.druid.segment.data.GenericIndexed;
 import org.apache.druid.segment.data.ImmutableRTreeObjectStrategy;
 import org.apache.druid.segment.data.Indexed;
+import org.apache.druid.segment.data.IndexedInts;
 import org.apache.druid.segment.data.ListIndexed;
 import org.apache.druid.segment.data.ObjectStrategy;
+import org.apache.druid.segment.data.StringEncodingStrategy;
 import org.apache.druid.segment.serde.DictionaryEncodedColumnPartSerde;
 import org.apache.druid.segment.writeout.SegmentWriteOutMedium;
 
@@ -52,15 +58,41 @@ import java.util.List;
 
 public class StringDimensionMergerV9 extends DictionaryEncodedColumnMerger<String>
 {
+  private static final Logger log = new Logger(StringDimensionMergerV9.class);
   private static final Indexed<String> NULL_STR_DIM_VAL = new ListIndexed<>(Collections.singletonList(null));
   private static final Splitter SPLITTER = Splitter.on(",");
 
   public static final Comparator<Pair<Integer, PeekingIterator<String>>> DICTIONARY_MERGING_COMPARATOR =
       DictionaryMergingIterator.makePeekingComparator();
 
+  /**
+   * Cost model of {@link StringIndexFormat#AUTO} in {@link #chooseIndexFormat()}: the approximate size of the offset and
+   * headers of one bitmap in the index, the size of each row it holds, and the largest index size per row worth
+   * writing. With these, columns with more than about 3 values per 10 rows get a sorted rows index instead.
+   */
+  private static final int BYTES_PER_BITMAP = 20;
+  private static final int BYTES_PER_BITMAP_ROW = 2;
+  private static final int MAX_BITMAP_INDEX_BYTES_PER_ROW = 8;
+
   @Nullable
   private ByteBufferWriter<ImmutableRTree> spatialWriter;
 
+  /**
+   * Minimum and maximum non-null dictionary values, and the number of them, tracked if
+   * {@link IndexSpec#getColumnStats()} is set.
+   */
+  @Nullable
+  private String minValue;
+  @Nullable
+  private String maxValue;
+  private int numNonNullValues = 0;
+
+  /**
+   * Number of multi-value rows that are empty or have a null value, tracked if {@link IndexSpec#getColumnStats()} is
+   * set. {@link #nullRowsBitmap} only has the rows with nothing but nulls.
+   */
+  private long numMultiValueRowsWithNull = 0;
+
   public StringDimensionMergerV9(
       String dimensionName,
       IndexSpec indexSpec,
@@ -97,6 +129,116 @@ public class StringDimensionMergerV9 extends DictionaryEncodedColumnMerger<Strin
     return NullHandling.emptyToNullIfNeeded(value);
   }
 
+  @Override
+  protected void writeDictionary(Iterable<String> dictionaryValues) throws IOException
+  {
+    if (!isColumnStatsEnabled()) {
+      super.writeDictionary(dictionaryValues);
+      return;
+    }
+    super.writeDictionary(
+        () -> Iterators.transform(
+            dictionaryValues.iterator(),
+            value -> {
+              final String coerced = coerceValue(value);
+              if (coerced != null) {
+                if (minValue == null || coerced.compareTo(minValue) < 0) {
+                  minValue = coerced;
+                }
+                if (maxValue == null || coerced.compareTo(maxValue) > 0) {
+                  maxValue = coerced;
+                }
+                numNonNullValues++;
+              }
+              return value;
+            }
+        )
+    );
+  }
+
+  @Override
+  public void processMergedRow(ColumnValueSelector selector) throws IOException
+  {
+    super.processMergedRow(selector);
+    if (isColumnStatsEnabled() && capabilities.hasMultipleValues().isTrue()) {
+      final IndexedInts row = getRow(selector);
+      final int rowSize = row.size();
+      boolean hasNullValue = rowSize == 0;
+      for (int i = 0; i < rowSize && !hasNullValue && firstDictionaryValue == null; i++) {
+        hasNullValue = row.get(i) == 0;
+      }
+      if (hasNullValue) {
+        numMultiValueRowsWithNull++;
+      }
+    }
+  }
+
+  @Nullable
+  @Override
+  public ColumnStats getColumnStats()
+  {
+    if (!isColumnStatsEnabled() || hasOnlyNulls()) {
+      // Columns with only nulls do not process any rows, so their stats are made by IndexMergerV9.
+      return null;
+    }
+    final long nullCount = capabilities.hasMultipleValues().isTrue()
+                           ? numMultiValueRowsWithNull
+                           : nullRowsBitmap.size();
+    return new ColumnStats(ValueType.STRING, minValue, maxValue, nullCount, numNonNullValues);
+  }
+
+  /**
+   * Returns the format of {@link IndexSpec#getDimensionIndexFormat}, which defaults to bitmaps. Columns with spatial
+   * indexes always keep their bitmaps, which the spatial index is built from.
+   *
+   * {@link StringIndexFormat#AUTO} picks {@link StringIndexFormat#SORTED} if the bitmaps are estimated to cost more
+   * than {@link #MAX_BITMAP_INDEX_BYTES_PER_ROW} per row. Each bitmap costs about {@link #BYTES_PER_BITMAP} on top of
+   * {@link #BYTES_PER_BITMAP_ROW} per row it holds, so near-unique columns, such as IDs, get bitmaps several times the
+   * size of their values, each selecting a handful of rows. Sorted rows cost at most 4 bytes per row and value, and
+   * still answer {@code =} filters on such columns quickly, since those match few rows; only filters matching many
+   * rows pay for building their bitmap. The column is never left without an index, which would make every filter on
+   * it scan all rows.
+   */
+  @Override
+  protected StringIndexFormat chooseIndexFormat()
+  {
+    final StringIndexFormat format = indexSpec.getDimensionIndexFormat(dimensionName);
+    if (format == StringIndexFormat.BITMAP || capabilities.hasSpatialIndexes()) {
+      return StringIndexFormat.BITMAP;
+    }
+    if (format != StringIndexFormat.AUTO) {
+      return format;
+    }
+    final long estimatedSize = (long) cardinality * BYTES_PER_BITMAP + (long) rowCount * BYTES_PER_BITMAP_ROW;
+    if (estimatedSize <= (long) rowCount * MAX_BITMAP_INDEX_BYTES_PER_ROW) {
+      return StringIndexFormat.BITMAP;
+    }
+    log.debug(
+        "Writing sorted rows index of dim[%s] with cardinality[%,d] in [%,d] rows.",
+        dimensionName,
+        cardinality,
+        rowCount
+    );
+    return StringIndexFormat.SORTED;
+  }
+
+  private boolean isColumnStatsEnabled()
+  {
+    return Boolean.TRUE.equals(indexSpec.getColumnStats());
+  }
+
+  @Override
+  protected DictionaryWriter<String> makeDictionaryWriter(String fileName)
+  {
+    return getStringDictionaryEncoding().makeDictionaryWriter(segmentWriteOutMedium, fileName, IndexIO.BYTE_ORDER);
+  }
+
+  private StringEncodingStrategy getStringDictionaryEncoding()
+  {
+    final StringEncodingStrategy encoding = indexSpec.getStringDictionaryEncoding();
+    return encoding == null ? StringEncodingStrategy.DEFAULT : encoding;
+  }
+
   @Nullable
   @Override
   protected ExtendedIndexesMerger getExtendedIndexesMerger()
@@ -117,7 +259,7 @@ public class StringDimensionMergerV9 extends DictionaryEncodedColumnMerger<Strin
     builder.setHasMultipleValues(hasMultiValue);
     final DictionaryEncodedColumnPartSerde.SerializerBuilder partBuilder = DictionaryEncodedColumnPartSerde
         .serializerBuilder()
-        .withDictionary(dictionaryWriter)
+        .withDictionary(dictionaryWriter, getStringDictionaryEncoding())
         .withValue(
             encodedValueSerializer,
             hasMultiValue,
@@ -125,6 +267,7 @@ public class StringDimensionMergerV9 extends DictionaryEncodedColumnMerger<Strin
         )
         .withBitmapSerdeFactory(bitmapSerdeFactory)
         .withBitmapIndex(bitmapWriter)
+        .withSortedRowsIndex(sortedRowsWriter)
         .withSpatialIndex(spatialWriter)
         .withByteOrder(IndexIO.BYTE_ORDER);
 
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.apache.druid.java.util.common.StringUtils;
+
+/**
+ * Format of the index of a string dimension column, specified per column by
+ * {@link IndexSpec#getDimensionIndexFormats()}.
+ */
+public enum StringIndexFormat
+{
+  /**
+   * A bitmap of the rows of each value. Filters read the bitmaps of the values they match, which is fast whatever the
+   * number of rows they match, but each value costs a bitmap, which adds up for columns with many values.
+   */
+  BITMAP,
+
+  /**
+   * The rows of each value in turn, sorted by value, as written by
+   * {@link org.apache.druid.segment.data.SortedRowsIndexSerializer}. This costs a few bytes per row whatever the number
+   * of values, so it is much smaller than {@link #BITMAP} for columns with nearly as many values as rows. All filters
+   * that can use bitmap indexes can use it, but the bitmap of the values a filter matches is built when the query
+   * runs, at a cost per matching row, so filters matching many rows are slower than with {@link #BITMAP}. Segments
+   * with it cannot be read by versions of Druid that do not know it.
+   */
+  SORTED,
+
+  /**
+   * No index. Filters on the column read its values from every row.
+   */
+  NONE,
+
+  /**
+   * {@link #SORTED} if the bitmaps of the column are estimated to cost more than they are worth for its cardinality,
+   * {@link #BITMAP} otherwise. The column always keeps an index, so that filters matching few rows, such as
+   * {@code =} filters on near-unique columns, stay fast.
+   */
+  AUTO;
+
+  @JsonValue
+  @Override
+  public String toString()
+  {
+    return StringUtils.toLowerCase(this.name());
+  }
+
+  @JsonCreator
+  public static StringIndexFormat fromString(String name)
+  {
+    return valueOf(StringUtils.toUpperCase(name));
+  }
+}
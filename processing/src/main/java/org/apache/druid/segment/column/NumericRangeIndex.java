@@ -32,7 +32,11 @@ public interface NumericRangeIndex
    * Get a {@link BitmapColumnIndex} corresponding to the values supplied in the specified range. If supplied starting
    * value is null, the range will begin at the first non-null value in the underlying value dictionary. If the end
    * value is null, the range will extend to the last value in the underlying value dictionary.
+   *
+   * Returns null if the index cannot help with this range, in which case callers should fall back to another index or
+   * to matching each row.
    */
+  @Nullable
   BitmapColumnIndex forRange(
       @Nullable Number startValue,
       boolean startStrict,
@@ -79,7 +79,7 @@ public class BlockLayoutColumnarDoublesSupplier implements Supplier<ColumnarDoub
 
   private class BlockLayoutColumnarDoubles implements ColumnarDoubles
   {
-    final Indexed<ResourceHolder<ByteBuffer>> singleThreadedDoubleBuffers = baseDoubleBuffers.singleThreaded();
+    final GenericIndexed<ResourceHolder<ByteBuffer>>.BufferIndexed singleThreadedDoubleBuffers = baseDoubleBuffers.singleThreaded();
 
     int currBufferNum = -1;
     ResourceHolder<ByteBuffer> holder;
@@ -171,6 +171,7 @@ public class BlockLayoutColumnarDoublesSupplier implements Supplier<ColumnarDoub
         holder.close();
       }
       holder = singleThreadedDoubleBuffers.get(bufferNum);
+      singleThreadedDoubleBuffers.blockLoaded(bufferNum);
       // asDoubleBuffer() makes the doubleBuffer's position = 0
       doubleBuffer = holder.get().asDoubleBuffer();
       currBufferNum = bufferNum;
@@ -179,6 +180,7 @@ public class BlockLayoutColumnarDoublesSupplier implements Supplier<ColumnarDoub
     @Override
     public void close()
     {
+      singleThreadedDoubleBuffers.stopPrefetching();
       if (holder != null) {
         holder.close();
       }
@@ -79,7 +79,7 @@ public class BlockLayoutColumnarFloatsSupplier implements Supplier<ColumnarFloat
 
   private class BlockLayoutColumnarFloats implements ColumnarFloats
   {
-    final Indexed<ResourceHolder<ByteBuffer>> singleThreadedFloatBuffers = baseFloatBuffers.singleThreaded();
+    final GenericIndexed<ResourceHolder<ByteBuffer>>.BufferIndexed singleThreadedFloatBuffers = baseFloatBuffers.singleThreaded();
 
     int currBufferNum = -1;
     ResourceHolder<ByteBuffer> holder;
@@ -171,6 +171,7 @@ public class BlockLayoutColumnarFloatsSupplier implements Supplier<ColumnarFloat
         holder.close();
       }
       holder = singleThreadedFloatBuffers.get(bufferNum);
+      singleThreadedFloatBuffers.blockLoaded(bufferNum);
       // asFloatBuffer() makes the floatBuffer's position = 0
       floatBuffer = holder.get().asFloatBuffer();
       currBufferNum = bufferNum;
@@ -179,6 +180,7 @@ public class BlockLayoutColumnarFloatsSupplier implements Supplier<ColumnarFloat
     @Override
     public void close()
     {
+      singleThreadedFloatBuffers.stopPrefetching();
       if (holder != null) {
         holder.close();
       }
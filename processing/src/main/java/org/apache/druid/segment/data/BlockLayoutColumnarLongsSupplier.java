@@ -86,6 +86,7 @@ public class BlockLayoutColumnarLongsSupplier implements Supplier<ColumnarLongs>
               holder.close();
             }
             holder = singleThreadedLongBuffers.get(bufferNum);
+            singleThreadedLongBuffers.blockLoaded(bufferNum);
             buffer = holder.get();
             // asLongBuffer() makes the longBuffer's position = 0
             longBuffer = buffer.asLongBuffer();
@@ -120,7 +121,7 @@ public class BlockLayoutColumnarLongsSupplier implements Supplier<ColumnarLongs>
   private class BlockLayoutColumnarLongs implements ColumnarLongs
   {
     final CompressionFactory.LongEncodingReader reader = baseReader.duplicate();
-    final Indexed<ResourceHolder<ByteBuffer>> singleThreadedLongBuffers = baseLongBuffers.singleThreaded();
+    final GenericIndexed<ResourceHolder<ByteBuffer>>.BufferIndexed singleThreadedLongBuffers = baseLongBuffers.singleThreaded();
 
     int currBufferNum = -1;
     ResourceHolder<ByteBuffer> holder;
@@ -195,6 +196,7 @@ public class BlockLayoutColumnarLongsSupplier implements Supplier<ColumnarLongs>
         holder.close();
       }
       holder = singleThreadedLongBuffers.get(bufferNum);
+      singleThreadedLongBuffers.blockLoaded(bufferNum);
       buffer = holder.get();
       currBufferNum = bufferNum;
       reader.setBuffer(buffer);
@@ -203,6 +205,7 @@ public class BlockLayoutColumnarLongsSupplier implements Supplier<ColumnarLongs>
     @Override
     public void close()
     {
+      singleThreadedLongBuffers.stopPrefetching();
       if (holder != null) {
         holder.close();
       }
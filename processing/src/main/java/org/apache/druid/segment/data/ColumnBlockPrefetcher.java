@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import org.apache.druid.java.util.common.concurrent.Execs;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Faults in the compressed blocks of a column ahead of a reader that loads them in order. Segments are memory mapped,
+ * so on cold historicals, whose segment files are not in the page cache yet, every block a query loads would
+ * otherwise stall the processing thread on its own page faults.
+ *
+ * Each reader gets its own prefetcher from {@link #create}, and calls {@link #blockLoaded} whenever it loads a block.
+ * While blocks are loaded in order, the next {@link ColumnPrefetchConfig#getNumBlocks()} blocks are faulted in on a
+ * small shared pool, by reading one byte of every page they span. Blocks in heap buffers are already in memory, and
+ * are skipped.
+ *
+ * Readers must {@link #close} their prefetcher when they are closed. Closing waits for running prefetches, and makes
+ * queued ones do nothing, so no page is touched after the reader is done. Readers are closed before the query
+ * releases its reference to the segment, so prefetches never touch a segment after it is unmapped.
+ *
+ * The config is injected using static injection, like {@link org.apache.druid.common.config.NullHandling}, so that it
+ * does not need to be passed to every column supplier; see {@link org.apache.druid.guice.ColumnPrefetchModule}.
+ * Prefetching is disabled until it is injected, or set with {@link #initializeForTests}.
+ */
+public class ColumnBlockPrefetcher implements Closeable
+{
+  private static final ColumnBlockPrefetcher NOOP = new ColumnBlockPrefetcher(0, 0, (startBlock, endBlock) -> {});
+
+  private static final int PAGE_SIZE = 4096;
+  private static final int QUEUE_CAPACITY = 1024;
+
+  /**
+   * Prefetches that waited longer than this are dropped, since the reader has most likely gotten to those blocks
+   * already.
+   */
+  private static final long MAX_QUEUED_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  @Inject
+  @Nullable
+  private static ColumnPrefetchConfig INSTANCE;
+
+  @Nullable
+  private static volatile ExecutorService executor;
+
+  /**
+   * Keeps the reads of {@link #touch} from being optimized away.
+   */
+  @SuppressWarnings("unused")
+  private static volatile int touched;
+
+  private final int numBlocks;
+  private final int numBlocksAhead;
+  private final BlockRange blockRange;
+
+  /**
+   * Held for reading by running prefetches, and for writing by {@link #close}.
+   */
+  private final ReadWriteLock lifetimeLock = new ReentrantReadWriteLock();
+  private boolean closed = false;
+
+  private int lastBlock = -1;
+  private int prefetchedEnd = 0;
+
+  private ColumnBlockPrefetcher(int numBlocks, int numBlocksAhead, BlockRange blockRange)
+  {
+    this.numBlocks = numBlocks;
+    this.numBlocksAhead = numBlocksAhead;
+    this.blockRange = blockRange;
+  }
+
+  @VisibleForTesting
+  public static void initializeForTests(@Nullable ColumnPrefetchConfig config)
+  {
+    INSTANCE = config;
+  }
+
+  /**
+   * Creates a prefetcher for a single reader of a column with the given number of blocks, which prefetches ranges of
+   * blocks with the given {@link BlockRange}. Does nothing if prefetching is disabled.
+   */
+  public static ColumnBlockPrefetcher create(int numBlocks, BlockRange blockRange)
+  {
+    final ColumnPrefetchConfig config = INSTANCE;
+    if (config == null || config.getNumBlocks() == 0 || numBlocks <= 1) {
+      return NOOP;
+    }
+    return new ColumnBlockPrefetcher(numBlocks, config.getNumBlocks(), blockRange);
+  }
+
+  /**
+   * Faults in the pages of the given range of a memory mapped buffer in the background, unless this prefetcher is
+   * closed first. Meant to be called by {@link BlockRange} implementations. The position and limit of the buffer are
+   * ignored, and it may keep being used by the caller.
+   */
+  public void prefetch(ByteBuffer buffer, int startOffset, int endOffset)
+  {
+    if (!buffer.isDirect() || startOffset >= endOffset) {
+      return;
+    }
+
+    final ByteBuffer view = buffer.duplicate();
+    view.clear();
+    final long queuedNanos = System.nanoTime();
+    getExecutor().execute(
+        () -> {
+          // Skip the prefetch if it is stale, or if the reader is closing, rather than wait for it.
+          if (System.nanoTime() - queuedNanos > MAX_QUEUED_NANOS || !lifetimeLock.readLock().tryLock()) {
+            return;
+          }
+          try {
+            if (!closed) {
+              touch(view, startOffset, endOffset);
+            }
+          }
+          finally {
+            lifetimeLock.readLock().unlock();
+          }
+        }
+    );
+  }
+
+  /**
+   * Called by the reader whenever it loads a block. If the block comes right after the previous one, prefetches the
+   * blocks after it, in batches of at least half of {@link ColumnPrefetchConfig#getNumBlocks()} blocks.
+   */
+  public void blockLoaded(int block)
+  {
+    final boolean inOrder = block == lastBlock + 1;
+    lastBlock = block;
+    if (!inOrder) {
+      prefetchedEnd = 0;
+      return;
+    }
+
+    final int start = Math.max(block + 1, prefetchedEnd);
+    final int end = Math.min(numBlocks, block + 1 + numBlocksAhead);
+    if (start < end && (end - start >= Math.max(1, numBlocksAhead / 2) || end == numBlocks)) {
+      blockRange.prefetch(start, end);
+      prefetchedEnd = end;
+    }
+  }
+
+  /**
+   * Stops prefetching, waiting for running prefetches to finish. Prefetches that are still queued do nothing when they
+   * run. Must be called before the buffers that are prefetched from may be unmapped.
+   */
+  @Override
+  public void close()
+  {
+    if (this == NOOP) {
+      return;
+    }
+    lifetimeLock.writeLock().lock();
+    try {
+      closed = true;
+    }
+    finally {
+      lifetimeLock.writeLock().unlock();
+    }
+  }
+
+  private static ExecutorService getExecutor()
+  {
+    ExecutorService exec = executor;
+    if (exec == null) {
+      synchronized (ColumnBlockPrefetcher.class) {
+        exec = executor;
+        if (exec == null) {
+          final ColumnPrefetchConfig config = INSTANCE;
+          final int numThreads = config == null ? ColumnPrefetchConfig.DEFAULT_NUM_THREADS : config.getNumThreads();
+          // Prefetching is only a hint, so drop it rather than block the reader when the pool falls behind.
+          exec = new ThreadPoolExecutor(
+              numThreads,
+              numThreads,
+              0L,
+              TimeUnit.MILLISECONDS,
+              new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+              Execs.makeThreadFactory("ColumnBlockPrefetcher-%d"),
+              new ThreadPoolExecutor.DiscardPolicy()
+          );
+          executor = exec;
+        }
+      }
+    }
+    return exec;
+  }
+
+  private static void touch(ByteBuffer buffer, int startOffset, int endOffset)
+  {
+    int sum = 0;
+    for (int offset = startOffset; offset < endOffset; offset += PAGE_SIZE) {
+      sum += buffer.get(offset);
+    }
+    sum += buffer.get(endOffset - 1);
+    touched = sum;
+  }
+
+  /**
+   * Prefetches a range of blocks of a column, usually by calling {@link #prefetch} of the prefetcher it was created
+   * with, with their byte range.
+   */
+  @FunctionalInterface
+  public interface BlockRange
+  {
+    /**
+     * @param startBlock first block to prefetch
+     * @param endBlock   end of the blocks to prefetch, exclusive
+     */
+    void prefetch(int startBlock, int endBlock);
+  }
+}
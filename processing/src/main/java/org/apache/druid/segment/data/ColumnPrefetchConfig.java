@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nullable;
+
+/**
+ * Configuration of {@link ColumnBlockPrefetcher}, bound to "druid.processing.columnPrefetch".
+ */
+public class ColumnPrefetchConfig
+{
+  public static final int DEFAULT_NUM_THREADS = 2;
+
+  @JsonProperty
+  private final int numBlocks;
+
+  @JsonProperty
+  private final int numThreads;
+
+  @JsonCreator
+  public ColumnPrefetchConfig(
+      @JsonProperty("numBlocks") @Nullable Integer numBlocks,
+      @JsonProperty("numThreads") @Nullable Integer numThreads
+  )
+  {
+    this.numBlocks = numBlocks == null ? 0 : numBlocks;
+    this.numThreads = numThreads == null ? DEFAULT_NUM_THREADS : numThreads;
+    Preconditions.checkArgument(this.numBlocks >= 0, "numBlocks must be non-negative");
+    Preconditions.checkArgument(this.numThreads > 0, "numThreads must be positive");
+  }
+
+  /**
+   * Number of compressed blocks to read ahead of each column reader that reads blocks in order. 0 disables
+   * prefetching.
+   */
+  public int getNumBlocks()
+  {
+    return numBlocks;
+  }
+
+  /**
+   * Number of threads that fault in the blocks, shared by all columns.
+   */
+  public int getNumThreads()
+  {
+    return numThreads;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "ColumnPrefetchConfig{" +
+           "numBlocks=" + numBlocks +
+           ", numThreads=" + numThreads +
+           '}';
+  }
+}
@@ -108,6 +108,7 @@ public final class CompressedBlockReader implements Closeable
 
   private final ByteOrder byteOrder;
   private final Closer closer;
+  private final ColumnBlockPrefetcher prefetcher;
   private int currentBlockNumber = -1;
 
   public CompressedBlockReader(
@@ -131,6 +132,8 @@ public final class CompressedBlockReader implements Closeable
     this.decompressedDataBuffer = decompressedDataBufferHolder.get();
     this.decompressedDataBuffer.clear();
     this.byteOrder = byteOrder;
+    this.prefetcher = ColumnBlockPrefetcher.create(numBlocks, this::prefetchBlocks);
+    closer.register(prefetcher);
   }
 
   /**
@@ -240,6 +243,16 @@ public final class CompressedBlockReader implements Closeable
     decompressedDataBuffer.limit(decompressedDataBuffer.capacity());
 
     currentBlockNumber = block;
+    prefetcher.blockLoaded(block);
+  }
+
+  private void prefetchBlocks(int startBlock, int endBlock)
+  {
+    prefetcher.prefetch(
+        compressedDataBuffer,
+        startBlock == 0 ? 0 : endOffsetsBuffer.get(startBlock - 1),
+        endOffsetsBuffer.get(endBlock - 1)
+    );
   }
 
   @Override
@@ -291,7 +291,7 @@ public class CompressedColumnarIntsSupplier implements WritableSupplier<Columnar
 
   private class CompressedColumnarInts implements ColumnarInts
   {
-    final Indexed<ResourceHolder<ByteBuffer>> singleThreadedIntBuffers = baseIntBuffers.singleThreaded();
+    final GenericIndexed<ResourceHolder<ByteBuffer>>.BufferIndexed singleThreadedIntBuffers = baseIntBuffers.singleThreaded();
 
     int currBufferNum = -1;
     ResourceHolder<ByteBuffer> holder;
@@ -326,6 +326,7 @@ public class CompressedColumnarIntsSupplier implements WritableSupplier<Columnar
         holder.close();
       }
       holder = singleThreadedIntBuffers.get(bufferNum);
+      singleThreadedIntBuffers.blockLoaded(bufferNum);
       // asIntBuffer() makes the buffer's position = 0
       buffer = holder.get().asIntBuffer();
       currBufferNum = bufferNum;
@@ -334,6 +335,7 @@ public class CompressedColumnarIntsSupplier implements WritableSupplier<Columnar
     @Override
     public void close()
     {
+      singleThreadedIntBuffers.stopPrefetching();
       if (holder != null) {
         holder.close();
       }
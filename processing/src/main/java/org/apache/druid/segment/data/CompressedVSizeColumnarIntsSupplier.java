@@ -310,7 +310,7 @@ public class CompressedVSizeColumnarIntsSupplier implements WritableSupplier<Col
 
   private class CompressedVSizeColumnarInts implements ColumnarInts
   {
-    final Indexed<ResourceHolder<ByteBuffer>> singleThreadedBuffers = baseBuffers.singleThreaded();
+    final GenericIndexed<ResourceHolder<ByteBuffer>>.BufferIndexed singleThreadedBuffers = baseBuffers.singleThreaded();
 
     final int div = Integer.numberOfTrailingZeros(sizePer);
     final int rem = sizePer - 1;
@@ -436,6 +436,7 @@ public class CompressedVSizeColumnarIntsSupplier implements WritableSupplier<Col
         holder.close();
       }
       holder = singleThreadedBuffers.get(bufferNum);
+      singleThreadedBuffers.blockLoaded(bufferNum);
       ByteBuffer bb = holder.get();
       ByteOrder byteOrder = bb.order();
       // slice() makes the buffer's position = 0
@@ -447,6 +448,7 @@ public class CompressedVSizeColumnarIntsSupplier implements WritableSupplier<Col
     @Override
     public void close()
     {
+      singleThreadedBuffers.stopPrefetching();
       if (holder != null) {
         holder.close();
       }
@@ -84,6 +84,14 @@ public class CompressionFactory
 
   public static final int MAX_TABLE_SIZE = 256;
 
+  /**
+   * Frame of reference Encoding Header v1:
+   * Byte 1 : version
+   *
+   * Frames, which carry their own headers, are described in {@link FrameOfReferenceLongEncodingWriter}.
+   */
+  public static final byte FOR_ENCODING_VERSION = 0x1;
+
   /*
    * There is no header or version for Longs encoding for backward compatibility
    */
@@ -134,7 +142,12 @@ public class CompressionFactory
     /**
      * LONGS strategy always encode the values using LONGS format
      */
-    LONGS;
+    LONGS,
+
+    /**
+     * FOR strategy always encode the values using FOR format
+     */
+    FOR;
 
     @JsonValue
     @Override
@@ -176,6 +189,20 @@ public class CompressionFactory
         return new TableLongEncodingReader(buffer);
       }
     },
+    /**
+     * FOR (frame of reference) format splits values into frames of
+     * {@link FrameOfReferenceLongEncodingWriter#FRAME_SIZE} values, and stores each value as an offset to the
+     * smallest value of its frame, bit-packed with the minimum number of bits needed by the largest offset of the
+     * frame. Unlike DELTA, the number of bits is not limited to {@link VSizeLongSerde#SUPPORTED_SIZES}, and a few
+     * outliers only widen the frames they are in. Each block holds one frame.
+     */
+    FOR((byte) 0x2) {
+      @Override
+      public LongEncodingReader getReader(ByteBuffer buffer, ByteOrder order)
+      {
+        return new FrameOfReferenceLongEncodingReader(buffer);
+      }
+    },
     /**
      * LONGS format encodes longs as is, using 8 bytes for each value.
      */
@@ -335,12 +362,15 @@ public class CompressionFactory
           order,
           compressionStrategy
       );
-    } else if (encodingStrategy == LongEncodingStrategy.LONGS) {
+    } else if (encodingStrategy == LongEncodingStrategy.LONGS || encodingStrategy == LongEncodingStrategy.FOR) {
+      final LongEncodingWriter writer = encodingStrategy == LongEncodingStrategy.LONGS
+                                        ? new LongsLongEncodingWriter(order)
+                                        : new FrameOfReferenceLongEncodingWriter();
       if (compressionStrategy == CompressionStrategy.NONE) {
         return new EntireLayoutColumnarLongsSerializer(
             columnName,
             segmentWriteOutMedium,
-            new LongsLongEncodingWriter(order)
+            writer
         );
       } else {
         return new BlockLayoutColumnarLongsSerializer(
@@ -348,7 +378,7 @@ public class CompressionFactory
             segmentWriteOutMedium,
             filenameBase,
             order,
-            new LongsLongEncodingWriter(order),
+            writer,
             compressionStrategy
         );
       }
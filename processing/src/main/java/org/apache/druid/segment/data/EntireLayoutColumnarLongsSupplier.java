@@ -41,6 +41,8 @@ public class EntireLayoutColumnarLongsSupplier implements Supplier<ColumnarLongs
 
   private class EntireLayoutColumnarLongs implements ColumnarLongs
   {
+    // Some readers, like FrameOfReferenceLongEncodingReader, keep state between reads.
+    final CompressionFactory.LongEncodingReader reader = EntireLayoutColumnarLongsSupplier.this.reader.duplicate();
 
     @Override
     public int size()
@@ -54,6 +56,18 @@ public class EntireLayoutColumnarLongsSupplier implements Supplier<ColumnarLongs
       return reader.read(index);
     }
 
+    @Override
+    public void get(final long[] out, final int start, final int length)
+    {
+      reader.read(out, 0, start, length);
+    }
+
+    @Override
+    public void get(final long[] out, final int[] indexes, final int length)
+    {
+      reader.read(out, 0, indexes, length, 0, totalSize);
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import org.apache.datasketches.memory.Memory;
+import org.apache.druid.java.util.common.IAE;
+
+import javax.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Reads values written by {@link FrameOfReferenceLongEncodingWriter}. Bulk reads copy the packed words they need out of
+ * the buffer in one call, and then unpack them a word at a time straight into the output array.
+ *
+ * With block compression, each block holds a single frame. Without it, frames follow each other in the column, and
+ * their offsets are found lazily as values are read, since every frame before the last holds
+ * {@link FrameOfReferenceLongEncodingWriter#FRAME_SIZE} values.
+ *
+ * Not thread-safe; use {@link #duplicate()} to get a reader for each thread.
+ */
+public class FrameOfReferenceLongEncodingReader implements CompressionFactory.LongEncodingReader
+{
+  private static final int FRAME_SIZE_MASK = FrameOfReferenceLongEncodingWriter.FRAME_SIZE - 1;
+
+  private ByteBuffer buffer;
+  private Memory memory;
+
+  private long[] frameOffsets = new long[]{0};
+  private int numKnownFrames = 1;
+
+  private int currentFrame = -1;
+  private long currentBase;
+  private int currentBitsPerValue;
+  private long currentDataOffset;
+
+  @Nullable
+  private long[] words = null;
+
+  public FrameOfReferenceLongEncodingReader(ByteBuffer fromBuffer)
+  {
+    final ByteBuffer buffer = fromBuffer.asReadOnlyBuffer();
+    final byte version = buffer.get();
+    if (version != CompressionFactory.FOR_ENCODING_VERSION) {
+      throw new IAE("Unknown version[%s]", version);
+    }
+    fromBuffer.position(buffer.position());
+    setBuffer(buffer);
+  }
+
+  private FrameOfReferenceLongEncodingReader()
+  {
+    // Buffer is set by the caller.
+  }
+
+  @Override
+  public void setBuffer(ByteBuffer buffer)
+  {
+    this.buffer = buffer.slice();
+    this.memory = Memory.wrap(this.buffer, ByteOrder.LITTLE_ENDIAN);
+    this.numKnownFrames = 1;
+    this.currentFrame = -1;
+  }
+
+  @Override
+  public long read(int index)
+  {
+    loadFrame(index >>> FrameOfReferenceLongEncodingWriter.FRAME_SIZE_SHIFT);
+    final int indexInFrame = index & FRAME_SIZE_MASK;
+    final int bitsPerValue = currentBitsPerValue;
+
+    if (bitsPerValue == 0) {
+      return currentBase;
+    } else if (bitsPerValue == 64) {
+      return memory.getLong(currentDataOffset + ((long) indexInFrame << 3));
+    }
+
+    final long bitPosition = (long) indexInFrame * bitsPerValue;
+    final long wordOffset = currentDataOffset + ((bitPosition >>> 6) << 3);
+    final int shift = (int) (bitPosition & 63);
+    long value = memory.getLong(wordOffset) >>> shift;
+    if (shift + bitsPerValue > 64) {
+      value |= memory.getLong(wordOffset + Long.BYTES) << (64 - shift);
+    }
+    return currentBase + (value & ((1L << bitsPerValue) - 1));
+  }
+
+  @Override
+  public void read(final long[] out, final int outPosition, final int startIndex, final int length)
+  {
+    int index = startIndex;
+    int position = outPosition;
+    int remaining = length;
+    while (remaining > 0) {
+      loadFrame(index >>> FrameOfReferenceLongEncodingWriter.FRAME_SIZE_SHIFT);
+      final int indexInFrame = index & FRAME_SIZE_MASK;
+      final int numToRead = Math.min(remaining, FrameOfReferenceLongEncodingWriter.FRAME_SIZE - indexInFrame);
+      unpack(out, position, indexInFrame, numToRead);
+      index += numToRead;
+      position += numToRead;
+      remaining -= numToRead;
+    }
+  }
+
+  @Override
+  public int read(long[] out, int outPosition, int[] indexes, int length, int indexOffset, int limit)
+  {
+    for (int i = 0; i < length; i++) {
+      int index = indexes[outPosition + i] - indexOffset;
+      if (index >= limit) {
+        return i;
+      }
+
+      out[outPosition + i] = read(index);
+    }
+
+    return length;
+  }
+
+  @Override
+  public CompressionFactory.LongEncodingReader duplicate()
+  {
+    final FrameOfReferenceLongEncodingReader reader = new FrameOfReferenceLongEncodingReader();
+    reader.setBuffer(buffer.duplicate());
+    return reader;
+  }
+
+  private void loadFrame(int frame)
+  {
+    if (frame == currentFrame) {
+      return;
+    }
+
+    while (numKnownFrames <= frame) {
+      if (numKnownFrames == frameOffsets.length) {
+        frameOffsets = Arrays.copyOf(frameOffsets, frameOffsets.length * 2);
+      }
+      final long previousOffset = frameOffsets[numKnownFrames - 1];
+      final int previousBitsPerValue = memory.getByte(previousOffset + Long.BYTES) & 0xFF;
+      frameOffsets[numKnownFrames++] = previousOffset + FrameOfReferenceLongEncodingWriter.getFrameSize(
+          previousBitsPerValue,
+          FrameOfReferenceLongEncodingWriter.FRAME_SIZE
+      );
+    }
+
+    final long offset = frameOffsets[frame];
+    currentBase = memory.getLong(offset);
+    currentBitsPerValue = memory.getByte(offset + Long.BYTES) & 0xFF;
+    currentDataOffset = offset + FrameOfReferenceLongEncodingWriter.FRAME_HEADER_SIZE;
+    currentFrame = frame;
+  }
+
+  /**
+   * Unpacks values of the current frame into "out". The words holding those values are copied into {@link #words}
+   * first, so the loop below works on a plain array.
+   */
+  private void unpack(final long[] out, final int outPosition, final int indexInFrame, final int length)
+  {
+    final long base = currentBase;
+    final int bitsPerValue = currentBitsPerValue;
+
+    if (bitsPerValue == 0) {
+      Arrays.fill(out, outPosition, outPosition + length, base);
+      return;
+    } else if (bitsPerValue == 64) {
+      memory.getLongArray(currentDataOffset + ((long) indexInFrame << 3), out, outPosition, length);
+      return;
+    }
+
+    final long firstBit = (long) indexInFrame * bitsPerValue;
+    final long firstWord = firstBit >>> 6;
+    final long lastWord = ((long) (indexInFrame + length) * bitsPerValue - 1) >>> 6;
+    if (words == null) {
+      words = new long[FrameOfReferenceLongEncodingWriter.FRAME_SIZE];
+    }
+    final long[] packed = words;
+    memory.getLongArray(currentDataOffset + (firstWord << 3), packed, 0, (int) (lastWord - firstWord + 1));
+
+    final long mask = (1L << bitsPerValue) - 1;
+    int wordIndex = 0;
+    int shift = (int) (firstBit & 63);
+    for (int i = outPosition, end = outPosition + length; i < end; i++) {
+      long value = packed[wordIndex] >>> shift;
+      final int nextShift = shift + bitsPerValue;
+      if (nextShift > 64) {
+        value |= packed[wordIndex + 1] << (64 - shift);
+      }
+      out[i] = base + (value & mask);
+      if (nextShift >= 64) {
+        wordIndex++;
+        shift = nextShift - 64;
+      } else {
+        shift = nextShift;
+      }
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.segment.writeout.WriteOutBytes;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Writes values in {@link CompressionFactory.LongEncodingFormat#FOR} format. Values are buffered into frames of
+ * {@link #FRAME_SIZE} values, and each frame is written once it is full, or when {@link #flush()} is called.
+ *
+ * Frame format, all little-endian:
+ * Byte 1 - 8 : base value, the minimum of the frame (or 0 if the frame needs all 64 bits)
+ * Byte 9 : number of bits per value
+ * Rest : offsets from the base value, packed LSB-first into 8-byte words
+ */
+public class FrameOfReferenceLongEncodingWriter implements CompressionFactory.LongEncodingWriter
+{
+  static final int FRAME_SIZE_SHIFT = 12;
+  static final int FRAME_SIZE = 1 << FRAME_SIZE_SHIFT;
+  static final int FRAME_HEADER_SIZE = Long.BYTES + 1;
+
+  private final long[] values = new long[FRAME_SIZE];
+  private final ByteBuffer frameBuffer =
+      ByteBuffer.allocate(getFrameSize(64, FRAME_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+  private int numValues = 0;
+
+  @Nullable
+  private ByteBuffer outBuffer = null;
+  @Nullable
+  private WriteOutBytes outStream = null;
+
+  @Override
+  public void setBuffer(ByteBuffer buffer)
+  {
+    outStream = null;
+    outBuffer = buffer;
+  }
+
+  @Override
+  public void setOutputStream(WriteOutBytes output)
+  {
+    outBuffer = null;
+    outStream = output;
+  }
+
+  @Override
+  public void write(long value) throws IOException
+  {
+    values[numValues++] = value;
+    if (numValues == FRAME_SIZE) {
+      writeFrame();
+    }
+  }
+
+  @Override
+  public void flush() throws IOException
+  {
+    if (numValues > 0) {
+      writeFrame();
+    }
+  }
+
+  @Override
+  public void putMeta(ByteBuffer metaOut, CompressionStrategy strategy)
+  {
+    metaOut.put(CompressionFactory.setEncodingFlag(strategy.getId()));
+    metaOut.put(CompressionFactory.LongEncodingFormat.FOR.getId());
+    metaOut.put(CompressionFactory.FOR_ENCODING_VERSION);
+  }
+
+  @Override
+  public int metaSize()
+  {
+    return 1 + 1 + 1;
+  }
+
+  /**
+   * Blocks always hold exactly one frame, so that readers can decode a block without looking for frame boundaries.
+   */
+  @Override
+  public int getBlockSize(int bytesPerBlock)
+  {
+    if (getNumBytes(FRAME_SIZE) > bytesPerBlock) {
+      throw new IAE("Block of [%,d] bytes is too small for a frame of [%,d] values", bytesPerBlock, FRAME_SIZE);
+    }
+    return FRAME_SIZE;
+  }
+
+  @Override
+  public int getNumBytes(int values)
+  {
+    // Worst case, every frame needs all 64 bits.
+    final int numFrames = (values + FRAME_SIZE - 1) >> FRAME_SIZE_SHIFT;
+    return numFrames * FRAME_HEADER_SIZE + values * Long.BYTES;
+  }
+
+  private void writeFrame() throws IOException
+  {
+    long min = values[0];
+    long max = values[0];
+    for (int i = 1; i < numValues; i++) {
+      min = Math.min(min, values[i]);
+      max = Math.max(max, values[i]);
+    }
+
+    // max - min may overflow, but is still correct when treated as unsigned.
+    final int bitsPerValue = 64 - Long.numberOfLeadingZeros(max - min);
+    final long base = bitsPerValue == 64 ? 0 : min;
+
+    frameBuffer.clear();
+    frameBuffer.putLong(base);
+    frameBuffer.put((byte) bitsPerValue);
+    pack(values, numValues, base, bitsPerValue, frameBuffer);
+    frameBuffer.flip();
+
+    if (outBuffer != null) {
+      outBuffer.put(frameBuffer);
+    }
+    if (outStream != null) {
+      outStream.write(frameBuffer);
+    }
+    numValues = 0;
+  }
+
+  static int getFrameSize(int bitsPerValue, int numValues)
+  {
+    return FRAME_HEADER_SIZE + getNumWords(bitsPerValue, numValues) * Long.BYTES;
+  }
+
+  static int getNumWords(int bitsPerValue, int numValues)
+  {
+    return (int) (((long) bitsPerValue * numValues + 63) >>> 6);
+  }
+
+  private static void pack(long[] values, int numValues, long base, int bitsPerValue, ByteBuffer out)
+  {
+    if (bitsPerValue == 0) {
+      return;
+    }
+    if (bitsPerValue == 64) {
+      for (int i = 0; i < numValues; i++) {
+        out.putLong(values[i]);
+      }
+      return;
+    }
+
+    long word = 0;
+    int bitPosition = 0;
+    for (int i = 0; i < numValues; i++) {
+      final long offset = values[i] - base;
+      word |= offset << bitPosition;
+      bitPosition += bitsPerValue;
+      if (bitPosition >= 64) {
+        out.putLong(word);
+        bitPosition -= 64;
+        // Remaining high bits of the offset, if it straddled the word boundary.
+        word = bitPosition == 0 ? 0 : offset >>> (bitsPerValue - bitPosition);
+      }
+    }
+    if (bitPosition > 0) {
+      out.putLong(word);
+    }
+  }
+}
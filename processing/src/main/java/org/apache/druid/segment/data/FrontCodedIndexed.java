@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import com.google.common.base.Preconditions;
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.query.monomorphicprocessing.RuntimeShapeInspector;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+
+/**
+ * {@link Indexed} of unique UTF-8 values, sorted like the Strings they encode, which are "front coded": values are
+ * grouped into buckets of a fixed size, where the first value of each bucket is stored in full, and every other value
+ * of the bucket is stored as the length of the prefix it shares with the first value, followed by the rest of its
+ * bytes. Sorted dictionaries with long shared prefixes, like URLs, take far less space than in {@link GenericIndexed}.
+ *
+ *    | version (byte) | bucket size (byte) | hasNull (byte) | number of values (int) | bucket data length (int) |
+ *    | bucket offsets (int * (number of buckets - 1)) | bucket data |
+ *
+ * The bucket offsets are the starting offsets of every bucket after the first, relative to the start of the bucket
+ * data. Each bucket is then stored as:
+ *
+ *    | first value length (vbyte) | first value | [prefix length (vbyte) | suffix length (vbyte) | suffix] ... |
+ *
+ * with lengths encoded by {@link VByte}. The bucket size is a power of two so the bucket of a dictionary id is found
+ * with a shift. {@link #get} decodes at most "bucket size" values, and {@link #indexOf} binary searches the first
+ * values of the buckets before scanning the one bucket that could contain the value, comparing bytes in place.
+ *
+ * If hasNull is set, id 0 is null, and it is not stored in the buckets. In default value mode, empty strings are
+ * stored as null, as they are by {@link GenericIndexed}.
+ *
+ * Reads use absolute positions on duplicates of the underlying buffer, so instances are thread safe.
+ */
+public final class FrontCodedIndexed implements Indexed<ByteBuffer>
+{
+  public static final byte V0 = 0;
+  public static final int DEFAULT_BUCKET_SIZE = 4;
+  public static final int MAX_BUCKET_SIZE = 128;
+
+  public static FrontCodedIndexed read(ByteBuffer buffer, ByteOrder byteOrder)
+  {
+    final ByteBuffer orderedBuffer = buffer.asReadOnlyBuffer().order(byteOrder);
+    final byte version = orderedBuffer.get();
+    Preconditions.checkState(version == V0, "Unknown version [%s]", version);
+    final int bucketSize = Byte.toUnsignedInt(orderedBuffer.get());
+    final boolean hasNull = orderedBuffer.get() == NullHandling.IS_NULL_BYTE;
+    final int numValues = orderedBuffer.getInt();
+    final int bucketsLength = orderedBuffer.getInt();
+    final int offsetsPosition = orderedBuffer.position();
+    final int numBuckets = getNumBuckets(numValues, bucketSize);
+    final int bucketsPosition = offsetsPosition + Math.max(0, numBuckets - 1) * Integer.BYTES;
+
+    buffer.position(bucketsPosition + bucketsLength);
+
+    return new FrontCodedIndexed(
+        orderedBuffer,
+        bucketSize,
+        hasNull,
+        numValues,
+        numBuckets,
+        offsetsPosition,
+        bucketsPosition
+    );
+  }
+
+  static int getNumBuckets(int numValues, int bucketSize)
+  {
+    return (numValues + bucketSize - 1) / bucketSize;
+  }
+
+  static void validateBucketSize(int bucketSize)
+  {
+    if (bucketSize < 1 || bucketSize > MAX_BUCKET_SIZE || Integer.bitCount(bucketSize) != 1) {
+      throw new IAE("bucketSize must be a power of two between 1 and %s, got [%s]", MAX_BUCKET_SIZE, bucketSize);
+    }
+  }
+
+  private final ByteBuffer buffer;
+  private final int bucketSize;
+  private final int bucketShift;
+  private final int bucketMask;
+  private final boolean hasNull;
+  private final int nullOffset;
+  private final int numValues;
+  private final int numBuckets;
+  private final int offsetsPosition;
+  private final int bucketsPosition;
+
+  private FrontCodedIndexed(
+      ByteBuffer buffer,
+      int bucketSize,
+      boolean hasNull,
+      int numValues,
+      int numBuckets,
+      int offsetsPosition,
+      int bucketsPosition
+  )
+  {
+    validateBucketSize(bucketSize);
+    this.buffer = buffer;
+    this.bucketSize = bucketSize;
+    this.bucketShift = Integer.numberOfTrailingZeros(bucketSize);
+    this.bucketMask = bucketSize - 1;
+    this.hasNull = hasNull;
+    this.nullOffset = hasNull ? 1 : 0;
+    this.numValues = numValues;
+    this.numBuckets = numBuckets;
+    this.offsetsPosition = offsetsPosition;
+    this.bucketsPosition = bucketsPosition;
+  }
+
+  @Override
+  public int size()
+  {
+    return numValues + nullOffset;
+  }
+
+  @Nullable
+  @Override
+  public ByteBuffer get(int index)
+  {
+    if (hasNull && index == 0) {
+      return null;
+    }
+    final int adjustedIndex = index - nullOffset;
+    if (adjustedIndex < 0 || adjustedIndex >= numValues) {
+      throw new IAE("Index[%d] >= size[%d]", index, size());
+    }
+    final ByteBuffer copy = buffer.duplicate();
+    copy.position(getBucketPosition(adjustedIndex >> bucketShift));
+    return getFromBucket(copy, adjustedIndex & bucketMask);
+  }
+
+  @Override
+  public int indexOf(@Nullable ByteBuffer value)
+  {
+    if (value == null || (NullHandling.replaceWithDefault() && !value.hasRemaining())) {
+      return hasNull ? 0 : -1;
+    }
+
+    final ByteBuffer copy = buffer.duplicate();
+
+    // find the last bucket with a first value no greater than the value we are looking for
+    int minBucket = 0;
+    int maxBucket = numBuckets - 1;
+    while (minBucket <= maxBucket) {
+      final int currBucket = (minBucket + maxBucket) >>> 1;
+      copy.position(getBucketPosition(currBucket));
+      final int firstLength = VByte.readInt(copy);
+      final int comparison = compareEntry(copy, copy.position(), firstLength, 0, 0, value);
+      if (comparison == 0) {
+        return (currBucket << bucketShift) + nullOffset;
+      }
+
+      if (comparison < 0) {
+        minBucket = currBucket + 1;
+      } else {
+        maxBucket = currBucket - 1;
+      }
+    }
+
+    if (maxBucket < 0) {
+      return -(nullOffset + 1);
+    }
+
+    // the value can only be in bucket "maxBucket", after its first value
+    final int bucketStart = maxBucket << bucketShift;
+    final int bucketValues = Math.min(bucketSize, numValues - bucketStart);
+    copy.position(getBucketPosition(maxBucket));
+    final int firstLength = VByte.readInt(copy);
+    final int firstPosition = copy.position();
+    copy.position(firstPosition + firstLength);
+    for (int i = 1; i < bucketValues; i++) {
+      final int prefixLength = VByte.readInt(copy);
+      final int suffixLength = VByte.readInt(copy);
+      final int suffixPosition = copy.position();
+      final int comparison = compareEntry(copy, firstPosition, prefixLength, suffixPosition, suffixLength, value);
+      if (comparison == 0) {
+        return bucketStart + i + nullOffset;
+      }
+      if (comparison > 0) {
+        return -(bucketStart + i + nullOffset + 1);
+      }
+      copy.position(suffixPosition + suffixLength);
+    }
+    return -(bucketStart + bucketValues + nullOffset + 1);
+  }
+
+  @Override
+  public Iterator<ByteBuffer> iterator()
+  {
+    return IndexedIterable.create(this).iterator();
+  }
+
+  @Override
+  public void inspectRuntimeShape(RuntimeShapeInspector inspector)
+  {
+    inspector.visit("buffer", buffer);
+    inspector.visit("hasNull", hasNull);
+  }
+
+  private int getBucketPosition(int bucket)
+  {
+    if (bucket == 0) {
+      return bucketsPosition;
+    }
+    return bucketsPosition + buffer.getInt(offsetsPosition + (bucket - 1) * Integer.BYTES);
+  }
+
+  /**
+   * Reads the value at "offset" within the bucket that starts at the position of the buffer. Also used by
+   * {@link FrontCodedIndexedWriter} to read back buckets it has already written.
+   */
+  static ByteBuffer getFromBucket(ByteBuffer bucket, int offset)
+  {
+    final int firstLength = VByte.readInt(bucket);
+    final int firstPosition = bucket.position();
+    if (offset == 0) {
+      bucket.limit(firstPosition + firstLength);
+      return bucket;
+    }
+    bucket.position(firstPosition + firstLength);
+
+    int prefixLength;
+    int suffixLength;
+    int i = 1;
+    while (true) {
+      prefixLength = VByte.readInt(bucket);
+      suffixLength = VByte.readInt(bucket);
+      if (i == offset) {
+        break;
+      }
+      bucket.position(bucket.position() + suffixLength);
+      i++;
+    }
+
+    final ByteBuffer value = ByteBuffer.allocate(prefixLength + suffixLength);
+    for (int j = 0; j < prefixLength; j++) {
+      value.put(bucket.get(firstPosition + j));
+    }
+    bucket.limit(bucket.position() + suffixLength);
+    value.put(bucket);
+    value.flip();
+    return value;
+  }
+
+  /**
+   * Compares the value made of the first "prefixLength" bytes at "prefixPosition" followed by the "suffixLength" bytes
+   * at "suffixPosition" with the remaining bytes of "value", without copying either. Values are compared in the order
+   * of the Strings they encode, which is the order dictionaries are written in, rather than as unsigned bytes.
+   */
+  private static int compareEntry(
+      ByteBuffer buffer,
+      int prefixPosition,
+      int prefixLength,
+      int suffixPosition,
+      int suffixLength,
+      ByteBuffer value
+  )
+  {
+    final int valuePosition = value.position();
+    final int valueLength = value.remaining();
+    final int length = prefixLength + suffixLength;
+    final int commonLength = Math.min(length, valueLength);
+    for (int i = 0; i < commonLength; i++) {
+      final byte b = i < prefixLength ? buffer.get(prefixPosition + i) : buffer.get(suffixPosition + i - prefixLength);
+      final byte valueByte = value.get(valuePosition + i);
+      if (b != valueByte) {
+        return StringUtils.compareUtf8UsingJavaStringOrdering(b, valueByte);
+      }
+    }
+    return Integer.compare(length, valueLength);
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.io.Channels;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.segment.writeout.SegmentWriteOutMedium;
+import org.apache.druid.segment.writeout.WriteOutBytes;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writer for a {@link FrontCodedIndexed}. Values must be unique and written in the order of the Strings they encode,
+ * as string dimension mergers produce them, which for supplementary characters is not unsigned byte order. Values of
+ * the current bucket are kept on heap until the bucket is full.
+ */
+public class FrontCodedIndexedWriter implements DictionaryWriter<byte[]>
+{
+  private static final int HEADER_SIZE = Byte.BYTES + Byte.BYTES + Byte.BYTES + Integer.BYTES + Integer.BYTES;
+
+  private final SegmentWriteOutMedium segmentWriteOutMedium;
+  private final int bucketSize;
+  private final ByteOrder byteOrder;
+  private final byte[][] bucketBuffer;
+  private final ByteBuffer intBuffer;
+
+  @Nullable
+  private WriteOutBytes headerOut = null;
+  @Nullable
+  private WriteOutBytes valuesOut = null;
+  @Nullable
+  private byte[] prevObject = null;
+  private boolean hasNulls = false;
+  private int numWritten = 0;
+  private int numBucketsWritten = 0;
+  private int bucketPosition = 0;
+
+  public FrontCodedIndexedWriter(
+      SegmentWriteOutMedium segmentWriteOutMedium,
+      ByteOrder byteOrder,
+      int bucketSize
+  )
+  {
+    FrontCodedIndexed.validateBucketSize(bucketSize);
+    this.segmentWriteOutMedium = segmentWriteOutMedium;
+    this.bucketSize = bucketSize;
+    this.byteOrder = byteOrder;
+    this.bucketBuffer = new byte[bucketSize][];
+    this.intBuffer = ByteBuffer.allocate(Integer.BYTES).order(byteOrder);
+  }
+
+  @Override
+  public void open() throws IOException
+  {
+    headerOut = segmentWriteOutMedium.makeWriteOutBytes();
+    valuesOut = segmentWriteOutMedium.makeWriteOutBytes();
+  }
+
+  @Override
+  public void write(@Nullable byte[] value) throws IOException
+  {
+    if (value == null || (NullHandling.replaceWithDefault() && value.length == 0)) {
+      if (hasNulls || numWritten > 0) {
+        throw new ISE("Null value must be written first, and only once");
+      }
+      hasNulls = true;
+      return;
+    }
+
+    if (prevObject != null && StringUtils.compareUtf8UsingJavaStringOrdering(prevObject, value) >= 0) {
+      throw new ISE(
+          "Values must be sorted and unique. Element [%s] with value [%s] is before or equivalent to [%s]",
+          numWritten,
+          StringUtils.fromUtf8(value),
+          StringUtils.fromUtf8(prevObject)
+      );
+    }
+
+    if (bucketPosition == bucketSize) {
+      flush();
+    }
+    bucketBuffer[bucketPosition++] = value;
+    numWritten++;
+    prevObject = value;
+  }
+
+  @Nullable
+  @Override
+  public byte[] get(int index) throws IOException
+  {
+    if (hasNulls && index == 0) {
+      return null;
+    }
+    final int adjustedIndex = index - (hasNulls ? 1 : 0);
+    final int bucket = adjustedIndex / bucketSize;
+    final int offset = adjustedIndex % bucketSize;
+    if (bucket == numBucketsWritten) {
+      return bucketBuffer[offset];
+    }
+
+    final long startOffset = bucket == 0 ? 0 : getBucketOffset(bucket - 1);
+    final long endOffset = bucket + 1 < numBucketsWritten ? getBucketOffset(bucket) : valuesOut.size();
+    final ByteBuffer bucketBytes = ByteBuffer.allocate(Math.toIntExact(endOffset - startOffset));
+    valuesOut.readFully(startOffset, bucketBytes);
+    bucketBytes.clear();
+
+    final ByteBuffer value = FrontCodedIndexed.getFromBucket(bucketBytes, offset);
+    final byte[] bytes = new byte[value.remaining()];
+    value.get(bytes);
+    return bytes;
+  }
+
+  @Override
+  public long getSerializedSize() throws IOException
+  {
+    if (bucketPosition > 0) {
+      flush();
+    }
+    return HEADER_SIZE + headerOut.size() + valuesOut.size();
+  }
+
+  @Override
+  public void writeTo(WritableByteChannel channel, FileSmoosher smoosher) throws IOException
+  {
+    if (bucketPosition > 0) {
+      flush();
+    }
+
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(byteOrder);
+    header.put(FrontCodedIndexed.V0);
+    header.put((byte) bucketSize);
+    header.put(hasNulls ? NullHandling.IS_NULL_BYTE : NullHandling.IS_NOT_NULL_BYTE);
+    header.putInt(numWritten);
+    header.putInt(Math.toIntExact(valuesOut.size()));
+    header.flip();
+    Channels.writeFully(channel, header);
+    headerOut.writeTo(channel);
+    valuesOut.writeTo(channel);
+  }
+
+  private long getBucketOffset(int index) throws IOException
+  {
+    intBuffer.clear();
+    headerOut.readFully(index * (long) Integer.BYTES, intBuffer);
+    return intBuffer.getInt(0);
+  }
+
+  private void flush() throws IOException
+  {
+    if (numBucketsWritten > 0) {
+      if (valuesOut.size() > Integer.MAX_VALUE) {
+        throw new ISE("Front coded dictionary is too large, cannot write more than [%,d] bytes", Integer.MAX_VALUE);
+      }
+      intBuffer.clear();
+      intBuffer.putInt((int) valuesOut.size());
+      intBuffer.flip();
+      Channels.writeFully(headerOut, intBuffer);
+    }
+
+    final byte[] first = bucketBuffer[0];
+    int size = VByte.computeIntSize(first.length) + first.length;
+    final int[] prefixLengths = new int[bucketPosition];
+    for (int i = 1; i < bucketPosition; i++) {
+      final byte[] value = bucketBuffer[i];
+      final int prefixLength = getPrefixLength(first, value);
+      final int suffixLength = value.length - prefixLength;
+      prefixLengths[i] = prefixLength;
+      size += VByte.computeIntSize(prefixLength) + VByte.computeIntSize(suffixLength) + suffixLength;
+    }
+
+    final ByteBuffer bucket = ByteBuffer.allocate(size);
+    VByte.writeInt(bucket, first.length);
+    bucket.put(first);
+    for (int i = 1; i < bucketPosition; i++) {
+      final byte[] value = bucketBuffer[i];
+      VByte.writeInt(bucket, prefixLengths[i]);
+      VByte.writeInt(bucket, value.length - prefixLengths[i]);
+      bucket.put(value, prefixLengths[i], value.length - prefixLengths[i]);
+    }
+    bucket.flip();
+    Channels.writeFully(valuesOut, bucket);
+
+    for (int i = 0; i < bucketPosition; i++) {
+      bucketBuffer[i] = null;
+    }
+    bucketPosition = 0;
+    numBucketsWritten++;
+  }
+
+  private static int getPrefixLength(byte[] first, byte[] value)
+  {
+    final int maxLength = Math.min(first.length, value.length);
+    int i = 0;
+    while (i < maxLength && first[i] == value[i]) {
+      i++;
+    }
+    return i;
+  }
+}
@@ -336,6 +336,49 @@ public class GenericIndexed<T> implements CloseableIndexed<T>, Serializer
     return versionOne ? getVersionOne(index) : getVersionTwo(index);
   }
 
+  /**
+   * Like {@link #get(int)}, but returns the serialized value instead of using the {@link ObjectStrategy}, as a
+   * read-only buffer whose position and limit are the start and end of the value, or null for a null value.
+   */
+  @Nullable
+  public ByteBuffer getSerializedValue(int index)
+  {
+    checkIndex(index);
+
+    final ByteBuffer valueBuffer;
+    final int startOffset;
+    final int endOffset;
+    if (versionOne) {
+      valueBuffer = firstValueBuffer;
+      if (index == 0) {
+        startOffset = Integer.BYTES;
+        endOffset = headerBuffer.getInt(0);
+      } else {
+        startOffset = headerBuffer.getInt((index - 1) * Integer.BYTES) + Integer.BYTES;
+        endOffset = headerBuffer.getInt(index * Integer.BYTES);
+      }
+    } else {
+      valueBuffer = valueBuffers[index >> logBaseTwoOfElementsPerValueFile];
+      if ((index & relativeIndexMask) == 0) {
+        startOffset = Integer.BYTES;
+        endOffset = headerBuffer.getInt(index * Integer.BYTES);
+      } else {
+        startOffset = headerBuffer.getInt((index - 1) * Integer.BYTES) + Integer.BYTES;
+        endOffset = headerBuffer.getInt(index * Integer.BYTES);
+      }
+    }
+
+    // same null handling as copyBufferAndGet
+    if (startOffset == endOffset && (NullHandling.replaceWithDefault()
+                                     || valueBuffer.get(startOffset - Integer.BYTES) == NULL_VALUE_SIZE_MARKER)) {
+      return null;
+    }
+    final ByteBuffer serializedValue = valueBuffer.asReadOnlyBuffer();
+    serializedValue.limit(endOffset);
+    serializedValue.position(startOffset);
+    return serializedValue;
+  }
+
   /**
    * Returns the index of "value" in this GenericIndexed object, or (-(insertion point) - 1) if the value is not
    * present, in the manner of Arrays.binarySearch. This strengthens the contract of Indexed, which only guarantees
@@ -462,6 +505,15 @@ public class GenericIndexed<T> implements CloseableIndexed<T>, Serializer
   {
     int lastReadSize;
 
+    /**
+     * Created once blocks are first loaded in order, so that views which are only read at random, or not at all, do
+     * not need one.
+     */
+    @Nullable
+    ColumnBlockPrefetcher prefetcher;
+    private int lastLoadedIndex = -1;
+    private boolean prefetchingStopped;
+
     @Override
     public int size()
     {
@@ -512,6 +564,43 @@ public class GenericIndexed<T> implements CloseableIndexed<T>, Serializer
     @Nullable
     protected abstract ByteBuffer getByteBuffer(int index);
 
+    /**
+     * Called by readers of compressed blocks whenever they load the block at the given index, so that
+     * {@link ColumnBlockPrefetcher} can fault in the blocks after it while they are read in order.
+     */
+    void blockLoaded(int index)
+    {
+      if (prefetcher == null) {
+        if (prefetchingStopped || index != lastLoadedIndex + 1) {
+          lastLoadedIndex = index;
+          return;
+        }
+        prefetcher = ColumnBlockPrefetcher.create(size, this::prefetch);
+        if (lastLoadedIndex >= 0) {
+          // so that the prefetcher sees this load as following the previous one
+          prefetcher.blockLoaded(lastLoadedIndex);
+        }
+      }
+      prefetcher.blockLoaded(index);
+    }
+
+    /**
+     * Stops prefetching for this reader, waiting for running prefetches. Readers of compressed blocks call this when
+     * they are closed, so that nothing is prefetched after the segment may have been unmapped.
+     */
+    void stopPrefetching()
+    {
+      prefetchingStopped = true;
+      if (prefetcher != null) {
+        prefetcher.close();
+      }
+    }
+
+    /**
+     * Faults in the values from startIndex to endIndex (exclusive) in the background.
+     */
+    abstract void prefetch(int startIndex, int endIndex);
+
     /**
      * This method makes no guarantees with respect to thread safety
      *
@@ -702,6 +791,14 @@ public class GenericIndexed<T> implements CloseableIndexed<T>, Serializer
         return bufferedIndexedGetByteBuffer(copyBuffer, startOffset, endOffset);
       }
 
+      @Override
+      void prefetch(int startIndex, int endIndex)
+      {
+        final int startOffset = startIndex == 0 ? 0 : headerBuffer.getInt((startIndex - 1) * Integer.BYTES);
+        final int endOffset = headerBuffer.getInt((endIndex - 1) * Integer.BYTES);
+        prefetcher.prefetch(firstValueBuffer, startOffset, endOffset);
+      }
+
       @Override
       public void inspectRuntimeShape(RuntimeShapeInspector inspector)
       {
@@ -815,6 +912,19 @@ public class GenericIndexed<T> implements CloseableIndexed<T>, Serializer
         return bufferedIndexedGetByteBuffer(copyValueBuffers[fileNum], startOffset, endOffset);
       }
 
+      @Override
+      void prefetch(int startIndex, int endIndex)
+      {
+        // Values past the end of the file of the first value are not prefetched.
+        final int fileNum = startIndex >> logBaseTwoOfElementsPerValueFile;
+        final int fileEndIndex = Math.min(endIndex, (fileNum + 1) << logBaseTwoOfElementsPerValueFile);
+        final int startOffset = (startIndex & relativeIndexMask) == 0
+                                ? 0
+                                : headerBuffer.getInt((startIndex - 1) * Integer.BYTES);
+        final int endOffset = headerBuffer.getInt((fileEndIndex - 1) * Integer.BYTES);
+        prefetcher.prefetch(valueBuffers[fileNum], startOffset, endOffset);
+      }
+
       @Override
       public void inspectRuntimeShape(RuntimeShapeInspector inspector)
       {
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+/**
+ * {@link ColumnarInts} stored as runs of rows with the same value, such as {@link RunLengthEncodedColumnarIntsSupplier}.
+ * Callers can handle a whole run at once instead of reading its rows one by one, for example to turn the runs of the
+ * values a filter matches into row ranges of a bitmap.
+ *
+ * Runs are numbered from 0 and cover rows [{@link #getRunStart}, {@link #getRunEnd}) in order, without gaps.
+ */
+public interface RunLengthColumnarInts extends ColumnarInts
+{
+  int getNumRuns();
+
+  /**
+   * Returns the first row of the given run.
+   */
+  int getRunStart(int run);
+
+  /**
+   * Returns the row after the last row of the given run.
+   */
+  int getRunEnd(int run);
+
+  /**
+   * Returns the value of every row of the given run.
+   */
+  int getRunValue(int run);
+
+  /**
+   * Returns the run that contains the given row.
+   */
+  int findRun(int row);
+}
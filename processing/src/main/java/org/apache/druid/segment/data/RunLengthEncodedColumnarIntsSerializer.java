@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.apache.druid.io.Channels;
+import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.segment.serde.MetaSerdeHelper;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes single-value ints in the format of {@link RunLengthEncodedColumnarIntsSupplier} if that is smaller than the
+ * format of the delegate serializer, and in the format of the delegate otherwise. Readers must check which one was
+ * written with {@link RunLengthEncodedColumnarIntsSupplier#isRunLengthEncoded}.
+ *
+ * Runs are kept in memory until they are written, so once there are more than {@link #MAX_RUNS_BEFORE_CHECK} of them,
+ * this serializer gives up on run-length encoding as soon as the runs take more space than storing each value in as
+ * few bytes as it needs.
+ */
+public class RunLengthEncodedColumnarIntsSerializer extends SingleValueColumnarIntsSerializer
+{
+  private static final MetaSerdeHelper<RunLengthEncodedColumnarIntsSerializer> META_SERDE_HELPER = MetaSerdeHelper
+      .firstWriteByte((RunLengthEncodedColumnarIntsSerializer x) -> RunLengthEncodedColumnarIntsSupplier.VERSION)
+      .writeInt(x -> x.numRows)
+      .writeInt(x -> x.runValues.size());
+
+  private static final int MAX_RUNS_BEFORE_CHECK = 1024;
+
+  private final SingleValueColumnarIntsSerializer delegate;
+  private final int bytesPerValue;
+
+  @Nullable
+  private IntArrayList runEnds = new IntArrayList();
+  @Nullable
+  private IntArrayList runValues = new IntArrayList();
+  private int numRows = 0;
+
+  public RunLengthEncodedColumnarIntsSerializer(SingleValueColumnarIntsSerializer delegate, int maxValue)
+  {
+    this.delegate = delegate;
+    this.bytesPerValue = VSizeColumnarInts.getNumBytesForMax(maxValue);
+  }
+
+  @Override
+  public void open() throws IOException
+  {
+    delegate.open();
+  }
+
+  @Override
+  public void addValue(int val) throws IOException
+  {
+    delegate.addValue(val);
+    numRows++;
+    if (runValues == null) {
+      return;
+    }
+
+    final int lastRun = runValues.size() - 1;
+    if (lastRun >= 0 && runValues.getInt(lastRun) == val) {
+      runEnds.set(lastRun, numRows);
+    } else {
+      runEnds.add(numRows);
+      runValues.add(val);
+      if (runValues.size() > MAX_RUNS_BEFORE_CHECK && getRunsSize() > (long) numRows * bytesPerValue) {
+        runEnds = null;
+        runValues = null;
+      }
+    }
+  }
+
+  /**
+   * Whether the values will be written in the format of {@link RunLengthEncodedColumnarIntsSupplier}.
+   */
+  public boolean isRunLengthEncoded() throws IOException
+  {
+    return runValues != null && getRunLengthEncodedSize() < delegate.getSerializedSize();
+  }
+
+  @Override
+  public long getSerializedSize() throws IOException
+  {
+    return isRunLengthEncoded() ? getRunLengthEncodedSize() : delegate.getSerializedSize();
+  }
+
+  @Override
+  public void writeTo(WritableByteChannel channel, FileSmoosher smoosher) throws IOException
+  {
+    if (!isRunLengthEncoded()) {
+      delegate.writeTo(channel, smoosher);
+      return;
+    }
+
+    META_SERDE_HELPER.writeTo(channel, this);
+    final ByteBuffer runs = ByteBuffer.allocate(getRunsSize()).order(ByteOrder.BIG_ENDIAN);
+    for (int i = 0; i < runEnds.size(); i++) {
+      runs.putInt(runEnds.getInt(i));
+    }
+    for (int i = 0; i < runValues.size(); i++) {
+      runs.putInt(runValues.getInt(i));
+    }
+    runs.flip();
+    Channels.writeFully(channel, runs);
+  }
+
+  private int getRunsSize()
+  {
+    return RunLengthEncodedColumnarIntsSupplier.getRunsSize(runValues.size());
+  }
+
+  private long getRunLengthEncodedSize()
+  {
+    return META_SERDE_HELPER.size(this) + getRunsSize();
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import org.apache.druid.io.Channels;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.query.monomorphicprocessing.RuntimeShapeInspector;
+import org.apache.druid.segment.serde.MetaSerdeHelper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Single-value {@link ColumnarInts} stored as runs of rows with the same value, written by
+ * {@link RunLengthEncodedColumnarIntsSerializer}. This is much smaller than storing every row for columns with long
+ * runs, such as the leading dimensions of segments sorted by them, and lets bulk reads fill whole runs at once. Its
+ * readers are {@link RunLengthColumnarInts}, which also expose the runs themselves.
+ *
+ * Storage format, all big-endian:
+ * Byte 1 : version, {@link #VERSION}
+ * Byte 2 - 5 : number of rows
+ * Byte 6 - 9 : number of runs
+ * End row (exclusive) of each run, 4 bytes each
+ * Value of each run, 4 bytes each
+ */
+public class RunLengthEncodedColumnarIntsSupplier implements WritableSupplier<ColumnarInts>
+{
+  /**
+   * Distinct from the versions of {@link VSizeColumnarInts} and {@link CompressedVSizeColumnarIntsSupplier}, so that
+   * readers of single-value dictionary encoded columns can tell them apart.
+   */
+  public static final byte VERSION = 0x4;
+
+  private static final MetaSerdeHelper<RunLengthEncodedColumnarIntsSupplier> META_SERDE_HELPER = MetaSerdeHelper
+      .firstWriteByte((RunLengthEncodedColumnarIntsSupplier x) -> VERSION)
+      .writeInt(x -> x.numRows)
+      .writeInt(x -> x.numRuns);
+
+  private final int numRows;
+  private final int numRuns;
+  private final ByteBuffer buffer;
+  private final IntBuffer runEnds;
+  private final IntBuffer runValues;
+
+  private RunLengthEncodedColumnarIntsSupplier(int numRows, int numRuns, ByteBuffer buffer)
+  {
+    this.numRows = numRows;
+    this.numRuns = numRuns;
+    this.buffer = buffer;
+    final ByteBuffer ordered = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+    this.runEnds = ordered.asIntBuffer();
+    this.runEnds.limit(numRuns);
+    ordered.position(numRuns * Integer.BYTES);
+    this.runValues = ordered.slice().order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+  }
+
+  public static boolean isRunLengthEncoded(ByteBuffer buffer)
+  {
+    return buffer.get(buffer.position()) == VERSION;
+  }
+
+  public static RunLengthEncodedColumnarIntsSupplier fromByteBuffer(ByteBuffer buffer)
+  {
+    final byte versionFromBuffer = buffer.get();
+    if (versionFromBuffer != VERSION) {
+      throw new IAE("Unknown version[%s]", versionFromBuffer);
+    }
+    final ByteBuffer header = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+    final int numRows = header.getInt();
+    final int numRuns = header.getInt();
+    buffer.position(buffer.position() + 2 * Integer.BYTES);
+
+    final ByteBuffer runs = buffer.asReadOnlyBuffer();
+    runs.limit(runs.position() + getRunsSize(numRuns));
+    buffer.position(runs.limit());
+    return new RunLengthEncodedColumnarIntsSupplier(numRows, numRuns, runs);
+  }
+
+  static int getRunsSize(int numRuns)
+  {
+    return numRuns * 2 * Integer.BYTES;
+  }
+
+  @Override
+  public RunLengthColumnarInts get()
+  {
+    return new RunLengthEncodedColumnarInts();
+  }
+
+  @Override
+  public long getSerializedSize()
+  {
+    return META_SERDE_HELPER.size(this) + buffer.remaining();
+  }
+
+  @Override
+  public void writeTo(WritableByteChannel channel, FileSmoosher smoosher) throws IOException
+  {
+    META_SERDE_HELPER.writeTo(channel, this);
+    Channels.writeFully(channel, buffer.asReadOnlyBuffer());
+  }
+
+  /**
+   * Remembers the run of the last row read, since rows are mostly read in order.
+   */
+  private class RunLengthEncodedColumnarInts implements RunLengthColumnarInts
+  {
+    private int run = -1;
+    private int runStart = 0;
+    private int runEnd = 0;
+    private int runValue;
+
+    @Override
+    public int size()
+    {
+      return numRows;
+    }
+
+    @Override
+    public int get(int index)
+    {
+      if (index < runStart || index >= runEnd) {
+        seek(index);
+      }
+      return runValue;
+    }
+
+    @Override
+    public void get(int[] out, int start, int length)
+    {
+      int position = 0;
+      while (position < length) {
+        final int row = start + position;
+        if (row < runStart || row >= runEnd) {
+          seek(row);
+        }
+        final int count = Math.min(runEnd - row, length - position);
+        Arrays.fill(out, position, position + count, runValue);
+        position += count;
+      }
+    }
+
+    @Override
+    public void get(int[] out, int[] indexes, int length)
+    {
+      for (int i = 0; i < length; i++) {
+        out[i] = get(indexes[i]);
+      }
+    }
+
+    @Override
+    public int getNumRuns()
+    {
+      return numRuns;
+    }
+
+    @Override
+    public int getRunStart(int run)
+    {
+      return run == 0 ? 0 : runEnds.get(run - 1);
+    }
+
+    @Override
+    public int getRunEnd(int run)
+    {
+      return runEnds.get(run);
+    }
+
+    @Override
+    public int getRunValue(int run)
+    {
+      return runValues.get(run);
+    }
+
+    @Override
+    public int findRun(int row)
+    {
+      if (row < 0 || row >= numRows) {
+        throw new IAE("Index[%d] out of bounds for size[%d]", row, numRows);
+      }
+      // Find the first run that ends after the row.
+      int low = 0;
+      int high = numRuns - 1;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (runEnds.get(mid) <= row) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    private void seek(int index)
+    {
+      final int nextRun = run + 1;
+      if (index >= runEnd && nextRun < numRuns && index < runEnds.get(nextRun)) {
+        // Reading in order, and moved on to the next run.
+        run = nextRun;
+      } else {
+        run = findRun(index);
+      }
+      runStart = getRunStart(run);
+      runEnd = getRunEnd(run);
+      runValue = getRunValue(run);
+    }
+
+    @Override
+    public void close()
+    {
+      // Do nothing
+    }
+
+    @Override
+    public void inspectRuntimeShape(RuntimeShapeInspector inspector)
+    {
+      inspector.visit("runEnds", runEnds);
+      inspector.visit("runValues", runValues);
+    }
+  }
+}
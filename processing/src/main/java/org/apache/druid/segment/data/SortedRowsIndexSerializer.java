@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.segment.serde.MetaSerdeHelper;
+import org.apache.druid.segment.serde.Serializer;
+import org.apache.druid.segment.writeout.SegmentWriteOutMedium;
+import org.roaringbitmap.IntIterator;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes the index of a dictionary encoded column in the format of {@link SortedRowsIndexSupplier}: the rows of each
+ * dictionary id in turn, with the offsets where the rows of each id start. Ids must be added in ascending order.
+ */
+public class SortedRowsIndexSerializer implements Serializer
+{
+  private static final MetaSerdeHelper<SortedRowsIndexSerializer> META_SERDE_HELPER = MetaSerdeHelper
+      .firstWriteByte((SortedRowsIndexSerializer x) -> SortedRowsIndexSupplier.VERSION);
+
+  private final VSizeColumnarIntsSerializer offsetsSerializer;
+  private final VSizeColumnarIntsSerializer rowsSerializer;
+  private int numRows = 0;
+
+  /**
+   * @param maxRow    largest row number that will be added
+   * @param maxOffset largest total number of rows that will be added, which is more than the number of rows of the
+   *                  column for multi-value columns
+   */
+  public SortedRowsIndexSerializer(SegmentWriteOutMedium segmentWriteOutMedium, int maxRow, int maxOffset)
+  {
+    this.offsetsSerializer = new VSizeColumnarIntsSerializer(segmentWriteOutMedium, maxOffset);
+    this.rowsSerializer = new VSizeColumnarIntsSerializer(segmentWriteOutMedium, maxRow);
+  }
+
+  public void open() throws IOException
+  {
+    offsetsSerializer.open();
+    rowsSerializer.open();
+    offsetsSerializer.addValue(0);
+  }
+
+  /**
+   * Adds the rows of the next dictionary id.
+   */
+  public void addRows(ImmutableBitmap rows) throws IOException
+  {
+    final IntIterator iterator = rows.iterator();
+    while (iterator.hasNext()) {
+      rowsSerializer.addValue(iterator.next());
+      numRows++;
+    }
+    offsetsSerializer.addValue(numRows);
+  }
+
+  @Override
+  public long getSerializedSize() throws IOException
+  {
+    return META_SERDE_HELPER.size(this) + offsetsSerializer.getSerializedSize() + rowsSerializer.getSerializedSize();
+  }
+
+  @Override
+  public void writeTo(WritableByteChannel channel, FileSmoosher smoosher) throws IOException
+  {
+    META_SERDE_HELPER.writeTo(channel, this);
+    offsetsSerializer.writeTo(channel, smoosher);
+    rowsSerializer.writeTo(channel, smoosher);
+  }
+}
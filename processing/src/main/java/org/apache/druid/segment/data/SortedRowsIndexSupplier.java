@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import org.apache.druid.collections.bitmap.MutableBitmap;
+import org.apache.druid.java.util.common.IAE;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Index of a dictionary encoded column that stores the rows of every dictionary id in turn, sorted by id and then by
+ * row, written by {@link SortedRowsIndexSerializer}. Unlike bitmap indexes, which cost a bitmap per id, this costs a
+ * few bytes per row and per id, so it is much smaller for columns with about as many values as rows. The bitmap of an
+ * id is built by reading its rows, which is cheap for ids with few rows.
+ *
+ * Rows are stored as {@link VSizeColumnarInts} rather than compressed, since rows sorted by value hardly compress,
+ * and so that the rows of any id can be read without decompressing a block. Reads are thread safe.
+ *
+ * Storage format:
+ * Byte 1 : version, {@link #VERSION}
+ * Offset of the first row of each id, and the total number of rows, as {@link VSizeColumnarInts}
+ * Rows of each id in turn, as {@link VSizeColumnarInts}
+ */
+public class SortedRowsIndexSupplier
+{
+  public static final byte VERSION = 0x1;
+
+  private final VSizeColumnarInts offsets;
+  private final VSizeColumnarInts rows;
+
+  private SortedRowsIndexSupplier(VSizeColumnarInts offsets, VSizeColumnarInts rows)
+  {
+    this.offsets = offsets;
+    this.rows = rows;
+  }
+
+  public static SortedRowsIndexSupplier fromByteBuffer(ByteBuffer buffer)
+  {
+    final byte versionFromBuffer = buffer.get();
+    if (versionFromBuffer != VERSION) {
+      throw new IAE("Unknown version[%s]", versionFromBuffer);
+    }
+    final VSizeColumnarInts offsets = VSizeColumnarInts.readFromByteBuffer(buffer);
+    final VSizeColumnarInts rows = VSizeColumnarInts.readFromByteBuffer(buffer);
+    return new SortedRowsIndexSupplier(offsets, rows);
+  }
+
+  public int getNumValues()
+  {
+    return offsets.size() - 1;
+  }
+
+  public int getNumRows(int id)
+  {
+    return offsets.get(id + 1) - offsets.get(id);
+  }
+
+  /**
+   * Adds the rows of the given dictionary id to the given bitmap.
+   */
+  public void addRows(int id, MutableBitmap bitmap)
+  {
+    final int end = offsets.get(id + 1);
+    for (int i = offsets.get(id); i < end; i++) {
+      bitmap.add(rows.get(i));
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.query.monomorphicprocessing.RuntimeShapeInspector;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+
+/**
+ * Adapters between String dictionaries and dictionaries of UTF-8 bytes, like {@link FrontCodedIndexed}, which do not
+ * have an {@link ObjectStrategy} to do this for them.
+ */
+public final class StringEncodingStrategies
+{
+  private StringEncodingStrategies()
+  {
+    // no instantiation
+  }
+
+  /**
+   * {@link DictionaryWriter} of Strings that encodes them as UTF-8 for a {@link DictionaryWriter} of bytes.
+   */
+  public static final class Utf8EncodingDictionaryWriter implements DictionaryWriter<String>
+  {
+    private final DictionaryWriter<byte[]> delegate;
+
+    public Utf8EncodingDictionaryWriter(DictionaryWriter<byte[]> delegate)
+    {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void open() throws IOException
+    {
+      delegate.open();
+    }
+
+    @Override
+    public void write(@Nullable String objectToWrite) throws IOException
+    {
+      delegate.write(StringUtils.toUtf8Nullable(objectToWrite));
+    }
+
+    @Nullable
+    @Override
+    public String get(int dictId) throws IOException
+    {
+      final byte[] bytes = delegate.get(dictId);
+      return bytes == null ? null : StringUtils.fromUtf8(bytes);
+    }
+
+    @Override
+    public long getSerializedSize() throws IOException
+    {
+      return delegate.getSerializedSize();
+    }
+
+    @Override
+    public void writeTo(WritableByteChannel channel, FileSmoosher smoosher) throws IOException
+    {
+      delegate.writeTo(channel, smoosher);
+    }
+  }
+
+  /**
+   * {@link Indexed} of Strings decoded from an {@link Indexed} of UTF-8 bytes, which must be sorted the same way for
+   * {@link #indexOf} to work. Closing it does nothing, since it holds no resources of its own.
+   */
+  public static final class Utf8DecodingIndexed implements CloseableIndexed<String>
+  {
+    private final Indexed<ByteBuffer> delegate;
+
+    public Utf8DecodingIndexed(Indexed<ByteBuffer> delegate)
+    {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public int size()
+    {
+      return delegate.size();
+    }
+
+    @Nullable
+    @Override
+    public String get(int index)
+    {
+      final ByteBuffer value = delegate.get(index);
+      return value == null ? null : StringUtils.fromUtf8(value);
+    }
+
+    @Override
+    public int indexOf(@Nullable String value)
+    {
+      return delegate.indexOf(StringUtils.toUtf8ByteBuffer(value));
+    }
+
+    @Override
+    public Iterator<String> iterator()
+    {
+      return IndexedIterable.create(this).iterator();
+    }
+
+    @Override
+    public void inspectRuntimeShape(RuntimeShapeInspector inspector)
+    {
+      inspector.visit("delegate", delegate);
+    }
+
+    @Override
+    public void close()
+    {
+      // nothing to close
+    }
+  }
+}
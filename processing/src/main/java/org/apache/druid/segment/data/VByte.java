@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Variable byte encoding of non-negative integers, 7 bits per byte, low bits first. The high bit of each byte is set
+ * on the last byte of a value. Small values, like the prefix and suffix lengths of {@link FrontCodedIndexed}, take a
+ * single byte.
+ */
+public final class VByte
+{
+  private VByte()
+  {
+    // no instantiation
+  }
+
+  /**
+   * Reads a value written by {@link #writeInt}, starting at the position of the buffer and advancing it past the value.
+   */
+  public static int readInt(ByteBuffer buffer)
+  {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while (b >= 0);
+    return value;
+  }
+
+  /**
+   * Writes a non-negative value at the position of the buffer, advancing it past the value.
+   *
+   * @return number of bytes written
+   */
+  public static int writeInt(ByteBuffer buffer, int value)
+  {
+    int remaining = value;
+    int size = 1;
+    while (remaining > 0x7F) {
+      buffer.put((byte) (remaining & 0x7F));
+      remaining >>>= 7;
+      size++;
+    }
+    buffer.put((byte) (remaining | 0x80));
+    return size;
+  }
+
+  /**
+   * Number of bytes {@link #writeInt} needs for a non-negative value.
+   */
+  public static int computeIntSize(int value)
+  {
+    if (value < (1 << 7)) {
+      return 1;
+    } else if (value < (1 << 14)) {
+      return 2;
+    } else if (value < (1 << 21)) {
+      return 3;
+    } else if (value < (1 << 28)) {
+      return 4;
+    }
+    return 5;
+  }
+}
@@ -23,7 +23,9 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Doubles;
 import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.common.guava.GuavaUtils;
 import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.query.BitmapResultFactory;
 import org.apache.druid.query.extraction.ExtractionFn;
@@ -103,20 +105,24 @@ public class BoundFilter implements Filter
         return Filters.makeNullIndex(doesMatchNull(), selector);
       }
       final NumericRangeIndex rangeIndex = indexSupplier.as(NumericRangeIndex.class);
-      if (rangeIndex != null) {
-        final Number lower = boundDimFilter.hasLowerBound() ? Double.parseDouble(boundDimFilter.getLower()) : null;
-        final Number upper = boundDimFilter.hasUpperBound() ? Double.parseDouble(boundDimFilter.getUpper()) : null;
+      final Number lower = boundDimFilter.hasLowerBound() ? parseNumericBound(boundDimFilter.getLower()) : null;
+      final Number upper = boundDimFilter.hasUpperBound() ? parseNumericBound(boundDimFilter.getUpper()) : null;
+      final boolean boundsParsed = (lower != null || !boundDimFilter.hasLowerBound())
+                                   && (upper != null || !boundDimFilter.hasUpperBound());
+      if (rangeIndex != null && boundsParsed) {
         final BitmapColumnIndex rangeBitmaps = rangeIndex.forRange(
             lower,
             boundDimFilter.isLowerStrict(),
             upper,
             boundDimFilter.isUpperStrict()
         );
-        // preserve sad backwards compatible behavior where bound filter matches 'null' if the lower bound is not set
-        if (boundDimFilter.hasLowerBound() && !NullHandling.isNullOrEquivalent(boundDimFilter.getLower())) {
-          return rangeBitmaps;
-        } else {
-          return wrapRangeIndexWithNullValueIndex(indexSupplier, rangeBitmaps);
+        if (rangeBitmaps != null) {
+          // preserve sad backwards compatible behavior where bound filter matches 'null' if the lower bound is not set
+          if (boundDimFilter.hasLowerBound() && !NullHandling.isNullOrEquivalent(boundDimFilter.getLower())) {
+            return rangeBitmaps;
+          } else {
+            return wrapRangeIndexWithNullValueIndex(indexSupplier, rangeBitmaps);
+          }
         }
       }
     }
@@ -124,6 +130,20 @@ public class BoundFilter implements Filter
     return Filters.makePredicateIndex(boundDimFilter.getDimension(), selector, getPredicateFactory());
   }
 
+  /**
+   * Parses a numeric bound as a Long if possible, so that range indexes on long columns can compare it exactly, and
+   * otherwise as a Double. Returns null if the bound is not a number.
+   */
+  @Nullable
+  private static Number parseNumericBound(String bound)
+  {
+    final Long longBound = GuavaUtils.tryParseLong(bound);
+    if (longBound != null) {
+      return longBound;
+    }
+    return Doubles.tryParse(bound);
+  }
+
   @Nullable
   private BitmapColumnIndex wrapRangeIndexWithNullValueIndex(
       ColumnIndexSupplier indexSupplier,
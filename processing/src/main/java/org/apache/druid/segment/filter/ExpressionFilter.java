@@ -51,6 +51,8 @@ import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.column.ColumnCapabilitiesImpl;
 import org.apache.druid.segment.column.ColumnType;
 import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.apache.druid.segment.virtual.ExpressionPlan;
+import org.apache.druid.segment.virtual.ExpressionPlanner;
 import org.apache.druid.segment.virtual.ExpressionSelectors;
 import org.apache.druid.segment.virtual.ExpressionVectorSelectors;
 
@@ -75,7 +77,9 @@ public class ExpressionFilter implements Filter
   @Override
   public boolean canVectorizeMatcher(ColumnInspector inspector)
   {
-    return expr.get().canVectorize(inspector);
+    // plan the expression instead of asking it directly, since the planner knows which multi-valued inputs can be
+    // vectorized, which is checked again when making the vector selectors
+    return ExpressionPlanner.plan(inspector, expr.get()).is(ExpressionPlan.Trait.VECTORIZABLE);
   }
 
   @Override
@@ -22,7 +22,9 @@ package org.apache.druid.segment.loading;
 import com.fasterxml.jackson.annotation.JacksonInject;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.druid.java.util.common.io.smoosh.PartCopyListener;
 import org.apache.druid.segment.IndexIO;
+import org.apache.druid.segment.QueryableIndex;
 import org.apache.druid.segment.QueryableIndexSegment;
 import org.apache.druid.segment.Segment;
 import org.apache.druid.segment.SegmentLazyLoadFailCallback;
@@ -59,9 +61,22 @@ public class BroadcastJoinableMMappedQueryableSegmentizerFactory implements Segm
 
   @Override
   public Segment factorize(DataSegment dataSegment, File parentDir, boolean lazy, SegmentLazyLoadFailCallback loadFailed) throws SegmentLoadingException
+  {
+    return factorize(dataSegment, parentDir, lazy, loadFailed, null);
+  }
+
+  @Override
+  public Segment factorize(
+      DataSegment dataSegment,
+      File parentDir,
+      boolean lazy,
+      SegmentLazyLoadFailCallback loadFailed,
+      @Nullable PartCopyListener partCopyListener
+  ) throws SegmentLoadingException
   {
     try {
-      return new QueryableIndexSegment(indexIO.loadIndex(parentDir, lazy, loadFailed), dataSegment.getId()) {
+      final QueryableIndex index = indexIO.loadIndex(parentDir, lazy, loadFailed, partCopyListener);
+      return new QueryableIndexSegment(index, dataSegment.getId()) {
         @Nullable
         @Override
         public <T> T as(Class<T> clazz)
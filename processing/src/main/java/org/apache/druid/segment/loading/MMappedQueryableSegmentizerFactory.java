@@ -21,12 +21,14 @@ package org.apache.druid.segment.loading;
 
 import com.fasterxml.jackson.annotation.JacksonInject;
 import com.google.common.base.Preconditions;
+import org.apache.druid.java.util.common.io.smoosh.PartCopyListener;
 import org.apache.druid.segment.IndexIO;
 import org.apache.druid.segment.QueryableIndexSegment;
 import org.apache.druid.segment.Segment;
 import org.apache.druid.segment.SegmentLazyLoadFailCallback;
 import org.apache.druid.timeline.DataSegment;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 
@@ -44,9 +46,24 @@ public class MMappedQueryableSegmentizerFactory implements SegmentizerFactory
 
   @Override
   public Segment factorize(DataSegment dataSegment, File parentDir, boolean lazy, SegmentLazyLoadFailCallback loadFailed) throws SegmentLoadingException
+  {
+    return factorize(dataSegment, parentDir, lazy, loadFailed, null);
+  }
+
+  @Override
+  public Segment factorize(
+      DataSegment dataSegment,
+      File parentDir,
+      boolean lazy,
+      SegmentLazyLoadFailCallback loadFailed,
+      @Nullable PartCopyListener partCopyListener
+  ) throws SegmentLoadingException
   {
     try {
-      return new QueryableIndexSegment(indexIO.loadIndex(parentDir, lazy, loadFailed), dataSegment.getId());
+      return new QueryableIndexSegment(
+          indexIO.loadIndex(parentDir, lazy, loadFailed, partCopyListener),
+          dataSegment.getId()
+      );
     }
     catch (IOException e) {
       throw new SegmentLoadingException(e, "%s", e.getMessage());
@@ -20,10 +20,12 @@
 package org.apache.druid.segment.loading;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import org.apache.druid.java.util.common.io.smoosh.PartCopyListener;
 import org.apache.druid.segment.Segment;
 import org.apache.druid.segment.SegmentLazyLoadFailCallback;
 import org.apache.druid.timeline.DataSegment;
 
+import javax.annotation.Nullable;
 import java.io.File;
 
 /**
@@ -33,4 +35,20 @@ import java.io.File;
 public interface SegmentizerFactory
 {
   Segment factorize(DataSegment segment, File parentDir, boolean lazy, SegmentLazyLoadFailCallback loadFailed) throws SegmentLoadingException;
+
+  /**
+   * Like {@link #factorize(DataSegment, File, boolean, SegmentLazyLoadFailCallback)}, for segment files that may have
+   * been loaded partially. The given listener, if any, is called for each internal file copied into the directory.
+   * Factories that do not map smooshed files ignore it.
+   */
+  default Segment factorize(
+      DataSegment segment,
+      File parentDir,
+      boolean lazy,
+      SegmentLazyLoadFailCallback loadFailed,
+      @Nullable PartCopyListener partCopyListener
+  ) throws SegmentLoadingException
+  {
+    return factorize(segment, parentDir, lazy, loadFailed);
+  }
 }
@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import org.apache.druid.collections.bitmap.BitmapFactory;
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.data.BitmapSerdeFactory;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bit-sliced bitmap index of a LONG or DOUBLE column, written by {@link BitSlicedIndexWriter}. Each value is stored as
+ * its offset from the smallest value of the column, and there is one bitmap per bit of the largest offset, holding the
+ * rows where that bit is set. {@link #forRange} finds the rows of any range with two passes over the bit slices, so
+ * unlike {@link NumericZoneMap} it is exact, and does not depend on how the rows are sorted.
+ *
+ * Storage format:
+ * Byte 1 : version (currently 0x1)
+ * Byte 2 : type, 0x0 for LONG or 0x1 for DOUBLE
+ * Byte 3 - 6 : number of rows
+ * Byte 7 - 14 : smallest key
+ * Byte 15 - 22 : largest key
+ * Bitmap of the rows that are not null, as a 4 byte size followed by the serialized bitmap
+ * Bitmap of each bit slice, from the lowest bit up, in the same way
+ *
+ * LONG values are their own keys. DOUBLE values are keyed by {@link #toSortableKey}, which orders them like
+ * {@link Double#compare}. If every row is null, both keys are 0.
+ */
+public class BitSlicedIndex
+{
+  static final byte VERSION = 0x1;
+  static final byte TYPE_LONG = 0x0;
+  static final byte TYPE_DOUBLE = 0x1;
+  static final int HEADER_SIZE = 2 + Integer.BYTES + 2 * Long.BYTES;
+
+  /**
+   * Doubles in [-2^53, 2^53] convert to and from longs exactly.
+   */
+  private static final double MAX_EXACT_DOUBLE = 0x1p53;
+
+  private static final long[] EMPTY_RANGE = {Long.MAX_VALUE, Long.MIN_VALUE};
+
+  private final ValueType type;
+  private final int numRows;
+  private final long minKey;
+  private final long maxKey;
+  private final ImmutableBitmap existence;
+  private final ImmutableBitmap[] slices;
+  private final BitmapFactory bitmapFactory;
+
+  private BitSlicedIndex(
+      ValueType type,
+      int numRows,
+      long minKey,
+      long maxKey,
+      ImmutableBitmap existence,
+      ImmutableBitmap[] slices,
+      BitmapFactory bitmapFactory
+  )
+  {
+    this.type = type;
+    this.numRows = numRows;
+    this.minKey = minKey;
+    this.maxKey = maxKey;
+    this.existence = existence;
+    this.slices = slices;
+    this.bitmapFactory = bitmapFactory;
+  }
+
+  /**
+   * Reads an index from the buffer, advancing its position past it. The returned index shares content with the
+   * buffer.
+   */
+  public static BitSlicedIndex read(ByteBuffer buffer, BitmapSerdeFactory bitmapSerdeFactory)
+  {
+    // Indexes are always big-endian, whatever the order of the column values.
+    final ByteBuffer in = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+    final byte version = in.get();
+    if (version != VERSION) {
+      throw new IAE("Unknown version[%s]", version);
+    }
+    final byte typeId = in.get();
+    final ValueType type;
+    if (typeId == TYPE_LONG) {
+      type = ValueType.LONG;
+    } else if (typeId == TYPE_DOUBLE) {
+      type = ValueType.DOUBLE;
+    } else {
+      throw new IAE("Unknown type[%s]", typeId);
+    }
+    final int numRows = in.getInt();
+    final long minKey = in.getLong();
+    final long maxKey = in.getLong();
+
+    final ImmutableBitmap existence = readBitmap(in, bitmapSerdeFactory);
+    final ImmutableBitmap[] slices = new ImmutableBitmap[getNumSlices(minKey, maxKey)];
+    for (int i = 0; i < slices.length; i++) {
+      slices[i] = readBitmap(in, bitmapSerdeFactory);
+    }
+    buffer.position(buffer.position() + in.position());
+    return new BitSlicedIndex(
+        type,
+        numRows,
+        minKey,
+        maxKey,
+        existence,
+        slices,
+        bitmapSerdeFactory.getBitmapFactory()
+    );
+  }
+
+  /**
+   * Maps a double to a long, so that comparing the longs gives the same result as {@link Double#compare}.
+   */
+  public static long toSortableKey(double value)
+  {
+    final long bits = Double.doubleToLongBits(value);
+    return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+  }
+
+  static int getNumSlices(long minKey, long maxKey)
+  {
+    return Long.SIZE - Long.numberOfLeadingZeros(maxKey - minKey);
+  }
+
+  private static ImmutableBitmap readBitmap(ByteBuffer in, BitmapSerdeFactory bitmapSerdeFactory)
+  {
+    // Empty bitmaps are written without any bytes, which not every bitmap type can read back.
+    if (in.getInt(in.position()) == 0) {
+      in.position(in.position() + Integer.BYTES);
+      return bitmapSerdeFactory.getBitmapFactory().makeEmptyImmutableBitmap();
+    }
+    return bitmapSerdeFactory.getObjectStrategy().fromByteBufferWithSize(in);
+  }
+
+  public ValueType getType()
+  {
+    return type;
+  }
+
+  public int getNumRows()
+  {
+    return numRows;
+  }
+
+  /**
+   * Returns the rows with values in the given range, which never include null rows, or null if the bounds cannot be
+   * compared with the values of this column exactly. Arguments are the same as those of
+   * {@link org.apache.druid.segment.column.NumericRangeIndex#forRange}.
+   */
+  @Nullable
+  public ImmutableBitmap forRange(
+      @Nullable Number startValue,
+      boolean startStrict,
+      @Nullable Number endValue,
+      boolean endStrict
+  )
+  {
+    final long[] range = type == ValueType.LONG
+                         ? toLongKeyRange(startValue, startStrict, endValue, endStrict)
+                         : toDoubleKeyRange(startValue, startStrict, endValue, endStrict);
+    if (range == null) {
+      return null;
+    }
+
+    final long start = Math.max(range[0], minKey);
+    final long end = Math.min(range[1], maxKey);
+    if (start > end || existence.isEmpty()) {
+      return bitmapFactory.makeEmptyImmutableBitmap();
+    }
+
+    final ImmutableBitmap upToEnd = end == maxKey ? existence : lessThanOrEqual(end - minKey);
+    if (start == minKey) {
+      return upToEnd;
+    }
+    return upToEnd.intersection(bitmapFactory.complement(lessThanOrEqual(start - 1 - minKey), numRows));
+  }
+
+  /**
+   * Returns the non-null rows whose offset from the smallest key is at most the given offset, walking the bit slices
+   * from the highest bit down. At each bit, "equal" holds the rows that match the offset on all higher bits; rows of
+   * it without a bit that is set in the offset are smaller than the offset, whatever their lower bits.
+   */
+  private ImmutableBitmap lessThanOrEqual(long offset)
+  {
+    final List<ImmutableBitmap> lessThan = new ArrayList<>();
+    ImmutableBitmap equal = existence;
+    for (int i = slices.length - 1; i >= 0 && !equal.isEmpty(); i--) {
+      final ImmutableBitmap notSet = bitmapFactory.complement(slices[i], numRows);
+      if (((offset >>> i) & 1) == 1) {
+        lessThan.add(equal.intersection(notSet));
+        equal = equal.intersection(slices[i]);
+      } else {
+        equal = equal.intersection(notSet);
+      }
+    }
+    lessThan.add(equal);
+    return bitmapFactory.union(lessThan);
+  }
+
+  /**
+   * Converts bounds to an inclusive range of keys of a LONG column, or returns null if they are not all longs or
+   * doubles that can be compared with longs exactly.
+   */
+  @Nullable
+  private static long[] toLongKeyRange(
+      @Nullable Number startValue,
+      boolean startStrict,
+      @Nullable Number endValue,
+      boolean endStrict
+  )
+  {
+    long start = Long.MIN_VALUE;
+    if (startValue instanceof Long || startValue instanceof Integer) {
+      if (startStrict && startValue.longValue() == Long.MAX_VALUE) {
+        return EMPTY_RANGE;
+      }
+      start = startStrict ? startValue.longValue() + 1 : startValue.longValue();
+    } else if (startValue != null) {
+      if (!isUsableDoubleBound(startValue)) {
+        return null;
+      }
+      final double bound = startValue.doubleValue();
+      start = startStrict ? (long) Math.floor(bound) + 1 : (long) Math.ceil(bound);
+    }
+
+    long end = Long.MAX_VALUE;
+    if (endValue instanceof Long || endValue instanceof Integer) {
+      if (endStrict && endValue.longValue() == Long.MIN_VALUE) {
+        return EMPTY_RANGE;
+      }
+      end = endStrict ? endValue.longValue() - 1 : endValue.longValue();
+    } else if (endValue != null) {
+      if (!isUsableDoubleBound(endValue)) {
+        return null;
+      }
+      final double bound = endValue.doubleValue();
+      end = endStrict ? (long) Math.ceil(bound) - 1 : (long) Math.floor(bound);
+    }
+    return new long[]{start, end};
+  }
+
+  /**
+   * Converts bounds to an inclusive range of keys of a DOUBLE column. Bounds are compared as doubles, like
+   * {@link NumericZoneMapIndexSupplier} does.
+   */
+  private static long[] toDoubleKeyRange(
+      @Nullable Number startValue,
+      boolean startStrict,
+      @Nullable Number endValue,
+      boolean endStrict
+  )
+  {
+    long start = Long.MIN_VALUE;
+    if (startValue != null) {
+      start = toSortableKey(startValue.doubleValue());
+      if (startStrict) {
+        if (start == Long.MAX_VALUE) {
+          return EMPTY_RANGE;
+        }
+        start++;
+      }
+    }
+
+    long end = Long.MAX_VALUE;
+    if (endValue != null) {
+      end = toSortableKey(endValue.doubleValue());
+      if (endStrict) {
+        if (end == Long.MIN_VALUE) {
+          return EMPTY_RANGE;
+        }
+        end--;
+      }
+    }
+    return new long[]{start, end};
+  }
+
+  private static boolean isUsableDoubleBound(Number bound)
+  {
+    return bound instanceof Double && Math.abs(bound.doubleValue()) <= MAX_EXACT_DOUBLE;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.query.BitmapResultFactory;
+import org.apache.druid.segment.column.BitmapColumnIndex;
+import org.apache.druid.segment.column.ColumnIndexCapabilities;
+import org.apache.druid.segment.column.ColumnIndexSupplier;
+import org.apache.druid.segment.column.NumericRangeIndex;
+import org.apache.druid.segment.column.SimpleColumnIndexCapabilities;
+
+import javax.annotation.Nullable;
+
+/**
+ * {@link ColumnIndexSupplier} for LONG and DOUBLE columns that have a {@link BitSlicedIndex}. It provides an exact
+ * {@link NumericRangeIndex} using the bit-sliced index, and every other index of the supplier it wraps, such as
+ * {@link NullValueIndexSupplier} or {@link NumericZoneMapIndexSupplier}. Ranges the bit-sliced index cannot compute
+ * exactly are left to the {@link NumericRangeIndex} of the wrapped supplier, if it has one.
+ */
+public class BitSlicedIndexSupplier implements ColumnIndexSupplier
+{
+  private static final ColumnIndexCapabilities EXACT = new SimpleColumnIndexCapabilities(false, true);
+
+  private final BitSlicedIndex index;
+  private final ColumnIndexSupplier delegate;
+
+  public BitSlicedIndexSupplier(BitSlicedIndex index, ColumnIndexSupplier delegate)
+  {
+    this.index = index;
+    this.delegate = delegate;
+  }
+
+  @Nullable
+  @Override
+  public <T> T as(Class<T> clazz)
+  {
+    if (clazz.equals(NumericRangeIndex.class)) {
+      return (T) (NumericRangeIndex) this::forRange;
+    }
+    return delegate.as(clazz);
+  }
+
+  @Nullable
+  private BitmapColumnIndex forRange(
+      @Nullable Number startValue,
+      boolean startStrict,
+      @Nullable Number endValue,
+      boolean endStrict
+  )
+  {
+    final ImmutableBitmap bitmap = index.forRange(startValue, startStrict, endValue, endStrict);
+    if (bitmap == null) {
+      final NumericRangeIndex fallback = delegate.as(NumericRangeIndex.class);
+      return fallback == null ? null : fallback.forRange(startValue, startStrict, endValue, endStrict);
+    }
+
+    return new BitmapColumnIndex()
+    {
+      @Override
+      public ColumnIndexCapabilities getIndexCapabilities()
+      {
+        return EXACT;
+      }
+
+      @Override
+      public double estimateSelectivity(int totalRows)
+      {
+        return Math.min(1, (double) bitmap.size() / totalRows);
+      }
+
+      @Override
+      public <T> T computeBitmapResult(BitmapResultFactory<T> bitmapResultFactory)
+      {
+        return bitmapResultFactory.wrapDimensionValue(bitmap);
+      }
+    };
+  }
+}
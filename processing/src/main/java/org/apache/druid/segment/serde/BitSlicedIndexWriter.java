@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.apache.druid.collections.bitmap.BitmapFactory;
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.collections.bitmap.MutableBitmap;
+import org.apache.druid.io.Channels;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.data.BitmapSerdeFactory;
+import org.apache.druid.segment.data.ObjectStrategy;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Writes a {@link BitSlicedIndex}. Values must be added in row order, with {@link #addLong} for LONG columns,
+ * {@link #addDouble} for DOUBLE columns, and {@link #addNull} for null rows of either. Values are kept in memory until
+ * the index is written, since the bit slices depend on the smallest and largest value.
+ *
+ * This class is unsafe for concurrent use from multiple threads.
+ */
+public class BitSlicedIndexWriter
+{
+  private final ValueType type;
+  private final BitmapSerdeFactory bitmapSerdeFactory;
+  private final LongArrayList keys = new LongArrayList();
+  private final BitSet nullRows = new BitSet();
+
+  private long minKey = Long.MAX_VALUE;
+  private long maxKey = Long.MIN_VALUE;
+
+  /**
+   * Serialized existence bitmap, followed by the serialized bit slices. Built once all values are added.
+   */
+  @Nullable
+  private List<byte[]> bitmaps;
+
+  public BitSlicedIndexWriter(ValueType type, BitmapSerdeFactory bitmapSerdeFactory)
+  {
+    Preconditions.checkArgument(
+        type == ValueType.LONG || type == ValueType.DOUBLE,
+        "Bit-sliced indexes are only supported for LONG and DOUBLE columns"
+    );
+    this.type = type;
+    this.bitmapSerdeFactory = bitmapSerdeFactory;
+  }
+
+  public void addLong(long value)
+  {
+    addKey(value);
+  }
+
+  public void addDouble(double value)
+  {
+    addKey(BitSlicedIndex.toSortableKey(value));
+  }
+
+  public void addNull()
+  {
+    Preconditions.checkState(bitmaps == null, "Index already built");
+    nullRows.set(keys.size());
+    keys.add(0L);
+  }
+
+  public long getSerializedSize()
+  {
+    long size = BitSlicedIndex.HEADER_SIZE;
+    for (byte[] bitmap : getBitmaps()) {
+      size += Integer.BYTES + bitmap.length;
+    }
+    return size;
+  }
+
+  public void writeTo(WritableByteChannel channel) throws IOException
+  {
+    final boolean hasValues = minKey <= maxKey;
+    final ByteBuffer header = ByteBuffer.allocate(BitSlicedIndex.HEADER_SIZE);
+    header.put(BitSlicedIndex.VERSION);
+    header.put(type == ValueType.LONG ? BitSlicedIndex.TYPE_LONG : BitSlicedIndex.TYPE_DOUBLE);
+    header.putInt(keys.size());
+    header.putLong(hasValues ? minKey : 0L);
+    header.putLong(hasValues ? maxKey : 0L);
+    header.flip();
+    Channels.writeFully(channel, header);
+
+    for (byte[] bitmap : getBitmaps()) {
+      final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + bitmap.length);
+      buffer.putInt(bitmap.length);
+      buffer.put(bitmap);
+      buffer.flip();
+      Channels.writeFully(channel, buffer);
+    }
+  }
+
+  private void addKey(long key)
+  {
+    Preconditions.checkState(bitmaps == null, "Index already built");
+    keys.add(key);
+    minKey = Math.min(minKey, key);
+    maxKey = Math.max(maxKey, key);
+  }
+
+  private List<byte[]> getBitmaps()
+  {
+    if (bitmaps != null) {
+      return bitmaps;
+    }
+
+    final BitmapFactory bitmapFactory = bitmapSerdeFactory.getBitmapFactory();
+    final MutableBitmap existence = bitmapFactory.makeEmptyMutableBitmap();
+    final int numSlices = minKey <= maxKey ? BitSlicedIndex.getNumSlices(minKey, maxKey) : 0;
+    final MutableBitmap[] slices = new MutableBitmap[numSlices];
+    for (int i = 0; i < slices.length; i++) {
+      slices[i] = bitmapFactory.makeEmptyMutableBitmap();
+    }
+
+    for (int row = 0; row < keys.size(); row++) {
+      if (!nullRows.get(row)) {
+        existence.add(row);
+        long offset = keys.getLong(row) - minKey;
+        while (offset != 0) {
+          slices[Long.numberOfTrailingZeros(offset)].add(row);
+          offset &= offset - 1;
+        }
+      }
+    }
+
+    final ObjectStrategy<ImmutableBitmap> strategy = bitmapSerdeFactory.getObjectStrategy();
+    bitmaps = new ArrayList<>(slices.length + 1);
+    bitmaps.add(strategy.toBytes(bitmapFactory.makeImmutableBitmap(existence)));
+    for (MutableBitmap slice : slices) {
+      bitmaps.add(strategy.toBytes(bitmapFactory.makeImmutableBitmap(slice)));
+    }
+    return bitmaps;
+  }
+}
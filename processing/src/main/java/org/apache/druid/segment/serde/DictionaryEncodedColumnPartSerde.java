@@ -22,6 +22,7 @@ package org.apache.druid.segment.serde;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
 import com.google.common.primitives.Ints;
 import org.apache.druid.collections.bitmap.ImmutableBitmap;
 import org.apache.druid.collections.spatial.ImmutableRTree;
@@ -34,14 +35,24 @@ import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.data.BitmapSerde;
 import org.apache.druid.segment.data.BitmapSerdeFactory;
 import org.apache.druid.segment.data.ByteBufferWriter;
+import org.apache.druid.segment.data.CachingIndexed;
+import org.apache.druid.segment.data.CloseableIndexed;
 import org.apache.druid.segment.data.ColumnarInts;
 import org.apache.druid.segment.data.ColumnarIntsSerializer;
 import org.apache.druid.segment.data.ColumnarMultiInts;
 import org.apache.druid.segment.data.CompressedVSizeColumnarIntsSupplier;
 import org.apache.druid.segment.data.CompressedVSizeColumnarMultiIntsSupplier;
+import org.apache.druid.segment.data.DictionaryWriter;
+import org.apache.druid.segment.data.FrontCodedIndexed;
 import org.apache.druid.segment.data.GenericIndexed;
 import org.apache.druid.segment.data.GenericIndexedWriter;
 import org.apache.druid.segment.data.ImmutableRTreeObjectStrategy;
+import org.apache.druid.segment.data.Indexed;
+import org.apache.druid.segment.data.RunLengthEncodedColumnarIntsSupplier;
+import org.apache.druid.segment.data.SortedRowsIndexSerializer;
+import org.apache.druid.segment.data.SortedRowsIndexSupplier;
+import org.apache.druid.segment.data.StringEncodingStrategies;
+import org.apache.druid.segment.data.StringEncodingStrategy;
 import org.apache.druid.segment.data.V3CompressedVSizeColumnarMultiIntsSupplier;
 import org.apache.druid.segment.data.VSizeColumnarInts;
 import org.apache.druid.segment.data.VSizeColumnarMultiInts;
@@ -63,7 +74,9 @@ public class DictionaryEncodedColumnPartSerde implements ColumnPartSerde
   {
     MULTI_VALUE,
     MULTI_VALUE_V3,
-    NO_BITMAP_INDEX;
+    NO_BITMAP_INDEX,
+    FRONT_CODED_DICTIONARY,
+    SORTED_ROWS_INDEX;
 
     public boolean isSet(int flags)
     {
@@ -148,7 +161,7 @@ public class DictionaryEncodedColumnPartSerde implements ColumnPartSerde
     @Nullable
     private VERSION version = null;
     @Nullable
-    private GenericIndexedWriter<String> dictionaryWriter = null;
+    private DictionaryWriter<String> dictionaryWriter = null;
     @Nullable
     private ColumnarIntsSerializer valueWriter = null;
     @Nullable
@@ -158,10 +171,26 @@ public class DictionaryEncodedColumnPartSerde implements ColumnPartSerde
     @Nullable
     private ByteBufferWriter<ImmutableRTree> spatialIndexWriter = null;
     @Nullable
+    private SortedRowsIndexSerializer sortedRowsIndexWriter = null;
+    @Nullable
     private ByteOrder byteOrder = null;
 
     public SerializerBuilder withDictionary(GenericIndexedWriter<String> dictionaryWriter)
     {
+      return withDictionary(dictionaryWriter, StringEncodingStrategy.DEFAULT);
+    }
+
+    /**
+     * @param dictionaryWriter writer made by {@link StringEncodingStrategy#makeDictionaryWriter} of "encoding"
+     */
+    public SerializerBuilder withDictionary(DictionaryWriter<String> dictionaryWriter, StringEncodingStrategy encoding)
+    {
+      if (encoding instanceof StringEncodingStrategy.FrontCoded) {
+        flags |= Feature.FRONT_CODED_DICTIONARY.getMask();
+      } else {
+        flags &= ~Feature.FRONT_CODED_DICTIONARY.getMask();
+      }
+
       this.dictionaryWriter = dictionaryWriter;
       return this;
     }
@@ -184,6 +213,21 @@ public class DictionaryEncodedColumnPartSerde implements ColumnPartSerde
       return this;
     }
 
+    /**
+     * Sets the index of a column without bitmap indexes, as the rows of each value in turn.
+     */
+    public SerializerBuilder withSortedRowsIndex(@Nullable SortedRowsIndexSerializer sortedRowsIndexWriter)
+    {
+      if (sortedRowsIndexWriter == null) {
+        flags &= ~Feature.SORTED_ROWS_INDEX.getMask();
+      } else {
+        flags |= Feature.SORTED_ROWS_INDEX.getMask();
+      }
+
+      this.sortedRowsIndexWriter = sortedRowsIndexWriter;
+      return this;
+    }
+
     public SerializerBuilder withSpatialIndex(ByteBufferWriter<ImmutableRTree> spatialIndexWriter)
     {
       this.spatialIndexWriter = spatialIndexWriter;
@@ -245,6 +289,9 @@ public class DictionaryEncodedColumnPartSerde implements ColumnPartSerde
               if (bitmapIndexWriter != null) {
                 size += bitmapIndexWriter.getSerializedSize();
               }
+              if (sortedRowsIndexWriter != null) {
+                size += sortedRowsIndexWriter.getSerializedSize();
+              }
               if (spatialIndexWriter != null) {
                 size += spatialIndexWriter.getSerializedSize();
               }
@@ -267,6 +314,9 @@ public class DictionaryEncodedColumnPartSerde implements ColumnPartSerde
               if (bitmapIndexWriter != null) {
                 bitmapIndexWriter.writeTo(channel, smoosher);
               }
+              if (sortedRowsIndexWriter != null) {
+                sortedRowsIndexWriter.writeTo(channel, smoosher);
+              }
               if (spatialIndexWriter != null) {
                 spatialIndexWriter.writeTo(channel, smoosher);
               }
@@ -305,18 +355,39 @@ public class DictionaryEncodedColumnPartSerde implements ColumnPartSerde
 
         builder.setType(ValueType.STRING);
 
-        // Duplicate the first buffer since we are reading the dictionary twice.
-        final GenericIndexed<String> rDictionary = GenericIndexed.read(
-            buffer.duplicate(),
-            GenericIndexed.STRING_STRATEGY,
-            builder.getFileMapper()
-        );
+        // The column wraps its String dictionary in a cache; indexes and UTF-8 lookups do not.
+        final Supplier<? extends CloseableIndexed<String>> rColumnDictionary;
+        final Supplier<? extends Indexed<String>> rDictionary;
+        final Supplier<? extends Indexed<ByteBuffer>> rDictionaryUtf8;
+
+        if (Feature.FRONT_CODED_DICTIONARY.isSet(rFlags)) {
+          // FrontCodedIndexed is thread safe, so all columns and indexes can share the same instances.
+          final FrontCodedIndexed frontCodedDictionary = FrontCodedIndexed.read(buffer, byteOrder);
+          final StringEncodingStrategies.Utf8DecodingIndexed stringDictionary =
+              new StringEncodingStrategies.Utf8DecodingIndexed(frontCodedDictionary);
+          rColumnDictionary = () -> stringDictionary;
+          rDictionary = () -> stringDictionary;
+          rDictionaryUtf8 = () -> frontCodedDictionary;
+        } else {
+          // Duplicate the first buffer since we are reading the dictionary twice.
+          final GenericIndexed<String> genericDictionary = GenericIndexed.read(
+              buffer.duplicate(),
+              GenericIndexed.STRING_STRATEGY,
+              builder.getFileMapper()
+          );
 
-        final GenericIndexed<ByteBuffer> rDictionaryUtf8 = GenericIndexed.read(
-            buffer,
-            GenericIndexed.BYTE_BUFFER_STRATEGY,
-            builder.getFileMapper()
-        );
+          final GenericIndexed<ByteBuffer> genericDictionaryUtf8 = GenericIndexed.read(
+              buffer,
+              GenericIndexed.BYTE_BUFFER_STRATEGY,
+              builder.getFileMapper()
+          );
+
+          final int lookupCacheSize = columnConfig.columnCacheSizeBytes();
+          rColumnDictionary = () -> new CachingIndexed<>(genericDictionary, lookupCacheSize);
+          // Lambdas rather than method references, since the type singleThreaded() returns is not public.
+          rDictionary = () -> genericDictionary.singleThreaded();
+          rDictionaryUtf8 = () -> genericDictionaryUtf8.singleThreaded();
+        }
 
         final WritableSupplier<ColumnarInts> rSingleValuedColumn;
         final WritableSupplier<ColumnarMultiInts> rMultiValuedColumn;
@@ -329,14 +400,13 @@ public class DictionaryEncodedColumnPartSerde implements ColumnPartSerde
           rMultiValuedColumn = null;
         }
 
-        final String firstDictionaryEntry = rDictionary.get(0);
+        final String firstDictionaryEntry = rDictionary.get().get(0);
 
         DictionaryEncodedColumnSupplier dictionaryEncodedColumnSupplier = new DictionaryEncodedColumnSupplier(
-            rDictionary,
+            rColumnDictionary,
             rDictionaryUtf8,
             rSingleValuedColumn,
-            rMultiValuedColumn,
-            columnConfig.columnCacheSizeBytes()
+            rMultiValuedColumn
         );
 
         builder
@@ -353,6 +423,10 @@ public class DictionaryEncodedColumnPartSerde implements ColumnPartSerde
               builder.getFileMapper()
           );
         }
+        SortedRowsIndexSupplier rSortedRows = null;
+        if (Feature.SORTED_ROWS_INDEX.isSet(rFlags)) {
+          rSortedRows = SortedRowsIndexSupplier.fromByteBuffer(buffer);
+        }
 
         if (buffer.hasRemaining()) {
           rSpatialIndex = new ImmutableRTreeObjectStrategy(
@@ -372,12 +446,41 @@ public class DictionaryEncodedColumnPartSerde implements ColumnPartSerde
               rBitmaps != null,
               rSpatialIndex != null
           );
+        } else if (rSortedRows != null) {
+          // Like bitmaps, gives the bitmap of each value, so report bitmap indexes for merges to read them.
+          builder.setIndexSupplier(
+              new SortedRowsStringIndexSupplier(
+                  bitmapSerdeFactory.getBitmapFactory(),
+                  rDictionary,
+                  rDictionaryUtf8,
+                  rSortedRows
+              ),
+              true,
+              false
+          );
+        } else if (rSingleValuedColumn instanceof RunLengthEncodedColumnarIntsSupplier) {
+          // No bitmaps were written, but filters can still find the rows of each value from the runs.
+          final RunLengthEncodedColumnarIntsSupplier runs = (RunLengthEncodedColumnarIntsSupplier) rSingleValuedColumn;
+          builder.setIndexSupplier(
+              new RunLengthEncodedStringIndexSupplier(
+                  bitmapSerdeFactory.getBitmapFactory(),
+                  rDictionary,
+                  rDictionaryUtf8,
+                  runs::get
+              ),
+              false,
+              false
+          );
         }
       }
 
 
       private WritableSupplier<ColumnarInts> readSingleValuedColumn(VERSION version, ByteBuffer buffer)
       {
+        // Run-length encoded values may be written with any version, and are told apart by their own version byte.
+        if (RunLengthEncodedColumnarIntsSupplier.isRunLengthEncoded(buffer)) {
+          return RunLengthEncodedColumnarIntsSupplier.fromByteBuffer(buffer);
+        }
         switch (version) {
           case UNCOMPRESSED_SINGLE_VALUE:
           case UNCOMPRESSED_WITH_FLAGS:
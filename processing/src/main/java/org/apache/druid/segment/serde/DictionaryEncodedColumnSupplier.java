@@ -23,9 +23,11 @@ import com.google.common.base.Supplier;
 import org.apache.druid.segment.column.DictionaryEncodedColumn;
 import org.apache.druid.segment.column.StringDictionaryEncodedColumn;
 import org.apache.druid.segment.data.CachingIndexed;
+import org.apache.druid.segment.data.CloseableIndexed;
 import org.apache.druid.segment.data.ColumnarInts;
 import org.apache.druid.segment.data.ColumnarMultiInts;
 import org.apache.druid.segment.data.GenericIndexed;
+import org.apache.druid.segment.data.Indexed;
 
 import javax.annotation.Nullable;
 import java.nio.ByteBuffer;
@@ -34,11 +36,10 @@ import java.nio.ByteBuffer;
  */
 public class DictionaryEncodedColumnSupplier implements Supplier<DictionaryEncodedColumn<?>>
 {
-  private final GenericIndexed<String> dictionary;
-  private final GenericIndexed<ByteBuffer> dictionaryUtf8;
+  private final Supplier<? extends CloseableIndexed<String>> dictionarySupplier;
+  private final Supplier<? extends Indexed<ByteBuffer>> dictionaryUtf8Supplier;
   private final @Nullable Supplier<ColumnarInts> singleValuedColumn;
   private final @Nullable Supplier<ColumnarMultiInts> multiValuedColumn;
-  private final int lookupCacheSize;
 
   public DictionaryEncodedColumnSupplier(
       GenericIndexed<String> dictionary,
@@ -48,11 +49,30 @@ public class DictionaryEncodedColumnSupplier implements Supplier<DictionaryEncod
       int lookupCacheSize
   )
   {
-    this.dictionary = dictionary;
-    this.dictionaryUtf8 = dictionaryUtf8;
+    this(
+        () -> new CachingIndexed<>(dictionary, lookupCacheSize),
+        () -> dictionaryUtf8.singleThreaded(),
+        singleValuedColumn,
+        multiValuedColumn
+    );
+  }
+
+  /**
+   * @param dictionarySupplier     supplies the dictionary of each column, which is only used by one thread at a time
+   * @param dictionaryUtf8Supplier supplies the UTF-8 dictionary of each column, which is only used by one thread at a
+   *                               time
+   */
+  public DictionaryEncodedColumnSupplier(
+      Supplier<? extends CloseableIndexed<String>> dictionarySupplier,
+      Supplier<? extends Indexed<ByteBuffer>> dictionaryUtf8Supplier,
+      @Nullable Supplier<ColumnarInts> singleValuedColumn,
+      @Nullable Supplier<ColumnarMultiInts> multiValuedColumn
+  )
+  {
+    this.dictionarySupplier = dictionarySupplier;
+    this.dictionaryUtf8Supplier = dictionaryUtf8Supplier;
     this.singleValuedColumn = singleValuedColumn;
     this.multiValuedColumn = multiValuedColumn;
-    this.lookupCacheSize = lookupCacheSize;
   }
 
   @Override
@@ -61,8 +81,8 @@ public class DictionaryEncodedColumnSupplier implements Supplier<DictionaryEncod
     return new StringDictionaryEncodedColumn(
         singleValuedColumn != null ? singleValuedColumn.get() : null,
         multiValuedColumn != null ? multiValuedColumn.get() : null,
-        new CachingIndexed<>(dictionary, lookupCacheSize),
-        dictionaryUtf8.singleThreaded()
+        dictionarySupplier.get(),
+        dictionaryUtf8Supplier.get()
     );
   }
 }
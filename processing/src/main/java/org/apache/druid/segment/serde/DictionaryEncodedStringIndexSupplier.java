@@ -20,12 +20,14 @@
 package org.apache.druid.segment.serde;
 
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
 import com.google.common.collect.Iterables;
 import it.unimi.dsi.fastutil.ints.IntIntImmutablePair;
 import it.unimi.dsi.fastutil.ints.IntIntPair;
 import it.unimi.dsi.fastutil.ints.IntIterator;
 import org.apache.druid.collections.bitmap.BitmapFactory;
 import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.collections.bitmap.SerializedBitmapIterable;
 import org.apache.druid.collections.spatial.ImmutableRTree;
 import org.apache.druid.common.config.NullHandling;
 import org.apache.druid.java.util.common.StringUtils;
@@ -57,8 +59,8 @@ import java.util.SortedSet;
 public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
 {
   private final BitmapFactory bitmapFactory;
-  private final GenericIndexed<String> dictionary;
-  private final GenericIndexed<ByteBuffer> dictionaryUtf8;
+  private final Supplier<? extends Indexed<String>> dictionarySupplier;
+  private final Supplier<? extends Indexed<ByteBuffer>> dictionaryUtf8Supplier;
   @Nullable
   private final GenericIndexed<ImmutableBitmap> bitmaps;
   @Nullable
@@ -71,10 +73,27 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
       @Nullable GenericIndexed<ImmutableBitmap> bitmaps,
       @Nullable ImmutableRTree indexedTree
   )
+  {
+    this(bitmapFactory, () -> dictionary.singleThreaded(), () -> dictionaryUtf8.singleThreaded(), bitmaps, indexedTree);
+  }
+
+  /**
+   * @param dictionarySupplier     supplies the dictionary of each index, which is only used by one thread at a time
+   * @param dictionaryUtf8Supplier supplies the UTF-8 dictionary of each index, which is only used by one thread at a
+   *                               time. Its {@link Indexed#indexOf} must return (-(insertion point) - 1) for values that
+   *                               are not present, like {@link GenericIndexed#indexOf} does.
+   */
+  public DictionaryEncodedStringIndexSupplier(
+      BitmapFactory bitmapFactory,
+      Supplier<? extends Indexed<String>> dictionarySupplier,
+      Supplier<? extends Indexed<ByteBuffer>> dictionaryUtf8Supplier,
+      @Nullable GenericIndexed<ImmutableBitmap> bitmaps,
+      @Nullable ImmutableRTree indexedTree
+  )
   {
     this.bitmapFactory = bitmapFactory;
-    this.dictionary = dictionary;
-    this.dictionaryUtf8 = dictionaryUtf8;
+    this.dictionarySupplier = dictionarySupplier;
+    this.dictionaryUtf8Supplier = dictionaryUtf8Supplier;
     this.bitmaps = bitmaps;
     this.indexedTree = indexedTree;
   }
@@ -87,27 +106,44 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
     if (bitmaps != null) {
       if (clazz.equals(NullValueIndex.class)) {
         final BitmapColumnIndex nullIndex;
-        if (NullHandling.isNullOrEquivalent(dictionary.get(0))) {
+        if (NullHandling.isNullOrEquivalent(dictionarySupplier.get().get(0))) {
           nullIndex = new SimpleImmutableBitmapIndex(bitmaps.get(0));
         } else {
           nullIndex = new SimpleImmutableBitmapIndex(bitmapFactory.makeEmptyImmutableBitmap());
         }
         return (T) (NullValueIndex) () -> nullIndex;
       } else if (clazz.equals(StringValueSetIndex.class)) {
-        return (T) new GenericIndexedDictionaryEncodedStringValueSetIndex(bitmapFactory, dictionaryUtf8, bitmaps);
+        return (T) new GenericIndexedDictionaryEncodedStringValueSetIndex(
+            bitmapFactory,
+            dictionaryUtf8Supplier.get(),
+            bitmaps
+        );
       } else if (clazz.equals(Utf8ValueSetIndex.class)) {
-        return (T) new GenericIndexedDictionaryEncodedStringValueSetIndex(bitmapFactory, dictionaryUtf8, bitmaps);
+        return (T) new GenericIndexedDictionaryEncodedStringValueSetIndex(
+            bitmapFactory,
+            dictionaryUtf8Supplier.get(),
+            bitmaps
+        );
       } else if (clazz.equals(DruidPredicateIndex.class)) {
-        return (T) new GenericIndexedDictionaryEncodedStringDruidPredicateIndex(bitmapFactory, dictionary, bitmaps);
+        return (T) new GenericIndexedDictionaryEncodedStringDruidPredicateIndex(
+            bitmapFactory,
+            dictionarySupplier.get(),
+            bitmaps
+        );
       } else if (clazz.equals(LexicographicalRangeIndex.class)) {
+        final Indexed<String> dictionary = dictionarySupplier.get();
         return (T) new GenericIndexedDictionaryEncodedColumnLexicographicalRangeIndex(
             bitmapFactory,
-            dictionaryUtf8,
+            dictionaryUtf8Supplier.get(),
             bitmaps,
             NullHandling.isNullOrEquivalent(dictionary.get(0))
         );
       } else if (clazz.equals(DictionaryEncodedStringValueIndex.class) || clazz.equals(DictionaryEncodedValueIndex.class)) {
-        return (T) new GenericIndexedDictionaryEncodedStringValueIndex(bitmapFactory, dictionary, bitmaps);
+        return (T) new GenericIndexedDictionaryEncodedStringValueIndex(
+            bitmapFactory,
+            dictionarySupplier.get(),
+            bitmaps
+        );
       }
     }
     if (indexedTree != null && clazz.equals(SpatialIndex.class)) {
@@ -121,16 +157,18 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
     protected final BitmapFactory bitmapFactory;
     protected final Indexed<T> dictionary;
     protected final Indexed<ImmutableBitmap> bitmaps;
+    private final GenericIndexed<ImmutableBitmap> serializedBitmaps;
 
     protected BaseGenericIndexedDictionaryEncodedIndex(
         BitmapFactory bitmapFactory,
-        GenericIndexed<T> dictionary,
+        Indexed<T> dictionary,
         GenericIndexed<ImmutableBitmap> bitmaps
     )
     {
       this.bitmapFactory = bitmapFactory;
-      this.dictionary = dictionary.singleThreaded();
+      this.dictionary = dictionary;
       this.bitmaps = bitmaps.singleThreaded();
+      this.serializedBitmaps = bitmaps;
     }
 
     public ImmutableBitmap getBitmap(int idx)
@@ -142,6 +180,59 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
       final ImmutableBitmap bitmap = bitmaps.get(idx);
       return bitmap == null ? bitmapFactory.makeEmptyImmutableBitmap() : bitmap;
     }
+
+    /**
+     * Returns the bitmaps of the dictionary ids returned by each iterator from the supplier, as a
+     * {@link SerializedBitmapIterable}, so that bitmap factories which can union serialized bitmaps do not need to
+     * deserialize each of them.
+     */
+    protected SerializedBitmapIterable makeBitmapIterable(Supplier<IntIterator> idsSupplier)
+    {
+      return new SerializedBitmapIterable()
+      {
+        @Override
+        public Iterator<ImmutableBitmap> iterator()
+        {
+          final IntIterator ids = idsSupplier.get();
+          return new Iterator<ImmutableBitmap>()
+          {
+            @Override
+            public boolean hasNext()
+            {
+              return ids.hasNext();
+            }
+
+            @Override
+            public ImmutableBitmap next()
+            {
+              return getBitmap(ids.nextInt());
+            }
+          };
+        }
+
+        @Override
+        public Iterator<ByteBuffer> serializedIterator()
+        {
+          final IntIterator ids = idsSupplier.get();
+          return new Iterator<ByteBuffer>()
+          {
+            @Override
+            public boolean hasNext()
+            {
+              return ids.hasNext();
+            }
+
+            @Nullable
+            @Override
+            public ByteBuffer next()
+            {
+              final int idx = ids.nextInt();
+              return idx < 0 ? null : serializedBitmaps.getSerializedValue(idx);
+            }
+          };
+        }
+      };
+    }
   }
 
   public static final class GenericIndexedDictionaryEncodedStringValueIndex
@@ -149,7 +240,7 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
   {
     public GenericIndexedDictionaryEncodedStringValueIndex(
         BitmapFactory bitmapFactory,
-        GenericIndexed<String> dictionary,
+        Indexed<String> dictionary,
         GenericIndexed<ImmutableBitmap> bitmaps
     )
     {
@@ -178,7 +269,7 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
 
     public GenericIndexedDictionaryEncodedStringValueSetIndex(
         BitmapFactory bitmapFactory,
-        GenericIndexed<ByteBuffer> dictionary,
+        Indexed<ByteBuffer> dictionary,
         GenericIndexed<ImmutableBitmap> bitmaps
     )
     {
@@ -250,7 +341,7 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
         {
           final int dictionarySize = dictionary.size();
 
-          return () -> new Iterator<ImmutableBitmap>()
+          return makeBitmapIterable(() -> new IntIterator()
           {
             final Iterator<ByteBuffer> iterator = valuesUtf8.iterator();
             int next = -1;
@@ -265,7 +356,7 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
             }
 
             @Override
-            public ImmutableBitmap next()
+            public int nextInt()
             {
               if (next < 0) {
                 findNext();
@@ -275,7 +366,7 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
               }
               final int swap = next;
               next = -1;
-              return getBitmap(swap);
+              return swap;
             }
 
             private void findNext()
@@ -287,12 +378,12 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
                 if (next == -dictionarySize - 1) {
                   // nextValue is past the end of the dictionary.
                   // Note: we can rely on indexOf returning (-(insertion point) - 1), even though Indexed doesn't
-                  // guarantee it, because "dictionary" comes from GenericIndexed singleThreaded().
+                  // guarantee it, because "dictionary" is either GenericIndexed singleThreaded() or FrontCodedIndexed.
                   break;
                 }
               }
             }
-          };
+          });
         }
       };
     }
@@ -303,7 +394,7 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
   {
     public GenericIndexedDictionaryEncodedStringDruidPredicateIndex(
         BitmapFactory bitmapFactory,
-        GenericIndexed<String> dictionary,
+        Indexed<String> dictionary,
         GenericIndexed<ImmutableBitmap> bitmaps
     )
     {
@@ -318,53 +409,47 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
         @Override
         public Iterable<ImmutableBitmap> getBitmapIterable()
         {
-          return () -> new Iterator<ImmutableBitmap>()
+          return makeBitmapIterable(() -> new IntIterator()
           {
             final Predicate<String> stringPredicate = matcherFactory.makeStringPredicate();
             final Iterator<String> iterator = dictionary.iterator();
-            @Nullable
-            String next = null;
-            boolean nextSet = false;
+            int currIndex = -1;
+            int next = -1;
 
             @Override
             public boolean hasNext()
             {
-              if (!nextSet) {
+              if (next < 0) {
                 findNext();
               }
-              return nextSet;
+              return next >= 0;
             }
 
             @Override
-            public ImmutableBitmap next()
+            public int nextInt()
             {
-              if (!nextSet) {
+              if (next < 0) {
                 findNext();
-                if (!nextSet) {
+                if (next < 0) {
                   throw new NoSuchElementException();
                 }
               }
-              nextSet = false;
-              final int idx = dictionary.indexOf(next);
-              if (idx < 0) {
-                return bitmapFactory.makeEmptyImmutableBitmap();
-              }
-
-              final ImmutableBitmap bitmap = bitmaps.get(idx);
-              return bitmap == null ? bitmapFactory.makeEmptyImmutableBitmap() : bitmap;
+              final int swap = next;
+              next = -1;
+              return swap;
             }
 
             private void findNext()
             {
-              while (!nextSet && iterator.hasNext()) {
-                String nextValue = iterator.next();
-                nextSet = stringPredicate.apply(nextValue);
-                if (nextSet) {
-                  next = nextValue;
+              // Dictionary values are unique, so the id of each value is its position in the dictionary.
+              while (next < 0 && iterator.hasNext()) {
+                currIndex++;
+                if (stringPredicate.apply(iterator.next())) {
+                  next = currIndex;
                 }
               }
             }
-          };
+          });
         }
       };
     }
@@ -377,7 +462,7 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
 
     public GenericIndexedDictionaryEncodedColumnLexicographicalRangeIndex(
         BitmapFactory bitmapFactory,
-        GenericIndexed<ByteBuffer> dictionary,
+        Indexed<ByteBuffer> dictionary,
         GenericIndexed<ImmutableBitmap> bitmaps,
         boolean hasNull
     )
@@ -401,22 +486,7 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
         {
           final IntIntPair range = getRange(startValue, startStrict, endValue, endStrict);
           final int start = range.leftInt(), end = range.rightInt();
-          return () -> new Iterator<ImmutableBitmap>()
-          {
-            final IntIterator rangeIterator = IntListUtils.fromTo(start, end).iterator();
-
-            @Override
-            public boolean hasNext()
-            {
-              return rangeIterator.hasNext();
-            }
-
-            @Override
-            public ImmutableBitmap next()
-            {
-              return getBitmap(rangeIterator.nextInt());
-            }
-          };
+          return makeBitmapIterable(() -> IntListUtils.fromTo(start, end).iterator());
         }
       };
     }
@@ -437,7 +507,7 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
         {
           final IntIntPair range = getRange(startValue, startStrict, endValue, endStrict);
           final int start = range.leftInt(), end = range.rightInt();
-          return () -> new Iterator<ImmutableBitmap>()
+          return makeBitmapIterable(() -> new IntIterator()
           {
             int currIndex = start;
             int found;
@@ -466,7 +536,7 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
             }
 
             @Override
-            public ImmutableBitmap next()
+            public int nextInt()
             {
               int cur = found;
 
@@ -475,9 +545,9 @@ public class DictionaryEncodedStringIndexSupplier implements ColumnIndexSupplier
               }
 
               found = findNext();
-              return getBitmap(cur);
+              return cur;
             }
-          };
+          });
         }
 
         private boolean applyMatcher(@Nullable final ByteBuffer valueUtf8)
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.apache.druid.collections.bitmap.BitmapFactory;
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.query.BitmapResultFactory;
+import org.apache.druid.query.filter.DruidPredicateFactory;
+import org.apache.druid.segment.column.BitmapColumnIndex;
+import org.apache.druid.segment.column.ColumnIndexSupplier;
+import org.apache.druid.segment.column.DruidPredicateIndex;
+import org.apache.druid.segment.column.NullValueIndex;
+import org.apache.druid.segment.column.SimpleBitmapColumnIndex;
+import org.apache.druid.segment.column.StringValueSetIndex;
+import org.apache.druid.segment.column.Utf8ValueSetIndex;
+import org.apache.druid.segment.data.Indexed;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.SortedSet;
+
+/**
+ * Base {@link ColumnIndexSupplier} for string columns whose bitmaps are not stored, but built from the rows of the
+ * dictionary ids that a filter matches when it is first needed. Filters on the value, a set of values, a predicate or
+ * null find the ids they match in the dictionary, and {@link #makeBitmap} finds their rows.
+ */
+public abstract class DictionaryIdsStringIndexSupplier implements ColumnIndexSupplier
+{
+  protected final BitmapFactory bitmapFactory;
+  protected final Supplier<? extends Indexed<String>> dictionarySupplier;
+  protected final Supplier<? extends Indexed<ByteBuffer>> dictionaryUtf8Supplier;
+
+  /**
+   * @param dictionarySupplier     supplies the dictionary of each index, which is only used by one thread at a time
+   * @param dictionaryUtf8Supplier supplies the UTF-8 dictionary of each index, which is only used by one thread at a
+   *                               time
+   */
+  protected DictionaryIdsStringIndexSupplier(
+      BitmapFactory bitmapFactory,
+      Supplier<? extends Indexed<String>> dictionarySupplier,
+      Supplier<? extends Indexed<ByteBuffer>> dictionaryUtf8Supplier
+  )
+  {
+    this.bitmapFactory = bitmapFactory;
+    this.dictionarySupplier = dictionarySupplier;
+    this.dictionaryUtf8Supplier = dictionaryUtf8Supplier;
+  }
+
+  /**
+   * Returns the bitmap of the rows of the given dictionary ids.
+   */
+  protected abstract ImmutableBitmap makeBitmap(int[] ids);
+
+  @Nullable
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T as(Class<T> clazz)
+  {
+    if (clazz.equals(NullValueIndex.class)) {
+      return (T) (NullValueIndex) this::forNull;
+    } else if (clazz.equals(StringValueSetIndex.class)) {
+      return (T) new DictionaryIdsStringValueSetIndex();
+    } else if (clazz.equals(Utf8ValueSetIndex.class)) {
+      return (T) (Utf8ValueSetIndex) this::forSortedValuesUtf8;
+    } else if (clazz.equals(DruidPredicateIndex.class)) {
+      return (T) (DruidPredicateIndex) this::forPredicate;
+    }
+    return null;
+  }
+
+  private BitmapColumnIndex forNull()
+  {
+    return new DictionaryIdsIndex()
+    {
+      @Override
+      int[] matchingIds()
+      {
+        return NullHandling.isNullOrEquivalent(dictionarySupplier.get().get(0)) ? new int[]{0} : new int[0];
+      }
+    };
+  }
+
+  private BitmapColumnIndex forSortedValuesUtf8(SortedSet<ByteBuffer> valuesUtf8)
+  {
+    return new DictionaryIdsIndex()
+    {
+      @Override
+      int[] matchingIds()
+      {
+        final Indexed<ByteBuffer> dictionary = dictionaryUtf8Supplier.get();
+        final IntArrayList ids = new IntArrayList();
+        for (ByteBuffer valueUtf8 : valuesUtf8) {
+          final int id = dictionary.indexOf(valueUtf8);
+          if (id >= 0) {
+            ids.add(id);
+          }
+        }
+        return ids.toIntArray();
+      }
+    };
+  }
+
+  private BitmapColumnIndex forPredicate(DruidPredicateFactory matcherFactory)
+  {
+    return new DictionaryIdsIndex()
+    {
+      @Override
+      int[] matchingIds()
+      {
+        final Predicate<String> stringPredicate = matcherFactory.makeStringPredicate();
+        final Indexed<String> dictionary = dictionarySupplier.get();
+        final IntArrayList ids = new IntArrayList();
+        for (int id = 0; id < dictionary.size(); id++) {
+          if (stringPredicate.apply(dictionary.get(id))) {
+            ids.add(id);
+          }
+        }
+        return ids.toIntArray();
+      }
+    };
+  }
+
+  private class DictionaryIdsStringValueSetIndex implements StringValueSetIndex
+  {
+    @Override
+    public BitmapColumnIndex forValue(@Nullable String value)
+    {
+      return new DictionaryIdsIndex()
+      {
+        @Override
+        int[] matchingIds()
+        {
+          final int id = dictionaryUtf8Supplier.get().indexOf(
+              value == null ? null : ByteBuffer.wrap(StringUtils.toUtf8(value))
+          );
+          return id >= 0 ? new int[]{id} : new int[0];
+        }
+      };
+    }
+
+    @Override
+    public BitmapColumnIndex forSortedValues(SortedSet<String> values)
+    {
+      return new DictionaryIdsIndex()
+      {
+        @Override
+        int[] matchingIds()
+        {
+          final Indexed<ByteBuffer> dictionary = dictionaryUtf8Supplier.get();
+          final IntArrayList ids = new IntArrayList();
+          for (String value : values) {
+            final int id = dictionary.indexOf(value == null ? null : ByteBuffer.wrap(StringUtils.toUtf8(value)));
+            if (id >= 0) {
+              ids.add(id);
+            }
+          }
+          return ids.toIntArray();
+        }
+      };
+    }
+  }
+
+  /**
+   * Index whose bitmap holds the rows of the dictionary ids returned by {@link #matchingIds}, computed the first time
+   * it is needed.
+   */
+  private abstract class DictionaryIdsIndex extends SimpleBitmapColumnIndex
+  {
+    @Nullable
+    private ImmutableBitmap bitmap;
+
+    /**
+     * Returns the matching dictionary ids.
+     */
+    abstract int[] matchingIds();
+
+    @Override
+    public double estimateSelectivity(int totalRows)
+    {
+      return Math.min(1, (double) getBitmap().size() / totalRows);
+    }
+
+    @Override
+    public <T> T computeBitmapResult(BitmapResultFactory<T> bitmapResultFactory)
+    {
+      return bitmapResultFactory.wrapDimensionValue(getBitmap());
+    }
+
+    private ImmutableBitmap getBitmap()
+    {
+      if (bitmap == null) {
+        bitmap = makeBitmap(matchingIds());
+      }
+      return bitmap;
+    }
+  }
+}
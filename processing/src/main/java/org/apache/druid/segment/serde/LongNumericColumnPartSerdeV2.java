@@ -20,9 +20,11 @@
 package org.apache.druid.segment.serde;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.apache.druid.collections.bitmap.ImmutableBitmap;
 import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.segment.column.ColumnIndexSupplier;
 import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.data.BitmapSerde;
 import org.apache.druid.segment.data.BitmapSerdeFactory;
@@ -40,12 +42,16 @@ public class LongNumericColumnPartSerdeV2 implements ColumnPartSerde
   @JsonCreator
   public static LongNumericColumnPartSerdeV2 createDeserializer(
       @JsonProperty("byteOrder") ByteOrder byteOrder,
-      @JsonProperty("bitmapSerdeFactory") @Nullable BitmapSerdeFactory bitmapSerdeFactory
+      @JsonProperty("bitmapSerdeFactory") @Nullable BitmapSerdeFactory bitmapSerdeFactory,
+      @JsonProperty("zoneMap") boolean zoneMap,
+      @JsonProperty("bitSlicedIndex") boolean bitSlicedIndex
   )
   {
     return new LongNumericColumnPartSerdeV2(
         byteOrder,
         bitmapSerdeFactory != null ? bitmapSerdeFactory : new BitmapSerde.LegacyBitmapSerdeFactory(),
+        zoneMap,
+        bitSlicedIndex,
         null
     );
   }
@@ -56,15 +62,21 @@ public class LongNumericColumnPartSerdeV2 implements ColumnPartSerde
   private final ByteOrder byteOrder;
   @Nullable
   private final BitmapSerdeFactory bitmapSerdeFactory;
+  private final boolean zoneMap;
+  private final boolean bitSlicedIndex;
 
   private LongNumericColumnPartSerdeV2(
       @Nullable ByteOrder byteOrder,
       @Nullable BitmapSerdeFactory bitmapSerdeFactory,
+      boolean zoneMap,
+      boolean bitSlicedIndex,
       @Nullable Serializer serializer
   )
   {
     this.byteOrder = byteOrder;
     this.bitmapSerdeFactory = bitmapSerdeFactory;
+    this.zoneMap = zoneMap;
+    this.bitSlicedIndex = bitSlicedIndex;
     this.serializer = serializer;
   }
 
@@ -80,6 +92,20 @@ public class LongNumericColumnPartSerdeV2 implements ColumnPartSerde
     return bitmapSerdeFactory;
   }
 
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  public boolean isZoneMap()
+  {
+    return zoneMap;
+  }
+
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  public boolean isBitSlicedIndex()
+  {
+    return bitSlicedIndex;
+  }
+
   public static SerializerBuilder serializerBuilder()
   {
     return new SerializerBuilder();
@@ -93,6 +119,8 @@ public class LongNumericColumnPartSerdeV2 implements ColumnPartSerde
     private Serializer delegate = null;
     @Nullable
     private BitmapSerdeFactory bitmapSerdeFactory = null;
+    private boolean zoneMap = false;
+    private boolean bitSlicedIndex = false;
 
     public SerializerBuilder withByteOrder(final ByteOrder byteOrder)
     {
@@ -112,6 +140,18 @@ public class LongNumericColumnPartSerdeV2 implements ColumnPartSerde
       return this;
     }
 
+    public SerializerBuilder withZoneMap(boolean zoneMap)
+    {
+      this.zoneMap = zoneMap;
+      return this;
+    }
+
+    public SerializerBuilder withBitSlicedIndex(boolean bitSlicedIndex)
+    {
+      this.bitSlicedIndex = bitSlicedIndex;
+      return this;
+    }
+
     public LongNumericColumnPartSerdeV2 build()
     {
       Serializer serializer = new Serializer()
@@ -128,7 +168,13 @@ public class LongNumericColumnPartSerdeV2 implements ColumnPartSerde
           delegate.writeTo(channel, smoosher);
         }
       };
-      return new LongNumericColumnPartSerdeV2(byteOrder, bitmapSerdeFactory, serializer);
+      return new LongNumericColumnPartSerdeV2(
+          byteOrder,
+          bitmapSerdeFactory,
+          zoneMap,
+          bitSlicedIndex,
+          serializer
+      );
     }
   }
 
@@ -150,6 +196,10 @@ public class LongNumericColumnPartSerdeV2 implements ColumnPartSerde
           byteOrder
       );
       buffer.position(initialPos + offset);
+      final NumericZoneMap numericZoneMap = zoneMap ? NumericZoneMap.read(buffer) : null;
+      final BitSlicedIndex bitSlicedIndex = this.bitSlicedIndex
+                                            ? BitSlicedIndex.read(buffer, bitmapSerdeFactory)
+                                            : null;
       final ImmutableBitmap bitmap;
       final boolean hasNulls;
       if (buffer.hasRemaining()) {
@@ -162,8 +212,19 @@ public class LongNumericColumnPartSerdeV2 implements ColumnPartSerde
       builder.setType(ValueType.LONG)
              .setHasMultipleValues(false)
              .setHasNulls(hasNulls)
-             .setNumericColumnSupplier(new LongNumericColumnSupplier(column, bitmap))
-             .setNullValueIndexSupplier(bitmap);
+             .setNumericColumnSupplier(new LongNumericColumnSupplier(column, bitmap));
+      if (numericZoneMap != null || bitSlicedIndex != null) {
+        final ColumnIndexSupplier indexSupplier = numericZoneMap != null
+            ? new NumericZoneMapIndexSupplier(bitmap, numericZoneMap, bitmapSerdeFactory.getBitmapFactory())
+            : new NullValueIndexSupplier(bitmap);
+        builder.setIndexSupplier(
+            bitSlicedIndex != null ? new BitSlicedIndexSupplier(bitSlicedIndex, indexSupplier) : indexSupplier,
+            false,
+            false
+        );
+      } else {
+        builder.setNullValueIndexSupplier(bitmap);
+      }
     };
   }
 }
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.segment.column.ValueType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Minimum value, maximum value and null count of each "zone" of {@link #ROWS_PER_ZONE} consecutive rows of a LONG or
+ * DOUBLE column, written by {@link NumericZoneMapWriter}. Used by {@link NumericZoneMapIndexSupplier} to skip zones
+ * that cannot match a range filter. Zones evenly divide the compressed blocks of numeric columns, so skipping the
+ * zones of a block means the block is never decompressed.
+ *
+ * Storage format:
+ * Byte 1 : version (currently 0x1)
+ * Byte 2 : type, 0x0 for LONG or 0x1 for DOUBLE
+ * Byte 3 - 6 : rows per zone
+ * Byte 7 - 10 : number of rows
+ * Byte 11 - 14 : number of zones
+ * Minimum value of each zone, 8 bytes each
+ * Maximum value of each zone, 8 bytes each
+ * Null count of each zone, 4 bytes each
+ *
+ * DOUBLE values are stored as {@link Double#doubleToLongBits}, and ordered like {@link Double#compare}. Zones with only
+ * nulls have a minimum and maximum value of 0.
+ */
+public class NumericZoneMap
+{
+  public static final int ROWS_PER_ZONE = 4096;
+
+  static final byte VERSION = 0x1;
+  static final byte TYPE_LONG = 0x0;
+  static final byte TYPE_DOUBLE = 0x1;
+
+  private static final int HEADER_SIZE = 2 + 3 * Integer.BYTES;
+
+  private final ByteBuffer buffer;
+  private final ValueType type;
+  private final int rowsPerZone;
+  private final int numRows;
+  private final int numZones;
+
+  private NumericZoneMap(ByteBuffer buffer, ValueType type, int rowsPerZone, int numRows, int numZones)
+  {
+    this.buffer = buffer;
+    this.type = type;
+    this.rowsPerZone = rowsPerZone;
+    this.numRows = numRows;
+    this.numZones = numZones;
+  }
+
+  /**
+   * Reads a zone map from the buffer, advancing its position past it. The returned zone map shares content with the
+   * buffer.
+   */
+  public static NumericZoneMap read(ByteBuffer buffer)
+  {
+    // Zone maps are always big-endian, whatever the order of the column values.
+    final ByteBuffer in = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+    final byte version = in.get();
+    if (version != VERSION) {
+      throw new IAE("Unknown version[%s]", version);
+    }
+    final byte typeId = in.get();
+    final ValueType type;
+    if (typeId == TYPE_LONG) {
+      type = ValueType.LONG;
+    } else if (typeId == TYPE_DOUBLE) {
+      type = ValueType.DOUBLE;
+    } else {
+      throw new IAE("Unknown type[%s]", typeId);
+    }
+    final int rowsPerZone = in.getInt();
+    final int numRows = in.getInt();
+    final int numZones = in.getInt();
+
+    final ByteBuffer zones = in.slice().order(ByteOrder.BIG_ENDIAN);
+    zones.limit(getSerializedSize(numZones) - HEADER_SIZE);
+    buffer.position(buffer.position() + getSerializedSize(numZones));
+    return new NumericZoneMap(zones, type, rowsPerZone, numRows, numZones);
+  }
+
+  static int getSerializedSize(int numZones)
+  {
+    return HEADER_SIZE + numZones * (2 * Long.BYTES + Integer.BYTES);
+  }
+
+  public ValueType getType()
+  {
+    return type;
+  }
+
+  public int getNumRows()
+  {
+    return numRows;
+  }
+
+  public int getNumZones()
+  {
+    return numZones;
+  }
+
+  public int getZoneStart(int zone)
+  {
+    return zone * rowsPerZone;
+  }
+
+  public int getZoneEnd(int zone)
+  {
+    return Math.min(numRows, (zone + 1) * rowsPerZone);
+  }
+
+  public int getNullCount(int zone)
+  {
+    return buffer.getInt(2 * numZones * Long.BYTES + zone * Integer.BYTES);
+  }
+
+  public long getLongMin(int zone)
+  {
+    return buffer.getLong(zone * Long.BYTES);
+  }
+
+  public long getLongMax(int zone)
+  {
+    return buffer.getLong((numZones + zone) * Long.BYTES);
+  }
+
+  public double getDoubleMin(int zone)
+  {
+    return Double.longBitsToDouble(getLongMin(zone));
+  }
+
+  public double getDoubleMax(int zone)
+  {
+    return Double.longBitsToDouble(getLongMax(zone));
+  }
+}
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import org.apache.druid.collections.bitmap.BitmapFactory;
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.collections.bitmap.MutableBitmap;
+import org.apache.druid.query.BitmapResultFactory;
+import org.apache.druid.segment.column.BitmapColumnIndex;
+import org.apache.druid.segment.column.ColumnIndexCapabilities;
+import org.apache.druid.segment.column.ColumnIndexSupplier;
+import org.apache.druid.segment.column.NullValueIndex;
+import org.apache.druid.segment.column.NumericRangeIndex;
+import org.apache.druid.segment.column.SimpleColumnIndexCapabilities;
+import org.apache.druid.segment.column.ValueType;
+
+import javax.annotation.Nullable;
+
+/**
+ * {@link ColumnIndexSupplier} for LONG and DOUBLE columns that have a {@link NumericZoneMap}. In addition to the
+ * {@link NullValueIndex} of {@link NullValueIndexSupplier}, it provides a {@link NumericRangeIndex} which matches every
+ * row of the zones whose values may fall in the range.
+ *
+ * That is usually a superset of the matching rows, so the index reports itself as inexact, and filters using it are
+ * also applied to each row of the matching zones. If every matching zone falls entirely inside the range and has no
+ * nulls, the index is exact instead. If no zone can be skipped, {@link NumericRangeIndex#forRange} returns null, since
+ * scanning every row is cheaper without an index.
+ */
+public class NumericZoneMapIndexSupplier implements ColumnIndexSupplier
+{
+  private static final ColumnIndexCapabilities INEXACT = new SimpleColumnIndexCapabilities(false, false);
+  private static final ColumnIndexCapabilities EXACT = new SimpleColumnIndexCapabilities(false, true);
+
+  /**
+   * Doubles in [-2^53, 2^53] convert to and from longs exactly.
+   */
+  private static final double MAX_EXACT_DOUBLE = 0x1p53;
+
+  private static final int MATCHES_NONE = 0;
+  private static final int MATCHES_SOME = 1;
+  private static final int MATCHES_ALL = 2;
+
+  private final NullValueIndexSupplier nullValueIndexSupplier;
+  private final NumericZoneMap zoneMap;
+  private final BitmapFactory bitmapFactory;
+
+  public NumericZoneMapIndexSupplier(
+      ImmutableBitmap nullValueBitmap,
+      NumericZoneMap zoneMap,
+      BitmapFactory bitmapFactory
+  )
+  {
+    this.nullValueIndexSupplier = new NullValueIndexSupplier(nullValueBitmap);
+    this.zoneMap = zoneMap;
+    this.bitmapFactory = bitmapFactory;
+  }
+
+  @Nullable
+  @Override
+  public <T> T as(Class<T> clazz)
+  {
+    if (clazz.equals(NumericRangeIndex.class)) {
+      return (T) (NumericRangeIndex) this::forRange;
+    }
+    return nullValueIndexSupplier.as(clazz);
+  }
+
+  @Nullable
+  private BitmapColumnIndex forRange(
+      @Nullable Number startValue,
+      boolean startStrict,
+      @Nullable Number endValue,
+      boolean endStrict
+  )
+  {
+    final ZoneMatcher matcher = zoneMap.getType() == ValueType.LONG
+                                ? makeLongMatcher(startValue, startStrict, endValue, endStrict)
+                                : makeDoubleMatcher(startValue, startStrict, endValue, endStrict);
+    if (matcher == null) {
+      return null;
+    }
+
+    final MutableBitmap mutableBitmap = bitmapFactory.makeEmptyMutableBitmap();
+    boolean skippedAnyZone = false;
+    boolean exact = true;
+    int zoneStart = -1;
+    int zoneEnd = -1;
+    for (int zone = 0; zone < zoneMap.getNumZones(); zone++) {
+      final int match = zoneMap.getNullCount(zone) == zoneMap.getZoneEnd(zone) - zoneMap.getZoneStart(zone)
+                        ? MATCHES_NONE
+                        : matcher.match(zone);
+      if (match == MATCHES_NONE) {
+        skippedAnyZone = true;
+        continue;
+      }
+      if (match == MATCHES_SOME || zoneMap.getNullCount(zone) > 0) {
+        exact = false;
+      }
+
+      // Coalesce adjacent zones, so bitmaps can add them as one range.
+      if (zoneMap.getZoneStart(zone) == zoneEnd) {
+        zoneEnd = zoneMap.getZoneEnd(zone);
+      } else {
+        if (zoneStart >= 0) {
+          mutableBitmap.addRange(zoneStart, zoneEnd);
+        }
+        zoneStart = zoneMap.getZoneStart(zone);
+        zoneEnd = zoneMap.getZoneEnd(zone);
+      }
+    }
+    if (zoneStart >= 0) {
+      mutableBitmap.addRange(zoneStart, zoneEnd);
+    }
+
+    if (!skippedAnyZone && !exact) {
+      return null;
+    }
+
+    final ImmutableBitmap bitmap = bitmapFactory.makeImmutableBitmap(mutableBitmap);
+    final ColumnIndexCapabilities capabilities = exact ? EXACT : INEXACT;
+    return new BitmapColumnIndex()
+    {
+      @Override
+      public ColumnIndexCapabilities getIndexCapabilities()
+      {
+        return capabilities;
+      }
+
+      @Override
+      public double estimateSelectivity(int totalRows)
+      {
+        return Math.min(1, (double) bitmap.size() / totalRows);
+      }
+
+      @Override
+      public <T> T computeBitmapResult(BitmapResultFactory<T> bitmapResultFactory)
+      {
+        return bitmapResultFactory.wrapDimensionValue(bitmap);
+      }
+    };
+  }
+
+  @Nullable
+  private ZoneMatcher makeLongMatcher(
+      @Nullable Number startValue,
+      boolean startStrict,
+      @Nullable Number endValue,
+      boolean endStrict
+  )
+  {
+    if (!isUsableLongBound(startValue) || !isUsableLongBound(endValue)) {
+      return null;
+    }
+
+    // Bounds that are not longs may have been rounded when they were parsed, so only compare them with values that
+    // are definitely on one side or the other: skip zones beyond them, but never accept zones outright.
+    final boolean exactBounds = !(startValue instanceof Double) && !(endValue instanceof Double);
+    return zone -> {
+      final long min = zoneMap.getLongMin(zone);
+      final long max = zoneMap.getLongMax(zone);
+      int match = MATCHES_ALL;
+      if (startValue != null) {
+        final int maxVsStart = compare(max, startValue);
+        if (maxVsStart < 0 || (maxVsStart == 0 && startStrict && exactBounds)) {
+          return MATCHES_NONE;
+        }
+        final int minVsStart = compare(min, startValue);
+        if (minVsStart < 0 || (minVsStart == 0 && startStrict)) {
+          match = MATCHES_SOME;
+        }
+      }
+      if (endValue != null) {
+        final int minVsEnd = compare(min, endValue);
+        if (minVsEnd > 0 || (minVsEnd == 0 && endStrict && exactBounds)) {
+          return MATCHES_NONE;
+        }
+        final int maxVsEnd = compare(max, endValue);
+        if (maxVsEnd > 0 || (maxVsEnd == 0 && endStrict)) {
+          match = MATCHES_SOME;
+        }
+      }
+      return exactBounds ? match : Math.min(match, MATCHES_SOME);
+    };
+  }
+
+  @Nullable
+  private ZoneMatcher makeDoubleMatcher(
+      @Nullable Number startValue,
+      boolean startStrict,
+      @Nullable Number endValue,
+      boolean endStrict
+  )
+  {
+    final Double start = startValue == null ? null : startValue.doubleValue();
+    final Double end = endValue == null ? null : endValue.doubleValue();
+    return zone -> {
+      final double min = zoneMap.getDoubleMin(zone);
+      final double max = zoneMap.getDoubleMax(zone);
+      int match = MATCHES_ALL;
+      if (start != null) {
+        final int maxVsStart = Double.compare(max, start);
+        if (maxVsStart < 0 || (maxVsStart == 0 && startStrict)) {
+          return MATCHES_NONE;
+        }
+        final int minVsStart = Double.compare(min, start);
+        if (minVsStart < 0 || (minVsStart == 0 && startStrict)) {
+          match = MATCHES_SOME;
+        }
+      }
+      if (end != null) {
+        final int minVsEnd = Double.compare(min, end);
+        if (minVsEnd > 0 || (minVsEnd == 0 && endStrict)) {
+          return MATCHES_NONE;
+        }
+        final int maxVsEnd = Double.compare(max, end);
+        if (maxVsEnd > 0 || (maxVsEnd == 0 && endStrict)) {
+          match = MATCHES_SOME;
+        }
+      }
+      return match;
+    };
+  }
+
+  private static boolean isUsableLongBound(@Nullable Number bound)
+  {
+    if (bound == null || bound instanceof Long || bound instanceof Integer) {
+      return true;
+    }
+    return bound instanceof Double && Math.abs(bound.doubleValue()) <= MAX_EXACT_DOUBLE;
+  }
+
+  /**
+   * Compares a long with a bound that passed {@link #isUsableLongBound}, without losing precision.
+   */
+  private static int compare(long value, Number bound)
+  {
+    if (!(bound instanceof Double)) {
+      return Long.compare(value, bound.longValue());
+    }
+    final double doubleBound = bound.doubleValue();
+    final long integerPart = (long) doubleBound;
+    if (value != integerPart) {
+      return Long.compare(value, integerPart);
+    }
+    final double fraction = doubleBound - integerPart;
+    return fraction > 0 ? -1 : (fraction < 0 ? 1 : 0);
+  }
+
+  @FunctionalInterface
+  private interface ZoneMatcher
+  {
+    int match(int zone);
+  }
+}
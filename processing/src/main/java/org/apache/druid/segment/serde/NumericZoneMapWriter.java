@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.apache.druid.io.Channels;
+import org.apache.druid.segment.column.ValueType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes a {@link NumericZoneMap}. Values must be added in row order, with {@link #addLong} for LONG columns,
+ * {@link #addDouble} for DOUBLE columns, and {@link #addNull} for null rows of either.
+ *
+ * This class is unsafe for concurrent use from multiple threads.
+ */
+public class NumericZoneMapWriter
+{
+  private final ValueType type;
+  private final LongArrayList mins = new LongArrayList();
+  private final LongArrayList maxes = new LongArrayList();
+  private final IntArrayList nullCounts = new IntArrayList();
+
+  private int numRows = 0;
+  private boolean zoneHasValues = false;
+  private long zoneMin;
+  private long zoneMax;
+  private int zoneNullCount;
+
+  public NumericZoneMapWriter(ValueType type)
+  {
+    if (type != ValueType.LONG && type != ValueType.DOUBLE) {
+      throw new IllegalArgumentException("Zone maps are only supported for LONG and DOUBLE columns");
+    }
+    this.type = type;
+  }
+
+  public void addLong(long value)
+  {
+    if (!zoneHasValues) {
+      zoneMin = value;
+      zoneMax = value;
+      zoneHasValues = true;
+    } else {
+      zoneMin = Math.min(zoneMin, value);
+      zoneMax = Math.max(zoneMax, value);
+    }
+    nextRow();
+  }
+
+  public void addDouble(double value)
+  {
+    // Use the same total order as Double.compare, which is what bound filters use, so NaN is the largest value.
+    if (!zoneHasValues) {
+      zoneMin = Double.doubleToLongBits(value);
+      zoneMax = zoneMin;
+      zoneHasValues = true;
+    } else {
+      if (Double.compare(value, Double.longBitsToDouble(zoneMin)) < 0) {
+        zoneMin = Double.doubleToLongBits(value);
+      }
+      if (Double.compare(value, Double.longBitsToDouble(zoneMax)) > 0) {
+        zoneMax = Double.doubleToLongBits(value);
+      }
+    }
+    nextRow();
+  }
+
+  public void addNull()
+  {
+    zoneNullCount++;
+    nextRow();
+  }
+
+  public long getSerializedSize()
+  {
+    finishZone();
+    return NumericZoneMap.getSerializedSize(mins.size());
+  }
+
+  public void writeTo(WritableByteChannel channel) throws IOException
+  {
+    finishZone();
+    final ByteBuffer buffer = ByteBuffer.allocate(NumericZoneMap.getSerializedSize(mins.size()));
+    buffer.put(NumericZoneMap.VERSION);
+    buffer.put(type == ValueType.LONG ? NumericZoneMap.TYPE_LONG : NumericZoneMap.TYPE_DOUBLE);
+    buffer.putInt(NumericZoneMap.ROWS_PER_ZONE);
+    buffer.putInt(numRows);
+    buffer.putInt(mins.size());
+    for (int i = 0; i < mins.size(); i++) {
+      buffer.putLong(mins.getLong(i));
+    }
+    for (int i = 0; i < maxes.size(); i++) {
+      buffer.putLong(maxes.getLong(i));
+    }
+    for (int i = 0; i < nullCounts.size(); i++) {
+      buffer.putInt(nullCounts.getInt(i));
+    }
+    buffer.flip();
+    Channels.writeFully(channel, buffer);
+  }
+
+  private void nextRow()
+  {
+    numRows++;
+    if (numRows % NumericZoneMap.ROWS_PER_ZONE == 0) {
+      finishZone();
+    }
+  }
+
+  private void finishZone()
+  {
+    final int expectedZones = (numRows + NumericZoneMap.ROWS_PER_ZONE - 1) / NumericZoneMap.ROWS_PER_ZONE;
+    if (mins.size() == expectedZones) {
+      return;
+    }
+    mins.add(zoneHasValues ? zoneMin : 0L);
+    maxes.add(zoneHasValues ? zoneMax : 0L);
+    nullCounts.add(zoneNullCount);
+    zoneHasValues = false;
+    zoneNullCount = 0;
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import com.google.common.base.Supplier;
+import org.apache.druid.collections.bitmap.BitmapFactory;
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.collections.bitmap.MutableBitmap;
+import org.apache.druid.segment.column.ColumnIndexSupplier;
+import org.apache.druid.segment.data.Indexed;
+import org.apache.druid.segment.data.RunLengthColumnarInts;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ColumnIndexSupplier} for single-value string columns stored as {@link RunLengthColumnarInts} without bitmap
+ * indexes. Filters on the value, a set of values, a predicate or null find the dictionary ids they match, and then
+ * add each run of those ids to the bitmap as one range of rows.
+ *
+ * That costs one pass over the runs, rather than one over the rows that filtering without an index would cost. Runs
+ * are only written when there are far fewer of them than rows, see
+ * {@link org.apache.druid.segment.data.RunLengthEncodedColumnarIntsSerializer}. The resulting bitmaps are exact, like
+ * those of {@link DictionaryEncodedStringIndexSupplier}, but are not stored, so columns with bitmap indexes use those
+ * instead.
+ */
+public class RunLengthEncodedStringIndexSupplier extends DictionaryIdsStringIndexSupplier
+{
+  private final Supplier<RunLengthColumnarInts> runsSupplier;
+
+  /**
+   * @param dictionarySupplier     supplies the dictionary of each index, which is only used by one thread at a time
+   * @param dictionaryUtf8Supplier supplies the UTF-8 dictionary of each index, which is only used by one thread at a
+   *                               time
+   * @param runsSupplier           supplies the row values of the column
+   */
+  public RunLengthEncodedStringIndexSupplier(
+      BitmapFactory bitmapFactory,
+      Supplier<? extends Indexed<String>> dictionarySupplier,
+      Supplier<? extends Indexed<ByteBuffer>> dictionaryUtf8Supplier,
+      Supplier<RunLengthColumnarInts> runsSupplier
+  )
+  {
+    super(bitmapFactory, dictionarySupplier, dictionaryUtf8Supplier);
+    this.runsSupplier = runsSupplier;
+  }
+
+  @Override
+  protected ImmutableBitmap makeBitmap(int[] ids)
+  {
+    final MutableBitmap mutableBitmap = bitmapFactory.makeEmptyMutableBitmap();
+    final RunLengthColumnarInts runs = runsSupplier.get();
+    int maxId = -1;
+    for (int id : ids) {
+      maxId = Math.max(maxId, id);
+    }
+    final boolean[] matches = new boolean[maxId + 1];
+    for (int id : ids) {
+      matches[id] = true;
+    }
+    int rangeStart = -1;
+    int rangeEnd = -1;
+    for (int run = 0; run < runs.getNumRuns(); run++) {
+      final int value = runs.getRunValue(run);
+      if (value >= matches.length || !matches[value]) {
+        continue;
+      }
+      // Coalesce adjacent runs, so bitmaps can add them as one range.
+      final int runStart = runs.getRunStart(run);
+      if (runStart == rangeEnd) {
+        rangeEnd = runs.getRunEnd(run);
+      } else {
+        if (rangeStart >= 0) {
+          mutableBitmap.addRange(rangeStart, rangeEnd);
+        }
+        rangeStart = runStart;
+        rangeEnd = runs.getRunEnd(run);
+      }
+    }
+    if (rangeStart >= 0) {
+      mutableBitmap.addRange(rangeStart, rangeEnd);
+    }
+    return bitmapFactory.makeImmutableBitmap(mutableBitmap);
+  }
+}
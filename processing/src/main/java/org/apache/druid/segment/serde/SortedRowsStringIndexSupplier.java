@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import com.google.common.base.Supplier;
+import org.apache.druid.collections.bitmap.BitmapFactory;
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.collections.bitmap.MutableBitmap;
+import org.apache.druid.segment.column.ColumnIndexSupplier;
+import org.apache.druid.segment.column.DictionaryEncodedStringValueIndex;
+import org.apache.druid.segment.column.DictionaryEncodedValueIndex;
+import org.apache.druid.segment.data.Indexed;
+import org.apache.druid.segment.data.SortedRowsIndexSupplier;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ColumnIndexSupplier} for string columns whose index is a {@link SortedRowsIndexSupplier} rather than a bitmap
+ * per value. Filters find the dictionary ids they match, and then read the rows of each of them into the bitmap.
+ *
+ * Like bitmap indexes, this can give the bitmap of each dictionary id with {@link DictionaryEncodedStringValueIndex},
+ * so merging segments with this index, and queries that use the bitmaps of values, work the same way.
+ */
+public class SortedRowsStringIndexSupplier extends DictionaryIdsStringIndexSupplier
+{
+  private final SortedRowsIndexSupplier sortedRows;
+
+  /**
+   * @param dictionarySupplier     supplies the dictionary of each index, which is only used by one thread at a time
+   * @param dictionaryUtf8Supplier supplies the UTF-8 dictionary of each index, which is only used by one thread at a
+   *                               time
+   */
+  public SortedRowsStringIndexSupplier(
+      BitmapFactory bitmapFactory,
+      Supplier<? extends Indexed<String>> dictionarySupplier,
+      Supplier<? extends Indexed<ByteBuffer>> dictionaryUtf8Supplier,
+      SortedRowsIndexSupplier sortedRows
+  )
+  {
+    super(bitmapFactory, dictionarySupplier, dictionaryUtf8Supplier);
+    this.sortedRows = sortedRows;
+  }
+
+  @Nullable
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T as(Class<T> clazz)
+  {
+    if (clazz.equals(DictionaryEncodedStringValueIndex.class) || clazz.equals(DictionaryEncodedValueIndex.class)) {
+      final Indexed<String> dictionary = dictionarySupplier.get();
+      return (T) new DictionaryEncodedStringValueIndex()
+      {
+        @Override
+        public int getCardinality()
+        {
+          return dictionary.size();
+        }
+
+        @Nullable
+        @Override
+        public String getValue(int index)
+        {
+          return dictionary.get(index);
+        }
+
+        @Override
+        public ImmutableBitmap getBitmap(int idx)
+        {
+          return makeBitmap(new int[]{idx});
+        }
+      };
+    }
+    return super.as(clazz);
+  }
+
+  @Override
+  protected ImmutableBitmap makeBitmap(int[] ids)
+  {
+    final MutableBitmap mutableBitmap = bitmapFactory.makeEmptyMutableBitmap();
+    for (int id : ids) {
+      sortedRows.addRows(id, mutableBitmap);
+    }
+    return bitmapFactory.makeImmutableBitmap(mutableBitmap);
+  }
+}
@@ -187,13 +187,15 @@ public class ExpressionPlanner
     // vectorized expressions do not support incomplete, multi-valued inputs or outputs, or implicit mapping
     // they also do not support unknown inputs, but they also do not currently have to deal with them, as missing
     // capabilites is indicative of a non-existent column instead of an unknown schema. If this ever changes,
-    // this check should also change
+    // this check should also change. The only non-scalar inputs which are supported are multi-valued string columns
+    // which are used exclusively as arrays, see ExpressionVectorSelectors#createVectorBindings
     boolean supportsVector = ExpressionPlan.none(
         traits,
         ExpressionPlan.Trait.INCOMPLETE_INPUTS,
         ExpressionPlan.Trait.NEEDS_APPLIED,
-        ExpressionPlan.Trait.NON_SCALAR_INPUTS,
         ExpressionPlan.Trait.NON_SCALAR_OUTPUT
+    ) && (
+        ExpressionPlan.none(traits, ExpressionPlan.Trait.NON_SCALAR_INPUTS) || areVectorArrayInputs(inspector, analysis)
     );
 
     if (supportsVector && expression.canVectorize(inspector)) {
@@ -214,4 +216,27 @@ public class ExpressionPlanner
         needsApplied
     );
   }
+
+  /**
+   * Check if all array inputs of an expression are dictionary encoded multi-valued string columns, so that they can
+   * be bound as string arrays by {@link ExpressionVectorSelectors#createVectorBindings}. {@link Parser} already
+   * rejects expressions which use the same identifier as both a scalar and an array.
+   */
+  static boolean areVectorArrayInputs(ColumnInspector inspector, Expr.BindingAnalysis analysis)
+  {
+    final Set<String> arrayBindings = analysis.getArrayBindings();
+    if (arrayBindings.isEmpty()) {
+      return false;
+    }
+    for (String column : arrayBindings) {
+      final ColumnCapabilities capabilities = inspector.getColumnCapabilities(column);
+      if (capabilities == null
+          || !capabilities.is(ValueType.STRING)
+          || !capabilities.isDictionaryEncoded().isTrue()
+          || !capabilities.hasMultipleValues().isTrue()) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
@@ -22,18 +22,23 @@ package org.apache.druid.segment.virtual;
 import com.google.common.base.Preconditions;
 import org.apache.druid.math.expr.Expr;
 import org.apache.druid.math.expr.ExprType;
+import org.apache.druid.math.expr.ExpressionProcessing;
 import org.apache.druid.math.expr.ExpressionType;
 import org.apache.druid.math.expr.InputBindings;
 import org.apache.druid.math.expr.vector.ExprVectorProcessor;
 import org.apache.druid.query.dimension.DefaultDimensionSpec;
+import org.apache.druid.segment.DimensionDictionarySelector;
 import org.apache.druid.segment.column.ColumnCapabilities;
+import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.vector.ConstantVectorSelectors;
 import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
 import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
 import org.apache.druid.segment.vector.VectorObjectSelector;
 import org.apache.druid.segment.vector.VectorValueSelector;
 
+import javax.annotation.Nullable;
 import java.util.List;
+import java.util.Set;
 
 public class ExpressionVectorSelectors
 {
@@ -78,6 +83,17 @@ public class ExpressionVectorSelectors
           (Number) plan.getExpression().eval(InputBindings.nilBindings()).value()
       );
     }
+    final SingleValueDimensionVectorSelector dictionarySelector = makeDictionarySelectorIfCacheable(factory, plan);
+    if (dictionarySelector != null) {
+      return new ExpressionVectorValueSelector(
+          new SingleStringInputCachingExpressionVectorProcessor<>(
+              dictionarySelector,
+              plan.getExpression(),
+              plan.getOutputType()
+          ),
+          new ExpressionVectorInputBinding(factory.getReadableVectorInspector())
+      );
+    }
     final Expr.VectorInputBinding bindings = createVectorBindings(plan.getAnalysis(), factory);
     final ExprVectorProcessor<?> processor = plan.getExpression().buildVectorized(bindings);
     return new ExpressionVectorValueSelector(processor, bindings);
@@ -98,11 +114,60 @@ public class ExpressionVectorSelectors
       );
     }
 
+    final SingleValueDimensionVectorSelector dictionarySelector = makeDictionarySelectorIfCacheable(factory, plan);
+    if (dictionarySelector != null) {
+      return new ExpressionVectorObjectSelector(
+          new SingleStringInputCachingExpressionVectorProcessor<>(
+              dictionarySelector,
+              plan.getExpression(),
+              plan.getOutputType()
+          ),
+          new ExpressionVectorInputBinding(factory.getReadableVectorInspector())
+      );
+    }
     final Expr.VectorInputBinding bindings = createVectorBindings(plan.getAnalysis(), factory);
     final ExprVectorProcessor<?> processor = plan.getExpression().buildVectorized(bindings);
     return new ExpressionVectorObjectSelector(processor, bindings);
   }
 
+  /**
+   * If the expression has a single input which is a dictionary encoded, single valued string column, and a scalar
+   * output, the expression only needs to be evaluated once per dictionary id with a
+   * {@link SingleStringInputCachingExpressionVectorProcessor}. Returns the dictionary selector of the input column if
+   * so, or null if not.
+   */
+  @Nullable
+  private static SingleValueDimensionVectorSelector makeDictionarySelectorIfCacheable(
+      VectorColumnSelectorFactory factory,
+      ExpressionPlan plan
+  )
+  {
+    if (!plan.is(ExpressionPlan.Trait.SINGLE_INPUT_SCALAR) || plan.getOutputType() == null) {
+      return null;
+    }
+    if (!plan.getOutputType().is(ExprType.STRING)
+        && !plan.getOutputType().is(ExprType.LONG)
+        && !plan.getOutputType().is(ExprType.DOUBLE)) {
+      return null;
+    }
+
+    final ColumnCapabilities capabilities = factory.getColumnCapabilities(plan.getSingleInputName());
+    if (capabilities == null
+        || !capabilities.is(ValueType.STRING)
+        || !capabilities.isDictionaryEncoded().isTrue()
+        || !capabilities.hasMultipleValues().isFalse()) {
+      return null;
+    }
+
+    final SingleValueDimensionVectorSelector selector =
+        factory.makeSingleValueDimensionSelector(DefaultDimensionSpec.of(plan.getSingleInputName()));
+    if (selector.getValueCardinality() == DimensionDictionarySelector.CARDINALITY_UNKNOWN
+        || !selector.nameLookupPossibleInAdvance()) {
+      return null;
+    }
+    return selector;
+  }
+
   private static Expr.VectorInputBinding createVectorBindings(
       Expr.BindingAnalysis bindingAnalysis,
       VectorColumnSelectorFactory vectorColumnSelectorFactory
@@ -112,11 +177,26 @@ public class ExpressionVectorSelectors
         vectorColumnSelectorFactory.getReadableVectorInspector()
     );
     final List<String> columns = bindingAnalysis.getRequiredBindingsList();
+    final Set<String> arrayColumns = bindingAnalysis.getArrayBindings();
     for (String columnName : columns) {
       final ColumnCapabilities columnCapabilities = vectorColumnSelectorFactory.getColumnCapabilities(columnName);
 
       // null capabilities should be backed by a nil vector selector since it means the column effectively doesnt exist
-      if (columnCapabilities != null) {
+      if (columnCapabilities != null
+          && columnCapabilities.is(ValueType.STRING)
+          && columnCapabilities.hasMultipleValues().isTrue()
+          && arrayColumns.contains(columnName)) {
+        // multi-valued string columns used as array inputs, as allowed by ExpressionPlanner#areVectorArrayInputs
+        binding.addObjectSelector(
+            columnName,
+            ExpressionType.STRING_ARRAY,
+            new MultiValueStringArrayVectorObjectSelector(
+                vectorColumnSelectorFactory.makeMultiValueDimensionSelector(DefaultDimensionSpec.of(columnName)),
+                vectorColumnSelectorFactory.getReadableVectorInspector(),
+                ExpressionProcessing.isHomogenizeNullMultiValueStringArrays()
+            )
+        );
+      } else if (columnCapabilities != null) {
         switch (columnCapabilities.getType()) {
           case FLOAT:
           case DOUBLE:
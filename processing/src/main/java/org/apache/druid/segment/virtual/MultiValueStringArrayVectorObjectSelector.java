@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.virtual;
+
+import org.apache.druid.segment.data.IndexedInts;
+import org.apache.druid.segment.vector.MultiValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.ReadableVectorInspector;
+import org.apache.druid.segment.vector.VectorObjectSelector;
+
+/**
+ * {@link VectorObjectSelector} which reads the rows of a multi-valued string column as Object[], for binding the
+ * column as a string array to vectorized expressions which use it only as an array input. Rows are translated the
+ * same way as the non-vectorized bindings of {@link ExpressionSelectors#supplierFromDimensionSelector}, with array
+ * coercion.
+ */
+class MultiValueStringArrayVectorObjectSelector implements VectorObjectSelector
+{
+  private final MultiValueDimensionVectorSelector selector;
+  private final ReadableVectorInspector vectorInspector;
+  private final boolean homogenize;
+  private final Object[] rows;
+
+  private int currentId = ReadableVectorInspector.NULL_ID;
+
+  MultiValueStringArrayVectorObjectSelector(
+      MultiValueDimensionVectorSelector selector,
+      ReadableVectorInspector vectorInspector,
+      boolean homogenize
+  )
+  {
+    this.selector = selector;
+    this.vectorInspector = vectorInspector;
+    this.homogenize = homogenize;
+    this.rows = new Object[selector.getMaxVectorSize()];
+  }
+
+  @Override
+  public Object[] getObjectVector()
+  {
+    if (vectorInspector.getId() != currentId) {
+      currentId = vectorInspector.getId();
+      final IndexedInts[] rowVector = selector.getRowVector();
+      for (int i = 0; i < selector.getCurrentVectorSize(); i++) {
+        rows[i] = toArray(rowVector[i]);
+      }
+    }
+    return rows;
+  }
+
+  private Object toArray(IndexedInts row)
+  {
+    final int size = row.size();
+    // column selector factories use [] and [null] interchangeably for nullish data
+    if (size == 0 || (size == 1 && selector.lookupName(row.get(0)) == null)) {
+      return homogenize ? new Object[]{null} : null;
+    }
+    final Object[] strings = new Object[size];
+    for (int i = 0; i < size; i++) {
+      strings[i] = selector.lookupName(row.get(i));
+    }
+    return strings;
+  }
+
+  @Override
+  public int getMaxVectorSize()
+  {
+    return selector.getMaxVectorSize();
+  }
+
+  @Override
+  public int getCurrentVectorSize()
+  {
+    return selector.getCurrentVectorSize();
+  }
+}
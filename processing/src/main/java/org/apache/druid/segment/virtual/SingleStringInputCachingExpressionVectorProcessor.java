@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.virtual;
+
+import com.google.common.base.Preconditions;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.math.expr.Expr;
+import org.apache.druid.math.expr.ExprEval;
+import org.apache.druid.math.expr.ExpressionType;
+import org.apache.druid.math.expr.InputBindings;
+import org.apache.druid.math.expr.vector.ExprEvalDoubleVector;
+import org.apache.druid.math.expr.vector.ExprEvalLongVector;
+import org.apache.druid.math.expr.vector.ExprEvalStringVector;
+import org.apache.druid.math.expr.vector.ExprEvalVector;
+import org.apache.druid.math.expr.vector.ExprVectorProcessor;
+import org.apache.druid.segment.DimensionDictionarySelector;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+
+import javax.annotation.Nullable;
+
+/**
+ * Vectorized version of {@link SingleStringInputCachingExpressionColumnValueSelector}. Evaluates an expression with a
+ * single string input once per dictionary id of the input column instead of once per row, caching results for the
+ * first {@link SingleStringInputCachingExpressionColumnValueSelector#CACHE_SIZE} dictionary ids (or the most recently
+ * used ids, if the dictionary is larger than that). Must only be used on selectors with dictionaries.
+ *
+ * The {@link Expr.VectorInputBinding} passed to {@link #evalVector} is only used for its vector size; values are read
+ * directly from the dictionary selector.
+ */
+public class SingleStringInputCachingExpressionVectorProcessor<T> implements ExprVectorProcessor<T>
+{
+  private final SingleValueDimensionVectorSelector selector;
+  private final Expr expression;
+  private final ExpressionType outputType;
+  private final Expr.ObjectBinding bindings;
+  @Nullable
+  private final ExprEval[] arrayEvalCache;
+  @Nullable
+  private final SingleStringInputCachingExpressionColumnValueSelector.LruEvalCache lruEvalCache;
+
+  @Nullable
+  private final String[] strings;
+  @Nullable
+  private final long[] longs;
+  @Nullable
+  private final double[] doubles;
+  @Nullable
+  private final boolean[] nulls;
+
+  private int currentDictionaryId;
+
+  public SingleStringInputCachingExpressionVectorProcessor(
+      final SingleValueDimensionVectorSelector selector,
+      final Expr expression,
+      final ExpressionType outputType
+  )
+  {
+    // Verify expression has just one binding.
+    if (expression.analyzeInputs().getRequiredBindings().size() != 1) {
+      throw new ISE("Expected expression with just one binding");
+    }
+
+    // Verify selector has a working dictionary.
+    if (selector.getValueCardinality() == DimensionDictionarySelector.CARDINALITY_UNKNOWN
+        || !selector.nameLookupPossibleInAdvance()) {
+      throw new ISE(
+          "Selector of class[%s] does not have a dictionary, cannot use it.",
+          selector.getClass().getName()
+      );
+    }
+
+    this.selector = Preconditions.checkNotNull(selector, "selector");
+    this.expression = Preconditions.checkNotNull(expression, "expression");
+    this.outputType = Preconditions.checkNotNull(outputType, "outputType");
+
+    this.bindings = InputBindings.singleProvider(
+        ExpressionType.STRING,
+        name -> selector.lookupName(currentDictionaryId)
+    );
+
+    if (selector.getValueCardinality() <= SingleStringInputCachingExpressionColumnValueSelector.CACHE_SIZE) {
+      arrayEvalCache = new ExprEval[selector.getValueCardinality()];
+      lruEvalCache = null;
+    } else {
+      arrayEvalCache = null;
+      lruEvalCache = new SingleStringInputCachingExpressionColumnValueSelector.LruEvalCache(expression, bindings);
+    }
+
+    final int maxVectorSize = selector.getMaxVectorSize();
+    switch (outputType.getType()) {
+      case LONG:
+        strings = null;
+        longs = new long[maxVectorSize];
+        doubles = null;
+        nulls = new boolean[maxVectorSize];
+        break;
+      case DOUBLE:
+        strings = null;
+        longs = null;
+        doubles = new double[maxVectorSize];
+        nulls = new boolean[maxVectorSize];
+        break;
+      case STRING:
+        strings = new String[maxVectorSize];
+        longs = null;
+        doubles = null;
+        nulls = null;
+        break;
+      default:
+        throw new ISE("Cannot cache expression output of type[%s]", outputType);
+    }
+  }
+
+  @Override
+  public ExprEvalVector<T> evalVector(Expr.VectorInputBinding vectorBindings)
+  {
+    final int[] ids = selector.getRowVector();
+    final int currentSize = selector.getCurrentVectorSize();
+    final ExprEvalVector<?> result;
+
+    switch (outputType.getType()) {
+      case LONG:
+        for (int i = 0; i < currentSize; i++) {
+          final ExprEval<?> eval = eval(ids[i]);
+          nulls[i] = eval.isNumericNull();
+          longs[i] = nulls[i] ? 0L : eval.asLong();
+        }
+        result = new ExprEvalLongVector(longs, nulls);
+        break;
+      case DOUBLE:
+        for (int i = 0; i < currentSize; i++) {
+          final ExprEval<?> eval = eval(ids[i]);
+          nulls[i] = eval.isNumericNull();
+          doubles[i] = nulls[i] ? 0.0 : eval.asDouble();
+        }
+        result = new ExprEvalDoubleVector(doubles, nulls);
+        break;
+      default:
+        for (int i = 0; i < currentSize; i++) {
+          strings[i] = eval(ids[i]).asString();
+        }
+        result = new ExprEvalStringVector(strings);
+        break;
+    }
+    return (ExprEvalVector<T>) result;
+  }
+
+  @Override
+  public ExpressionType getOutputType()
+  {
+    return outputType;
+  }
+
+  private ExprEval<?> eval(final int id)
+  {
+    currentDictionaryId = id;
+    if (arrayEvalCache != null) {
+      if (arrayEvalCache[id] == null) {
+        arrayEvalCache[id] = expression.eval(bindings);
+      }
+      return arrayEvalCache[id];
+    } else {
+      assert lruEvalCache != null;
+      return lruEvalCache.compute(id);
+    }
+  }
+}
@@ -24,9 +24,17 @@ import com.google.common.collect.Iterables;
 import org.junit.Assert;
 import org.junit.Test;
 import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
 
 public class RoaringBitmapFactoryTest
 {
@@ -92,4 +100,74 @@ public class RoaringBitmapFactoryTest
 
     Assert.assertEquals(3, bitmap.size());
   }
+
+  @Test
+  public void testUnionSerialized()
+  {
+    final RoaringBitmapFactory factory = new RoaringBitmapFactory();
+    final Random random = new Random(0);
+
+    for (int trial = 0; trial < 20; trial++) {
+      final List<ImmutableRoaringBitmap> bitmaps = new ArrayList<>();
+      final List<ByteBuffer> serialized = new ArrayList<>();
+      for (int i = 0; i < 1 + random.nextInt(50); i++) {
+        final MutableRoaringBitmap bitmap = new MutableRoaringBitmap();
+        // array, bitmap and run containers, over a few or many keys, so that some bitmaps have no container offsets
+        final int numKeys = 1 + random.nextInt(random.nextBoolean() ? 3 : 10);
+        for (int key = 0; key < numKeys; key++) {
+          final int base = random.nextInt(20) << 16;
+          switch (random.nextInt(3)) {
+            case 0:
+              for (int j = 0; j < 1 + random.nextInt(100); j++) {
+                bitmap.add(base + random.nextInt(1 << 16));
+              }
+              break;
+            case 1:
+              for (int j = 0; j < 10000; j++) {
+                bitmap.add(base + random.nextInt(1 << 16));
+              }
+              break;
+            default:
+              final int start = random.nextInt(1 << 16);
+              bitmap.add((long) base + start, (long) base + start + random.nextInt((1 << 16) - start) + 1);
+          }
+        }
+        if (random.nextBoolean()) {
+          bitmap.runOptimize();
+        }
+        bitmaps.add(bitmap);
+
+        // serialized at an offset, in buffers of either byte order
+        final ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes() + 7);
+        buffer.position(7);
+        bitmap.serialize(buffer.slice());
+        buffer.order(random.nextBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        serialized.add(buffer);
+        if (random.nextInt(10) == 0) {
+          serialized.add(null);
+        }
+      }
+
+      final ImmutableBitmap union = factory.union(
+          new SerializedBitmapIterable()
+          {
+            @Override
+            public Iterator<ByteBuffer> serializedIterator()
+            {
+              return serialized.iterator();
+            }
+
+            @Override
+            public Iterator<ImmutableBitmap> iterator()
+            {
+              throw new UnsupportedOperationException();
+            }
+          }
+      );
+      Assert.assertEquals(
+          ImmutableRoaringBitmap.or(bitmaps.iterator()),
+          ((WrappedImmutableRoaringBitmap) union).getBitmap()
+      );
+    }
+  }
 }
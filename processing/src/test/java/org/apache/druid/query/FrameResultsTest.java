@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.query;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.hll.HyperLogLogCollector;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.java.util.common.guava.Yielders;
+import org.apache.druid.query.aggregation.hyperloglog.HyperUniquesSerde;
+import org.apache.druid.segment.column.ColumnType;
+import org.apache.druid.segment.column.RowSignature;
+import org.apache.druid.segment.serde.ComplexMetrics;
+import org.apache.druid.testing.InitializedNullHandlingTest;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FrameResultsTest extends InitializedNullHandlingTest
+{
+  private static final ColumnType HLL_TYPE = ColumnType.ofComplex("hyperUnique");
+
+  private static final RowSignature SIGNATURE = RowSignature.builder()
+                                                            .add("__time", ColumnType.LONG)
+                                                            .add("s", ColumnType.STRING)
+                                                            .add("l", ColumnType.LONG)
+                                                            .add("f", ColumnType.FLOAT)
+                                                            .add("d", ColumnType.DOUBLE)
+                                                            .add("h", HLL_TYPE)
+                                                            .build();
+
+  @BeforeClass
+  public static void setUpClass()
+  {
+    ComplexMetrics.registerSerde("hyperUnique", new HyperUniquesSerde());
+  }
+
+  @Test
+  public void testIsSupported()
+  {
+    Assert.assertTrue(FrameResults.isSupported(ColumnType.LONG));
+    Assert.assertTrue(FrameResults.isSupported(ColumnType.STRING));
+    Assert.assertTrue(FrameResults.isSupported(HLL_TYPE));
+    Assert.assertFalse(FrameResults.isSupported(ColumnType.ofComplex("noSuchType")));
+    Assert.assertFalse(FrameResults.isSupported(ColumnType.STRING_ARRAY));
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception
+  {
+    // Enough rows for several frames.
+    final List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 50_000; i++) {
+      final HyperLogLogCollector collector = HyperLogLogCollector.makeLatestCollector();
+      collector.add(Hashing.murmur3_128().hashBytes(StringUtils.toUtf8(String.valueOf(i))).asBytes());
+      rows.add(
+          new Object[]{
+              1_000_000L * i,
+              i % 7 == 0 ? null : "value" + i,
+              i % 5 == 0 && NullHandling.sqlCompatible() ? null : (long) i * 3,
+              i / 4f,
+              i / 3d,
+              collector,
+              "ignored"
+          }
+      );
+    }
+
+    final List<Object[]> actual = read(write(Sequences.simple(rows)));
+    Assert.assertEquals(rows.size(), actual.size());
+    for (int i = 0; i < rows.size(); i++) {
+      final Object[] expected = Arrays.copyOf(rows.get(i), SIGNATURE.size());
+      Assert.assertArrayEquals(expected, actual.get(i));
+    }
+  }
+
+  @Test
+  public void testWriteAndReadEmpty() throws Exception
+  {
+    Assert.assertEquals(0, read(write(Sequences.empty())).size());
+  }
+
+  @Test
+  public void testReadTruncated() throws Exception
+  {
+    final byte[] bytes = write(Sequences.simple(ImmutableList.of(new Object[]{0L, "a", 1L, 2f, 3d, null})));
+    for (int length : new int[]{0, 2, bytes.length / 2}) {
+      Assert.assertThrows(RuntimeException.class, () -> read(Arrays.copyOf(bytes, length)));
+    }
+  }
+
+  @Test
+  public void testWriteFailure()
+  {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final Sequence<Object[]> failing = Sequences.concat(
+        Sequences.simple(ImmutableList.of(new Object[]{0L, "a", 1L, 2f, 3d, null})),
+        Sequences.<Object[]>simple(() -> {
+          throw new ISE("failed");
+        })
+    );
+
+    Assert.assertThrows(
+        ISE.class,
+        () -> FrameResults.write(Yielders.each(failing), SIGNATURE, Channels.newChannel(out))
+    );
+
+    // Readers must not mistake what was written for a complete stream.
+    Assert.assertThrows(RuntimeException.class, () -> read(out.toByteArray()));
+  }
+
+  private static byte[] write(Sequence<Object[]> rows) throws Exception
+  {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    FrameResults.write(Yielders.each(rows), SIGNATURE, Channels.newChannel(out));
+    return out.toByteArray();
+  }
+
+  private static List<Object[]> read(byte[] bytes)
+  {
+    return FrameResults.read(new ByteArrayInputStream(bytes), SIGNATURE, "test").toList();
+  }
+}
@@ -43,6 +43,7 @@ public class TestExprMacroTable extends ExprMacroTable
             new IPv4AddressStringifyExprMacro(),
             new LikeExprMacro(),
             new RegexpExtractExprMacro(),
+            new RegexpLikeExprMacro(),
             new TimestampCeilExprMacro(),
             new TimestampExtractExprMacro(),
             new TimestampFloorExprMacro(),
@@ -21,16 +21,25 @@ package org.apache.druid.query.filter;
 
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableRangeSet;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
+import org.apache.druid.query.expression.TestExprMacroTable;
+import org.apache.druid.segment.VirtualColumns;
+import org.apache.druid.segment.column.ColumnStats;
+import org.apache.druid.segment.column.ColumnType;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.virtual.ExpressionVirtualColumn;
 import org.apache.druid.timeline.partition.ShardSpec;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -76,6 +85,62 @@ public class DimFilterUtilsTest
     assertFilterResult(filter1, shards, expected1);
   }
 
+  @Test
+  public void testFilterByColumnStats()
+  {
+    final Map<String, ColumnStats> stats1 = ImmutableMap.of(
+        "dim1", new ColumnStats(ValueType.STRING, "a", "c", 0, 3),
+        "met1", new ColumnStats(ValueType.LONG, 1L, 10L, 0, 10)
+    );
+    final Map<String, ColumnStats> stats2 = ImmutableMap.of(
+        "dim1", new ColumnStats(ValueType.STRING, "d", "f", 0, 3),
+        "met1", new ColumnStats(ValueType.LONG, 11L, 20L, 0, 10)
+    );
+    final List<Map<String, ColumnStats>> input = Arrays.asList(stats1, stats2, null);
+
+    final DimFilter dim1IsB = new SelectorDimFilter("dim1", "b", null);
+    final DimFilter met1Is15 = new SelectorDimFilter("met1", "15", null);
+    assertColumnStatsFilterResult(dim1IsB, VirtualColumns.EMPTY, input, Arrays.asList(stats1, null));
+    assertColumnStatsFilterResult(met1Is15, VirtualColumns.EMPTY, input, Arrays.asList(stats2, null));
+    assertColumnStatsFilterResult(
+        new AndDimFilter(dim1IsB, met1Is15),
+        VirtualColumns.EMPTY,
+        input,
+        Arrays.asList((Map<String, ColumnStats>) null)
+    );
+    assertColumnStatsFilterResult(new OrDimFilter(dim1IsB, met1Is15), VirtualColumns.EMPTY, input, input);
+    assertColumnStatsFilterResult(
+        new BoundDimFilter("dim1", "e", null, false, false, null, null, null),
+        VirtualColumns.EMPTY,
+        input,
+        Arrays.asList(stats2, null)
+    );
+    assertColumnStatsFilterResult(null, VirtualColumns.EMPTY, input, input);
+
+    // virtual columns shadow the columns of the segments
+    final VirtualColumns virtualColumns = VirtualColumns.create(
+        ImmutableList.of(new ExpressionVirtualColumn("dim1", "'b'", ColumnType.STRING, TestExprMacroTable.INSTANCE))
+    );
+    assertColumnStatsFilterResult(dim1IsB, virtualColumns, input, input);
+  }
+
+  private void assertColumnStatsFilterResult(
+      DimFilter filter,
+      VirtualColumns virtualColumns,
+      List<Map<String, ColumnStats>> input,
+      List<Map<String, ColumnStats>> expected
+  )
+  {
+    final Set<Map<String, ColumnStats>> result = DimFilterUtils.filterByColumnStats(
+        filter,
+        input,
+        stats -> stats,
+        virtualColumns,
+        new HashMap<>()
+    );
+    Assert.assertEquals(expected, new ArrayList<>(result));
+  }
+
   private void assertFilterResult(DimFilter filter, Iterable<ShardSpec> input, Set<ShardSpec> expected)
   {
     Set<ShardSpec> result = DimFilterUtils.filterShards(filter, input, CONVERTER);
@@ -30,8 +30,11 @@ import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.java.util.common.guava.Yielders;
 import org.apache.druid.query.CacheStrategy;
 import org.apache.druid.query.Druids;
+import org.apache.druid.query.FrameResults;
+import org.apache.druid.query.QueryContexts;
 import org.apache.druid.query.QueryDataSource;
 import org.apache.druid.query.QueryRunnerTestHelper;
 import org.apache.druid.query.QueryToolChestTestHelper;
@@ -40,6 +43,7 @@ import org.apache.druid.query.aggregation.DoubleSumAggregatorFactory;
 import org.apache.druid.query.aggregation.FloatSumAggregatorFactory;
 import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
 import org.apache.druid.query.aggregation.SerializablePairLongString;
+import org.apache.druid.query.aggregation.hyperloglog.HyperUniquesSerde;
 import org.apache.druid.query.aggregation.last.DoubleLastAggregatorFactory;
 import org.apache.druid.query.aggregation.last.FloatLastAggregatorFactory;
 import org.apache.druid.query.aggregation.last.LongLastAggregatorFactory;
@@ -62,21 +66,27 @@ import org.apache.druid.query.groupby.having.NotHavingSpec;
 import org.apache.druid.query.groupby.having.OrHavingSpec;
 import org.apache.druid.query.groupby.orderby.DefaultLimitSpec;
 import org.apache.druid.query.groupby.orderby.OrderByColumnSpec;
+import org.apache.druid.query.groupby.strategy.GroupByStrategyV2;
 import org.apache.druid.query.ordering.StringComparators;
 import org.apache.druid.segment.TestHelper;
 import org.apache.druid.segment.column.ColumnType;
 import org.apache.druid.segment.column.RowSignature;
 import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.serde.ComplexMetrics;
 import org.apache.druid.segment.virtual.ExpressionVirtualColumn;
 import org.apache.druid.testing.InitializedNullHandlingTest;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 public class GroupByQueryQueryToolChestTest extends InitializedNullHandlingTest
 {
@@ -873,6 +883,79 @@ public class GroupByQueryQueryToolChestTest extends InitializedNullHandlingTest
     );
   }
 
+  @Test
+  public void testResultFrameSignature()
+  {
+    ComplexMetrics.registerSerde("hyperUnique", new HyperUniquesSerde());
+    final GroupByQuery query = new GroupByQuery.Builder()
+        .setDataSource(QueryRunnerTestHelper.DATA_SOURCE)
+        .setGranularity(Granularities.DAY)
+        .setDimensions(new DefaultDimensionSpec("col", "dim"))
+        .setInterval(QueryRunnerTestHelper.FULL_ON_INTERVAL_SPEC)
+        .setAggregatorSpecs(QueryRunnerTestHelper.COMMON_DOUBLE_AGGREGATORS)
+        .setPostAggregatorSpecs(ImmutableList.of(QueryRunnerTestHelper.CONSTANT))
+        .build();
+    final GroupByQueryQueryToolChest toolChest = new GroupByQueryQueryToolChest(null);
+
+    // Only results of data servers are sent as frames.
+    Assert.assertFalse(toolChest.resultFrameSignature(query).isPresent());
+
+    final GroupByQuery dataServerQuery = query.withOverriddenContext(
+        ImmutableMap.of(GroupByStrategyV2.CTX_KEY_OUTERMOST, false)
+    );
+    Assert.assertEquals(
+        Optional.of(
+            RowSignature.builder()
+                        .addTimeColumn()
+                        .add("dim", ColumnType.STRING)
+                        .add("rows", ColumnType.LONG)
+                        .add("index", ColumnType.DOUBLE)
+                        .add("uniques", ColumnType.ofComplex("hyperUnique"))
+                        .build()
+        ),
+        toolChest.resultFrameSignature(dataServerQuery)
+    );
+    Assert.assertFalse(
+        toolChest.resultFrameSignature(
+            dataServerQuery.withOverriddenContext(ImmutableMap.of(QueryContexts.BY_SEGMENT_KEY, true))
+        ).isPresent()
+    );
+  }
+
+  @Test
+  public void testResultsThroughFrames() throws IOException
+  {
+    final GroupByQuery query = new GroupByQuery.Builder()
+        .setDataSource(QueryRunnerTestHelper.DATA_SOURCE)
+        .setGranularity(Granularities.DAY)
+        .setDimensions(new DefaultDimensionSpec("col", "dim"))
+        .setInterval(QueryRunnerTestHelper.FULL_ON_INTERVAL_SPEC)
+        .setAggregatorSpecs(new LongSumAggregatorFactory("rows", "rows"), new DoubleSumAggregatorFactory("index", "index"))
+        .setContext(ImmutableMap.of(GroupByStrategyV2.CTX_KEY_OUTERMOST, false))
+        .build();
+    final GroupByQueryQueryToolChest toolChest = new GroupByQueryQueryToolChest(null);
+    final List<ResultRow> rows = ImmutableList.of(
+        makeRow(query, "2000-01-01", "dim", "foo", "rows", 1L, "index", 2.5),
+        makeRow(query, "2000-01-02", "dim", null, "rows", 4L, "index", 5d)
+    );
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final RowSignature signature = toolChest.resultFrameSignature(query).get();
+    FrameResults.write(
+        Yielders.each(toolChest.resultsAsArrays(query, Sequences.simple(rows))),
+        signature,
+        Channels.newChannel(out)
+    );
+
+    Assert.assertEquals(
+        rows,
+        toolChest.resultsFromArrays(
+            query,
+            FrameResults.read(new ByteArrayInputStream(out.toByteArray()), signature, "test")
+        ).toList()
+    );
+  }
+
   @Test
   public void testCanPerformSubqueryOnGroupBys()
   {
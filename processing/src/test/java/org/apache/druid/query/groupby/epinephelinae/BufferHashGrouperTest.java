@@ -178,12 +178,86 @@ public class BufferHashGrouperTest extends InitializedNullHandlingTest
     }
   }
 
+  @Test
+  public void testGrowingWithFingerprints()
+  {
+    final TestColumnSelectorFactory columnSelectorFactory = GrouperTestUtil.newColumnSelectorFactory();
+    try (final ResourceHolder<Grouper<IntKey>> grouperHolder =
+             makeGrouper(columnSelectorFactory, 10000, 2, 0.75f, true)) {
+      final Grouper<IntKey> grouper = grouperHolder.get();
+
+      // Exact capacity is different from the non-fingerprint table, because of the space used by control bytes.
+      columnSelectorFactory.setRow(new MapBasedRow(0, ImmutableMap.of("value", 10L)));
+      int maxSize = 0;
+      while (grouper.aggregate(new IntKey(maxSize)).isOk()) {
+        maxSize++;
+      }
+      Assert.assertTrue(String.valueOf(maxSize), maxSize > 150);
+
+      // Aggregate slightly different row
+      columnSelectorFactory.setRow(new MapBasedRow(0, ImmutableMap.of("value", 11L)));
+      for (int i = 0; i < maxSize; i++) {
+        Assert.assertTrue(String.valueOf(i), grouper.aggregate(new IntKey(i)).isOk());
+      }
+      Assert.assertFalse(grouper.aggregate(new IntKey(maxSize)).isOk());
+
+      final List<Grouper.Entry<IntKey>> expected = new ArrayList<>();
+      for (int i = 0; i < maxSize; i++) {
+        expected.add(new ReusableEntry<>(new IntKey(i), new Object[]{21L, 2L}));
+      }
+
+      GrouperTestUtil.assertEntriesEquals(expected.iterator(), grouper.iterator(true));
+    }
+  }
+
+  @Test
+  public void testFingerprintsMatchLinearProbing()
+  {
+    final TestColumnSelectorFactory columnSelectorFactory = GrouperTestUtil.newColumnSelectorFactory();
+    try (
+        final ResourceHolder<Grouper<IntKey>> linearHolder =
+            makeGrouper(columnSelectorFactory, 1_000_000, 2, 0.9f, false);
+        final ResourceHolder<Grouper<IntKey>> fingerprintHolder =
+            makeGrouper(columnSelectorFactory, 1_000_000, 2, 0.9f, true)
+    ) {
+      final Grouper<IntKey> linearGrouper = linearHolder.get();
+      final Grouper<IntKey> fingerprintGrouper = fingerprintHolder.get();
+
+      // High load factor and repeated keys, so probe sequences are long and most lookups hit existing buckets.
+      for (int i = 0; i < 100_000; i++) {
+        columnSelectorFactory.setRow(new MapBasedRow(0, ImmutableMap.of("value", (long) i)));
+        final IntKey key = new IntKey((i * 31) % 20_011);
+        Assert.assertTrue(String.valueOf(i), linearGrouper.aggregate(key).isOk());
+        Assert.assertTrue(String.valueOf(i), fingerprintGrouper.aggregate(key).isOk());
+      }
+
+      final List<Grouper.Entry<IntKey>> expected = new ArrayList<>();
+      linearGrouper.iterator(true).forEachRemaining(
+          entry -> expected.add(new ReusableEntry<>(new IntKey(entry.getKey().intValue()), entry.getValues().clone()))
+      );
+
+      Assert.assertEquals(20_011, expected.size());
+      GrouperTestUtil.assertEntriesEquals(expected.iterator(), fingerprintGrouper.iterator(true));
+    }
+  }
+
   private ResourceHolder<Grouper<IntKey>> makeGrouper(
       TestColumnSelectorFactory columnSelectorFactory,
       int bufferSize,
       int initialBuckets,
       float maxLoadFactor
   )
+  {
+    return makeGrouper(columnSelectorFactory, bufferSize, initialBuckets, maxLoadFactor, false);
+  }
+
+  private ResourceHolder<Grouper<IntKey>> makeGrouper(
+      TestColumnSelectorFactory columnSelectorFactory,
+      int bufferSize,
+      int initialBuckets,
+      float maxLoadFactor,
+      boolean useFingerprints
+  )
   {
     // Use off-heap allocation since one of our tests has a 1.9GB buffer. Heap size may be insufficient.
     final ResourceHolder<ByteBuffer> bufferHolder = ByteBufferUtils.allocateDirect(bufferSize);
@@ -201,7 +275,8 @@ public class BufferHashGrouperTest extends InitializedNullHandlingTest
         Integer.MAX_VALUE,
         maxLoadFactor,
         initialBuckets,
-        true
+        true,
+        useFingerprints
     );
 
     grouper.init();
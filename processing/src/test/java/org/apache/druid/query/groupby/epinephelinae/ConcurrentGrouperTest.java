@@ -28,21 +28,27 @@ import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.druid.collections.ReferenceCountingResourceHolder;
 import org.apache.druid.jackson.DefaultObjectMapper;
 import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.apache.druid.query.LimitedTemporaryStorage;
 import org.apache.druid.query.QueryTimeoutException;
 import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.dimension.DefaultDimensionSpec;
 import org.apache.druid.query.dimension.DimensionSpec;
 import org.apache.druid.query.groupby.epinephelinae.Grouper.BufferComparator;
 import org.apache.druid.query.groupby.epinephelinae.Grouper.Entry;
 import org.apache.druid.query.groupby.epinephelinae.Grouper.KeySerde;
 import org.apache.druid.query.groupby.epinephelinae.Grouper.KeySerdeFactory;
+import org.apache.druid.query.groupby.epinephelinae.RowBasedGrouperHelper.RowBasedKey;
+import org.apache.druid.query.groupby.epinephelinae.RowBasedGrouperHelper.RowBasedKeySerdeFactory;
 import org.apache.druid.segment.ColumnSelectorFactory;
 import org.apache.druid.segment.ColumnValueSelector;
 import org.apache.druid.segment.DimensionSelector;
 import org.apache.druid.segment.column.ColumnCapabilities;
+import org.apache.druid.segment.column.ColumnType;
 import org.apache.druid.testing.InitializedNullHandlingTest;
 import org.junit.After;
 import org.junit.Assert;
@@ -75,14 +81,17 @@ public class ConcurrentGrouperTest extends InitializedNullHandlingTest
   @Rule
   public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
+  private final int bufferSize;
   private final Supplier<ByteBuffer> bufferSupplier;
   private final int concurrencyHint;
   private final int parallelCombineThreads;
   private final ExecutorService exec;
   private final boolean mergeThreadLocal;
+  private final int spillMergeFanIn;
   private final Closer closer = Closer.create();
 
-  @Parameters(name = "bufferSize={0}, concurrencyHint={1}, parallelCombineThreads={2}, mergeThreadLocal={3}")
+  @Parameters(name = "bufferSize={0}, concurrencyHint={1}, parallelCombineThreads={2}, mergeThreadLocal={3}, "
+                     + "spillMergeFanIn={4}")
   public static Collection<Object[]> constructorFeeder()
   {
     final List<Object[]> constructors = new ArrayList<>();
@@ -91,8 +100,12 @@ public class ConcurrentGrouperTest extends InitializedNullHandlingTest
       for (final int concurrencyHint : new int[]{1, 8}) {
         for (final int parallelCombineThreads : new int[]{0, 8}) {
           for (final boolean mergeThreadLocal : new boolean[]{true, false}) {
-            if (parallelCombineThreads <= concurrencyHint) {
-              constructors.add(new Object[]{bufferSize, concurrencyHint, parallelCombineThreads, mergeThreadLocal});
+            for (final int spillMergeFanIn : new int[]{0, 2}) {
+              if (parallelCombineThreads <= concurrencyHint) {
+                constructors.add(
+                    new Object[]{bufferSize, concurrencyHint, parallelCombineThreads, mergeThreadLocal, spillMergeFanIn}
+                );
+              }
             }
           }
         }
@@ -119,12 +132,15 @@ public class ConcurrentGrouperTest extends InitializedNullHandlingTest
       int bufferSize,
       int concurrencyHint,
       int parallelCombineThreads,
-      boolean mergeThreadLocal
+      boolean mergeThreadLocal,
+      int spillMergeFanIn
   )
   {
+    this.bufferSize = bufferSize;
     this.concurrencyHint = concurrencyHint;
     this.parallelCombineThreads = parallelCombineThreads;
     this.mergeThreadLocal = mergeThreadLocal;
+    this.spillMergeFanIn = spillMergeFanIn;
     this.bufferSupplier = new Supplier<ByteBuffer>()
     {
       private final AtomicBoolean called = new AtomicBoolean(false);
@@ -161,6 +177,7 @@ public class ConcurrentGrouperTest extends InitializedNullHandlingTest
         1024,
         0.7f,
         1,
+        false,
         temporaryStorage,
         new DefaultObjectMapper(),
         concurrencyHint,
@@ -172,7 +189,8 @@ public class ConcurrentGrouperTest extends InitializedNullHandlingTest
         0,
         4,
         parallelCombineThreads,
-        mergeThreadLocal
+        mergeThreadLocal,
+        spillMergeFanIn
     );
     closer.register(grouper);
     grouper.init();
@@ -201,6 +219,7 @@ public class ConcurrentGrouperTest extends InitializedNullHandlingTest
     }
 
     final CloseableIterator<Entry<LongKey>> iterator = closer.register(grouper.iterator(true));
+    assertSpillMergePasses(grouper);
 
     if (parallelCombineThreads > 1 && (mergeThreadLocal || temporaryStorage.currentSize() > 0)) {
       // Parallel combiner configured, and expected to actually be used due to thread-local merge (either explicitly
@@ -213,6 +232,285 @@ public class ConcurrentGrouperTest extends InitializedNullHandlingTest
     GrouperTestUtil.assertEntriesEquals(expected.iterator(), iterator);
   }
 
+  @Test
+  public void testAggregateBatch() throws InterruptedException, ExecutionException, IOException
+  {
+    final LimitedTemporaryStorage temporaryStorage = new LimitedTemporaryStorage(
+        temporaryFolder.newFolder(),
+        1024 * 1024
+    );
+
+    final ConcurrentGrouper<LongKey> grouper = new ConcurrentGrouper<>(
+        bufferSupplier,
+        TEST_RESOURCE_HOLDER,
+        KEY_SERDE_FACTORY,
+        KEY_SERDE_FACTORY,
+        NULL_FACTORY,
+        new AggregatorFactory[]{new CountAggregatorFactory("cnt")},
+        1024,
+        0.7f,
+        1,
+        false,
+        temporaryStorage,
+        new DefaultObjectMapper(),
+        concurrencyHint,
+        null,
+        false,
+        MoreExecutors.listeningDecorator(exec),
+        0,
+        false,
+        0,
+        4,
+        parallelCombineThreads,
+        mergeThreadLocal,
+        spillMergeFanIn
+    );
+    closer.register(grouper);
+    grouper.init();
+
+    final int numRows = 1000;
+    final int batchSize = 64;
+
+    Future<?>[] futures = new Future[concurrencyHint];
+
+    for (int i = 0; i < concurrencyHint; i++) {
+      futures[i] = exec.submit(() -> {
+        final LongKey[] keys = new LongKey[batchSize];
+        final int[] keyHashes = new int[batchSize];
+        final boolean[] rowsSeen = new boolean[batchSize];
+
+        for (int start = 0; start < numRows; start += batchSize) {
+          final int numRowsInBatch = Math.min(batchSize, numRows - start);
+          for (int j = 0; j < numRowsInBatch; j++) {
+            keys[j] = new LongKey(start + j);
+            keyHashes[j] = grouper.hashFunction().applyAsInt(keys[j]);
+            rowsSeen[j] = false;
+          }
+
+          if (!grouper.aggregateBatch(keys, keyHashes, numRowsInBatch, row -> rowsSeen[row] = true).isOk()) {
+            throw new ISE("Grouper is full");
+          }
+
+          for (int j = 0; j < numRowsInBatch; j++) {
+            if (!rowsSeen[j]) {
+              throw new ISE("Row[%d] was not selected before aggregation", j);
+            }
+          }
+        }
+      });
+    }
+
+    for (Future eachFuture : futures) {
+      eachFuture.get();
+    }
+
+    final List<Entry<LongKey>> expected = new ArrayList<>();
+    for (long i = 0; i < numRows; i++) {
+      expected.add(new ReusableEntry<>(new LongKey(i), new Object[]{(long) concurrencyHint}));
+    }
+
+    final CloseableIterator<Entry<LongKey>> iterator = closer.register(grouper.iterator(true));
+    assertSpillMergePasses(grouper);
+    GrouperTestUtil.assertEntriesEquals(expected.iterator(), iterator);
+  }
+
+  @Test
+  public void testAggregateWithGlobalDictionaryFallback() throws Exception
+  {
+    final LimitedTemporaryStorage temporaryStorage = new LimitedTemporaryStorage(
+        temporaryFolder.newFolder(),
+        10 * 1024 * 1024
+    );
+
+    final int numRows = 1000;
+    final long stringKeySize = RowBasedGrouperHelper.estimateStringKeySize(StringUtils.format("%04d", 0));
+
+    // Too small for all the strings, so groupers have to fall back to their own dictionaries.
+    final GlobalStringDictionary globalDictionary = new GlobalStringDictionary(100 * stringKeySize);
+    final AggregatorFactory[] aggregatorFactories = new AggregatorFactory[]{new CountAggregatorFactory("cnt")};
+    final List<DimensionSpec> dimensions = ImmutableList.of(new DefaultDimensionSpec("dim", "dim"));
+    final List<ColumnType> valueTypes = ImmutableList.of(ColumnType.STRING);
+
+    final ConcurrentGrouper<RowBasedKey> grouper = new ConcurrentGrouper<>(
+        bufferSupplier,
+        TEST_RESOURCE_HOLDER,
+        new RowBasedKeySerdeFactory(
+            false,
+            false,
+            dimensions,
+            100 * stringKeySize,
+            valueTypes,
+            aggregatorFactories,
+            null,
+            globalDictionary
+        ),
+        new RowBasedKeySerdeFactory(
+            false,
+            false,
+            dimensions,
+            Long.MAX_VALUE,
+            valueTypes,
+            aggregatorFactories,
+            null,
+            null
+        ),
+        NULL_FACTORY,
+        aggregatorFactories,
+        1024,
+        0.7f,
+        1,
+        false,
+        temporaryStorage,
+        new DefaultObjectMapper(),
+        concurrencyHint,
+        null,
+        false,
+        MoreExecutors.listeningDecorator(exec),
+        0,
+        false,
+        0,
+        4,
+        parallelCombineThreads,
+        mergeThreadLocal,
+        spillMergeFanIn
+    );
+    closer.register(grouper);
+    grouper.init();
+
+    final Future<?>[] futures = new Future[concurrencyHint];
+
+    for (int i = 0; i < concurrencyHint; i++) {
+      futures[i] = exec.submit(() -> {
+        for (int j = 0; j < numRows; j++) {
+          final RowBasedKey key = new RowBasedKey(new Object[]{StringUtils.format("%04d", j)});
+          if (!grouper.aggregate(key).isOk()) {
+            throw new ISE("Grouper is full");
+          }
+        }
+      });
+    }
+
+    for (Future<?> future : futures) {
+      future.get();
+    }
+
+    final List<Entry<RowBasedKey>> expected = new ArrayList<>();
+    for (int i = 0; i < numRows; i++) {
+      expected.add(
+          new ReusableEntry<>(
+              new RowBasedKey(new Object[]{StringUtils.format("%04d", i)}),
+              new Object[]{(long) concurrencyHint}
+          )
+      );
+    }
+
+    final CloseableIterator<Entry<RowBasedKey>> iterator = closer.register(grouper.iterator(true));
+    GrouperTestUtil.assertEntriesEquals(expected.iterator(), iterator);
+
+    // The global dictionary filled up, so groupers had to spill and then use their own dictionaries.
+    Assert.assertEquals(100, globalDictionary.size());
+    Assert.assertTrue(temporaryStorage.currentSize() > 0);
+  }
+
+  @Test
+  public void testSpillMergePassesNearStorageLimit() throws IOException
+  {
+    if (bufferSize != 1024 || concurrencyHint != 1 || spillMergeFanIn == 0) {
+      // Only one grouper, spilling many more files than the fan-in, gives a predictable amount of spilled data.
+      return;
+    }
+
+    final int numRows = 1000;
+
+    // Measure how much is spilled without merging, when nothing is deleted until the grouper is closed.
+    final LimitedTemporaryStorage unmergedStorage = new LimitedTemporaryStorage(
+        temporaryFolder.newFolder(),
+        10 * 1024 * 1024
+    );
+    final long spilledBytes;
+    try (ConcurrentGrouper<LongKey> grouper = makeSingleThreadedGrouper(unmergedStorage, 0)) {
+      aggregateSingleThreaded(grouper, numRows);
+      try (CloseableIterator<Entry<LongKey>> iterator = grouper.iterator(true)) {
+        spilledBytes = unmergedStorage.currentSize();
+      }
+    }
+
+    // Each pass writes at most what it deletes, so twice the spilled size is enough for any number of passes as long
+    // as deleted files stop counting.
+    final LimitedTemporaryStorage temporaryStorage = new LimitedTemporaryStorage(
+        temporaryFolder.newFolder(),
+        2 * spilledBytes
+    );
+    final ConcurrentGrouper<LongKey> grouper = closer.register(
+        makeSingleThreadedGrouper(temporaryStorage, spillMergeFanIn)
+    );
+    aggregateSingleThreaded(grouper, numRows);
+
+    final List<Entry<LongKey>> expected = new ArrayList<>();
+    for (long i = 0; i < numRows; i++) {
+      expected.add(new ReusableEntry<>(new LongKey(i), new Object[]{1L}));
+    }
+
+    final CloseableIterator<Entry<LongKey>> iterator = closer.register(grouper.iterator(true));
+    Assert.assertTrue(grouper.getSpillMergePasses() > 2);
+    Assert.assertTrue(temporaryStorage.currentSize() <= spilledBytes);
+    GrouperTestUtil.assertEntriesEquals(expected.iterator(), iterator);
+  }
+
+  private ConcurrentGrouper<LongKey> makeSingleThreadedGrouper(
+      LimitedTemporaryStorage temporaryStorage,
+      int fanIn
+  )
+  {
+    final ConcurrentGrouper<LongKey> grouper = new ConcurrentGrouper<>(
+        () -> ByteBuffer.allocate(bufferSize),
+        TEST_RESOURCE_HOLDER,
+        KEY_SERDE_FACTORY,
+        KEY_SERDE_FACTORY,
+        NULL_FACTORY,
+        new AggregatorFactory[]{new CountAggregatorFactory("cnt")},
+        1024,
+        0.7f,
+        1,
+        false,
+        temporaryStorage,
+        new DefaultObjectMapper(),
+        1,
+        null,
+        false,
+        MoreExecutors.listeningDecorator(exec),
+        0,
+        false,
+        0,
+        4,
+        0,
+        false,
+        fanIn
+    );
+    grouper.init();
+    return grouper;
+  }
+
+  private static void aggregateSingleThreaded(ConcurrentGrouper<LongKey> grouper, int numRows)
+  {
+    for (long j = 0; j < numRows; j++) {
+      if (!grouper.aggregate(new LongKey(j)).isOk()) {
+        throw new ISE("Grouper is full");
+      }
+    }
+  }
+
+  private void assertSpillMergePasses(ConcurrentGrouper<LongKey> grouper)
+  {
+    if (spillMergeFanIn == 0) {
+      Assert.assertEquals(0, grouper.getSpillMergePasses());
+    } else if (bufferSize == 1024) {
+      // Small enough buffers for each grouper to spill many more files than the fan-in, so they must have been merged
+      // in more than one pass per grouper.
+      Assert.assertTrue(grouper.getSpillMergePasses() > concurrencyHint);
+    }
+  }
+
   @Test
   public void testGrouperTimeout() throws Exception
   {
@@ -231,6 +529,7 @@ public class ConcurrentGrouperTest extends InitializedNullHandlingTest
         1024,
         0.7f,
         1,
+        false,
         new LimitedTemporaryStorage(temporaryFolder.newFolder(), 1024 * 1024),
         new DefaultObjectMapper(),
         concurrencyHint,
@@ -242,7 +541,8 @@ public class ConcurrentGrouperTest extends InitializedNullHandlingTest
         1,
         4,
         parallelCombineThreads,
-        mergeThreadLocal
+        mergeThreadLocal,
+        spillMergeFanIn
     );
     closer.register(grouper);
     grouper.init();
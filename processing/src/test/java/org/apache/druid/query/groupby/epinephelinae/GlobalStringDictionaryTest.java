@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.groupby.epinephelinae;
+
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.segment.DimensionDictionary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class GlobalStringDictionaryTest
+{
+  @Test
+  public void testAddAndGet()
+  {
+    final GlobalStringDictionary dictionary = new GlobalStringDictionary(Long.MAX_VALUE);
+
+    Assert.assertEquals(DimensionDictionary.ABSENT_VALUE_ID, dictionary.getId("a"));
+    Assert.assertEquals(0, dictionary.add("b"));
+    Assert.assertEquals(1, dictionary.add("a"));
+    Assert.assertEquals(2, dictionary.add(null));
+    Assert.assertEquals(0, dictionary.add("b"));
+    Assert.assertEquals(2, dictionary.add(null));
+
+    Assert.assertEquals(3, dictionary.size());
+    Assert.assertEquals(1, dictionary.getId("a"));
+    Assert.assertEquals(2, dictionary.getId(null));
+    Assert.assertEquals("b", dictionary.get(0));
+    Assert.assertNull(dictionary.get(2));
+    Assert.assertEquals(Arrays.asList("b", "a", null), dictionary.snapshot());
+  }
+
+  @Test
+  public void testRanks()
+  {
+    final GlobalStringDictionary dictionary = new GlobalStringDictionary(Long.MAX_VALUE);
+    dictionary.add("c");
+    dictionary.add("a");
+    dictionary.add(null);
+    dictionary.add("b");
+
+    Assert.assertArrayEquals(new int[]{3, 1, 0, 2}, dictionary.getRanks());
+
+    // Cached until the dictionary grows.
+    Assert.assertSame(dictionary.getRanks(), dictionary.getRanks());
+
+    dictionary.add("");
+    Assert.assertArrayEquals(new int[]{4, 2, 0, 3, 1}, dictionary.getRanks());
+  }
+
+  @Test
+  public void testSizeLimit()
+  {
+    final long maxSize = RowBasedGrouperHelper.estimateStringKeySize("a")
+                         + RowBasedGrouperHelper.estimateStringKeySize("b");
+    final GlobalStringDictionary dictionary = new GlobalStringDictionary(maxSize);
+
+    Assert.assertEquals(0, dictionary.add("a"));
+    Assert.assertEquals(1, dictionary.add("b"));
+    Assert.assertEquals(-1, dictionary.add("c"));
+
+    // Strings that are already present can still be looked up.
+    Assert.assertEquals(1, dictionary.add("b"));
+    Assert.assertEquals(2, dictionary.size());
+  }
+
+  @Test(timeout = 60_000L)
+  public void testConcurrentAdds() throws Exception
+  {
+    final int numThreads = 4;
+    final int numStrings = 20_000;
+    final GlobalStringDictionary dictionary = new GlobalStringDictionary(Long.MAX_VALUE);
+    final ExecutorService exec = Executors.newFixedThreadPool(numThreads);
+
+    try {
+      final Future<?>[] futures = new Future[numThreads];
+      for (int t = 0; t < numThreads; t++) {
+        final int offset = t;
+        futures[t] = exec.submit(
+            () -> {
+              for (int i = 0; i < numStrings; i++) {
+                final String s = StringUtils.format("%d", (i * 7 + offset) % numStrings);
+                final int id = dictionary.add(s);
+                Assert.assertEquals(s, dictionary.get(id));
+              }
+            }
+        );
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+    finally {
+      exec.shutdownNow();
+      Assert.assertTrue(exec.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    Assert.assertEquals(numStrings, dictionary.size());
+
+    final List<String> snapshot = dictionary.snapshot();
+    for (int i = 0; i < snapshot.size(); i++) {
+      Assert.assertEquals(i, dictionary.getId(snapshot.get(i)));
+    }
+  }
+}
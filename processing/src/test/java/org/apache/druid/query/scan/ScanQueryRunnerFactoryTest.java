@@ -19,14 +19,20 @@
 
 package org.apache.druid.query.scan;
 
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.jackson.DefaultObjectMapper;
 import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.HumanReadableBytes;
+import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.UOE;
 import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.query.DefaultGenericQueryMetricsFactory;
+import org.apache.druid.query.DruidProcessingConfig;
 import org.apache.druid.query.Druids;
 import org.apache.druid.query.QueryPlus;
 import org.apache.druid.query.QueryRunner;
@@ -45,9 +51,11 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -91,6 +99,9 @@ public class ScanQueryRunnerFactoryTest
     private ScanQuery query;
     private ScanQuery.ResultFormat resultFormat;
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     public ScanQueryRunnerFactoryParameterizedTest(
         final int numElements,
         final int batchSize,
@@ -257,6 +268,88 @@ public class ScanQueryRunnerFactoryTest
       validateSortedOutput(output, expectedEventTimestamps);
     }
 
+    @Test
+    public void testSpillingMerge() throws IOException
+    {
+      final int numPartitions = 5;
+      List<Long> expectedEventTimestamps = new ArrayList<>(numElements * (numPartitions + 1));
+      List<QueryRunner<ScanResultValue>> intervalRunners1 = new ArrayList<>(numPartitions);
+      for (int p = 0; p < numPartitions; p++) {
+        List<ScanResultValue> scanResultValues = new ArrayList<>(numElements);
+        for (int i = 0; i < numElements; i++) {
+          long timestamp = DateTimes.of("2015-01-01").plusMinutes(i * numPartitions + p).getMillis();
+          expectedEventTimestamps.add(timestamp);
+          scanResultValues.add(ScanQueryTestHelper.generateScanResultValue(timestamp, resultFormat, 1));
+        }
+        if (query.getTimeOrder() == ScanQuery.Order.DESCENDING) {
+          Collections.reverse(scanResultValues);
+        }
+        intervalRunners1.add((queryPlus, responseContext) -> Sequences.simple(scanResultValues));
+      }
+
+      List<ScanResultValue> scanResultValues2 = new ArrayList<>(numElements);
+      for (int i = 0; i < numElements; i++) {
+        long timestamp = DateTimes.of("2015-01-02").plusMinutes(i).getMillis();
+        expectedEventTimestamps.add(timestamp);
+        scanResultValues2.add(ScanQueryTestHelper.generateScanResultValue(timestamp, resultFormat, 1));
+      }
+      if (query.getTimeOrder() == ScanQuery.Order.DESCENDING) {
+        Collections.reverse(scanResultValues2);
+      }
+      List<QueryRunner<ScanResultValue>> intervalRunners2 = Arrays.asList(
+          (queryPlus, responseContext) -> Sequences.simple(scanResultValues2),
+          (queryPlus, responseContext) -> Sequences.empty()
+      );
+
+      List<List<QueryRunner<ScanResultValue>>> groupedRunners = new ArrayList<>(2);
+      if (query.getTimeOrder() == ScanQuery.Order.DESCENDING) {
+        groupedRunners.add(intervalRunners2);
+        groupedRunners.add(intervalRunners1);
+        expectedEventTimestamps.sort(Collections.reverseOrder());
+      } else {
+        groupedRunners.add(intervalRunners1);
+        groupedRunners.add(intervalRunners2);
+        Collections.sort(expectedEventTimestamps);
+      }
+
+      final File tmpDir = temporaryFolder.newFolder();
+      final ScanQueryRunnerFactory factory = new ScanQueryRunnerFactory(
+          new ScanQueryQueryToolChest(CONFIG, DefaultGenericQueryMetricsFactory.instance()),
+          new ScanQueryEngine(),
+          CONFIG,
+          new DruidProcessingConfig()
+          {
+            @Override
+            public String getFormatString()
+            {
+              return null;
+            }
+
+            @Override
+            public String getTmpDir()
+            {
+              return tmpDir.getAbsolutePath();
+            }
+          },
+          new DefaultObjectMapper(new SmileFactory(), null)
+      );
+
+      List<ScanResultValue> output =
+          factory.spillingMergeAndLimit(
+              groupedRunners,
+              QueryPlus.wrap(query),
+              ResponseContext.createEmpty(),
+              2,
+              Long.MAX_VALUE
+          ).toList();
+
+      validateSortedOutput(output, expectedEventTimestamps);
+      Assert.assertEquals(Math.min(expectedEventTimestamps.size(), query.getScanRowsLimit()), output.size());
+
+      // Temporary storage is cleaned up once the results are consumed.
+      Assert.assertArrayEquals(new File[0], tmpDir.listFiles());
+    }
+
     private void validateSortedOutput(List<ScanResultValue> output, List<Long> expectedEventTimestamps)
     {
       // check each scan result value has one event
@@ -360,7 +453,8 @@ public class ScanQueryRunnerFactoryTest
           "Time ordering is not supported for a Scan query with 5 segments per time chunk and a row limit of 10,001. "
           + "Try reducing your query limit below maxRowsQueuedForOrdering (currently 10,000), or using compaction to "
           + "reduce the number of segments per time chunk, or raising maxSegmentPartitionsOrderedInMemory "
-          + "(currently 4) above the number of segments you have per time chunk."
+          + "(currently 4) above the number of segments you have per time chunk, or setting maxOnDiskStorage "
+          + "to allow spilling to disk."
       );
 
       runner.run(
@@ -381,5 +475,62 @@ public class ScanQueryRunnerFactoryTest
           ResponseContext.createEmpty()
       );
     }
+
+    @Test
+    public void testMergeRunnersSpillingRejectsFanInBelowTwo()
+    {
+      final ScanQueryConfig spillingConfig = new ScanQueryConfig()
+      {
+        @Override
+        public HumanReadableBytes getMaxOnDiskStorage()
+        {
+          return HumanReadableBytes.valueOf(1_000_000);
+        }
+      };
+      final ScanQueryRunnerFactory factory = new ScanQueryRunnerFactory(
+          new ScanQueryQueryToolChest(spillingConfig, DefaultGenericQueryMetricsFactory.instance()),
+          new ScanQueryEngine(),
+          spillingConfig,
+          new DruidProcessingConfig()
+          {
+            @Override
+            public String getFormatString()
+            {
+              return null;
+            }
+          },
+          new DefaultObjectMapper(new SmileFactory(), null)
+      );
+      final QueryRunner<ScanResultValue> runner = factory.mergeRunners(
+          Execs.directExecutor(),
+          IntStream.range(0, 2)
+                   .mapToObj(i -> (QueryRunner<ScanResultValue>) (queryPlus, responseContext) -> Sequences.empty())
+                   .collect(Collectors.toList())
+      );
+
+      expectedException.expect(IAE.class);
+      expectedException.expectMessage(
+          "maxSegmentPartitionsOrderedInMemory must be at least 2 when spilling to disk, but was [1]"
+      );
+
+      runner.run(
+          QueryPlus.wrap(
+              Druids.newScanQueryBuilder()
+                    .dataSource("foo")
+                    .limit(spillingConfig.getMaxRowsQueuedForOrdering() + 1)
+                    .intervals(
+                        new MultipleSpecificSegmentSpec(
+                            IntStream.range(0, 2)
+                                     .mapToObj(i -> new SegmentDescriptor(Intervals.ETERNITY, "v0", i))
+                                     .collect(Collectors.toList())
+                        )
+                    )
+                    .order(ScanQuery.Order.ASCENDING)
+                    .context(ImmutableMap.of(ScanQueryConfig.CTX_KEY_MAX_SEGMENT_PARTITIONS_FOR_ORDERING, 1))
+                    .build()
+          ),
+          ResponseContext.createEmpty()
+      );
+    }
   }
 }
@@ -900,6 +900,52 @@ public class ScanQueryRunnerTest extends InitializedNullHandlingTest
     }
   }
 
+  @Test
+  public void testLateMaterialization()
+  {
+    final List<ScanQuery> queries = ImmutableList.of(
+        newTestQuery()
+            .intervals(I_0112_0114)
+            .virtualColumns(EXPR_COLUMN)
+            .limit(20)
+            .batchSize(7)
+            .build(),
+        newTestQuery()
+            .intervals(I_0112_0114)
+            .virtualColumns(EXPR_COLUMN)
+            .filters(new SelectorDimFilter(QueryRunnerTestHelper.MARKET_DIMENSION, "spot", null))
+            .resultFormat(ScanQuery.ResultFormat.RESULT_FORMAT_COMPACTED_LIST)
+            .limit(11)
+            .batchSize(4)
+            .build(),
+        newTestQuery()
+            .intervals(I_0112_0114)
+            .filters(new SelectorDimFilter(QueryRunnerTestHelper.QUALITY_DIMENSION, "automotive", null))
+            .columns(
+                QueryRunnerTestHelper.TIME_DIMENSION,
+                QueryRunnerTestHelper.PLACEMENTISH_DIMENSION,
+                QueryRunnerTestHelper.INDEX_METRIC,
+                "quality_uniques"
+            )
+            .order(ScanQuery.Order.DESCENDING)
+            .context(ImmutableMap.of(ScanQuery.CTX_KEY_OUTERMOST, false))
+            .limit(1000)
+            .build()
+    );
+
+    for (ScanQuery query : queries) {
+      final List<ScanResultValue> expectedResults = runner.run(QueryPlus.wrap(query)).toList();
+      final List<ScanResultValue> results = runner.run(
+          QueryPlus.wrap(
+              query.withOverriddenContext(ImmutableMap.of(ScanQueryConfig.CTX_KEY_LATE_MATERIALIZATION, true))
+          )
+      ).toList();
+
+      Assert.assertFalse(expectedResults.isEmpty());
+      Assert.assertEquals(expectedResults, results);
+    }
+  }
+
   @Test
   public void testScanQueryTimeout()
   {
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.scan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.apache.druid.jackson.DefaultObjectMapper;
+import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.java.util.common.guava.Yielder;
+import org.apache.druid.java.util.common.guava.Yielders;
+import org.apache.druid.query.Druids;
+import org.apache.druid.query.LimitedTemporaryStorage;
+import org.apache.druid.query.QueryRunnerTestHelper;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ScanQuerySpillingMergerTest
+{
+  private static final int NUM_SEQUENCES = 16;
+  private static final int ROWS_PER_SEQUENCE = 200;
+
+  private final ObjectMapper spillMapper = new DefaultObjectMapper(new SmileFactory(), null);
+  private final ScanQuery query = Druids.newScanQueryBuilder()
+                                        .dataSource("foo")
+                                        .intervals(QueryRunnerTestHelper.FULL_ON_INTERVAL_SPEC)
+                                        .resultFormat(ScanQuery.ResultFormat.RESULT_FORMAT_COMPACTED_LIST)
+                                        .order(ScanQuery.Order.ASCENDING)
+                                        .build();
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testMergePassesNearStorageLimit() throws IOException
+  {
+    // Merge everything into two runs first, to find out how many bytes one copy of the rows takes on disk.
+    final long spilledBytes;
+    try (LimitedTemporaryStorage storage = makeStorage(Long.MAX_VALUE)) {
+      final Yielder<ScanResultValue> yielder = Yielders.each(
+          new ScanQuerySpillingMerger(spillMapper, storage, query.getResultOrdering(), NUM_SEQUENCES / 2, Long.MAX_VALUE)
+              .merge(makeSequences())
+      );
+      spilledBytes = storage.currentSize();
+      yielder.close();
+    }
+    Assert.assertTrue(spilledBytes > 0);
+
+    // With a fan-in of 2, the rows are written three times over in all. Deleted runs must not count against the
+    // limit, or this would run out of space.
+    try (LimitedTemporaryStorage storage = makeStorage(2 * spilledBytes)) {
+      final List<ScanResultValue> merged =
+          new ScanQuerySpillingMerger(spillMapper, storage, query.getResultOrdering(), 2, Long.MAX_VALUE)
+              .merge(makeSequences())
+              .toList();
+
+      Assert.assertEquals(NUM_SEQUENCES * ROWS_PER_SEQUENCE, merged.size());
+      for (int i = 0; i < merged.size(); i++) {
+        Assert.assertEquals(
+            timestamp(i),
+            merged.get(i).getFirstEventTimestamp(ScanQuery.ResultFormat.RESULT_FORMAT_COMPACTED_LIST)
+        );
+      }
+      Assert.assertTrue(storage.currentSize() <= spilledBytes);
+    }
+  }
+
+  private LimitedTemporaryStorage makeStorage(long maxBytes) throws IOException
+  {
+    return new LimitedTemporaryStorage(temporaryFolder.newFolder(), maxBytes);
+  }
+
+  private List<Sequence<ScanResultValue>> makeSequences()
+  {
+    final List<Sequence<ScanResultValue>> sequences = new ArrayList<>(NUM_SEQUENCES);
+    for (int s = 0; s < NUM_SEQUENCES; s++) {
+      final List<ScanResultValue> values = new ArrayList<>(ROWS_PER_SEQUENCE);
+      for (int i = 0; i < ROWS_PER_SEQUENCE; i++) {
+        values.add(
+            ScanQueryTestHelper.generateScanResultValue(
+                timestamp(i * NUM_SEQUENCES + s),
+                ScanQuery.ResultFormat.RESULT_FORMAT_COMPACTED_LIST,
+                1
+            )
+        );
+      }
+      sequences.add(Sequences.simple(values));
+    }
+    return sequences;
+  }
+
+  private static long timestamp(int i)
+  {
+    return DateTimes.of("2015-01-01").plusMinutes(i).getMillis();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.topn;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.query.QueryRunnerTestHelper;
+import org.apache.druid.query.Result;
+import org.apache.druid.query.TestBufferPool;
+import org.apache.druid.segment.QueryableIndexStorageAdapter;
+import org.apache.druid.segment.StorageAdapter;
+import org.apache.druid.segment.TestIndex;
+import org.apache.druid.testing.InitializedNullHandlingTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class SketchPrefilteredTopNAlgorithmTest extends InitializedNullHandlingTest
+{
+  @Test
+  public void testTakesOneBufferAtATime()
+  {
+    final TopNQuery query = new TopNQueryBuilder()
+        .dataSource(QueryRunnerTestHelper.DATA_SOURCE)
+        .granularity(QueryRunnerTestHelper.ALL_GRAN)
+        .dimension(QueryRunnerTestHelper.QUALITY_DIMENSION)
+        .metric(QueryRunnerTestHelper.INDEX_METRIC)
+        .threshold(3)
+        .intervals(QueryRunnerTestHelper.FULL_ON_INTERVAL_SPEC)
+        .aggregators(QueryRunnerTestHelper.COMMON_DOUBLE_AGGREGATORS)
+        .build();
+    final StorageAdapter adapter = new QueryableIndexStorageAdapter(TestIndex.getMMappedTestIndex());
+
+    // Taking a second buffer from this pool fails.
+    final TestBufferPool pool = TestBufferPool.onHeap(1024 * 1024, 1);
+    final TopNQueryEngine engine = new TopNQueryEngine(pool);
+
+    final List<Result<TopNResultValue>> expected = engine.query(query, adapter, null).toList();
+    final List<Result<TopNResultValue>> actual = engine.query(
+        query.withOverriddenContext(ImmutableMap.of(SketchPrefilteredTopNAlgorithm.CTX_KEY_SKETCH_PREFILTER, true)),
+        adapter,
+        null
+    ).toList();
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(0, pool.getOutstandingObjectCount());
+  }
+}
@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.query.Result;
 import org.apache.druid.query.aggregation.AggregatorFactory;
@@ -38,12 +39,14 @@ import org.joda.time.DateTime;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 /**
  */
@@ -517,4 +520,210 @@ public class TopNBinaryFnTest
     Assert.assertEquals(expected.getTimestamp(), actual.getTimestamp());
     assertTopNMergeResult(expected.getValue(), actual.getValue());
   }
+
+  @Test
+  public void testMergeChained()
+  {
+    final TopNBinaryFn fn = makeChainedMergeFn();
+    final List<Result<TopNResultValue>> results = makeChainedResults();
+
+    Result<TopNResultValue> merged = null;
+    for (Result<TopNResultValue> result : results.subList(0, 5)) {
+      merged = fn.apply(merged, result);
+    }
+
+    // Reading a merged result must freeze it: later merges may not change what has already been observed.
+    final Result<TopNResultValue> firstHalfExpected = new Result<>(
+        currTime,
+        new TopNResultValue(
+            ImmutableList.<Map<String, Object>>of(
+                ImmutableMap.of("testdim", "0", "rows", 2L, "index", 4L),
+                ImmutableMap.of("testdim", "3", "rows", 1L, "index", 3L)
+            )
+        )
+    );
+    final Result<TopNResultValue> firstHalf = merged;
+    assertTopNMergeResult(firstHalfExpected.getValue(), firstHalf.getValue());
+
+    for (Result<TopNResultValue> result : results.subList(5, 10)) {
+      merged = fn.apply(merged, result);
+    }
+
+    Assert.assertNotSame(firstHalf, merged);
+    assertTopNMergeResult(firstHalfExpected.getValue(), firstHalf.getValue());
+
+    // Values truncated away from the first half when it was read still count towards later merges.
+    Assert.assertEquals(currTime, merged.getTimestamp());
+    assertTopNMergeResult(makeChainedExpected().getValue(), merged.getValue());
+  }
+
+  @Test
+  public void testMergeTreesGiveIdenticalResults()
+  {
+    final TopNBinaryFn fn = makeChainedMergeFn();
+    final List<Result<TopNResultValue>> results = makeChainedResults();
+    final Result<TopNResultValue> expected = makeChainedExpected();
+
+    Result<TopNResultValue> leftFold = null;
+    for (Result<TopNResultValue> result : results) {
+      leftFold = fn.apply(leftFold, result);
+    }
+    assertTopNMergeResult(expected.getValue(), leftFold.getValue());
+
+    Result<TopNResultValue> rightFold = null;
+    for (int i = results.size() - 1; i >= 0; i--) {
+      rightFold = fn.apply(results.get(i), rightFold);
+    }
+    assertTopNMergeResult(expected.getValue(), rightFold.getValue());
+
+    assertTopNMergeResult(expected.getValue(), mergeBalanced(fn, results).getValue());
+
+    // Reading every intermediate result must not change the final one.
+    Result<TopNResultValue> readFold = null;
+    for (Result<TopNResultValue> result : results) {
+      readFold = fn.apply(readFold, result);
+      Assert.assertTrue(readFold.getValue().getValue().size() <= 2);
+    }
+    assertTopNMergeResult(expected.getValue(), readFold.getValue());
+  }
+
+  @Test
+  public void testMergeTakesOverUnreadResults()
+  {
+    final TopNBinaryFn fn = makeChainedMergeFn();
+    final List<Result<TopNResultValue>> results = makeChainedResults();
+
+    final Result<TopNResultValue> merged = fn.apply(results.get(1), results.get(2));
+    final Result<TopNResultValue> mergedAgain = fn.apply(merged, results.get(3));
+    Assert.assertNotSame(merged, mergedAgain);
+
+    // Merging again took over the values of the first merged result, which had not been read yet.
+    try {
+      merged.getValue().getValue().size();
+      Assert.fail("Expected the merged result to have been taken over");
+    }
+    catch (ISE e) {
+      Assert.assertEquals("Merged values have already been merged into another result", e.getMessage());
+    }
+    assertTopNMergeResult(
+        new TopNResultValue(
+            ImmutableList.<Map<String, Object>>of(
+                ImmutableMap.of("testdim", "3", "rows", 1L, "index", 3L),
+                ImmutableMap.of("testdim", "2", "rows", 1L, "index", 2L)
+            )
+        ),
+        mergedAgain.getValue()
+    );
+
+    // Inputs that are not merged results are left alone.
+    assertTopNMergeResult(
+        new TopNResultValue(
+            ImmutableList.<Map<String, Object>>of(
+                ImmutableMap.of("rows", 1L, "index", 1L, "testdim", "1"),
+                ImmutableMap.of("rows", 1L, "index", 0L, "testdim", "x")
+            )
+        ),
+        results.get(1).getValue()
+    );
+  }
+
+  @Test
+  public void testMergeIsOrderIndependent()
+  {
+    final TopNBinaryFn fn = makeChainedMergeFn();
+    final int numResults = 100;
+
+    // "w" only makes it to the top when all of its partial values are combined, so dropping it from the accumulated
+    // values when its early partial values are low would change the merged result.
+    final List<Result<TopNResultValue>> results = new ArrayList<>();
+    for (int i = 0; i < numResults; i++) {
+      results.add(
+          new Result<>(
+              currTime,
+              new TopNResultValue(
+                  ImmutableList.<Map<String, Object>>of(
+                      ImmutableMap.of("rows", 1L, "index", 100L, "testdim", "big"),
+                      ImmutableMap.of("rows", 1L, "index", (long) i, "testdim", "u" + i),
+                      ImmutableMap.of("rows", 1L, "index", i % 2 == 0 ? 0L : 3L, "testdim", "w")
+                  )
+              )
+          )
+      );
+    }
+    final TopNResultValue expected = new TopNResultValue(
+        ImmutableList.<Map<String, Object>>of(
+            ImmutableMap.of("testdim", "big", "rows", (long) numResults, "index", 100L * numResults),
+            ImmutableMap.of("testdim", "w", "rows", (long) numResults, "index", 3L * numResults / 2)
+        )
+    );
+
+    final Random random = new Random(0);
+    for (int run = 0; run < 10; run++) {
+      final List<Result<TopNResultValue>> shuffled = new ArrayList<>(results);
+      Collections.shuffle(shuffled, random);
+
+      Result<TopNResultValue> leftFold = null;
+      for (Result<TopNResultValue> result : shuffled) {
+        leftFold = fn.apply(leftFold, result);
+      }
+      assertTopNMergeResult(expected, leftFold.getValue());
+      assertTopNMergeResult(expected, mergeBalanced(fn, shuffled).getValue());
+    }
+  }
+
+  private Result<TopNResultValue> mergeBalanced(final TopNBinaryFn fn, final List<Result<TopNResultValue>> results)
+  {
+    if (results.size() == 1) {
+      return results.get(0);
+    }
+    final int mid = results.size() / 2;
+    return fn.apply(
+        mergeBalanced(fn, results.subList(0, mid)),
+        mergeBalanced(fn, results.subList(mid, results.size()))
+    );
+  }
+
+  private TopNBinaryFn makeChainedMergeFn()
+  {
+    return new TopNBinaryFn(
+        Granularities.ALL,
+        new DefaultDimensionSpec("testdim", null),
+        new NumericTopNMetricSpec("index"),
+        2,
+        aggregatorFactories,
+        postAggregators
+    );
+  }
+
+  private List<Result<TopNResultValue>> makeChainedResults()
+  {
+    final List<Result<TopNResultValue>> results = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      results.add(
+          new Result<>(
+              currTime,
+              new TopNResultValue(
+                  ImmutableList.<Map<String, Object>>of(
+                      ImmutableMap.of("rows", 1L, "index", (long) i, "testdim", String.valueOf(i % 4)),
+                      ImmutableMap.of("rows", 1L, "index", 0L, "testdim", "x")
+                  )
+              )
+          )
+      );
+    }
+    return results;
+  }
+
+  private Result<TopNResultValue> makeChainedExpected()
+  {
+    return new Result<>(
+        currTime,
+        new TopNResultValue(
+            ImmutableList.<Map<String, Object>>of(
+                ImmutableMap.of("testdim", "1", "rows", 3L, "index", 15L),
+                ImmutableMap.of("testdim", "0", "rows", 3L, "index", 12L)
+            )
+        )
+    );
+  }
 }
@@ -90,7 +90,9 @@ import org.apache.druid.query.filter.SelectorDimFilter;
 import org.apache.druid.query.lookup.LookupExtractionFn;
 import org.apache.druid.query.ordering.StringComparators;
 import org.apache.druid.query.spec.MultipleIntervalSegmentSpec;
+import org.apache.druid.segment.QueryableIndexStorageAdapter;
 import org.apache.druid.segment.TestHelper;
+import org.apache.druid.segment.TestIndex;
 import org.apache.druid.segment.column.ColumnHolder;
 import org.apache.druid.segment.column.ColumnType;
 import org.apache.druid.segment.virtual.ExpressionVirtualColumn;
@@ -379,6 +381,208 @@ public class TopNQueryRunnerTest extends InitializedNullHandlingTest
     );
   }
 
+  @Test
+  public void testTopNWithSketchPrefilter()
+  {
+    final List<TopNQuery> queries = Arrays.asList(
+        new TopNQueryBuilder()
+            .dataSource(QueryRunnerTestHelper.DATA_SOURCE)
+            .granularity(QueryRunnerTestHelper.ALL_GRAN)
+            .dimension(QueryRunnerTestHelper.QUALITY_DIMENSION)
+            .metric(QueryRunnerTestHelper.INDEX_METRIC)
+            .threshold(3)
+            .intervals(QueryRunnerTestHelper.FULL_ON_INTERVAL_SPEC)
+            .aggregators(commonAggregators)
+            .postAggregators(QueryRunnerTestHelper.ADD_ROWS_INDEX_CONSTANT)
+            .build(),
+        new TopNQueryBuilder()
+            .dataSource(QueryRunnerTestHelper.DATA_SOURCE)
+            .granularity(QueryRunnerTestHelper.ALL_GRAN)
+            .dimension(QueryRunnerTestHelper.MARKET_DIMENSION)
+            .metric(QueryRunnerTestHelper.INDEX_METRIC)
+            .threshold(1)
+            .intervals(QueryRunnerTestHelper.FULL_ON_INTERVAL_SPEC)
+            .aggregators(QueryRunnerTestHelper.COMMON_FLOAT_AGGREGATORS)
+            .build(),
+        new TopNQueryBuilder()
+            .dataSource(QueryRunnerTestHelper.DATA_SOURCE)
+            .granularity(QueryRunnerTestHelper.ALL_GRAN)
+            .dimension(QueryRunnerTestHelper.PLACEMENTISH_DIMENSION)
+            .metric("rows")
+            .threshold(2)
+            .intervals(QueryRunnerTestHelper.FULL_ON_INTERVAL_SPEC)
+            .aggregators(commonAggregators)
+            .build(),
+        new TopNQueryBuilder()
+            .dataSource(QueryRunnerTestHelper.DATA_SOURCE)
+            .granularity(QueryRunnerTestHelper.DAY_GRAN)
+            .dimension(QueryRunnerTestHelper.QUALITY_DIMENSION)
+            .metric(QueryRunnerTestHelper.INDEX_METRIC)
+            .threshold(1)
+            .intervals(QueryRunnerTestHelper.FIRST_TO_THIRD)
+            .aggregators(commonAggregators)
+            .build()
+    );
+
+    for (TopNQuery query : queries) {
+      final List<Result<TopNResultValue>> expectedResults = runWithMerge(query).toList();
+      assertExpectedResults(
+          expectedResults,
+          query.withOverriddenContext(
+              ImmutableMap.of(SketchPrefilteredTopNAlgorithm.CTX_KEY_SKETCH_PREFILTER, true)
+          )
+      );
+    }
+  }
+
+  @Test
+  public void testTopNVectorized()
+  {
+    final List<TopNQuery> queries = Arrays.asList(
+        new TopNQueryBuilder()
+            .dataSource(QueryRunnerTestHelper.DATA_SOURCE)
+            .granularity(QueryRunnerTestHelper.ALL_GRAN)
+            .dimension(QueryRunnerTestHelper.QUALITY_DIMENSION)
+            .metric(QueryRunnerTestHelper.INDEX_METRIC)
+            .threshold(4)
+            .intervals(QueryRunnerTestHelper.FULL_ON_INTERVAL_SPEC)
+            .aggregators(
+                Lists.newArrayList(
+                    Iterables.concat(
+                        commonAggregators,
+                        Lists.newArrayList(
+                            new DoubleMaxAggregatorFactory("maxIndex", "index"),
+                            new DoubleMinAggregatorFactory("minIndex", "index"),
+                            // Large aggregators, so that dictionary ids do not all fit in one pass.
+                            new HyperUniquesAggregatorFactory("uniques2", "quality_uniques"),
+                            new HyperUniquesAggregatorFactory("uniques3", "quality_uniques")
+                        )
+                    )
+                )
+            )
+            .postAggregators(QueryRunnerTestHelper.ADD_ROWS_INDEX_CONSTANT)
+            .build(),
+        new TopNQueryBuilder()
+            .dataSource(QueryRunnerTestHelper.DATA_SOURCE)
+            .granularity(QueryRunnerTestHelper.DAY_GRAN)
+            .dimension(QueryRunnerTestHelper.QUALITY_DIMENSION)
+            .metric(QueryRunnerTestHelper.INDEX_METRIC)
+            .threshold(3)
+            .intervals(QueryRunnerTestHelper.FIRST_TO_THIRD)
+            .aggregators(
+                Lists.newArrayList(
+                    Iterables.concat(
+                        commonAggregators,
+                        Lists.newArrayList(
+                            // Several passes over each of several time buckets.
+                            new HyperUniquesAggregatorFactory("uniques2", "quality_uniques"),
+                            new HyperUniquesAggregatorFactory("uniques3", "quality_uniques")
+                        )
+                    )
+                )
+            )
+            .build(),
+        new TopNQueryBuilder()
+            .dataSource(QueryRunnerTestHelper.DATA_SOURCE)
+            .granularity(QueryRunnerTestHelper.DAY_GRAN)
+            .dimension(QueryRunnerTestHelper.MARKET_DIMENSION)
+            .metric(new DimensionTopNMetricSpec(null, StringComparators.LEXICOGRAPHIC))
+            .threshold(2)
+            .intervals(QueryRunnerTestHelper.FIRST_TO_THIRD)
+            .filters(QueryRunnerTestHelper.MARKET_DIMENSION, "spot", "upfront")
+            .aggregators(commonAggregators)
+            .build(),
+        new TopNQueryBuilder()
+            .dataSource(QueryRunnerTestHelper.DATA_SOURCE)
+            .granularity(QueryRunnerTestHelper.ALL_GRAN)
+            .dimension(QueryRunnerTestHelper.PARTIAL_NULL_DIMENSION)
+            .metric("rows")
+            .threshold(3)
+            .intervals(QueryRunnerTestHelper.FULL_ON_INTERVAL_SPEC)
+            .aggregators(commonAggregators)
+            .build()
+    );
+
+    for (TopNQuery query : queries) {
+      final List<Result<TopNResultValue>> expectedResults = runWithMerge(query).toList();
+      // "true" rather than "force", since incremental indexes cannot be vectorized
+      assertExpectedResults(
+          expectedResults,
+          query.withOverriddenContext(
+              ImmutableMap.of(VectorTopNEngine.CTX_KEY_VECTORIZE_TOPN, true, QueryContexts.VECTORIZE_KEY, "true")
+          )
+      );
+      Assert.assertTrue(
+          "query must run on the vectorized engine",
+          runsVectorized(
+              query.withOverriddenContext(
+                  ImmutableMap.of(VectorTopNEngine.CTX_KEY_VECTORIZE_TOPN, true, QueryContexts.VECTORIZE_KEY, "force")
+              )
+          )
+      );
+      Assert.assertFalse(
+          "query must not run on the vectorized engine unless it is turned on",
+          runsVectorized(query.withOverriddenContext(ImmutableMap.of(QueryContexts.VECTORIZE_KEY, "force")))
+      );
+    }
+  }
+
+  @Test
+  public void testTopNVectorizeForceCannotVectorize()
+  {
+    final TopNQuery query = new TopNQueryBuilder()
+        .dataSource(QueryRunnerTestHelper.DATA_SOURCE)
+        .granularity(QueryRunnerTestHelper.ALL_GRAN)
+        .dimension(
+            new ExtractionDimensionSpec(
+                QueryRunnerTestHelper.MARKET_DIMENSION,
+                QueryRunnerTestHelper.MARKET_DIMENSION,
+                StrlenExtractionFn.instance()
+            )
+        )
+        .metric("rows")
+        .threshold(3)
+        .intervals(QueryRunnerTestHelper.FULL_ON_INTERVAL_SPEC)
+        .aggregators(commonAggregators)
+        .build();
+
+    // Without the vectorized engine turned on, "force" is ignored like it always was for topN.
+    runsVectorized(query.withOverriddenContext(ImmutableMap.of(QueryContexts.VECTORIZE_KEY, "force")));
+
+    expectedException.expect(ISE.class);
+    expectedException.expectMessage("Cannot vectorize!");
+    runsVectorized(
+        query.withOverriddenContext(
+            ImmutableMap.of(VectorTopNEngine.CTX_KEY_VECTORIZE_TOPN, true, QueryContexts.VECTORIZE_KEY, "force")
+        )
+    );
+  }
+
+  /**
+   * Runs the query directly against the mmapped test index and reports whether the cursor it used was vectorized.
+   */
+  private static boolean runsVectorized(TopNQuery query)
+  {
+    final List<Boolean> vectorized = new ArrayList<>();
+    final TopNQueryMetrics queryMetrics = new DefaultTopNQueryMetrics()
+    {
+      @Override
+      public void vectorized(boolean isVectorized)
+      {
+        super.vectorized(isVectorized);
+        vectorized.add(isVectorized);
+      }
+    };
+
+    try (CloseableStupidPool<ByteBuffer> pool = TestQueryRunners.createDefaultNonBlockingPool()) {
+      new TopNQueryEngine(pool)
+          .query(query, new QueryableIndexStorageAdapter(TestIndex.getMMappedTestIndex()), queryMetrics)
+          .toList();
+    }
+
+    return !vectorized.isEmpty() && vectorized.stream().allMatch(Boolean::booleanValue);
+  }
+
   @Test
   public void testTopNOnMissingColumn()
   {
@@ -33,6 +33,7 @@ import org.apache.druid.data.input.MapBasedInputRow;
 import org.apache.druid.data.input.impl.DimensionsSpec;
 import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.io.smoosh.PartCopyListener;
 import org.apache.druid.java.util.common.io.smoosh.Smoosh;
 import org.apache.druid.java.util.common.io.smoosh.SmooshedFileMapper;
 import org.apache.druid.query.aggregation.CountAggregatorFactory;
@@ -55,6 +56,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -146,7 +148,13 @@ public class IndexIONullColumnsCompatibilityTest extends InitializedNullHandling
     }
 
     @Override
-    public QueryableIndex load(File inDir, ObjectMapper mapper, boolean lazy, SegmentLazyLoadFailCallback loadFailed) throws IOException
+    public QueryableIndex load(
+        File inDir,
+        ObjectMapper mapper,
+        boolean lazy,
+        SegmentLazyLoadFailCallback loadFailed,
+        @Nullable PartCopyListener partCopyListener
+    ) throws IOException
     {
       final int theVersion = Ints.fromByteArray(Files.toByteArray(new File(inDir, "version.bin")));
       if (theVersion != IndexIO.V9_VERSION) {
@@ -47,9 +47,11 @@ import org.apache.druid.query.aggregation.CountAggregatorFactory;
 import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
 import org.apache.druid.segment.column.ColumnHolder;
 import org.apache.druid.segment.column.ColumnIndexSupplier;
+import org.apache.druid.segment.column.ColumnStats;
 import org.apache.druid.segment.column.DictionaryEncodedColumn;
 import org.apache.druid.segment.column.StringDictionaryEncodedColumn;
 import org.apache.druid.segment.column.StringValueSetIndex;
+import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.data.BitmapSerdeFactory;
 import org.apache.druid.segment.data.BitmapValues;
 import org.apache.druid.segment.data.CompressionFactory;
@@ -61,6 +63,8 @@ import org.apache.druid.segment.incremental.IncrementalIndex;
 import org.apache.druid.segment.incremental.IncrementalIndexAdapter;
 import org.apache.druid.segment.incremental.IncrementalIndexSchema;
 import org.apache.druid.segment.incremental.OnheapIncrementalIndex;
+import org.apache.druid.segment.serde.DictionaryEncodedStringIndexSupplier;
+import org.apache.druid.segment.serde.SortedRowsStringIndexSupplier;
 import org.apache.druid.segment.writeout.SegmentWriteOutMediumFactory;
 import org.apache.druid.testing.InitializedNullHandlingTest;
 import org.joda.time.Interval;
@@ -83,6 +87,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class IndexMergerTestBase extends InitializedNullHandlingTest
 {
@@ -122,12 +127,12 @@ public class IndexMergerTestBase extends InitializedNullHandlingTest
   )
   {
     if (bitmapSerdeFactory != null || compressionStrategy != null) {
-      return new IndexSpec(
-          bitmapSerdeFactory,
-          dimCompressionStrategy,
-          compressionStrategy,
-          longEncodingStrategy
-      );
+      return IndexSpec.builder()
+          .withBitmapSerdeFactory(bitmapSerdeFactory)
+          .withDimensionCompression(dimCompressionStrategy)
+          .withMetricCompression(compressionStrategy)
+          .withLongEncoding(longEncodingStrategy)
+          .build();
     } else {
       return new IndexSpec();
     }
@@ -516,18 +521,24 @@ public class IndexMergerTestBase extends InitializedNullHandlingTest
     Assert.assertEquals(Arrays.asList("dim1", "dim2"), Lists.newArrayList(index1.getAvailableDimensions()));
     Assert.assertEquals(3, index1.getColumnNames().size());
 
-    IndexSpec newSpec = new IndexSpec(
-        indexSpec.getBitmapSerdeFactory(),
-        CompressionStrategy.LZ4.equals(indexSpec.getDimensionCompression()) ?
-        CompressionStrategy.LZF :
-        CompressionStrategy.LZ4,
-        CompressionStrategy.LZ4.equals(indexSpec.getDimensionCompression()) ?
-        CompressionStrategy.LZF :
-        CompressionStrategy.LZ4,
-        CompressionFactory.LongEncodingStrategy.LONGS.equals(indexSpec.getLongEncoding()) ?
-        CompressionFactory.LongEncodingStrategy.AUTO :
-        CompressionFactory.LongEncodingStrategy.LONGS
-    );
+    IndexSpec newSpec = IndexSpec.builder()
+        .withBitmapSerdeFactory(indexSpec.getBitmapSerdeFactory())
+        .withDimensionCompression(
+            CompressionStrategy.LZ4.equals(indexSpec.getDimensionCompression()) ?
+            CompressionStrategy.LZF :
+            CompressionStrategy.LZ4
+        )
+        .withMetricCompression(
+            CompressionStrategy.LZ4.equals(indexSpec.getDimensionCompression()) ?
+            CompressionStrategy.LZF :
+            CompressionStrategy.LZ4
+        )
+        .withLongEncoding(
+            CompressionFactory.LongEncodingStrategy.LONGS.equals(indexSpec.getLongEncoding()) ?
+            CompressionFactory.LongEncodingStrategy.AUTO :
+            CompressionFactory.LongEncodingStrategy.LONGS
+        )
+        .build();
 
     AggregatorFactory[] mergedAggregators = new AggregatorFactory[]{new CountAggregatorFactory("count")};
     QueryableIndex merged = closer.closeLater(
@@ -1670,6 +1681,117 @@ public class IndexMergerTestBase extends InitializedNullHandlingTest
     Assert.assertEquals(Collections.singletonList(2L), rowList.get(2).metricValues());
   }
 
+  @Test
+  public void testPersistWithColumnStats() throws Exception
+  {
+    final IndexSpec indexSpecWithStats = IndexSpec.builder()
+        .withBitmapSerdeFactory(indexSpec.getBitmapSerdeFactory())
+        .withDimensionCompression(indexSpec.getDimensionCompression())
+        .withMetricCompression(indexSpec.getMetricCompression())
+        .withLongEncoding(indexSpec.getLongEncoding())
+        .withColumnStats(true)
+        .build();
+    final File tmpDir = temporaryFolder.newFolder();
+    final QueryableIndex index = closer.closeLater(
+        indexIO.loadIndex(indexMerger.persist(getIndexWithNumericDims(), tmpDir, indexSpecWithStats, null))
+    );
+
+    final Map<String, ColumnStats> columnStats = index.getMetadata().getColumnStats();
+    Assert.assertNotNull(columnStats);
+    Assert.assertEquals(columnStats, indexIO.loadMetadata(tmpDir).getColumnStats());
+    Assert.assertEquals(ImmutableSet.of("dimA", "dimB", "dimC", "count"), columnStats.keySet());
+
+    // The row without dimA and dimB has nulls in SQL compatible mode, and zeros otherwise
+    if (NullHandling.sqlCompatible()) {
+      Assert.assertEquals(new ColumnStats(ValueType.LONG, 72L, 3001L, 1, 3), columnStats.get("dimA"));
+      Assert.assertEquals(
+          new ColumnStats(ValueType.FLOAT, (double) 1.2345f, (double) 60000.789f, 1, 3),
+          columnStats.get("dimB")
+      );
+    } else {
+      Assert.assertEquals(new ColumnStats(ValueType.LONG, 0L, 3001L, 0, 4), columnStats.get("dimA"));
+      Assert.assertEquals(new ColumnStats(ValueType.FLOAT, 0.0, (double) 60000.789f, 0, 4), columnStats.get("dimB"));
+    }
+    Assert.assertEquals(new ColumnStats(ValueType.STRING, "Foobar", "World", 0, 4), columnStats.get("dimC"));
+    Assert.assertEquals(new ColumnStats(ValueType.LONG, 1L, 1L, 0, 1), columnStats.get("count"));
+  }
+
+  @Test
+  public void testPersistWithDimensionIndexFormats() throws Exception
+  {
+    final IndexSpec indexSpecWithFormats = IndexSpec.builder()
+        .withBitmapSerdeFactory(indexSpec.getBitmapSerdeFactory())
+        .withDimensionCompression(indexSpec.getDimensionCompression())
+        .withMetricCompression(indexSpec.getMetricCompression())
+        .withLongEncoding(indexSpec.getLongEncoding())
+        .withDimensionIndexFormats(
+            ImmutableMap.of(
+                "id", StringIndexFormat.AUTO,
+                "country", StringIndexFormat.AUTO,
+                "tag", StringIndexFormat.NONE
+            )
+        )
+        .build();
+    final IncrementalIndex toPersist = getIndexWithDimsFromSchemata(
+        Arrays.asList(
+            new StringDimensionSchema("id", MultiValueHandling.SORTED_ARRAY, useBitmapIndexes),
+            new StringDimensionSchema("country", MultiValueHandling.SORTED_ARRAY, useBitmapIndexes),
+            new StringDimensionSchema("tag", MultiValueHandling.SORTED_ARRAY, useBitmapIndexes)
+        )
+    );
+    for (int i = 0; i < 100; i++) {
+      toPersist.add(
+          new MapBasedInputRow(
+              1,
+              Arrays.asList("id", "country", "tag"),
+              ImmutableMap.of("id", "id" + i, "country", "country" + (i % 3), "tag", "tag" + (i % 2))
+          )
+      );
+    }
+
+    final QueryableIndex index = closer.closeLater(
+        indexIO.loadIndex(indexMerger.persist(toPersist, temporaryFolder.newFolder(), indexSpecWithFormats, null))
+    );
+    assertDimensionIndexFormats(new QueryableIndexIndexableAdapter(index));
+
+    // Merging reads the rows of each id from the sorted rows index, and writes it again
+    final QueryableIndex merged = closer.closeLater(
+        indexIO.loadIndex(
+            indexMerger.mergeQueryableIndex(
+                Arrays.asList(index, index),
+                true,
+                new AggregatorFactory[]{new CountAggregatorFactory("count")},
+                temporaryFolder.newFolder(),
+                indexSpecWithFormats,
+                null,
+                -1
+            )
+        )
+    );
+    assertDimensionIndexFormats(new QueryableIndexIndexableAdapter(merged));
+  }
+
+  private void assertDimensionIndexFormats(QueryableIndexIndexableAdapter adapter)
+  {
+    Assert.assertEquals(100, adapter.getNumRows());
+    // Every row has its own id, so the id bitmaps would cost much more than the sorted rows, which still index it
+    Assert.assertEquals(useBitmapIndexes, adapter.getCapabilities("id").hasBitmapIndexes());
+    Assert.assertEquals(useBitmapIndexes, adapter.getCapabilities("country").hasBitmapIndexes());
+    Assert.assertFalse(adapter.getCapabilities("tag").hasBitmapIndexes());
+    if (useBitmapIndexes) {
+      final ColumnIndexSupplier idIndexes = adapter.getQueryableIndex().getColumnHolder("id").getIndexSupplier();
+      Assert.assertTrue(idIndexes instanceof SortedRowsStringIndexSupplier);
+      final ColumnIndexSupplier countryIndexes =
+          adapter.getQueryableIndex().getColumnHolder("country").getIndexSupplier();
+      Assert.assertTrue(countryIndexes instanceof DictionaryEncodedStringIndexSupplier);
+      // Rows are sorted by id, as strings
+      final List<String> ids = IntStream.range(0, 100).mapToObj(i -> "id" + i).sorted().collect(Collectors.toList());
+      checkBitmapIndex(Collections.singletonList(ids.indexOf("id5")), getBitmapIndex(adapter, "id", "id5"));
+      checkBitmapIndex(Collections.emptyList(), getBitmapIndex(adapter, "id", "id100"));
+      Assert.assertEquals(34, getBitmapIndex(adapter, "country", "country0").size());
+    }
+  }
+
   private IncrementalIndex getIndexWithNumericDims() throws Exception
   {
     IncrementalIndex index = getIndexWithDimsFromSchemata(
@@ -27,6 +27,7 @@ import org.apache.druid.segment.data.CompressionFactory;
 import org.apache.druid.segment.data.CompressionFactory.LongEncodingStrategy;
 import org.apache.druid.segment.data.CompressionStrategy;
 import org.apache.druid.segment.data.RoaringBitmapSerdeFactory;
+import org.apache.druid.segment.data.StringEncodingStrategy;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -51,6 +52,75 @@ public class IndexSpecTest
     Assert.assertEquals(spec, objectMapper.readValue(objectMapper.writeValueAsBytes(spec), IndexSpec.class));
   }
 
+  @Test
+  public void testSerdeFrontCoded() throws Exception
+  {
+    final ObjectMapper objectMapper = new DefaultObjectMapper();
+    final String json = "{ \"stringDictionaryEncoding\" : { \"type\" : \"frontCoded\", \"bucketSize\" : 16 } }";
+
+    final IndexSpec spec = objectMapper.readValue(json, IndexSpec.class);
+    Assert.assertEquals(new StringEncodingStrategy.FrontCoded(16), spec.getStringDictionaryEncoding());
+    Assert.assertEquals(spec, objectMapper.readValue(objectMapper.writeValueAsBytes(spec), IndexSpec.class));
+  }
+
+  @Test
+  public void testSerdeNumericZoneMaps() throws Exception
+  {
+    final ObjectMapper objectMapper = new DefaultObjectMapper();
+    final String json = "{ \"numericZoneMaps\" : true }";
+
+    final IndexSpec spec = objectMapper.readValue(json, IndexSpec.class);
+    Assert.assertEquals(Boolean.TRUE, spec.getNumericZoneMaps());
+    Assert.assertEquals(spec, objectMapper.readValue(objectMapper.writeValueAsBytes(spec), IndexSpec.class));
+  }
+
+  @Test
+  public void testSerdeDimensionRunLengthEncoding() throws Exception
+  {
+    final ObjectMapper objectMapper = new DefaultObjectMapper();
+    final String json = "{ \"dimensionRunLengthEncoding\" : true }";
+
+    final IndexSpec spec = objectMapper.readValue(json, IndexSpec.class);
+    Assert.assertEquals(Boolean.TRUE, spec.getDimensionRunLengthEncoding());
+    Assert.assertEquals(spec, objectMapper.readValue(objectMapper.writeValueAsBytes(spec), IndexSpec.class));
+  }
+
+  @Test
+  public void testSerdeColumnStats() throws Exception
+  {
+    final ObjectMapper objectMapper = new DefaultObjectMapper();
+    final String json = "{ \"columnStats\" : true }";
+
+    final IndexSpec spec = objectMapper.readValue(json, IndexSpec.class);
+    Assert.assertEquals(Boolean.TRUE, spec.getColumnStats());
+    Assert.assertEquals(spec, objectMapper.readValue(objectMapper.writeValueAsBytes(spec), IndexSpec.class));
+  }
+
+  @Test
+  public void testSerdeDimensionIndexFormats() throws Exception
+  {
+    final ObjectMapper objectMapper = new DefaultObjectMapper();
+    final String json = "{ \"dimensionIndexFormats\" : { \"id\" : \"sorted\", \"user\" : \"auto\" } }";
+
+    final IndexSpec spec = objectMapper.readValue(json, IndexSpec.class);
+    Assert.assertEquals(StringIndexFormat.SORTED, spec.getDimensionIndexFormat("id"));
+    Assert.assertEquals(StringIndexFormat.AUTO, spec.getDimensionIndexFormat("user"));
+    Assert.assertEquals(StringIndexFormat.BITMAP, spec.getDimensionIndexFormat("country"));
+    Assert.assertEquals(StringIndexFormat.BITMAP, new IndexSpec().getDimensionIndexFormat("id"));
+    Assert.assertEquals(spec, objectMapper.readValue(objectMapper.writeValueAsBytes(spec), IndexSpec.class));
+  }
+
+  @Test
+  public void testSerdeNumericBitmapIndexes() throws Exception
+  {
+    final ObjectMapper objectMapper = new DefaultObjectMapper();
+    final String json = "{ \"numericBitmapIndexes\" : true }";
+
+    final IndexSpec spec = objectMapper.readValue(json, IndexSpec.class);
+    Assert.assertEquals(Boolean.TRUE, spec.getNumericBitmapIndexes());
+    Assert.assertEquals(spec, objectMapper.readValue(objectMapper.writeValueAsBytes(spec), IndexSpec.class));
+  }
+
   @Test
   public void testSerdeUncompressed() throws Exception
   {
@@ -94,6 +164,13 @@ public class IndexSpecTest
         spec.getLongEncoding(),
         objectMapper.convertValue(map.get("longEncoding"), LongEncodingStrategy.class)
     );
+    // not written unless set, so specs of existing segments do not change
+    Assert.assertFalse(map.containsKey("stringDictionaryEncoding"));
+    Assert.assertFalse(map.containsKey("numericZoneMaps"));
+    Assert.assertFalse(map.containsKey("dimensionRunLengthEncoding"));
+    Assert.assertFalse(map.containsKey("columnStats"));
+    Assert.assertFalse(map.containsKey("dimensionIndexFormats"));
+    Assert.assertFalse(map.containsKey("numericBitmapIndexes"));
   }
 
   @Test
@@ -21,14 +21,18 @@ package org.apache.druid.segment;
 
 import com.fasterxml.jackson.databind.InjectableValues.Std;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.Files;
 import org.apache.druid.jackson.DefaultObjectMapper;
+import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
 import org.apache.druid.java.util.common.io.smoosh.SmooshedFileMapper;
 import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.segment.IndexIO.V9IndexLoader;
 import org.apache.druid.segment.column.ColumnHolder;
 import org.apache.druid.testing.InitializedNullHandlingTest;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.IOException;
@@ -39,6 +43,9 @@ public class V9IndexLoaderTest extends InitializedNullHandlingTest
 {
   private static final String COUNT_COLUMN = "count";
 
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Test
   public void testLoadSegmentDamagedFileWithLazy() throws IOException
   {
@@ -71,6 +78,39 @@ public class V9IndexLoaderTest extends InitializedNullHandlingTest
     Assert.assertFalse(segment.getSegmentExist());
   }
 
+  @Test
+  public void testLoadPartialSegment() throws IOException
+  {
+    final ObjectMapper mapper = new DefaultObjectMapper();
+    mapper.setInjectableValues(new Std().addValue(ExprMacroTable.class, ExprMacroTable.nil()));
+    final V9IndexLoader loader = new V9IndexLoader(() -> 0);
+    final File sourceDir = new File(
+        this.getClass().getClassLoader().getResource("v9SegmentPersistDir/segmentWithDamagedFile/").getPath()
+    );
+
+    final File inDir = temporaryFolder.newFolder();
+    for (File file : sourceDir.listFiles()) {
+      if (!FileSmoosher.isChunkFile(file.getName())) {
+        Files.copy(file, new File(inDir, file.getName()));
+      }
+    }
+    SmooshedFileMapper.writeSource(inDir, sourceDir);
+    final File partsDir = new File(inDir, "parts");
+
+    // The count column of this segment is damaged, so neither index reads it.
+    final QueryableIndex fullIndex = loader.load(sourceDir, mapper, true, SegmentLazyLoadFailCallback.NOOP);
+    // Columns are loaded lazily even though lazy is false, so only index.drd and metadata.drd are read on load.
+    final QueryableIndex partialIndex = loader.load(inDir, mapper, false, SegmentLazyLoadFailCallback.NOOP);
+    Assert.assertEquals(2, partsDir.listFiles().length);
+    Assert.assertEquals(fullIndex.getColumnNames(), partialIndex.getColumnNames());
+
+    Assert.assertEquals(fullIndex.getNumRows(), partialIndex.getNumRows());
+    Assert.assertNotNull(partialIndex.getColumnHolder("sum_packets"));
+    Assert.assertEquals(4, partsDir.listFiles().length);
+    fullIndex.close();
+    partialIndex.close();
+  }
+
   private static void assertFailToDeserializeColumn(Runnable runnable)
   {
     try {
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import org.apache.druid.java.util.common.ByteBufferUtils;
+import org.apache.druid.java.util.common.io.Closer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class ColumnBlockPrefetcherTest
+{
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final List<List<Integer>> prefetched = new ArrayList<>();
+
+  @After
+  public void tearDown()
+  {
+    ColumnBlockPrefetcher.initializeForTests(null);
+  }
+
+  @Test
+  public void testBlockLoaded()
+  {
+    ColumnBlockPrefetcher.initializeForTests(new ColumnPrefetchConfig(4, 1));
+    final ColumnBlockPrefetcher prefetcher = ColumnBlockPrefetcher.create(10, this::record);
+
+    // batches of at least two blocks, up to four blocks ahead, and whatever is left at the end
+    for (int block = 0; block < 10; block++) {
+      prefetcher.blockLoaded(block);
+    }
+    Assert.assertEquals(
+        Arrays.asList(Arrays.asList(1, 5), Arrays.asList(5, 7), Arrays.asList(7, 9), Arrays.asList(9, 10)),
+        prefetched
+    );
+
+    // nothing is prefetched when seeking, until reading in order again
+    prefetched.clear();
+    prefetcher.blockLoaded(2);
+    prefetcher.blockLoaded(7);
+    Assert.assertTrue(prefetched.isEmpty());
+    prefetcher.blockLoaded(8);
+    Assert.assertEquals(Collections.singletonList(Arrays.asList(9, 10)), prefetched);
+  }
+
+  @Test
+  public void testGenericIndexedCreatesPrefetcherOnInOrderLoad()
+  {
+    ColumnBlockPrefetcher.initializeForTests(new ColumnPrefetchConfig(4, 1));
+    final GenericIndexed<String>.BufferIndexed indexed = GenericIndexed.fromArray(
+        new String[]{"a", "b", "c", "d", "e", "f"},
+        GenericIndexed.STRING_STRATEGY
+    ).singleThreaded();
+
+    indexed.blockLoaded(3);
+    indexed.blockLoaded(1);
+    Assert.assertNull(indexed.prefetcher);
+    indexed.blockLoaded(2);
+    Assert.assertNotNull(indexed.prefetcher);
+
+    final GenericIndexed<String>.BufferIndexed stopped = GenericIndexed.fromArray(
+        new String[]{"a", "b", "c", "d", "e", "f"},
+        GenericIndexed.STRING_STRATEGY
+    ).singleThreaded();
+    stopped.stopPrefetching();
+    stopped.blockLoaded(0);
+    Assert.assertNull(stopped.prefetcher);
+  }
+
+  @Test
+  public void testDisabled()
+  {
+    for (ColumnPrefetchConfig config : new ColumnPrefetchConfig[]{null, new ColumnPrefetchConfig(null, null)}) {
+      ColumnBlockPrefetcher.initializeForTests(config);
+      final ColumnBlockPrefetcher prefetcher = ColumnBlockPrefetcher.create(10, this::record);
+      for (int block = 0; block < 10; block++) {
+        prefetcher.blockLoaded(block);
+      }
+      Assert.assertTrue(prefetched.isEmpty());
+    }
+  }
+
+  @Test
+  public void testReadMappedColumn() throws Exception
+  {
+    ColumnBlockPrefetcher.initializeForTests(new ColumnPrefetchConfig(8, null));
+
+    final int[] vals = new int[100_000];
+    final Random rand = new Random(0);
+    for (int i = 0; i < vals.length; i++) {
+      vals[i] = rand.nextInt();
+    }
+
+    try (Closer closer = Closer.create()) {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      CompressedColumnarIntsSupplier.fromIntBuffer(
+          IntBuffer.wrap(vals),
+          1024,
+          ByteOrder.nativeOrder(),
+          CompressionStrategy.LZ4,
+          closer
+      ).writeTo(Channels.newChannel(baos), null);
+
+      // direct buffers are prefetched like mapped ones
+      final byte[] bytes = baos.toByteArray();
+      final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+      buffer.put(bytes).flip();
+
+      try (ColumnarInts columnarInts = CompressedColumnarIntsSupplier.fromByteBuffer(buffer, ByteOrder.nativeOrder())
+                                                                      .get()) {
+        for (int i = 0; i < vals.length; i++) {
+          Assert.assertEquals(vals[i], columnarInts.get(i));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCloseBeforeUnmap() throws Exception
+  {
+    ColumnBlockPrefetcher.initializeForTests(new ColumnPrefetchConfig(16, 4));
+
+    final int blockSize = 4096;
+    final int numBlocks = 64;
+    final File file = temporaryFolder.newFile();
+    Files.write(file.toPath(), new byte[blockSize * numBlocks]);
+
+    // Unmapping while a prefetch touches the buffer would crash the JVM, so closing must wait for running prefetches,
+    // and queued ones must not run afterwards.
+    for (int i = 0; i < 100; i++) {
+      final MappedByteBuffer buffer;
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) blockSize * numBlocks);
+      }
+      final ColumnBlockPrefetcher[] prefetcher = new ColumnBlockPrefetcher[1];
+      prefetcher[0] = ColumnBlockPrefetcher.create(
+          numBlocks,
+          (startBlock, endBlock) -> prefetcher[0].prefetch(buffer, startBlock * blockSize, endBlock * blockSize)
+      );
+      for (int block = 0; block < numBlocks; block++) {
+        prefetcher[0].blockLoaded(block);
+      }
+      prefetcher[0].close();
+      ByteBufferUtils.unmap(buffer);
+    }
+  }
+
+  private void record(int startBlock, int endBlock)
+  {
+    prefetched.add(Arrays.asList(startBlock, endBlock));
+  }
+}
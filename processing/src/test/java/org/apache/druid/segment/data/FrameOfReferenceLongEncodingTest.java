@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMedium;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+@RunWith(Parameterized.class)
+public class FrameOfReferenceLongEncodingTest
+{
+  private static final int NUM_VALUES = 3 * FrameOfReferenceLongEncodingWriter.FRAME_SIZE + 123;
+
+  @Parameterized.Parameters(name = "{0}")
+  public static Iterable<Object[]> constructorFeeder()
+  {
+    final List<Object[]> constructors = new ArrayList<>();
+    constructors.add(new Object[]{CompressionStrategy.NONE});
+    constructors.add(new Object[]{CompressionStrategy.LZ4});
+    return constructors;
+  }
+
+  private final CompressionStrategy compressionStrategy;
+
+  public FrameOfReferenceLongEncodingTest(CompressionStrategy compressionStrategy)
+  {
+    this.compressionStrategy = compressionStrategy;
+  }
+
+  @Test
+  public void testAllBitWidths() throws IOException
+  {
+    final Random random = new Random(1234);
+    for (int bits = 0; bits <= 64; bits++) {
+      final long[] values = new long[NUM_VALUES];
+      final long base = random.nextLong();
+      for (int i = 0; i < values.length; i++) {
+        values[i] = base + (bits == 0 ? 0 : random.nextLong() >>> (64 - bits));
+      }
+      assertValues(values, random);
+    }
+  }
+
+  @Test
+  public void testFramesWithDifferentWidths() throws IOException
+  {
+    final Random random = new Random(5678);
+    final long[] values = new long[NUM_VALUES];
+    for (int i = 0; i < values.length; i++) {
+      final int frame = i / FrameOfReferenceLongEncodingWriter.FRAME_SIZE;
+      values[i] = frame * 1_000_000_000L + random.nextInt(1 << (frame * 7));
+    }
+    values[FrameOfReferenceLongEncodingWriter.FRAME_SIZE + 17] = Long.MIN_VALUE;
+    values[2 * FrameOfReferenceLongEncodingWriter.FRAME_SIZE + 5] = Long.MAX_VALUE;
+    assertValues(values, random);
+  }
+
+  @Test
+  public void testSmallerThanLongs() throws IOException
+  {
+    final long[] values = new long[NUM_VALUES];
+    long timestamp = 1_600_000_000_000L;
+    for (int i = 0; i < values.length; i++) {
+      values[i] = timestamp;
+      timestamp += i % 7;
+    }
+
+    final byte[] forBytes = serialize(values, CompressionFactory.LongEncodingStrategy.FOR);
+    final byte[] longsBytes = serialize(values, CompressionFactory.LongEncodingStrategy.LONGS);
+    Assert.assertTrue(
+        Arrays.toString(new int[]{forBytes.length, longsBytes.length}),
+        forBytes.length < longsBytes.length
+    );
+  }
+
+  private void assertValues(long[] values, Random random) throws IOException
+  {
+    final CompressedColumnarLongsSupplier supplier = CompressedColumnarLongsSupplier.fromByteBuffer(
+        ByteBuffer.wrap(serialize(values, CompressionFactory.LongEncodingStrategy.FOR)),
+        ByteOrder.nativeOrder()
+    );
+
+    try (ColumnarLongs longs = supplier.get()) {
+      Assert.assertEquals(values.length, longs.size());
+
+      // Random access, going backwards so that frames are not read in order.
+      for (int i = values.length - 1; i >= 0; i -= 31) {
+        Assert.assertEquals(values[i], longs.get(i));
+      }
+
+      // Vectors crossing frame boundaries.
+      final long[] vector = new long[1000];
+      for (int start = 0; start < values.length; start += vector.length - 3) {
+        final int length = Math.min(vector.length, values.length - start);
+        longs.get(vector, start, length);
+        for (int i = 0; i < length; i++) {
+          Assert.assertEquals(values[start + i], vector[i]);
+        }
+      }
+
+      // Sorted, sparse indexes.
+      final int[] indexes = new int[vector.length];
+      int index = 0;
+      int numIndexes = 0;
+      while (numIndexes < indexes.length && index < values.length) {
+        indexes[numIndexes++] = index;
+        index += 1 + random.nextInt(20);
+      }
+      longs.get(vector, indexes, numIndexes);
+      for (int i = 0; i < numIndexes; i++) {
+        Assert.assertEquals(values[indexes[i]], vector[i]);
+      }
+    }
+  }
+
+  private byte[] serialize(long[] values, CompressionFactory.LongEncodingStrategy encodingStrategy) throws IOException
+  {
+    final ColumnarLongsSerializer serializer = CompressionFactory.getLongSerializer(
+        "test",
+        new OffHeapMemorySegmentWriteOutMedium(),
+        "test",
+        ByteOrder.nativeOrder(),
+        encodingStrategy,
+        compressionStrategy
+    );
+    serializer.open();
+    for (long value : values) {
+      serializer.add(value);
+    }
+
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    serializer.writeTo(Channels.newChannel(baos), null);
+    Assert.assertEquals(baos.size(), serializer.getSerializedSize());
+    return baos.toByteArray();
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.segment.writeout.OnHeapMemorySegmentWriteOutMedium;
+import org.apache.druid.testing.InitializedNullHandlingTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+@RunWith(Parameterized.class)
+public class FrontCodedIndexedTest extends InitializedNullHandlingTest
+{
+  @Parameterized.Parameters(name = "byteOrder[{0}], bucketSize[{1}]")
+  public static Collection<Object[]> constructorFeeder()
+  {
+    final List<Object[]> constructors = new ArrayList<>();
+    for (ByteOrder order : ImmutableList.of(ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN)) {
+      for (int bucketSize : new int[]{1, 4, 16, 128}) {
+        constructors.add(new Object[]{order, bucketSize});
+      }
+    }
+    return constructors;
+  }
+
+  private final ByteOrder order;
+  private final int bucketSize;
+
+  public FrontCodedIndexedTest(ByteOrder byteOrder, int bucketSize)
+  {
+    this.order = byteOrder;
+    this.bucketSize = bucketSize;
+  }
+
+  @Test
+  public void testGetAndIndexOf() throws IOException
+  {
+    final List<String> values = makeValues(1000);
+    final FrontCodedIndexed indexed = write(values, false);
+
+    Assert.assertEquals(values.size(), indexed.size());
+    for (int i = 0; i < values.size(); i++) {
+      Assert.assertEquals(values.get(i), StringUtils.fromUtf8(indexed.get(i)));
+      Assert.assertEquals(i, indexed.indexOf(StringUtils.toUtf8ByteBuffer(values.get(i))));
+    }
+    assertInsertionPoints(values, indexed, 0);
+    Assert.assertEquals(-1, indexed.indexOf(null));
+  }
+
+  @Test
+  public void testGetAndIndexOfWithNull() throws IOException
+  {
+    final List<String> values = makeValues(1000);
+    final FrontCodedIndexed indexed = write(values, true);
+
+    Assert.assertEquals(values.size() + 1, indexed.size());
+    Assert.assertNull(indexed.get(0));
+    Assert.assertEquals(0, indexed.indexOf(null));
+    for (int i = 0; i < values.size(); i++) {
+      Assert.assertEquals(values.get(i), StringUtils.fromUtf8(indexed.get(i + 1)));
+      Assert.assertEquals(i + 1, indexed.indexOf(StringUtils.toUtf8ByteBuffer(values.get(i))));
+    }
+    assertInsertionPoints(values, indexed, 1);
+  }
+
+  @Test
+  public void testNonAscii() throws IOException
+  {
+    // Surrogate pairs sort before U+E000 to U+FFFF in String order, but after them in unsigned UTF-8 byte order.
+    final List<String> characters = ImmutableList.of("a", "\u00e9", "\ud83d\ude00", "\ue000", "\uff01", "\ud800\udc00");
+    final List<String> values = new ArrayList<>();
+    final List<String> probes = new ArrayList<>();
+    for (String first : characters) {
+      for (String second : characters) {
+        values.add("prefix-" + first + second);
+        probes.add("prefix-" + first);
+        probes.add("prefix-" + first + second + first);
+      }
+    }
+    Collections.sort(values);
+    final FrontCodedIndexed indexed = write(values, false);
+
+    for (int i = 0; i < values.size(); i++) {
+      Assert.assertEquals(values.get(i), StringUtils.fromUtf8(indexed.get(i)));
+      Assert.assertEquals(i, indexed.indexOf(StringUtils.toUtf8ByteBuffer(values.get(i))));
+    }
+    for (String probe : probes) {
+      Assert.assertEquals(
+          probe,
+          Collections.binarySearch(values, probe),
+          indexed.indexOf(StringUtils.toUtf8ByteBuffer(probe))
+      );
+    }
+  }
+
+  @Test
+  public void testIterator() throws IOException
+  {
+    final List<String> values = makeValues(100);
+    final FrontCodedIndexed indexed = write(values, true);
+    final Iterator<ByteBuffer> iterator = indexed.iterator();
+    Assert.assertNull(iterator.next());
+    int i = 0;
+    while (iterator.hasNext()) {
+      Assert.assertEquals(values.get(i++), StringUtils.fromUtf8(iterator.next()));
+    }
+    Assert.assertEquals(values.size(), i);
+  }
+
+  @Test
+  public void testEmpty() throws IOException
+  {
+    final FrontCodedIndexed indexed = write(Collections.emptyList(), false);
+    Assert.assertEquals(0, indexed.size());
+    Assert.assertEquals(-1, indexed.indexOf(StringUtils.toUtf8ByteBuffer("foo")));
+    Assert.assertFalse(indexed.iterator().hasNext());
+
+    final FrontCodedIndexed onlyNull = write(Collections.emptyList(), true);
+    Assert.assertEquals(1, onlyNull.size());
+    Assert.assertNull(onlyNull.get(0));
+    Assert.assertEquals(-2, onlyNull.indexOf(StringUtils.toUtf8ByteBuffer("foo")));
+  }
+
+  @Test
+  public void testWriterGet() throws IOException
+  {
+    final List<String> values = makeValues(100);
+    final FrontCodedIndexedWriter writer = new FrontCodedIndexedWriter(
+        new OnHeapMemorySegmentWriteOutMedium(),
+        order,
+        bucketSize
+    );
+    writer.open();
+    writer.write(null);
+    for (int i = 0; i < values.size(); i++) {
+      writer.write(StringUtils.toUtf8(values.get(i)));
+      // values of full buckets are read back from the written bytes, and the rest from the current bucket
+      Assert.assertEquals(values.get(i), StringUtils.fromUtf8(writer.get(i + 1)));
+      Assert.assertEquals(values.get(i / 2), StringUtils.fromUtf8(writer.get(i / 2 + 1)));
+    }
+    Assert.assertNull(writer.get(0));
+  }
+
+  @Test
+  public void testSmallerThanGenericIndexed() throws IOException
+  {
+    final List<String> values = makeValues(1000);
+    final GenericIndexedWriter<String> genericWriter = new GenericIndexedWriter<>(
+        new OnHeapMemorySegmentWriteOutMedium(),
+        "test",
+        GenericIndexed.STRING_STRATEGY
+    );
+    genericWriter.open();
+    final FrontCodedIndexedWriter frontCodedWriter = new FrontCodedIndexedWriter(
+        new OnHeapMemorySegmentWriteOutMedium(),
+        order,
+        bucketSize
+    );
+    frontCodedWriter.open();
+    for (String value : values) {
+      genericWriter.write(value);
+      frontCodedWriter.write(StringUtils.toUtf8(value));
+    }
+    if (bucketSize > 1) {
+      Assert.assertTrue(frontCodedWriter.getSerializedSize() < genericWriter.getSerializedSize() / 2);
+    }
+  }
+
+  @Test
+  public void testUnsorted() throws IOException
+  {
+    final FrontCodedIndexedWriter writer = new FrontCodedIndexedWriter(
+        new OnHeapMemorySegmentWriteOutMedium(),
+        order,
+        bucketSize
+    );
+    writer.open();
+    writer.write(StringUtils.toUtf8("b"));
+    Assert.assertThrows(ISE.class, () -> writer.write(StringUtils.toUtf8("a")));
+    Assert.assertThrows(ISE.class, () -> writer.write(StringUtils.toUtf8("b")));
+  }
+
+  /**
+   * Sorted values with long shared prefixes, like the URLs this encoding is meant for.
+   */
+  private static List<String> makeValues(int numValues)
+  {
+    final List<String> values = new ArrayList<>();
+    for (int i = 0; i < numValues; i++) {
+      values.add(StringUtils.format("https://druid.apache.org/docs/latest/%s/page-%05d", i % 7 == 0 ? "a" : "b", i));
+    }
+    Collections.sort(values);
+    return values;
+  }
+
+  /**
+   * Checks that values not in the dictionary return (-(insertion point) - 1), like {@link GenericIndexed} does.
+   */
+  private static void assertInsertionPoints(List<String> values, FrontCodedIndexed indexed, int nullOffset)
+  {
+    Assert.assertEquals(-(nullOffset + 1), indexed.indexOf(StringUtils.toUtf8ByteBuffer("a")));
+    Assert.assertEquals(-(nullOffset + values.size() + 1), indexed.indexOf(StringUtils.toUtf8ByteBuffer("z")));
+    for (String value : values) {
+      for (String probe : ImmutableList.of(value.substring(0, value.length() - 1), value + "0")) {
+        final int expected = Collections.binarySearch(values, probe);
+        Assert.assertEquals(
+            probe,
+            expected >= 0 ? expected + nullOffset : expected - nullOffset,
+            indexed.indexOf(StringUtils.toUtf8ByteBuffer(probe))
+        );
+      }
+    }
+  }
+
+  private FrontCodedIndexed write(List<String> values, boolean withNull) throws IOException
+  {
+    final FrontCodedIndexedWriter writer = new FrontCodedIndexedWriter(
+        new OnHeapMemorySegmentWriteOutMedium(),
+        order,
+        bucketSize
+    );
+    writer.open();
+    if (withNull) {
+      writer.write(null);
+    }
+    for (String value : values) {
+      writer.write(StringUtils.toUtf8(value));
+    }
+
+    final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    final WritableByteChannel channel = new WritableByteChannel()
+    {
+      @Override
+      public int write(ByteBuffer src)
+      {
+        int size = src.remaining();
+        buffer.put(src);
+        return size;
+      }
+
+      @Override
+      public boolean isOpen()
+      {
+        return true;
+      }
+
+      @Override
+      public void close()
+      {
+      }
+    };
+    final long size = writer.getSerializedSize();
+    writer.writeTo(channel, null);
+    Assert.assertEquals(size, buffer.position());
+
+    // add some trailing bytes to check that reading stops at the end of the dictionary
+    buffer.put((byte) 0x7F);
+    buffer.flip();
+    final FrontCodedIndexed indexed = FrontCodedIndexed.read(buffer, order);
+    Assert.assertEquals(size, buffer.position());
+    return indexed;
+  }
+}
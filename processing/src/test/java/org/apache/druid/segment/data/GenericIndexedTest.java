@@ -91,6 +91,26 @@ public class GenericIndexedTest extends InitializedNullHandlingTest
     checkBasicAPIs(strings, deserialized, false);
   }
 
+  @Test
+  public void testGetSerializedValue() throws Exception
+  {
+    final String[] strings = {"a", "bb", null, "ccc"};
+    final GenericIndexed<String> indexed = GenericIndexed.fromArray(strings, GenericIndexed.STRING_STRATEGY);
+    for (GenericIndexed<String> index : new GenericIndexed[]{indexed, serializeAndDeserialize(indexed)}) {
+      for (int i = 0; i < strings.length; i++) {
+        final ByteBuffer serializedValue = index.getSerializedValue(i);
+        if (strings[i] == null) {
+          Assert.assertNull(serializedValue);
+        } else {
+          Assert.assertEquals(
+              strings[i],
+              GenericIndexed.STRING_STRATEGY.fromByteBuffer(serializedValue, serializedValue.remaining())
+          );
+        }
+      }
+    }
+  }
+
   private void checkBasicAPIs(String[] strings, Indexed<String> index, boolean allowReverseLookup)
   {
     Assert.assertEquals(strings.length, index.size());
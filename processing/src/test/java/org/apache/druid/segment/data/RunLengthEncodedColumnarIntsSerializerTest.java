@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.data;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.druid.segment.IndexIO;
+import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMedium;
+import org.apache.druid.segment.writeout.SegmentWriteOutMedium;
+import org.apache.druid.segment.writeout.WriteOutBytes;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class RunLengthEncodedColumnarIntsSerializerTest
+{
+  private static final int MAX_VALUE = 300;
+
+  private final SegmentWriteOutMedium segmentWriteOutMedium = new OffHeapMemorySegmentWriteOutMedium();
+  private final Random rand = new Random(0);
+
+  @After
+  public void tearDown() throws Exception
+  {
+    segmentWriteOutMedium.close();
+  }
+
+  @Test
+  public void testLongRuns() throws Exception
+  {
+    final int[] vals = new int[50_000];
+    int row = 0;
+    while (row < vals.length) {
+      final int value = rand.nextInt(MAX_VALUE + 1);
+      final int runLength = Math.min(1 + rand.nextInt(2000), vals.length - row);
+      for (int i = 0; i < runLength; i++) {
+        vals[row++] = value;
+      }
+    }
+
+    for (CompressionStrategy compression : new CompressionStrategy[]{CompressionStrategy.LZ4, null}) {
+      final ByteBuffer buffer = serialize(vals, compression, true);
+      Assert.assertTrue(RunLengthEncodedColumnarIntsSupplier.isRunLengthEncoded(buffer));
+      final RunLengthEncodedColumnarIntsSupplier supplier = RunLengthEncodedColumnarIntsSupplier.fromByteBuffer(buffer);
+      Assert.assertFalse(buffer.hasRemaining());
+      assertValues(vals, supplier.get());
+    }
+  }
+
+  @Test
+  public void testShortRuns() throws Exception
+  {
+    final int[] vals = new int[50_000];
+    for (int i = 0; i < vals.length; i++) {
+      vals[i] = rand.nextInt(MAX_VALUE + 1);
+    }
+
+    final ByteBuffer compressed = serialize(vals, CompressionStrategy.LZ4, false);
+    Assert.assertFalse(RunLengthEncodedColumnarIntsSupplier.isRunLengthEncoded(compressed));
+    assertValues(vals, CompressedVSizeColumnarIntsSupplier.fromByteBuffer(compressed, IndexIO.BYTE_ORDER).get());
+
+    final ByteBuffer uncompressed = serialize(vals, null, false);
+    Assert.assertFalse(RunLengthEncodedColumnarIntsSupplier.isRunLengthEncoded(uncompressed));
+    assertValues(vals, VSizeColumnarInts.readFromByteBuffer(uncompressed));
+  }
+
+  @Test
+  public void testWriteEmpty() throws Exception
+  {
+    for (CompressionStrategy compression : new CompressionStrategy[]{CompressionStrategy.LZ4, null}) {
+      final ByteBuffer buffer = serialize(new int[0], compression, null);
+      final ColumnarInts ints = RunLengthEncodedColumnarIntsSupplier.isRunLengthEncoded(buffer)
+                                ? RunLengthEncodedColumnarIntsSupplier.fromByteBuffer(buffer).get()
+                                : compression == null
+                                  ? VSizeColumnarInts.readFromByteBuffer(buffer)
+                                  : CompressedVSizeColumnarIntsSupplier.fromByteBuffer(buffer, IndexIO.BYTE_ORDER).get();
+      Assert.assertEquals(0, ints.size());
+      ints.close();
+    }
+  }
+
+  private ByteBuffer serialize(int[] vals, CompressionStrategy compression, Boolean expectRunLengthEncoded)
+      throws Exception
+  {
+    final SingleValueColumnarIntsSerializer delegate = compression == null
+        ? new VSizeColumnarIntsSerializer(segmentWriteOutMedium, MAX_VALUE)
+        : CompressedVSizeColumnarIntsSerializer.create("test", segmentWriteOutMedium, "test", MAX_VALUE, compression);
+    final RunLengthEncodedColumnarIntsSerializer writer = new RunLengthEncodedColumnarIntsSerializer(
+        delegate,
+        MAX_VALUE
+    );
+    writer.open();
+    for (int val : vals) {
+      writer.addValue(val);
+    }
+    if (expectRunLengthEncoded != null) {
+      Assert.assertEquals(expectRunLengthEncoded, writer.isRunLengthEncoded());
+    }
+
+    final long writtenLength = writer.getSerializedSize();
+    final WriteOutBytes writeOutBytes = segmentWriteOutMedium.makeWriteOutBytes();
+    writer.writeTo(writeOutBytes, null);
+    Assert.assertEquals(writtenLength, writeOutBytes.size());
+    return ByteBuffer.wrap(IOUtils.toByteArray(writeOutBytes.asInputStream()));
+  }
+
+  private void assertValues(int[] vals, ColumnarInts ints) throws IOException
+  {
+    try {
+      Assert.assertEquals(vals.length, ints.size());
+
+      // in order, backwards, and at random
+      for (int i = 0; i < vals.length; i++) {
+        Assert.assertEquals(vals[i], ints.get(i));
+      }
+      for (int i = vals.length - 1; i >= 0; i -= 7) {
+        Assert.assertEquals(vals[i], ints.get(i));
+      }
+      for (int i = 0; i < 1000; i++) {
+        final int index = rand.nextInt(vals.length);
+        Assert.assertEquals(vals[index], ints.get(index));
+      }
+
+      // vectors
+      final int[] vector = new int[512];
+      for (int start = 0; start < vals.length; start += vector.length - 5) {
+        final int length = Math.min(vector.length, vals.length - start);
+        ints.get(vector, start, length);
+        for (int i = 0; i < length; i++) {
+          Assert.assertEquals(vals[start + i], vector[i]);
+        }
+      }
+
+      // sorted, sparse indexes
+      final int[] indexes = new int[vector.length];
+      int index = 0;
+      int numIndexes = 0;
+      while (numIndexes < indexes.length && index < vals.length) {
+        indexes[numIndexes++] = index;
+        index += 1 + rand.nextInt(200);
+      }
+      ints.get(vector, indexes, numIndexes);
+      for (int i = 0; i < numIndexes; i++) {
+        Assert.assertEquals(vals[indexes[i]], vector[i]);
+      }
+
+      if (ints instanceof RunLengthColumnarInts) {
+        assertRuns(vals, (RunLengthColumnarInts) ints);
+      }
+    }
+    finally {
+      ints.close();
+    }
+  }
+
+  private void assertRuns(int[] vals, RunLengthColumnarInts runs)
+  {
+    int row = 0;
+    for (int run = 0; run < runs.getNumRuns(); run++) {
+      Assert.assertEquals(row, runs.getRunStart(run));
+      Assert.assertTrue(runs.getRunEnd(run) > row);
+      if (run > 0) {
+        Assert.assertNotEquals(runs.getRunValue(run - 1), runs.getRunValue(run));
+      }
+      for (; row < runs.getRunEnd(run); row++) {
+        Assert.assertEquals(vals[row], runs.getRunValue(run));
+        Assert.assertEquals(run, runs.findRun(row));
+      }
+    }
+    Assert.assertEquals(vals.length, row);
+  }
+}
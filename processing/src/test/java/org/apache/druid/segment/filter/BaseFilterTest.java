@@ -85,6 +85,7 @@ import org.apache.druid.segment.data.BitmapSerdeFactory;
 import org.apache.druid.segment.data.ConciseBitmapSerdeFactory;
 import org.apache.druid.segment.data.IndexedInts;
 import org.apache.druid.segment.data.RoaringBitmapSerdeFactory;
+import org.apache.druid.segment.data.StringEncodingStrategy;
 import org.apache.druid.segment.filter.cnf.CNFFilterExplosionException;
 import org.apache.druid.segment.incremental.IncrementalIndex;
 import org.apache.druid.segment.incremental.IncrementalIndexSchema;
@@ -365,9 +366,56 @@ public abstract class BaseFilterTest extends InitializedNullHandlingTest
               final IndexBuilder indexBuilder = IndexBuilder
                   .create()
                   .schema(DEFAULT_INDEX_SCHEMA)
-                  .indexSpec(new IndexSpec(bitmapSerdeFactoryEntry.getValue(), null, null, null))
+                  .indexSpec(IndexSpec.builder().withBitmapSerdeFactory(bitmapSerdeFactoryEntry.getValue()).build())
                   .segmentWriteOutMediumFactory(segmentWriteOutMediumFactoryEntry.getValue());
               constructors.add(new Object[]{testName, indexBuilder, finisherEntry.getValue(), cnf, optimize});
+
+              if (finisherEntry.getKey().startsWith("mmapped")) {
+                // also check lookups in front-coded dictionaries, numeric zone maps and run-length encoded
+                // dimensions, which are only used by persisted segments
+                final IndexBuilder frontCodedIndexBuilder = IndexBuilder
+                    .create()
+                    .schema(DEFAULT_INDEX_SCHEMA)
+                    .indexSpec(
+                        IndexSpec.builder()
+                            .withBitmapSerdeFactory(bitmapSerdeFactoryEntry.getValue())
+                            .withStringDictionaryEncoding(new StringEncodingStrategy.FrontCoded(4))
+                            .withNumericZoneMaps(true)
+                            .withDimensionRunLengthEncoding(true)
+                            .build()
+                    )
+                    .segmentWriteOutMediumFactory(segmentWriteOutMediumFactoryEntry.getValue());
+                constructors.add(
+                    new Object[]{
+                        testName + ", storage[frontCoded, numericZoneMaps, dimensionRunLengthEncoding]",
+                        frontCodedIndexBuilder,
+                        finisherEntry.getValue(),
+                        cnf,
+                        optimize
+                    }
+                );
+
+                // and bit-sliced indexes, which take over range filters on numeric dimensions from zone maps
+                final IndexBuilder bitSlicedIndexBuilder = IndexBuilder
+                    .create()
+                    .schema(DEFAULT_INDEX_SCHEMA)
+                    .indexSpec(
+                        IndexSpec.builder()
+                            .withBitmapSerdeFactory(bitmapSerdeFactoryEntry.getValue())
+                            .withNumericBitmapIndexes(true)
+                            .build()
+                    )
+                    .segmentWriteOutMediumFactory(segmentWriteOutMediumFactoryEntry.getValue());
+                constructors.add(
+                    new Object[]{
+                        testName + ", storage[numericBitmapIndexes]",
+                        bitSlicedIndexBuilder,
+                        finisherEntry.getValue(),
+                        cnf,
+                        optimize
+                    }
+                );
+              }
             }
           }
         }
@@ -204,7 +204,9 @@ public class SegmentGenerator implements Closeable
       throw new ISE("No rows to index?");
     } else {
       try {
-        final IndexSpec indexSpec = new IndexSpec(new RoaringBitmapSerdeFactory(true), null, null, null);
+        final IndexSpec indexSpec = IndexSpec.builder()
+            .withBitmapSerdeFactory(new RoaringBitmapSerdeFactory(true))
+            .build();
 
         retVal = TestHelper
             .getTestIndexIO()
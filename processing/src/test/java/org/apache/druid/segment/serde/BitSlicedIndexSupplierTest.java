@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.apache.druid.collections.bitmap.BitmapFactory;
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.collections.bitmap.MutableBitmap;
+import org.apache.druid.query.DefaultBitmapResultFactory;
+import org.apache.druid.segment.column.BitmapColumnIndex;
+import org.apache.druid.segment.column.NullValueIndex;
+import org.apache.druid.segment.column.NumericRangeIndex;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.data.BitmapSerdeFactory;
+import org.apache.druid.segment.data.ConciseBitmapSerdeFactory;
+import org.apache.druid.segment.data.RoaringBitmapSerdeFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.roaringbitmap.IntIterator;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+public class BitSlicedIndexSupplierTest
+{
+  private static final int NUM_ROWS = 5000;
+
+  private final Random random = new Random(0);
+
+  @Test
+  public void testLongRanges() throws IOException
+  {
+    for (BitmapSerdeFactory bitmapSerdeFactory : new BitmapSerdeFactory[]{
+        new RoaringBitmapSerdeFactory(null),
+        new ConciseBitmapSerdeFactory()
+    }) {
+      final Long[] values = new Long[NUM_ROWS];
+      final BitSlicedIndexWriter writer = new BitSlicedIndexWriter(ValueType.LONG, bitmapSerdeFactory);
+      for (int i = 0; i < NUM_ROWS; i++) {
+        if (random.nextInt(10) == 0) {
+          writer.addNull();
+        } else {
+          values[i] = (long) random.nextInt(2000) - 1000;
+          writer.addLong(values[i]);
+        }
+      }
+      final NumericRangeIndex rangeIndex = makeSupplier(writer, bitmapSerdeFactory, values).as(NumericRangeIndex.class);
+      Assert.assertNotNull(rangeIndex);
+
+      for (int i = 0; i < 100; i++) {
+        final boolean startStrict = random.nextBoolean();
+        final boolean endStrict = random.nextBoolean();
+        assertRange(rangeIndex, values, randomLongBound(), startStrict, randomLongBound(), endStrict);
+        assertRange(rangeIndex, values, randomDoubleBound(), startStrict, randomDoubleBound(), endStrict);
+      }
+
+      // bounds at the limits of longs
+      assertRange(rangeIndex, values, Long.MAX_VALUE, true, null, false);
+      assertRange(rangeIndex, values, null, false, Long.MIN_VALUE, true);
+      assertRange(rangeIndex, values, Long.MIN_VALUE, false, Long.MAX_VALUE, false);
+
+      // bounds that may have lost precision when parsed are left to other indexes, and there are none here
+      Assert.assertNull(rangeIndex.forRange(1e20, false, null, false));
+      Assert.assertNull(rangeIndex.forRange(null, false, Double.NaN, false));
+    }
+  }
+
+  @Test
+  public void testLongExtremes() throws IOException
+  {
+    final BitmapSerdeFactory bitmapSerdeFactory = new RoaringBitmapSerdeFactory(null);
+    final Long[] values = new Long[]{Long.MIN_VALUE, Long.MAX_VALUE, 0L, null, -1L, Long.MAX_VALUE - 1};
+    final BitSlicedIndexWriter writer = new BitSlicedIndexWriter(ValueType.LONG, bitmapSerdeFactory);
+    for (Long value : values) {
+      if (value == null) {
+        writer.addNull();
+      } else {
+        writer.addLong(value);
+      }
+    }
+    final NumericRangeIndex rangeIndex = makeSupplier(writer, bitmapSerdeFactory, values).as(NumericRangeIndex.class);
+
+    assertRange(rangeIndex, values, Long.MIN_VALUE, true, null, false);
+    assertRange(rangeIndex, values, null, false, Long.MAX_VALUE, true);
+    assertRange(rangeIndex, values, -1L, false, 0L, false);
+    assertRange(rangeIndex, values, Long.MAX_VALUE - 1, false, null, false);
+    assertRange(rangeIndex, values, null, false, null, false);
+  }
+
+  @Test
+  public void testDoubleRanges() throws IOException
+  {
+    final BitmapSerdeFactory bitmapSerdeFactory = new RoaringBitmapSerdeFactory(null);
+    final double[] specialValues = new double[]{
+        Double.NaN,
+        Double.NEGATIVE_INFINITY,
+        Double.POSITIVE_INFINITY,
+        -0.0,
+        0.0,
+        4.9e-324,
+        -1.7976931348623157e308
+    };
+    final Double[] values = new Double[NUM_ROWS];
+    final BitSlicedIndexWriter writer = new BitSlicedIndexWriter(ValueType.DOUBLE, bitmapSerdeFactory);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      final int choice = random.nextInt(20);
+      if (choice == 0) {
+        writer.addNull();
+      } else {
+        values[i] = choice == 1
+                    ? specialValues[random.nextInt(specialValues.length)]
+                    : (random.nextInt(4000) - 2000) / 4.0;
+        writer.addDouble(values[i]);
+      }
+    }
+    final NumericRangeIndex rangeIndex = makeSupplier(writer, bitmapSerdeFactory, values).as(NumericRangeIndex.class);
+
+    for (int i = 0; i < 100; i++) {
+      final boolean startStrict = random.nextBoolean();
+      final boolean endStrict = random.nextBoolean();
+      assertRange(rangeIndex, values, randomLongBound(), startStrict, randomLongBound(), endStrict);
+      assertRange(rangeIndex, values, randomDoubleBound(), startStrict, randomDoubleBound(), endStrict);
+    }
+    for (double start : specialValues) {
+      for (double end : specialValues) {
+        assertRange(rangeIndex, values, start, false, end, false);
+        assertRange(rangeIndex, values, start, true, end, true);
+      }
+    }
+  }
+
+  @Test
+  public void testOnlyNulls() throws IOException
+  {
+    final BitmapSerdeFactory bitmapSerdeFactory = new RoaringBitmapSerdeFactory(null);
+    final Long[] values = new Long[10];
+    final BitSlicedIndexWriter writer = new BitSlicedIndexWriter(ValueType.LONG, bitmapSerdeFactory);
+    for (int i = 0; i < values.length; i++) {
+      writer.addNull();
+    }
+    final BitSlicedIndexSupplier supplier = makeSupplier(writer, bitmapSerdeFactory, values);
+    assertRange(supplier.as(NumericRangeIndex.class), values, null, false, null, false);
+    assertRange(supplier.as(NumericRangeIndex.class), values, 0L, false, 0L, false);
+    Assert.assertEquals(
+        values.length,
+        supplier.as(NullValueIndex.class)
+                .forNull()
+                .computeBitmapResult(new DefaultBitmapResultFactory(bitmapSerdeFactory.getBitmapFactory()))
+                .size()
+    );
+  }
+
+  private BitSlicedIndexSupplier makeSupplier(
+      BitSlicedIndexWriter writer,
+      BitmapSerdeFactory bitmapSerdeFactory,
+      Number[] values
+  ) throws IOException
+  {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    writer.writeTo(Channels.newChannel(baos));
+    Assert.assertEquals(baos.size(), writer.getSerializedSize());
+
+    // write the index after some other bytes, in a buffer with a different byte order, like column parts do
+    final ByteBuffer buffer = ByteBuffer.allocate(baos.size() + 3).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.position(3);
+    buffer.put(baos.toByteArray());
+    buffer.position(3);
+    final BitSlicedIndex index = BitSlicedIndex.read(buffer, bitmapSerdeFactory);
+    Assert.assertFalse(buffer.hasRemaining());
+    Assert.assertEquals(values.length, index.getNumRows());
+
+    final BitmapFactory bitmapFactory = bitmapSerdeFactory.getBitmapFactory();
+    final MutableBitmap nulls = bitmapFactory.makeEmptyMutableBitmap();
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        nulls.add(i);
+      }
+    }
+    return new BitSlicedIndexSupplier(
+        index,
+        new NullValueIndexSupplier(bitmapFactory.makeImmutableBitmap(nulls))
+    );
+  }
+
+  @Nullable
+  private Long randomLongBound()
+  {
+    return random.nextInt(10) == 0 ? null : (long) random.nextInt(2400) - 1200;
+  }
+
+  @Nullable
+  private Double randomDoubleBound()
+  {
+    return random.nextInt(10) == 0 ? null : (random.nextInt(9600) - 4800) / 8.0;
+  }
+
+  private static void assertRange(
+      NumericRangeIndex rangeIndex,
+      Number[] values,
+      @Nullable Number start,
+      boolean startStrict,
+      @Nullable Number end,
+      boolean endStrict
+  )
+  {
+    final BitmapColumnIndex columnIndex = rangeIndex.forRange(start, startStrict, end, endStrict);
+    Assert.assertNotNull(columnIndex);
+    Assert.assertTrue(columnIndex.getIndexCapabilities().isExact());
+    final ImmutableBitmap bitmap = columnIndex.computeBitmapResult(
+        new DefaultBitmapResultFactory(new RoaringBitmapSerdeFactory(null).getBitmapFactory())
+    );
+
+    final boolean doubleColumn = values instanceof Double[];
+    final MutableBitmap expected = new RoaringBitmapSerdeFactory(null).getBitmapFactory().makeEmptyMutableBitmap();
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null
+          && (start == null || isAfter(values[i], start, startStrict, doubleColumn))
+          && (end == null || isAfter(end, values[i], endStrict, doubleColumn))) {
+        expected.add(i);
+      }
+    }
+    Assert.assertArrayEquals(
+        (startStrict ? "(" : "[") + start + ", " + end + (endStrict ? ")" : "]"),
+        toArray(expected.iterator()),
+        toArray(bitmap.iterator())
+    );
+  }
+
+  private static int[] toArray(IntIterator iterator)
+  {
+    final IntArrayList list = new IntArrayList();
+    while (iterator.hasNext()) {
+      list.add(iterator.next());
+    }
+    return list.toIntArray();
+  }
+
+  /**
+   * Whether a is after b, comparing them like {@link Double#compare} for DOUBLE columns, and exactly for LONG columns.
+   */
+  private static boolean isAfter(Number a, Number b, boolean strict, boolean doubleColumn)
+  {
+    final int comparison;
+    if (doubleColumn) {
+      comparison = Double.compare(a.doubleValue(), b.doubleValue());
+    } else if (a instanceof Double || b instanceof Double) {
+      comparison = new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString()));
+    } else {
+      comparison = Long.compare(a.longValue(), b.longValue());
+    }
+    return strict ? comparison > 0 : comparison >= 0;
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import org.apache.druid.collections.bitmap.BitmapFactory;
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.collections.bitmap.MutableBitmap;
+import org.apache.druid.collections.bitmap.RoaringBitmapFactory;
+import org.apache.druid.query.DefaultBitmapResultFactory;
+import org.apache.druid.segment.column.BitmapColumnIndex;
+import org.apache.druid.segment.column.NullValueIndex;
+import org.apache.druid.segment.column.NumericRangeIndex;
+import org.apache.druid.segment.column.ValueType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+public class NumericZoneMapIndexSupplierTest
+{
+  private static final int ZONE = NumericZoneMap.ROWS_PER_ZONE;
+
+  private final BitmapFactory bitmapFactory = new RoaringBitmapFactory();
+
+  @Test
+  public void testLongRanges() throws IOException
+  {
+    // zone 0: 0 to 4095, zone 1: 10000 to 14095, zone 2: only nulls, zone 3: 100 rows of 5 and a null
+    final NumericZoneMapWriter writer = new NumericZoneMapWriter(ValueType.LONG);
+    final MutableBitmap nulls = bitmapFactory.makeEmptyMutableBitmap();
+    for (int i = 0; i < ZONE; i++) {
+      writer.addLong(i);
+    }
+    for (int i = 0; i < ZONE; i++) {
+      writer.addLong(10000 + i);
+    }
+    for (int i = 0; i < ZONE; i++) {
+      nulls.add(2 * ZONE + i);
+      writer.addNull();
+    }
+    for (int i = 0; i < 100; i++) {
+      writer.addLong(5);
+    }
+    nulls.add(3 * ZONE + 100);
+    writer.addNull();
+
+    final NumericZoneMapIndexSupplier supplier = makeSupplier(writer, nulls);
+    final NumericRangeIndex rangeIndex = supplier.as(NumericRangeIndex.class);
+    Assert.assertNotNull(rangeIndex);
+    Assert.assertEquals(
+        ZONE + 1,
+        supplier.as(NullValueIndex.class).forNull().computeBitmapResult(new DefaultBitmapResultFactory(bitmapFactory))
+                .size()
+    );
+
+    // only zone 1 can match, and all of it does
+    assertIndex(rangeIndex.forRange(10000L, false, 20000L, false), true, zones(1));
+
+    // every zone but the null one matches, but zone 3 has a null row
+    assertIndex(rangeIndex.forRange(0L, false, null, false), false, zones(0, 1, 3));
+
+    // strict bounds equal to the maximum of zone 0 and the minimum of zone 1
+    assertIndex(rangeIndex.forRange(4095L, true, null, false), true, zones(1));
+    assertIndex(rangeIndex.forRange(null, false, 10000L, true), false, zones(0, 3));
+
+    // rows of zone 0 and zone 3 match, but only some of zone 0
+    assertIndex(rangeIndex.forRange(5L, false, 5L, false), false, zones(0, 3));
+
+    // fractional bounds skip zones, but never match them outright
+    assertIndex(rangeIndex.forRange(4095.5, false, null, false), false, zones(1));
+    assertIndex(rangeIndex.forRange(-0.5, false, 4095.0, false), false, zones(0, 3));
+    assertIndex(rangeIndex.forRange(-4.5, false, -0.5, false), true, zones());
+
+    // bounds that may have lost precision when parsed
+    Assert.assertNull(rangeIndex.forRange(1e20, false, null, false));
+    Assert.assertNull(rangeIndex.forRange(null, false, Double.NaN, false));
+  }
+
+  @Test
+  public void testDoubleRanges() throws IOException
+  {
+    // zone 0: 0 to 2047.5, zone 1: 2048 to 4095.5 and NaN
+    final NumericZoneMapWriter writer = new NumericZoneMapWriter(ValueType.DOUBLE);
+    for (int i = 0; i < 2 * ZONE; i++) {
+      writer.addDouble(i == ZONE + 7 ? Double.NaN : i * 0.5);
+    }
+
+    final NumericZoneMapIndexSupplier supplier = makeSupplier(writer, bitmapFactory.makeEmptyMutableBitmap());
+    final NumericRangeIndex rangeIndex = supplier.as(NumericRangeIndex.class);
+    Assert.assertNotNull(rangeIndex);
+
+    assertIndex(rangeIndex.forRange(null, false, 10.0, false), false, zones(0));
+    assertIndex(rangeIndex.forRange(2047.5, true, null, false), true, zones(1));
+
+    // nothing can be skipped, and zone 0 only partly matches
+    Assert.assertNull(rangeIndex.forRange(2047.5, false, null, false));
+
+    // NaN is larger than every other value, so a range without an upper bound contains all of zone 1
+    assertIndex(rangeIndex.forRange(0.0, false, null, false), true, zones(0, 1));
+
+    // zone 1 may only partly match
+    Assert.assertNull(rangeIndex.forRange(null, false, 1e6, false));
+  }
+
+  private NumericZoneMapIndexSupplier makeSupplier(NumericZoneMapWriter writer, MutableBitmap nulls)
+      throws IOException
+  {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    writer.writeTo(Channels.newChannel(baos));
+    Assert.assertEquals(baos.size(), writer.getSerializedSize());
+
+    // write the zone map after some other bytes, in a buffer with a different byte order, like column parts do
+    final ByteBuffer buffer = ByteBuffer.allocate(baos.size() + 3).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.position(3);
+    buffer.put(baos.toByteArray());
+    buffer.position(3);
+    final NumericZoneMap zoneMap = NumericZoneMap.read(buffer);
+    Assert.assertFalse(buffer.hasRemaining());
+
+    return new NumericZoneMapIndexSupplier(bitmapFactory.makeImmutableBitmap(nulls), zoneMap, bitmapFactory);
+  }
+
+  private ImmutableBitmap zones(int... zones)
+  {
+    final MutableBitmap bitmap = bitmapFactory.makeEmptyMutableBitmap();
+    for (int zone : zones) {
+      bitmap.addRange(zone * ZONE, zone == 3 ? 3 * ZONE + 101 : (zone + 1) * ZONE);
+    }
+    return bitmapFactory.makeImmutableBitmap(bitmap);
+  }
+
+  private void assertIndex(BitmapColumnIndex index, boolean exact, ImmutableBitmap expected)
+  {
+    Assert.assertNotNull(index);
+    Assert.assertEquals(exact, index.getIndexCapabilities().isExact());
+    final ImmutableBitmap bitmap = index.computeBitmapResult(new DefaultBitmapResultFactory(bitmapFactory));
+    Assert.assertEquals(expected.size(), bitmap.size());
+    Assert.assertEquals(expected.size(), bitmapFactory.intersection(Arrays.asList(expected, bitmap)).size());
+  }
+}
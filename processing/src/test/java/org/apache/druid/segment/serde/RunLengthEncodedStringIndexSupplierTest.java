@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import com.google.common.collect.ImmutableSortedSet;
+import org.apache.commons.io.IOUtils;
+import org.apache.druid.collections.bitmap.BitmapFactory;
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.collections.bitmap.MutableBitmap;
+import org.apache.druid.collections.bitmap.RoaringBitmapFactory;
+import org.apache.druid.java.util.common.ByteBufferUtils;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.guava.Comparators;
+import org.apache.druid.query.DefaultBitmapResultFactory;
+import org.apache.druid.query.filter.SelectorPredicateFactory;
+import org.apache.druid.segment.column.BitmapColumnIndex;
+import org.apache.druid.segment.column.DruidPredicateIndex;
+import org.apache.druid.segment.column.NullValueIndex;
+import org.apache.druid.segment.column.StringValueSetIndex;
+import org.apache.druid.segment.column.Utf8ValueSetIndex;
+import org.apache.druid.segment.data.GenericIndexed;
+import org.apache.druid.segment.data.RunLengthEncodedColumnarIntsSerializer;
+import org.apache.druid.segment.data.RunLengthEncodedColumnarIntsSupplier;
+import org.apache.druid.segment.data.VSizeColumnarIntsSerializer;
+import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMedium;
+import org.apache.druid.segment.writeout.SegmentWriteOutMedium;
+import org.apache.druid.segment.writeout.WriteOutBytes;
+import org.apache.druid.testing.InitializedNullHandlingTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class RunLengthEncodedStringIndexSupplierTest extends InitializedNullHandlingTest
+{
+  private static final String[] DICTIONARY = new String[]{null, "a", "b", "c"};
+
+  // runs of (end row, value): [0, 100) is b, [100, 250) is a, [250, 300) is c, [300, 400) is null, [400, 1000) is b
+  private static final int[][] RUNS = new int[][]{{100, 2}, {250, 1}, {300, 3}, {400, 0}, {1000, 2}};
+
+  private final BitmapFactory bitmapFactory = new RoaringBitmapFactory();
+  private final SegmentWriteOutMedium segmentWriteOutMedium = new OffHeapMemorySegmentWriteOutMedium();
+  private RunLengthEncodedStringIndexSupplier supplier;
+
+  @Before
+  public void setUp() throws Exception
+  {
+    final RunLengthEncodedColumnarIntsSerializer writer = new RunLengthEncodedColumnarIntsSerializer(
+        new VSizeColumnarIntsSerializer(segmentWriteOutMedium, DICTIONARY.length - 1),
+        DICTIONARY.length - 1
+    );
+    writer.open();
+    int row = 0;
+    for (int[] run : RUNS) {
+      for (; row < run[0]; row++) {
+        writer.addValue(run[1]);
+      }
+    }
+    Assert.assertTrue(writer.isRunLengthEncoded());
+    final WriteOutBytes writeOutBytes = segmentWriteOutMedium.makeWriteOutBytes();
+    writer.writeTo(writeOutBytes, null);
+    final RunLengthEncodedColumnarIntsSupplier runs = RunLengthEncodedColumnarIntsSupplier.fromByteBuffer(
+        ByteBuffer.wrap(IOUtils.toByteArray(writeOutBytes.asInputStream()))
+    );
+
+    final GenericIndexed<String> dictionary = GenericIndexed.fromArray(DICTIONARY, GenericIndexed.STRING_STRATEGY);
+    final GenericIndexed<ByteBuffer> dictionaryUtf8 = GenericIndexed.fromIterable(
+        Arrays.asList(
+            null,
+            ByteBuffer.wrap(StringUtils.toUtf8("a")),
+            ByteBuffer.wrap(StringUtils.toUtf8("b")),
+            ByteBuffer.wrap(StringUtils.toUtf8("c"))
+        ),
+        GenericIndexed.BYTE_BUFFER_STRATEGY
+    );
+    supplier = new RunLengthEncodedStringIndexSupplier(
+        bitmapFactory,
+        dictionary::singleThreaded,
+        dictionaryUtf8::singleThreaded,
+        runs::get
+    );
+  }
+
+  @After
+  public void tearDown() throws Exception
+  {
+    segmentWriteOutMedium.close();
+  }
+
+  @Test
+  public void testValueSetIndex()
+  {
+    final StringValueSetIndex valueSetIndex = supplier.as(StringValueSetIndex.class);
+    Assert.assertNotNull(valueSetIndex);
+    assertIndex(valueSetIndex.forValue("b"), rows(0, 100, 400, 1000));
+    assertIndex(valueSetIndex.forValue("a"), rows(100, 250));
+    assertIndex(valueSetIndex.forValue("d"), rows());
+
+    // adjacent runs of matching values
+    assertIndex(
+        valueSetIndex.forSortedValues(
+            ImmutableSortedSet.orderedBy(Comparators.<String>naturalNullsFirst()).add("a", "b").build()
+        ),
+        rows(0, 250, 400, 1000)
+    );
+  }
+
+  @Test
+  public void testUtf8ValueSetIndex()
+  {
+    final Utf8ValueSetIndex valueSetIndex = supplier.as(Utf8ValueSetIndex.class);
+    Assert.assertNotNull(valueSetIndex);
+    assertIndex(
+        valueSetIndex.forSortedValuesUtf8(
+            ImmutableSortedSet.orderedBy(ByteBufferUtils.unsignedComparator())
+                              .add(ByteBuffer.wrap(StringUtils.toUtf8("c")))
+                              .add(ByteBuffer.wrap(StringUtils.toUtf8("d")))
+                              .build()
+        ),
+        rows(250, 300)
+    );
+  }
+
+  @Test
+  public void testPredicateIndex()
+  {
+    final DruidPredicateIndex predicateIndex = supplier.as(DruidPredicateIndex.class);
+    Assert.assertNotNull(predicateIndex);
+    assertIndex(predicateIndex.forPredicate(new SelectorPredicateFactory("c")), rows(250, 300));
+  }
+
+  @Test
+  public void testNullValueIndex()
+  {
+    final NullValueIndex nullValueIndex = supplier.as(NullValueIndex.class);
+    Assert.assertNotNull(nullValueIndex);
+    assertIndex(nullValueIndex.forNull(), rows(300, 400));
+  }
+
+  private ImmutableBitmap rows(int... ranges)
+  {
+    final MutableBitmap bitmap = bitmapFactory.makeEmptyMutableBitmap();
+    for (int i = 0; i < ranges.length; i += 2) {
+      bitmap.addRange(ranges[i], ranges[i + 1]);
+    }
+    return bitmapFactory.makeImmutableBitmap(bitmap);
+  }
+
+  private void assertIndex(BitmapColumnIndex index, ImmutableBitmap expected)
+  {
+    Assert.assertTrue(index.getIndexCapabilities().isExact());
+    final ImmutableBitmap bitmap = index.computeBitmapResult(new DefaultBitmapResultFactory(bitmapFactory));
+    Assert.assertEquals(expected.size(), bitmap.size());
+    Assert.assertEquals(expected.size(), bitmapFactory.intersection(Arrays.asList(expected, bitmap)).size());
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.serde;
+
+import com.google.common.collect.ImmutableSortedSet;
+import org.apache.commons.io.IOUtils;
+import org.apache.druid.collections.bitmap.BitmapFactory;
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.collections.bitmap.MutableBitmap;
+import org.apache.druid.collections.bitmap.RoaringBitmapFactory;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.guava.Comparators;
+import org.apache.druid.query.DefaultBitmapResultFactory;
+import org.apache.druid.query.filter.SelectorPredicateFactory;
+import org.apache.druid.segment.column.BitmapColumnIndex;
+import org.apache.druid.segment.column.DictionaryEncodedStringValueIndex;
+import org.apache.druid.segment.column.DruidPredicateIndex;
+import org.apache.druid.segment.column.NullValueIndex;
+import org.apache.druid.segment.column.StringValueSetIndex;
+import org.apache.druid.segment.data.GenericIndexed;
+import org.apache.druid.segment.data.SortedRowsIndexSerializer;
+import org.apache.druid.segment.data.SortedRowsIndexSupplier;
+import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMedium;
+import org.apache.druid.segment.writeout.SegmentWriteOutMedium;
+import org.apache.druid.segment.writeout.WriteOutBytes;
+import org.apache.druid.testing.InitializedNullHandlingTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class SortedRowsStringIndexSupplierTest extends InitializedNullHandlingTest
+{
+  private static final String[] DICTIONARY = new String[]{null, "a", "b", "c", "d"};
+
+  // dictionary id of each row; "d" is in no row
+  private static final int[] VALUES = new int[]{2, 1, 2, 3, 0, 2, 1, 1, 3, 2};
+
+  private final BitmapFactory bitmapFactory = new RoaringBitmapFactory();
+  private final SegmentWriteOutMedium segmentWriteOutMedium = new OffHeapMemorySegmentWriteOutMedium();
+  private SortedRowsIndexSupplier sortedRows;
+  private SortedRowsStringIndexSupplier supplier;
+
+  @Before
+  public void setUp() throws Exception
+  {
+    final SortedRowsIndexSerializer writer =
+        new SortedRowsIndexSerializer(segmentWriteOutMedium, VALUES.length - 1, VALUES.length);
+    writer.open();
+    for (int id = 0; id < DICTIONARY.length; id++) {
+      final MutableBitmap bitmap = bitmapFactory.makeEmptyMutableBitmap();
+      for (int row = 0; row < VALUES.length; row++) {
+        if (VALUES[row] == id) {
+          bitmap.add(row);
+        }
+      }
+      writer.addRows(bitmapFactory.makeImmutableBitmap(bitmap));
+    }
+    final WriteOutBytes writeOutBytes = segmentWriteOutMedium.makeWriteOutBytes();
+    writer.writeTo(writeOutBytes, null);
+    Assert.assertEquals(writer.getSerializedSize(), writeOutBytes.size());
+    sortedRows = SortedRowsIndexSupplier.fromByteBuffer(
+        ByteBuffer.wrap(IOUtils.toByteArray(writeOutBytes.asInputStream()))
+    );
+
+    final GenericIndexed<String> dictionary = GenericIndexed.fromArray(DICTIONARY, GenericIndexed.STRING_STRATEGY);
+    final GenericIndexed<ByteBuffer> dictionaryUtf8 = GenericIndexed.fromIterable(
+        Arrays.asList(
+            null,
+            ByteBuffer.wrap(StringUtils.toUtf8("a")),
+            ByteBuffer.wrap(StringUtils.toUtf8("b")),
+            ByteBuffer.wrap(StringUtils.toUtf8("c")),
+            ByteBuffer.wrap(StringUtils.toUtf8("d"))
+        ),
+        GenericIndexed.BYTE_BUFFER_STRATEGY
+    );
+    supplier = new SortedRowsStringIndexSupplier(
+        bitmapFactory,
+        dictionary::singleThreaded,
+        dictionaryUtf8::singleThreaded,
+        sortedRows
+    );
+  }
+
+  @After
+  public void tearDown() throws Exception
+  {
+    segmentWriteOutMedium.close();
+  }
+
+  @Test
+  public void testSortedRows()
+  {
+    Assert.assertEquals(DICTIONARY.length, sortedRows.getNumValues());
+    Assert.assertEquals(1, sortedRows.getNumRows(0));
+    Assert.assertEquals(4, sortedRows.getNumRows(2));
+    Assert.assertEquals(0, sortedRows.getNumRows(4));
+  }
+
+  @Test
+  public void testValueSetIndex()
+  {
+    final StringValueSetIndex valueSetIndex = supplier.as(StringValueSetIndex.class);
+    Assert.assertNotNull(valueSetIndex);
+    assertIndex(valueSetIndex.forValue("b"), rows(0, 2, 5, 9));
+    assertIndex(valueSetIndex.forValue("d"), rows());
+    assertIndex(valueSetIndex.forValue("e"), rows());
+    assertIndex(
+        valueSetIndex.forSortedValues(
+            ImmutableSortedSet.orderedBy(Comparators.<String>naturalNullsFirst()).add("a", "c").build()
+        ),
+        rows(1, 3, 6, 7, 8)
+    );
+  }
+
+  @Test
+  public void testPredicateIndex()
+  {
+    final DruidPredicateIndex predicateIndex = supplier.as(DruidPredicateIndex.class);
+    Assert.assertNotNull(predicateIndex);
+    assertIndex(predicateIndex.forPredicate(new SelectorPredicateFactory("c")), rows(3, 8));
+  }
+
+  @Test
+  public void testNullValueIndex()
+  {
+    final NullValueIndex nullValueIndex = supplier.as(NullValueIndex.class);
+    Assert.assertNotNull(nullValueIndex);
+    assertIndex(nullValueIndex.forNull(), rows(4));
+  }
+
+  @Test
+  public void testDictionaryEncodedValueIndex()
+  {
+    final DictionaryEncodedStringValueIndex valueIndex = supplier.as(DictionaryEncodedStringValueIndex.class);
+    Assert.assertNotNull(valueIndex);
+    Assert.assertEquals(DICTIONARY.length, valueIndex.getCardinality());
+    Assert.assertEquals("a", valueIndex.getValue(1));
+    assertBitmap(rows(1, 6, 7), valueIndex.getBitmap(1));
+    Assert.assertTrue(valueIndex.getBitmap(4).isEmpty());
+  }
+
+  private ImmutableBitmap rows(int... rows)
+  {
+    final MutableBitmap bitmap = bitmapFactory.makeEmptyMutableBitmap();
+    for (int row : rows) {
+      bitmap.add(row);
+    }
+    return bitmapFactory.makeImmutableBitmap(bitmap);
+  }
+
+  private void assertIndex(BitmapColumnIndex index, ImmutableBitmap expected)
+  {
+    Assert.assertTrue(index.getIndexCapabilities().isExact());
+    assertBitmap(expected, index.computeBitmapResult(new DefaultBitmapResultFactory(bitmapFactory)));
+  }
+
+  private void assertBitmap(ImmutableBitmap expected, ImmutableBitmap bitmap)
+  {
+    Assert.assertEquals(expected.size(), bitmap.size());
+    Assert.assertEquals(expected.size(), bitmapFactory.intersection(Arrays.asList(expected, bitmap)).size());
+  }
+}
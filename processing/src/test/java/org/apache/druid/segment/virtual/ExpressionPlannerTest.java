@@ -21,6 +21,7 @@ package org.apache.druid.segment.virtual;
 
 import com.google.common.collect.ImmutableMap;
 import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.math.expr.ExpressionProcessing;
 import org.apache.druid.math.expr.ExpressionType;
 import org.apache.druid.math.expr.Parser;
 import org.apache.druid.query.expression.NestedDataExpressions;
@@ -839,6 +840,49 @@ public class ExpressionPlannerTest extends InitializedNullHandlingTest
     );
   }
 
+  @Test
+  public void testVectorizableMultiValueStringArrayInput()
+  {
+    ExpressionPlan thePlan = plan("array_length(multi_dictionary_string)");
+    Assert.assertTrue(
+        thePlan.is(
+            ExpressionPlan.Trait.NON_SCALAR_INPUTS,
+            ExpressionPlan.Trait.VECTORIZABLE
+        )
+    );
+    Assert.assertFalse(thePlan.is(ExpressionPlan.Trait.NEEDS_APPLIED));
+    Assert.assertEquals(ExpressionType.LONG, thePlan.getOutputType());
+
+    thePlan = plan("array_offset_of(multi_dictionary_string, 'a') + array_length(multi_dictionary_string)");
+    Assert.assertTrue(thePlan.is(ExpressionPlan.Trait.VECTORIZABLE));
+
+    thePlan = plan("concat(array_to_string(multi_dictionary_string, ','), scalar_string)");
+    Assert.assertTrue(thePlan.is(ExpressionPlan.Trait.VECTORIZABLE));
+    Assert.assertEquals(ExpressionType.STRING, thePlan.getOutputType());
+
+    // scalar strings used as arrays, multi-value strings which are not dictionary encoded, and arrays which are not
+    // identifiers are not vectorized
+    Assert.assertFalse(plan("array_length(scalar_string)").is(ExpressionPlan.Trait.VECTORIZABLE));
+    Assert.assertFalse(plan("array_length(multi_dictionary_string_nonunique)").is(ExpressionPlan.Trait.VECTORIZABLE));
+    Assert.assertFalse(
+        plan("array_length(array_append(multi_dictionary_string, 'x'))").is(ExpressionPlan.Trait.VECTORIZABLE)
+    );
+    Assert.assertFalse(plan("array_length(string_array_1)").is(ExpressionPlan.Trait.VECTORIZABLE));
+  }
+
+  @Test
+  public void testVectorizableWithoutFallback()
+  {
+    Assert.assertFalse(ExpressionProcessing.allowVectorizeFallback());
+    Assert.assertTrue(plan("regexp_extract(scalar_string, '[0-9]+')").is(ExpressionPlan.Trait.VECTORIZABLE));
+    Assert.assertTrue(plan("regexp_like(scalar_string, '^a')").is(ExpressionPlan.Trait.VECTORIZABLE));
+    Assert.assertTrue(plan("timestamp_format(long1, 'yyyy-MM-dd')").is(ExpressionPlan.Trait.VECTORIZABLE));
+    Assert.assertTrue(plan("timestamp_format(scalar_string, 'yyyy-MM-dd')").is(ExpressionPlan.Trait.VECTORIZABLE));
+    Assert.assertTrue(plan("format('%s-%d', scalar_string, long1)").is(ExpressionPlan.Trait.VECTORIZABLE));
+    Assert.assertTrue(plan("array_ordinal(multi_dictionary_string, 2)").is(ExpressionPlan.Trait.VECTORIZABLE));
+    Assert.assertTrue(plan("array_ordinal_of(multi_dictionary_string, 'a')").is(ExpressionPlan.Trait.VECTORIZABLE));
+  }
+
   private static ExpressionPlan plan(String expression)
   {
     return ExpressionPlanner.plan(SYNTHETIC_INSPECTOR, Parser.parse(expression, TestExprMacroTable.INSTANCE));
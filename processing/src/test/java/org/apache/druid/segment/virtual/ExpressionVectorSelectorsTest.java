@@ -24,7 +24,7 @@ import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.math.expr.Expr;
-import org.apache.druid.math.expr.ExprMacroTable;
+import org.apache.druid.math.expr.ExpressionProcessing;
 import org.apache.druid.math.expr.ExpressionType;
 import org.apache.druid.math.expr.Parser;
 import org.apache.druid.query.dimension.DefaultDimensionSpec;
@@ -91,7 +91,27 @@ public class ExpressionVectorSelectorsTest
       "string1 + string3",
       "concat(string1, string2, string3)",
       "concat(string1, 'x')",
-      "concat(string1, nonexistent)"
+      "concat(string1, nonexistent)",
+      "upper(string1)",
+      "strlen(string1)",
+      "substring(string3, 1, 2)",
+      "lower(concat(string1, string2))",
+      "strlen(string1) * long1",
+      "regexp_extract(string1, '[0-9]+')",
+      "like(string1, '1%')",
+      "timestamp_extract(long1, 'HOUR')",
+      "timestamp_format(long1, 'yyyy-MM-dd')",
+      "timestamp_format(string1, 'yyyy-MM-dd')",
+      "regexp_like(string1, '^1')",
+      "format('%s-%d', string1, long1)",
+      "array_length(\"multi-string4\")",
+      "array_offset(\"multi-string1\", 1)",
+      "array_ordinal(\"multi-string2\", 2)",
+      "array_offset_of(\"multi-string2\", '3')",
+      "array_ordinal_of(\"multi-string4\", '1')",
+      "array_to_string(\"multi-string3\", ',')",
+      "concat(array_to_string(\"multi-string4\", '|'), string1)",
+      "array_length(\"multi-string3\") * long1"
   );
 
   private static final int ROWS_PER_SEGMENT = 10_000;
@@ -102,6 +122,8 @@ public class ExpressionVectorSelectorsTest
   @BeforeClass
   public static void setupClass()
   {
+    // Functions without specialized vector processors are included in EXPRESSIONS, to cover FallbackVectorProcessor
+    ExpressionProcessing.initializeForFallback();
     CLOSER = Closer.create();
 
     final GeneratorSchemaInfo schemaInfo = GeneratorBasicSchemas.SCHEMA_MAP.get("expression-testbench");
@@ -124,6 +146,7 @@ public class ExpressionVectorSelectorsTest
   public static void teardownClass() throws IOException
   {
     CLOSER.close();
+    ExpressionProcessing.initializeForTests(null);
   }
 
   @Parameterized.Parameters(name = "expression = {0}")
@@ -143,7 +166,7 @@ public class ExpressionVectorSelectorsTest
   @Before
   public void setup()
   {
-    Expr parsed = Parser.parse(expression, ExprMacroTable.nil());
+    Expr parsed = Parser.parse(expression, TestExprMacroTable.INSTANCE);
     outputType = parsed.getOutputType(new DeprecatedQueryableIndexColumnSelector(INDEX));
     if (outputType == null) {
       outputType = ExpressionType.STRING;
@@ -42,6 +42,9 @@ public class BrokerSegmentWatcherConfig
   @JsonProperty
   private boolean awaitInitializationOnStart = true;
 
+  @JsonProperty
+  private boolean keepColumnStats = true;
+
   public Set<String> getWatchedTiers()
   {
     return watchedTiers;
@@ -66,4 +69,9 @@ public class BrokerSegmentWatcherConfig
   {
     return awaitInitializationOnStart;
   }
+
+  public boolean isKeepColumnStats()
+  {
+    return keepColumnStats;
+  }
 }
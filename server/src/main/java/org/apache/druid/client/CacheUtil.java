@@ -34,6 +34,8 @@ import java.nio.ByteBuffer;
 
 public class CacheUtil
 {
+  private static final String TIME_BUCKET_CACHE_NAMESPACE = "timeBucket";
+
   public enum ServerType
   {
     BROKER {
@@ -71,6 +73,28 @@ public class CacheUtil
     cache.put(key, resultBytes);
   }
 
+  /**
+   * Computes the key of the results of a single time bucket in the time bucket cache. The hash of the segments
+   * covering the bucket is part of the key, so entries become unreachable as soon as those segments change.
+   */
+  public static Cache.NamedKey computeTimeBucketCacheKey(
+      Interval bucket,
+      byte[] segmentsHash,
+      byte[] queryCacheKey
+  )
+  {
+    return new Cache.NamedKey(
+        TIME_BUCKET_CACHE_NAMESPACE,
+        ByteBuffer
+            .allocate(16 + segmentsHash.length + queryCacheKey.length)
+            .putLong(bucket.getStartMillis())
+            .putLong(bucket.getEndMillis())
+            .put(segmentsHash)
+            .put(queryCacheKey)
+            .array()
+    );
+  }
+
   public static Cache.NamedKey computeSegmentCacheKey(
       String segmentId,
       SegmentDescriptor descriptor,
@@ -173,6 +197,61 @@ public class CacheUtil
            && cacheConfig.isPopulateResultLevelCache();
   }
 
+  /**
+   * Returns whether the time bucket cache should be checked for a particular query on the Broker.
+   *
+   * @param query         the query to check
+   * @param cacheStrategy result of {@link QueryToolChest#getCacheStrategy} on this query
+   * @param cacheConfig   current active cache config
+   */
+  public static <T> boolean isUseTimeBucketCache(
+      Query<T> query,
+      @Nullable CacheStrategy<T, Object, Query<T>> cacheStrategy,
+      CacheConfig cacheConfig
+  )
+  {
+    return isTimeBucketCacheable(query, cacheStrategy, cacheConfig)
+           && QueryContexts.isUseTimeBucketCache(query)
+           && cacheConfig.isUseTimeBucketCache();
+  }
+
+  /**
+   * Returns whether the time bucket cache should be populated for a particular query on the Broker.
+   *
+   * @param query         the query to check
+   * @param cacheStrategy result of {@link QueryToolChest#getCacheStrategy} on this query
+   * @param cacheConfig   current active cache config
+   */
+  public static <T> boolean isPopulateTimeBucketCache(
+      Query<T> query,
+      @Nullable CacheStrategy<T, Object, Query<T>> cacheStrategy,
+      CacheConfig cacheConfig
+  )
+  {
+    return isTimeBucketCacheable(query, cacheStrategy, cacheConfig)
+           && cacheStrategy.isOrderedByTimeBucket(query)
+           && QueryContexts.isPopulateTimeBucketCache(query)
+           && cacheConfig.isPopulateTimeBucketCache();
+  }
+
+  /**
+   * Returns whether the merged results of a particular query can be cached per time bucket on the Broker. Unlike
+   * {@link #isQueryCacheable}, this does not call {@link CacheStrategy#isCacheable}, since those results are not
+   * by-segment results; {@link CacheStrategy#getTimeBucketFn} decides instead.
+   */
+  private static <T> boolean isTimeBucketCacheable(
+      final Query<T> query,
+      @Nullable final CacheStrategy<T, Object, Query<T>> cacheStrategy,
+      final CacheConfig cacheConfig
+  )
+  {
+    return cacheStrategy != null
+           && cacheStrategy.getTimeBucketFn(query) != null
+           && !QueryContexts.isBySegment(query)
+           && cacheConfig.isQueryCacheable(query)
+           && query.getDataSource().isCacheable(true);
+  }
+
   /**
    * Returns whether a particular query is cacheable. Does not check whether we are actually configured to use or
    * populate the cache; that should be done separately.
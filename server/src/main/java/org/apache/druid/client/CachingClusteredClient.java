@@ -48,10 +48,13 @@ import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.java.util.common.granularity.Granularity;
+import org.apache.druid.java.util.common.guava.AsyncReadySequence;
 import org.apache.druid.java.util.common.guava.BaseSequence;
 import org.apache.druid.java.util.common.guava.LazySequence;
 import org.apache.druid.java.util.common.guava.ParallelMergeCombiningSequence;
 import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.SequenceWrapper;
 import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.java.util.emitter.EmittingLogger;
 import org.apache.druid.java.util.emitter.service.ServiceEmitter;
@@ -85,6 +88,7 @@ import org.apache.druid.timeline.TimelineObjectHolder;
 import org.apache.druid.timeline.VersionedIntervalTimeline;
 import org.apache.druid.timeline.VersionedIntervalTimeline.PartitionChunkEntry;
 import org.apache.druid.timeline.partition.PartitionChunk;
+import org.joda.time.DateTime;
 import org.joda.time.Interval;
 
 import javax.annotation.Nullable;
@@ -93,7 +97,9 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -264,6 +270,8 @@ public class CachingClusteredClient implements QuerySegmentWalker
     private final CacheStrategy<T, Object, Query<T>> strategy;
     private final boolean useCache;
     private final boolean populateCache;
+    private final boolean useTimeBucketCache;
+    private final boolean populateTimeBucketCache;
     private final boolean isBySegment;
     private final int uncoveredIntervalsLimit;
     private final Map<String, Cache.NamedKey> cachePopulatorKeyMap = new HashMap<>();
@@ -282,6 +290,8 @@ public class CachingClusteredClient implements QuerySegmentWalker
 
       this.useCache = CacheUtil.isUseSegmentCache(query, strategy, cacheConfig, CacheUtil.ServerType.BROKER);
       this.populateCache = CacheUtil.isPopulateSegmentCache(query, strategy, cacheConfig, CacheUtil.ServerType.BROKER);
+      this.useTimeBucketCache = CacheUtil.isUseTimeBucketCache(query, strategy, cacheConfig);
+      this.populateTimeBucketCache = CacheUtil.isPopulateTimeBucketCache(query, strategy, cacheConfig);
       this.isBySegment = QueryContexts.isBySegment(query);
       // Note that enabling this leads to putting uncovered intervals information in the response headers
       // and might blow up in some cases https://github.com/apache/druid/issues/2108
@@ -346,7 +356,7 @@ public class CachingClusteredClient implements QuerySegmentWalker
         computeUncoveredIntervals(timeline);
       }
 
-      final Set<SegmentServerSelector> segmentServers = computeSegmentsToQuery(timeline, specificSegments);
+      Set<SegmentServerSelector> segmentServers = computeSegmentsToQuery(timeline, intervals, specificSegments);
       @Nullable
       final byte[] queryCacheKey = cacheKeyManager.computeSegmentLevelQueryCacheKey();
       if (query.getContext().get(QueryResource.HEADER_IF_NONE_MATCH) != null) {
@@ -362,6 +372,19 @@ public class CachingClusteredClient implements QuerySegmentWalker
         }
       }
 
+      // Time buckets that are found in the time bucket cache are not queried at all. Only segments that were
+      // computed for the whole query are part of the ETag above, so it does not depend on what is cached.
+      final Map<Interval, Cache.NamedKey> timeBucketsToCache = new LinkedHashMap<>();
+      final List<Pair<Interval, byte[]>> cachedTimeBuckets = specificSegments
+                                                             ? Collections.emptyList()
+                                                             : pruneTimeBucketsWithCachedResults(
+                                                                 segmentServers,
+                                                                 timeBucketsToCache
+                                                             );
+      if (!cachedTimeBuckets.isEmpty()) {
+        segmentServers = computeSegmentsToQuery(timeline, removeCachedTimeBuckets(cachedTimeBuckets), false);
+      }
+
       final List<Pair<Interval, byte[]>> alreadyCachedResults =
           pruneSegmentsWithCachedResults(queryCacheKey, segmentServers);
 
@@ -372,10 +395,13 @@ public class CachingClusteredClient implements QuerySegmentWalker
 
       final SortedMap<DruidServer, List<SegmentDescriptor>> segmentsByServer = groupSegmentsByServer(segmentServers);
       LazySequence<T> mergedResultSequence = new LazySequence<>(() -> {
-        List<Sequence<T>> sequencesByInterval = new ArrayList<>(alreadyCachedResults.size() + segmentsByServer.size());
+        List<Sequence<T>> sequencesByInterval = new ArrayList<>(
+            cachedTimeBuckets.size() + alreadyCachedResults.size() + segmentsByServer.size()
+        );
+        addSequencesFromCache(sequencesByInterval, cachedTimeBuckets);
         addSequencesFromCache(sequencesByInterval, alreadyCachedResults);
         addSequencesFromServer(sequencesByInterval, segmentsByServer);
-        return merge(sequencesByInterval);
+        return populateTimeBucketCache(merge(sequencesByInterval), timeBucketsToCache);
       });
 
       return new ClusterQueryResult<>(scheduler.run(query, mergedResultSequence), segmentsByServer.size());
@@ -397,6 +423,7 @@ public class CachingClusteredClient implements QuerySegmentWalker
             QueryContexts.getParallelMergeInitialYieldRows(query, processingConfig.getMergePoolTaskInitialYieldRows()),
             QueryContexts.getParallelMergeSmallBatchRows(query, processingConfig.getMergePoolSmallBatchRows()),
             processingConfig.getMergePoolTargetTaskRunTimeMillis(),
+            QueryContexts.getParallelMergeAdaptive(query, processingConfig.isMergePoolAdaptive()),
             reportMetrics -> {
               QueryMetrics<?> queryMetrics = queryPlus.getQueryMetrics();
               if (queryMetrics != null) {
@@ -419,6 +446,7 @@ public class CachingClusteredClient implements QuerySegmentWalker
 
     private Set<SegmentServerSelector> computeSegmentsToQuery(
         TimelineLookup<String, ServerSelector> timeline,
+        List<Interval> intervalsToQuery,
         boolean specificSegments
     )
     {
@@ -426,7 +454,7 @@ public class CachingClusteredClient implements QuerySegmentWalker
           = specificSegments ? timeline::lookupWithIncompletePartitions : timeline::lookup;
 
       List<TimelineObjectHolder<String, ServerSelector>> timelineObjectHolders =
-          intervals.stream().flatMap(i -> lookupFn.apply(i).stream()).collect(Collectors.toList());
+          intervalsToQuery.stream().flatMap(i -> lookupFn.apply(i).stream()).collect(Collectors.toList());
       final List<TimelineObjectHolder<String, ServerSelector>> serversLookup = toolChest.filterSegments(
           query,
           timelineObjectHolders
@@ -436,7 +464,7 @@ public class CachingClusteredClient implements QuerySegmentWalker
       final Map<String, Optional<RangeSet<String>>> dimensionRangeCache = new HashMap<>();
       // Filter unneeded chunks based on partition dimension
       for (TimelineObjectHolder<String, ServerSelector> holder : serversLookup) {
-        final Set<PartitionChunk<ServerSelector>> filteredChunks;
+        Set<PartitionChunk<ServerSelector>> filteredChunks;
         if (QueryContexts.isSecondaryPartitionPruningEnabled(query)) {
           filteredChunks = DimFilterUtils.filterShards(
               query.getFilter(),
@@ -447,6 +475,16 @@ public class CachingClusteredClient implements QuerySegmentWalker
         } else {
           filteredChunks = Sets.newHashSet(holder.getObject());
         }
+        // Filter chunks whose column stats cannot match. Joined columns are filtered after the join, so skip joins.
+        if (QueryContexts.isColumnStatsPruningEnabled(query) && !dataSourceAnalysis.isJoin()) {
+          filteredChunks = DimFilterUtils.filterByColumnStats(
+              query.getFilter(),
+              filteredChunks,
+              partitionChunk -> partitionChunk.getObject().getSegment().getColumnStats(),
+              query.getVirtualColumns(),
+              dimensionRangeCache
+          );
+        }
         for (PartitionChunk<ServerSelector> chunk : filteredChunks) {
           ServerSelector server = chunk.getObject();
           final SegmentDescriptor segment = new SegmentDescriptor(
@@ -533,6 +571,265 @@ public class CachingClusteredClient implements QuerySegmentWalker
       return alreadyCachedResults;
     }
 
+    /**
+     * Looks up the time buckets of the query granularity that lie entirely within the query intervals in the time
+     * bucket cache, and returns the cached results of the buckets that were found. If populating the cache, the
+     * buckets that were not found are added to bucketsToCache.
+     *
+     * Buckets with segments served by realtime tasks are neither looked up nor cached, since those segments keep
+     * changing. They are queried like the partial buckets at the edges of the query intervals.
+     *
+     * @param segments the segments to query for the whole query intervals
+     */
+    private List<Pair<Interval, byte[]>> pruneTimeBucketsWithCachedResults(
+        final Set<SegmentServerSelector> segments,
+        final Map<Interval, Cache.NamedKey> bucketsToCache
+    )
+    {
+      if ((!useTimeBucketCache && !populateTimeBucketCache) || dataSourceAnalysis.isQuery()) {
+        return Collections.emptyList();
+      }
+      @Nullable
+      final byte[] queryCacheKey = cacheKeyManager.computeTimeBucketQueryCacheKey();
+      if (queryCacheKey == null) {
+        return Collections.emptyList();
+      }
+
+      final List<Interval> buckets = computeTimeBuckets();
+      final Hasher[] segmentsHashers = computeTimeBucketSegmentsHashers(buckets, segments);
+      final Map<Interval, Cache.NamedKey> bucketKeys = new LinkedHashMap<>();
+      for (int i = 0; i < buckets.size(); i++) {
+        if (segmentsHashers[i] != null) {
+          final Interval bucket = buckets.get(i);
+          bucketKeys.put(
+              bucket,
+              CacheUtil.computeTimeBucketCacheKey(bucket, segmentsHashers[i].hash().asBytes(), queryCacheKey)
+          );
+        }
+      }
+
+      final Map<Cache.NamedKey, byte[]> cachedValues = useTimeBucketCache
+                                                       ? cache.getBulk(bucketKeys.values())
+                                                       : ImmutableMap.of();
+      final List<Pair<Interval, byte[]>> cachedResults = new ArrayList<>();
+      bucketKeys.forEach((bucket, bucketKey) -> {
+        final byte[] cachedValue = cachedValues.get(bucketKey);
+        if (cachedValue != null) {
+          cachedResults.add(Pair.of(bucket, cachedValue));
+        } else if (populateTimeBucketCache) {
+          bucketsToCache.put(bucket, bucketKey);
+        }
+      });
+      return cachedResults;
+    }
+
+    /**
+     * Returns the time buckets of the query granularity that lie entirely within the query intervals, in order, or
+     * none at all if there are more than {@link CacheConfig#getTimeBucketCacheLimit()}.
+     */
+    private List<Interval> computeTimeBuckets()
+    {
+      final Granularity granularity = query.getGranularity();
+      final List<Interval> buckets = new ArrayList<>();
+      for (Interval interval : intervals) {
+        for (Interval bucket : granularity.getIterable(interval)) {
+          if (interval.contains(bucket)) {
+            if (buckets.size() >= cacheConfig.getTimeBucketCacheLimit()) {
+              return Collections.emptyList();
+            }
+            buckets.add(bucket);
+          }
+        }
+      }
+      return buckets;
+    }
+
+    /**
+     * Hashes the segments of each of the given time buckets, which must be in order, by going over the segments of
+     * the whole query once. The hasher of a bucket is null if any of its segments is served by a realtime task, on any
+     * of its replicas, since which replica is queried is only decided later.
+     */
+    private Hasher[] computeTimeBucketSegmentsHashers(List<Interval> buckets, Set<SegmentServerSelector> segments)
+    {
+      final Hasher[] hashers = new Hasher[buckets.size()];
+      for (int i = 0; i < hashers.length; i++) {
+        hashers[i] = Hashing.sha1().newHasher();
+      }
+      for (SegmentServerSelector segment : segments) {
+        final Interval segmentInterval = segment.getSegmentDescriptor().getInterval();
+        int bucketIndex = findFirstTimeBucketEndingAfter(buckets, segmentInterval.getStartMillis());
+        if (bucketIndex == buckets.size()
+            || buckets.get(bucketIndex).getStartMillis() >= segmentInterval.getEndMillis()) {
+          continue;
+        }
+        final List<DruidServerMetadata> servers = segment.getServer().getAllServers();
+        final boolean realtime = servers.isEmpty()
+                                 || !servers.stream().allMatch(DruidServerMetadata::isSegmentReplicationTarget);
+        final String segmentId = segment.getServer().getSegment().getId().toString();
+        for (; bucketIndex < buckets.size(); bucketIndex++) {
+          final Interval bucket = buckets.get(bucketIndex);
+          if (bucket.getStartMillis() >= segmentInterval.getEndMillis()) {
+            break;
+          }
+          if (realtime) {
+            hashers[bucketIndex] = null;
+          } else if (hashers[bucketIndex] != null) {
+            hashers[bucketIndex].putString(segmentId, StandardCharsets.UTF_8);
+            hashers[bucketIndex].putString(bucket.overlap(segmentInterval).toString(), StandardCharsets.UTF_8);
+          }
+        }
+      }
+      return hashers;
+    }
+
+    private int findFirstTimeBucketEndingAfter(List<Interval> buckets, long millis)
+    {
+      int low = 0;
+      int high = buckets.size();
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (buckets.get(mid).getEndMillis() <= millis) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * Returns the query intervals without the given cached time buckets, which must be in the order returned by
+     * {@link #computeTimeBuckets()}.
+     */
+    private List<Interval> removeCachedTimeBuckets(List<Pair<Interval, byte[]>> cachedTimeBuckets)
+    {
+      final List<Interval> remaining = new ArrayList<>();
+      int bucketIndex = 0;
+      for (Interval interval : intervals) {
+        long start = interval.getStartMillis();
+        while (bucketIndex < cachedTimeBuckets.size() && interval.contains(cachedTimeBuckets.get(bucketIndex).lhs)) {
+          final Interval bucket = cachedTimeBuckets.get(bucketIndex++).lhs;
+          if (start < bucket.getStartMillis()) {
+            remaining.add(new Interval(start, bucket.getStartMillis(), interval.getChronology()));
+          }
+          start = bucket.getEndMillis();
+        }
+        if (start < interval.getEndMillis()) {
+          remaining.add(new Interval(start, interval.getEndMillis(), interval.getChronology()));
+        }
+      }
+      return remaining;
+    }
+
+    /**
+     * Caches the merged results of each of the given time buckets with the {@link CachePopulator}, see
+     * {@link TimeBucketCacheFeeder}.
+     */
+    private Sequence<T> populateTimeBucketCache(
+        final Sequence<T> sequence,
+        final Map<Interval, Cache.NamedKey> bucketsToCache
+    )
+    {
+      if (bucketsToCache.isEmpty()) {
+        return sequence;
+      }
+
+      final TimeBucketCacheFeeder feeder = new TimeBucketCacheFeeder(bucketsToCache);
+      return Sequences.wrap(
+          Sequences.map(
+              sequence,
+              result -> {
+                feeder.add(result);
+                return result;
+              }
+          ),
+          new SequenceWrapper()
+          {
+            @Override
+            public void after(boolean isDone, Throwable thrown)
+            {
+              if (isDone && thrown == null) {
+                feeder.finish();
+              }
+            }
+          }
+      );
+    }
+
+    /**
+     * Feeds the merged results of each time bucket to the {@link CachePopulator} as soon as the merged results move on
+     * to another bucket, since {@link CacheStrategy#isOrderedByTimeBucket} promises that they come one bucket after the
+     * other. So only the results of the bucket that is being read are held. Buckets without any results are cached once
+     * the sequence is fully read. Nothing is cached once any segment turns out to be missing on the servers it was
+     * queried from, or if the results of a bucket come after those of another one after all.
+     */
+    private class TimeBucketCacheFeeder
+    {
+      private final Function<T, DateTime> timeBucketFn = Preconditions.checkNotNull(strategy.getTimeBucketFn(query));
+      private final Function<T, Object> cacheFn = strategy.prepareForSegmentLevelCache();
+      private final Map<Long, Cache.NamedKey> bucketKeys = new HashMap<>();
+      private final Set<Long> passedBuckets = new HashSet<>();
+
+      @Nullable
+      private Long currentBucket = null;
+      private List<T> currentResults = new ArrayList<>();
+
+      private TimeBucketCacheFeeder(Map<Interval, Cache.NamedKey> bucketsToCache)
+      {
+        bucketsToCache.forEach((bucket, bucketKey) -> bucketKeys.put(bucket.getStartMillis(), bucketKey));
+      }
+
+      private void add(T result)
+      {
+        if (bucketKeys.isEmpty()) {
+          return;
+        }
+        final long bucket = query.getGranularity().bucketStart(timeBucketFn.apply(result)).getMillis();
+        if (currentBucket == null || bucket != currentBucket) {
+          if (currentBucket != null) {
+            passedBuckets.add(currentBucket);
+            populate(currentBucket);
+          }
+          if (passedBuckets.contains(bucket)) {
+            log.warn("Results of time bucket[%s] are not in order, not caching any more buckets", bucket);
+            bucketKeys.clear();
+            return;
+          }
+          currentBucket = bucket;
+        }
+        if (bucketKeys.containsKey(bucket)) {
+          currentResults.add(result);
+        }
+      }
+
+      private void finish()
+      {
+        if (currentBucket != null) {
+          populate(currentBucket);
+        }
+        for (Long bucket : new ArrayList<>(bucketKeys.keySet())) {
+          populate(bucket);
+        }
+      }
+
+      private void populate(long bucket)
+      {
+        final Cache.NamedKey bucketKey = bucketKeys.remove(bucket);
+        final List<T> results = currentResults;
+        currentResults = new ArrayList<>();
+        if (bucketKey == null) {
+          return;
+        }
+
+        final List<SegmentDescriptor> missingSegments = responseContext.getMissingSegments();
+        if (missingSegments != null && !missingSegments.isEmpty()) {
+          bucketKeys.clear();
+          return;
+        }
+        cachePopulator.wrap(Sequences.simple(results), cacheFn::apply, cache, bucketKey).forEach(result -> {});
+      }
+    }
+
     private Map<SegmentServerSelector, Cache.NamedKey> computePerSegmentCacheKeys(
         Set<SegmentServerSelector> segments,
         byte[] queryCacheKey
@@ -687,12 +984,15 @@ public class CachingClusteredClient implements QuerySegmentWalker
               responseContext
           );
       // bySegment results need to be de-serialized, see DirectDruidClient.run()
-      return (Sequence<T>) resultsBySegments
-          .map(result -> result.map(
-              resultsOfSegment -> resultsOfSegment.mapResults(
-                  toolChest.makePreComputeManipulatorFn(query, MetricManipulatorFns.deserializing())::apply
-              )
-          ));
+      return AsyncReadySequence.withReadyFutureOf(
+          resultsBySegments,
+          (Sequence<T>) resultsBySegments
+              .map(result -> result.map(
+                  resultsOfSegment -> resultsOfSegment.mapResults(
+                      toolChest.makePreComputeManipulatorFn(query, MetricManipulatorFns.deserializing())::apply
+                  )
+              ))
+      );
     }
 
     @SuppressWarnings("unchecked")
@@ -731,7 +1031,7 @@ public class CachingClusteredClient implements QuerySegmentWalker
       );
       final Function<T, Object> cacheFn = strategy.prepareForSegmentLevelCache();
 
-      return resultsBySegments
+      final Sequence<T> results = resultsBySegments
           .map(result -> {
             final BySegmentResultValueClass<T> resultsOfSegment = result.getValue();
             final Cache.NamedKey cachePopulatorKey =
@@ -745,6 +1045,7 @@ public class CachingClusteredClient implements QuerySegmentWalker
             );
           })
           .flatMerge(seq -> seq, query.getResultOrdering());
+      return AsyncReadySequence.withReadyFutureOf(resultsBySegments, results);
     }
   }
 
@@ -789,6 +1090,16 @@ public class CachingClusteredClient implements QuerySegmentWalker
       return null;
     }
 
+    /**
+     * Computes the part of the time bucket cache keys that depends on the query. Like segment-level cache keys, these
+     * do not include the query intervals, but they do include the query granularity.
+     */
+    @Nullable
+    byte[] computeTimeBucketQueryCacheKey()
+    {
+      return computeQueryCacheKeyWithJoin();
+    }
+
     /**
      * It computes the ETAG which is used by {@link org.apache.druid.query.ResultLevelCachingQueryRunner} for
      * result level caches. queryCacheKey can be null if segment level cache is not being used. However, ETAG
@@ -30,7 +30,9 @@ import com.google.common.util.concurrent.ListenableFuture;
 import org.apache.druid.java.util.common.RE;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.java.util.common.guava.AsyncReadySequence;
 import org.apache.druid.java.util.common.guava.BaseSequence;
+import org.apache.druid.java.util.common.guava.LazySequence;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.java.util.common.logger.Logger;
@@ -41,6 +43,7 @@ import org.apache.druid.java.util.http.client.response.ClientResponse;
 import org.apache.druid.java.util.http.client.response.HttpResponseHandler;
 import org.apache.druid.java.util.http.client.response.StatusResponseHandler;
 import org.apache.druid.java.util.http.client.response.StatusResponseHolder;
+import org.apache.druid.query.FrameResults;
 import org.apache.druid.query.Query;
 import org.apache.druid.query.QueryContexts;
 import org.apache.druid.query.QueryMetrics;
@@ -54,6 +57,7 @@ import org.apache.druid.query.ResourceLimitExceededException;
 import org.apache.druid.query.aggregation.MetricManipulatorFns;
 import org.apache.druid.query.context.ConcurrentResponseContext;
 import org.apache.druid.query.context.ResponseContext;
+import org.apache.druid.segment.column.RowSignature;
 import org.apache.druid.server.QueryResource;
 import org.apache.druid.utils.CloseableUtils;
 import org.jboss.netty.buffer.ChannelBuffer;
@@ -71,12 +75,15 @@ import java.io.InputStream;
 import java.io.SequenceInputStream;
 import java.net.URL;
 import java.util.Enumeration;
+import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -155,6 +162,12 @@ public class DirectDruidClient<T> implements QueryRunner<T>
     boolean isBySegment = QueryContexts.isBySegment(query);
     final JavaType queryResultType = isBySegment ? toolChest.getBySegmentResultType() : toolChest.getBaseResultType();
 
+    // Data servers that send the results as frames say so with the content type of their response.
+    final Optional<RowSignature> frameSignature = QueryContexts.isFrameResults(query) && !isBySegment
+                                                  ? toolChest.resultFrameSignature(query)
+                                                  : Optional.empty();
+    final AtomicReference<String> responseContentType = new AtomicReference<>();
+
     final ListenableFuture<InputStream> future;
     final String url = scheme + "://" + host + "/druid/v2/";
     final String cancelUrl = url + query.getId();
@@ -227,6 +240,7 @@ public class DirectDruidClient<T> implements QueryRunner<T>
         public ClientResponse<InputStream> handleResponse(HttpResponse response, TrafficCop trafficCop)
         {
           trafficCopRef.set(trafficCop);
+          responseContentType.set(response.headers().get(HttpHeaders.Names.CONTENT_TYPE));
           checkQueryTimeout();
           checkTotalBytesLimit(response.getContent().readableBytes());
 
@@ -450,15 +464,18 @@ public class DirectDruidClient<T> implements QueryRunner<T>
         throw new QueryTimeoutException(StringUtils.nonStrictFormat("Query[%s] url[%s] timed out.", query.getId(), url));
       }
 
+      final Request request = new Request(HttpMethod.POST, new URL(url))
+          .setContent(objectMapper.writeValueAsBytes(QueryContexts.withTimeout(query, timeLeft)))
+          .setHeader(
+              HttpHeaders.Names.CONTENT_TYPE,
+              isSmile ? SmileMediaTypes.APPLICATION_JACKSON_SMILE : MediaType.APPLICATION_JSON
+          );
+      if (frameSignature.isPresent()) {
+        request.setHeader(QueryResource.HEADER_ACCEPT_FRAMES, "true");
+      }
+
       future = httpClient.go(
-          new Request(
-              HttpMethod.POST,
-              new URL(url)
-          ).setContent(objectMapper.writeValueAsBytes(QueryContexts.withTimeout(query, timeLeft)))
-           .setHeader(
-               HttpHeaders.Names.CONTENT_TYPE,
-               isSmile ? SmileMediaTypes.APPLICATION_JACKSON_SMILE : MediaType.APPLICATION_JSON
-           ),
+          request,
           responseHandler,
           Duration.millis(timeLeft)
       );
@@ -493,7 +510,7 @@ public class DirectDruidClient<T> implements QueryRunner<T>
       throw new RuntimeException(e);
     }
 
-    Sequence<T> retVal = new BaseSequence<>(
+    final Sequence<T> jsonResults = new BaseSequence<>(
         new BaseSequence.IteratorMaker<T, JsonParserIterator<T>>()
         {
           @Override
@@ -517,6 +534,19 @@ public class DirectDruidClient<T> implements QueryRunner<T>
         }
     );
 
+    Sequence<T> retVal = jsonResults;
+    if (frameSignature.isPresent()) {
+      final long timeoutAt = query.getQueryContext().getAsLong(QUERY_FAIL_TIME);
+      retVal = new LazySequence<>(
+          () -> isFrameResponse(future, responseContentType, timeoutAt)
+                ? toolChest.resultsFromArrays(
+                    query,
+                    FrameResults.read(Futures.getUnchecked(future), frameSignature.get(), url)
+                )
+                : jsonResults
+      );
+    }
+
     // bySegment queries are de-serialized after caching results in order to
     // avoid the cost of de-serializing and then re-serializing again when adding to cache
     if (!isBySegment) {
@@ -529,7 +559,36 @@ public class DirectDruidClient<T> implements QueryRunner<T>
       );
     }
 
-    return retVal;
+    // lets parallel merges open the results of each server once it starts to respond
+    return new AsyncReadySequence<>(retVal, future);
+  }
+
+  /**
+   * Waits for the data server to respond, and returns whether it sent the results as frames. Returns false if the
+   * request failed or timed out, so that {@link JsonParserIterator} reports the failure the usual way.
+   */
+  private static boolean isFrameResponse(
+      Future<InputStream> future,
+      AtomicReference<String> responseContentType,
+      long timeoutAt
+  )
+  {
+    final long timeLeft = timeoutAt - System.currentTimeMillis();
+    if (timeLeft <= 0) {
+      return false;
+    }
+
+    try {
+      return future.get(timeLeft, TimeUnit.MILLISECONDS) != null
+             && QueryResource.APPLICATION_FRAMES.equals(responseContentType.get());
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    catch (ExecutionException | CancellationException | TimeoutException e) {
+      return false;
+    }
   }
 
   private void cancelQuery(Query<T> query, String cancelUrl)
@@ -43,6 +43,16 @@ public class CacheConfig
   @JsonProperty
   private boolean populateResultLevelCache = false;
 
+  @JsonProperty
+  private boolean useTimeBucketCache = false;
+
+  @JsonProperty
+  private boolean populateTimeBucketCache = false;
+
+  @JsonProperty
+  @Min(0)
+  private int timeBucketCacheLimit = 10_000;
+
   @JsonProperty
   @Min(0)
   private int numBackgroundThreads = 0;
@@ -80,6 +90,25 @@ public class CacheConfig
     return useResultLevelCache;
   }
 
+  public boolean isPopulateTimeBucketCache()
+  {
+    return populateTimeBucketCache;
+  }
+
+  public boolean isUseTimeBucketCache()
+  {
+    return useTimeBucketCache;
+  }
+
+  /**
+   * Maximum number of time buckets of a query that are looked up in the time bucket cache. Queries with more buckets
+   * do not use it.
+   */
+  public int getTimeBucketCacheLimit()
+  {
+    return timeBucketCacheLimit;
+  }
+
   public int getNumBackgroundThreads()
   {
     return numBackgroundThreads;
@@ -0,0 +1,649 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Ints;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.apache.druid.java.util.common.ByteBufferUtils;
+import org.apache.druid.java.util.common.FileUtils;
+import org.apache.druid.java.util.common.lifecycle.LifecycleStop;
+import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.java.util.emitter.service.ServiceEmitter;
+import org.apache.druid.java.util.emitter.service.ServiceMetricEvent;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local cache which keeps its entries outside of the Java heap, so that it can be sized far beyond what an on-heap
+ * cache such as {@link CaffeineCache} can hold without hurting garbage collection.
+ *
+ * Entries are hashed to one of a number of independently locked segments. Each segment stores its entries in a ring of
+ * fixed size slabs, which are allocated in direct memory, or memory mapped from files in a directory, as they are first
+ * needed. The only thing kept on heap for each entry is a primitive mapping from the 64 bit hash of its key to its
+ * location; the full key is stored with the value, and checked on every read.
+ *
+ * New entries are appended to the current slab of their segment. Once the ring is full, the next slab is reclaimed
+ * before it is written to again: entries in it that were read since they were written, or since the last time they
+ * were reclaimed, are compacted to the front of the slab, and all others are evicted. Entries are thus evicted in
+ * roughly first-in-first-out order, except for the ones that keep getting read.
+ *
+ * Once a segment is full, new entries are only admitted if their key was looked up often enough recently, which is
+ * tracked by a small frequency sketch, like that of TinyLFU. Keys need to have been looked up at least twice, which
+ * keeps one-off queries from evicting entries that are read repeatedly, and more the larger the entry is compared to a
+ * slab. Entries larger than a slab are never admitted.
+ *
+ * With evictOnClose, closing a namespace does not look for its entries. Instead it bumps the generation of the
+ * namespace, which each entry stores when it is written, and entries of an older generation are evicted when they are
+ * next read or reclaimed. Namespaces share a fixed number of generations by hash, so closing one can also evict the
+ * entries of a few others, which only costs some cache misses.
+ *
+ * Values are compressed with LZ4, the same as in {@link CaffeineCache}.
+ */
+public class OffHeapCache implements Cache
+{
+  private static final Logger log = new Logger(OffHeapCache.class);
+  private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+  private static final LZ4FastDecompressor LZ4_DECOMPRESSOR = LZ4_FACTORY.fastDecompressor();
+  private static final LZ4Compressor LZ4_COMPRESSOR = LZ4_FACTORY.fastCompressor();
+
+  /**
+   * Entry header: hash of the key, read count, key length, value length, namespace generation slot, generation.
+   */
+  private static final int HEADER_SIZE = Long.BYTES + Byte.BYTES + 4 * Integer.BYTES;
+  private static final int READ_COUNT_OFFSET = Long.BYTES;
+  private static final int KEY_LENGTH_OFFSET = READ_COUNT_OFFSET + Byte.BYTES;
+  private static final int VALUE_LENGTH_OFFSET = KEY_LENGTH_OFFSET + Integer.BYTES;
+  private static final int GENERATION_SLOT_OFFSET = VALUE_LENGTH_OFFSET + Integer.BYTES;
+  private static final int GENERATION_OFFSET = GENERATION_SLOT_OFFSET + Integer.BYTES;
+
+  /**
+   * Number of generations that namespaces share, see the class level javadoc.
+   */
+  private static final int NUM_GENERATION_SLOTS = 1 << 20;
+
+  /**
+   * Number of times an entry can be reclaimed without being read in between before it is evicted.
+   */
+  private static final int MAX_READ_COUNT = 3;
+  private static final int MIN_ADMISSION_FREQUENCY = 2;
+  /**
+   * Number of slabs a single put may reclaim, including the one it moves on to, before it evicts everything left in
+   * the slab it is at. This keeps a put from compacting the whole ring when all entries are read often.
+   */
+  private static final int MAX_RECLAIMS_PER_PUT = 2;
+  private static final int COMPACTION_BUFFER_SIZE = 64 * 1024;
+
+  private final Segment[] segments;
+  private final int slabSize;
+  private final boolean evictOnClose;
+  @Nullable
+  private final File directory;
+  private final List<File> slabFiles = new ArrayList<>();
+  private final AtomicIntegerArray generations = new AtomicIntegerArray(NUM_GENERATION_SLOTS);
+
+  private final AtomicLong hitCount = new AtomicLong(0);
+  private final AtomicLong missCount = new AtomicLong(0);
+  private final AtomicLong evictionCount = new AtomicLong(0);
+  private final AtomicLong rejectionCount = new AtomicLong(0);
+  private final AtomicLong compactionCount = new AtomicLong(0);
+  private final AtomicLong priorRejectionCount = new AtomicLong(0);
+  private final AtomicLong priorCompactionCount = new AtomicLong(0);
+
+  public static OffHeapCache create(final OffHeapCacheConfig config)
+  {
+    Preconditions.checkArgument(config.getNumSegments() > 0, "numSegments must be positive");
+    Preconditions.checkArgument(config.getSlabSizeInBytes() > 0, "slabSizeInBytes must be positive");
+    final long segmentSize = config.getSizeInBytes() / config.getNumSegments();
+    // every segment needs at least two slabs, one to write to while the other is reclaimed
+    final long slabSize = Math.min(Math.min(config.getSlabSizeInBytes(), segmentSize / 2), Integer.MAX_VALUE);
+    Preconditions.checkArgument(
+        slabSize > HEADER_SIZE,
+        "sizeInBytes[%s] is too small for [%s] segments",
+        config.getSizeInBytes(),
+        config.getNumSegments()
+    );
+    final File directory;
+    if (config.getDirectory() == null) {
+      directory = null;
+    } else {
+      directory = new File(config.getDirectory());
+      try {
+        FileUtils.mkdirp(directory);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return new OffHeapCache(
+        config.getNumSegments(),
+        Ints.checkedCast(segmentSize / slabSize),
+        (int) slabSize,
+        directory,
+        config.isEvictOnClose()
+    );
+  }
+
+  private OffHeapCache(
+      int numSegments,
+      int slabsPerSegment,
+      int slabSize,
+      @Nullable File directory,
+      boolean evictOnClose
+  )
+  {
+    this.slabSize = slabSize;
+    this.directory = directory;
+    this.evictOnClose = evictOnClose;
+    this.segments = new Segment[numSegments];
+    final int sketchSize = Integer.highestOneBit(
+        (int) Math.min(Math.max((long) slabsPerSegment * slabSize / 4096, 1024), 1 << 24)
+    );
+    for (int i = 0; i < numSegments; i++) {
+      segments[i] = new Segment(slabsPerSegment, sketchSize);
+    }
+  }
+
+  @Nullable
+  @Override
+  public byte[] get(NamedKey key)
+  {
+    final byte[] keyBytes = key.toByteArray();
+    final long hash = hash(keyBytes);
+    final byte[] value = segmentFor(hash).get(hash, keyBytes, generationSlot(key.namespace));
+    if (value == null) {
+      missCount.incrementAndGet();
+      return null;
+    }
+    hitCount.incrementAndGet();
+    return deserialize(value);
+  }
+
+  @Override
+  public void put(NamedKey key, byte[] value)
+  {
+    final byte[] keyBytes = key.toByteArray();
+    final long hash = hash(keyBytes);
+    final int generationSlot = generationSlot(key.namespace);
+    final int generation = generations.get(generationSlot);
+    if (!segmentFor(hash).put(hash, keyBytes, generationSlot, generation, serialize(value))) {
+      rejectionCount.incrementAndGet();
+    }
+  }
+
+  @Override
+  public Map<NamedKey, byte[]> getBulk(Iterable<NamedKey> keys)
+  {
+    final Map<NamedKey, byte[]> retVal = new HashMap<>();
+    for (NamedKey key : keys) {
+      final byte[] value = get(key);
+      if (value != null) {
+        retVal.put(key, value);
+      }
+    }
+    return retVal;
+  }
+
+  @Override
+  public void close(String namespace)
+  {
+    if (evictOnClose) {
+      generations.incrementAndGet(generationSlot(namespace));
+    }
+  }
+
+  @Override
+  @LifecycleStop
+  public void close()
+  {
+    for (Segment segment : segments) {
+      segment.free();
+    }
+    synchronized (slabFiles) {
+      for (File file : slabFiles) {
+        if (!file.delete()) {
+          log.warn("Failed to delete cache slab file[%s]", file);
+        }
+      }
+      slabFiles.clear();
+    }
+  }
+
+  @Override
+  public CacheStats getStats()
+  {
+    long numEntries = 0;
+    long sizeInBytes = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        numEntries += segment.index.size();
+        sizeInBytes += segment.getSizeInBytes();
+      }
+    }
+    return new CacheStats(
+        hitCount.get(),
+        missCount.get(),
+        numEntries,
+        sizeInBytes,
+        evictionCount.get(),
+        0,
+        0
+    );
+  }
+
+  @Override
+  public boolean isLocal()
+  {
+    return true;
+  }
+
+  @Override
+  public void doMonitor(ServiceEmitter emitter)
+  {
+    final long rejections = rejectionCount.get();
+    final long compactions = compactionCount.get();
+    final long deltaRejections = rejections - priorRejectionCount.getAndSet(rejections);
+    final long deltaCompactions = compactions - priorCompactionCount.getAndSet(compactions);
+
+    final ServiceMetricEvent.Builder builder = ServiceMetricEvent.builder();
+    emitter.emit(builder.build("query/cache/offheap/delta/rejections", deltaRejections));
+    emitter.emit(builder.build("query/cache/offheap/total/rejections", rejections));
+    emitter.emit(builder.build("query/cache/offheap/delta/compactions", deltaCompactions));
+    emitter.emit(builder.build("query/cache/offheap/total/compactions", compactions));
+  }
+
+  @VisibleForTesting
+  int getSlabSize()
+  {
+    return slabSize;
+  }
+
+  private Segment segmentFor(long hash)
+  {
+    return segments[Math.floorMod((int) (hash >>> 40), segments.length)];
+  }
+
+  private ByteBuffer allocateSlab()
+  {
+    if (directory == null) {
+      return ByteBuffer.allocateDirect(slabSize);
+    }
+    try {
+      final File file = File.createTempFile("cache-", ".slab", directory);
+      synchronized (slabFiles) {
+        slabFiles.add(file);
+      }
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.setLength(slabSize);
+        return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, slabSize);
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void freeSlab(ByteBuffer slab)
+  {
+    if (slab instanceof MappedByteBuffer) {
+      ByteBufferUtils.unmap((MappedByteBuffer) slab);
+    } else {
+      ByteBufferUtils.free(slab);
+    }
+  }
+
+  private static long hash(byte[] keyBytes)
+  {
+    return Hashing.murmur3_128().hashBytes(keyBytes).asLong();
+  }
+
+  private static int generationSlot(String namespace)
+  {
+    return Hashing.murmur3_32().hashUnencodedChars(namespace).asInt() & (NUM_GENERATION_SLOTS - 1);
+  }
+
+  private static long location(int slab, int offset)
+  {
+    return ((long) slab << 32) | offset;
+  }
+
+  private static byte[] deserialize(byte[] bytes)
+  {
+    final int decompressedLen = ByteBuffer.wrap(bytes).getInt();
+    final byte[] out = new byte[decompressedLen];
+    LZ4_DECOMPRESSOR.decompress(bytes, Integer.BYTES, out, 0, out.length);
+    return out;
+  }
+
+  private static byte[] serialize(byte[] value)
+  {
+    final int len = LZ4_COMPRESSOR.maxCompressedLength(value.length);
+    final byte[] out = new byte[len];
+    final int compressedSize = LZ4_COMPRESSOR.compress(value, 0, value.length, out, 0);
+    return ByteBuffer.allocate(compressedSize + Integer.BYTES)
+                     .putInt(value.length)
+                     .put(out, 0, compressedSize)
+                     .array();
+  }
+
+  /**
+   * Independently locked part of the cache, see the class level javadoc. All methods must be called while holding the
+   * lock of the segment, which is the segment itself.
+   */
+  private class Segment
+  {
+    private final Long2LongOpenHashMap index = new Long2LongOpenHashMap();
+    private final ByteBuffer[] slabs;
+    private final int[] slabEnds;
+    private final FrequencySketch sketch;
+    private final byte[] compactionBuffer = new byte[COMPACTION_BUFFER_SIZE];
+    private int writeSlab = 0;
+    private boolean full = false;
+    private boolean freed = false;
+
+    private Segment(int numSlabs, int sketchSize)
+    {
+      this.index.defaultReturnValue(-1);
+      this.slabs = new ByteBuffer[numSlabs];
+      this.slabEnds = new int[numSlabs];
+      this.sketch = new FrequencySketch(sketchSize);
+    }
+
+    @Nullable
+    private synchronized byte[] get(long hash, byte[] keyBytes, int generationSlot)
+    {
+      sketch.increment(hash);
+      final long location = index.get(hash);
+      if (location < 0 || freed) {
+        return null;
+      }
+      final ByteBuffer slab = slabs[(int) (location >>> 32)];
+      final int offset = (int) location;
+      if (!keyEquals(slab, offset, keyBytes)) {
+        // another key with the same hash
+        return null;
+      }
+      if (isStale(slab, offset, generationSlot)) {
+        index.remove(hash);
+        evictionCount.incrementAndGet();
+        return null;
+      }
+      final int readCount = slab.get(offset + READ_COUNT_OFFSET);
+      if (readCount < MAX_READ_COUNT) {
+        slab.put(offset + READ_COUNT_OFFSET, (byte) (readCount + 1));
+      }
+      final byte[] value = new byte[slab.getInt(offset + VALUE_LENGTH_OFFSET)];
+      final ByteBuffer duplicate = slab.duplicate();
+      duplicate.position(offset + HEADER_SIZE + keyBytes.length);
+      duplicate.get(value);
+      return value;
+    }
+
+    /**
+     * Returns whether the entry was admitted.
+     */
+    private synchronized boolean put(long hash, byte[] keyBytes, int generationSlot, int generation, byte[] value)
+    {
+      final long entrySize = (long) HEADER_SIZE + keyBytes.length + value.length;
+      if (freed || entrySize > slabSize) {
+        return false;
+      }
+      if (full && sketch.frequency(hash) < requiredFrequency(entrySize)) {
+        return false;
+      }
+
+      // anything previously stored for the key is left in its slab until that is reclaimed
+      index.remove(hash);
+      if (slabs[writeSlab] == null) {
+        slabs[writeSlab] = allocateSlab();
+      }
+      for (int reclaims = 0; slabEnds[writeSlab] + entrySize > slabSize; reclaims++) {
+        if (reclaims < MAX_RECLAIMS_PER_PUT) {
+          nextSlab();
+        } else {
+          evictAll(writeSlab);
+        }
+      }
+
+      final ByteBuffer slab = slabs[writeSlab];
+      final int offset = slabEnds[writeSlab];
+      slab.putLong(offset, hash);
+      slab.put(offset + READ_COUNT_OFFSET, (byte) 0);
+      slab.putInt(offset + KEY_LENGTH_OFFSET, keyBytes.length);
+      slab.putInt(offset + VALUE_LENGTH_OFFSET, value.length);
+      slab.putInt(offset + GENERATION_SLOT_OFFSET, generationSlot);
+      slab.putInt(offset + GENERATION_OFFSET, generation);
+      final ByteBuffer duplicate = slab.duplicate();
+      duplicate.position(offset + HEADER_SIZE);
+      duplicate.put(keyBytes);
+      duplicate.put(value);
+      slabEnds[writeSlab] += (int) entrySize;
+      index.put(hash, location(writeSlab, offset));
+      return true;
+    }
+
+    private int requiredFrequency(long entrySize)
+    {
+      return (int) Math.min(MIN_ADMISSION_FREQUENCY + entrySize * 16 / slabSize, FrequencySketch.MAX_COUNT);
+    }
+
+    private void nextSlab()
+    {
+      writeSlab = (writeSlab + 1) % slabs.length;
+      if (slabs[writeSlab] == null) {
+        slabs[writeSlab] = allocateSlab();
+      } else {
+        full = true;
+        reclaim(writeSlab);
+      }
+    }
+
+    /**
+     * Compacts the entries of a slab which were read since they were written or last compacted, and whose namespace
+     * was not closed since, to the front of it, and evicts all others.
+     */
+    private void reclaim(int slabNumber)
+    {
+      final ByteBuffer slab = slabs[slabNumber];
+      final int end = slabEnds[slabNumber];
+      int readOffset = 0;
+      int writeOffset = 0;
+      while (readOffset < end) {
+        final long hash = slab.getLong(readOffset);
+        final int readCount = slab.get(readOffset + READ_COUNT_OFFSET);
+        final int entrySize = HEADER_SIZE
+                              + slab.getInt(readOffset + KEY_LENGTH_OFFSET)
+                              + slab.getInt(readOffset + VALUE_LENGTH_OFFSET);
+        if (index.get(hash) == location(slabNumber, readOffset)) {
+          if (readCount > 0 && !isStale(slab, readOffset, slab.getInt(readOffset + GENERATION_SLOT_OFFSET))) {
+            move(slab, readOffset, writeOffset, entrySize);
+            slab.put(writeOffset + READ_COUNT_OFFSET, (byte) (readCount - 1));
+            index.put(hash, location(slabNumber, writeOffset));
+            writeOffset += entrySize;
+            compactionCount.incrementAndGet();
+          } else {
+            index.remove(hash);
+            evictionCount.incrementAndGet();
+          }
+        }
+        readOffset += entrySize;
+      }
+      slabEnds[slabNumber] = writeOffset;
+    }
+
+    /**
+     * Moves bytes towards the front of a slab, in chunks, which is safe even if the ranges overlap.
+     */
+    private void move(ByteBuffer slab, int fromOffset, int toOffset, int length)
+    {
+      if (fromOffset == toOffset) {
+        return;
+      }
+      final ByteBuffer from = slab.duplicate();
+      final ByteBuffer to = slab.duplicate();
+      from.position(fromOffset);
+      to.position(toOffset);
+      int remaining = length;
+      while (remaining > 0) {
+        final int chunk = Math.min(remaining, compactionBuffer.length);
+        from.get(compactionBuffer, 0, chunk);
+        to.put(compactionBuffer, 0, chunk);
+        remaining -= chunk;
+      }
+    }
+
+    /**
+     * Evicts all entries of a slab.
+     */
+    private void evictAll(int slabNumber)
+    {
+      final ByteBuffer slab = slabs[slabNumber];
+      int offset = 0;
+      while (offset < slabEnds[slabNumber]) {
+        final long hash = slab.getLong(offset);
+        if (index.get(hash) == location(slabNumber, offset)) {
+          index.remove(hash);
+          evictionCount.incrementAndGet();
+        }
+        offset += HEADER_SIZE + slab.getInt(offset + KEY_LENGTH_OFFSET) + slab.getInt(offset + VALUE_LENGTH_OFFSET);
+      }
+      slabEnds[slabNumber] = 0;
+    }
+
+    private synchronized long getSizeInBytes()
+    {
+      long size = 0;
+      for (int slabEnd : slabEnds) {
+        size += slabEnd;
+      }
+      return size;
+    }
+
+    private synchronized void free()
+    {
+      freed = true;
+      index.clear();
+      for (int i = 0; i < slabs.length; i++) {
+        if (slabs[i] != null) {
+          freeSlab(slabs[i]);
+          slabs[i] = null;
+        }
+        slabEnds[i] = 0;
+      }
+    }
+
+    private boolean keyEquals(ByteBuffer slab, int offset, byte[] keyBytes)
+    {
+      if (slab.getInt(offset + KEY_LENGTH_OFFSET) != keyBytes.length) {
+        return false;
+      }
+      final int keyOffset = offset + HEADER_SIZE;
+      for (int i = 0; i < keyBytes.length; i++) {
+        if (slab.get(keyOffset + i) != keyBytes[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns whether the namespace of an entry was closed since it was written.
+     */
+    private boolean isStale(ByteBuffer slab, int offset, int generationSlot)
+    {
+      return slab.getInt(offset + GENERATION_OFFSET) != generations.get(generationSlot);
+    }
+  }
+
+  /**
+   * Count-min sketch of how often keys were looked up recently, with counters that saturate at {@link #MAX_COUNT}.
+   * All counters are halved once there have been ten times as many lookups as there are counters, so that the
+   * frequencies reflect recent lookups only.
+   */
+  @VisibleForTesting
+  static class FrequencySketch
+  {
+    static final int MAX_COUNT = 15;
+    private static final int DEPTH = 4;
+
+    private final byte[] counters;
+    private final int mask;
+    private final int resetThreshold;
+    private int additions = 0;
+
+    FrequencySketch(int size)
+    {
+      Preconditions.checkArgument(Integer.bitCount(size) == 1, "size must be a power of 2");
+      this.counters = new byte[size];
+      this.mask = size - 1;
+      this.resetThreshold = 10 * size;
+    }
+
+    void increment(long hash)
+    {
+      for (int i = 0; i < DEPTH; i++) {
+        final int index = index(hash, i);
+        if (counters[index] < MAX_COUNT) {
+          counters[index]++;
+        }
+      }
+      if (++additions >= resetThreshold) {
+        for (int i = 0; i < counters.length; i++) {
+          counters[i] = (byte) (counters[i] >>> 1);
+        }
+        additions = 0;
+      }
+    }
+
+    int frequency(long hash)
+    {
+      int frequency = MAX_COUNT;
+      for (int i = 0; i < DEPTH; i++) {
+        frequency = Math.min(frequency, counters[index(hash, i)]);
+      }
+      return frequency;
+    }
+
+    private int index(long hash, int i)
+    {
+      final int h1 = (int) hash;
+      final int h2 = (int) (hash >>> 32) | 1;
+      return (h1 + i * h2) & mask;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.druid.java.util.common.HumanReadableBytes;
+
+import javax.annotation.Nullable;
+
+public class OffHeapCacheConfig
+{
+  @JsonProperty
+  private HumanReadableBytes sizeInBytes = HumanReadableBytes.valueOf(1024 * 1024 * 1024);
+
+  @JsonProperty
+  private HumanReadableBytes slabSizeInBytes = HumanReadableBytes.valueOf(64 * 1024 * 1024);
+
+  @JsonProperty
+  private int numSegments = 16;
+
+  @JsonProperty
+  @Nullable
+  private String directory = null;
+
+  @JsonProperty
+  private boolean evictOnClose = false;
+
+  public long getSizeInBytes()
+  {
+    return sizeInBytes.getBytes();
+  }
+
+  public long getSlabSizeInBytes()
+  {
+    return slabSizeInBytes.getBytes();
+  }
+
+  public int getNumSegments()
+  {
+    return numSegments;
+  }
+
+  /**
+   * Directory to memory map the slabs of the cache from, or null to allocate them in direct memory.
+   */
+  @Nullable
+  public String getDirectory()
+  {
+    return directory;
+  }
+
+  public boolean isEvictOnClose()
+  {
+    return evictOnClose;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "OffHeapCacheConfig{" +
+           "sizeInBytes=" + sizeInBytes +
+           ", slabSizeInBytes=" + slabSizeInBytes +
+           ", numSegments=" + numSegments +
+           ", directory='" + directory + '\'' +
+           ", evictOnClose=" + evictOnClose +
+           '}';
+  }
+}
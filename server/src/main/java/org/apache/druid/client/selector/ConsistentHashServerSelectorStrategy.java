@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client.selector;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.apache.druid.client.DirectDruidClient;
+import org.apache.druid.timeline.DataSegment;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps sending queries for a segment to the same servers, so that each replica only needs to keep its share of the
+ * hot segments in memory, rather than all of them. Servers are ranked for each segment by rendezvous hashing of the
+ * segment id with the server name, which is a form of consistent hashing: when a server comes or goes, only the
+ * segments it serves move.
+ *
+ * To keep a busy server from getting busier, servers with more open connections than {@link #getLoadFactor()} times
+ * the average of the servers of the segment are only picked after the others, as in consistent hashing with bounded
+ * loads.
+ */
+public class ConsistentHashServerSelectorStrategy implements ServerSelectorStrategy
+{
+  public static final double DEFAULT_LOAD_FACTOR = 1.25;
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  private final double loadFactor;
+
+  @JsonCreator
+  public ConsistentHashServerSelectorStrategy(@JsonProperty("loadFactor") @Nullable Double loadFactor)
+  {
+    this.loadFactor = loadFactor == null ? DEFAULT_LOAD_FACTOR : loadFactor;
+    Preconditions.checkArgument(this.loadFactor >= 1, "loadFactor must be at least 1");
+  }
+
+  @JsonProperty
+  public double getLoadFactor()
+  {
+    return loadFactor;
+  }
+
+  @Nullable
+  @Override
+  public QueryableDruidServer pick(Set<QueryableDruidServer> servers, DataSegment segment)
+  {
+    return Iterables.getFirst(pick(servers, segment, 1), null);
+  }
+
+  @Override
+  public List<QueryableDruidServer> pick(Set<QueryableDruidServer> servers, DataSegment segment, int numServersToPick)
+  {
+    if (servers.size() <= 1) {
+      return ImmutableList.copyOf(servers);
+    }
+
+    final String segmentId = segment.getId().toString();
+    final List<RankedServer> ranked = new ArrayList<>(servers.size());
+    long totalConnections = 0;
+    for (QueryableDruidServer server : servers) {
+      final RankedServer rankedServer = new RankedServer(server, segmentId);
+      ranked.add(rankedServer);
+      totalConnections += rankedServer.openConnections;
+    }
+    ranked.sort(Comparator.comparingLong((RankedServer s) -> s.hash).reversed());
+
+    // Counts the connection this pick is for, so that idle servers are never over the limit.
+    final long maxConnections = (long) Math.ceil(loadFactor * (totalConnections + 1) / servers.size());
+    final List<QueryableDruidServer> picked = new ArrayList<>(Math.min(numServersToPick, servers.size()));
+    for (RankedServer server : ranked) {
+      if (picked.size() < numServersToPick && server.openConnections < maxConnections) {
+        picked.add(server.server);
+      }
+    }
+    for (RankedServer server : ranked) {
+      if (picked.size() < numServersToPick && server.openConnections >= maxConnections) {
+        picked.add(server.server);
+      }
+    }
+    return picked;
+  }
+
+  private static int getOpenConnections(QueryableDruidServer server)
+  {
+    return server.getQueryRunner() instanceof DirectDruidClient
+           ? ((DirectDruidClient) server.getQueryRunner()).getNumOpenConnections()
+           : 0;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "ConsistentHashServerSelectorStrategy{" +
+           "loadFactor=" + loadFactor +
+           '}';
+  }
+
+  private static class RankedServer
+  {
+    private final QueryableDruidServer server;
+    private final long hash;
+    private final int openConnections;
+
+    private RankedServer(QueryableDruidServer server, String segmentId)
+    {
+      this.server = server;
+      this.hash = HASH_FUNCTION.newHasher()
+                               .putString(segmentId, StandardCharsets.UTF_8)
+                               .putString(server.getServer().getName(), StandardCharsets.UTF_8)
+                               .hash()
+                               .asLong();
+      this.openConnections = getOpenConnections(server);
+    }
+  }
+}
@@ -21,11 +21,14 @@ package org.apache.druid.segment.loading;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
+import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import org.apache.druid.java.util.common.FileUtils;
 import org.apache.druid.java.util.common.MapUtils;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.UOE;
+import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.java.util.common.io.smoosh.SmooshedFileMapper;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.utils.CompressionUtils;
@@ -43,8 +46,11 @@ import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Enumeration;
 import java.util.Map;
 import java.util.concurrent.CancellationException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  */
@@ -196,6 +202,91 @@ public class LocalDataSegmentPuller implements URIDataPuller
     throw new SegmentLoadingException("Do not know how to handle source [%s]", sourceFile.getAbsolutePath());
   }
 
+  /**
+   * Copies the files of the segment in the given source directory or zip file that are needed to open it, that is, all
+   * files except the smoosh chunk files, which are read in place through {@link SmooshedFileMapper} when first used.
+   * Zip files whose chunk files are compressed cannot be read in place, so they are unzipped in full instead.
+   */
+  public FileUtils.FileCopyResult getSegmentFilesPartially(final File sourceFile, final File dir)
+      throws SegmentLoadingException
+  {
+    final FileUtils.FileCopyResult result = new FileUtils.FileCopyResult();
+    if (sourceFile.isDirectory()) {
+      final File[] files = sourceFile.listFiles();
+      if (files == null) {
+        throw new SegmentLoadingException("No files found in [%s]", sourceFile.getAbsolutePath());
+      }
+      for (final File oldFile : files) {
+        if (oldFile.isDirectory() || FileSmoosher.isChunkFile(oldFile.getName())) {
+          continue;
+        }
+
+        result.addFiles(
+            FileUtils.retryCopy(
+                Files.asByteSource(oldFile),
+                new File(dir, oldFile.getName()),
+                shouldRetryPredicate(),
+                DEFAULT_RETRY_COUNT
+            ).getFiles()
+        );
+      }
+    } else if (CompressionUtils.isZip(sourceFile.getName())) {
+      try {
+        if (!SmooshedFileMapper.canReadInPlace(sourceFile)) {
+          log.info("Zip file [%s] has compressed chunk files, unzipping it in full", sourceFile.getAbsolutePath());
+          return getSegmentFiles(sourceFile, dir);
+        }
+      }
+      catch (IOException e) {
+        throw new SegmentLoadingException(e, "Unable to read zip file [%s]", sourceFile.getAbsolutePath());
+      }
+      try (final ZipFile zipFile = new ZipFile(sourceFile)) {
+        final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+          final ZipEntry entry = entries.nextElement();
+          if (entry.isDirectory() || FileSmoosher.isChunkFile(entry.getName())) {
+            continue;
+          }
+          final File outFile = new File(dir, entry.getName());
+          CompressionUtils.validateZipOutputFile(sourceFile.getCanonicalPath(), outFile, dir);
+          result.addFiles(
+              FileUtils.retryCopy(
+                  new ByteSource()
+                  {
+                    @Override
+                    public InputStream openStream() throws IOException
+                    {
+                      return zipFile.getInputStream(entry);
+                    }
+                  },
+                  outFile,
+                  shouldRetryPredicate(),
+                  DEFAULT_RETRY_COUNT
+              ).getFiles()
+          );
+        }
+      }
+      catch (IOException e) {
+        throw new SegmentLoadingException(e, "Unable to read zip file [%s]", sourceFile.getAbsolutePath());
+      }
+    } else {
+      throw new SegmentLoadingException("Cannot partially load source [%s]", sourceFile.getAbsolutePath());
+    }
+    try {
+      SmooshedFileMapper.writeSource(dir, sourceFile);
+    }
+    catch (IOException e) {
+      throw new SegmentLoadingException(e, "Unable to write source of [%s]", dir.getAbsolutePath());
+    }
+    log.info(
+        "Copied %d bytes from [%s] to [%s], leaving the rest to be read in place",
+        result.size(),
+        sourceFile.getAbsolutePath(),
+        dir.getAbsolutePath()
+    );
+    return result;
+  }
+
 
   @Override
   public InputStream getInputStream(URI uri) throws IOException
@@ -25,6 +25,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.google.common.base.Preconditions;
 import org.apache.druid.guice.LocalDataStorageDruidModule;
+import org.apache.druid.utils.CompressionUtils;
 
 import java.io.File;
 import java.nio.file.Files;
@@ -63,4 +64,16 @@ public class LocalLoadSpec implements LoadSpec
   {
     return new LoadSpecResult(puller.getSegmentFiles(path.toFile(), outDir).size());
   }
+
+  @Override
+  public LoadSpecResult loadSegmentPartially(final File outDir) throws SegmentLoadingException
+  {
+    // Only segments that are stored unzipped, or in a zip file with uncompressed entries, can be read in place. The
+    // puller unzips the other zip files in full.
+    final File file = path.toFile();
+    if (!file.isDirectory() && !CompressionUtils.isZip(file.getName())) {
+      return loadSegment(outDir);
+    }
+    return new LoadSpecResult(puller.getSegmentFilesPartially(file, outDir).size());
+  }
 }
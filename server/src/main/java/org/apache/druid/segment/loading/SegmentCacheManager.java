@@ -19,8 +19,10 @@
 
 package org.apache.druid.segment.loading;
 
+import org.apache.druid.java.util.common.io.smoosh.PartCopyListener;
 import org.apache.druid.timeline.DataSegment;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.concurrent.ExecutorService;
 
@@ -48,6 +50,17 @@ public interface SegmentCacheManager
    */
   File getSegmentFiles(DataSegment segment) throws SegmentLoadingException;
 
+  /**
+   * Returns the listener to map the files returned by {@link #getSegmentFiles(DataSegment)} with, if they were only
+   * loaded partially, so that the space taken by the files copied on first access is accounted for. Returns null if
+   * the segment was loaded fully.
+   */
+  @Nullable
+  default PartCopyListener getPartCopyListener(DataSegment segment)
+  {
+    return null;
+  }
+
   /**
    * Tries to reserve the space for a segment on any location. When the space has been reserved,
    * {@link #getSegmentFiles(DataSegment)} should download the segment on the reserved location or
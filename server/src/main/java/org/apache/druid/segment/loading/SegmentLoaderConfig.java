@@ -41,6 +41,9 @@ public class SegmentLoaderConfig
   @JsonProperty("lazyLoadOnStart")
   private boolean lazyLoadOnStart = false;
 
+  @JsonProperty("partialLoad")
+  private boolean partialLoad = false;
+
   @JsonProperty("deleteOnRemove")
   private boolean deleteOnRemove = true;
 
@@ -80,6 +83,16 @@ public class SegmentLoaderConfig
     return lazyLoadOnStart;
   }
 
+  /**
+   * Whether to only copy the files needed to open segments when loading them, and copy each column from deep storage
+   * when it is first used, as long as the location has room for it. Only applies to deep storage that can be read in
+   * place; see {@link LoadSpec#loadSegmentPartially}.
+   */
+  public boolean isPartialLoad()
+  {
+    return partialLoad;
+  }
+
   public boolean isDeleteOnRemove()
   {
     return deleteOnRemove;
@@ -142,6 +155,7 @@ public class SegmentLoaderConfig
   {
     SegmentLoaderConfig retVal = new SegmentLoaderConfig();
     retVal.locations = Lists.newArrayList(locations);
+    retVal.partialLoad = this.partialLoad;
     retVal.deleteOnRemove = this.deleteOnRemove;
     retVal.infoDir = this.infoDir;
     return retVal;
@@ -152,6 +166,7 @@ public class SegmentLoaderConfig
   {
     SegmentLoaderConfig retVal = new SegmentLoaderConfig();
     retVal.locations = this.locations;
+    retVal.partialLoad = this.partialLoad;
     retVal.deleteOnRemove = this.deleteOnRemove;
     retVal.infoDir = infoDir;
     return retVal;
@@ -177,6 +192,7 @@ public class SegmentLoaderConfig
   {
     return "SegmentLoaderConfig{" +
            "locations=" + locations +
+           ", partialLoad=" + partialLoad +
            ", deleteOnRemove=" + deleteOnRemove +
            ", dropSegmentDelayMillis=" + dropSegmentDelayMillis +
            ", infoDir=" + infoDir +
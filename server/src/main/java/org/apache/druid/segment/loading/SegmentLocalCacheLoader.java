@@ -68,7 +68,13 @@ public class SegmentLocalCacheLoader implements SegmentLoader
       factory = new MMappedQueryableSegmentizerFactory(indexIO);
     }
 
-    Segment segmentObject = factory.factorize(segment, segmentFiles, lazy, loadFailed);
+    Segment segmentObject = factory.factorize(
+        segment,
+        segmentFiles,
+        lazy,
+        loadFailed,
+        cacheManager.getPartCopyListener(segment)
+    );
 
     return ReferenceCountingSegment.wrapSegment(segmentObject, segment.getShardSpec());
   }
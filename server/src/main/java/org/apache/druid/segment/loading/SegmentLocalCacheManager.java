@@ -28,6 +28,8 @@ import org.apache.druid.guice.annotations.Json;
 import org.apache.druid.java.util.common.FileUtils;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.java.util.common.io.smoosh.PartCopyListener;
+import org.apache.druid.java.util.common.io.smoosh.SmooshedFileMapper;
 import org.apache.druid.java.util.emitter.EmittingLogger;
 import org.apache.druid.timeline.DataSegment;
 
@@ -177,6 +179,10 @@ public class SegmentLocalCacheManager implements SegmentCacheManager
           cleanupCacheFiles(location.getPath(), localStorageDir);
           location.removeSegmentDir(localStorageDir, segment);
           break;
+        } else if (isPartiallyLoaded(localStorageDir)) {
+          // Partially loaded segments only take the space of the files copied so far.
+          location.maybeReserve(storageDir, segment, org.apache.commons.io.FileUtils.sizeOfDirectory(localStorageDir));
+          return localStorageDir;
         } else {
           // Before returning, we also reserve the space. Refer to the StorageLocation#maybeReserve documentation for details.
           location.maybeReserve(storageDir, segment);
@@ -256,6 +262,7 @@ public class SegmentLocalCacheManager implements SegmentCacheManager
         if (!success) {
           throw new SegmentLoadingException("Failed to load segment %s in reserved location [%s]", segment.getId(), loc.getPath().getAbsolutePath());
         }
+        maybeTrackPartialLoad(loc, segmentDir, storageDir);
         return storageDir;
       }
     }
@@ -271,6 +278,7 @@ public class SegmentLocalCacheManager implements SegmentCacheManager
       if (storageDir != null) {
         boolean success = loadInLocationWithStartMarkerQuietly(loc, segment, storageDir, true);
         if (success) {
+          maybeTrackPartialLoad(loc, segmentDir, storageDir);
           return storageDir;
         }
       }
@@ -340,6 +348,11 @@ public class SegmentLocalCacheManager implements SegmentCacheManager
     // LoadSpec isn't materialized until here so that any system can interpret Segment without having to have all the
     // LoadSpec dependencies.
     final LoadSpec loadSpec = jsonMapper.convertValue(segment.getLoadSpec(), LoadSpec.class);
+    if (config.isPartialLoad()) {
+      // The reservation of a partial load is updated to the size of the files it copied afterwards.
+      loadSpec.loadSegmentPartially(storageDir);
+      return;
+    }
     final LoadSpec.LoadSpecResult result = loadSpec.loadSegment(storageDir);
     if (result.getSize() != segment.getSize()) {
       log.warn(
@@ -351,6 +364,48 @@ public class SegmentLocalCacheManager implements SegmentCacheManager
     }
   }
 
+  private static boolean isPartiallyLoaded(File storageDir)
+  {
+    return new File(storageDir, SmooshedFileMapper.SOURCE_FILE_NAME).exists();
+  }
+
+  /**
+   * Shrinks the reservation of a segment that was just loaded partially, which is made for the whole segment, to the
+   * size of the files copied. It grows again through {@link #getPartCopyListener} as more files are copied.
+   */
+  private void maybeTrackPartialLoad(StorageLocation loc, String segmentDir, File storageDir)
+  {
+    if (isPartiallyLoaded(storageDir)) {
+      loc.updateReservation(segmentDir, org.apache.commons.io.FileUtils.sizeOfDirectory(storageDir));
+    }
+  }
+
+  @Nullable
+  @Override
+  public PartCopyListener getPartCopyListener(DataSegment segment)
+  {
+    final String segmentDir = getSegmentDir(segment);
+    for (StorageLocation loc : locations) {
+      if (loc.isReserved(segmentDir) && isPartiallyLoaded(loc.segmentDirectoryAsFile(segmentDir))) {
+        return new PartCopyListener()
+        {
+          @Override
+          public boolean beforeCopy(long numBytes)
+          {
+            return loc.tryGrowReservation(segmentDir, numBytes);
+          }
+
+          @Override
+          public void copyFailed(long numBytes)
+          {
+            loc.shrinkReservation(segmentDir, numBytes);
+          }
+        };
+      }
+    }
+    return null;
+  }
+
   @Override
   public boolean reserve(final DataSegment segment)
   {
@@ -28,8 +28,8 @@ import org.apache.druid.timeline.DataSegment;
 import javax.annotation.Nullable;
 
 import java.io.File;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * This class is a very simple logical representation of a local path. It keeps track of files stored under the
@@ -49,10 +49,10 @@ public class StorageLocation
   private final long freeSpaceToKeep;
 
   /**
-   * Set of files stored under the {@link #path}.
+   * Files stored under the {@link #path}, with the bytes reserved for each.
    */
   @GuardedBy("this")
-  private final Set<File> files = new HashSet<>();
+  private final Map<File, Long> files = new HashMap<>();
 
   /**
    * Current total size of files in bytes.
@@ -89,7 +89,7 @@ public class StorageLocation
    */
   public synchronized void removeFile(File file)
   {
-    if (files.remove(file)) {
+    if (files.remove(file) != null) {
       currSizeBytes -= FileUtils.sizeOf(file);
     } else {
       log.warn("File[%s] is not found under this location[%s]", file, path);
@@ -97,12 +97,14 @@ public class StorageLocation
   }
 
   /**
-   * Remove a segment dir from this location. The segment size is subtracted from currSizeBytes.
+   * Remove a segment dir from this location. The bytes reserved for it, usually the segment size, are subtracted from
+   * currSizeBytes.
    */
   public synchronized void removeSegmentDir(File segmentDir, DataSegment segment)
   {
-    if (files.remove(segmentDir)) {
-      currSizeBytes -= segment.getSize();
+    final Long reservedBytes = files.remove(segmentDir);
+    if (reservedBytes != null) {
+      currSizeBytes -= reservedBytes;
     } else {
       log.warn("SegmentDir[%s] is not found under this location[%s]", segmentDir, path);
     }
@@ -120,7 +122,7 @@ public class StorageLocation
 
   public synchronized boolean isReserved(String segmentDir)
   {
-    return files.contains(segmentDirectoryAsFile(segmentDir));
+    return files.containsKey(segmentDirectoryAsFile(segmentDir));
   }
 
   public File segmentDirectoryAsFile(String segmentDir)
@@ -136,14 +138,23 @@ public class StorageLocation
    * of this.
    */
   public synchronized void maybeReserve(String segmentFilePathToAdd, DataSegment segment)
+  {
+    maybeReserve(segmentFilePathToAdd, segment, segment.getSize());
+  }
+
+  /**
+   * Like {@link #maybeReserve(String, DataSegment)}, but reserves the given number of bytes rather than the segment
+   * size, for segments that were only partially loaded.
+   */
+  public synchronized void maybeReserve(String segmentFilePathToAdd, DataSegment segment, long numBytes)
   {
     final File segmentFileToAdd = new File(path, segmentFilePathToAdd);
-    if (files.contains(segmentFileToAdd)) {
+    if (files.containsKey(segmentFileToAdd)) {
       // Already reserved
       return;
     }
-    files.add(segmentFileToAdd);
-    currSizeBytes += segment.getSize();
+    files.put(segmentFileToAdd, numBytes);
+    currSizeBytes += numBytes;
     if (availableSizeBytes() < 0) {
       log.makeAlert(
           "storage[%s:%,d] has more segments than it is allowed. Currently loading Segment[%s:%,d]. Please increase druid.segmentCache.locations maxSize param",
@@ -164,11 +175,11 @@ public class StorageLocation
   public synchronized File reserve(String segmentFilePathToAdd, String segmentId, long segmentSize)
   {
     final File segmentFileToAdd = new File(path, segmentFilePathToAdd);
-    if (files.contains(segmentFileToAdd)) {
+    if (files.containsKey(segmentFileToAdd)) {
       return null;
     }
     if (canHandle(segmentId, segmentSize)) {
-      files.add(segmentFileToAdd);
+      files.put(segmentFileToAdd, segmentSize);
       currSizeBytes += segmentSize;
       return segmentFileToAdd;
     } else {
@@ -179,13 +190,70 @@ public class StorageLocation
   public synchronized boolean release(String segmentFilePath, long segmentSize)
   {
     final File segmentFile = new File(path, segmentFilePath);
-    if (files.remove(segmentFile)) {
-      currSizeBytes -= segmentSize;
+    final Long reservedBytes = files.remove(segmentFile);
+    if (reservedBytes != null) {
+      // Partially loaded segments may have reserved less than their size.
+      currSizeBytes -= reservedBytes;
       return true;
     }
     return false;
   }
 
+  /**
+   * Changes the bytes reserved for the given segment dir, which must be reserved already, to the given number. Used
+   * for segments that are only partially loaded, which need less space than their size until all of their files
+   * have been copied.
+   */
+  public synchronized void updateReservation(String segmentDir, long numBytes)
+  {
+    final File segmentDirFile = segmentDirectoryAsFile(segmentDir);
+    final Long reservedBytes = files.get(segmentDirFile);
+    if (reservedBytes == null) {
+      log.warn("SegmentDir[%s] is not reserved in this location[%s]", segmentDirFile, path);
+      return;
+    }
+    files.put(segmentDirFile, numBytes);
+    currSizeBytes += numBytes - reservedBytes;
+  }
+
+  /**
+   * Adds the given number of bytes to the reservation of a partially loaded segment dir, before more of its files are
+   * copied. Like {@link #reserve}, this checks that the location has room for them, and returns false without changing
+   * the reservation if it does not, in which case the files must not be copied. Also returns false if the dir is not
+   * reserved, since it has been removed then.
+   */
+  public synchronized boolean tryGrowReservation(String segmentDir, long numBytes)
+  {
+    final File segmentDirFile = segmentDirectoryAsFile(segmentDir);
+    final Long reservedBytes = files.get(segmentDirFile);
+    if (reservedBytes == null) {
+      log.warn("SegmentDir[%s] is not reserved in this location[%s]", segmentDirFile, path);
+      return false;
+    }
+    if (!canHandle(segmentDirFile.toString(), numBytes)) {
+      return false;
+    }
+    files.put(segmentDirFile, reservedBytes + numBytes);
+    currSizeBytes += numBytes;
+    return true;
+  }
+
+  /**
+   * Takes back bytes added by {@link #tryGrowReservation} for files that could not be copied after all. Does nothing if
+   * the dir is not reserved.
+   */
+  public synchronized void shrinkReservation(String segmentDir, long numBytes)
+  {
+    final File segmentDirFile = segmentDirectoryAsFile(segmentDir);
+    final Long reservedBytes = files.get(segmentDirFile);
+    if (reservedBytes == null) {
+      return;
+    }
+    final long toRemove = Math.min(reservedBytes, numBytes);
+    files.put(segmentDirFile, reservedBytes - toRemove);
+    currSizeBytes -= toRemove;
+  }
+
   /**
    * This method is only package-private to use it in unit tests. Production code must not call this method directly.
    * Use {@link #reserve} instead.
@@ -238,6 +306,6 @@ public class StorageLocation
   synchronized boolean contains(String relativePath)
   {
     final File segmentFileToAdd = new File(path, relativePath);
-    return files.contains(segmentFileToAdd);
+    return files.containsKey(segmentFileToAdd);
   }
 }
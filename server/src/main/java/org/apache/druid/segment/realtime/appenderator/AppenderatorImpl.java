@@ -944,8 +944,13 @@ public class AppenderatorImpl implements Appenderator
         closer.close();
       }
 
-      final DataSegment segmentToPush = sink.getSegment().withDimensions(
-          IndexMerger.getMergedDimensionsFromQueryableIndexes(indexes, schema.getDimensionsSpec())
+      final DataSegment segmentToPush = Appenderators.withColumnStats(
+          sink.getSegment().withDimensions(
+              IndexMerger.getMergedDimensionsFromQueryableIndexes(indexes, schema.getDimensionsSpec())
+          ),
+          tuningConfig.getIndexSpec(),
+          indexIO,
+          mergedFile
       );
 
       // Retry pushing segments because uploading to deep storage might fail especially for cloud storage types
@@ -29,6 +29,8 @@ import org.apache.druid.query.QueryProcessingPool;
 import org.apache.druid.query.QueryRunnerFactoryConglomerate;
 import org.apache.druid.segment.IndexIO;
 import org.apache.druid.segment.IndexMerger;
+import org.apache.druid.segment.IndexSpec;
+import org.apache.druid.segment.Metadata;
 import org.apache.druid.segment.incremental.ParseExceptionHandler;
 import org.apache.druid.segment.incremental.RowIngestionMeters;
 import org.apache.druid.segment.indexing.DataSchema;
@@ -38,8 +40,12 @@ import org.apache.druid.segment.loading.DataSegmentPusher;
 import org.apache.druid.segment.realtime.FireDepartmentMetrics;
 import org.apache.druid.server.coordination.DataSegmentAnnouncer;
 import org.apache.druid.server.coordination.NoopDataSegmentAnnouncer;
+import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.timeline.VersionedIntervalTimeline;
 
+import java.io.File;
+import java.io.IOException;
+
 public class Appenderators
 {
   public static Appenderator createRealtime(
@@ -195,4 +201,25 @@ public class Appenderators
         useMaxMemoryEstimates
     );
   }
+
+  /**
+   * Returns the given segment with the column stats stored in its merged files, if the given spec they were built with
+   * computes them, so that they are published with it.
+   */
+  public static DataSegment withColumnStats(
+      DataSegment segment,
+      IndexSpec indexSpec,
+      IndexIO indexIO,
+      File mergedFile
+  ) throws IOException
+  {
+    if (!Boolean.TRUE.equals(indexSpec.getColumnStats())) {
+      return segment;
+    }
+    final Metadata metadata = indexIO.loadMetadata(mergedFile);
+    if (metadata == null || metadata.getColumnStats() == null) {
+      return segment;
+    }
+    return segment.withColumnStats(metadata.getColumnStats());
+  }
 }
@@ -814,16 +814,21 @@ public class BatchAppenderator implements Appenderator
         closer.close();
       }
 
+      final DataSegment segmentToPush = Appenderators.withColumnStats(
+          sink.getSegment().withDimensions(
+              IndexMerger.getMergedDimensionsFromQueryableIndexes(indexes, schema.getDimensionsSpec())
+          ),
+          tuningConfig.getIndexSpec(),
+          indexIO,
+          mergedFile
+      );
+
       // Retry pushing segments because uploading to deep storage might fail especially for cloud storage types
       final DataSegment segment = RetryUtils.retry(
           // This appenderator is used only for the local indexing task so unique paths are not required
           () -> dataSegmentPusher.push(
               mergedFile,
-              sink.getSegment()
-                  .withDimensions(IndexMerger.getMergedDimensionsFromQueryableIndexes(
-                      indexes,
-                      schema.getDimensionsSpec()
-                  )),
+              segmentToPush,
               false
           ),
           exception -> exception instanceof Exception,
@@ -44,6 +44,7 @@ import org.apache.druid.java.util.common.guava.Yielders;
 import org.apache.druid.java.util.emitter.EmittingLogger;
 import org.apache.druid.query.BadJsonQueryException;
 import org.apache.druid.query.BadQueryException;
+import org.apache.druid.query.FrameResults;
 import org.apache.druid.query.Query;
 import org.apache.druid.query.QueryCapacityExceededException;
 import org.apache.druid.query.QueryContext;
@@ -55,6 +56,7 @@ import org.apache.druid.query.QueryUnsupportedException;
 import org.apache.druid.query.TruncatedResponseContextException;
 import org.apache.druid.query.context.ResponseContext;
 import org.apache.druid.query.context.ResponseContext.Keys;
+import org.apache.druid.segment.column.RowSignature;
 import org.apache.druid.server.metrics.QueryCountStatsProvider;
 import org.apache.druid.server.security.Access;
 import org.apache.druid.server.security.AuthConfig;
@@ -81,6 +83,8 @@ import javax.ws.rs.core.StreamingOutput;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicLong;
@@ -101,6 +105,13 @@ public class QueryResource implements QueryCountStatsProvider
   public static final String QUERY_ID_RESPONSE_HEADER = "X-Druid-Query-Id";
   public static final String HEADER_ETAG = "ETag";
 
+  /**
+   * HTTP request header with which Brokers ask data servers to send results as frames, if the toolchest of the query
+   * supports it. Results sent as frames have the {@link #APPLICATION_FRAMES} content type. See {@link FrameResults}.
+   */
+  public static final String HEADER_ACCEPT_FRAMES = "X-Druid-Accept-Frames";
+  public static final String APPLICATION_FRAMES = "application/x-druid-frames";
+
   protected final QueryLifecycleFactory queryLifecycleFactory;
   protected final ObjectMapper jsonMapper;
   protected final ObjectMapper smileMapper;
@@ -211,7 +222,15 @@ public class QueryResource implements QueryCountStatsProvider
         return Response.notModified().build();
       }
 
-      final Yielder<?> yielder = Yielders.each(results);
+      final Optional<RowSignature> frameSignature = Boolean.parseBoolean(req.getHeader(HEADER_ACCEPT_FRAMES))
+                                                    ? queryLifecycle.getToolChest()
+                                                                    .resultFrameSignature(queryLifecycle.getQuery())
+                                                    : Optional.empty();
+      final Yielder<?> yielder = Yielders.each(
+          frameSignature.isPresent()
+          ? queryLifecycle.getToolChest().resultsAsArrays(queryLifecycle.getQuery(), results)
+          : results
+      );
 
       try {
         final ObjectWriter jsonWriter = queryLifecycle.newOutputWriter(ioReaderWriter);
@@ -227,11 +246,17 @@ public class QueryResource implements QueryCountStatsProvider
 
                     CountingOutputStream os = new CountingOutputStream(outputStream);
                     try {
-                      // json serializer will always close the yielder
-                      jsonWriter.writeValue(os, yielder);
+                      if (frameSignature.isPresent()) {
+                        // closes the yielder and the stream
+                        //noinspection unchecked
+                        FrameResults.write((Yielder<Object[]>) yielder, frameSignature.get(), Channels.newChannel(os));
+                      } else {
+                        // json serializer will always close the yielder
+                        jsonWriter.writeValue(os, yielder);
 
-                      os.flush(); // Some types of OutputStream suppress flush errors in the .close() method.
-                      os.close();
+                        os.flush(); // Some types of OutputStream suppress flush errors in the .close() method.
+                        os.close();
+                      }
                     }
                     catch (Exception ex) {
                       e = ex;
@@ -251,7 +276,7 @@ public class QueryResource implements QueryCountStatsProvider
                     }
                   }
                 },
-                ioReaderWriter.getResponseWriter().getResponseType()
+                frameSignature.isPresent() ? APPLICATION_FRAMES : ioReaderWriter.getResponseWriter().getResponseType()
             )
             .header(QUERY_ID_RESPONSE_HEADER, queryId);
 
@@ -24,6 +24,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import org.apache.druid.jackson.CommaListJoinDeserializer;
+import org.apache.druid.segment.column.ColumnStats;
 import org.apache.druid.timeline.CompactionState;
 import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.timeline.partition.ShardSpec;
@@ -58,6 +59,7 @@ public class LoadableDataSegment extends DataSegment
       List<String> metrics,
       @JsonProperty("shardSpec") @Nullable ShardSpec shardSpec,
       @JsonProperty("lastCompactionState") @Nullable CompactionState lastCompactionState,
+      @JsonProperty("columnStats") @Nullable Map<String, ColumnStats> columnStats,
       @JsonProperty("binaryVersion") Integer binaryVersion,
       @JsonProperty("size") long size,
       @JacksonInject PruneSpecsHolder pruneSpecsHolder
@@ -72,6 +74,7 @@ public class LoadableDataSegment extends DataSegment
         metrics,
         shardSpec,
         lastCompactionState,
+        columnStats,
         binaryVersion,
         size,
         PruneSpecsHolder.DEFAULT
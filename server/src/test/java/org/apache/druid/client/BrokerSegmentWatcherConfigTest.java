@@ -47,9 +47,11 @@ public class BrokerSegmentWatcherConfigTest
     Assert.assertNull(config.getWatchedTiers());
     Assert.assertTrue(config.isWatchRealtimeTasks());
     Assert.assertNull(config.getIgnoredTiers());
+    Assert.assertTrue(config.isKeepColumnStats());
 
     //non-defaults
-    json = "{ \"watchedTiers\": [\"t1\", \"t2\"], \"watchedDataSources\": [\"ds1\", \"ds2\"], \"watchRealtimeTasks\": false }";
+    json = "{ \"watchedTiers\": [\"t1\", \"t2\"], \"watchedDataSources\": [\"ds1\", \"ds2\"], "
+           + "\"watchRealtimeTasks\": false, \"keepColumnStats\": false }";
 
     config = MAPPER.readValue(
         MAPPER.writeValueAsString(
@@ -62,6 +64,7 @@ public class BrokerSegmentWatcherConfigTest
     Assert.assertNull(config.getIgnoredTiers());
     Assert.assertEquals(ImmutableSet.of("ds1", "ds2"), config.getWatchedDataSources());
     Assert.assertFalse(config.isWatchRealtimeTasks());
+    Assert.assertFalse(config.isKeepColumnStats());
 
     // json with ignoredTiers
     json = "{ \"ignoredTiers\": [\"t3\", \"t4\"], \"watchedDataSources\": [\"ds1\", \"ds2\"] }";
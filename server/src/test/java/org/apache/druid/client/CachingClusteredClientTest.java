@@ -157,6 +157,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -2750,6 +2751,44 @@ public class CachingClusteredClientTest
       final Cache cache,
       final int mergeLimit
   )
+  {
+    return makeClient(
+        cachePopulator,
+        cache,
+        new CacheConfig()
+        {
+          @Override
+          public boolean isPopulateCache()
+          {
+            return true;
+          }
+
+          @Override
+          public boolean isUseCache()
+          {
+            return true;
+          }
+
+          @Override
+          public boolean isQueryCacheable(Query query)
+          {
+            return true;
+          }
+
+          @Override
+          public int getCacheBulkMergeLimit()
+          {
+            return mergeLimit;
+          }
+        }
+    );
+  }
+
+  protected CachingClusteredClient makeClient(
+      final CachePopulator cachePopulator,
+      final Cache cache,
+      final CacheConfig cacheConfig
+  )
   {
     return new CachingClusteredClient(
         WAREHOUSE,
@@ -2793,32 +2832,7 @@ public class CachingClusteredClientTest
         cache,
         JSON_MAPPER,
         cachePopulator,
-        new CacheConfig()
-        {
-          @Override
-          public boolean isPopulateCache()
-          {
-            return true;
-          }
-
-          @Override
-          public boolean isUseCache()
-          {
-            return true;
-          }
-
-          @Override
-          public boolean isQueryCacheable(Query query)
-          {
-            return true;
-          }
-
-          @Override
-          public int getCacheBulkMergeLimit()
-          {
-            return mergeLimit;
-          }
-        },
+        cacheConfig,
         new DruidHttpClientConfig()
         {
           @Override
@@ -3344,6 +3358,311 @@ public class CachingClusteredClientTest
     Assert.assertNotEquals(etag1, etag2);
   }
 
+  @Test
+  public void testTimeseriesTimeBucketCaching()
+  {
+    final CachePopulatorStats cachePopulatorStats = new CachePopulatorStats();
+    client = makeClient(
+        new ForegroundCachePopulator(JSON_MAPPER, cachePopulatorStats, -1),
+        cache,
+        makeTimeBucketCacheConfig()
+    );
+
+    // Historical data up to 04:00, and realtime data after that.
+    final DruidServer realtimeServer = new DruidServer("rt", "rt", null, 10, ServerType.INDEXER_EXECUTOR, "bye", 0);
+    final List<Interval> historicalIntervals = new ArrayList<>();
+    final List<Interval> realtimeIntervals = new ArrayList<>();
+    addHourlySegment(Intervals.of("2016-01-01T00/2016-01-01T04"), "ver", servers[0]);
+    addHourlySegment(Intervals.of("2016-01-01T04/2016-01-02"), "ver", realtimeServer);
+    expectHourlyResults(servers[0], 0, historicalIntervals);
+    expectHourlyResults(realtimeServer, 0, realtimeIntervals);
+    EasyMock.replay(serverView);
+
+    final TimeseriesQuery query = Druids.newTimeseriesQueryBuilder()
+                                        .dataSource(DATA_SOURCE)
+                                        .intervals("2016-01-01T00:30/2016-01-01T06")
+                                        .granularity(Granularities.HOUR)
+                                        .aggregators(new LongSumAggregatorFactory("rows", "rows"))
+                                        .randomQueryId()
+                                        .build();
+    final List<Long> expected = ImmutableList.of(1L, 2L, 3L, 4L, 5L, 6L);
+
+    // Each full historical bucket is cached as soon as the results move on to the next bucket.
+    final List<Long> numCachedBeforeEachResult = client
+        .getQueryRunnerForIntervals(query, query.getIntervals())
+        .run(QueryPlus.wrap(query), initializeResponseContext())
+        .map(result -> cachePopulatorStats.snapshot().getNumOk())
+        .toList();
+    Assert.assertEquals(ImmutableList.of(0L, 0L, 1L, 2L, 3L, 3L), numCachedBeforeEachResult);
+    Assert.assertEquals(ImmutableList.of(Intervals.of("2016-01-01T00:30/2016-01-01T04")), historicalIntervals);
+    Assert.assertEquals(ImmutableList.of(Intervals.of("2016-01-01T04/2016-01-01T06")), realtimeIntervals);
+    Assert.assertEquals(3, cachePopulatorStats.snapshot().getNumOk());
+
+    // The full historical buckets are cached, but the partial bucket at the start and the realtime buckets are not.
+    historicalIntervals.clear();
+    realtimeIntervals.clear();
+    Assert.assertEquals(expected, runHourlyTimeseries(query));
+    Assert.assertEquals(ImmutableList.of(Intervals.of("2016-01-01T00:30/2016-01-01T01")), historicalIntervals);
+    Assert.assertEquals(ImmutableList.of(Intervals.of("2016-01-01T04/2016-01-01T06")), realtimeIntervals);
+
+    // Limited queries are not cached per bucket. The limit itself is applied when merging results on top of this.
+    historicalIntervals.clear();
+    Assert.assertEquals(expected, runHourlyTimeseries(Druids.TimeseriesQueryBuilder.copy(query).limit(2).build()));
+    Assert.assertEquals(ImmutableList.of(Intervals.of("2016-01-01T00:30/2016-01-01T04")), historicalIntervals);
+  }
+
+  @Test
+  public void testGroupByTimeBucketCaching()
+  {
+    client = makeClient(
+        new ForegroundCachePopulator(JSON_MAPPER, new CachePopulatorStats(), -1),
+        cache,
+        makeTimeBucketCacheConfig()
+    );
+
+    // Historical data up to 04:00, and realtime data after that.
+    final DruidServer realtimeServer = new DruidServer("rt", "rt", null, 10, ServerType.INDEXER_EXECUTOR, "bye", 0);
+    final List<Interval> historicalIntervals = new ArrayList<>();
+    final List<Interval> realtimeIntervals = new ArrayList<>();
+    addHourlySegment(Intervals.of("2016-01-01T00/2016-01-01T04"), "ver", servers[0]);
+    addHourlySegment(Intervals.of("2016-01-01T04/2016-01-02"), "ver", realtimeServer);
+    expectHourlyResults(servers[0], 0, historicalIntervals);
+    expectHourlyResults(realtimeServer, 0, realtimeIntervals);
+    EasyMock.replay(serverView);
+
+    final GroupByQuery query = GroupByQuery.builder()
+                                           .setDataSource(DATA_SOURCE)
+                                           .setInterval("2016-01-01T00:30/2016-01-01T03")
+                                           .setGranularity(Granularities.HOUR)
+                                           .setDimensions(new DefaultDimensionSpec("dim", "dim"))
+                                           .setAggregatorSpecs(new LongSumAggregatorFactory("rows", "rows"))
+                                           .randomQueryId()
+                                           .build();
+
+    Assert.assertEquals(
+        ImmutableList.of("00 x 1", "00 y 10", "01 x 2", "01 y 20", "02 x 3", "02 y 30"),
+        runHourlyGroupBy(query)
+    );
+    Assert.assertEquals(ImmutableList.of(Intervals.of("2016-01-01T00:30/2016-01-01T03")), historicalIntervals);
+
+    // Cached buckets hold the rows of a single timestamp, so they can be merged in the order of dimensions first too.
+    historicalIntervals.clear();
+    final GroupByQuery sortByDimsFirstQuery = query.withOverriddenContext(
+        ImmutableMap.of(GroupByQuery.CTX_KEY_SORT_BY_DIMS_FIRST, true)
+    );
+    final List<String> sortByDimsFirstExpected =
+        ImmutableList.of("00 x 1", "01 x 2", "02 x 3", "00 y 10", "01 y 20", "02 y 30");
+    Assert.assertEquals(sortByDimsFirstExpected, runHourlyGroupBy(sortByDimsFirstQuery));
+    Assert.assertEquals(ImmutableList.of(Intervals.of("2016-01-01T00:30/2016-01-01T01")), historicalIntervals);
+
+    historicalIntervals.clear();
+    Assert.assertEquals(sortByDimsFirstExpected, runHourlyGroupBy(sortByDimsFirstQuery));
+    Assert.assertEquals(ImmutableList.of(Intervals.of("2016-01-01T00:30/2016-01-01T01")), historicalIntervals);
+    Assert.assertEquals(ImmutableList.of(), realtimeIntervals);
+
+    // Results sorted by dimensions first interleave the buckets, so they are not cached per bucket.
+    historicalIntervals.clear();
+    final GroupByQuery sortByDimsFirstUncachedQuery = sortByDimsFirstQuery.withQuerySegmentSpec(
+        new MultipleIntervalSegmentSpec(ImmutableList.of(Intervals.of("2016-01-01T03/2016-01-01T04")))
+    );
+    runHourlyGroupBy(sortByDimsFirstUncachedQuery);
+    runHourlyGroupBy(sortByDimsFirstUncachedQuery);
+    Assert.assertEquals(
+        ImmutableList.of(Intervals.of("2016-01-01T03/2016-01-01T04"), Intervals.of("2016-01-01T03/2016-01-01T04")),
+        historicalIntervals
+    );
+
+    // Subtotals are not cached per bucket.
+    historicalIntervals.clear();
+    runHourlyGroupBy(
+        query.withSubtotalsSpec(ImmutableList.of(ImmutableList.of("dim"), ImmutableList.of()))
+    );
+    Assert.assertEquals(ImmutableList.of(Intervals.of("2016-01-01T00:30/2016-01-01T03")), historicalIntervals);
+  }
+
+  @Test
+  public void testTimeBucketCachingAfterSegmentVersionReplaced()
+  {
+    client = makeClient(
+        new ForegroundCachePopulator(JSON_MAPPER, new CachePopulatorStats(), -1),
+        cache,
+        makeTimeBucketCacheConfig()
+    );
+
+    final List<Interval> oldVersionIntervals = new ArrayList<>();
+    final List<Interval> newVersionIntervals = new ArrayList<>();
+    addHourlySegment(Intervals.of("2016-01-01T00/2016-01-01T04"), "ver", servers[0]);
+    expectHourlyResults(servers[0], 0, oldVersionIntervals);
+    expectHourlyResults(servers[1], 100, newVersionIntervals);
+    EasyMock.replay(serverView);
+
+    final TimeseriesQuery query = Druids.newTimeseriesQueryBuilder()
+                                        .dataSource(DATA_SOURCE)
+                                        .intervals("2016-01-01T00/2016-01-01T04")
+                                        .granularity(Granularities.HOUR)
+                                        .aggregators(new LongSumAggregatorFactory("rows", "rows"))
+                                        .randomQueryId()
+                                        .build();
+
+    Assert.assertEquals(ImmutableList.of(1L, 2L, 3L, 4L), runHourlyTimeseries(query));
+    Assert.assertEquals(ImmutableList.of(Intervals.of("2016-01-01T00/2016-01-01T04")), oldVersionIntervals);
+
+    oldVersionIntervals.clear();
+    Assert.assertEquals(ImmutableList.of(1L, 2L, 3L, 4L), runHourlyTimeseries(query));
+    Assert.assertEquals(ImmutableList.of(), oldVersionIntervals);
+
+    // A newer version of the data from 02:00 to 03:00 replaces the cached results of that bucket only.
+    addHourlySegment(Intervals.of("2016-01-01T02/2016-01-01T03"), "ver2", servers[1]);
+    Assert.assertEquals(ImmutableList.of(1L, 2L, 103L, 4L), runHourlyTimeseries(query));
+    Assert.assertEquals(ImmutableList.of(), oldVersionIntervals);
+    Assert.assertEquals(ImmutableList.of(Intervals.of("2016-01-01T02/2016-01-01T03")), newVersionIntervals);
+
+    newVersionIntervals.clear();
+    Assert.assertEquals(ImmutableList.of(1L, 2L, 103L, 4L), runHourlyTimeseries(query));
+    Assert.assertEquals(ImmutableList.of(), oldVersionIntervals);
+    Assert.assertEquals(ImmutableList.of(), newVersionIntervals);
+  }
+
+  @Test
+  public void testTimeBucketCachingWithRealtimeReplica()
+  {
+    final CachePopulatorStats cachePopulatorStats = new CachePopulatorStats();
+    client = makeClient(
+        new ForegroundCachePopulator(JSON_MAPPER, cachePopulatorStats, -1),
+        cache,
+        makeTimeBucketCacheConfig()
+    );
+
+    // The same segment is served by a Historical and by a realtime task, and either of them may be queried.
+    final DruidServer realtimeServer = new DruidServer("rt", "rt", null, 10, ServerType.INDEXER_EXECUTOR, "bye", 0);
+    final List<Interval> queriedIntervals = new ArrayList<>();
+    addHourlySegment(Intervals.of("2016-01-01T00/2016-01-01T04"), "ver", servers[0], realtimeServer);
+    expectHourlyResults(servers[0], 0, queriedIntervals);
+    expectHourlyResults(realtimeServer, 0, queriedIntervals);
+    EasyMock.replay(serverView);
+
+    final TimeseriesQuery query = Druids.newTimeseriesQueryBuilder()
+                                        .dataSource(DATA_SOURCE)
+                                        .intervals("2016-01-01T00/2016-01-01T04")
+                                        .granularity(Granularities.HOUR)
+                                        .aggregators(new LongSumAggregatorFactory("rows", "rows"))
+                                        .randomQueryId()
+                                        .build();
+
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(ImmutableList.of(1L, 2L, 3L, 4L), runHourlyTimeseries(query));
+    }
+    Assert.assertEquals(10, queriedIntervals.size());
+    Assert.assertEquals(0, cachePopulatorStats.snapshot().getNumOk());
+  }
+
+  private static CacheConfig makeTimeBucketCacheConfig()
+  {
+    return new CacheConfig()
+    {
+      @Override
+      public boolean isPopulateTimeBucketCache()
+      {
+        return true;
+      }
+
+      @Override
+      public boolean isUseTimeBucketCache()
+      {
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Adds a segment with the "rows" metric to the timeline, on the given servers.
+   */
+  private void addHourlySegment(Interval interval, String version, DruidServer... servers)
+  {
+    final DataSegment dataSegment = new DataSegment(
+        DATA_SOURCE,
+        interval,
+        version,
+        ImmutableMap.of(),
+        ImmutableList.of("dim"),
+        ImmutableList.of("rows"),
+        NoneShardSpec.instance(),
+        9,
+        12334
+    );
+    final ServerSelector selector = new ServerSelector(
+        dataSegment,
+        new HighestPriorityTierSelectorStrategy(new RandomServerSelectorStrategy())
+    );
+    for (DruidServer server : servers) {
+      selector.addServerAndUpdateSegment(new QueryableDruidServer(server, null), dataSegment);
+    }
+    timeline.add(interval, version, new SingleElementPartitionChunk<>(selector));
+  }
+
+  /**
+   * Makes the given server return results for every hour it is queried for. Timeseries queries get the hour of the
+   * day plus one as their "rows" metric, and groupBy queries get a row for the "x" value of "dim" with the same
+   * metric, and one for "y" with ten times that, each plus the given offset. The intervals the server is queried for
+   * are added to queriedIntervals.
+   */
+  @SuppressWarnings("unchecked")
+  private void expectHourlyResults(DruidServer server, long offset, List<Interval> queriedIntervals)
+  {
+    final QueryRunner<?> runner = (queryPlus, responseContext) -> {
+      final Query<?> query = queryPlus.getQuery();
+      final List<Object> results = new ArrayList<>();
+      for (Interval queriedInterval : query.getIntervals()) {
+        queriedIntervals.add(queriedInterval);
+        for (Interval hour : Granularities.HOUR.getIterable(queriedInterval)) {
+          final long rows = hour.getStart().getHourOfDay() + 1L;
+          if (query instanceof GroupByQuery) {
+            results.add(ResultRow.of(hour.getStartMillis(), "x", rows + offset));
+            results.add(ResultRow.of(hour.getStartMillis(), "y", rows * 10 + offset));
+          } else {
+            results.add(
+                new Result<>(hour.getStart(), new TimeseriesResultValue(ImmutableMap.of("rows", rows + offset)))
+            );
+          }
+        }
+      }
+      if (query instanceof GroupByQuery) {
+        results.sort((Comparator) ((GroupByQuery) query).getResultOrdering());
+      }
+      return Sequences.simple(results);
+    };
+    EasyMock.expect(serverView.getQueryRunner(server)).andReturn((QueryRunner) runner).anyTimes();
+  }
+
+  /**
+   * Runs a groupBy query made by {@link #expectHourlyResults}, returning its rows as "hour dim rows".
+   */
+  private List<String> runHourlyGroupBy(GroupByQuery query)
+  {
+    final QueryRunner<ResultRow> runner = client.getQueryRunnerForIntervals(query, query.getIntervals());
+    return runner.run(QueryPlus.wrap(query), initializeResponseContext())
+                 .map(
+                     row -> StringUtils.format(
+                         "%02d %s %s",
+                         DateTimes.utc(row.getLong(0)).getHourOfDay(),
+                         row.get(1),
+                         row.getLong(2)
+                     )
+                 )
+                 .toList();
+  }
+
+  private List<Long> runHourlyTimeseries(TimeseriesQuery query)
+  {
+    final QueryRunner<Result<TimeseriesResultValue>> runner = client.getQueryRunnerForIntervals(
+        query,
+        query.getIntervals()
+    );
+    return runner.run(QueryPlus.wrap(query), initializeResponseContext())
+                 .map(result -> result.getValue().getLongMetric("rows"))
+                 .toList();
+  }
+
   @SuppressWarnings("unchecked")
   private QueryRunner getDefaultQueryRunner()
   {
@@ -0,0 +1,347 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client.cache;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.inject.Injector;
+import com.google.inject.name.Names;
+import org.apache.druid.guice.GuiceInjectors;
+import org.apache.druid.guice.JsonConfigProvider;
+import org.apache.druid.initialization.Initialization;
+import org.apache.druid.java.util.common.StringUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+public class OffHeapCacheTest
+{
+  private static final byte[] HI = StringUtils.toUtf8("hiiiiiiiiiiiiiiiiiii");
+  private static final byte[] HO = StringUtils.toUtf8("hooooooooooooooooooo");
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Random random = new Random(843671346794319L);
+  private OffHeapCache cache;
+
+  @Before
+  public void setUp()
+  {
+    cache = OffHeapCache.create(new TestConfig(1024 * 1024, 64 * 1024, 4, null));
+  }
+
+  @After
+  public void tearDown()
+  {
+    cache.close();
+  }
+
+  @Test
+  public void testSimpleInjection()
+  {
+    final String uuid = UUID.randomUUID().toString();
+    System.setProperty(uuid + ".type", "offheap");
+    final Injector injector = Initialization.makeInjectorWithModules(
+        GuiceInjectors.makeStartupInjector(), ImmutableList.of(
+            binder -> {
+              binder.bindConstant().annotatedWith(Names.named("serviceName")).to("druid/test/redis");
+              binder.bindConstant().annotatedWith(Names.named("servicePort")).to(0);
+              binder.bindConstant().annotatedWith(Names.named("tlsServicePort")).to(-1);
+
+              binder.bind(Cache.class).toProvider(CacheProvider.class);
+              JsonConfigProvider.bind(binder, uuid, CacheProvider.class);
+            }
+        )
+    );
+    final CacheProvider cacheProvider = injector.getInstance(CacheProvider.class);
+    Assert.assertNotNull(cacheProvider);
+    Assert.assertEquals(OffHeapCacheProvider.class, cacheProvider.getClass());
+  }
+
+  @Test
+  public void testBaseOps()
+  {
+    final Cache.NamedKey aKey = new Cache.NamedKey("a", HI);
+    Assert.assertNull(cache.get(aKey));
+    put(cache, aKey, 1);
+    Assert.assertEquals(1, get(cache, aKey));
+
+    cache.close("a");
+    Assert.assertNull(cache.get(aKey));
+
+    final Cache.NamedKey hiKey = new Cache.NamedKey("the", HI);
+    final Cache.NamedKey hoKey = new Cache.NamedKey("the", HO);
+    final Cache.NamedKey otherKey = new Cache.NamedKey("other", HI);
+    put(cache, hiKey, 10);
+    put(cache, hoKey, 20);
+    put(cache, otherKey, 30);
+    Assert.assertEquals(10, get(cache, hiKey));
+    Assert.assertEquals(20, get(cache, hoKey));
+
+    // overwrite
+    put(cache, hoKey, 21);
+    Assert.assertEquals(21, get(cache, hoKey));
+    cache.close("the");
+
+    Assert.assertNull(cache.get(hiKey));
+    Assert.assertNull(cache.get(hoKey));
+    Assert.assertEquals(30, get(cache, otherKey));
+
+    Assert.assertNull(cache.get(new Cache.NamedKey("miss", HI)));
+
+    final CacheStats stats = cache.getStats();
+    Assert.assertEquals(5, stats.getNumHits());
+    Assert.assertEquals(5, stats.getNumMisses());
+    Assert.assertEquals(1, stats.getNumEntries());
+  }
+
+  @Test
+  public void testGetBulk()
+  {
+    final Cache.NamedKey key1 = new Cache.NamedKey("the", HI);
+    put(cache, key1, 2);
+    final Cache.NamedKey key2 = new Cache.NamedKey("the", HO);
+    put(cache, key2, 10);
+
+    Map<Cache.NamedKey, byte[]> result = cache.getBulk(Arrays.asList(key1, key2));
+    Assert.assertEquals(2, Ints.fromByteArray(result.get(key1)));
+    Assert.assertEquals(10, Ints.fromByteArray(result.get(key2)));
+
+    result = cache.getBulk(Collections.singletonList(new Cache.NamedKey("missing", HI)));
+    Assert.assertEquals(0, result.size());
+  }
+
+  @Test
+  public void testEvictionKeepsEntriesThatAreRead()
+  {
+    // a single segment of 4 slabs
+    final OffHeapCache cache = OffHeapCache.create(new TestConfig(16 * 1024, 4096, 1, null));
+    try {
+      final Cache.NamedKey hotKey = new Cache.NamedKey("the", HI);
+      final byte[] hotValue = randomBytes(100);
+      cache.put(hotKey, hotValue);
+
+      for (int i = 0; i < 1000; i++) {
+        final Cache.NamedKey key = new Cache.NamedKey("the", Ints.toByteArray(i));
+        // keys need to be looked up twice to be admitted once the cache is full
+        Assert.assertNull(cache.get(key));
+        Assert.assertNull(cache.get(key));
+        cache.put(key, randomBytes(100));
+        Assert.assertArrayEquals(hotValue, cache.get(hotKey));
+      }
+
+      Assert.assertNull(cache.get(new Cache.NamedKey("the", Ints.toByteArray(0))));
+      Assert.assertNotNull(cache.get(new Cache.NamedKey("the", Ints.toByteArray(999))));
+
+      final CacheStats stats = cache.getStats();
+      Assert.assertTrue(stats.getNumEvictions() > 0);
+      Assert.assertTrue(stats.getSizeInBytes() <= 16 * 1024);
+      Assert.assertEquals(1001 - stats.getNumEvictions(), stats.getNumEntries());
+    }
+    finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void testCloseOnlyEvictsEntriesWrittenBefore()
+  {
+    final Cache.NamedKey key = new Cache.NamedKey("the", HI);
+    final Cache.NamedKey otherKey = new Cache.NamedKey("other", HI);
+    put(cache, key, 1);
+    put(cache, otherKey, 2);
+
+    cache.close("the");
+    Assert.assertNull(cache.get(key));
+    Assert.assertEquals(2, get(cache, otherKey));
+
+    put(cache, key, 3);
+    Assert.assertEquals(3, get(cache, key));
+    cache.close("other");
+    Assert.assertEquals(3, get(cache, key));
+    Assert.assertNull(cache.get(otherKey));
+  }
+
+  @Test
+  public void testPutWhenAllEntriesAreRead()
+  {
+    // a single segment of 4 slabs
+    final OffHeapCache cache = OffHeapCache.create(new TestConfig(16 * 1024, 4096, 1, null));
+    try {
+      for (int i = 0; i < 1000; i++) {
+        final Cache.NamedKey key = new Cache.NamedKey("the", Ints.toByteArray(i));
+        Assert.assertNull(cache.get(key));
+        Assert.assertNull(cache.get(key));
+        final byte[] value = randomBytes(100);
+        cache.put(key, value);
+        // reading every entry keeps all of them from being evicted when their slab is reclaimed
+        for (int j = 0; j < 4; j++) {
+          Assert.assertArrayEquals(value, cache.get(key));
+        }
+      }
+      Assert.assertTrue(cache.getStats().getSizeInBytes() <= 16 * 1024);
+    }
+    finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void testAdmission()
+  {
+    final OffHeapCache cache = OffHeapCache.create(new TestConfig(16 * 1024, 4096, 1, null));
+    try {
+      // too large for a slab
+      final Cache.NamedKey largeKey = new Cache.NamedKey("the", HI);
+      cache.put(largeKey, randomBytes(cache.getSlabSize()));
+      Assert.assertNull(cache.get(largeKey));
+
+      // admitted without lookups until the cache is full
+      for (int i = 0; i < 200; i++) {
+        cache.put(new Cache.NamedKey("the", Ints.toByteArray(i)), randomBytes(100));
+      }
+      Assert.assertNull(cache.get(new Cache.NamedKey("the", Ints.toByteArray(0))));
+
+      final Cache.NamedKey key = new Cache.NamedKey("the", HO);
+      Assert.assertNull(cache.get(key));
+      cache.put(key, randomBytes(100));
+      Assert.assertNull(cache.get(key));
+      final byte[] value = randomBytes(100);
+      cache.put(key, value);
+      Assert.assertArrayEquals(value, cache.get(key));
+    }
+    finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void testMemoryMappedSlabs() throws Exception
+  {
+    final File directory = temporaryFolder.newFolder();
+    final OffHeapCache cache = OffHeapCache.create(new TestConfig(16 * 1024, 4096, 1, directory.getAbsolutePath()));
+    final Cache.NamedKey key = new Cache.NamedKey("the", HI);
+    final byte[] value = randomBytes(1000);
+    cache.put(key, value);
+    Assert.assertArrayEquals(value, cache.get(key));
+    Assert.assertEquals(1, directory.listFiles().length);
+
+    cache.close();
+    Assert.assertNull(cache.get(key));
+    Assert.assertEquals(0, directory.listFiles().length);
+  }
+
+  @Test
+  public void testFrequencySketch()
+  {
+    final OffHeapCache.FrequencySketch sketch = new OffHeapCache.FrequencySketch(1024);
+    Assert.assertEquals(0, sketch.frequency(1L));
+    for (int i = 0; i < 10; i++) {
+      sketch.increment(1L);
+    }
+    Assert.assertEquals(10, sketch.frequency(1L));
+    for (int i = 0; i < 10; i++) {
+      sketch.increment(1L);
+    }
+    Assert.assertEquals(OffHeapCache.FrequencySketch.MAX_COUNT, sketch.frequency(1L));
+    Assert.assertEquals(0, sketch.frequency(100L));
+
+    // counters are halved once there were ten times as many lookups as there are counters
+    for (int i = 20; i < 10 * 1024; i++) {
+      sketch.increment(100L);
+    }
+    Assert.assertEquals(OffHeapCache.FrequencySketch.MAX_COUNT / 2, sketch.frequency(1L));
+    Assert.assertEquals(OffHeapCache.FrequencySketch.MAX_COUNT / 2, sketch.frequency(100L));
+  }
+
+  private byte[] randomBytes(int size)
+  {
+    final byte[] bytes = new byte[size];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+
+  private static void put(Cache cache, Cache.NamedKey key, Integer value)
+  {
+    cache.put(key, Ints.toByteArray(value));
+  }
+
+  private static int get(Cache cache, Cache.NamedKey key)
+  {
+    return Ints.fromByteArray(cache.get(key));
+  }
+
+  private static class TestConfig extends OffHeapCacheConfig
+  {
+    private final long sizeInBytes;
+    private final long slabSizeInBytes;
+    private final int numSegments;
+    private final String directory;
+
+    private TestConfig(long sizeInBytes, long slabSizeInBytes, int numSegments, String directory)
+    {
+      this.sizeInBytes = sizeInBytes;
+      this.slabSizeInBytes = slabSizeInBytes;
+      this.numSegments = numSegments;
+      this.directory = directory;
+    }
+
+    @Override
+    public long getSizeInBytes()
+    {
+      return sizeInBytes;
+    }
+
+    @Override
+    public long getSlabSizeInBytes()
+    {
+      return slabSizeInBytes;
+    }
+
+    @Override
+    public int getNumSegments()
+    {
+      return numSegments;
+    }
+
+    @Override
+    public String getDirectory()
+    {
+      return directory;
+    }
+
+    @Override
+    public boolean isEvictOnClose()
+    {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client.selector;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import org.apache.druid.client.DirectDruidClient;
+import org.apache.druid.client.DruidServer;
+import org.apache.druid.jackson.DefaultObjectMapper;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.server.coordination.ServerType;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.partition.NumberedShardSpec;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ConsistentHashServerSelectorStrategyTest
+{
+  private static final int NUM_SEGMENTS = 1000;
+
+  private final ConsistentHashServerSelectorStrategy strategy = new ConsistentHashServerSelectorStrategy(null);
+
+  @Test
+  public void testSticky()
+  {
+    final Set<QueryableDruidServer> servers = makeServers(3, 0);
+    final Map<String, Integer> picksPerServer = new HashMap<>();
+    for (DataSegment segment : makeSegments()) {
+      final QueryableDruidServer picked = strategy.pick(servers, segment);
+      Assert.assertSame(picked, strategy.pick(new HashSet<>(servers), segment));
+      Assert.assertEquals(ImmutableList.of(picked), strategy.pick(servers, segment, 1));
+      picksPerServer.merge(picked.getServer().getName(), 1, Integer::sum);
+
+      final List<QueryableDruidServer> pickedAll = strategy.pick(servers, segment, 5);
+      Assert.assertEquals(3, pickedAll.size());
+      Assert.assertEquals(servers, new HashSet<>(pickedAll));
+      Assert.assertSame(picked, pickedAll.get(0));
+    }
+
+    Assert.assertEquals(3, picksPerServer.size());
+    for (int picks : picksPerServer.values()) {
+      Assert.assertTrue(picks > NUM_SEGMENTS / 4);
+    }
+  }
+
+  @Test
+  public void testRemoveServer()
+  {
+    final Set<QueryableDruidServer> servers = makeServers(3, 0);
+    final QueryableDruidServer removed = servers.iterator().next();
+    final Set<QueryableDruidServer> remaining = new HashSet<>(servers);
+    remaining.remove(removed);
+
+    for (DataSegment segment : makeSegments()) {
+      final QueryableDruidServer picked = strategy.pick(servers, segment);
+      if (picked != removed) {
+        Assert.assertSame(picked, strategy.pick(remaining, segment));
+      }
+    }
+  }
+
+  @Test
+  public void testSpillWhenLoaded()
+  {
+    final Set<QueryableDruidServer> idle = makeServers(3, 0);
+    final Set<QueryableDruidServer> servers = new HashSet<>(idle);
+    final QueryableDruidServer loaded = makeServer("loaded", 10);
+    servers.add(loaded);
+
+    int pickedLoaded = 0;
+    for (DataSegment segment : makeSegments()) {
+      final QueryableDruidServer picked = strategy.pick(servers, segment);
+      Assert.assertNotSame(loaded, picked);
+      Assert.assertSame(picked, strategy.pick(idle, segment));
+
+      final List<QueryableDruidServer> pickedAll = strategy.pick(servers, segment, 4);
+      Assert.assertSame(loaded, pickedAll.get(3));
+
+      if (new ConsistentHashServerSelectorStrategy(100.0).pick(servers, segment) == loaded) {
+        pickedLoaded++;
+      }
+    }
+
+    // With a high load factor, the loaded server keeps its share.
+    Assert.assertTrue(pickedLoaded > NUM_SEGMENTS / 8);
+  }
+
+  @Test
+  public void testSerde() throws Exception
+  {
+    final ObjectMapper mapper = new DefaultObjectMapper();
+    final ServerSelectorStrategy fromJson = mapper.readValue(
+        "{\"type\":\"consistentHash\",\"loadFactor\":1.5}",
+        ServerSelectorStrategy.class
+    );
+    Assert.assertTrue(fromJson instanceof ConsistentHashServerSelectorStrategy);
+    Assert.assertEquals(1.5, ((ConsistentHashServerSelectorStrategy) fromJson).getLoadFactor(), 0);
+
+    final ServerSelectorStrategy defaults = mapper.readValue(
+        "{\"type\":\"consistentHash\"}",
+        ServerSelectorStrategy.class
+    );
+    Assert.assertEquals(
+        ConsistentHashServerSelectorStrategy.DEFAULT_LOAD_FACTOR,
+        ((ConsistentHashServerSelectorStrategy) defaults).getLoadFactor(),
+        0
+    );
+
+    final ServerSelectorStrategy roundTrip = mapper.readValue(
+        mapper.writeValueAsString(fromJson),
+        ServerSelectorStrategy.class
+    );
+    Assert.assertEquals(1.5, ((ConsistentHashServerSelectorStrategy) roundTrip).getLoadFactor(), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLoadFactor()
+  {
+    new ConsistentHashServerSelectorStrategy(0.5);
+  }
+
+  private static Set<QueryableDruidServer> makeServers(int numServers, int openConnections)
+  {
+    final Set<QueryableDruidServer> servers = new HashSet<>();
+    for (int i = 0; i < numServers; i++) {
+      servers.add(makeServer("server" + i, openConnections));
+    }
+    return servers;
+  }
+
+  private static QueryableDruidServer makeServer(String name, int openConnections)
+  {
+    final DirectDruidClient client = EasyMock.createMock(DirectDruidClient.class);
+    EasyMock.expect(client.getNumOpenConnections()).andReturn(openConnections).anyTimes();
+    EasyMock.replay(client);
+    return new QueryableDruidServer(
+        new DruidServer(name, name, null, 0, ServerType.HISTORICAL, DruidServer.DEFAULT_TIER, 0),
+        client
+    );
+  }
+
+  private static List<DataSegment> makeSegments()
+  {
+    final List<DataSegment> segments = new ArrayList<>(NUM_SEGMENTS);
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      segments.add(
+          new DataSegment(
+              "test",
+              Intervals.of("2011-01-01/2011-01-02"),
+              "v1",
+              Collections.emptyMap(),
+              Collections.emptyList(),
+              Collections.emptyList(),
+              new NumberedShardSpec(i, NUM_SEGMENTS),
+              0,
+              0L
+          )
+      );
+    }
+    return segments;
+  }
+}
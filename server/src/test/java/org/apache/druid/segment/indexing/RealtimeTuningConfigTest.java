@@ -148,9 +148,9 @@ public class RealtimeTuningConfigTest
     Assert.assertEquals(100, config.getPersistThreadPriority());
     Assert.assertEquals(new Period("PT1H"), config.getWindowPeriod());
     Assert.assertEquals(true, config.isReportParseExceptions());
-    Assert.assertEquals(new IndexSpec(null, null, CompressionStrategy.NONE, null), config.getIndexSpec());
+    Assert.assertEquals(IndexSpec.builder().withMetricCompression(CompressionStrategy.NONE).build(), config.getIndexSpec());
     Assert.assertEquals(
-        new IndexSpec(null, CompressionStrategy.UNCOMPRESSED, null, null),
+        IndexSpec.builder().withDimensionCompression(CompressionStrategy.UNCOMPRESSED).build(),
         config.getIndexSpecForIntermediatePersists()
     );
 
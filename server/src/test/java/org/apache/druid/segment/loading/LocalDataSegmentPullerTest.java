@@ -21,6 +21,8 @@ package org.apache.druid.segment.loading;
 
 import com.google.common.io.Files;
 import org.apache.druid.java.util.common.FileUtils;
+import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.java.util.common.io.smoosh.SmooshedFileMapper;
 import org.apache.druid.utils.CompressionUtils;
 import org.junit.After;
 import org.junit.Assert;
@@ -33,7 +35,11 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  *
@@ -111,5 +117,86 @@ public class LocalDataSegmentPullerTest
     puller.getSegmentFiles(srcDir, tmpDir);
     Assert.assertTrue(expectedOutput.exists());
   }
-}
 
+  @Test
+  public void partialDirectoryTest() throws IOException, SegmentLoadingException
+  {
+    File srcDir = temporaryFolder.newFolder();
+    try (FileSmoosher smoosher = new FileSmoosher(srcDir)) {
+      smoosher.add("index.drd", ByteBuffer.wrap(new byte[]{1, 2, 3}));
+    }
+    File versionFile = new File(srcDir, "version.bin");
+    Files.write(new byte[]{9}, versionFile);
+
+    puller.getSegmentFilesPartially(srcDir, tmpDir);
+    Assert.assertTrue(new File(tmpDir, "version.bin").exists());
+    Assert.assertTrue(new File(tmpDir, "meta.smoosh").exists());
+    Assert.assertFalse(new File(tmpDir, "00000.smoosh").exists());
+
+    try (SmooshedFileMapper mapper = SmooshedFileMapper.load(tmpDir)) {
+      Assert.assertTrue(mapper.isPartial());
+      Assert.assertEquals(ByteBuffer.wrap(new byte[]{1, 2, 3}), mapper.mapFile("index.drd"));
+    }
+  }
+
+  @Test
+  public void partialZipTest() throws IOException, SegmentLoadingException
+  {
+    File srcDir = temporaryFolder.newFolder();
+    try (FileSmoosher smoosher = new FileSmoosher(srcDir)) {
+      smoosher.add("index.drd", ByteBuffer.wrap(new byte[]{1, 2, 3}));
+    }
+    Files.write(new byte[]{9}, new File(srcDir, "version.bin"));
+    File zipFile = new File(temporaryFolder.newFolder(), "index.zip");
+    zipStored(srcDir, zipFile);
+
+    puller.getSegmentFilesPartially(zipFile, tmpDir);
+    Assert.assertTrue(new File(tmpDir, "version.bin").exists());
+    Assert.assertTrue(new File(tmpDir, "meta.smoosh").exists());
+    Assert.assertFalse(new File(tmpDir, "00000.smoosh").exists());
+
+    try (SmooshedFileMapper mapper = SmooshedFileMapper.load(tmpDir)) {
+      Assert.assertTrue(mapper.isPartial());
+      Assert.assertEquals(ByteBuffer.wrap(new byte[]{1, 2, 3}), mapper.mapFile("index.drd"));
+    }
+  }
+
+  @Test
+  public void partialCompressedZipTest() throws IOException, SegmentLoadingException
+  {
+    File srcDir = temporaryFolder.newFolder();
+    try (FileSmoosher smoosher = new FileSmoosher(srcDir)) {
+      smoosher.add("index.drd", ByteBuffer.wrap(new byte[]{1, 2, 3}));
+    }
+    File zipFile = new File(temporaryFolder.newFolder(), "index.zip");
+    CompressionUtils.zip(srcDir, zipFile);
+
+    // The chunk file is compressed, so the zip file is unzipped in full.
+    puller.getSegmentFilesPartially(zipFile, tmpDir);
+    Assert.assertTrue(new File(tmpDir, "00000.smoosh").exists());
+
+    try (SmooshedFileMapper mapper = SmooshedFileMapper.load(tmpDir)) {
+      Assert.assertFalse(mapper.isPartial());
+      Assert.assertEquals(ByteBuffer.wrap(new byte[]{1, 2, 3}), mapper.mapFile("index.drd"));
+    }
+  }
+
+  private static void zipStored(File directory, File zipFile) throws IOException
+  {
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
+      for (File file : directory.listFiles()) {
+        final byte[] bytes = Files.toByteArray(file);
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        final ZipEntry entry = new ZipEntry(file.getName());
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        entry.setCompressedSize(bytes.length);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        out.write(bytes);
+        out.closeEntry();
+      }
+    }
+  }
+}
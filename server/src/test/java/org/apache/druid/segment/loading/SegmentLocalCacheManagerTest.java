@@ -27,6 +27,8 @@ import com.google.common.collect.ImmutableMap;
 import org.apache.druid.jackson.DefaultObjectMapper;
 import org.apache.druid.java.util.common.FileUtils;
 import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.java.util.common.io.smoosh.SmooshedFileMapper;
 import org.apache.druid.java.util.emitter.EmittingLogger;
 import org.apache.druid.server.metrics.NoopServiceEmitter;
 import org.apache.druid.timeline.DataSegment;
@@ -40,6 +42,7 @@ import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -968,4 +971,48 @@ public class SegmentLocalCacheManagerTest
     Assert.assertEquals(50L, firstLocation.availableSizeBytes());
     Assert.assertEquals(150L, secondLocation.availableSizeBytes());
   }
+
+  @Test
+  public void testPartialLoadReservesCopiedBytes() throws Exception
+  {
+    final File segmentSrcFolder = tmpFolder.newFolder("segmentSrcFolder");
+    try (FileSmoosher smoosher = new FileSmoosher(segmentSrcFolder)) {
+      smoosher.add("a", ByteBuffer.allocate(1000));
+      smoosher.add("b", ByteBuffer.allocate(1000));
+    }
+    final DataSegment dataSegment = dataSegmentWithInterval("2014-10-20T00:00:00Z/P1D")
+        .withLoadSpec(ImmutableMap.of("type", "local", "path", segmentSrcFolder.getCanonicalPath()))
+        .withSize(10000L);
+    final StorageLocation location = new StorageLocation(localSegmentCacheFolder, 100000L, 0.0d);
+
+    manager = new SegmentLocalCacheManager(
+        Collections.singletonList(location),
+        jsonMapper.readValue("{\"partialLoad\": true}", SegmentLoaderConfig.class),
+        new LeastBytesUsedStorageLocationSelectorStrategy(Collections.singletonList(location)),
+        jsonMapper
+    );
+
+    // Only the files needed to open the segment are reserved, rather than the whole segment.
+    final File segmentFile = manager.getSegmentFiles(dataSegment);
+    final long openBytes = org.apache.commons.io.FileUtils.sizeOfDirectory(segmentFile);
+    Assert.assertEquals(100000L - openBytes, location.availableSizeBytes());
+
+    // Parts copied later grow the reservation, and are refused once the location is full.
+    try (SmooshedFileMapper mapper = SmooshedFileMapper.load(segmentFile, manager.getPartCopyListener(dataSegment))) {
+      Assert.assertTrue(mapper.isPartial());
+      mapper.mapFile("a");
+      mapper.mapFile("a");
+      Assert.assertEquals(100000L - openBytes - 1000L, location.availableSizeBytes());
+
+      Assert.assertNotNull(location.reserve("other", "other", location.availableSizeBytes() - 500L));
+      Assert.assertThrows(IOException.class, () -> mapper.mapFile("b"));
+      Assert.assertEquals(500L, location.availableSizeBytes());
+      Assert.assertTrue(location.release("other", 0L));
+    }
+    Assert.assertEquals(100000L - openBytes - 1000L, location.availableSizeBytes());
+
+    manager.cleanup(dataSegment);
+    Assert.assertEquals(100000L, location.availableSizeBytes());
+    Assert.assertFalse(location.isReserved(DataSegmentPusher.getDefaultStorageDir(dataSegment, false)));
+  }
 }
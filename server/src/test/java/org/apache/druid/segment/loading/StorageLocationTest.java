@@ -183,6 +183,63 @@ public class StorageLocationTest
     Assert.assertFalse(loc.release("testPath", 100L));
   }
 
+  @Test
+  public void testUpdateAndGrowReservation() throws IOException
+  {
+    ServiceEmitter emitter = Mockito.mock(ServiceEmitter.class);
+    EmittingLogger.registerEmitter(emitter);
+
+    File dir = temporaryFolder.newFolder();
+    StorageLocation loc = new StorageLocation(dir, 1000L, null);
+
+    Assert.assertNotNull(loc.reserve("testPath", "segmentId", 500L));
+    Assert.assertEquals(500L, loc.availableSizeBytes());
+
+    loc.updateReservation("testPath", 40L);
+    Assert.assertEquals(960L, loc.availableSizeBytes());
+
+    Assert.assertTrue(loc.tryGrowReservation("testPath", 60L));
+    Assert.assertEquals(900L, loc.availableSizeBytes());
+
+    // Copies that do not fit are refused, and leave the reservation as it was.
+    Assert.assertFalse(loc.tryGrowReservation("testPath", 950L));
+    Assert.assertEquals(900L, loc.availableSizeBytes());
+    Assert.assertTrue(loc.tryGrowReservation("testPath", 900L));
+    Assert.assertEquals(0L, loc.availableSizeBytes());
+
+    // Failed copies give their bytes back.
+    loc.shrinkReservation("testPath", 900L);
+    Assert.assertEquals(900L, loc.availableSizeBytes());
+    Mockito.verifyNoInteractions(emitter);
+
+    Assert.assertTrue(loc.release("testPath", 500L));
+    Assert.assertEquals(1000L, loc.availableSizeBytes());
+
+    // Parts of a segment that has been removed are not copied.
+    Assert.assertFalse(loc.tryGrowReservation("testPath", 60L));
+    loc.shrinkReservation("testPath", 60L);
+    loc.updateReservation("testPath", 60L);
+    Assert.assertEquals(1000L, loc.availableSizeBytes());
+    Assert.assertFalse(loc.contains("testPath"));
+  }
+
+  @Test
+  public void testRemoveSegmentDirAfterUpdateReservation() throws IOException
+  {
+    File dir = temporaryFolder.newFolder();
+    StorageLocation loc = new StorageLocation(dir, 1000L, null);
+    DataSegment segment = makeSegment("2012-01-01/2012-01-02", 500);
+
+    loc.maybeReserve("test1", segment, 40L);
+    Assert.assertEquals(960L, loc.availableSizeBytes());
+
+    Assert.assertTrue(loc.tryGrowReservation("test1", 20L));
+    Assert.assertEquals(940L, loc.availableSizeBytes());
+
+    loc.removeSegmentDir(new File(dir, "test1"), segment);
+    Assert.assertEquals(1000L, loc.availableSizeBytes());
+  }
+
   @SuppressWarnings("GuardedBy")
   private void verifyLoc(long maxSize, StorageLocation loc)
   {
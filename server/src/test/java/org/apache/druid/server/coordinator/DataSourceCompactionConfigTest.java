@@ -223,18 +223,18 @@ public class DataSourceCompactionConfigTest extends InitializedNullHandlingTest
         null,
         new SegmentsSplitHintSpec(new HumanReadableBytes(100000L), null),
         new DynamicPartitionsSpec(1000, 20000L),
-        new IndexSpec(
-            new DefaultBitmapSerdeFactory(),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
-        new IndexSpec(
-            new DefaultBitmapSerdeFactory(),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.UNCOMPRESSED,
-            LongEncodingStrategy.AUTO
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new DefaultBitmapSerdeFactory())
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new DefaultBitmapSerdeFactory())
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.UNCOMPRESSED)
+            .withLongEncoding(LongEncodingStrategy.AUTO)
+            .build(),
         2,
         1000L,
         TmpFileSegmentWriteOutMediumFactory.instance(),
@@ -264,18 +264,18 @@ public class DataSourceCompactionConfigTest extends InitializedNullHandlingTest
         null,
         new SegmentsSplitHintSpec(new HumanReadableBytes(100000L), null),
         new DynamicPartitionsSpec(1000, 20000L),
-        new IndexSpec(
-            new DefaultBitmapSerdeFactory(),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.LZF,
-            LongEncodingStrategy.LONGS
-        ),
-        new IndexSpec(
-            new DefaultBitmapSerdeFactory(),
-            CompressionStrategy.LZ4,
-            CompressionStrategy.UNCOMPRESSED,
-            LongEncodingStrategy.AUTO
-        ),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new DefaultBitmapSerdeFactory())
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.LZF)
+            .withLongEncoding(LongEncodingStrategy.LONGS)
+            .build(),
+        IndexSpec.builder()
+            .withBitmapSerdeFactory(new DefaultBitmapSerdeFactory())
+            .withDimensionCompression(CompressionStrategy.LZ4)
+            .withMetricCompression(CompressionStrategy.UNCOMPRESSED)
+            .withLongEncoding(LongEncodingStrategy.AUTO)
+            .build(),
         2,
         1000L,
         TmpFileSegmentWriteOutMediumFactory.instance(),
@@ -1445,7 +1445,9 @@ public class NewestSegmentFirstPolicyTest
   public void testIteratorReturnsSegmentsAsCompactionStateChangedWithCompactedStateHasSameSegmentGranularity()
   {
     // Different indexSpec as what is set in the auto compaction config
-    IndexSpec newIndexSpec = new IndexSpec(new ConciseBitmapSerdeFactory(), null, null, null);
+    IndexSpec newIndexSpec = IndexSpec.builder()
+        .withBitmapSerdeFactory(new ConciseBitmapSerdeFactory())
+        .build();
     Map<String, Object> newIndexSpecMap = mapper.convertValue(newIndexSpec, new TypeReference<Map<String, Object>>() {});
     PartitionsSpec partitionsSpec = NewestSegmentFirstIterator.findPartitionsSpecFromConfig(ClientCompactionTaskQueryTuningConfig.from(null, null, null));
 
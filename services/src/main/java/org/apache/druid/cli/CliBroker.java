@@ -25,6 +25,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import com.google.inject.Key;
 import com.google.inject.Module;
+import com.google.inject.Provider;
 import com.google.inject.name.Names;
 import org.apache.druid.client.BrokerInternalQueryConfig;
 import org.apache.druid.client.BrokerSegmentWatcherConfig;
@@ -70,6 +71,7 @@ import org.apache.druid.server.initialization.jetty.JettyServerInitializer;
 import org.apache.druid.server.metrics.QueryCountStatsProvider;
 import org.apache.druid.server.router.TieredBrokerConfig;
 import org.apache.druid.sql.guice.SqlModule;
+import org.apache.druid.timeline.PruneColumnStats;
 import org.apache.druid.timeline.PruneLoadSpec;
 import org.eclipse.jetty.server.Server;
 
@@ -121,6 +123,7 @@ public class CliBroker extends ServerRunnable
           binder.bindConstant().annotatedWith(Names.named("servicePort")).to(8082);
           binder.bindConstant().annotatedWith(Names.named("tlsServicePort")).to(8282);
           binder.bindConstant().annotatedWith(PruneLoadSpec.class).to(true);
+          binder.bind(Key.get(Boolean.class, PruneColumnStats.class)).toProvider(PruneColumnStatsProvider.class);
           binder.bind(ResponseContextConfig.class).toInstance(ResponseContextConfig.newConfig(false));
 
           binder.bind(CachingClusteredClient.class).in(LazySingleton.class);
@@ -174,4 +177,25 @@ public class CliBroker extends ServerRunnable
         new SqlModule()
     );
   }
+
+  /**
+   * Prunes the column stats of segments, which are only used to skip segments that cannot match query filters, unless
+   * "druid.broker.segment.keepColumnStats" is true.
+   */
+  private static class PruneColumnStatsProvider implements Provider<Boolean>
+  {
+    private final BrokerSegmentWatcherConfig config;
+
+    @Inject
+    PruneColumnStatsProvider(BrokerSegmentWatcherConfig config)
+    {
+      this.config = config;
+    }
+
+    @Override
+    public Boolean get()
+    {
+      return !config.isKeepColumnStats();
+    }
+  }
 }
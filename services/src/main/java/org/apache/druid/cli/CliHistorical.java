@@ -57,6 +57,7 @@ import org.apache.druid.server.http.SegmentListerResource;
 import org.apache.druid.server.http.SelfDiscoveryResource;
 import org.apache.druid.server.initialization.jetty.JettyServerInitializer;
 import org.apache.druid.server.metrics.QueryCountStatsProvider;
+import org.apache.druid.timeline.PruneColumnStats;
 import org.apache.druid.timeline.PruneLastCompactionState;
 import org.eclipse.jetty.server.Server;
 
@@ -105,6 +106,7 @@ public class CliHistorical extends ServerRunnable
           binder.bindConstant().annotatedWith(Names.named("servicePort")).to(8083);
           binder.bindConstant().annotatedWith(Names.named("tlsServicePort")).to(8283);
           binder.bindConstant().annotatedWith(PruneLastCompactionState.class).to(true);
+          binder.bindConstant().annotatedWith(PruneColumnStats.class).to(true);
           binder.bind(ResponseContextConfig.class).toInstance(ResponseContextConfig.newConfig(true));
 
           // register Server before binding ZkCoordinator to ensure HTTP endpoints are available immediately
@@ -77,6 +77,7 @@ import org.apache.druid.server.http.SegmentListerResource;
 import org.apache.druid.server.http.SelfDiscoveryResource;
 import org.apache.druid.server.initialization.jetty.CliIndexerServerModule;
 import org.apache.druid.server.initialization.jetty.JettyServerInitializer;
+import org.apache.druid.timeline.PruneColumnStats;
 import org.eclipse.jetty.server.Server;
 
 import java.util.List;
@@ -132,6 +133,7 @@ public class CliIndexer extends ServerRunnable
             binder.bindConstant().annotatedWith(Names.named("serviceName")).to("druid/indexer");
             binder.bindConstant().annotatedWith(Names.named("servicePort")).to(8091);
             binder.bindConstant().annotatedWith(Names.named("tlsServicePort")).to(8291);
+            binder.bindConstant().annotatedWith(PruneColumnStats.class).to(true);
             binder.bind(ResponseContextConfig.class).toInstance(ResponseContextConfig.newConfig(true));
 
             IndexingServiceModuleHelper.configureTaskRunnerConfigs(binder);
@@ -75,6 +75,7 @@ import org.apache.druid.server.DruidNode;
 import org.apache.druid.server.http.SelfDiscoveryResource;
 import org.apache.druid.server.initialization.jetty.JettyServerInitializer;
 import org.apache.druid.server.metrics.WorkerTaskCountStatsProvider;
+import org.apache.druid.timeline.PruneColumnStats;
 import org.apache.druid.timeline.PruneLastCompactionState;
 import org.eclipse.jetty.server.Server;
 
@@ -126,6 +127,7 @@ public class CliMiddleManager extends ServerRunnable
             binder.bindConstant().annotatedWith(Names.named("servicePort")).to(8091);
             binder.bindConstant().annotatedWith(Names.named("tlsServicePort")).to(8291);
             binder.bindConstant().annotatedWith(PruneLastCompactionState.class).to(true);
+            binder.bindConstant().annotatedWith(PruneColumnStats.class).to(true);
 
             IndexingServiceModuleHelper.configureTaskRunnerConfigs(binder);
 
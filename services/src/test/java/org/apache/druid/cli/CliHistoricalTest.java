@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import org.apache.druid.guice.GuiceInjectors;
+import org.apache.druid.guice.annotations.Json;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.segment.column.ColumnStats;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.PruneColumnStats;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Properties;
+
+public class CliHistoricalTest
+{
+  @Test
+  public void testPruneColumnStats() throws Exception
+  {
+    final CliHistorical historical = new CliHistorical();
+    GuiceInjectors.makeStartupInjector().injectMembers(historical);
+    final Injector injector = historical.makeInjector(historical.getNodeRoles(new Properties()));
+    Assert.assertTrue(injector.getInstance(Key.get(Boolean.class, PruneColumnStats.class)));
+
+    // column stats are only used by Brokers, so Historicals drop them when they deserialize segments
+    final DataSegment segment = DataSegment.builder()
+                                           .dataSource("foo")
+                                           .interval(Intervals.of("2012-01-01/2012-01-02"))
+                                           .version("1")
+                                           .size(0)
+                                           .columnStats(ImmutableMap.of(
+                                               "dim1",
+                                               new ColumnStats(ValueType.STRING, "a", "b", 1, 2)
+                                           ))
+                                           .build();
+    final ObjectMapper jsonMapper = injector.getInstance(Key.get(ObjectMapper.class, Json.class));
+    final DataSegment deserialized = jsonMapper.readValue(jsonMapper.writeValueAsString(segment), DataSegment.class);
+    Assert.assertEquals(segment, deserialized);
+    Assert.assertNull(deserialized.getColumnStats());
+  }
+}